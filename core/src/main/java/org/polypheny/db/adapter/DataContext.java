@@ -152,6 +152,11 @@ enum Variable {
          */
         TIMEOUT( "timeout", Long.class ),
 
+        /**
+         * Degree of parallelism used for executing the current statement. When not present, the configured default is used.
+         */
+        PARALLELISM( "parallelism", Integer.class ),
+
         /**
          * Advisor that suggests completion hints for language statements.
          */
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.adapter.cache.SourceSidecar.Block;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Reads the rows of a {@link SourceSidecar}. Blocks whose statistics rule out the filter are skipped and only the
+ * columns which are projected or filtered are decoded.
+ */
+final class SidecarEnumerator implements Enumerator<PolyValue[]> {
+
+    private final FileChannel channel;
+    private final List<Block> blocks;
+    private final int[] fields;
+    @Nullable
+    private final PolyValue[] equalTo;
+    private final AtomicBoolean cancelFlag;
+
+    /**
+     * Whether a column has to be decoded.
+     */
+    private final boolean[] needed;
+    private final PolyValue[][] columns;
+
+    private int block = -1;
+    private int row;
+    private int rows;
+    private PolyValue[] current;
+
+
+    SidecarEnumerator( FileChannel channel, List<Block> blocks, int columnCount, int[] fields, @Nullable PolyValue[] equalTo, AtomicBoolean cancelFlag ) {
+        this.channel = channel;
+        this.blocks = blocks;
+        this.fields = fields;
+        this.equalTo = equalTo;
+        this.cancelFlag = cancelFlag;
+        this.needed = new boolean[columnCount];
+        for ( int field : fields ) {
+            needed[field] = true;
+        }
+        if ( equalTo != null ) {
+            for ( int c = 0; c < equalTo.length; c++ ) {
+                needed[c] |= equalTo[c] != null;
+            }
+        }
+        this.columns = new PolyValue[columnCount][];
+    }
+
+
+    @Override
+    public PolyValue[] current() {
+        return current;
+    }
+
+
+    @Override
+    public boolean moveNext() {
+        try {
+            while ( true ) {
+                if ( cancelFlag.get() ) {
+                    return false;
+                }
+                while ( row >= rows ) {
+                    if ( !nextBlock() ) {
+                        current = null;
+                        return false;
+                    }
+                }
+                int r = row++;
+                if ( matches( r ) ) {
+                    PolyValue[] values = new PolyValue[fields.length];
+                    for ( int i = 0; i < fields.length; i++ ) {
+                        PolyValue value = columns[fields[i]][r];
+                        values[i] = value == null ? PolyNull.NULL : value;
+                    }
+                    current = values;
+                    return true;
+                }
+            }
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read sidecar", e );
+        }
+    }
+
+
+    private boolean matches( int r ) {
+        if ( equalTo == null ) {
+            return true;
+        }
+        for ( int c = 0; c < equalTo.length; c++ ) {
+            if ( equalTo[c] == null ) {
+                continue;
+            }
+            PolyValue value = columns[c][r];
+            if ( value == null ) {
+                return false;
+            }
+            Integer comparison = SidecarValues.compare( value, equalTo[c] );
+            if ( comparison == null ? !value.equals( equalTo[c] ) : comparison != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Decodes the needed columns of the next block which may contain matching rows.
+     *
+     * @return {@code false} if there are no more blocks
+     */
+    private boolean nextBlock() throws IOException {
+        while ( ++block < blocks.size() ) {
+            Block next = blocks.get( block );
+            if ( !mayMatch( next ) ) {
+                continue;
+            }
+            long position = next.offset();
+            ByteBuffer lengthBuffer = ByteBuffer.allocate( Integer.BYTES );
+            for ( int c = 0; c < columns.length; c++ ) {
+                lengthBuffer.clear();
+                readFully( lengthBuffer, position );
+                int length = lengthBuffer.getInt( 0 );
+                position += Integer.BYTES;
+                if ( needed[c] ) {
+                    ByteBuffer data = ByteBuffer.allocate( length );
+                    readFully( data, position );
+                    DataInputStream in = new DataInputStream( new ByteArrayInputStream( data.array() ) );
+                    PolyValue[] values = new PolyValue[next.rows()];
+                    for ( int r = 0; r < values.length; r++ ) {
+                        values[r] = SidecarValues.read( in );
+                    }
+                    columns[c] = values;
+                }
+                position += length;
+            }
+            row = 0;
+            rows = next.rows();
+            return true;
+        }
+        return false;
+    }
+
+
+    private boolean mayMatch( Block block ) {
+        if ( equalTo == null ) {
+            return true;
+        }
+        for ( int c = 0; c < equalTo.length; c++ ) {
+            if ( equalTo[c] != null && !block.mayContain( c, equalTo[c] ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private void readFully( ByteBuffer buffer, long position ) throws IOException {
+        while ( buffer.hasRemaining() ) {
+            int read = channel.read( buffer, position );
+            if ( read < 0 ) {
+                throw new GenericRuntimeException( "Unexpected end of sidecar" );
+            }
+            position += read;
+        }
+    }
+
+
+    @Override
+    public void reset() {
+        block = -1;
+        row = 0;
+        rows = 0;
+        current = null;
+    }
+
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not close sidecar", e );
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+
+
+/**
+ * Binary encoding of the values stored in a {@link SourceSidecar}. Every value is prefixed with a tag, which allows a column
+ * to contain values of different types. Values without a dedicated tag are stored as typed JSON.
+ */
+final class SidecarValues {
+
+    private static final byte NULL = 0;
+    private static final byte INTEGER = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte STRING = 6;
+    private static final byte DATE = 7;
+    private static final byte TIME = 8;
+    private static final byte TIMESTAMP = 9;
+    private static final byte DECIMAL = 10;
+    private static final byte OTHER = 11;
+
+
+    private SidecarValues() {
+        // Utility class
+    }
+
+
+    static void write( DataOutput out, @Nullable PolyValue value ) throws IOException {
+        if ( value == null || value.isNull() ) {
+            out.writeByte( NULL );
+        } else if ( value instanceof PolyInteger integer ) {
+            out.writeByte( INTEGER );
+            out.writeInt( integer.value );
+        } else if ( value instanceof PolyLong polyLong ) {
+            out.writeByte( LONG );
+            out.writeLong( polyLong.value );
+        } else if ( value instanceof PolyDouble polyDouble ) {
+            out.writeByte( DOUBLE );
+            out.writeDouble( polyDouble.value );
+        } else if ( value instanceof PolyFloat polyFloat ) {
+            out.writeByte( FLOAT );
+            out.writeFloat( polyFloat.value );
+        } else if ( value instanceof PolyBoolean bool ) {
+            out.writeByte( BOOLEAN );
+            out.writeBoolean( bool.value );
+        } else if ( value instanceof PolyString string ) {
+            out.writeByte( STRING );
+            writeString( out, string.value );
+        } else if ( value instanceof PolyDate date ) {
+            out.writeByte( DATE );
+            out.writeLong( date.millisSinceEpoch );
+        } else if ( value instanceof PolyTime time ) {
+            out.writeByte( TIME );
+            out.writeInt( time.ofDay );
+        } else if ( value instanceof PolyTimestamp timestamp ) {
+            out.writeByte( TIMESTAMP );
+            out.writeLong( timestamp.millisSinceEpoch );
+        } else if ( value instanceof PolyBigDecimal decimal ) {
+            out.writeByte( DECIMAL );
+            writeString( out, decimal.value.toString() );
+        } else {
+            out.writeByte( OTHER );
+            writeString( out, value.toTypedJson() );
+        }
+    }
+
+
+    /**
+     * @return The value or {@code null} for SQL NULL
+     */
+    @Nullable
+    static PolyValue read( DataInput in ) throws IOException {
+        byte tag = in.readByte();
+        return switch ( tag ) {
+            case NULL -> null;
+            case INTEGER -> PolyInteger.of( in.readInt() );
+            case LONG -> PolyLong.of( in.readLong() );
+            case DOUBLE -> PolyDouble.of( in.readDouble() );
+            case FLOAT -> PolyFloat.of( in.readFloat() );
+            case BOOLEAN -> PolyBoolean.of( in.readBoolean() );
+            case STRING -> PolyString.of( readString( in ) );
+            case DATE -> PolyDate.of( in.readLong() );
+            case TIME -> PolyTime.of( in.readInt() );
+            case TIMESTAMP -> PolyTimestamp.of( in.readLong() );
+            case DECIMAL -> PolyBigDecimal.of( readString( in ) );
+            case OTHER -> PolyValue.fromTypedJson( readString( in ), PolyValue.class );
+            default -> throw new GenericRuntimeException( "Unknown value tag in sidecar: %s", tag );
+        };
+    }
+
+
+    /**
+     * Compares two non-null values. Numbers are compared by their value, independent of their type.
+     * Besides numbers, only strings, booleans and temporal values of the same type are comparable.
+     *
+     * @return The result of the comparison or {@code null} if the values are not comparable
+     */
+    @Nullable
+    static Integer compare( PolyValue a, PolyValue b ) {
+        if ( a.isNumber() && b.isNumber() ) {
+            if ( a.isSameType( b ) ) {
+                return a.compareTo( b );
+            }
+            return a.asNumber().bigDecimalValue().compareTo( b.asNumber().bigDecimalValue() );
+        }
+        if ( !a.isSameType( b ) || !(a.isString() || a.isBoolean() || a.isTemporal()) ) {
+            return null;
+        }
+        return a.compareTo( b );
+    }
+
+
+    private static void writeString( DataOutput out, String value ) throws IOException {
+        byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+
+    private static String readString( DataInput in ) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+}
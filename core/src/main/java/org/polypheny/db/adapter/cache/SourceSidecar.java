@@ -0,0 +1,407 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerator;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.StatisticsManager;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.monitoring.events.MonitoringType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.PolyphenyHomeDirManager;
+
+
+/**
+ * A binary copy of the rows of a file-based source, stored in the Polypheny home directory. Reading the sidecar avoids
+ * parsing the original text file again for every query.
+ * <p>
+ * The rows are stored in blocks of {@value #BLOCK_SIZE} rows. Within a block, the values are stored column by column,
+ * which allows reading only the projected columns. For every column of a block, the minimum, the maximum and the number
+ * of nulls are kept, which allows skipping blocks that cannot contain rows matching an equality filter.
+ * <p>
+ * A sidecar is only used as long as size, modification time and a checksum of the source file match the values recorded
+ * when the sidecar was built. Otherwise, the source has to be read directly and a new sidecar is built in the background.
+ */
+@Slf4j
+public final class SourceSidecar {
+
+    static final int MAGIC = 0x50534331;
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 4096;
+
+    /**
+     * Number of bytes at the beginning and at the end of the source file which are included in the checksum.
+     * Hashing the whole file would be as expensive as parsing it.
+     */
+    static final int CHECKSUM_SAMPLE_SIZE = 1 << 16;
+
+    private static final String FOLDER = "data/sidecar";
+
+    private static final Set<File> BUILDING = ConcurrentHashMap.newKeySet();
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool( r -> {
+        Thread thread = new Thread( r, "SidecarBuilder" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    @Getter
+    private final File file;
+    @Getter
+    private final File source;
+
+    private volatile Metadata metadata;
+
+
+    /**
+     * @param file The file the rows are cached in, use {@link #of(long, String, File)} to place it in the Polypheny home directory
+     * @param source The source file
+     */
+    public SourceSidecar( File file, File source ) {
+        this.file = file;
+        this.source = source;
+    }
+
+
+    /**
+     * @param adapterId The adapter the source belongs to, used to remove all sidecars of an adapter, see {@link #deleteAll(long)}
+     * @param name Name of the entity read from the source
+     * @param source The source file
+     */
+    public static SourceSidecar of( long adapterId, String name, File source ) {
+        File folder = PolyphenyHomeDirManager.getInstance().registerNewFolder( FOLDER + "/" + adapterId );
+        String fileName = name.replaceAll( "[^A-Za-z0-9_-]", "_" ) + "-" + Integer.toHexString( source.getAbsolutePath().hashCode() ) + ".bin";
+        return new SourceSidecar( new File( folder, fileName ), source );
+    }
+
+
+    /**
+     * Removes the sidecars of all sources of an adapter.
+     */
+    public static void deleteAll( long adapterId ) {
+        PolyphenyHomeDirManager.getInstance().recursiveDeleteFolder( FOLDER + "/" + adapterId );
+    }
+
+
+    /**
+     * Opens an enumerator over the cached rows.
+     *
+     * @param fields Columns to return
+     * @param equalTo Values the columns have to be equal to, {@code null} for columns which are not filtered
+     * @return The enumerator or {@code null} if there is no sidecar matching the current state of the source
+     */
+    @Nullable
+    public Enumerator<PolyValue[]> open( int[] fields, @Nullable PolyValue[] equalTo, AtomicBoolean cancelFlag ) {
+        try {
+            Metadata metadata = loadMetadata();
+            if ( metadata == null || !metadata.fingerprint.equals( Fingerprint.of( source ) ) ) {
+                return null;
+            }
+            return new SidecarEnumerator( FileChannel.open( file.toPath(), StandardOpenOption.READ ), metadata.blocks, metadata.columnCount, fields, equalTo, cancelFlag );
+        } catch ( IOException | RuntimeException e ) {
+            log.warn( "Could not read sidecar {}, reading the source instead", file, e );
+            return null;
+        }
+    }
+
+
+    /**
+     * Builds the sidecar in the background, unless a build is already running. Once the sidecar is complete,
+     * its row count is passed to the {@link StatisticsManager}.
+     *
+     * @param rows Supplies an enumerator over all columns of all rows of the source
+     * @param entityId The logical entity whose row count is updated
+     */
+    public void scheduleBuild( Supplier<Enumerator<PolyValue[]>> rows, int columnCount, long entityId ) {
+        if ( !BUILDING.add( file ) ) {
+            return;
+        }
+        EXECUTOR.submit( () -> {
+            try {
+                long rowCount = build( rows.get(), columnCount );
+                if ( StatisticsManager.INSTANCE != null ) {
+                    StatisticsManager.getInstance().updateRowCountPerEntity( entityId, rowCount, MonitoringType.SET_ROW_COUNT );
+                }
+            } catch ( Throwable t ) {
+                log.warn( "Could not build sidecar for {}", source, t );
+            } finally {
+                BUILDING.remove( file );
+            }
+        } );
+    }
+
+
+    /**
+     * Writes all rows to a temporary file, which replaces the sidecar once it is complete.
+     *
+     * @return The number of rows
+     */
+    public long build( Enumerator<PolyValue[]> rows, int columnCount ) throws IOException {
+
+        // Taken before reading, a modification during the build invalidates the sidecar
+        Fingerprint fingerprint = Fingerprint.of( source );
+        File tmp = new File( file.getParentFile(), file.getName() + ".tmp" );
+        long rowCount = 0;
+        try ( rows; DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ), 1 << 16 ) ) ) {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            fingerprint.write( out );
+            out.writeInt( columnCount );
+            long offset = 2 * Integer.BYTES + Fingerprint.BYTES + Integer.BYTES;
+
+            List<Block> blocks = new ArrayList<>();
+            PolyValue[][] buffer = new PolyValue[BLOCK_SIZE][];
+            int buffered = 0;
+            boolean more = true;
+            while ( more ) {
+                more = rows.moveNext();
+                if ( more ) {
+                    buffer[buffered++] = rows.current();
+                }
+                if ( buffered == BLOCK_SIZE || (!more && buffered > 0) ) {
+                    Block block = writeBlock( out, offset, buffer, buffered, columnCount );
+                    blocks.add( block );
+                    offset += block.length;
+                    rowCount += buffered;
+                    buffered = 0;
+                }
+            }
+
+            out.writeInt( blocks.size() );
+            for ( Block block : blocks ) {
+                block.write( out );
+            }
+            out.writeLong( offset );
+        }
+        Files.move( tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        return rowCount;
+    }
+
+
+    private static Block writeBlock( DataOutputStream out, long offset, PolyValue[][] rows, int size, int columnCount ) throws IOException {
+        int[] nullCounts = new int[columnCount];
+        PolyValue[] min = new PolyValue[columnCount];
+        PolyValue[] max = new PolyValue[columnCount];
+        long length = 0;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream column = new DataOutputStream( bytes );
+        for ( int c = 0; c < columnCount; c++ ) {
+            bytes.reset();
+            boolean comparable = true;
+            for ( int r = 0; r < size; r++ ) {
+                PolyValue value = c < rows[r].length ? rows[r][c] : null;
+                if ( value == null || value.isNull() ) {
+                    nullCounts[c]++;
+                    value = null;
+                } else if ( comparable ) {
+                    if ( min[c] == null ) {
+                        min[c] = value;
+                        max[c] = value;
+                    } else {
+                        Integer minComparison = SidecarValues.compare( value, min[c] );
+                        Integer maxComparison = SidecarValues.compare( value, max[c] );
+                        if ( minComparison == null || maxComparison == null ) {
+                            comparable = false;
+                        } else if ( minComparison < 0 ) {
+                            min[c] = value;
+                        } else if ( maxComparison > 0 ) {
+                            max[c] = value;
+                        }
+                    }
+                }
+                SidecarValues.write( column, value );
+            }
+            if ( !comparable ) {
+                min[c] = null;
+                max[c] = null;
+            }
+            out.writeInt( bytes.size() );
+            bytes.writeTo( out );
+            length += Integer.BYTES + bytes.size();
+        }
+        return new Block( offset, length, size, nullCounts, min, max );
+    }
+
+
+    @Nullable
+    private Metadata loadMetadata() throws IOException {
+        if ( !file.exists() ) {
+            return null;
+        }
+        Metadata metadata = this.metadata;
+        if ( metadata != null && metadata.length == file.length() && metadata.modified == file.lastModified() ) {
+            return metadata;
+        }
+        try ( RandomAccessFile raf = new RandomAccessFile( file, "r" ) ) {
+            long length = raf.length();
+            long modified = file.lastModified();
+            if ( raf.readInt() != MAGIC || raf.readInt() != VERSION ) {
+                return null;
+            }
+            Fingerprint fingerprint = Fingerprint.read( raf );
+            int columnCount = raf.readInt();
+            raf.seek( length - Long.BYTES );
+            raf.seek( raf.readLong() );
+            DataInputStream in = new DataInputStream( Channels.newInputStream( raf.getChannel() ) );
+            int blockCount = in.readInt();
+            List<Block> blocks = new ArrayList<>( blockCount );
+            for ( int i = 0; i < blockCount; i++ ) {
+                blocks.add( Block.read( in, columnCount ) );
+            }
+            metadata = new Metadata( length, modified, fingerprint, columnCount, blocks );
+        }
+        this.metadata = metadata;
+        return metadata;
+    }
+
+
+    /**
+     * @return The number of rows in the sidecar or {@code null} if there is no sidecar matching the current state of the source
+     */
+    @Nullable
+    public Long getRowCount() {
+        try {
+            Metadata metadata = loadMetadata();
+            if ( metadata == null || !metadata.fingerprint.equals( Fingerprint.of( source ) ) ) {
+                return null;
+            }
+            return metadata.blocks.stream().mapToLong( Block::rows ).sum();
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read sidecar %s", e, file );
+        }
+    }
+
+
+    private record Metadata( long length, long modified, Fingerprint fingerprint, int columnCount, List<Block> blocks ) {
+
+    }
+
+
+    /**
+     * Identifies a state of the source file.
+     */
+    record Fingerprint( long size, long modified, long checksum ) {
+
+        static final int BYTES = 3 * Long.BYTES;
+
+
+        static Fingerprint of( File source ) throws IOException {
+            CRC32 crc = new CRC32();
+            try ( RandomAccessFile raf = new RandomAccessFile( source, "r" ) ) {
+                long size = raf.length();
+                byte[] buffer = new byte[(int) Math.min( size, CHECKSUM_SAMPLE_SIZE )];
+                raf.readFully( buffer );
+                crc.update( buffer );
+                if ( size > CHECKSUM_SAMPLE_SIZE ) {
+                    raf.seek( Math.max( CHECKSUM_SAMPLE_SIZE, size - CHECKSUM_SAMPLE_SIZE ) );
+                    int read = raf.read( buffer );
+                    crc.update( buffer, 0, Math.max( read, 0 ) );
+                }
+                return new Fingerprint( size, source.lastModified(), crc.getValue() );
+            }
+        }
+
+
+        void write( DataOutputStream out ) throws IOException {
+            out.writeLong( size );
+            out.writeLong( modified );
+            out.writeLong( checksum );
+        }
+
+
+        static Fingerprint read( RandomAccessFile in ) throws IOException {
+            return new Fingerprint( in.readLong(), in.readLong(), in.readLong() );
+        }
+
+    }
+
+
+    /**
+     * Position and column statistics of a block.
+     */
+    record Block( long offset, long length, int rows, int[] nullCounts, PolyValue[] min, PolyValue[] max ) {
+
+        /**
+         * @return {@code false} if no row of this block can have the given value in the given column
+         */
+        boolean mayContain( int column, PolyValue value ) {
+            if ( nullCounts[column] == rows ) {
+                return false;
+            }
+            if ( min[column] == null || max[column] == null ) {
+                return true;
+            }
+            Integer minComparison = SidecarValues.compare( min[column], value );
+            Integer maxComparison = SidecarValues.compare( max[column], value );
+            return minComparison == null || maxComparison == null || (minComparison <= 0 && maxComparison >= 0);
+        }
+
+
+        void write( DataOutputStream out ) throws IOException {
+            out.writeLong( offset );
+            out.writeLong( length );
+            out.writeInt( rows );
+            for ( int c = 0; c < nullCounts.length; c++ ) {
+                out.writeInt( nullCounts[c] );
+                SidecarValues.write( out, min[c] );
+                SidecarValues.write( out, max[c] );
+            }
+        }
+
+
+        static Block read( DataInputStream in, int columnCount ) throws IOException {
+            long offset = in.readLong();
+            long length = in.readLong();
+            int rows = in.readInt();
+            int[] nullCounts = new int[columnCount];
+            PolyValue[] min = new PolyValue[columnCount];
+            PolyValue[] max = new PolyValue[columnCount];
+            for ( int c = 0; c < columnCount; c++ ) {
+                nullCounts[c] = in.readInt();
+                min[c] = SidecarValues.read( in );
+                max[c] = SidecarValues.read( in );
+            }
+            return new Block( offset, length, rows, nullCounts, min, max );
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.core.document;
+
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.rules.DocumentPushdownRule;
+import org.polypheny.db.schema.document.DocumentPushdown;
+
+/**
+ * A document scan which prunes fields and drops documents while parsing, as described by its {@link DocumentPushdown}.
+ * The pushdown is derived from the operators above the scan by the {@link DocumentPushdownRule}.
+ */
+public interface DocumentPushdownScan extends AlgNode {
+
+    DocumentPushdown getPushdown();
+
+    /**
+     * @return A copy of this scan which applies the given pushdown
+     */
+    AlgNode withPushdown( DocumentPushdown pushdown );
+
+}
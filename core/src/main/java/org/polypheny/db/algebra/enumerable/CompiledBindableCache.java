@@ -0,0 +1,401 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.enumerable;
+
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.tree.ClassDeclaration;
+import org.apache.calcite.linq4j.tree.FieldDeclaration;
+import org.apache.calcite.linq4j.tree.VisitorImpl;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.runtime.ArrayBindable;
+import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Typed;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Cache of the bindables compiled from generated code, keyed by the hash of the generated source.
+ * <p>
+ * Plans which differ only in parameters or in values stashed in the data context generate identical code, so they can
+ * share one compiled class. Janino loads every compiled class with its own class loader. Plans only reference the
+ * compiled classes through handles, which drop their reference when the class is evicted from this bounded cache and
+ * compile it again on their next execution. This way, an evicted class and its class loader can be unloaded even if
+ * plans using it are still cached.
+ */
+@Slf4j
+public final class CompiledBindableCache {
+
+    public static final CompiledBindableCache INSTANCE = new CompiledBindableCache();
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private volatile Cache<String, Slot> bindables;
+
+    private final ExecutorService compiler = Executors.newFixedThreadPool(
+            Math.max( 1, Runtime.getRuntime().availableProcessors() / 2 ),
+            runnable -> {
+                Thread thread = new Thread( runnable, "polypheny-compiler-" + THREAD_COUNTER.getAndIncrement() );
+                thread.setDaemon( true );
+                return thread;
+            } );
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong interpreted = new AtomicLong();
+
+
+    private CompiledBindableCache() {
+        bindables = buildCache( RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.getInteger() );
+        RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.addObserver( new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                resize( c.getInt() );
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+
+            }
+        } );
+    }
+
+
+    private static Cache<String, Slot> buildCache( int size ) {
+        return CacheBuilder.newBuilder()
+                .maximumSize( size )
+                .removalListener( (RemovalListener<String, Slot>) notification -> {
+                    if ( notification.getCause() != RemovalCause.REPLACED ) {
+                        // handles still referencing the slot compile the class again instead of keeping it loaded
+                        notification.getValue().bindable = null;
+                    }
+                } )
+                .build();
+    }
+
+
+    /**
+     * Replaces the cache with one of the given size. The cached classes are kept as far as they fit into the new cache.
+     */
+    private synchronized void resize( int size ) {
+        final Cache<String, Slot> previous = bindables;
+        final Cache<String, Slot> resized = buildCache( size );
+        resized.putAll( previous.asMap() );
+        bindables = resized;
+        // classes loaded into the previous cache meanwhile are released as well
+        previous.asMap().forEach( ( key, slot ) -> {
+            if ( resized.getIfPresent( key ) != slot ) {
+                slot.bindable = null;
+            }
+        } );
+    }
+
+
+    /**
+     * Returns the bindable for the given generated class, compiling it if it is not yet cached. Classes with static
+     * fields are never shared, as their state would be visible to all plans using them.
+     *
+     * @param interpreter creates a bindable which executes the plan without the generated code while it is compiled in
+     * the background. It is only called if the compilation is asynchronous and returns {@code null} if the plan is not
+     * supported by the interpreter.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Bindable<T> get( ClassDeclaration expr, String source, int fieldCount, Callable<Bindable<T>> compile, Supplier<ArrayBindable<PolyValue>> interpreter ) throws Exception {
+        if ( !RuntimeConfig.COMPILED_CLASS_CACHING.getBoolean() || containsStaticField( expr ) ) {
+            return compileMaybeAsync( fieldCount, compile, interpreter );
+        }
+        final String key = hash( source );
+        final Slot cached = bindables.getIfPresent( key );
+        final Bindable<?> bindable = cached == null ? null : cached.bindable;
+        if ( bindable != null ) {
+            hits.incrementAndGet();
+            return (Bindable<T>) handle( key, cached, bindable, compile );
+        }
+        return compileMaybeAsync( fieldCount, () -> {
+            final Slot slot = load( key, compile );
+            return (Bindable<T>) handle( key, slot, slot.bindable, compile );
+        }, interpreter );
+    }
+
+
+    /**
+     * Returns the slot of the given class, compiling the class if it is not cached.
+     * Concurrent compilations of the same source are merged by the cache.
+     */
+    private Slot load( String key, Callable<? extends Bindable<?>> compile ) throws Exception {
+        try {
+            return bindables.get( key, () -> {
+                misses.incrementAndGet();
+                return new Slot( compile.call() );
+            } );
+        } catch ( ExecutionException | UncheckedExecutionException e ) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+
+    private Bindable<?> handle( String key, Slot slot, @Nullable Bindable<?> bindable, Callable<? extends Bindable<?>> compile ) {
+        final Handle handle = new Handle( key, slot, compile );
+        if ( bindable instanceof ArrayBindable<?> ) {
+            return new ArrayHandle( handle );
+        }
+        return new TypedHandle<>( handle, bindable instanceof Typed typed ? typed.getElementType() : Object.class );
+    }
+
+
+    private <T> Bindable<T> compileMaybeAsync( int fieldCount, Callable<Bindable<T>> compile, Supplier<ArrayBindable<PolyValue>> interpreter ) throws Exception {
+        // only array bindables can be returned before they are compiled, as their element type is known upfront
+        if ( !RuntimeConfig.ASYNC_COMPILATION.getBoolean() || fieldCount == 1 ) {
+            return compile.call();
+        }
+        final CompletableFuture<Bindable<T>> future = new CompletableFuture<>();
+        compiler.submit( () -> {
+            try {
+                future.complete( compile.call() );
+            } catch ( Throwable t ) {
+                future.completeExceptionally( t );
+            }
+        } );
+        return (Bindable<T>) new DeferredBindable( (CompletableFuture<Bindable<PolyValue[]>>) (CompletableFuture<?>) future, Suppliers.memoize( interpreter::get ), interpreted );
+    }
+
+
+    public void reset() {
+        bindables.invalidateAll();
+        hits.set( 0 );
+        misses.set( 0 );
+        interpreted.set( 0 );
+    }
+
+
+    public long getHits() {
+        return hits.get();
+    }
+
+
+    /**
+     * The number of compilations of cacheable classes, including classes which are compiled again after their eviction.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+
+    /**
+     * The number of executions which were interpreted, because the generated code was not yet compiled.
+     */
+    public long getInterpreted() {
+        return interpreted.get();
+    }
+
+
+    public long getSize() {
+        return bindables.size();
+    }
+
+
+    private static String hash( String source ) {
+        try {
+            return HexFormat.of().formatHex( MessageDigest.getInstance( "SHA-256" ).digest( source.getBytes( StandardCharsets.UTF_8 ) ) );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new GenericRuntimeException( e );
+        }
+    }
+
+
+    private static boolean containsStaticField( ClassDeclaration expr ) {
+        final StaticFieldDetector detector = new StaticFieldDetector();
+        expr.accept( detector );
+        return detector.containsStaticField;
+    }
+
+
+    private static class StaticFieldDetector extends VisitorImpl<Void> {
+
+        private boolean containsStaticField;
+
+
+        @Override
+        public Void visit( FieldDeclaration fieldDeclaration ) {
+            containsStaticField |= (fieldDeclaration.modifier & Modifier.STATIC) != 0;
+            return containsStaticField ? null : super.visit( fieldDeclaration );
+        }
+
+    }
+
+
+    /**
+     * Array bindable which is returned while the generated code is compiled in the background. Until the compilation has
+     * finished, the plan is executed by the interpreter if it supports the plan; otherwise binding waits for the compilation.
+     */
+    private static class DeferredBindable implements ArrayBindable<PolyValue> {
+
+        private final CompletableFuture<Bindable<PolyValue[]>> compiled;
+        private final Supplier<ArrayBindable<PolyValue>> interpreter;
+        private final AtomicLong interpreted;
+
+
+        private DeferredBindable( CompletableFuture<Bindable<PolyValue[]>> compiled, Supplier<ArrayBindable<PolyValue>> interpreter, AtomicLong interpreted ) {
+            this.compiled = compiled;
+            this.interpreter = interpreter;
+            this.interpreted = interpreted;
+        }
+
+
+        @Override
+        public Class<PolyValue[]> getElementType() {
+            return PolyValue[].class;
+        }
+
+
+        @Override
+        public Enumerable<PolyValue[]> bind( DataContext dataContext ) {
+            final ArrayBindable<PolyValue> interpreter = compiled.isDone() ? null : this.interpreter.get();
+            if ( interpreter != null ) {
+                try {
+                    final Enumerable<PolyValue[]> enumerable = interpreter.bind( dataContext );
+                    interpreted.incrementAndGet();
+                    return enumerable;
+                } catch ( RuntimeException | AssertionError e ) {
+                    // the interpreter rejects operators it does not implement when it is created
+                    log.debug( "Unable to interpret the plan, waiting for the compilation of the generated code", e );
+                }
+            }
+            try {
+                return compiled.get().bind( dataContext );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GenericRuntimeException( "Interrupted while waiting for the compilation of generated code", e );
+            } catch ( ExecutionException e ) {
+                throw new GenericRuntimeException( "Error while compiling generated Java code", e.getCause() );
+            }
+        }
+
+    }
+
+
+
+    /**
+     * Entry of the cache. The reference to the compiled class is cleared when the entry is removed from the cache.
+     */
+    private static class Slot {
+
+        @Nullable
+        private volatile Bindable<?> bindable;
+
+
+        private Slot( Bindable<?> bindable ) {
+            this.bindable = bindable;
+        }
+
+    }
+
+
+    /**
+     * Reference of a plan to a cached class, which is compiled again if it was evicted.
+     */
+    private final class Handle {
+
+        private final String key;
+        private final Callable<? extends Bindable<?>> compile;
+        private volatile Slot slot;
+
+
+        private Handle( String key, Slot slot, Callable<? extends Bindable<?>> compile ) {
+            this.key = key;
+            this.slot = slot;
+            this.compile = compile;
+        }
+
+
+        private Bindable<?> get() {
+            Bindable<?> bindable = slot.bindable;
+            while ( bindable == null ) {
+                try {
+                    slot = load( key, compile );
+                } catch ( Exception e ) {
+                    throw new GenericRuntimeException( "Error while compiling generated Java code", e );
+                }
+                bindable = slot.bindable;
+            }
+            return bindable;
+        }
+
+    }
+
+
+    private record ArrayHandle( Handle handle ) implements ArrayBindable<PolyValue> {
+
+        @Override
+        public Class<PolyValue[]> getElementType() {
+            return PolyValue[].class;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Enumerable<PolyValue[]> bind( DataContext dataContext ) {
+            return ((Bindable<PolyValue[]>) handle.get()).bind( dataContext );
+        }
+
+    }
+
+
+    private record TypedHandle<T>( Handle handle, Type elementType ) implements Bindable<T>, Typed {
+
+        @Override
+        public Type getElementType() {
+            return elementType;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Enumerable<T> bind( DataContext dataContext ) {
+            return ((Bindable<T>) handle.get()).bind( dataContext );
+        }
+
+    }
+
+}
@@ -63,6 +63,7 @@
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.linq4j.tree.Types;
 import org.jetbrains.annotations.NotNull;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.constant.SemiJoinType;
@@ -74,6 +75,7 @@
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.rex.RexProgramBuilder;
+import org.polypheny.db.runtime.ParallelEnumerables;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.entity.PolyBoolean;
 import org.polypheny.db.type.entity.PolyList;
@@ -345,6 +347,18 @@ public static <T> Expression getExpression( T value, Class<T> clazz ) {
     }
 
 
+    /**
+     * Returns an expression for the degree of parallelism of the executing statement, or the constant {@code 1}
+     * if parallel execution is disabled.
+     */
+    public static Expression parallelism() {
+        if ( !ParallelEnumerables.isEnabled() ) {
+            return Expressions.constant( 1 );
+        }
+        return Expressions.call( BuiltInMethod.PARALLELISM.method, DataContext.ROOT );
+    }
+
+
     @SafeVarargs
     @SuppressWarnings("unused")
     public static Map<Object, Object> ofEntries( Entry<Object, Object>... pairs ) {
@@ -38,8 +38,12 @@
 import com.google.common.collect.ImmutableList;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.function.Function0;
 import org.apache.calcite.linq4j.function.Function1;
@@ -53,6 +57,7 @@
 import org.polypheny.db.algebra.AlgCollations;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.InvalidAlgException;
+import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.Aggregate;
 import org.polypheny.db.algebra.core.AggregateCall;
 import org.polypheny.db.algebra.enumerable.impl.AggAddContextImpl;
@@ -63,10 +68,24 @@
 import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.prepare.JavaTypeFactoryImpl.SyntheticRecordType;
+import org.polypheny.db.rex.RexCall;
 import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexLocalRef;
 import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexProgram;
+import org.polypheny.db.runtime.ParallelEnumerables;
+import org.polypheny.db.runtime.vector.ColumnVector;
+import org.polypheny.db.runtime.vector.VectorFilters;
+import org.polypheny.db.runtime.vector.VectorHashAggregate;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyLong;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.ImmutableBitSet;
 import org.polypheny.db.util.Pair;
@@ -123,10 +142,22 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final JavaTypeFactory typeFactory = implementor.getTypeFactory();
         final BlockBuilder builder = new BlockBuilder();
         final EnumerableAlg child = (EnumerableAlg) getInput();
+        final PhysType physType = PhysTypeImpl.of( typeFactory, getTupleType(), pref.preferCustom() );
+
+        final boolean vectorized = RuntimeConfig.VECTORIZED_EXECUTION.getBoolean() && isVectorizable();
+        final VectorizedCalc calc = vectorized ? VectorizedCalc.of( child ) : null;
+        if ( calc != null ) {
+            // the calc is evaluated on the column vectors, its input is converted into batches instead of its result
+            final Result result = implementor.visitChild( calc.calc(), 0, (EnumerableAlg) calc.calc().getInput(), pref );
+            return implementVectorized( implementor, builder, result.physType(), builder.append( "child", result.block() ), physType, calc );
+        }
+
         final Result result = implementor.visitChild( this, 0, child, pref );
         Expression childExp = builder.append( "child", result.block() );
 
-        final PhysType physType = PhysTypeImpl.of( typeFactory, getTupleType(), pref.preferCustom() );
+        if ( vectorized ) {
+            return implementVectorized( implementor, builder, result.physType(), childExp, physType, null );
+        }
 
         // final Enumerable<Employee> child = <<child adapter>>;
         // Function1<Employee, Integer> keySelector =
@@ -389,6 +420,186 @@ public RexToLixTranslator rowTranslator() {
     }
 
 
+    /**
+     * Whether this aggregate is evaluated by a {@link VectorHashAggregate} which merges the partial aggregations of several workers.
+     */
+    public boolean isParallel() {
+        return ParallelEnumerables.isEnabled() && RuntimeConfig.VECTORIZED_EXECUTION.getBoolean() && isVectorizable();
+    }
+
+
+    /**
+     * Whether this aggregate can be evaluated by the {@link VectorHashAggregate}, which requires simple grouping and
+     * aggregate functions without distinct, filter or ordering.
+     */
+    private boolean isVectorizable() {
+        if ( getGroupType() != Group.SIMPLE ) {
+            return false;
+        }
+        final List<AlgDataTypeField> inputFields = getInput().getTupleType().getFields();
+        for ( AggregateCall aggCall : aggCalls ) {
+            if ( aggCall.isDistinct() || aggCall.filterArg >= 0 || !aggCall.collation.equals( AlgCollations.EMPTY ) || aggCall.getArgList().size() > 1 ) {
+                return false;
+            }
+            final PolyType argType = aggCall.getArgList().isEmpty() ? null : inputFields.get( aggCall.getArgList().get( 0 ) ).getType().getPolyType();
+            if ( !VectorHashAggregate.supports( aggCall.getAggregation().getKind(), argType ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Implements this aggregate by a {@link VectorHashAggregate}, which converts the input rows into column vectors and
+     * produces the result rows as arrays.
+     *
+     * @param calc the calc below this aggregate which is evaluated on the column vectors, {@code null} if the input rows
+     * are aggregated directly
+     */
+    private Result implementVectorized( EnumerableAlgImplementor implementor, BlockBuilder builder, PhysType inputPhysType, Expression childExp, PhysType physType, @Nullable VectorizedCalc calc ) {
+        final JavaTypeFactory typeFactory = implementor.getTypeFactory();
+        final AlgNode input = calc == null ? getInput() : calc.calc().getInput();
+        final PhysType inputArrayPhysType = PhysTypeImpl.of( typeFactory, input.getTupleType(), JavaTupleFormat.ARRAY );
+        final PhysType arrayPhysType = PhysTypeImpl.of( typeFactory, getTupleType(), JavaTupleFormat.ARRAY );
+
+        final PolyType[] inputTypes = input.getTupleType().getFields().stream().map( f -> f.getType().getPolyType() ).toArray( PolyType[]::new );
+        final Kind[] kinds = new Kind[aggCalls.size()];
+        final int[] args = new int[aggCalls.size()];
+        final PolyType[] resultTypes = new PolyType[aggCalls.size()];
+        for ( Ord<AggregateCall> call : Ord.zip( aggCalls ) ) {
+            kinds[call.i] = call.e.getAggregation().getKind();
+            args[call.i] = call.e.getArgList().isEmpty() ? -1 : call.e.getArgList().get( 0 );
+            resultTypes[call.i] = call.e.type.getPolyType();
+        }
+
+        final Expression aggregate;
+        if ( calc == null ) {
+            aggregate = Expressions.call(
+                    BuiltInMethod.VECTOR_HASH_AGGREGATE.method,
+                    inputPhysType.convertTo( childExp, inputArrayPhysType ),
+                    Expressions.constant( groupSet.toArray() ),
+                    Expressions.constant( inputTypes ),
+                    Expressions.constant( kinds ),
+                    Expressions.constant( args ),
+                    Expressions.constant( resultTypes ),
+                    Expressions.constant( RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() ),
+                    EnumUtils.parallelism() );
+        } else {
+            aggregate = Expressions.call(
+                    BuiltInMethod.VECTOR_FILTER_HASH_AGGREGATE.method,
+                    inputPhysType.convertTo( childExp, inputArrayPhysType ),
+                    Expressions.constant( inputTypes ),
+                    Expressions.constant( calc.columns() ),
+                    Expressions.constant( calc.kinds() ),
+                    Expressions.newArrayInit( PolyValue.class, Arrays.stream( calc.constants() ).map( c -> c == null ? Expressions.constant( null, PolyValue.class ) : c.asExpression() ).toList() ),
+                    Expressions.constant( calc.projection() ),
+                    Expressions.constant( groupSet.toArray() ),
+                    Expressions.constant( kinds ),
+                    Expressions.constant( args ),
+                    Expressions.constant( resultTypes ),
+                    Expressions.constant( RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() ),
+                    EnumUtils.parallelism() );
+        }
+        final Expression aggregated = builder.append( "aggregated", aggregate );
+        builder.add( Expressions.return_( null, arrayPhysType.convertTo( aggregated, physType ) ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+
+    /**
+     * A calc which only consists of conditions supported by the {@link VectorFilters} and of references to input fields.
+     * Such a calc below a vectorized aggregate is evaluated on the column vectors instead of row by row.
+     *
+     * @param columns the input field of each condition, the conditions are combined by {@code AND}
+     * @param projection the input field of each output field
+     */
+    record VectorizedCalc( EnumerableCalc calc, int[] columns, Kind[] kinds, PolyValue[] constants, int[] projection ) {
+
+        private static final Set<Kind> COMPARISONS = EnumSet.of( Kind.EQUALS, Kind.NOT_EQUALS, Kind.LESS_THAN, Kind.LESS_THAN_OR_EQUAL, Kind.GREATER_THAN, Kind.GREATER_THAN_OR_EQUAL );
+
+
+        @Nullable
+        static VectorizedCalc of( AlgNode input ) {
+            if ( !(input instanceof EnumerableCalc calc) ) {
+                return null;
+            }
+            final RexProgram program = calc.getProgram();
+            final int[] projection = new int[program.getProjectList().size()];
+            for ( Ord<RexLocalRef> project : Ord.zip( program.getProjectList() ) ) {
+                if ( !(program.expandLocalRef( project.e ) instanceof RexIndexRef ref) ) {
+                    return null;
+                }
+                projection[project.i] = ref.getIndex();
+            }
+
+            final List<RexNode> conditions = program.getCondition() == null
+                    ? List.of()
+                    : AlgOptUtil.conjunctions( program.expandLocalRef( program.getCondition() ) );
+            final List<AlgDataTypeField> fields = calc.getInput().getTupleType().getFields();
+            final int[] columns = new int[conditions.size()];
+            final Kind[] kinds = new Kind[conditions.size()];
+            final PolyValue[] constants = new PolyValue[conditions.size()];
+            for ( Ord<RexNode> condition : Ord.zip( conditions ) ) {
+                if ( !(condition.e instanceof RexCall call) ) {
+                    return null;
+                }
+                if ( call.getKind() == Kind.IS_NOT_NULL && call.operands.get( 0 ) instanceof RexIndexRef ref ) {
+                    columns[condition.i] = ref.getIndex();
+                    kinds[condition.i] = Kind.IS_NOT_NULL;
+                    continue;
+                }
+                if ( !COMPARISONS.contains( call.getKind() ) ) {
+                    return null;
+                }
+                RexNode left = call.operands.get( 0 );
+                RexNode right = call.operands.get( 1 );
+                Kind kind = call.getKind();
+                if ( left instanceof RexLiteral && right instanceof RexIndexRef ) {
+                    left = call.operands.get( 1 );
+                    right = call.operands.get( 0 );
+                    kind = kind.reverse();
+                }
+                if ( !(left instanceof RexIndexRef ref) || !(right instanceof RexLiteral literal) ) {
+                    return null;
+                }
+                final PolyValue constant = constant( fields.get( ref.getIndex() ).getType().getPolyType(), literal, kind );
+                if ( constant == null ) {
+                    return null;
+                }
+                columns[condition.i] = ref.getIndex();
+                kinds[condition.i] = kind;
+                constants[condition.i] = constant;
+            }
+            return new VectorizedCalc( calc, columns, kinds, constants, projection );
+        }
+
+
+        /**
+         * Converts a literal into a constant which the {@link VectorFilters} compare with the values of a column in the
+         * same way as the row based filter: integral numbers exactly, approximate numbers as doubles and strings by equality.
+         *
+         * @return the constant or {@code null} if the comparison is not supported
+         */
+        @Nullable
+        private static PolyValue constant( PolyType columnType, RexLiteral literal, Kind kind ) {
+            if ( literal.isNull() ) {
+                return null;
+            }
+            final PolyType literalType = literal.getType().getPolyType();
+            if ( PolyType.INT_TYPES.contains( columnType ) && PolyType.INT_TYPES.contains( literalType ) ) {
+                return PolyLong.of( literal.value.asNumber().longValue() );
+            } else if ( ColumnVector.isDoubleBacked( columnType ) && PolyType.NUMERIC_TYPES.contains( literalType ) ) {
+                return PolyDouble.of( literal.value.asNumber().doubleValue() );
+            } else if ( columnType == PolyType.VARCHAR && literalType == PolyType.CHAR && (kind == Kind.EQUALS || kind == Kind.NOT_EQUALS) ) {
+                return PolyString.of( literal.value.asString().value );
+            }
+            return null;
+        }
+
+    }
+
+
     private static boolean hasOrderedCall( List<AggImpState> aggs ) {
         for ( AggImpState agg : aggs ) {
             if ( !agg.call.collation.equals( AlgCollations.EMPTY ) ) {
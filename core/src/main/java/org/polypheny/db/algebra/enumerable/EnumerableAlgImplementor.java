@@ -74,6 +74,7 @@
 import org.apache.calcite.linq4j.tree.Statement;
 import org.apache.calcite.linq4j.tree.Types;
 import org.apache.calcite.linq4j.tree.VisitorImpl;
+import org.jetbrains.annotations.Nullable;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.constant.ConformanceEnum;
 import org.polypheny.db.plan.AlgImplementor;
@@ -100,6 +101,15 @@ public class EnumerableAlgImplementor extends JavaAlgImplementor {
 
     private int contextCounter = -1;
 
+    private int nameCounter = 0;
+
+    /**
+     * The algebra which is implemented by {@link #implementRoot}, null if single algebras are implemented.
+     */
+    @Getter
+    @Nullable
+    private EnumerableAlg root;
+
 
     public EnumerableAlgImplementor( RexBuilder rexBuilder, Map<String, Object> internalParameters ) {
         super( rexBuilder );
@@ -118,7 +128,17 @@ public int increaseContext() {
     }
 
 
+    /**
+     * Returns a variable name which is unique within the generated code. In contrast to e.g. timestamps, the names are
+     * deterministic, so identical plans generate identical code, which allows to reuse compiled classes.
+     */
+    public String uniqueName( String prefix ) {
+        return prefix + (nameCounter++);
+    }
+
+
     public ClassDeclaration implementRoot( EnumerableAlg rootAlg, EnumerableAlg.Prefer prefer ) {
+        root = rootAlg;
         EnumerableAlg.Result result = rootAlg.implement( this, prefer );
 
         final List<MemberDeclaration> memberDeclarations = new ArrayList<>();
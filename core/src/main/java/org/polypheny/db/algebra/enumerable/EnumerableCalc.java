@@ -38,7 +38,9 @@
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.BlockStatement;
 import org.apache.calcite.linq4j.tree.Blocks;
@@ -58,15 +60,18 @@
 import org.polypheny.db.algebra.metadata.AlgMdDistribution;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.algebra.polyalg.arguments.PolyAlgArgs;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgCluster;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptPredicateList;
 import org.polypheny.db.plan.AlgPlanner;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.rex.RexProgram;
 import org.polypheny.db.rex.RexSimplify;
 import org.polypheny.db.rex.RexUtil;
+import org.polypheny.db.runtime.ParallelEnumerables;
 import org.polypheny.db.schema.trait.ModelTraitDef;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.Conformance;
@@ -189,7 +194,10 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         builder3.add( Expressions.return_( null, physType.record( expressions ) ) );
         BlockStatement currentBody = builder3.toBlock();
 
-        final Expression inputEnumerable = builder.append( builder.newName( "inputEnumerable" + System.nanoTime() ), result.block(), false );
+        final Expression inputEnumerable = builder.append( builder.newName( implementor.uniqueName( "inputEnumerable" ) ), result.block(), false );
+        // a parallel calc is generated as a function from a chunk of the input to the calc over this chunk
+        final boolean parallel = isParallel();
+        final ParameterExpression chunk = Expressions.parameter( Modifier.FINAL, Types.of( Enumerable.class, inputJavaType ), "chunk" );
         final Expression body;
 
         body = Expressions.new_(
@@ -199,7 +207,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                         Expressions.fieldDecl(
                                 Modifier.PUBLIC | Modifier.FINAL,
                                 inputEnumerator,
-                                Expressions.call( inputEnumerable, BuiltInMethod.ENUMERABLE_ENUMERATOR.method ) ),
+                                Expressions.call( parallel ? chunk : inputEnumerable, BuiltInMethod.ENUMERABLE_ENUMERATOR.method ) ),
                         EnumUtils.overridingMethodDecl(
                                 BuiltInMethod.ENUMERATOR_RESET.method,
                                 EnumUtils.NO_PARAMS,
@@ -221,18 +229,51 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                                 EnumUtils.NO_PARAMS,
                                 currentBody ) ) );
 
-        builder.add(
-                Expressions.return_(
-                        null,
-                        Expressions.new_(
-                                BuiltInMethod.ABSTRACT_ENUMERABLE_CTOR.constructor,
-                                // TODO: generics
-                                //   Collections.singletonList(inputRowType),
-                                EnumUtils.NO_EXPRS,
-                                ImmutableList.<MemberDeclaration>of( Expressions.methodDecl( Modifier.PUBLIC, enumeratorType, BuiltInMethod.ENUMERABLE_ENUMERATOR.method.getName(), EnumUtils.NO_PARAMS, Blocks.toFunctionBlock( body ) ) ) ) ) );
+        final Expression enumerable = Expressions.new_(
+                BuiltInMethod.ABSTRACT_ENUMERABLE_CTOR.constructor,
+                // TODO: generics
+                //   Collections.singletonList(inputRowType),
+                EnumUtils.NO_EXPRS,
+                ImmutableList.<MemberDeclaration>of( Expressions.methodDecl( Modifier.PUBLIC, enumeratorType, BuiltInMethod.ENUMERABLE_ENUMERATOR.method.getName(), EnumUtils.NO_PARAMS, Blocks.toFunctionBlock( body ) ) ) );
+
+        if ( parallel ) {
+            builder.add(
+                    Expressions.return_(
+                            null,
+                            Expressions.call(
+                                    BuiltInMethod.PARALLEL_MAP.method,
+                                    inputEnumerable,
+                                    Expressions.lambda( Function1.class, enumerable, chunk ),
+                                    DataContext.ROOT,
+                                    Expressions.constant( RuntimeConfig.PARALLEL_CHUNK_SIZE.getInteger() ) ) ) );
+        } else {
+            builder.add( Expressions.return_( null, enumerable ) );
+        }
         return implementor.result( physType, builder.toBlock() );
     }
 
 
+    /**
+     * Whether this calc is evaluated on chunks of its input by several workers.
+     */
+    public boolean isParallel() {
+        return ParallelEnumerables.isEnabled() && isParallelizable( program );
+    }
+
+
+    /**
+     * Whether the program can be evaluated independently on chunks of the input, which requires that it neither
+     * depends on the order of evaluation nor on correlation variables.
+     */
+    private static boolean isParallelizable( RexProgram program ) {
+        for ( RexNode expr : program.getExprList() ) {
+            if ( !RexUtil.isDeterministic( expr ) || RexUtil.containsCorrelation( expr ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
 }
 
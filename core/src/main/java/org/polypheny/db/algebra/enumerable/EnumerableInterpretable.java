@@ -51,6 +51,16 @@
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.Calc;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.core.Join;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.core.relational.RelScan;
 import org.polypheny.db.algebra.enumerable.EnumerableAlg.Prefer;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
 import org.polypheny.db.config.RuntimeConfig;
@@ -58,6 +68,7 @@
 import org.polypheny.db.interpreter.Compiler;
 import org.polypheny.db.interpreter.InterpretableAlg;
 import org.polypheny.db.interpreter.InterpretableConvention;
+import org.polypheny.db.interpreter.Interpreters;
 import org.polypheny.db.interpreter.Node;
 import org.polypheny.db.interpreter.Row;
 import org.polypheny.db.interpreter.Sink;
@@ -70,6 +81,8 @@
 import org.polypheny.db.runtime.Hook;
 import org.polypheny.db.runtime.Typed;
 import org.polypheny.db.runtime.Utilities;
+import org.polypheny.db.schema.types.FilterableEntity;
+import org.polypheny.db.schema.types.ScannableEntity;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.util.Pair;
@@ -125,14 +138,46 @@ public static <T> Pair<Bindable<T>, String> toBindable(
 
         Hook.JAVA_PLAN.run( s );
         try {
-            return new Pair<>( getBindable( expr, s, alg.getTupleType().getFieldCount() ), s );
+            return new Pair<>( getBindable( expr, s, alg ), s );
         } catch ( Exception e ) {
             throw new GenericRuntimeException( "Error while compiling generated Java code:\n" + s, e );
         }
     }
 
 
-    static <T> Bindable<T> getBindable( ClassDeclaration expr, String s, int fieldCount ) throws CompileException, IOException {
+    static <T> Bindable<T> getBindable( ClassDeclaration expr, String s, EnumerableAlg alg ) throws Exception {
+        final int fieldCount = alg.getTupleType().getFieldCount();
+        return CompiledBindableCache.INSTANCE.get(
+                expr,
+                s,
+                fieldCount,
+                () -> compile( expr, s, fieldCount ),
+                () -> isInterpretable( alg ) ? Interpreters.bindable( alg ) : null );
+    }
+
+
+    /**
+     * Whether the {@link org.polypheny.db.interpreter.Interpreter} is able to execute the given plan. This is the case for
+     * relational plans consisting of the operators the interpreter implements, reading entities which can be scanned
+     * without generated code.
+     */
+    static boolean isInterpretable( AlgNode alg ) {
+        if ( alg instanceof RelScan<?> scan ) {
+            return scan.entity.unwrap( FilterableEntity.class ).isPresent() || scan.entity.unwrap( ScannableEntity.class ).isPresent();
+        }
+        if ( alg instanceof Join join && join.getJoinType() != JoinAlgType.INNER ) {
+            // the interpreter evaluates every join as an inner join
+            return false;
+        }
+        if ( !(alg instanceof Calc || alg instanceof Filter || alg instanceof Project || alg instanceof Values
+                || alg instanceof Aggregate || alg instanceof Sort || alg instanceof Union || alg instanceof Join) ) {
+            return false;
+        }
+        return alg.getInputs().stream().allMatch( EnumerableInterpretable::isInterpretable );
+    }
+
+
+    private static <T> Bindable<T> compile( ClassDeclaration expr, String s, int fieldCount ) throws CompileException, IOException {
         ICompilerFactory compilerFactory;
         try {
             compilerFactory = CompilerFactoryFactory.getDefaultCompilerFactory();
@@ -42,6 +42,7 @@
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.AlgCollationTraitDef;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgNodes;
@@ -55,12 +56,16 @@
 import org.polypheny.db.algebra.polyalg.arguments.IntArg;
 import org.polypheny.db.algebra.polyalg.arguments.ListArg;
 import org.polypheny.db.algebra.polyalg.arguments.PolyAlgArgs;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgCluster;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgPlanner;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.runtime.ParallelEnumerables;
+import org.polypheny.db.runtime.vector.VectorHashJoin;
 import org.polypheny.db.schema.trait.ModelTrait;
+import org.polypheny.db.type.PolyType;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.Triple;
 import org.polypheny.db.util.Util;
@@ -179,11 +184,14 @@ private double addEpsilon( double d ) {
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         BlockBuilder builder = new BlockBuilder();
         final Result leftResult = implementor.visitChild( this, 0, (EnumerableAlg) left, pref );
-        Expression leftExpression = builder.append( "left" + System.nanoTime(), leftResult.block() );
+        Expression leftExpression = builder.append( implementor.uniqueName( "left" ), leftResult.block() );
         final Result rightResult = implementor.visitChild( this, 1, (EnumerableAlg) right, pref );
         // we need this false flag to avoid that the enumerables are reused which would lead to the same enumerable being accessed from both sides
-        Expression rightExpression = builder.append( "right" + System.nanoTime(), rightResult.block(), false );
+        Expression rightExpression = builder.append( implementor.uniqueName( "right" ), rightResult.block(), false );
         final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getTupleType(), pref.preferArray() );
+        if ( RuntimeConfig.VECTORIZED_EXECUTION.getBoolean() && isVectorizable() ) {
+            return implementVectorized( implementor, builder, leftResult.physType(), leftExpression, rightResult.physType(), rightExpression, physType );
+        }
         final PhysType keyPhysType = leftResult.physType().project( leftKeys, JavaTupleFormat.LIST );
         return implementor.result(
                 physType,
@@ -204,6 +212,50 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
     }
 
 
+    /**
+     * Whether this join is evaluated by a partitioned {@link VectorHashJoin} with several workers.
+     */
+    public boolean isParallel() {
+        return ParallelEnumerables.isEnabled() && RuntimeConfig.VECTORIZED_EXECUTION.getBoolean() && isVectorizable();
+    }
+
+
+    /**
+     * Whether this join can be evaluated by the {@link VectorHashJoin}, which handles inner joins on a single long backed key.
+     */
+    private boolean isVectorizable() {
+        return joinType == JoinAlgType.INNER
+                && leftKeys.size() == 1
+                && VectorHashJoin.supports(
+                left.getTupleType().getFields().get( leftKeys.get( 0 ) ).getType().getPolyType(),
+                right.getTupleType().getFields().get( rightKeys.get( 0 ) ).getType().getPolyType() );
+    }
+
+
+    private Result implementVectorized( EnumerableAlgImplementor implementor, BlockBuilder builder, PhysType leftPhysType, Expression leftExpression, PhysType rightPhysType, Expression rightExpression, PhysType physType ) {
+        final JavaTypeFactory typeFactory = implementor.getTypeFactory();
+        final PhysType arrayPhysType = PhysTypeImpl.of( typeFactory, getTupleType(), JavaTupleFormat.ARRAY );
+        final Expression joined = builder.append(
+                "joined",
+                Expressions.call(
+                        BuiltInMethod.VECTOR_HASH_JOIN.method,
+                        leftPhysType.convertTo( leftExpression, PhysTypeImpl.of( typeFactory, left.getTupleType(), JavaTupleFormat.ARRAY ) ),
+                        rightPhysType.convertTo( rightExpression, PhysTypeImpl.of( typeFactory, right.getTupleType(), JavaTupleFormat.ARRAY ) ),
+                        Expressions.constant( leftKeys.get( 0 ) ),
+                        Expressions.constant( rightKeys.get( 0 ) ),
+                        Expressions.constant( polyTypes( left ) ),
+                        Expressions.constant( polyTypes( right ) ),
+                        Expressions.constant( RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() ),
+                        EnumUtils.parallelism() ) );
+        return implementor.result( physType, builder.append( arrayPhysType.convertTo( joined, physType ) ).toBlock() );
+    }
+
+
+    private static PolyType[] polyTypes( AlgNode input ) {
+        return input.getTupleType().getFields().stream().map( f -> f.getType().getPolyType() ).toArray( PolyType[]::new );
+    }
+
+
     @Override
     public PolyAlgArgs bindArguments() {
         PolyAlgArgs args = super.bindArguments();
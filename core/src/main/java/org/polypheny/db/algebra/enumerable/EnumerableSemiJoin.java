@@ -144,9 +144,9 @@ public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         BlockBuilder builder = new BlockBuilder();
         final Result leftResult = implementor.visitChild( this, 0, (EnumerableAlg) left, pref );
-        Expression leftExpression = builder.append( "left" + System.nanoTime(), leftResult.block() );
+        Expression leftExpression = builder.append( implementor.uniqueName( "left" ), leftResult.block() );
         final Result rightResult = implementor.visitChild( this, 1, (EnumerableAlg) right, pref );
-        Expression rightExpression = builder.append( "right" + System.nanoTime(), rightResult.block() );
+        Expression rightExpression = builder.append( implementor.uniqueName( "right" ), rightResult.block() );
         final PhysType physType = leftResult.physType();
         return implementor.result(
                 physType,
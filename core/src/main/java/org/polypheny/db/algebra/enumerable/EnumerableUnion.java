@@ -34,15 +34,29 @@
 package org.polypheny.db.algebra.enumerable;
 
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.algebra.AlgCollation;
+import org.polypheny.db.algebra.AlgCollationTraitDef;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Union;
 import org.polypheny.db.algebra.polyalg.arguments.BooleanArg;
 import org.polypheny.db.algebra.polyalg.arguments.PolyAlgArgs;
+import org.polypheny.db.catalog.entity.Entity;
+import org.polypheny.db.catalog.entity.allocation.AllocationEntity;
+import org.polypheny.db.catalog.entity.physical.PhysicalEntity;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
@@ -71,6 +85,12 @@ public EnumerableUnion copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean
 
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        if ( RuntimeConfig.ASYNC_UNION.getBoolean() && inputs.size() > 1 ) {
+            List<Integer> lanes = assignLanes( inputs );
+            if ( lanes != null && lanes.stream().anyMatch( lane -> lane > 0 ) && !sharesAdapters( implementor.getRoot() ) ) {
+                return implementAsync( implementor, pref, lanes );
+            }
+        }
         final BlockBuilder builder = new BlockBuilder();
         Expression unionExp = null;
         for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
@@ -96,5 +116,138 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         return implementor.result( physType, builder.toBlock() );
     }
 
-}
 
+    /**
+     * Opens the inputs of different lanes concurrently, each input with its own prefetch buffer. If the union has to
+     * provide a collation, the rows are returned in the order of the sequential concatenation, otherwise as they arrive.
+     */
+    private Result implementAsync( EnumerableAlgImplementor implementor, Prefer pref, List<Integer> lanes ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final List<Expression> childExps = new ArrayList<>();
+        Expression comparer = null;
+        for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
+            final Result result = implementor.visitChild( this, ord.i, (EnumerableAlg) ord.e, pref );
+            childExps.add( builder.append( "child" + ord.i, result.block() ) );
+            comparer = result.physType().comparer();
+        }
+
+        final AlgCollation collation = getTraitSet().getTrait( AlgCollationTraitDef.INSTANCE );
+        final boolean ordered = collation != null && !collation.getFieldCollations().isEmpty();
+        Expression unionExp = Expressions.call(
+                BuiltInMethod.PARALLEL_UNION.method,
+                Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, childExps ),
+                Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, lanes.stream().map( Expressions::constant ).toList() ),
+                Expressions.constant( ordered ),
+                Expressions.constant( RuntimeConfig.UNION_PREFETCH_SIZE.getInteger() ) );
+        if ( !all ) {
+            unionExp = comparer == null
+                    ? Expressions.call( unionExp, BuiltInMethod.DISTINCT.method )
+                    : Expressions.call( unionExp, BuiltInMethod.DISTINCT2.method, comparer );
+        }
+
+        builder.add( unionExp );
+        final PhysType physType =
+                PhysTypeImpl.of(
+                        implementor.getTypeFactory(),
+                        getTupleType(),
+                        pref.prefer( JavaTupleFormat.CUSTOM ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+
+    /**
+     * Assigns the inputs to lanes, so that inputs which read from the same adapter are in the same lane. The inputs of
+     * a lane are executed one after another, as they share the connection of the adapter within the transaction.
+     *
+     * @return The lane of every input, or null if the adapters of an input cannot be determined
+     */
+    @Nullable
+    private static List<Integer> assignLanes( List<AlgNode> inputs ) {
+        int[] lanes = new int[inputs.size()];
+        Map<Long, Integer> adapterLanes = new HashMap<>();
+        for ( int i = 0; i < inputs.size(); i++ ) {
+            Set<Long> adapters = adaptersOf( inputs.get( i ), null );
+            if ( adapters == null ) {
+                return null;
+            }
+            lanes[i] = i;
+            for ( long adapterId : adapters ) {
+                Integer lane = adapterLanes.get( adapterId );
+                if ( lane != null && lane != lanes[i] ) {
+                    // the input shares an adapter with an earlier lane, merge its current lane into that one
+                    int merged = lanes[i];
+                    int target = Math.min( lane, merged );
+                    int source = Math.max( lane, merged );
+                    for ( int j = 0; j <= i; j++ ) {
+                        if ( lanes[j] == source ) {
+                            lanes[j] = target;
+                        }
+                    }
+                    adapterLanes.replaceAll( ( id, l ) -> l == source ? target : l );
+                }
+                adapterLanes.put( adapterId, lanes[i] );
+            }
+        }
+        // number the lanes consecutively in the order of their first input
+        Map<Integer, Integer> numbers = new HashMap<>();
+        List<Integer> result = new ArrayList<>( inputs.size() );
+        for ( int lane : lanes ) {
+            result.add( numbers.computeIfAbsent( lane, l -> numbers.size() ) );
+        }
+        return result;
+    }
+
+
+    /**
+     * Checks whether an adapter of the union is also read by another part of the plan. That part is executed by the
+     * consumer thread while the lanes are read, so the union has to be executed sequentially in this case.
+     *
+     * @param root The plan which contains the union, null if it is unknown
+     */
+    private boolean sharesAdapters( @Nullable AlgNode root ) {
+        if ( root == null ) {
+            return true;
+        }
+        Set<Long> outside = adaptersOf( root, this );
+        if ( outside == null ) {
+            return true;
+        }
+        for ( AlgNode input : inputs ) {
+            Set<Long> adapters = adaptersOf( input, null );
+            if ( adapters == null || adapters.stream().anyMatch( outside::contains ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Collects the adapters from which an algebra reads.
+     *
+     * @param excluded Algebra whose inputs are not collected, null to collect all inputs
+     * @return The ids of the adapters, or null if the algebra uses an entity which is not placed on an adapter
+     */
+    @Nullable
+    private static Set<Long> adaptersOf( AlgNode alg, @Nullable AlgNode excluded ) {
+        Set<Long> adapters = new HashSet<>();
+        Deque<AlgNode> nodes = new ArrayDeque<>( List.of( alg ) );
+        while ( !nodes.isEmpty() ) {
+            AlgNode node = nodes.pop();
+            if ( node == excluded ) {
+                continue;
+            }
+            Entity entity = node.getEntity();
+            if ( entity instanceof PhysicalEntity physical ) {
+                adapters.add( physical.adapterId );
+            } else if ( entity instanceof AllocationEntity allocation ) {
+                adapters.add( allocation.adapterId );
+            } else if ( entity != null ) {
+                return null;
+            }
+            nodes.addAll( node.getInputs() );
+        }
+        return adapters;
+    }
+
+}
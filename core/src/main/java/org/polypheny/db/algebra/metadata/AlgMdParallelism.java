@@ -38,12 +38,19 @@
 import org.polypheny.db.algebra.core.Exchange;
 import org.polypheny.db.algebra.core.Values;
 import org.polypheny.db.algebra.core.relational.RelScan;
+import org.polypheny.db.algebra.enumerable.EnumerableAggregate;
+import org.polypheny.db.algebra.enumerable.EnumerableCalc;
+import org.polypheny.db.algebra.enumerable.EnumerableJoin;
 import org.polypheny.db.algebra.metadata.BuiltInMetadata.Parallelism;
+import org.polypheny.db.runtime.ParallelEnumerables;
 import org.polypheny.db.util.BuiltInMethod;
 
 
 /**
  * Default implementations of the {@link Parallelism} metadata provider for the standard logical algebra.
+ * <p>
+ * The split count of the enumerable operators which run in parallel is the configured default degree of parallelism,
+ * since the degree of a single statement is only known at execution time.
  *
  * @see AlgMetadataQuery#isPhaseTransition
  * @see AlgMetadataQuery#splitCount
@@ -104,5 +111,29 @@ public Integer splitCount( AlgNode alg, AlgMetadataQuery mq ) {
         return 1;
     }
 
+
+    /**
+     * A parallel calc splits its input into chunks, which are processed by up to {@link ParallelEnumerables#parallelism} workers.
+     */
+    public Integer splitCount( EnumerableCalc alg, AlgMetadataQuery mq ) {
+        return alg.isParallel() ? ParallelEnumerables.parallelism( null ) : 1;
+    }
+
+
+    /**
+     * A parallel aggregate builds one partial aggregation per worker.
+     */
+    public Integer splitCount( EnumerableAggregate alg, AlgMetadataQuery mq ) {
+        return alg.isParallel() ? ParallelEnumerables.parallelism( null ) : 1;
+    }
+
+
+    /**
+     * A parallel join splits its build side into one hash table partition per worker.
+     */
+    public Integer splitCount( EnumerableJoin alg, AlgMetadataQuery mq ) {
+        return alg.isParallel() ? ParallelEnumerables.parallelism( null ) : 1;
+    }
+
 }
 
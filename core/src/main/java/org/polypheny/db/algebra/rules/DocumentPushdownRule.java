@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.rules;
+
+import java.util.List;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.document.DocumentPushdownScan;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentFilter;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentProject;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+import org.polypheny.db.plan.AlgOptRuleOperand;
+import org.polypheny.db.schema.document.DocumentPushdown;
+
+/**
+ * Planner rule which pushes the fields needed by a document project and the simple comparisons of a document filter
+ * into a {@link DocumentPushdownScan}. The project and the filter stay on top of the scan, the scan only prunes fields
+ * and drops documents which definitely do not match while parsing.
+ */
+public final class DocumentPushdownRule extends AlgOptRule {
+
+    public static final DocumentPushdownRule FILTER = new DocumentPushdownRule(
+            operand( LogicalDocumentFilter.class, operand( DocumentPushdownScan.class, none() ) ),
+            "DocumentPushdownRule:filter" );
+
+    public static final DocumentPushdownRule PROJECT = new DocumentPushdownRule(
+            operand( LogicalDocumentProject.class, operand( DocumentPushdownScan.class, none() ) ),
+            "DocumentPushdownRule:project" );
+
+    public static final DocumentPushdownRule PROJECT_FILTER = new DocumentPushdownRule(
+            operand( LogicalDocumentProject.class, operand( LogicalDocumentFilter.class, operand( DocumentPushdownScan.class, none() ) ) ),
+            "DocumentPushdownRule:project_filter" );
+
+
+    private DocumentPushdownRule( AlgOptRuleOperand operand, String description ) {
+        super( operand, description );
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final DocumentPushdownScan scan = call.alg( call.algs.length - 1 );
+        final DocumentPushdown pushdown = scan.getPushdown();
+
+        if ( call.algs.length == 2 && call.alg( 0 ) instanceof LogicalDocumentFilter filter ) {
+            if ( pushdown.hasPredicates() ) {
+                return;
+            }
+            DocumentPushdown pushed = pushdown.withFilter( filter.condition );
+            if ( pushed.hasPredicates() ) {
+                call.transformTo( filter.copy( filter.getTraitSet(), List.of( scan.withPushdown( pushed ) ) ) );
+            }
+            return;
+        }
+
+        if ( pushdown.getFields() != null ) {
+            return;
+        }
+        final LogicalDocumentProject project = call.alg( 0 );
+        final LogicalDocumentFilter filter = call.algs.length == 3 ? call.alg( 1 ) : null;
+        DocumentPushdown pushed = pushdown.withProject( project, filter == null ? null : filter.condition );
+        if ( pushed.getFields() == null ) {
+            return;
+        }
+        AlgNode input = scan.withPushdown( pushed );
+        if ( filter != null ) {
+            input = filter.copy( filter.getTraitSet(), List.of( input ) );
+        }
+        call.transformTo( project.copy( project.getTraitSet(), List.of( input ) ) );
+    }
+
+}
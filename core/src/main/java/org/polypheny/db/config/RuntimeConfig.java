@@ -255,6 +255,27 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "implementationCachingGroup" ),
 
+    COMPILED_CLASS_CACHING(
+            "runtime/compiledClassCaching",
+            "Reuse compiled classes of generated code across plans generating identical code.",
+            true,
+            ConfigType.BOOLEAN,
+            "implementationCachingGroup" ),
+
+    COMPILED_CLASS_CACHING_SIZE(
+            "runtime/compiledClassCachingSize",
+            "Maximal number of compiled classes kept in the cache. Evicted classes are unloaded and compiled again when a cached implementation using them is executed.",
+            1000,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    ASYNC_COMPILATION(
+            "runtime/asyncCompilation",
+            "Compile generated code in the background while the preparation of the statement continues. Until the compilation has finished, plans supported by the interpreter are interpreted, other statements wait for the compilation.",
+            false,
+            ConfigType.BOOLEAN,
+            "implementationCachingGroup" ),
+
     ROUTING_PLAN_CACHING(
             "runtime/routingPlanCaching",
             "Caching of routing plans.",
@@ -301,6 +322,18 @@ public enum RuntimeConfig {
             1000,
             ConfigType.INTEGER ),
 
+    DATA_MIGRATOR_QUEUE_SIZE(
+            "runtime/dataMigratorQueueSize",
+            "Number of batches which are buffered between reading from the source and writing to the target store.",
+            4,
+            ConfigType.INTEGER ),
+
+    COPY_DIRECTORY(
+            "runtime/copyDirectory",
+            "Directory on the server from which COPY statements read files. Files outside of this directory are rejected. COPY is disabled if no directory is set.",
+            "",
+            ConfigType.STRING ),
+
     UNIQUE_CONSTRAINT_ENFORCEMENT(
             "runtime/uniqueConstraintEnforcement",
             "Enable enforcement of uniqueness constraints.",
@@ -366,6 +399,55 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "processingExecutionGroup" ),
 
+    VECTORIZED_EXECUTION(
+            "runtime/vectorizedExecution",
+            "Execute suitable aggregations, including simple filters and projections below them, and equi-joins of the enumerable engine on column vectors instead of single rows.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    VECTORIZED_BATCH_SIZE(
+            "runtime/vectorizedBatchSize",
+            "Number of rows per column vector batch used by the vectorized execution.",
+            1024,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLEL_EXECUTION(
+            "runtime/parallelExecution",
+            "Execute filters and projections as well as vectorized aggregations and partitioned hash joins of the enumerable engine on multiple threads. Applies to newly implemented plans.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    PARALLELISM(
+            "runtime/parallelism",
+            "Default degree of parallelism of a statement if parallel execution is enabled. Can be overwritten per statement.",
+            4,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLEL_CHUNK_SIZE(
+            "runtime/parallelChunkSize",
+            "Number of rows handed to a worker thread at once by the parallel execution.",
+            1024,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    ASYNC_UNION(
+            "runtime/asyncUnion",
+            "Open the inputs of a UNION concurrently if they read from different adapters, e.g. the scans of the partitions of a table placed on multiple stores. Inputs reading from the same adapter are opened one after another. Applies to newly implemented plans.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    UNION_PREFETCH_SIZE(
+            "runtime/unionPrefetchSize",
+            "Maximal number of rows which are prefetched per input of an asynchronous UNION ALL.",
+            256,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
     MONITORING_QUEUE_ACTIVE(
             "runtime/monitoringQueueActive",
             "Enables automatic monitoring of executed events in workload monitoring. If disabled no events are captured, hence the queue remains empty. This also effects routing!",
@@ -373,34 +455,76 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN,
             "monitoringSettingsQueueGroup" ),
 
-    MONITORING_CORE_POOL_SIZE(
-            "runtime/corePoolSize",
-            "The number of threads to keep in the pool for processing workload monitoring events, even if they are idle.",
+    MONITORING_WORKER_COUNT(
+            "runtime/monitoringWorkerCount",
+            "The number of threads which drain the workload monitoring queue and process the events in batches.",
             2,
             ConfigType.INTEGER,
             "monitoringSettingsQueueGroup" ),
 
-    MONITORING_MAXIMUM_POOL_SIZE(
-            "runtime/maximumPoolSize",
-            "The maximum number of threads to allow in the pool used for processing workload monitoring events.",
-            8,
+    MONITORING_QUEUE_CAPACITY(
+            "runtime/monitoringQueueCapacity",
+            "Maximum number of pending workload monitoring events. If the queue is full, new query events are dropped instead of slowing down the statements. DML and DDL events are never dropped.",
+            65536,
             ConfigType.INTEGER,
             "monitoringSettingsQueueGroup" ),
 
-    MONITORING_POOL_KEEP_ALIVE_TIME(
-            "runtime/keepAliveTime",
-            "When the number of monitoring processing threads is greater than the core, this is the maximum time that excess idle threads will wait for new tasks before terminating.",
-            10,
+    MONITORING_BATCH_SIZE(
+            "runtime/monitoringBatchSize",
+            "Maximum number of workload monitoring events that a worker processes at once.",
+            256,
             ConfigType.INTEGER,
             "monitoringSettingsQueueGroup" ),
 
+    MONITORING_SAMPLING_RATES(
+            "runtime/monitoringSamplingRates",
+            "Fraction of queries that are monitored per type, e.g. 'SELECT=0.1,UNION=0.5'. Types which are not listed are always monitored. DML and DDL statements are always monitored, as the statistics derive the row counts from them.",
+            "",
+            ConfigType.STRING,
+            "monitoringSettingsQueueGroup" ),
+
+    MONITORING_RAW_RETENTION(
+            "runtime/monitoringRawRetention",
+            "Time in minutes for which individual monitoring data points are kept. Older data points are downsampled into per-minute aggregates.",
+            1440,
+            ConfigType.INTEGER,
+            "monitoringSettingsRepositoryGroup" ),
+
+    MONITORING_AGGREGATE_RETENTION(
+            "runtime/monitoringAggregateRetention",
+            "Time in minutes for which the per-minute aggregates of downsampled monitoring data points are kept.",
+            10080,
+            ConfigType.INTEGER,
+            "monitoringSettingsRepositoryGroup" ),
+
+    MONITORING_MAX_DATA_POINTS(
+            "runtime/monitoringMaxDataPoints",
+            "Maximum number of individual monitoring data points that are kept per type of data point. If exceeded, the oldest data points are downsampled.",
+            1_000_000,
+            ConfigType.INTEGER,
+            "monitoringSettingsRepositoryGroup" ),
+
     TEMPERATURE_FREQUENCY_PROCESSING_INTERVAL(
             "runtime/partitionFrequencyProcessingInterval",
             "Time interval in seconds, how often the access frequency of all TEMPERATURE-partitioned tables is analyzed and redistributed",
-            BackgroundTask.TaskSchedulingType.EVERY_MINUTE,
+            BackgroundTask.TaskSchedulingType.EVERY_TEN_SECONDS,
             ConfigType.ENUM,
             "temperaturePartitionProcessingSettingsGroup" ),
 
+    TEMPERATURE_ONLINE_MIGRATION(
+            "runtime/partitionOnlineMigration",
+            "Whether partitions of TEMPERATURE-partitioned tables are moved between HOT and COLD in the background. If disabled, the table is locked during the entire migration.",
+            true,
+            ConfigType.BOOLEAN,
+            "temperaturePartitionProcessingSettingsGroup" ),
+
+    TEMPERATURE_MIGRATION_CHUNK_DELAY(
+            "runtime/partitionMigrationChunkDelay",
+            "Pause in milliseconds between copying two partitions during an online migration. Limits the load caused on the stores.",
+            100,
+            ConfigType.INTEGER,
+            "temperaturePartitionProcessingSettingsGroup" ),
+
     AVAILABLE_PLUGINS(
             "runtime/availablePlugins",
             "All plugins which are loaded.",
@@ -425,6 +549,22 @@ public enum RuntimeConfig {
             "workflowsSettingsGroup"
     ),
 
+    WORKFLOWS_BATCHED_PIPES(
+            "workflows/batchedPipes",
+            "Transfer tuples between pipelined activities in adaptively sized chunks instead of one tuple at a time.",
+            true,
+            ConfigType.BOOLEAN,
+            "workflowsSettingsGroup"
+    ),
+
+    WORKFLOWS_CHECKPOINT_CACHE_SIZE(
+            "workflows/checkpointCacheSize",
+            "Maximum number of discarded workflow checkpoints that are kept for reuse by activities with identical settings and inputs. 0 disables the cache.",
+            32,
+            ConfigType.INTEGER,
+            "workflowsSettingsGroup"
+    ),
+
 
     INSTANCE_UUID(
             "runtime/uuid",
@@ -568,6 +708,9 @@ public enum RuntimeConfig {
         monitoringSettingsQueueGroup.withTitle( "Processing Queue" );
         configManager.registerWebUiPage( monitoringSettingsPage );
         configManager.registerWebUiGroup( monitoringSettingsQueueGroup );
+        final WebUiGroup monitoringSettingsRepositoryGroup = new WebUiGroup( "monitoringSettingsRepositoryGroup", monitoringSettingsPage.getId() );
+        monitoringSettingsRepositoryGroup.withTitle( "Repository" );
+        configManager.registerWebUiGroup( monitoringSettingsRepositoryGroup );
         MONITORING_QUEUE_ACTIVE.addObserver( new ConfigListener() {
             @Override
             public void onConfigChange( Config c ) {
@@ -47,4 +47,14 @@ public interface MonitoringQueue {
 
     long getNumberOfProcessedEvents();
 
+    /**
+     * Number of events that were not queued, because the queue was full.
+     */
+    long getNumberOfDroppedEvents();
+
+    /**
+     * Number of events that were not queued, because they were not selected by the sampling rate of their type.
+     */
+    long getNumberOfSampledOutEvents();
+
 }
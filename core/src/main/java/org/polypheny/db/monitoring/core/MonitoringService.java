@@ -81,6 +81,14 @@ public interface MonitoringService {
     long getNumberOfElementsInQueue();
 
 
+    /**
+     * Return number of monitoring events that were dropped, because the queue was full.
+     *
+     * @return number of dropped events
+     */
+    long getNumberOfDroppedEvents();
+
+
     /**
      * Removes all data points for given monitoring persistent type.
      *
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.partition;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.polypheny.db.partition.properties.TemperaturePartitionProperty.PartitionCostIndication;
+
+
+/**
+ * Counts the read and write accesses of partitions while statements are routed.
+ * Only tracked partitions are counted, accesses of all other partitions are ignored at the cost of a single map lookup.
+ * <p>
+ * Accesses are accumulated in {@link LongAdder}s, which keeps contention between concurrent statements low.
+ * When the frequency of a partition is requested, the accesses since the last request are folded into a score
+ * which decays exponentially over time. This allows determining the access frequency of a table in O(partitions).
+ */
+public class PartitionAccessCounter {
+
+    public static final PartitionAccessCounter INSTANCE = new PartitionAccessCounter();
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+
+    /**
+     * Starts counting the accesses of the given partitions. Partitions which are already tracked keep their score.
+     */
+    public void track( Collection<Long> partitionIds ) {
+        long now = System.currentTimeMillis();
+        partitionIds.forEach( id -> counters.computeIfAbsent( id, k -> new Counter( now ) ) );
+    }
+
+
+    /**
+     * Stops counting the accesses of all partitions which are not contained in the given set.
+     */
+    public void retain( Set<Long> partitionIds ) {
+        counters.keySet().retainAll( partitionIds );
+    }
+
+
+    public void recordRead( Collection<Long> partitionIds ) {
+        for ( long partitionId : partitionIds ) {
+            Counter counter = counters.get( partitionId );
+            if ( counter != null ) {
+                counter.reads.increment();
+            }
+        }
+    }
+
+
+    public void recordWrite( Collection<Long> partitionIds ) {
+        for ( long partitionId : partitionIds ) {
+            Counter counter = counters.get( partitionId );
+            if ( counter != null ) {
+                counter.writes.increment();
+            }
+        }
+    }
+
+
+    /**
+     * Returns the decayed number of accesses of a partition.
+     *
+     * @param partitionId Id of the partition
+     * @param indication Which kind of accesses should be considered
+     * @param lifetimeMillis Mean lifetime of an access, after this time an access only counts as 1/e access
+     * @param now Current time in millis
+     * @return The decayed number of accesses or 0 if the partition is not tracked
+     */
+    public double getFrequency( long partitionId, PartitionCostIndication indication, long lifetimeMillis, long now ) {
+        Counter counter = counters.get( partitionId );
+        if ( counter == null ) {
+            return 0;
+        }
+        return counter.getFrequency( indication, lifetimeMillis, now );
+    }
+
+
+    private static class Counter {
+
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+
+        private double readScore;
+        private double writeScore;
+        private long lastDecay;
+
+
+        private Counter( long now ) {
+            this.lastDecay = now;
+        }
+
+
+        private synchronized double getFrequency( PartitionCostIndication indication, long lifetimeMillis, long now ) {
+            if ( now > lastDecay ) {
+                double factor = lifetimeMillis > 0 ? Math.exp( -(double) (now - lastDecay) / lifetimeMillis ) : 0;
+                readScore *= factor;
+                writeScore *= factor;
+                lastDecay = now;
+            }
+            readScore += reads.sumThenReset();
+            writeScore += writes.sumThenReset();
+
+            return switch ( indication ) {
+                case ALL -> readScore + writeScore;
+                case READ -> readScore;
+                case WRITE -> writeScore;
+            };
+        }
+
+    }
+
+}
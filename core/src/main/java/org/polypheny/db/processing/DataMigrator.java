@@ -17,6 +17,7 @@
 package org.polypheny.db.processing;
 
 import java.util.List;
+import java.util.function.Supplier;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.catalog.entity.LogicalAdapter;
 import org.polypheny.db.catalog.entity.allocation.AllocationCollection;
@@ -33,18 +34,24 @@
 import org.polypheny.db.routing.ColumnDistribution;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.type.entity.PolyValue;
 
 
 public interface DataMigrator {
 
-    void copyData(
+    /**
+     * Copies the data of the given columns into the target allocation.
+     *
+     * @return The approximate number of bytes which have been copied
+     */
+    long copyData(
             Transaction transaction,
             LogicalAdapter store,
             LogicalTable source,
             List<LogicalColumn> columns,
             AllocationEntity target );
 
-    void copyData(
+    long copyData(
             Transaction transaction,
             LogicalAdapter store,
             LogicalTable source,
@@ -66,10 +73,30 @@ void copyAllocationData(
             List<AllocationTable> targetTables,
             LogicalTable table );
 
+    /**
+     * Loads rows into a table without planning an insert per statement. The rows are validated against the columns of
+     * the table, assigned to their partition and written into every allocation of the table, each allocation by its own
+     * statement. Allocations on different adapters are written concurrently.
+     * If unique constraints are enforced, the keys of the loaded rows are checked against each other and against the
+     * existing rows. Neither polystore indexes nor enforced foreign keys are maintained, loading into tables which have
+     * them fails.
+     *
+     * @param transaction Transactional scope
+     * @param table Table to load the rows into
+     * @param columns Columns of the values of a row, the remaining columns of the table are set to their default value
+     * @param reader Returns the next batch of rows or null if all rows have been read
+     * @return The number of rows which have been loaded
+     */
+    long bulkLoad(
+            Transaction transaction,
+            LogicalTable table,
+            List<LogicalColumn> columns,
+            Supplier<List<List<PolyValue>>> reader );
+
     AlgRoot buildInsertStatement( Statement statement, List<AllocationColumn> to, AllocationEntity allocation );
 
-    //is used within copyData
-    void executeQuery(
+    //is used within copyData, returns the approximate number of bytes which have been copied
+    long executeQuery(
             List<AllocationColumn> columns,
             AlgRoot sourceAlg,
             Statement sourceStatement,
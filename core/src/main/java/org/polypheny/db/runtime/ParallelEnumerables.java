@@ -0,0 +1,403 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function1;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Runtime support for intra-query parallelism of the enumerable engine.
+ * <p>
+ * CPU bound work (chunks of a pipeline, partial aggregations, hash table partitions) is executed on a shared
+ * {@link ForkJoinPool}. Tasks which block while waiting for a consumer, like the producers of a union,
+ * run on a separate cached pool, so they cannot starve the compute workers.
+ */
+public final class ParallelEnumerables {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ForkJoinPool COMPUTE_POOL = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( pool );
+                thread.setName( "polypheny-parallel-" + thread.getPoolIndex() );
+                thread.setDaemon( true );
+                return thread;
+            },
+            null,
+            false );
+
+    private static final ExecutorService PRODUCER_POOL = Executors.newCachedThreadPool( runnable -> {
+        Thread thread = new Thread( runnable, "polypheny-producer-" + THREAD_COUNTER.getAndIncrement() );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    /**
+     * Marks the end of the rows which are handed over by a producer.
+     */
+    private static final Object END = new Object();
+
+
+    private ParallelEnumerables() {
+    }
+
+
+    /**
+     * Whether newly implemented plans should use the parallel operators.
+     */
+    public static boolean isEnabled() {
+        return RuntimeConfig.PARALLEL_EXECUTION.getBoolean();
+    }
+
+
+    /**
+     * Returns the degree of parallelism for the statement of the given context. A statement can overwrite the default
+     * by setting the {@link DataContext.Variable#PARALLELISM} variable.
+     */
+    public static int parallelism( DataContext context ) {
+        if ( context != null && context.get( DataContext.Variable.PARALLELISM.camelName ) instanceof Number number ) {
+            return Math.max( 1, number.intValue() );
+        }
+        return Math.max( 1, RuntimeConfig.PARALLELISM.getInteger() );
+    }
+
+
+    /**
+     * Executes the given tasks on the compute pool and returns their results in the same order.
+     */
+    public static <T> List<T> invokeAll( List<Callable<T>> tasks ) {
+        if ( tasks.size() == 1 ) {
+            try {
+                return List.of( tasks.get( 0 ).call() );
+            } catch ( RuntimeException e ) {
+                throw e;
+            } catch ( Exception e ) {
+                throw new GenericRuntimeException( e );
+            }
+        }
+        List<T> results = new ArrayList<>( tasks.size() );
+        for ( Future<T> future : COMPUTE_POOL.invokeAll( tasks ) ) {
+            results.add( await( future ) );
+        }
+        return results;
+    }
+
+
+    /**
+     * Submits a single task to the compute pool.
+     */
+    public static <T> Future<T> submit( Callable<T> task ) {
+        return COMPUTE_POOL.submit( task );
+    }
+
+
+    public static <T> T await( Future<T> future ) {
+        try {
+            return future.get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GenericRuntimeException( "Interrupted while waiting for a parallel task", e );
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException runtimeException ) {
+                throw runtimeException;
+            }
+            throw new GenericRuntimeException( e.getCause() );
+        }
+    }
+
+
+    /**
+     * Applies the given pipeline (e.g. a filter and projection) to chunks of the input in parallel. The input is read
+     * on the calling thread, the chunks are processed by at most {@link #parallelism(DataContext)} workers, and the
+     * results are returned in the order of the input.
+     * <p>
+     * The pipeline must not keep state across rows, as every chunk is processed by its own instance of the pipeline.
+     */
+    public static <T, R> Enumerable<R> map( Enumerable<T> input, Function1<Enumerable<T>, Enumerable<R>> pipeline, DataContext context, int chunkSize ) {
+        return map( input, pipeline, parallelism( context ), chunkSize );
+    }
+
+
+    /**
+     * Applies the given pipeline to chunks of the input using at most the given number of workers.
+     *
+     * @see #map(Enumerable, Function1, DataContext, int)
+     */
+    public static <T, R> Enumerable<R> map( Enumerable<T> input, Function1<Enumerable<T>, Enumerable<R>> pipeline, int parallelism, int chunkSize ) {
+        if ( parallelism <= 1 ) {
+            return pipeline.apply( input );
+        }
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<R> enumerator() {
+                return new OrderedMapEnumerator<>( input.enumerator(), pipeline, parallelism, Math.max( 1, chunkSize ) );
+            }
+        };
+    }
+
+
+    /**
+     * Concatenates the given inputs, opening the inputs of different lanes concurrently. The inputs of a lane are opened
+     * one after another in the order of the list by the same thread, e.g. because they share the connection of an adapter.
+     * Every input has its own bounded prefetch buffer, so the slowest lane determines the latency instead of the sum of
+     * all inputs.
+     *
+     * @param lanes for every input the lane it belongs to, numbered from {@code 0}
+     * @param ordered if {@code true}, the rows are returned in the order of a sequential concatenation, i.e. all rows of an
+     * input before the rows of the next input; otherwise they are returned in the order in which they arrive.
+     * The rows are not sorted in either case.
+     */
+    public static <T> Enumerable<T> union( List<Enumerable<T>> inputs, List<Integer> lanes, boolean ordered, int bufferSize ) {
+        if ( inputs.size() == 1 ) {
+            return inputs.get( 0 );
+        }
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new UnionEnumerator<>( inputs, lanes, ordered, Math.max( 1, bufferSize ) );
+            }
+        };
+    }
+
+
+    private static class UnionEnumerator<T> implements Enumerator<T> {
+
+        private final boolean ordered;
+        private final List<BlockingQueue<Object>> queues = new ArrayList<>(); // one per input if ordered, otherwise a single shared one
+        private final List<Future<?>> producers = new ArrayList<>();
+        private final int laneCount;
+        private int index; // input which is currently returned if ordered
+        private int finished; // lanes which have been completely returned if unordered
+        private volatile boolean closed;
+        private volatile Throwable failure;
+        private T current;
+
+
+        UnionEnumerator( List<Enumerable<T>> inputs, List<Integer> lanes, boolean ordered, int bufferSize ) {
+            this.ordered = ordered;
+            this.laneCount = lanes.stream().mapToInt( lane -> lane + 1 ).max().orElse( 0 );
+            if ( ordered ) {
+                inputs.forEach( input -> queues.add( new ArrayBlockingQueue<>( bufferSize ) ) );
+            } else {
+                queues.add( new ArrayBlockingQueue<>( bufferSize * laneCount ) );
+            }
+            for ( int lane = 0; lane < laneCount; lane++ ) {
+                List<Integer> laneInputs = new ArrayList<>();
+                for ( int i = 0; i < inputs.size(); i++ ) {
+                    if ( lanes.get( i ) == lane ) {
+                        laneInputs.add( i );
+                    }
+                }
+                producers.add( PRODUCER_POOL.submit( () -> produce( inputs, laneInputs ) ) );
+            }
+        }
+
+
+        private void produce( List<Enumerable<T>> inputs, List<Integer> laneInputs ) {
+            int position = 0;
+            try {
+                for ( ; position < laneInputs.size(); position++ ) {
+                    BlockingQueue<Object> queue = queueOf( laneInputs.get( position ) );
+                    try ( Enumerator<T> enumerator = inputs.get( laneInputs.get( position ) ).enumerator() ) {
+                        while ( !closed && enumerator.moveNext() ) {
+                            queue.put( enumerator.current() );
+                        }
+                    }
+                    if ( ordered && !closed ) {
+                        queue.put( END );
+                    }
+                }
+                if ( !ordered && !closed ) {
+                    queues.get( 0 ).put( END );
+                }
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            } catch ( Throwable t ) {
+                failure = t;
+                // the consumer either waits for the input which failed, for a later input of this lane or for any lane
+                try {
+                    if ( ordered ) {
+                        for ( int i : laneInputs.subList( position, laneInputs.size() ) ) {
+                            queueOf( i ).put( END );
+                        }
+                    } else {
+                        queues.get( 0 ).put( END );
+                    }
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+
+        private BlockingQueue<Object> queueOf( int input ) {
+            return ordered ? queues.get( input ) : queues.get( 0 );
+        }
+
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean moveNext() {
+            try {
+                while ( ordered ? index < queues.size() : finished < laneCount ) {
+                    Object next = queueOf( index ).take();
+                    if ( next == END ) {
+                        if ( failure != null ) {
+                            if ( failure instanceof RuntimeException runtimeException ) {
+                                throw runtimeException;
+                            }
+                            throw new GenericRuntimeException( failure );
+                        }
+                        if ( ordered ) {
+                            index++;
+                        } else {
+                            finished++;
+                        }
+                        continue;
+                    }
+                    current = (T) next;
+                    return true;
+                }
+                return false;
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GenericRuntimeException( "Interrupted while waiting for the inputs of a union", e );
+            }
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            closed = true;
+            producers.forEach( producer -> producer.cancel( true ) );
+            queues.forEach( BlockingQueue::clear );
+        }
+
+    }
+
+
+    private static class OrderedMapEnumerator<T, R> implements Enumerator<R> {
+
+        private final Enumerator<T> input;
+        private final Function1<Enumerable<T>, Enumerable<R>> pipeline;
+        private final int parallelism;
+        private final int chunkSize;
+        private final Deque<Future<List<R>>> pending = new ArrayDeque<>();
+        private boolean inputDone;
+        private Iterator<R> results = Linq4j.<R>emptyEnumerable().iterator();
+        private R current;
+
+
+        OrderedMapEnumerator( Enumerator<T> input, Function1<Enumerable<T>, Enumerable<R>> pipeline, int parallelism, int chunkSize ) {
+            this.input = input;
+            this.pipeline = pipeline;
+            this.parallelism = parallelism;
+            this.chunkSize = chunkSize;
+        }
+
+
+        private void fill() {
+            // keep one chunk per worker and one additional chunk in flight
+            while ( !inputDone && pending.size() <= parallelism ) {
+                final List<T> chunk = new ArrayList<>( chunkSize );
+                while ( chunk.size() < chunkSize && input.moveNext() ) {
+                    chunk.add( input.current() );
+                }
+                if ( chunk.size() < chunkSize ) {
+                    inputDone = true;
+                }
+                if ( !chunk.isEmpty() ) {
+                    pending.add( submit( () -> pipeline.apply( Linq4j.asEnumerable( chunk ) ).toList() ) );
+                }
+            }
+        }
+
+
+        @Override
+        public R current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            while ( !results.hasNext() ) {
+                fill();
+                if ( pending.isEmpty() ) {
+                    return false;
+                }
+                results = await( pending.poll() ).iterator();
+            }
+            current = results.next();
+            return true;
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            for ( Future<List<R>> future : pending ) {
+                future.cancel( true );
+            }
+            pending.clear();
+            input.close();
+        }
+
+    }
+
+}
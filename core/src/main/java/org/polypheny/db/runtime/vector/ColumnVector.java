@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.math.BigDecimal;
+import lombok.Getter;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.PolyTypeFamily;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+
+
+/**
+ * A column of values of one {@link PolyType}, stored in a representation which avoids one object per value wherever possible.
+ * Null values are tracked in a separate bitmap.
+ */
+public abstract class ColumnVector {
+
+    @Getter
+    protected final PolyType type;
+
+    @Getter
+    protected int size;
+
+    protected long[] nulls;
+
+
+    protected ColumnVector( PolyType type, int capacity ) {
+        this.type = type;
+        this.nulls = new long[words( capacity )];
+    }
+
+
+    /**
+     * Creates an empty vector suited for the given type.
+     */
+    public static ColumnVector create( PolyType type, int capacity ) {
+        if ( isLongBacked( type ) ) {
+            return new LongVector( type, capacity );
+        } else if ( isDoubleBacked( type ) ) {
+            return new DoubleVector( type, capacity );
+        } else if ( type.getFamily() == PolyTypeFamily.CHARACTER ) {
+            return new DictionaryVector( type, capacity );
+        }
+        return new ObjectVector( type, capacity );
+    }
+
+
+    /**
+     * Whether values of this type are stored as primitive {@code long}s.
+     * This holds for integral numbers and for temporal values, which are represented by their milliseconds.
+     */
+    public static boolean isLongBacked( PolyType type ) {
+        return switch ( type ) {
+            case TINYINT, SMALLINT, INTEGER, BIGINT, DATE, TIME, TIMESTAMP -> true;
+            default -> false;
+        };
+    }
+
+
+    /**
+     * Whether values of this type are stored as primitive {@code double}s.
+     */
+    public static boolean isDoubleBacked( PolyType type ) {
+        return switch ( type ) {
+            case FLOAT, REAL, DOUBLE -> true;
+            default -> false;
+        };
+    }
+
+
+    /**
+     * Appends a value to the end of this vector.
+     */
+    public void append( PolyValue value ) {
+        ensureCapacity( size + 1 );
+        if ( value == null || value.isNull() ) {
+            nulls[size >> 6] |= 1L << size;
+            appendNullSlot();
+        } else {
+            appendValue( value );
+        }
+        size++;
+    }
+
+
+    public boolean isNull( int index ) {
+        return (nulls[index >> 6] & (1L << index)) != 0;
+    }
+
+
+    /**
+     * Whether this vector does not contain any null value, which allows kernels to skip the null checks.
+     */
+    public boolean hasNoNulls() {
+        for ( int i = 0; i < words( size ); i++ ) {
+            if ( nulls[i] != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Materializes the value at the given position. Returns {@code null} for null values.
+     */
+    public PolyValue get( int index ) {
+        return isNull( index ) ? null : getValue( index );
+    }
+
+
+    protected void ensureCapacity( int capacity ) {
+        if ( words( capacity ) > nulls.length ) {
+            long[] newNulls = new long[Math.max( words( capacity ), nulls.length * 2 )];
+            System.arraycopy( nulls, 0, newNulls, 0, nulls.length );
+            nulls = newNulls;
+        }
+        ensureValueCapacity( capacity );
+    }
+
+
+    protected abstract void ensureValueCapacity( int capacity );
+
+    protected abstract void appendValue( PolyValue value );
+
+    protected abstract void appendNullSlot();
+
+    protected abstract PolyValue getValue( int index );
+
+
+    protected static int words( int bits ) {
+        return Math.max( 1, (bits + 63) >> 6 );
+    }
+
+
+    protected static int grow( int current, int required ) {
+        return Math.max( required, current + (current >> 1) + 1 );
+    }
+
+
+    /**
+     * Converts a primitive value back into the {@link PolyValue} representation of the given type.
+     *
+     * @throws GenericRuntimeException if the value exceeds the range of an integral type, e.g. the sum of an {@code INTEGER} column
+     */
+    public static PolyValue box( long value, PolyType type ) {
+        return switch ( type ) {
+            case TINYINT, SMALLINT, INTEGER -> PolyInteger.of( narrow( value, type ) );
+            case DATE -> PolyDate.of( value );
+            case TIME -> PolyTime.of( (int) value );
+            case TIMESTAMP -> PolyTimestamp.of( value );
+            case DECIMAL -> PolyBigDecimal.of( BigDecimal.valueOf( value ) );
+            case FLOAT, REAL -> PolyFloat.of( (float) value );
+            case DOUBLE -> PolyDouble.of( (double) value );
+            default -> PolyLong.of( value );
+        };
+    }
+
+
+    private static int narrow( long value, PolyType type ) {
+        final long min = switch ( type ) {
+            case TINYINT -> Byte.MIN_VALUE;
+            case SMALLINT -> Short.MIN_VALUE;
+            default -> Integer.MIN_VALUE;
+        };
+        final long max = switch ( type ) {
+            case TINYINT -> Byte.MAX_VALUE;
+            case SMALLINT -> Short.MAX_VALUE;
+            default -> Integer.MAX_VALUE;
+        };
+        if ( value < min || value > max ) {
+            throw new GenericRuntimeException( "Value %s is out of range for type %s.", value, type );
+        }
+        return (int) value;
+    }
+
+
+    /**
+     * Converts a primitive value back into the {@link PolyValue} representation of the given type.
+     */
+    public static PolyValue box( double value, PolyType type ) {
+        return switch ( type ) {
+            case FLOAT, REAL -> PolyFloat.of( (float) value );
+            case DECIMAL -> PolyBigDecimal.of( value );
+            default -> PolyDouble.of( value );
+        };
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Dictionary-encoded vector of character values. Every distinct string is stored once, the rows only hold the
+ * position of their value in the dictionary. This allows equality predicates and grouping to operate on the codes.
+ */
+public class DictionaryVector extends ColumnVector {
+
+    private int[] codes;
+    private final List<PolyString> dictionary = new ArrayList<>();
+    private final Map<String, Integer> lookup = new HashMap<>();
+
+
+    public DictionaryVector( PolyType type, int capacity ) {
+        super( type, capacity );
+        this.codes = new int[Math.max( 1, capacity )];
+    }
+
+
+    /**
+     * Returns the dictionary code of the value at the given position. Null values have the code {@code -1}.
+     */
+    public int getCode( int index ) {
+        return codes[index];
+    }
+
+
+    /**
+     * Returns the dictionary code of the given string or {@code -1}, if this vector does not contain the value.
+     */
+    public int codeOf( String value ) {
+        Integer code = lookup.get( value );
+        return code == null ? -1 : code;
+    }
+
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+
+    public PolyString getDictionaryValue( int code ) {
+        return dictionary.get( code );
+    }
+
+
+    /**
+     * Direct access to the backing array, used by the vectorized kernels.
+     */
+    public int[] codes() {
+        return codes;
+    }
+
+
+    @Override
+    protected void ensureValueCapacity( int capacity ) {
+        if ( capacity > codes.length ) {
+            int[] newCodes = new int[grow( codes.length, capacity )];
+            System.arraycopy( codes, 0, newCodes, 0, size );
+            codes = newCodes;
+        }
+    }
+
+
+    @Override
+    protected void appendValue( PolyValue value ) {
+        PolyString string = value.asString();
+        Integer code = lookup.get( string.value );
+        if ( code == null ) {
+            code = dictionary.size();
+            dictionary.add( string );
+            lookup.put( string.value, code );
+        }
+        codes[size] = code;
+    }
+
+
+    @Override
+    protected void appendNullSlot() {
+        codes[size] = -1;
+    }
+
+
+    @Override
+    protected PolyValue getValue( int index ) {
+        return dictionary.get( codes[index] );
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Vector of floating point values, stored as primitive {@code double}s.
+ */
+public class DoubleVector extends ColumnVector {
+
+    private double[] values;
+
+
+    public DoubleVector( PolyType type, int capacity ) {
+        super( type, capacity );
+        this.values = new double[Math.max( 1, capacity )];
+    }
+
+
+    /**
+     * Returns the primitive value at the given position. The result is undefined for null values.
+     */
+    public double getDouble( int index ) {
+        return values[index];
+    }
+
+
+    /**
+     * Direct access to the backing array, used by the vectorized kernels.
+     */
+    public double[] values() {
+        return values;
+    }
+
+
+    @Override
+    protected void ensureValueCapacity( int capacity ) {
+        if ( capacity > values.length ) {
+            double[] newValues = new double[grow( values.length, capacity )];
+            System.arraycopy( values, 0, newValues, 0, size );
+            values = newValues;
+        }
+    }
+
+
+    @Override
+    protected void appendValue( PolyValue value ) {
+        values[size] = value.asNumber().doubleValue();
+    }
+
+
+    @Override
+    protected void appendNullSlot() {
+        values[size] = 0;
+    }
+
+
+    @Override
+    protected PolyValue getValue( int index ) {
+        return box( values[index], type );
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Open addressing hash map from primitive {@code long} keys to non-negative {@code int} values, which avoids boxing the
+ * keys of the vectorized hash aggregate and hash join.
+ */
+class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+
+    LongIntHashMap( int expected ) {
+        int capacity = Integer.highestOneBit( Math.max( 16, expected * 2 ) - 1 ) << 1;
+        allocate( capacity );
+    }
+
+
+    private void allocate( int capacity ) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill( values, MISSING );
+        mask = capacity - 1;
+    }
+
+
+    private static int hash( long key ) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+
+    int get( long key ) {
+        int slot = hash( key ) & mask;
+        while ( values[slot] != MISSING ) {
+            if ( keys[slot] == key ) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+
+    /**
+     * Returns the value for the given key, or inserts the given value if the key is not present yet.
+     */
+    int putIfAbsent( long key, int value ) {
+        int slot = hash( key ) & mask;
+        while ( values[slot] != MISSING ) {
+            if ( keys[slot] == key ) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if ( ++size * 2 > keys.length ) {
+            rehash();
+        }
+        return value;
+    }
+
+
+    void put( long key, int value ) {
+        int slot = hash( key ) & mask;
+        while ( values[slot] != MISSING ) {
+            if ( keys[slot] == key ) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if ( ++size * 2 > keys.length ) {
+            rehash();
+        }
+    }
+
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate( keys.length * 2 );
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldValues[i] != MISSING ) {
+                int slot = hash( oldKeys[i] ) & mask;
+                while ( values[slot] != MISSING ) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import lombok.Getter;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * A horizontal slice of a result, stored column by column. Filters do not copy the vectors but restrict the
+ * batch to a selection of positions.
+ */
+public class VectorBatch {
+
+    @Getter
+    private final ColumnVector[] columns;
+
+    @Getter
+    private final int size;
+
+    /**
+     * Positions of the rows which are still part of the batch, {@code null} if all rows are selected.
+     */
+    private int[] selection;
+
+    @Getter
+    private int selectedCount;
+
+
+    public VectorBatch( ColumnVector[] columns, int size ) {
+        this.columns = columns;
+        this.size = size;
+        this.selectedCount = size;
+    }
+
+
+    private VectorBatch( ColumnVector[] columns, int size, int[] selection, int selectedCount ) {
+        this.columns = columns;
+        this.size = size;
+        this.selection = selection;
+        this.selectedCount = selectedCount;
+    }
+
+
+    public static VectorBatch empty( PolyType[] types, int capacity ) {
+        ColumnVector[] columns = new ColumnVector[types.length];
+        for ( int i = 0; i < types.length; i++ ) {
+            columns[i] = ColumnVector.create( types[i], capacity );
+        }
+        return new VectorBatch( columns, 0 );
+    }
+
+
+    public ColumnVector column( int index ) {
+        return columns[index];
+    }
+
+
+    /**
+     * Maps the i-th selected row to its position in the column vectors.
+     */
+    public int position( int i ) {
+        return selection == null ? i : selection[i];
+    }
+
+
+    /**
+     * Restricts the batch to the given positions. The positions have to be a subset of the currently selected ones.
+     */
+    public void select( int[] positions, int count ) {
+        this.selection = positions;
+        this.selectedCount = count;
+    }
+
+
+    /**
+     * Returns a batch which only contains the given columns, sharing the vectors and the selection with this batch.
+     */
+    public VectorBatch project( int[] fields ) {
+        ColumnVector[] projected = new ColumnVector[fields.length];
+        for ( int i = 0; i < fields.length; i++ ) {
+            projected[i] = columns[fields[i]];
+        }
+        return new VectorBatch( projected, size, selection, selectedCount );
+    }
+
+
+    /**
+     * Materializes the i-th selected row.
+     */
+    public PolyValue[] row( int i ) {
+        final int position = position( i );
+        final PolyValue[] row = new PolyValue[columns.length];
+        for ( int j = 0; j < columns.length; j++ ) {
+            row[j] = columns[j].get( position );
+        }
+        return row;
+    }
+
+}
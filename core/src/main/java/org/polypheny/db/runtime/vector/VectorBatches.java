@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Conversions between row based {@link Enumerable}s and enumerables of {@link VectorBatch}es. These are used at the
+ * boundaries between the vectorized operators and the regular enumerable operators.
+ */
+public final class VectorBatches {
+
+    private VectorBatches() {
+    }
+
+
+    /**
+     * Collects the rows of the given enumerable into batches of at most {@code batchSize} rows.
+     */
+    public static Enumerable<VectorBatch> toBatches( Enumerable<PolyValue[]> rows, PolyType[] types, int batchSize ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                return new BatchingEnumerator( rows.enumerator(), types, batchSize );
+            }
+        };
+    }
+
+
+    /**
+     * Materializes the selected rows of the given batches.
+     */
+    public static Enumerable<PolyValue[]> toRows( Enumerable<VectorBatch> batches ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<PolyValue[]> enumerator() {
+                return new RowEnumerator( batches.enumerator() );
+            }
+        };
+    }
+
+
+    private static class BatchingEnumerator implements Enumerator<VectorBatch> {
+
+        private final Enumerator<PolyValue[]> input;
+        private final PolyType[] types;
+        private final int batchSize;
+        private VectorBatch current;
+        private boolean done;
+
+
+        BatchingEnumerator( Enumerator<PolyValue[]> input, PolyType[] types, int batchSize ) {
+            this.input = input;
+            this.types = types;
+            this.batchSize = Math.max( 1, batchSize );
+        }
+
+
+        @Override
+        public VectorBatch current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( done ) {
+                return false;
+            }
+            ColumnVector[] columns = new ColumnVector[types.length];
+            for ( int i = 0; i < types.length; i++ ) {
+                columns[i] = ColumnVector.create( types[i], batchSize );
+            }
+            int count = 0;
+            while ( count < batchSize ) {
+                if ( !input.moveNext() ) {
+                    done = true;
+                    break;
+                }
+                PolyValue[] row = input.current();
+                for ( int i = 0; i < columns.length; i++ ) {
+                    columns[i].append( row[i] );
+                }
+                count++;
+            }
+            if ( count == 0 ) {
+                return false;
+            }
+            current = new VectorBatch( columns, count );
+            return true;
+        }
+
+
+        @Override
+        public void reset() {
+            input.reset();
+            done = false;
+            current = null;
+        }
+
+
+        @Override
+        public void close() {
+            input.close();
+        }
+
+    }
+
+
+    private static class RowEnumerator implements Enumerator<PolyValue[]> {
+
+        private final Enumerator<VectorBatch> input;
+        private VectorBatch batch;
+        private int index;
+        private PolyValue[] current;
+
+
+        RowEnumerator( Enumerator<VectorBatch> input ) {
+            this.input = input;
+        }
+
+
+        @Override
+        public PolyValue[] current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            while ( batch == null || index >= batch.getSelectedCount() ) {
+                if ( !input.moveNext() ) {
+                    return false;
+                }
+                batch = input.current();
+                index = 0;
+            }
+            current = batch.row( index++ );
+            return true;
+        }
+
+
+        @Override
+        public void reset() {
+            input.reset();
+            batch = null;
+            current = null;
+        }
+
+
+        @Override
+        public void close() {
+            input.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Vectorized selection kernels. Each kernel narrows the selection of a {@link VectorBatch} to the rows for which the
+ * comparison {@code column <kind> constant} holds. Null values never qualify.
+ */
+public final class VectorFilters {
+
+    private VectorFilters() {
+    }
+
+
+    /**
+     * Applies the comparison to every batch of the given enumerable and drops batches without any selected row.
+     */
+    public static Enumerable<VectorBatch> filter( Enumerable<VectorBatch> batches, int column, Kind kind, PolyValue constant ) {
+        return batches
+                .select( batch -> compare( batch, column, kind, constant ) )
+                .where( batch -> batch.getSelectedCount() > 0 );
+    }
+
+
+    /**
+     * Applies a conjunction of conditions to every batch of the given enumerable and drops batches without any selected row.
+     * Besides the comparisons supported by {@link #compare(VectorBatch, int, Kind, PolyValue)}, a condition may be
+     * {@link Kind#IS_NOT_NULL}, whose constant is ignored.
+     */
+    public static Enumerable<VectorBatch> filter( Enumerable<VectorBatch> batches, int[] columns, Kind[] kinds, PolyValue[] constants ) {
+        if ( columns.length == 0 ) {
+            return batches;
+        }
+        return batches
+                .select( batch -> {
+                    for ( int i = 0; i < columns.length && batch.getSelectedCount() > 0; i++ ) {
+                        if ( kinds[i] == Kind.IS_NOT_NULL ) {
+                            isNotNull( batch, columns[i] );
+                        } else {
+                            compare( batch, columns[i], kinds[i], constants[i] );
+                        }
+                    }
+                    return batch;
+                } )
+                .where( batch -> batch.getSelectedCount() > 0 );
+    }
+
+
+    /**
+     * Projects every batch of the given enumerable onto the given fields.
+     */
+    public static Enumerable<VectorBatch> project( Enumerable<VectorBatch> batches, int[] fields ) {
+        return batches.select( batch -> batch.project( fields ) );
+    }
+
+
+    public static VectorBatch compare( VectorBatch batch, int column, Kind kind, PolyValue constant ) {
+        ColumnVector vector = batch.column( column );
+        if ( constant == null || constant.isNull() ) {
+            batch.select( new int[0], 0 );
+            return batch;
+        }
+        if ( vector instanceof LongVector longVector && (constant.isNumber() || constant.isTemporal()) && !isDecimal( constant ) ) {
+            compareLong( batch, longVector, kind, LongVector.toLong( constant ) );
+        } else if ( (vector instanceof LongVector || vector instanceof DoubleVector) && constant.isNumber() ) {
+            compareDouble( batch, vector, kind, constant.asNumber().doubleValue() );
+        } else if ( vector instanceof DictionaryVector dictionaryVector && constant.isString() && (kind == Kind.EQUALS || kind == Kind.NOT_EQUALS) ) {
+            compareCode( batch, dictionaryVector, kind, dictionaryVector.codeOf( constant.asString().value ) );
+        } else {
+            compareGeneric( batch, vector, kind, constant );
+        }
+        return batch;
+    }
+
+
+    public static VectorBatch isNotNull( VectorBatch batch, int column ) {
+        ColumnVector vector = batch.column( column );
+        if ( vector.hasNoNulls() ) {
+            return batch;
+        }
+        final int[] selection = new int[batch.getSelectedCount()];
+        int count = 0;
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            if ( !vector.isNull( position ) ) {
+                selection[count++] = position;
+            }
+        }
+        batch.select( selection, count );
+        return batch;
+    }
+
+
+    private static boolean isDecimal( PolyValue constant ) {
+        return constant.isNumber() && constant.asNumber().isDecimal();
+    }
+
+
+    private static void compareLong( VectorBatch batch, LongVector vector, Kind kind, long constant ) {
+        final long[] values = vector.values();
+        final boolean checkNulls = !vector.hasNoNulls();
+        final int[] selection = new int[batch.getSelectedCount()];
+        int count = 0;
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            if ( checkNulls && vector.isNull( position ) ) {
+                continue;
+            }
+            if ( matches( kind, Long.compare( values[position], constant ) ) ) {
+                selection[count++] = position;
+            }
+        }
+        batch.select( selection, count );
+    }
+
+
+    private static void compareDouble( VectorBatch batch, ColumnVector vector, Kind kind, double constant ) {
+        final boolean checkNulls = !vector.hasNoNulls();
+        final int[] selection = new int[batch.getSelectedCount()];
+        int count = 0;
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            if ( checkNulls && vector.isNull( position ) ) {
+                continue;
+            }
+            final double value = vector instanceof DoubleVector doubleVector
+                    ? doubleVector.getDouble( position )
+                    : ((LongVector) vector).getLong( position );
+            if ( matches( kind, Double.compare( value, constant ) ) ) {
+                selection[count++] = position;
+            }
+        }
+        batch.select( selection, count );
+    }
+
+
+    private static void compareCode( VectorBatch batch, DictionaryVector vector, Kind kind, int code ) {
+        final int[] codes = vector.codes();
+        final boolean equals = kind == Kind.EQUALS;
+        final int[] selection = new int[batch.getSelectedCount()];
+        int count = 0;
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            if ( codes[position] < 0 ) {
+                continue;
+            }
+            if ( (codes[position] == code) == equals ) {
+                selection[count++] = position;
+            }
+        }
+        batch.select( selection, count );
+    }
+
+
+    private static void compareGeneric( VectorBatch batch, ColumnVector vector, Kind kind, PolyValue constant ) {
+        final int[] selection = new int[batch.getSelectedCount()];
+        int count = 0;
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            final PolyValue value = vector.get( position );
+            if ( value != null && matches( kind, value.compareTo( constant ) ) ) {
+                selection[count++] = position;
+            }
+        }
+        batch.select( selection, count );
+    }
+
+
+    private static boolean matches( Kind kind, int comparison ) {
+        return switch ( kind ) {
+            case EQUALS -> comparison == 0;
+            case NOT_EQUALS -> comparison != 0;
+            case LESS_THAN -> comparison < 0;
+            case LESS_THAN_OR_EQUAL -> comparison <= 0;
+            case GREATER_THAN -> comparison > 0;
+            case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+            default -> throw new GenericRuntimeException( "Comparison %s is not supported by the vectorized filter.", kind );
+        };
+    }
+
+}
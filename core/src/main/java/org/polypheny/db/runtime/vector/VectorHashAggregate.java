@@ -0,0 +1,581 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.runtime.ParallelEnumerables;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * Hash aggregation over {@link VectorBatch}es. For every batch, the group ids of all selected rows are resolved in one
+ * pass over the key columns, afterward every aggregate is updated column-wise on primitive state arrays.
+ * <p>
+ * Supports {@code COUNT}, {@code SUM}, {@code $SUM0}, {@code MIN} and {@code MAX}, where all aggregates except
+ * {@code COUNT} require a long or double backed argument (see {@link #supports(Kind, PolyType)}).
+ */
+public class VectorHashAggregate {
+
+    private final int[] groupKeys;
+    private final PolyType[] inputTypes;
+    private final Accumulator[] accumulators;
+
+    private final List<PolyValue[]> groups = new ArrayList<>();
+    private final Map<List<PolyValue>, Integer> groupLookup = new HashMap<>();
+    private final LongIntHashMap longGroupLookup = new LongIntHashMap( 1024 );
+    private int nullGroup = -1;
+
+
+    private VectorHashAggregate( int[] groupKeys, PolyType[] inputTypes, Kind[] kinds, int[] args, PolyType[] resultTypes ) {
+        this.groupKeys = groupKeys;
+        this.inputTypes = inputTypes;
+        this.accumulators = new Accumulator[kinds.length];
+        for ( int i = 0; i < kinds.length; i++ ) {
+            accumulators[i] = Accumulator.of( kinds[i], args[i], args[i] < 0 ? null : inputTypes[args[i]], resultTypes[i] );
+        }
+        if ( groupKeys.length == 0 ) {
+            // an aggregation without keys always produces exactly one row
+            newGroup( new PolyValue[0] );
+        }
+    }
+
+
+    /**
+     * Whether the given aggregate function can be evaluated by the vectorized aggregation.
+     *
+     * @param kind the kind of the aggregate function
+     * @param argType the type of the argument, {@code null} for {@code COUNT(*)}
+     */
+    public static boolean supports( Kind kind, PolyType argType ) {
+        return switch ( kind ) {
+            case COUNT -> true;
+            case SUM, SUM0, MIN, MAX -> argType != null && (ColumnVector.isLongBacked( argType ) || ColumnVector.isDoubleBacked( argType ));
+            default -> false;
+        };
+    }
+
+
+    /**
+     * Groups the given rows by the given keys and evaluates the aggregates. The output rows consist of the group keys
+     * followed by one column per aggregate.
+     *
+     * @param args the argument index of each aggregate, {@code -1} for {@code COUNT(*)}
+     */
+    public static Enumerable<PolyValue[]> aggregate( Enumerable<PolyValue[]> input, int[] groupKeys, PolyType[] inputTypes, Kind[] kinds, int[] args, PolyType[] resultTypes, int batchSize ) {
+        return aggregate( input, groupKeys, inputTypes, kinds, args, resultTypes, batchSize, 1 );
+    }
+
+
+    /**
+     * Groups and aggregates the given rows using up to {@code parallelism} workers. Every worker builds a partial
+     * aggregation over a disjoint set of batches, the partial aggregations are merged at the end.
+     */
+    public static Enumerable<PolyValue[]> aggregate( Enumerable<PolyValue[]> input, int[] groupKeys, PolyType[] inputTypes, Kind[] kinds, int[] args, PolyType[] resultTypes, int batchSize, int parallelism ) {
+        return aggregate( VectorBatches.toBatches( input, inputTypes, batchSize ), groupKeys, inputTypes, kinds, args, resultTypes, parallelism );
+    }
+
+
+    /**
+     * Filters, projects, groups and aggregates the given rows. The conditions and the projection are evaluated on the
+     * batches by the {@link VectorFilters}, the group keys and arguments of the aggregates refer to the projected fields.
+     *
+     * @param filterColumns the column of each condition, conditions are combined by {@code AND}
+     * @param projection the input field of each projected field
+     * @see VectorFilters#filter(Enumerable, int[], Kind[], PolyValue[])
+     */
+    public static Enumerable<PolyValue[]> aggregate( Enumerable<PolyValue[]> input, PolyType[] inputTypes, int[] filterColumns, Kind[] filterKinds, PolyValue[] filterConstants, int[] projection, int[] groupKeys, Kind[] kinds, int[] args, PolyType[] resultTypes, int batchSize, int parallelism ) {
+        final PolyType[] projectedTypes = new PolyType[projection.length];
+        for ( int i = 0; i < projection.length; i++ ) {
+            projectedTypes[i] = inputTypes[projection[i]];
+        }
+        final Enumerable<VectorBatch> batches = VectorFilters.project(
+                VectorFilters.filter( VectorBatches.toBatches( input, inputTypes, batchSize ), filterColumns, filterKinds, filterConstants ),
+                projection );
+        return aggregate( batches, groupKeys, projectedTypes, kinds, args, resultTypes, parallelism );
+    }
+
+
+    private static Enumerable<PolyValue[]> aggregate( Enumerable<VectorBatch> batches, int[] groupKeys, PolyType[] inputTypes, Kind[] kinds, int[] args, PolyType[] resultTypes, int parallelism ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<PolyValue[]> enumerator() {
+                if ( parallelism <= 1 ) {
+                    VectorHashAggregate aggregate = new VectorHashAggregate( groupKeys, inputTypes, kinds, args, resultTypes );
+                    for ( VectorBatch batch : batches ) {
+                        aggregate.add( batch );
+                    }
+                    return Linq4j.enumerator( aggregate.results() );
+                }
+
+                final List<VectorHashAggregate> partials = new ArrayList<>( parallelism );
+                for ( int i = 0; i < parallelism; i++ ) {
+                    partials.add( new VectorHashAggregate( groupKeys, inputTypes, kinds, args, resultTypes ) );
+                }
+                // one batch per worker and round, a worker never sees two batches at the same time
+                final List<VectorBatch> round = new ArrayList<>( parallelism );
+                for ( VectorBatch batch : batches ) {
+                    round.add( batch );
+                    if ( round.size() == parallelism ) {
+                        addAll( partials, round );
+                    }
+                }
+                addAll( partials, round );
+
+                final VectorHashAggregate result = partials.get( 0 );
+                for ( int i = 1; i < partials.size(); i++ ) {
+                    result.merge( partials.get( i ) );
+                }
+                return Linq4j.enumerator( result.results() );
+            }
+        };
+    }
+
+
+    private static void addAll( List<VectorHashAggregate> partials, List<VectorBatch> round ) {
+        final List<Callable<Void>> tasks = new ArrayList<>( round.size() );
+        for ( int i = 0; i < round.size(); i++ ) {
+            final VectorHashAggregate partial = partials.get( i );
+            final VectorBatch batch = round.get( i );
+            tasks.add( () -> {
+                partial.add( batch );
+                return null;
+            } );
+        }
+        ParallelEnumerables.invokeAll( tasks );
+        round.clear();
+    }
+
+
+    void add( VectorBatch batch ) {
+        final int[] groupIds = assignGroups( batch );
+        for ( Accumulator accumulator : accumulators ) {
+            accumulator.ensureGroups( groups.size() );
+            accumulator.add( batch, groupIds );
+        }
+    }
+
+
+    List<PolyValue[]> results() {
+        List<PolyValue[]> results = new ArrayList<>( groups.size() );
+        for ( int group = 0; group < groups.size(); group++ ) {
+            PolyValue[] key = groups.get( group );
+            PolyValue[] row = Arrays.copyOf( key, key.length + accumulators.length );
+            for ( int i = 0; i < accumulators.length; i++ ) {
+                accumulators[i].ensureGroups( groups.size() );
+                row[key.length + i] = accumulators[i].result( group );
+            }
+            results.add( row );
+        }
+        return results;
+    }
+
+
+    /**
+     * Merges the groups and aggregate states of another aggregation with the same definition into this one.
+     */
+    void merge( VectorHashAggregate other ) {
+        for ( int group = 0; group < other.groups.size(); group++ ) {
+            final int target = groupOf( other.groups.get( group ) );
+            for ( int i = 0; i < accumulators.length; i++ ) {
+                accumulators[i].ensureGroups( groups.size() );
+                other.accumulators[i].ensureGroups( other.groups.size() );
+                accumulators[i].merge( other.accumulators[i], group, target );
+            }
+        }
+    }
+
+
+    /**
+     * Resolves the group of the given key, using the same lookup structure as {@link #assignGroups(VectorBatch)}.
+     */
+    private int groupOf( PolyValue[] key ) {
+        if ( groupKeys.length == 0 ) {
+            return 0;
+        }
+        if ( groupKeys.length == 1 ) {
+            if ( key[0] == null ) {
+                if ( nullGroup < 0 ) {
+                    nullGroup = newGroup( new PolyValue[]{ null } );
+                }
+                return nullGroup;
+            }
+            if ( ColumnVector.isLongBacked( inputTypes[groupKeys[0]] ) ) {
+                final int group = longGroupLookup.putIfAbsent( LongVector.toLong( key[0] ), groups.size() );
+                if ( group == groups.size() ) {
+                    newGroup( key );
+                }
+                return group;
+            }
+        }
+        return groupLookup.computeIfAbsent( Arrays.asList( key ), k -> newGroup( key ) );
+    }
+
+
+    private int newGroup( PolyValue[] key ) {
+        groups.add( key );
+        return groups.size() - 1;
+    }
+
+
+    private int[] assignGroups( VectorBatch batch ) {
+        final int count = batch.getSelectedCount();
+        final int[] groupIds = new int[count];
+        if ( groupKeys.length == 0 ) {
+            return groupIds;
+        }
+        if ( groupKeys.length == 1 ) {
+            ColumnVector vector = batch.column( groupKeys[0] );
+            if ( vector instanceof LongVector longVector ) {
+                assignLongGroups( batch, longVector, groupIds );
+                return groupIds;
+            } else if ( vector instanceof DictionaryVector dictionaryVector ) {
+                assignDictionaryGroups( batch, dictionaryVector, groupIds );
+                return groupIds;
+            }
+        }
+        for ( int i = 0; i < count; i++ ) {
+            final int position = batch.position( i );
+            final PolyValue[] key = new PolyValue[groupKeys.length];
+            for ( int k = 0; k < groupKeys.length; k++ ) {
+                key[k] = batch.column( groupKeys[k] ).get( position );
+            }
+            groupIds[i] = groupLookup.computeIfAbsent( Arrays.asList( key ), k -> newGroup( key ) );
+        }
+        return groupIds;
+    }
+
+
+    private void assignLongGroups( VectorBatch batch, LongVector vector, int[] groupIds ) {
+        final long[] values = vector.values();
+        final boolean checkNulls = !vector.hasNoNulls();
+        for ( int i = 0; i < groupIds.length; i++ ) {
+            final int position = batch.position( i );
+            if ( checkNulls && vector.isNull( position ) ) {
+                if ( nullGroup < 0 ) {
+                    nullGroup = newGroup( new PolyValue[]{ null } );
+                }
+                groupIds[i] = nullGroup;
+                continue;
+            }
+            int group = longGroupLookup.putIfAbsent( values[position], groups.size() );
+            if ( group == groups.size() ) {
+                newGroup( new PolyValue[]{ vector.getValue( position ) } );
+            }
+            groupIds[i] = group;
+        }
+    }
+
+
+    private void assignDictionaryGroups( VectorBatch batch, DictionaryVector vector, int[] groupIds ) {
+        // the dictionary is local to the batch, so every distinct value has to be resolved only once per batch
+        final int[] codeToGroup = new int[vector.getDictionarySize()];
+        Arrays.fill( codeToGroup, -1 );
+        final int[] codes = vector.codes();
+        for ( int i = 0; i < groupIds.length; i++ ) {
+            final int code = codes[batch.position( i )];
+            if ( code < 0 ) {
+                if ( nullGroup < 0 ) {
+                    nullGroup = newGroup( new PolyValue[]{ null } );
+                }
+                groupIds[i] = nullGroup;
+                continue;
+            }
+            if ( codeToGroup[code] < 0 ) {
+                final PolyValue[] key = new PolyValue[]{ vector.getDictionaryValue( code ) };
+                codeToGroup[code] = groupLookup.computeIfAbsent( Arrays.asList( key ), k -> newGroup( key ) );
+            }
+            groupIds[i] = codeToGroup[code];
+        }
+    }
+
+
+    /**
+     * State of one aggregate function over all groups.
+     */
+    private abstract static class Accumulator {
+
+        protected final int arg;
+        protected final PolyType resultType;
+
+
+        Accumulator( int arg, PolyType resultType ) {
+            this.arg = arg;
+            this.resultType = resultType;
+        }
+
+
+        static Accumulator of( Kind kind, int arg, PolyType argType, PolyType resultType ) {
+            if ( kind == Kind.COUNT ) {
+                return new CountAccumulator( arg, resultType );
+            }
+            if ( !supports( kind, argType ) ) {
+                throw new GenericRuntimeException( "Aggregate %s is not supported by the vectorized aggregation.", kind );
+            }
+            if ( ColumnVector.isLongBacked( argType ) ) {
+                return new LongAccumulator( kind, arg, resultType );
+            }
+            return new DoubleAccumulator( kind, arg, resultType );
+        }
+
+
+        abstract void ensureGroups( int groups );
+
+        abstract void add( VectorBatch batch, int[] groupIds );
+
+        abstract PolyValue result( int group );
+
+        /**
+         * Adds the state of a group of another accumulator of the same kind to a group of this accumulator.
+         */
+        abstract void merge( Accumulator other, int otherGroup, int group );
+
+    }
+
+
+    private static class CountAccumulator extends Accumulator {
+
+        private long[] counts = new long[16];
+
+
+        CountAccumulator( int arg, PolyType resultType ) {
+            super( arg, resultType );
+        }
+
+
+        @Override
+        void ensureGroups( int groups ) {
+            if ( groups > counts.length ) {
+                counts = Arrays.copyOf( counts, Math.max( groups, counts.length * 2 ) );
+            }
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] groupIds ) {
+            if ( arg < 0 || batch.column( arg ).hasNoNulls() ) {
+                for ( int groupId : groupIds ) {
+                    counts[groupId]++;
+                }
+                return;
+            }
+            final ColumnVector vector = batch.column( arg );
+            for ( int i = 0; i < groupIds.length; i++ ) {
+                if ( !vector.isNull( batch.position( i ) ) ) {
+                    counts[groupIds[i]]++;
+                }
+            }
+        }
+
+
+        @Override
+        void merge( Accumulator other, int otherGroup, int group ) {
+            counts[group] += ((CountAccumulator) other).counts[otherGroup];
+        }
+
+
+        @Override
+        PolyValue result( int group ) {
+            return resultType == PolyType.BIGINT ? PolyLong.of( counts[group] ) : ColumnVector.box( counts[group], resultType );
+        }
+
+    }
+
+
+    private static class LongAccumulator extends Accumulator {
+
+        private final Kind kind;
+        private long[] values = new long[16];
+        private boolean[] seen = new boolean[16];
+
+
+        LongAccumulator( Kind kind, int arg, PolyType resultType ) {
+            super( arg, resultType );
+            this.kind = kind;
+        }
+
+
+        @Override
+        void ensureGroups( int groups ) {
+            if ( groups > values.length ) {
+                int size = Math.max( groups, values.length * 2 );
+                values = Arrays.copyOf( values, size );
+                seen = Arrays.copyOf( seen, size );
+            }
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] groupIds ) {
+            final LongVector vector = (LongVector) batch.column( arg );
+            final long[] input = vector.values();
+            final boolean checkNulls = !vector.hasNoNulls();
+            for ( int i = 0; i < groupIds.length; i++ ) {
+                final int position = batch.position( i );
+                if ( checkNulls && vector.isNull( position ) ) {
+                    continue;
+                }
+                final int group = groupIds[i];
+                final long value = input[position];
+                if ( !seen[group] ) {
+                    seen[group] = true;
+                    values[group] = value;
+                    continue;
+                }
+                values[group] = combine( values[group], value );
+            }
+        }
+
+
+        @Override
+        void merge( Accumulator other, int otherGroup, int group ) {
+            final LongAccumulator partial = (LongAccumulator) other;
+            if ( !partial.seen[otherGroup] ) {
+                return;
+            }
+            final long value = partial.values[otherGroup];
+            if ( !seen[group] ) {
+                seen[group] = true;
+                values[group] = value;
+                return;
+            }
+            values[group] = combine( values[group], value );
+        }
+
+
+        /**
+         * Combines two values, sums which exceed the range of {@code long} are rejected instead of wrapping around.
+         */
+        private long combine( long current, long value ) {
+            return switch ( kind ) {
+                case MIN -> Math.min( current, value );
+                case MAX -> Math.max( current, value );
+                default -> {
+                    try {
+                        yield Math.addExact( current, value );
+                    } catch ( ArithmeticException e ) {
+                        throw new GenericRuntimeException( "Sum exceeds the range of type %s.", resultType );
+                    }
+                }
+            };
+        }
+
+
+        @Override
+        PolyValue result( int group ) {
+            if ( !seen[group] ) {
+                return kind == Kind.SUM0 ? ColumnVector.box( 0L, resultType ) : null;
+            }
+            return ColumnVector.box( values[group], resultType );
+        }
+
+    }
+
+
+    private static class DoubleAccumulator extends Accumulator {
+
+        private final Kind kind;
+        private double[] values = new double[16];
+        private boolean[] seen = new boolean[16];
+
+
+        DoubleAccumulator( Kind kind, int arg, PolyType resultType ) {
+            super( arg, resultType );
+            this.kind = kind;
+        }
+
+
+        @Override
+        void ensureGroups( int groups ) {
+            if ( groups > values.length ) {
+                int size = Math.max( groups, values.length * 2 );
+                values = Arrays.copyOf( values, size );
+                seen = Arrays.copyOf( seen, size );
+            }
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] groupIds ) {
+            final DoubleVector vector = (DoubleVector) batch.column( arg );
+            final double[] input = vector.values();
+            final boolean checkNulls = !vector.hasNoNulls();
+            for ( int i = 0; i < groupIds.length; i++ ) {
+                final int position = batch.position( i );
+                if ( checkNulls && vector.isNull( position ) ) {
+                    continue;
+                }
+                final int group = groupIds[i];
+                final double value = input[position];
+                if ( !seen[group] ) {
+                    seen[group] = true;
+                    values[group] = value;
+                    continue;
+                }
+                values[group] = switch ( kind ) {
+                    case MIN -> Math.min( values[group], value );
+                    case MAX -> Math.max( values[group], value );
+                    default -> values[group] + value;
+                };
+            }
+        }
+
+
+        @Override
+        void merge( Accumulator other, int otherGroup, int group ) {
+            final DoubleAccumulator partial = (DoubleAccumulator) other;
+            if ( !partial.seen[otherGroup] ) {
+                return;
+            }
+            final double value = partial.values[otherGroup];
+            if ( !seen[group] ) {
+                seen[group] = true;
+                values[group] = value;
+                return;
+            }
+            values[group] = switch ( kind ) {
+                case MIN -> Math.min( values[group], value );
+                case MAX -> Math.max( values[group], value );
+                default -> values[group] + value;
+            };
+        }
+
+
+        @Override
+        PolyValue result( int group ) {
+            if ( !seen[group] ) {
+                return kind == Kind.SUM0 ? ColumnVector.box( 0d, resultType ) : null;
+            }
+            return ColumnVector.box( values[group], resultType );
+        }
+
+    }
+
+}
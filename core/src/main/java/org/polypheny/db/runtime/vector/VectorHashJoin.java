@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.runtime.ParallelEnumerables;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Inner equi-join on a single long backed key. The right input is collected into {@link VectorBatch}es and indexed by a
+ * primitive hash table, the left input is probed batch by batch. Only matching rows are materialized.
+ * <p>
+ * With a degree of parallelism above one, the join is partitioned by the hash of the key: every partition of the build
+ * rows is indexed by its own hash table, and the tables are built concurrently. The left batches are probed
+ * concurrently as well, every row against the table of its partition. The inputs themselves are always read on the
+ * calling thread.
+ */
+public class VectorHashJoin {
+
+    private final List<VectorBatch> buildBatches;
+    private final LongIntHashMap heads;
+    /**
+     * Chains all build rows with the same key, encoded as {@code batch << 32 | position}; {@code -1} terminates a chain.
+     */
+    private long[] rows;
+    private int[] next;
+    private int rowCount;
+
+
+    private VectorHashJoin( List<VectorBatch> buildBatches, int capacity ) {
+        this.buildBatches = buildBatches;
+        this.heads = new LongIntHashMap( capacity );
+        this.rows = new long[capacity];
+        this.next = new int[capacity];
+    }
+
+
+    /**
+     * Whether the given key types can be joined by the vectorized hash join.
+     */
+    public static boolean supports( PolyType leftKeyType, PolyType rightKeyType ) {
+        return ColumnVector.isLongBacked( leftKeyType ) && ColumnVector.isLongBacked( rightKeyType );
+    }
+
+
+    public static Enumerable<PolyValue[]> join( Enumerable<PolyValue[]> left, Enumerable<PolyValue[]> right, int leftKey, int rightKey, PolyType[] leftTypes, PolyType[] rightTypes, int batchSize ) {
+        return join( left, right, leftKey, rightKey, leftTypes, rightTypes, batchSize, 1 );
+    }
+
+
+    /**
+     * Joins the given inputs, using {@code parallelism} partitions which are built and probed concurrently.
+     * The rows are returned in the order of the left input.
+     */
+    public static Enumerable<PolyValue[]> join( Enumerable<PolyValue[]> left, Enumerable<PolyValue[]> right, int leftKey, int rightKey, PolyType[] leftTypes, PolyType[] rightTypes, int batchSize, int parallelism ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<PolyValue[]> enumerator() {
+                final List<VectorBatch> buildBatches = new ArrayList<>();
+                for ( VectorBatch batch : VectorBatches.toBatches( right, rightTypes, batchSize ) ) {
+                    buildBatches.add( batch );
+                }
+                final VectorHashJoin[] partitions = build( buildBatches, rightKey, Math.max( 1, parallelism ) );
+                return ParallelEnumerables.map(
+                                VectorBatches.toBatches( left, leftTypes, batchSize ),
+                                batches -> batches.selectMany( batch -> Linq4j.asEnumerable( probe( partitions, batch, leftKey ) ) ),
+                                parallelism,
+                                1 )
+                        .enumerator();
+            }
+        };
+    }
+
+
+    /**
+     * Builds one hash table per partition. Every worker first assigns the rows of a range of batches to the
+     * partitions, then every partition is indexed by its own worker. The rows of a partition are inserted in the
+     * order of the input, so the matches of a key are returned in the same order as without partitioning.
+     */
+    static VectorHashJoin[] build( List<VectorBatch> buildBatches, int key, int partitionCount ) {
+        if ( partitionCount == 1 ) {
+            final VectorHashJoin join = new VectorHashJoin( buildBatches, 1024 );
+            for ( int i = 0; i < buildBatches.size(); i++ ) {
+                join.add( i, key );
+            }
+            return new VectorHashJoin[]{ join };
+        }
+
+        final int rangeSize = Math.max( 1, (buildBatches.size() + partitionCount - 1) / partitionCount );
+        final List<Callable<RowList[]>> assignTasks = new ArrayList<>();
+        for ( int start = 0; start < buildBatches.size(); start += rangeSize ) {
+            final int from = start;
+            final int to = Math.min( buildBatches.size(), start + rangeSize );
+            assignTasks.add( () -> assign( buildBatches, key, from, to, partitionCount ) );
+        }
+        final List<RowList[]> assigned = ParallelEnumerables.invokeAll( assignTasks );
+
+        final List<Callable<VectorHashJoin>> buildTasks = new ArrayList<>( partitionCount );
+        for ( int p = 0; p < partitionCount; p++ ) {
+            final int partition = p;
+            buildTasks.add( () -> {
+                int size = 0;
+                for ( RowList[] lists : assigned ) {
+                    size += lists[partition].size;
+                }
+                final VectorHashJoin join = new VectorHashJoin( buildBatches, Math.max( 16, size ) );
+                for ( RowList[] lists : assigned ) {
+                    final RowList list = lists[partition];
+                    for ( int i = 0; i < list.size; i++ ) {
+                        join.insert( list.rows[i], key );
+                    }
+                }
+                return join;
+            } );
+        }
+        return ParallelEnumerables.invokeAll( buildTasks ).toArray( new VectorHashJoin[0] );
+    }
+
+
+    /**
+     * Returns the number of build rows indexed by this table.
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+
+    /**
+     * Returns the partition of the given key. The key is scrambled with a different constant than the one of the hash
+     * tables, so the keys of a partition do not cluster in the slots of its table.
+     */
+    static int partitionOf( long key, int partitionCount ) {
+        return Math.floorMod( (int) ((key * 0xC2B2AE3D27D4EB4FL) >>> 32), partitionCount );
+    }
+
+
+    private static RowList[] assign( List<VectorBatch> buildBatches, int key, int from, int to, int partitionCount ) {
+        final RowList[] lists = new RowList[partitionCount];
+        for ( int p = 0; p < partitionCount; p++ ) {
+            lists[p] = new RowList();
+        }
+        for ( int batchIndex = from; batchIndex < to; batchIndex++ ) {
+            final VectorBatch batch = buildBatches.get( batchIndex );
+            final LongVector vector = (LongVector) batch.column( key );
+            final long[] values = vector.values();
+            for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+                final int position = batch.position( i );
+                if ( vector.isNull( position ) ) {
+                    // null never matches in an equi-join
+                    continue;
+                }
+                lists[partitionOf( values[position], partitionCount )].add( ((long) batchIndex << 32) | position );
+            }
+        }
+        return lists;
+    }
+
+
+    private void add( int batchIndex, int key ) {
+        final VectorBatch batch = buildBatches.get( batchIndex );
+        final LongVector vector = (LongVector) batch.column( key );
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            if ( vector.isNull( position ) ) {
+                // null never matches in an equi-join
+                continue;
+            }
+            insert( ((long) batchIndex << 32) | position, key );
+        }
+    }
+
+
+    private void insert( long row, int key ) {
+        final long value = ((LongVector) buildBatches.get( (int) (row >>> 32) ).column( key )).values()[(int) row];
+        if ( rowCount == rows.length ) {
+            rows = Arrays.copyOf( rows, rowCount * 2 );
+            next = Arrays.copyOf( next, rowCount * 2 );
+        }
+        rows[rowCount] = row;
+        next[rowCount] = heads.get( value );
+        heads.put( value, rowCount );
+        rowCount++;
+    }
+
+
+    private static List<PolyValue[]> probe( VectorHashJoin[] partitions, VectorBatch batch, int key ) {
+        final LongVector vector = (LongVector) batch.column( key );
+        final long[] values = vector.values();
+        final boolean checkNulls = !vector.hasNoNulls();
+        final List<PolyValue[]> joined = new ArrayList<>();
+        for ( int i = 0; i < batch.getSelectedCount(); i++ ) {
+            final int position = batch.position( i );
+            if ( checkNulls && vector.isNull( position ) ) {
+                continue;
+            }
+            final VectorHashJoin partition = partitions.length == 1 ? partitions[0] : partitions[partitionOf( values[position], partitions.length )];
+            int match = partition.heads.get( values[position] );
+            if ( match == LongIntHashMap.MISSING ) {
+                continue;
+            }
+            final PolyValue[] left = batch.row( i );
+            while ( match != LongIntHashMap.MISSING ) {
+                final VectorBatch buildBatch = partition.buildBatches.get( (int) (partition.rows[match] >>> 32) );
+                final int buildPosition = (int) partition.rows[match];
+                final PolyValue[] result = Arrays.copyOf( left, left.length + buildBatch.getColumns().length );
+                for ( int j = 0; j < buildBatch.getColumns().length; j++ ) {
+                    result[left.length + j] = buildBatch.column( j ).get( buildPosition );
+                }
+                joined.add( result );
+                match = partition.next[match];
+            }
+        }
+        return joined;
+    }
+
+
+    /**
+     * Growable list of encoded build rows.
+     */
+    private static class RowList {
+
+        private long[] rows = new long[64];
+        private int size;
+
+
+        private void add( long row ) {
+            if ( size == rows.length ) {
+                rows = Arrays.copyOf( rows, size * 2 );
+            }
+            rows[size++] = row;
+        }
+
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.schema.document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.Getter;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.document.DocumentProject;
+import org.polypheny.db.algebra.enumerable.EnumUtils;
+import org.polypheny.db.algebra.type.DocumentType;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexCorrelVariable;
+import org.polypheny.db.rex.RexElementRef;
+import org.polypheny.db.rex.RexFieldAccess;
+import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexLocalRef;
+import org.polypheny.db.rex.RexNameRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexSubQuery;
+import org.polypheny.db.rex.RexVisitorImpl;
+import org.polypheny.db.schema.types.Expressible;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.category.PolyNumber;
+import org.polypheny.db.type.entity.relational.PolyMap;
+
+
+/**
+ * Work a document source can do while it parses, before any document is handed to the enumerable operators.
+ * It consists of the top-level fields which are needed by the operators above the scan and of simple comparisons
+ * between a field and a literal, which allow to drop documents early.
+ * <p>
+ * The pushdown is a conservative pre-filter: the filter and the project it was derived from stay in the plan, so a
+ * source only has to drop documents which definitely fail a predicate. Whenever a predicate cannot be decided (missing
+ * field, arrays, nested documents or values of different types) the document is kept.
+ */
+@Getter
+public final class DocumentPushdown implements Expressible {
+
+    public static final DocumentPushdown NONE = new DocumentPushdown( null, List.of() );
+
+    /**
+     * Top-level fields which have to be materialized, {@code null} if the whole document is needed.
+     */
+    @Nullable
+    private final List<String> fields;
+    private final List<Predicate> predicates;
+
+
+    private DocumentPushdown( @Nullable List<String> fields, List<Predicate> predicates ) {
+        this.fields = fields;
+        this.predicates = predicates;
+    }
+
+
+    public static DocumentPushdown of( @Nullable List<String> fields, Predicate... predicates ) {
+        return new DocumentPushdown( fields, List.of( predicates ) );
+    }
+
+
+    public boolean isEmpty() {
+        return fields == null && predicates.isEmpty();
+    }
+
+
+    public boolean hasPredicates() {
+        return !predicates.isEmpty();
+    }
+
+
+    /**
+     * Whether the source has to parse the given top-level field, either to return it or to evaluate a predicate.
+     */
+    public boolean needs( String field ) {
+        return keeps( field ) || predicates.stream().anyMatch( p -> p.path.get( 0 ).equals( field ) );
+    }
+
+
+    /**
+     * Whether the given top-level field is part of the returned document.
+     */
+    public boolean keeps( String field ) {
+        return fields == null || fields.contains( field );
+    }
+
+
+    /**
+     * Evaluates all predicates on the given top-level field.
+     *
+     * @return {@code false} if the document definitely does not match
+     */
+    public boolean test( String field, PolyValue value ) {
+        for ( Predicate predicate : predicates ) {
+            if ( predicate.path.get( 0 ).equals( field ) && !predicate.test( value ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Adds all conjuncts of the condition which compare a field with a literal.
+     * Other conjuncts are left to the filter.
+     */
+    public DocumentPushdown withFilter( RexNode condition ) {
+        List<Predicate> predicates = new ArrayList<>( this.predicates );
+        for ( RexNode conjunct : AlgOptUtil.conjunctions( condition ) ) {
+            Predicate predicate = Predicate.of( conjunct );
+            if ( predicate != null ) {
+                predicates.add( predicate );
+            }
+        }
+        return new DocumentPushdown( fields, List.copyOf( predicates ) );
+    }
+
+
+    /**
+     * Restricts the parsed fields to the top-level fields referenced by the project and, if present, by the filter
+     * between the project and the scan. Projects which exclude or add fields or which use the whole document are
+     * not pushed.
+     */
+    public DocumentPushdown withProject( DocumentProject project, @Nullable RexNode condition ) {
+        if ( !project.excludes.isEmpty() || !project.adds.isEmpty() || project.includes.isEmpty() ) {
+            return this;
+        }
+        FieldCollector collector = new FieldCollector();
+        project.includes.values().forEach( node -> node.accept( collector ) );
+        if ( condition != null ) {
+            condition.accept( collector );
+        }
+        if ( !collector.safe ) {
+            return this;
+        }
+        collector.fields.add( DocumentType.DOCUMENT_ID );
+        if ( fields != null ) {
+            collector.fields.retainAll( fields );
+        }
+        return new DocumentPushdown( List.copyOf( collector.fields ), predicates );
+    }
+
+
+    @Override
+    public Expression asExpression() {
+        return Expressions.call(
+                DocumentPushdown.class,
+                "of",
+                fields == null ? Expressions.constant( null, List.class ) : EnumUtils.constantArrayList( fields, String.class ),
+                Expressions.newArrayInit( Predicate.class, predicates.stream().map( Predicate::asExpression ).toList() ) );
+    }
+
+
+    @Override
+    public String toString() {
+        return "fields=" + (fields == null ? "*" : fields) + ", predicates=" + predicates;
+    }
+
+
+    /**
+     * Comparison of the value at a path with a literal.
+     *
+     * @param path the path of the field, the first element is the top-level field
+     * @param kind one of {@link Kind#EQUALS}, {@link Kind#LESS_THAN}, {@link Kind#LESS_THAN_OR_EQUAL}, {@link Kind#GREATER_THAN} or {@link Kind#GREATER_THAN_OR_EQUAL}
+     * @param value a number, string or boolean literal
+     */
+    public record Predicate(List<String> path, Kind kind, PolyValue value) implements Expressible {
+
+        private static final Set<Kind> KINDS = Set.of( Kind.EQUALS, Kind.LESS_THAN, Kind.LESS_THAN_OR_EQUAL, Kind.GREATER_THAN, Kind.GREATER_THAN_OR_EQUAL );
+
+
+        @Nullable
+        static Predicate of( RexNode node ) {
+            if ( !(node instanceof RexCall call) || !KINDS.contains( call.getKind() ) || call.operands.size() != 2 ) {
+                return null;
+            }
+            RexNode left = call.operands.get( 0 );
+            RexNode right = call.operands.get( 1 );
+            if ( left instanceof RexNameRef name && right instanceof RexLiteral literal ) {
+                return of( name, call.getKind(), literal );
+            } else if ( left instanceof RexLiteral literal && right instanceof RexNameRef name ) {
+                return of( name, call.getKind().reverse(), literal );
+            }
+            return null;
+        }
+
+
+        @Nullable
+        private static Predicate of( RexNameRef name, Kind kind, RexLiteral literal ) {
+            PolyValue value = literal.value;
+            if ( name.names.isEmpty() || value == null || !(value.isNumber() || value.isString() || value.isBoolean()) ) {
+                return null;
+            }
+            return new Predicate( List.copyOf( name.names ), kind, value );
+        }
+
+
+        /**
+         * @param value the value of the top-level field of the path
+         * @return {@code false} if the value definitely does not satisfy the predicate
+         */
+        public boolean test( PolyValue value ) {
+            for ( String name : path.subList( 1, path.size() ) ) {
+                if ( !(value instanceof PolyMap<?, ?> map) ) {
+                    return true;
+                }
+                value = map.get( PolyString.of( name ) );
+            }
+            Integer comparison = compare( value, this.value );
+            if ( comparison == null ) {
+                return true;
+            }
+            return switch ( kind ) {
+                case EQUALS -> comparison == 0;
+                case LESS_THAN -> comparison < 0;
+                case LESS_THAN_OR_EQUAL -> comparison <= 0;
+                case GREATER_THAN -> comparison > 0;
+                case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+                default -> true;
+            };
+        }
+
+
+        @Nullable
+        private static Integer compare( @Nullable PolyValue a, PolyValue b ) {
+            if ( a == null || a.isNull() ) {
+                return null;
+            }
+            if ( a.isNumber() && b.isNumber() ) {
+                return a.asNumber().bigDecimalValue().compareTo( b.asNumber().bigDecimalValue() );
+            }
+            if ( a.isString() && b.isString() ) {
+                return a.asString().value.compareTo( b.asString().value );
+            }
+            if ( a.isBoolean() && b.isBoolean() ) {
+                return Boolean.compare( a.asBoolean().value, b.asBoolean().value );
+            }
+            return null;
+        }
+
+
+        @Override
+        public Expression asExpression() {
+            return Expressions.new_(
+                    Predicate.class,
+                    EnumUtils.constantArrayList( path, String.class ),
+                    Expressions.constant( kind ),
+                    value.asExpression() );
+        }
+
+
+        @Override
+        public String toString() {
+            return String.join( ".", path ) + " " + kind.sql + " " + value;
+        }
+
+    }
+
+
+    /**
+     * Collects the top-level fields referenced by expressions and detects references to the whole document.
+     */
+    private static final class FieldCollector extends RexVisitorImpl<Void> {
+
+        private final Set<String> fields = new TreeSet<>();
+        private boolean safe = true;
+
+
+        private FieldCollector() {
+            super( true );
+        }
+
+
+        @Override
+        public Void visitNameRef( RexNameRef nameRef ) {
+            if ( nameRef.names.isEmpty() ) {
+                safe = false;
+            } else {
+                fields.add( nameRef.names.get( 0 ) );
+            }
+            return null;
+        }
+
+
+        @Override
+        public Void visitIndexRef( RexIndexRef inputRef ) {
+            safe = false;
+            return null;
+        }
+
+
+        @Override
+        public Void visitLocalRef( RexLocalRef localRef ) {
+            safe = false;
+            return null;
+        }
+
+
+        @Override
+        public Void visitElementRef( RexElementRef rexElementRef ) {
+            safe = false;
+            return null;
+        }
+
+
+        @Override
+        public Void visitCorrelVariable( RexCorrelVariable correlVariable ) {
+            safe = false;
+            return null;
+        }
+
+
+        @Override
+        public Void visitFieldAccess( RexFieldAccess fieldAccess ) {
+            safe = false;
+            return null;
+        }
+
+
+        @Override
+        public Void visitSubQuery( RexSubQuery subQuery ) {
+            safe = false;
+            return null;
+        }
+
+    }
+
+}
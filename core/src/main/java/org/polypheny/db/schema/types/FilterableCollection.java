@@ -0,0 +1,28 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.schema.types;
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.schema.document.DocumentPushdown;
+import org.polypheny.db.type.entity.PolyValue;
+
+public interface FilterableCollection extends Typed {
+
+    Enumerable<PolyValue[]> scan( DataContext dataContext, DocumentPushdown pushdown );
+
+}
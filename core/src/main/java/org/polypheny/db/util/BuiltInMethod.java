@@ -70,6 +70,7 @@
 import org.apache.calcite.linq4j.tree.Types;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.constant.ExplainLevel;
+import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.common.Modify.Operation;
 import org.polypheny.db.algebra.enumerable.AggregateLambdaFactory;
 import org.polypheny.db.algebra.enumerable.BatchIteratorEnumerable;
@@ -123,12 +124,16 @@
 import org.polypheny.db.runtime.Bindable;
 import org.polypheny.db.runtime.ComparableList;
 import org.polypheny.db.runtime.Enumerables;
+import org.polypheny.db.runtime.ParallelEnumerables;
 import org.polypheny.db.runtime.RandomFunction;
 import org.polypheny.db.runtime.SortedMultiMap;
 import org.polypheny.db.runtime.Utilities;
+import org.polypheny.db.runtime.vector.VectorHashAggregate;
+import org.polypheny.db.runtime.vector.VectorHashJoin;
 import org.polypheny.db.schema.SchemaPlus;
 import org.polypheny.db.schema.types.QueryableEntity;
 import org.polypheny.db.schema.types.ScannableEntity;
+import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.entity.PolyBoolean;
 import org.polypheny.db.type.entity.PolyInterval;
 import org.polypheny.db.type.entity.PolyList;
@@ -557,6 +562,12 @@ public enum BuiltInMethod {
 
     X_MODEL_ITEM( CrossModelFunctions.class, "docItem", String.class, String.class ),
     SINGLE_TO_ARRAY_ENUMERABLE( Functions.class, "singleToArray", Enumerable.class ),
+    VECTOR_HASH_AGGREGATE( VectorHashAggregate.class, "aggregate", Enumerable.class, int[].class, PolyType[].class, Kind[].class, int[].class, PolyType[].class, int.class, int.class ),
+    VECTOR_FILTER_HASH_AGGREGATE( VectorHashAggregate.class, "aggregate", Enumerable.class, PolyType[].class, int[].class, Kind[].class, PolyValue[].class, int[].class, int[].class, Kind[].class, int[].class, PolyType[].class, int.class, int.class ),
+    VECTOR_HASH_JOIN( VectorHashJoin.class, "join", Enumerable.class, Enumerable.class, int.class, int.class, PolyType[].class, PolyType[].class, int.class, int.class ),
+    PARALLELISM( ParallelEnumerables.class, "parallelism", DataContext.class ),
+    PARALLEL_MAP( ParallelEnumerables.class, "map", Enumerable.class, Function1.class, DataContext.class, int.class ),
+    PARALLEL_UNION( ParallelEnumerables.class, "union", List.class, List.class, boolean.class, int.class ),
     TO_JSON( PolyValue.class, "toPolyJson" );
 
     private static final String toIntOptional = "toIntOptional";
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+
+
+public class SourceSidecarTest {
+
+    private static final int ROWS = 3 * SourceSidecar.BLOCK_SIZE + 17;
+
+    @TempDir
+    Path folder;
+
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        SourceSidecar sidecar = build();
+        List<PolyValue[]> rows = readAll( sidecar.open( new int[]{ 0, 1, 2, 3, 4 }, null, new AtomicBoolean() ) );
+        assertEquals( ROWS, rows.size() );
+        for ( int i = 0; i < ROWS; i++ ) {
+            assertArrayEquals( row( i ), rows.get( i ) );
+        }
+        assertEquals( ROWS, sidecar.getRowCount() );
+    }
+
+
+    @Test
+    public void testProjectionAndFilter() throws IOException {
+        SourceSidecar sidecar = build();
+        PolyValue[] equalTo = new PolyValue[5];
+        equalTo[0] = PolyInteger.of( 2 * SourceSidecar.BLOCK_SIZE + 5 );
+        List<PolyValue[]> rows = readAll( sidecar.open( new int[]{ 2, 0 }, equalTo, new AtomicBoolean() ) );
+        assertEquals( 1, rows.size() );
+        assertArrayEquals( new PolyValue[]{ row( 2 * SourceSidecar.BLOCK_SIZE + 5 )[2], equalTo[0] }, rows.get( 0 ) );
+
+        equalTo = new PolyValue[5];
+        equalTo[3] = PolyBoolean.TRUE;
+        assertEquals( ROWS / 2, readAll( sidecar.open( new int[]{ 0 }, equalTo, new AtomicBoolean() ) ).size() );
+    }
+
+
+    @Test
+    public void testBlockStatistics() {
+        PolyValue[] min = new PolyValue[]{ PolyInteger.of( 0 ), null, null, null, null };
+        PolyValue[] max = new PolyValue[]{ PolyInteger.of( 10 ), null, null, null, null };
+        SourceSidecar.Block block = new SourceSidecar.Block( 0, 0, 10, new int[5], min, max );
+        assertTrue( block.mayContain( 0, PolyInteger.of( 10 ) ) );
+        assertTrue( block.mayContain( 0, PolyDouble.of( 2.5 ) ) );
+        assertFalse( block.mayContain( 0, PolyInteger.of( 11 ) ) );
+        assertFalse( block.mayContain( 0, PolyInteger.of( -1 ) ) );
+        // Statistics are not available for the other columns
+        assertTrue( block.mayContain( 1, PolyString.of( "x" ) ) );
+    }
+
+
+    @Test
+    public void testModifiedSourceInvalidatesSidecar() throws IOException {
+        SourceSidecar sidecar = build();
+        assertNotNull( sidecar.open( new int[]{ 0 }, null, new AtomicBoolean() ) );
+        Files.writeString( sidecar.getSource().toPath(), "modified" );
+        assertNull( sidecar.open( new int[]{ 0 }, null, new AtomicBoolean() ) );
+        assertNull( sidecar.getRowCount() );
+    }
+
+
+    private SourceSidecar sidecar() throws IOException {
+        File source = folder.resolve( "source.csv" ).toFile();
+        Files.writeString( source.toPath(), "id,name\n1,a\n" );
+        return new SourceSidecar( folder.resolve( "source.bin" ).toFile(), source );
+    }
+
+
+    private SourceSidecar build() throws IOException {
+        List<PolyValue[]> rows = new ArrayList<>();
+        for ( int i = 0; i < ROWS; i++ ) {
+            rows.add( row( i ) );
+        }
+        SourceSidecar sidecar = sidecar();
+        assertEquals( ROWS, sidecar.build( Linq4j.enumerator( rows ), 5 ) );
+        return sidecar;
+    }
+
+
+    private static PolyValue[] row( int i ) {
+        return new PolyValue[]{
+                PolyInteger.of( i ),
+                i % 7 == 0 ? PolyNull.NULL : PolyString.of( "name" + i ),
+                PolyDouble.of( i / 4.0 ),
+                PolyBoolean.of( i % 2 == 1 ),
+                PolyDate.ofDays( i % 1000 ) };
+    }
+
+
+    private static List<PolyValue[]> readAll( Enumerator<PolyValue[]> enumerator ) {
+        assertNotNull( enumerator );
+        List<PolyValue[]> rows = new ArrayList<>();
+        while ( enumerator.moveNext() ) {
+            rows.add( enumerator.current() );
+        }
+        enumerator.close();
+        return rows;
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.enumerable;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.tree.ClassDeclaration;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.runtime.ArrayBindable;
+import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+
+
+/**
+ * Unit tests for the asynchronous compilation and the eviction of {@link CompiledBindableCache}.
+ */
+public class CompiledBindableCacheTest {
+
+    private static final ClassDeclaration EXPR = Expressions.classDecl( Modifier.PUBLIC, "Baz", null, List.of(), List.of() );
+
+    private boolean asyncCompilation;
+    private int cacheSize;
+
+
+    @BeforeEach
+    public void enableAsyncCompilation() {
+        asyncCompilation = RuntimeConfig.ASYNC_COMPILATION.getBoolean();
+        cacheSize = RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.getInteger();
+        RuntimeConfig.ASYNC_COMPILATION.setBoolean( true );
+        CompiledBindableCache.INSTANCE.reset();
+    }
+
+
+    @AfterEach
+    public void restoreAsyncCompilation() {
+        RuntimeConfig.ASYNC_COMPILATION.setBoolean( asyncCompilation );
+        RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.setInteger( cacheSize );
+        CompiledBindableCache.INSTANCE.reset();
+    }
+
+
+    /**
+     * Bindable which returns a single row containing the given value.
+     */
+    private static ArrayBindable<PolyValue> constant( int value ) {
+        return new ArrayBindable<>() {
+            @Override
+            public Class<PolyValue[]> getElementType() {
+                return PolyValue[].class;
+            }
+
+
+            @Override
+            public Enumerable<PolyValue[]> bind( DataContext dataContext ) {
+                return Linq4j.singletonEnumerable( new PolyValue[]{ PolyInteger.of( value ) } );
+            }
+        };
+    }
+
+
+    private static int value( Bindable<PolyValue[]> bindable ) {
+        return bindable.bind( null ).first()[0].asNumber().intValue();
+    }
+
+
+    @Test
+    public void testInterpretedUntilCompiled() throws Exception {
+        CountDownLatch compilation = new CountDownLatch( 1 );
+        Bindable<PolyValue[]> bindable = CompiledBindableCache.INSTANCE.get( EXPR, "interpreted", 2, () -> {
+            compilation.await();
+            return constant( 1 );
+        }, () -> constant( 2 ) );
+
+        // the compilation is blocked, so the statement has to be executed by the interpreter
+        assertEquals( 2, value( bindable ) );
+        assertEquals( 2, value( bindable ) );
+        assertEquals( 2, CompiledBindableCache.INSTANCE.getInterpreted() );
+
+        compilation.countDown();
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( 10 );
+        while ( value( bindable ) != 1 && System.currentTimeMillis() < timeout ) {
+            Thread.sleep( 10 );
+        }
+        long interpreted = CompiledBindableCache.INSTANCE.getInterpreted();
+        assertEquals( 1, value( bindable ) );
+        assertEquals( interpreted, CompiledBindableCache.INSTANCE.getInterpreted() );
+    }
+
+
+    @Test
+    public void testWaitsWithoutInterpreter() throws Exception {
+        Bindable<PolyValue[]> bindable = CompiledBindableCache.INSTANCE.get( EXPR, "not interpretable", 2, () -> {
+            Thread.sleep( 100 );
+            return constant( 1 );
+        }, () -> null );
+
+        assertEquals( 1, value( bindable ) );
+        assertEquals( 0, CompiledBindableCache.INSTANCE.getInterpreted() );
+    }
+
+
+    @Test
+    public void testWaitsIfInterpreterRejectsPlan() throws Exception {
+        ArrayBindable<PolyValue> rejecting = new ArrayBindable<>() {
+            @Override
+            public Class<PolyValue[]> getElementType() {
+                return PolyValue[].class;
+            }
+
+
+            @Override
+            public Enumerable<PolyValue[]> bind( DataContext dataContext ) {
+                throw new AssertionError( "interpreter: no implementation" );
+            }
+        };
+        CountDownLatch compilation = new CountDownLatch( 1 );
+        Bindable<PolyValue[]> bindable = CompiledBindableCache.INSTANCE.get( EXPR, "rejected", 2, () -> {
+            compilation.await();
+            return constant( 1 );
+        }, () -> rejecting );
+
+        Thread release = new Thread( () -> {
+            try {
+                Thread.sleep( 100 );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            compilation.countDown();
+        } );
+        release.start();
+        assertEquals( 1, value( bindable ) );
+        assertEquals( 0, CompiledBindableCache.INSTANCE.getInterpreted() );
+    }
+
+
+    @Test
+    public void testCompilationFailure() throws Exception {
+        Bindable<PolyValue[]> bindable = CompiledBindableCache.INSTANCE.get( EXPR, "failing", 2, () -> {
+            throw new IllegalStateException( "compile error" );
+        }, () -> null );
+
+        assertThrows( GenericRuntimeException.class, () -> value( bindable ) );
+    }
+
+
+    @Test
+    public void testScalarBindableIsCompiledImmediately() throws Exception {
+        // the element type of a scalar bindable is only known after the compilation
+        AtomicInteger compilations = new AtomicInteger();
+        Bindable<PolyValue[]> bindable = CompiledBindableCache.INSTANCE.get( EXPR, "scalar", 1, () -> {
+            compilations.incrementAndGet();
+            return constant( 1 );
+        }, () -> constant( 2 ) );
+
+        assertEquals( 1, compilations.get() );
+        assertEquals( 1, value( bindable ) );
+        assertEquals( 0, CompiledBindableCache.INSTANCE.getInterpreted() );
+    }
+
+
+    @Test
+    public void testInterpreterIsOnlyBuiltForAsyncCompilation() throws Exception {
+        RuntimeConfig.ASYNC_COMPILATION.setBoolean( false );
+        Bindable<PolyValue[]> bindable = CompiledBindableCache.INSTANCE.get( EXPR, "synchronous", 2, () -> constant( 1 ), () -> {
+            throw new AssertionError( "the interpreter must not be built" );
+        } );
+
+        assertEquals( 1, value( bindable ) );
+    }
+
+
+    @Test
+    public void testEvictedClassIsCompiledAgain() throws Exception {
+        RuntimeConfig.ASYNC_COMPILATION.setBoolean( false );
+        RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.setInteger( 1 );
+        AtomicInteger compilations = new AtomicInteger();
+        Bindable<PolyValue[]> first = CompiledBindableCache.INSTANCE.get( EXPR, "first", 2, () -> {
+            compilations.incrementAndGet();
+            return constant( 1 );
+        }, () -> null );
+        Bindable<PolyValue[]> second = CompiledBindableCache.INSTANCE.get( EXPR, "second", 2, () -> constant( 2 ), () -> null );
+        assertEquals( 1, CompiledBindableCache.INSTANCE.getSize() );
+        assertEquals( 1, compilations.get() );
+
+        // the first class was evicted, so its plan does no longer reference it and compiles it again
+        assertEquals( 1, value( first ) );
+        assertEquals( 2, compilations.get() );
+        assertEquals( 1, value( first ) );
+        assertEquals( 2, compilations.get() );
+        assertEquals( 2, value( second ) );
+    }
+
+
+    @Test
+    public void testCacheIsResized() throws Exception {
+        RuntimeConfig.ASYNC_COMPILATION.setBoolean( false );
+        for ( int i = 0; i < 3; i++ ) {
+            int value = i;
+            CompiledBindableCache.INSTANCE.get( EXPR, "resized" + i, 2, () -> constant( value ), () -> null );
+        }
+        assertEquals( 3, CompiledBindableCache.INSTANCE.getSize() );
+
+        RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.setInteger( 2 );
+        assertEquals( 2, CompiledBindableCache.INSTANCE.getSize() );
+        RuntimeConfig.COMPILED_CLASS_CACHING_SIZE.setInteger( 1 );
+        assertEquals( 1, CompiledBindableCache.INSTANCE.getSize() );
+    }
+
+}
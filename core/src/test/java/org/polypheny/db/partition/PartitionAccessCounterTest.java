@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.partition.properties.TemperaturePartitionProperty.PartitionCostIndication;
+
+
+public class PartitionAccessCounterTest {
+
+    private static final long LIFETIME = 10_000;
+
+
+    @Test
+    public void onlyTrackedPartitionsAreCounted() {
+        PartitionAccessCounter counter = new PartitionAccessCounter();
+        counter.track( List.of( 1L, 2L ) );
+
+        counter.recordRead( List.of( 1L, 3L ) );
+        counter.recordWrite( List.of( 1L, 2L, 3L ) );
+
+        long now = System.currentTimeMillis();
+        assertEquals( 2, counter.getFrequency( 1, PartitionCostIndication.ALL, LIFETIME, now ), 0.01 );
+        assertEquals( 1, counter.getFrequency( 1, PartitionCostIndication.READ, LIFETIME, now ), 0.01 );
+        assertEquals( 1, counter.getFrequency( 2, PartitionCostIndication.WRITE, LIFETIME, now ), 0.01 );
+        assertEquals( 0, counter.getFrequency( 3, PartitionCostIndication.ALL, LIFETIME, now ) );
+
+        counter.retain( Set.of( 2L ) );
+        assertEquals( 0, counter.getFrequency( 1, PartitionCostIndication.ALL, LIFETIME, now ) );
+    }
+
+
+    @Test
+    public void accessesDecayOverTime() {
+        PartitionAccessCounter counter = new PartitionAccessCounter();
+        counter.track( List.of( 1L ) );
+        long start = System.currentTimeMillis();
+        for ( int i = 0; i < 100; i++ ) {
+            counter.recordRead( List.of( 1L ) );
+        }
+        assertEquals( 100, counter.getFrequency( 1, PartitionCostIndication.READ, LIFETIME, start + 1 ), 0.1 );
+        assertEquals( 100 / Math.E, counter.getFrequency( 1, PartitionCostIndication.READ, LIFETIME, start + 1 + LIFETIME ), 0.1 );
+    }
+
+}
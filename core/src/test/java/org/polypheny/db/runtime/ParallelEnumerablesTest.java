@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+
+
+/**
+ * Unit tests for {@link ParallelEnumerables}.
+ */
+public class ParallelEnumerablesTest {
+
+    private static Enumerable<Integer> range( int from, int to ) {
+        return Linq4j.asEnumerable( IntStream.range( from, to ).boxed().toList() );
+    }
+
+
+    @Test
+    public void testMapKeepsOrder() {
+        List<Integer> result = ParallelEnumerables.map( range( 0, 1000 ), chunk -> chunk.where( i -> i % 3 == 0 ).select( i -> i * 2 ), 4, 7 ).toList();
+        assertEquals( range( 0, 1000 ).where( i -> i % 3 == 0 ).select( i -> i * 2 ).toList(), result );
+    }
+
+
+    @Test
+    public void testMapKeepsNullRows() {
+        // rows and values which are null have to be passed through the chunks like any other row
+        List<Integer[]> input = IntStream.range( 0, 500 ).mapToObj( i -> i % 11 == 0 ? null : new Integer[]{ i, i % 3 == 0 ? null : i } ).toList();
+        List<Integer> result = ParallelEnumerables.map( Linq4j.asEnumerable( input ), chunk -> chunk.select( r -> r == null || r[1] == null ? null : r[0] + r[1] ), 4, 16 ).toList();
+
+        assertEquals( input.size(), result.size() );
+        for ( int i = 0; i < input.size(); i++ ) {
+            assertEquals( i % 11 == 0 || i % 3 == 0 ? null : 2 * i, result.get( i ) );
+        }
+    }
+
+
+    @Test
+    public void testMapOfEmptyInput() {
+        assertTrue( ParallelEnumerables.map( range( 0, 0 ), chunk -> chunk.select( i -> i + 1 ), 4, 8 ).toList().isEmpty() );
+        // chunks which are filtered completely must not end the result
+        List<Integer> result = ParallelEnumerables.map( range( 0, 100 ), chunk -> chunk.where( i -> i >= 90 ), 4, 8 ).toList();
+        assertEquals( range( 90, 100 ).toList(), result );
+    }
+
+
+    @Test
+    public void testMapPropagatesFailure() {
+        assertThrows( GenericRuntimeException.class, () -> ParallelEnumerables.map( range( 0, 1000 ), chunk -> chunk.select( i -> {
+            if ( i == 500 ) {
+                throw new GenericRuntimeException( "failure" );
+            }
+            return i;
+        } ), 4, 16 ).toList() );
+    }
+
+
+    @Test
+    public void testOrderedUnion() {
+        // a prefetch buffer smaller than the inputs forces the producers to block
+        List<Integer> result = ParallelEnumerables.union( List.of( range( 0, 100 ), range( 100, 150 ), range( 150, 400 ) ), List.of( 0, 1, 2 ), true, 8 ).toList();
+        assertEquals( range( 0, 400 ).toList(), result );
+    }
+
+
+    @Test
+    public void testOrderedUnionWithSharedLanes() {
+        // the inputs of lane 0 are not adjacent, the rows still have to be returned in the order of the inputs
+        List<Integer> result = ParallelEnumerables.union( List.of( range( 0, 100 ), range( 100, 150 ), range( 150, 400 ), range( 400, 420 ) ), List.of( 0, 1, 0, 1 ), true, 8 ).toList();
+        assertEquals( range( 0, 420 ).toList(), result );
+    }
+
+
+    @Test
+    public void testUnorderedUnion() {
+        List<Integer> result = ParallelEnumerables.union( List.of( range( 0, 100 ), range( 100, 100 ), range( 100, 400 ) ), List.of( 0, 1, 2 ), false, 8 ).toList();
+        assertEquals( range( 0, 400 ).toList(), result.stream().sorted().toList() );
+    }
+
+
+    @Test
+    public void testInputsOfLaneAreNotOpenedConcurrently() {
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        List<Enumerable<Integer>> inputs = new ArrayList<>();
+        for ( int i = 0; i < 6; i++ ) {
+            inputs.add( tracked( range( i * 50, (i + 1) * 50 ), open, maxOpen ) );
+        }
+        List<Integer> lanes = List.of( 0, 0, 1, 0, 2, 2 );
+        List<Integer> unordered = ParallelEnumerables.union( inputs, lanes, false, 4 ).toList();
+        assertEquals( range( 0, 300 ).toList(), unordered.stream().sorted().toList() );
+
+        // the inputs of lane 1 are not tracked, so at most one input of lanes 0 and 2 each is open at the same time
+        AtomicInteger laneOpen = new AtomicInteger();
+        AtomicInteger laneMaxOpen = new AtomicInteger();
+        List<Enumerable<Integer>> laneInputs = new ArrayList<>();
+        for ( int i = 0; i < 6; i++ ) {
+            laneInputs.add( lanes.get( i ) == 0 ? tracked( range( i * 50, (i + 1) * 50 ), laneOpen, laneMaxOpen ) : range( i * 50, (i + 1) * 50 ) );
+        }
+        assertEquals( range( 0, 300 ).toList(), ParallelEnumerables.union( laneInputs, lanes, true, 4 ).toList() );
+        assertEquals( 1, laneMaxOpen.get() );
+        assertTrue( maxOpen.get() <= 3 );
+    }
+
+
+    @Test
+    public void testUnionPropagatesFailure() {
+        Enumerable<Integer> failing = range( 0, 10 ).select( i -> {
+            if ( i == 5 ) {
+                throw new GenericRuntimeException( "failure" );
+            }
+            return i;
+        } );
+        assertThrows( GenericRuntimeException.class, () -> ParallelEnumerables.union( List.of( range( 0, 100 ), failing ), List.of( 0, 1 ), false, 4 ).toList() );
+        assertThrows( GenericRuntimeException.class, () -> ParallelEnumerables.union( List.of( range( 0, 100 ), failing ), List.of( 0, 1 ), true, 4 ).toList() );
+        // the failing input is followed by another input of the same lane
+        assertThrows( GenericRuntimeException.class, () -> ParallelEnumerables.union( List.of( failing, range( 0, 100 ), range( 0, 10 ) ), List.of( 0, 1, 0 ), true, 4 ).toList() );
+    }
+
+
+    /**
+     * Counts how many of the tracked inputs are open at the same time.
+     */
+    private static Enumerable<Integer> tracked( Enumerable<Integer> input, AtomicInteger open, AtomicInteger maxOpen ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Integer> enumerator() {
+                maxOpen.accumulateAndGet( open.incrementAndGet(), Math::max );
+                Enumerator<Integer> enumerator = input.enumerator();
+                return new Enumerator<>() {
+                    @Override
+                    public Integer current() {
+                        return enumerator.current();
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        Thread.yield();
+                        return enumerator.moveNext();
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        enumerator.reset();
+                    }
+
+
+                    @Override
+                    public void close() {
+                        open.decrementAndGet();
+                        enumerator.close();
+                    }
+                };
+            }
+        };
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * Unit tests for the vectorized operators in {@link org.polypheny.db.runtime.vector}.
+ */
+public class VectorHashAggregateTest {
+
+    private static final PolyType[] TYPES = { PolyType.INTEGER, PolyType.VARCHAR, PolyType.DOUBLE };
+
+    private static final Enumerable<PolyValue[]> ROWS = Linq4j.asEnumerable( List.of(
+            row( 1, "a", 1.5 ),
+            row( 2, "b", 2.0 ),
+            row( 1, "a", null ),
+            row( 3, null, 4.0 ),
+            row( 2, "a", 0.5 ) ) );
+
+
+    private static PolyValue[] row( Integer key, String name, Double value ) {
+        return new PolyValue[]{
+                key == null ? null : PolyInteger.of( key ),
+                name == null ? null : PolyString.of( name ),
+                value == null ? null : PolyDouble.of( value ) };
+    }
+
+
+    private static List<PolyValue[]> sorted( Enumerable<PolyValue[]> rows ) {
+        return rows.toList().stream().sorted( Comparator.comparing( r -> r[0], Comparator.nullsLast( Comparator.naturalOrder() ) ) ).toList();
+    }
+
+
+    @Test
+    public void testGroupByLongKey() {
+        // a batch size of 2 forces the aggregation to merge the state of several batches
+        List<PolyValue[]> result = sorted( VectorHashAggregate.aggregate(
+                ROWS,
+                new int[]{ 0 },
+                TYPES,
+                new Kind[]{ Kind.COUNT, Kind.COUNT, Kind.SUM, Kind.MAX },
+                new int[]{ -1, 2, 2, 2 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.BIGINT, PolyType.DOUBLE, PolyType.DOUBLE },
+                2 ) );
+
+        assertEquals( 3, result.size() );
+        assertEquals( 1, result.get( 0 )[0].asNumber().intValue() );
+        assertEquals( 2, result.get( 0 )[1].asNumber().longValue() );
+        assertEquals( 1, result.get( 0 )[2].asNumber().longValue() );
+        assertEquals( 1.5, result.get( 0 )[3].asNumber().doubleValue() );
+        assertEquals( 2.5, result.get( 1 )[3].asNumber().doubleValue() );
+        assertEquals( 2.0, result.get( 1 )[4].asNumber().doubleValue() );
+    }
+
+
+    @Test
+    public void testParallelGroupByMergesPartials() {
+        // with a batch size of 1, every worker builds partial groups which have to be merged
+        List<PolyValue[]> result = sorted( VectorHashAggregate.aggregate(
+                ROWS,
+                new int[]{ 1 },
+                TYPES,
+                new Kind[]{ Kind.COUNT, Kind.SUM, Kind.MIN },
+                new int[]{ -1, 2, 2 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.DOUBLE, PolyType.DOUBLE },
+                1,
+                3 ) );
+
+        assertEquals( 3, result.size() );
+        assertEquals( "a", result.get( 0 )[0].asString().value );
+        assertEquals( 3, result.get( 0 )[1].asNumber().longValue() );
+        assertEquals( 2.0, result.get( 0 )[2].asNumber().doubleValue() );
+        assertEquals( 0.5, result.get( 0 )[3].asNumber().doubleValue() );
+        assertNull( result.get( 2 )[0] );
+        assertEquals( 4.0, result.get( 2 )[2].asNumber().doubleValue() );
+    }
+
+
+    @Test
+    public void testGroupByDictionaryKey() {
+        List<PolyValue[]> result = sorted( VectorHashAggregate.aggregate(
+                ROWS,
+                new int[]{ 1 },
+                TYPES,
+                new Kind[]{ Kind.SUM },
+                new int[]{ 0 },
+                new PolyType[]{ PolyType.INTEGER },
+                2 ) );
+
+        assertEquals( 3, result.size() );
+        assertEquals( "a", result.get( 0 )[0].asString().value );
+        assertEquals( 4, result.get( 0 )[1].asNumber().intValue() );
+        assertEquals( "b", result.get( 1 )[0].asString().value );
+        assertNull( result.get( 2 )[0] );
+    }
+
+
+    @Test
+    public void testAggregateWithoutKeysOnEmptyInput() {
+        List<PolyValue[]> result = VectorHashAggregate.aggregate(
+                Linq4j.emptyEnumerable(),
+                new int[0],
+                TYPES,
+                new Kind[]{ Kind.COUNT, Kind.SUM, Kind.SUM0 },
+                new int[]{ -1, 0, 0 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.INTEGER, PolyType.INTEGER },
+                16 ).toList();
+
+        assertEquals( 1, result.size() );
+        assertEquals( 0, result.get( 0 )[0].asNumber().longValue() );
+        assertNull( result.get( 0 )[1] );
+        assertEquals( 0, result.get( 0 )[2].asNumber().intValue() );
+    }
+
+
+    @Test
+    public void testFilter() {
+        List<PolyValue[]> result = VectorBatches.toRows(
+                VectorFilters.filter( VectorBatches.toBatches( ROWS, TYPES, 2 ), 1, Kind.EQUALS, PolyString.of( "a" ) ) ).toList();
+
+        assertEquals( 3, result.size() );
+        for ( PolyValue[] row : result ) {
+            assertEquals( "a", row[1].asString().value );
+        }
+    }
+
+
+    @Test
+    public void testFilteredAggregate() {
+        // WHERE value IS NOT NULL AND key > 1 GROUP BY name, evaluated on the batches of the unprojected rows
+        List<PolyValue[]> result = sorted( VectorHashAggregate.aggregate(
+                ROWS,
+                TYPES,
+                new int[]{ 2, 0 },
+                new Kind[]{ Kind.IS_NOT_NULL, Kind.GREATER_THAN },
+                new PolyValue[]{ null, PolyLong.of( 1 ) },
+                new int[]{ 1, 2 },
+                new int[]{ 0 },
+                new Kind[]{ Kind.COUNT, Kind.SUM },
+                new int[]{ -1, 1 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.DOUBLE },
+                2,
+                1 ) );
+
+        assertEquals( 3, result.size() );
+        assertEquals( "a", result.get( 0 )[0].asString().value );
+        assertEquals( 1, result.get( 0 )[1].asNumber().longValue() );
+        assertEquals( 0.5, result.get( 0 )[2].asNumber().doubleValue() );
+        assertEquals( "b", result.get( 1 )[0].asString().value );
+        assertEquals( 2.0, result.get( 1 )[2].asNumber().doubleValue() );
+        assertNull( result.get( 2 )[0] );
+        assertEquals( 4.0, result.get( 2 )[2].asNumber().doubleValue() );
+    }
+
+
+    @Test
+    public void testFilteredAggregateWithoutMatches() {
+        List<PolyValue[]> result = VectorHashAggregate.aggregate(
+                ROWS,
+                TYPES,
+                new int[]{ 1 },
+                new Kind[]{ Kind.EQUALS },
+                new PolyValue[]{ PolyString.of( "c" ) },
+                new int[]{ 0 },
+                new int[0],
+                new Kind[]{ Kind.COUNT, Kind.SUM },
+                new int[]{ -1, 0 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.INTEGER },
+                2,
+                1 ).toList();
+
+        assertEquals( 1, result.size() );
+        assertEquals( 0, result.get( 0 )[0].asNumber().longValue() );
+        assertNull( result.get( 0 )[1] );
+    }
+
+
+    @Test
+    public void testSumExceedingResultType() {
+        Enumerable<PolyValue[]> rows = Linq4j.asEnumerable( List.of(
+                row( Integer.MAX_VALUE, "a", null ),
+                row( Integer.MAX_VALUE, "a", null ) ) );
+        Kind[] kinds = { Kind.SUM };
+        int[] args = { 0 };
+
+        assertThrows( GenericRuntimeException.class, () -> VectorHashAggregate.aggregate( rows, new int[0], TYPES, kinds, args, new PolyType[]{ PolyType.INTEGER }, 16 ).toList() );
+        List<PolyValue[]> result = VectorHashAggregate.aggregate( rows, new int[0], TYPES, kinds, args, new PolyType[]{ PolyType.BIGINT }, 16 ).toList();
+        assertEquals( 2L * Integer.MAX_VALUE, result.get( 0 )[0].asNumber().longValue() );
+    }
+
+
+    @Test
+    public void testHashJoin() {
+        Enumerable<PolyValue[]> right = Linq4j.asEnumerable( List.of(
+                new PolyValue[]{ PolyInteger.of( 1 ), PolyString.of( "one" ) },
+                new PolyValue[]{ PolyInteger.of( 2 ), PolyString.of( "two" ) },
+                new PolyValue[]{ PolyInteger.of( 2 ), PolyString.of( "zwei" ) } ) );
+
+        List<PolyValue[]> result = VectorHashJoin.join(
+                ROWS,
+                right,
+                0,
+                0,
+                TYPES,
+                new PolyType[]{ PolyType.INTEGER, PolyType.VARCHAR },
+                2 ).toList();
+
+        // two rows with key 1 match once, two rows with key 2 match twice, key 3 does not match
+        assertEquals( 6, result.size() );
+        assertEquals( 5, result.get( 0 ).length );
+    }
+
+
+    @Test
+    public void testPartitionedHashJoin() {
+        List<PolyValue[]> buildRows = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            buildRows.add( new PolyValue[]{ i % 10 == 0 ? null : PolyLong.of( i % 700 ), PolyString.of( "b" + i ) } );
+        }
+        List<PolyValue[]> probeRows = new ArrayList<>();
+        for ( int i = 0; i < 3000; i++ ) {
+            probeRows.add( new PolyValue[]{ PolyLong.of( i % 1500 ), PolyString.of( "p" + i ) } );
+        }
+        PolyType[] types = { PolyType.BIGINT, PolyType.VARCHAR };
+
+        List<PolyValue[]> expected = VectorHashJoin.join( Linq4j.asEnumerable( probeRows ), Linq4j.asEnumerable( buildRows ), 0, 0, types, types, 64 ).toList();
+        List<PolyValue[]> result = VectorHashJoin.join( Linq4j.asEnumerable( probeRows ), Linq4j.asEnumerable( buildRows ), 0, 0, types, types, 64, 4 ).toList();
+
+        // the partitions return the matches in the order of the left input and of the build rows
+        assertEquals( expected.size(), result.size() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertArrayEquals( expected.get( i ), result.get( i ) );
+        }
+    }
+
+
+    @Test
+    public void testBuildPartitions() {
+        List<PolyValue[]> buildRows = new ArrayList<>();
+        for ( int i = 0; i < 500; i++ ) {
+            buildRows.add( new PolyValue[]{ PolyLong.of( i ) } );
+        }
+        List<VectorBatch> batches = new ArrayList<>();
+        for ( VectorBatch batch : VectorBatches.toBatches( Linq4j.asEnumerable( buildRows ), new PolyType[]{ PolyType.BIGINT }, 64 ) ) {
+            batches.add( batch );
+        }
+
+        VectorHashJoin[] partitions = VectorHashJoin.build( batches, 0, 4 );
+        assertEquals( 4, partitions.length );
+        int[] expectedSizes = new int[4];
+        for ( int i = 0; i < 500; i++ ) {
+            expectedSizes[VectorHashJoin.partitionOf( i, 4 )]++;
+        }
+        for ( int p = 0; p < 4; p++ ) {
+            // every partition indexes exactly the keys which are assigned to it
+            assertEquals( expectedSizes[p], partitions[p].getRowCount() );
+            assertTrue( expectedSizes[p] > 0 );
+        }
+    }
+
+}
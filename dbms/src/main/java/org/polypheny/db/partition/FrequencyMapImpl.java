@@ -16,14 +16,18 @@
 
 package org.polypheny.db.partition;
 
-import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -32,7 +36,6 @@
 import org.polypheny.db.adapter.DataStore;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.entity.LogicalAdapter;
-import org.polypheny.db.catalog.entity.allocation.AllocationEntity;
 import org.polypheny.db.catalog.entity.allocation.AllocationPartition;
 import org.polypheny.db.catalog.entity.allocation.AllocationPlacement;
 import org.polypheny.db.catalog.entity.allocation.AllocationTableWrapper;
@@ -43,12 +46,13 @@
 import org.polypheny.db.catalog.logistic.PartitionType;
 import org.polypheny.db.catalog.snapshot.Snapshot;
 import org.polypheny.db.config.RuntimeConfig;
-import org.polypheny.db.monitoring.core.MonitoringServiceProvider;
-import org.polypheny.db.monitoring.events.metrics.DmlDataPoint;
-import org.polypheny.db.monitoring.events.metrics.QueryDataPointImpl;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.partition.OnlinePartitionMigration.PartitionCopy;
 import org.polypheny.db.partition.properties.PartitionProperty;
 import org.polypheny.db.partition.properties.TemperaturePartitionProperty;
-import org.polypheny.db.processing.DataMigrator;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.transaction.TransactionException;
@@ -60,7 +64,7 @@
 
 
 /**
- * Periodically retrieves information from the MonitoringService to get current statistics about
+ * Periodically retrieves the access counts of the {@link PartitionAccessCounter} to get current statistics about
  * the frequency map to determine which chunk of data should reside in HOT {@literal &}  which in COLD partition
  *
  * Only one instance of the MAP exists.
@@ -78,11 +82,41 @@ public class FrequencyMapImpl extends FrequencyMap {
 
     // Make use of central configuration
     private String backgroundTaskId;
-    private Map<Long, Long> accessCounter = new HashMap<>();
+    private Map<Long, Double> accessCounter = new HashMap<>();
+    private final Map<Long, OnlinePartitionMigration> migrations = new ConcurrentHashMap<>(); // tableId -> last migration
+
+    // Partitions with a lower decayed number of accesses are considered as not accessed
+    private static final double MIN_ACCESS_FREQUENCY = 0.5;
 
 
     public FrequencyMapImpl( Catalog catalog ) {
         this.catalog = catalog;
+        registerInformationPage();
+    }
+
+
+    private void registerInformationPage() {
+        InformationManager im = InformationManager.getInstance();
+        InformationPage page = new InformationPage( "Partitioning" );
+        page.fullWidth();
+        im.addPage( page );
+        InformationGroup migrationGroup = new InformationGroup( page, "Partition Migrations" );
+        im.addGroup( migrationGroup );
+        InformationTable migrationTable = new InformationTable(
+                migrationGroup,
+                Arrays.asList( "Table", "State", "Copied Partitions", "Progress", "Caught-up Partitions", "Copied MB", "MB/s" ) );
+        im.registerInformation( migrationTable );
+        page.setRefreshFunction( () -> {
+            migrationTable.reset();
+            migrations.values().forEach( m -> migrationTable.addRow(
+                    m.getTable().name,
+                    m.getState(),
+                    m.getCopiedPartitions() + " / " + m.getTotalPartitions(),
+                    m.getTotalPartitions() == 0 ? "100%" : (m.getCopiedPartitions() * 100 / m.getTotalPartitions()) + "%",
+                    m.getCaughtUpPartitions(),
+                    String.format( "%.2f", m.getCopiedBytes() / 1e6 ),
+                    String.format( "%.2f", m.getBytesPerSecond() / 1e6 ) ) );
+        } );
     }
 
 
@@ -125,29 +159,21 @@ private void processAllPeriodicTables() {
 
         long invocationTimestamp = System.currentTimeMillis();
         List<LogicalTable> periodicTables = snapshot.getTablesForPeriodicProcessing();
+        Set<Long> trackedPartitionIds = new HashSet<>();
         // Retrieve all Tables which rely on periodic processing
         for ( LogicalTable table : periodicTables ) {
-            if ( snapshot.alloc().getPartitionProperty( table.id ).orElseThrow().partitionType == PartitionType.TEMPERATURE ) {
+            PartitionProperty property = snapshot.alloc().getPartitionProperty( table.id ).orElseThrow();
+            if ( property.partitionType == PartitionType.TEMPERATURE ) {
+                trackedPartitionIds.addAll( property.partitionIds );
                 determinePartitionFrequency( table, invocationTimestamp );
             }
         }
+        // Stop counting partitions which have been dropped in the meantime
+        PartitionAccessCounter.INSTANCE.retain( trackedPartitionIds );
         log.debug( "Finished processing access frequency of tables" );
     }
 
 
-    private void incrementPartitionAccess( long identifiedPartitionId, List<Long> partitionIds ) {
-        // Outer if is needed to ignore frequencies from old non-existing partitionIds
-        // Which are not yet linked to the table but are still in monitoring
-        if ( partitionIds.contains( identifiedPartitionId ) ) {
-            if ( accessCounter.containsKey( identifiedPartitionId ) ) {
-                accessCounter.replace( identifiedPartitionId, accessCounter.get( identifiedPartitionId ) + 1 );
-            } else {
-                accessCounter.put( identifiedPartitionId, (long) 1 );
-            }
-        }
-    }
-
-
     /**
      * Determines the partition distribution for temperature partitioned tables by deciding which partitions should be moved from HOT to COLD
      * and from COLD to HOT. To setup the table corresponding to the current access frequencies patterns.
@@ -179,10 +205,10 @@ private void determinePartitionDistribution( LogicalTable table ) {
 
         List<Long> partitionsAllowedInHot = new ArrayList<>();
 
-        HashMap<Long, Long> descSortedMap = accessCounter
+        HashMap<Long, Double> descSortedMap = accessCounter
                 .entrySet()
                 .stream()
-                .sorted( (Map.Entry.<Long, Long>comparingByValue().reversed()) )
+                .sorted( (Map.Entry.<Long, Double>comparingByValue().reversed()) )
                 .collect( Collectors.toMap( Map.Entry::getKey, Map.Entry::getValue, ( e1, e2 ) -> e1, LinkedHashMap::new ) );
 
         //Start gathering the partitions beginning with the most frequently accessed
@@ -190,8 +216,8 @@ private void determinePartitionDistribution( LogicalTable table ) {
         int toleranceCounter = 0;
         boolean skip = false;
         boolean firstRound = true;
-        for ( Entry<Long, Long> currentEntry : descSortedMap.entrySet() ) {
-            if ( currentEntry.getValue() == 0 ) {
+        for ( Entry<Long, Double> currentEntry : descSortedMap.entrySet() ) {
+            if ( currentEntry.getValue() < MIN_ACCESS_FREQUENCY ) {
                 if ( firstRound ) {
                     skip = true;
                 }
@@ -253,27 +279,43 @@ private void determinePartitionDistribution( LogicalTable table ) {
      * @param partitionsFromColdToHot Partitions which should be moved from COLD to HOT PartitionGroup
      * @param partitionsFromHotToCold Partitions which should be moved from HOT to COLD PartitionGroup
      */
-    private void redistributePartitions( LogicalTable table, List<Long> partitionsFromColdToHot, List<Long> partitionsFromHotToCold ) {
+    void redistributePartitions( LogicalTable table, List<Long> partitionsFromColdToHot, List<Long> partitionsFromHotToCold ) {
         if ( log.isDebugEnabled() ) {
             log.debug( "Execute physical redistribution of partitions for table: {}", table.name );
             log.debug( "Partitions to move from HOT to COLD: {}", partitionsFromHotToCold );
             log.debug( "Partitions to move from COLD to HOT: {}", partitionsFromColdToHot );
         }
 
+        OnlinePartitionMigration runningMigration = migrations.get( table.id );
+        if ( runningMigration != null && runningMigration.isRunning() ) {
+            log.debug( "Skip redistribution of table {}, the previous migration is still running", table.name );
+            return;
+        }
+
         Map<DataStore<?>, List<Long>> partitionsToRemoveFromStore = new HashMap<>();
+        List<PartitionCopy> copies = new ArrayList<>();
+
+        boolean online = RuntimeConfig.TEMPERATURE_ONLINE_MIGRATION.getBoolean();
+        Set<Long> movedPartitions = new HashSet<>( partitionsFromColdToHot );
+        movedPartitions.addAll( partitionsFromHotToCold );
+        List<Long> targetAllocationIds = List.of();
+        if ( online ) {
+            // Writers are routed to the new tables as soon as they exist, their writes have to be replaced by the catch-up
+            PartitionChangeLog.INSTANCE.capture( movedPartitions );
+        }
+        boolean migrationStarted = false;
 
         Transaction transaction = null;
         try {
             transaction = transactionManager.startTransaction( Catalog.defaultUserId, null, "FrequencyMap" );
 
             Statement statement = transaction.createStatement();
-            DataMigrator dataMigrator = statement.getTransaction().getDataMigrator();
             Snapshot snapshot = transaction.getSnapshot();
 
-            PartitionProperty property = snapshot.alloc().getPartitionProperty( table.id ).orElseThrow();
+            TemperaturePartitionProperty property = (TemperaturePartitionProperty) snapshot.alloc().getPartitionProperty( table.id ).orElseThrow();
 
-            List<LogicalAdapter> adaptersWithHot = snapshot.alloc().getAdaptersByPartitionGroup( table.id, ((TemperaturePartitionProperty) property).getHotPartitionGroupId() );
-            List<LogicalAdapter> adaptersWithCold = snapshot.alloc().getAdaptersByPartitionGroup( table.id, ((TemperaturePartitionProperty) property).getColdPartitionGroupId() );
+            List<LogicalAdapter> adaptersWithHot = snapshot.alloc().getAdaptersByPartitionGroup( table.id, property.getHotPartitionGroupId() );
+            List<LogicalAdapter> adaptersWithCold = snapshot.alloc().getAdaptersByPartitionGroup( table.id, property.getColdPartitionGroupId() );
 
             log.debug( "Get adapters to create physical tables" );
             // Validate that partition does not already exist on storeId
@@ -287,7 +329,7 @@ private void redistributePartitions( LogicalTable table, List<Long> partitionsFr
                 }
 
                 // First create new HOT tables
-                createHotTables( table, partitionsFromColdToHot, partitionsFromHotToCold, partitionsToRemoveFromStore, statement, dataMigrator, logicalAdapter );
+                createHotTables( table, partitionsFromColdToHot, partitionsFromHotToCold, partitionsToRemoveFromStore, copies, statement, logicalAdapter );
             }
 
             for ( LogicalAdapter logicalAdapter : adaptersWithCold ) {
@@ -296,31 +338,74 @@ private void redistributePartitions( LogicalTable table, List<Long> partitionsFr
                     continue;
                 }
                 // First create new HOT tables
-                createHotTables( table, partitionsFromHotToCold, partitionsFromColdToHot, partitionsToRemoveFromStore, statement, dataMigrator, logicalAdapter );
+                createHotTables( table, partitionsFromHotToCold, partitionsFromColdToHot, partitionsToRemoveFromStore, copies, statement, logicalAdapter );
             }
 
-            // DROP all partitions on each storeId
-            long hotPartitionGroupId = ((TemperaturePartitionProperty) property).getHotPartitionGroupId();
-            long coldPartitionGroupId = ((TemperaturePartitionProperty) property).getColdPartitionGroupId();
-
-            // Update catalogInformation
-            partitionsFromColdToHot.forEach( p -> catalog.getAllocRel( table.namespaceId ).updatePartition( p, hotPartitionGroupId ) );
-            partitionsFromHotToCold.forEach( p -> catalog.getAllocRel( table.namespaceId ).updatePartition( p, coldPartitionGroupId ) );
+            if ( online ) {
+                // The new tables exist now, the data is copied in the background and the catalog is updated afterward
+                // Reads must not use the new tables before they are filled completely
+                targetAllocationIds = copies.stream().map( c -> c.getTarget().id ).toList();
+                PartitionChangeLog.INSTANCE.hide( targetAllocationIds );
+                transaction.commit();
+                OnlinePartitionMigration migration = new OnlinePartitionMigration(
+                        transactionManager,
+                        table,
+                        movedPartitions,
+                        copies,
+                        targetAllocationIds,
+                        s -> finishRedistribution( s, table, property, partitionsFromColdToHot, partitionsFromHotToCold, partitionsToRemoveFromStore ) );
+                migrations.put( table.id, migration );
+                migration.start();
+                migrationStarted = true;
+                return;
+            }
 
-            // Remove all tables that have been moved
-            for ( DataStore<?> store : partitionsToRemoveFromStore.keySet() ) {
-                store.dropTable( statement.getPrepareContext(), -1 );
+            for ( PartitionCopy copy : copies ) {
+                copy.execute( transaction );
             }
+            finishRedistribution( statement, table, property, partitionsFromColdToHot, partitionsFromHotToCold, partitionsToRemoveFromStore );
 
             transaction.commit();
         } catch ( TransactionException e ) {
             transaction.rollback( "Error while reassigning new location for temperature-based partitions. " + e.getMessage() );
             throw new GenericRuntimeException( e );
+        } finally {
+            if ( online && !migrationStarted ) {
+                PartitionChangeLog.INSTANCE.release( movedPartitions );
+                PartitionChangeLog.INSTANCE.reveal( targetAllocationIds );
+            }
         }
     }
 
 
-    private void createHotTables( LogicalTable table, List<Long> partitionsFromColdToHot, List<Long> partitionsFromHotToCold, Map<DataStore<?>, List<Long>> partitionsToRemoveFromStore, Statement statement, DataMigrator dataMigrator, LogicalAdapter logicalAdapter ) {
+    /**
+     * @return The running or last migration of the given table
+     */
+    Optional<OnlinePartitionMigration> getMigration( long tableId ) {
+        return Optional.ofNullable( migrations.get( tableId ) );
+    }
+
+
+    /**
+     * Assigns the moved partitions to their new partition group and removes the tables which are not needed anymore.
+     */
+    private void finishRedistribution( Statement statement, LogicalTable table, TemperaturePartitionProperty property, List<Long> partitionsFromColdToHot, List<Long> partitionsFromHotToCold, Map<DataStore<?>, List<Long>> partitionsToRemoveFromStore ) {
+        // DROP all partitions on each storeId
+        long hotPartitionGroupId = property.getHotPartitionGroupId();
+        long coldPartitionGroupId = property.getColdPartitionGroupId();
+
+        // Update catalogInformation
+        partitionsFromColdToHot.forEach( p -> catalog.getAllocRel( table.namespaceId ).updatePartition( p, hotPartitionGroupId ) );
+        partitionsFromHotToCold.forEach( p -> catalog.getAllocRel( table.namespaceId ).updatePartition( p, coldPartitionGroupId ) );
+
+        // Remove all tables that have been moved
+        for ( DataStore<?> store : partitionsToRemoveFromStore.keySet() ) {
+            store.dropTable( statement.getPrepareContext(), -1 );
+        }
+    }
+
+
+    private void createHotTables( LogicalTable table, List<Long> partitionsFromColdToHot, List<Long> partitionsFromHotToCold, Map<DataStore<?>, List<Long>> partitionsToRemoveFromStore, List<PartitionCopy> copies, Statement statement, LogicalAdapter logicalAdapter ) {
         Adapter<?> adapter = AdapterManager.getInstance().getAdapter( logicalAdapter.id ).orElseThrow();
         if ( adapter instanceof DataStore<?> store ) {
 
@@ -338,15 +423,9 @@ private void createHotTables( LogicalTable table, List<Long> partitionsFromColdT
 
                 AllocationPlacement placement = catalog.getSnapshot().alloc().getPlacement( store.getAdapterId(), table.id ).orElseThrow();
 
+                // The data is copied after all tables have been created
                 for ( long id : hotPartitionsToCreate ) {
-                    AllocationEntity entity = catalog.getSnapshot().alloc().getAlloc( placement.id, id ).orElseThrow();
-                    dataMigrator.copyData(
-                            statement.getTransaction(),
-                            catalog.getSnapshot().getAdapter( store.getAdapterId() ).orElseThrow(),
-                            table,
-                            logicalColumns,
-                            entity );
-                    /*hotPartitionsToCreate*/
+                    copies.add( new PartitionCopy( catalog.getSnapshot().getAdapter( store.getAdapterId() ).orElseThrow(), table, logicalColumns, placement.id, id ) );
                 }
 
                 if ( !partitionsToRemoveFromStore.containsKey( store ) ) {
@@ -384,46 +463,24 @@ private List<Long> filterList( long namespaceId, long adapterId, long tableId, L
 
 
     /**
-     * Determines the partition frequency for each partition of a temperature partitioned table based on the chosen Cost Indication (ALL, WRITE,READ)
-     * in a desired time interval.
+     * Determines the partition frequency for each partition of a temperature partitioned table based on the chosen Cost Indication (ALL, WRITE,READ).
+     * The accesses are counted during routing by the {@link PartitionAccessCounter} and decay with the frequency interval of the table
+     * as mean lifetime.
      *
      * @param table Temperature partitioned table
-     * @param invocationTimestamp Timestamp do determine the interval for which monitoring metrics should be collected.
+     * @param invocationTimestamp Timestamp to which the access frequencies are decayed
      */
     @Override
     public void determinePartitionFrequency( LogicalTable table, long invocationTimestamp ) {
         Snapshot snapshot = catalog.getSnapshot();
-        PartitionProperty property = snapshot.alloc().getPartitionProperty( table.id ).orElseThrow();
-        Timestamp queryStart = new Timestamp( invocationTimestamp - ((TemperaturePartitionProperty) property).getFrequencyInterval() * 1000 );
-
-        accessCounter = new HashMap<>();
-        List<Long> tempPartitionIds = new ArrayList<>( property.partitionIds );
+        TemperaturePartitionProperty property = (TemperaturePartitionProperty) snapshot.alloc().getPartitionProperty( table.id ).orElseThrow();
+        long lifetimeMillis = property.getFrequencyInterval() * 1000;
 
-        tempPartitionIds.forEach( p -> accessCounter.put( p, (long) 0 ) );
+        PartitionAccessCounter.INSTANCE.track( property.partitionIds );
 
-        switch ( ((TemperaturePartitionProperty) property).getPartitionCostIndication() ) {
-            case ALL:
-                for ( QueryDataPointImpl queryDataPoint : MonitoringServiceProvider.getInstance().getDataPointsAfter( QueryDataPointImpl.class, queryStart ) ) {
-                    queryDataPoint.getAccessedPartitions().forEach( p -> incrementPartitionAccess( p, tempPartitionIds ) );
-                }
-                for ( DmlDataPoint dmlDataPoint : MonitoringServiceProvider.getInstance().getDataPointsAfter( DmlDataPoint.class, queryStart ) ) {
-                    dmlDataPoint.getAccessedPartitions().forEach( p -> incrementPartitionAccess( p, tempPartitionIds ) );
-                }
-
-                break;
-
-            case READ:
-                List<QueryDataPointImpl> readAccesses = MonitoringServiceProvider.getInstance().getDataPointsAfter( QueryDataPointImpl.class, queryStart );
-                for ( QueryDataPointImpl queryDataPoint : readAccesses ) {
-                    queryDataPoint.getAccessedPartitions().forEach( p -> incrementPartitionAccess( p, tempPartitionIds ) );
-                }
-                break;
-
-            case WRITE:
-                List<DmlDataPoint> writeAccesses = MonitoringServiceProvider.getInstance().getDataPointsAfter( DmlDataPoint.class, queryStart );
-                for ( DmlDataPoint dmlDataPoint : writeAccesses ) {
-                    dmlDataPoint.getAccessedPartitions().forEach( p -> incrementPartitionAccess( p, tempPartitionIds ) );
-                }
+        accessCounter = new HashMap<>();
+        for ( long partitionId : property.partitionIds ) {
+            accessCounter.put( partitionId, PartitionAccessCounter.INSTANCE.getFrequency( partitionId, property.getPartitionCostIndication(), lifetimeMillis, invocationTimestamp ) );
         }
 
         // To gain observability
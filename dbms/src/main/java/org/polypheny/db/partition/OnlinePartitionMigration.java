@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.partition;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.adapter.AdapterManager;
+import org.polypheny.db.adapter.DataStore;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.LogicalAdapter;
+import org.polypheny.db.catalog.entity.allocation.AllocationEntity;
+import org.polypheny.db.catalog.entity.logical.LogicalColumn;
+import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.processing.QueryProcessor;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.transaction.TransactionManager;
+import org.polypheny.db.transaction.locking.Lockable.LockType;
+import org.polypheny.db.transaction.locking.LockablesRegistry;
+
+
+/**
+ * Moves partitions of a temperature partitioned table without locking the table for the entire migration.
+ * <p>
+ * Every partition is copied in its own transaction, with a configurable pause between two partitions.
+ * A copy holds a shared lock on the table, hence it sees no uncommitted writes.
+ * Partitions which are modified in the meantime are captured by the {@link PartitionChangeLog}, which has to capture the partitions
+ * before the new allocations are created. Finally, the table is locked exclusively, the modified partitions are copied again
+ * and the catalog is updated. Until then, the new allocations are hidden from reads. If the migration fails, the new
+ * allocations are removed again.
+ */
+@Slf4j
+class OnlinePartitionMigration implements Runnable {
+
+    enum State {COPYING, CATCHING_UP, FINISHED, FAILED}
+
+
+    private final TransactionManager transactionManager;
+    @Getter
+    private final LogicalTable table;
+    private final Set<Long> partitionIds;
+    private final List<PartitionCopy> copies;
+    private final List<Long> targetAllocationIds;
+    private final Consumer<Statement> finisher;
+
+    @Getter
+    private volatile State state = State.COPYING;
+    @Getter
+    private volatile int copiedPartitions;
+    @Getter
+    private volatile int caughtUpPartitions;
+    @Getter
+    private volatile long copiedBytes;
+    private final long startTime = System.currentTimeMillis();
+    private volatile long endTime;
+
+
+    /**
+     * @param transactionManager Used to start the transactions of the migration
+     * @param table Temperature partitioned table
+     * @param partitionIds Moved partitions, whose modifications are captured by the {@link PartitionChangeLog}
+     * @param copies Partitions which have to be copied to their new location
+     * @param targetAllocationIds The allocations to which the partitions are copied, these are hidden from reads until the migration has finished
+     * @param finisher Updates the catalog and removes the old partitions, executed while the table is locked
+     */
+    OnlinePartitionMigration( TransactionManager transactionManager, LogicalTable table, Set<Long> partitionIds, List<PartitionCopy> copies, List<Long> targetAllocationIds, Consumer<Statement> finisher ) {
+        this.transactionManager = transactionManager;
+        this.table = table;
+        this.partitionIds = partitionIds;
+        this.copies = copies;
+        this.targetAllocationIds = targetAllocationIds;
+        this.finisher = finisher;
+    }
+
+
+    void start() {
+        Thread thread = new Thread( this, "Partition migration " + table.name );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+
+    @Override
+    public void run() {
+        try {
+            for ( PartitionCopy copy : copies ) {
+                executeInTransaction( transaction -> {
+                    // Waits for running writers, the target may already contain rows of writers which have been routed to it
+                    transaction.acquireLockable( LockablesRegistry.INSTANCE.getOrCreateLockable( table ), LockType.SHARED );
+                    copy.clear( transaction );
+                    copiedBytes += copy.execute( transaction );
+                } );
+                copiedPartitions++;
+                throttle();
+            }
+
+            state = State.CATCHING_UP;
+            executeInTransaction( transaction -> {
+                // Writers which have modified a partition hold their lock until they commit, therefore all modifications are captured once we hold the lock
+                transaction.acquireLockable( LockablesRegistry.INSTANCE.getOrCreateLockable( table ), LockType.EXCLUSIVE );
+                Set<Long> modified = PartitionChangeLog.INSTANCE.release( partitionIds );
+                for ( PartitionCopy copy : copies ) {
+                    if ( modified.contains( copy.partitionId() ) ) {
+                        copy.clear( transaction );
+                        copiedBytes += copy.execute( transaction );
+                        caughtUpPartitions++;
+                    }
+                }
+                Statement statement = transaction.createStatement();
+                finisher.accept( statement );
+                QueryProcessor processor = statement.getQueryProcessor();
+                transaction.attachCommitAction( () -> {
+                    // The new allocations are complete and are kept up to date by the writers from now on
+                    PartitionChangeLog.INSTANCE.reveal( targetAllocationIds );
+                    // Cached plans were routed without the new allocations and might still read the removed ones
+                    processor.resetCaches();
+                } );
+            } );
+            state = State.FINISHED;
+        } catch ( RuntimeException e ) {
+            log.error( "Online migration of partitions of table {} failed", table.name, e );
+            state = State.FAILED;
+            dropTargets();
+        } finally {
+            PartitionChangeLog.INSTANCE.release( partitionIds );
+            endTime = System.currentTimeMillis();
+        }
+    }
+
+
+    /**
+     * Removes the new allocations of a failed migration. They might miss modifications and must therefore never be read,
+     * but as long as they exist, writers keep modifying them and a later redistribution cannot create them again.
+     */
+    private void dropTargets() {
+        try {
+            executeInTransaction( transaction -> {
+                transaction.acquireLockable( LockablesRegistry.INSTANCE.getOrCreateLockable( table ), LockType.EXCLUSIVE );
+                Statement statement = transaction.createStatement();
+                copies.forEach( copy -> copy.drop( statement ) );
+                QueryProcessor processor = statement.getQueryProcessor();
+                transaction.attachCommitAction( () -> {
+                    PartitionChangeLog.INSTANCE.reveal( targetAllocationIds );
+                    // Cached plans might still write to the removed allocations
+                    processor.resetCaches();
+                } );
+            } );
+        } catch ( RuntimeException e ) {
+            // The allocations stay hidden from reads
+            log.error( "Unable to remove the new allocations of the failed migration of table {}", table.name, e );
+        }
+    }
+
+
+    boolean isRunning() {
+        return state == State.COPYING || state == State.CATCHING_UP;
+    }
+
+
+    int getTotalPartitions() {
+        return copies.size();
+    }
+
+
+    long getBytesPerSecond() {
+        long end = endTime == 0 ? System.currentTimeMillis() : endTime;
+        return copiedBytes * 1000 / Math.max( 1, end - startTime );
+    }
+
+
+    private void executeInTransaction( Consumer<Transaction> action ) {
+        Transaction transaction = transactionManager.startTransaction( Catalog.defaultUserId, null, "FrequencyMap" );
+        try {
+            action.accept( transaction );
+            transaction.commit();
+        } catch ( RuntimeException e ) {
+            transaction.rollback( "Error during online migration of temperature-based partitions. " + e.getMessage() );
+            throw new GenericRuntimeException( e );
+        }
+    }
+
+
+    private void throttle() {
+        int delay = RuntimeConfig.TEMPERATURE_MIGRATION_CHUNK_DELAY.getInteger();
+        if ( delay <= 0 ) {
+            return;
+        }
+        try {
+            Thread.sleep( delay );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GenericRuntimeException( "Online partition migration has been interrupted", e );
+        }
+    }
+
+
+    /**
+     * Copy of a single partition to the placement of a store.
+     */
+    record PartitionCopy( LogicalAdapter adapter, LogicalTable table, List<LogicalColumn> columns, long placementId, long partitionId ) {
+
+        /**
+         * @return The approximate number of bytes which have been copied
+         */
+        long execute( Transaction transaction ) {
+            return transaction.getDataMigrator().copyData( transaction, adapter, table, columns, getTarget() );
+        }
+
+
+        /**
+         * Removes all rows which have already been copied to the target.
+         */
+        void clear( Transaction transaction ) {
+            Statement statement = transaction.createStatement();
+            AlgRoot delete = transaction.getDataMigrator().buildDeleteStatement( statement, List.of(), getTarget() );
+            Iterator<?> iterator = statement.getQueryProcessor()
+                    .prepareQuery( delete, delete.alg.getCluster().getTypeFactory().builder().build(), true, false, false )
+                    .enumerable( statement.getDataContext() )
+                    .iterator();
+            //noinspection WhileLoopReplaceableByForEach
+            while ( iterator.hasNext() ) {
+                iterator.next();
+            }
+        }
+
+
+        /**
+         * Removes the target allocation from the catalog and drops its physical table once the transaction commits.
+         */
+        void drop( Statement statement ) {
+            AllocationEntity target = getTarget();
+            DataStore<?> store = AdapterManager.getInstance().getStore( adapter.id ).orElseThrow();
+            statement.getTransaction().attachCommitAction( () -> store.dropTable( statement.getPrepareContext(), target.id ) );
+            Catalog.getInstance().getAllocRel( table.namespaceId ).deleteAllocation( target.id );
+        }
+
+
+        AllocationEntity getTarget() {
+            return Catalog.snapshot().alloc().getAlloc( placementId, partitionId ).orElseThrow();
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.partition;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.polypheny.db.transaction.Transaction;
+
+
+/**
+ * Captures which partitions are modified while they are copied by an online partition migration.
+ * A write is captured when its transaction commits, regardless of when the statement has been routed.
+ * Partitions which have been modified after capturing was started have to be copied again during the final catch-up.
+ * <p>
+ * Additionally, keeps track of the allocations which are still filled by a migration. These allocations are not used for reads.
+ */
+public class PartitionChangeLog {
+
+    public static final PartitionChangeLog INSTANCE = new PartitionChangeLog();
+
+    private final Map<Long, Boolean> captured = new ConcurrentHashMap<>(); // partitionId -> modified
+
+    private final Set<Long> hiddenAllocations = ConcurrentHashMap.newKeySet();
+
+
+    /**
+     * Starts capturing the modifications of the given partitions. Previously captured modifications are discarded.
+     */
+    public void capture( Collection<Long> partitionIds ) {
+        partitionIds.forEach( id -> captured.put( id, false ) );
+    }
+
+
+    /**
+     * Records that the given transaction modifies the partitions. The modification is captured once the transaction commits,
+     * which happens while it still holds its lock on the table. Rolled back transactions are not captured.
+     */
+    public void recordWrite( Transaction transaction, Collection<Long> partitionIds ) {
+        Set<Long> modified = Set.copyOf( partitionIds );
+        transaction.attachCommitAction( () -> recordCommit( modified ) );
+    }
+
+
+    void recordCommit( Collection<Long> partitionIds ) {
+        if ( captured.isEmpty() ) {
+            return;
+        }
+        partitionIds.forEach( id -> captured.computeIfPresent( id, ( k, v ) -> true ) );
+    }
+
+
+    /**
+     * Stops capturing the modifications of the given partitions.
+     *
+     * @return The partitions which have been modified since capturing was started
+     */
+    public Set<Long> release( Collection<Long> partitionIds ) {
+        Set<Long> modified = new HashSet<>();
+        for ( long partitionId : partitionIds ) {
+            if ( Boolean.TRUE.equals( captured.remove( partitionId ) ) ) {
+                modified.add( partitionId );
+            }
+        }
+        return modified;
+    }
+
+
+    /**
+     * Excludes the given allocations from reads until they are revealed again.
+     */
+    public void hide( Collection<Long> allocationIds ) {
+        hiddenAllocations.addAll( allocationIds );
+    }
+
+
+    public void reveal( Collection<Long> allocationIds ) {
+        hiddenAllocations.removeAll( allocationIds );
+    }
+
+
+    /**
+     * @return The allocations which must not be read, because a migration has not filled them completely yet
+     */
+    public List<Long> getHiddenAllocations() {
+        return hiddenAllocations.isEmpty() ? List.of() : List.copyOf( hiddenAllocations );
+    }
+
+}
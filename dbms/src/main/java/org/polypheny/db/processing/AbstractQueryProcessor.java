@@ -90,6 +90,7 @@
 import org.polypheny.db.monitoring.events.MonitoringType;
 import org.polypheny.db.monitoring.events.QueryEvent;
 import org.polypheny.db.monitoring.events.StatementEvent;
+import org.polypheny.db.partition.PartitionAccessCounter;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.AlgTraitSet;
@@ -1281,6 +1282,10 @@ private void monitorResult( ProposedRoutingPlan selectedPlan ) {
                 }
             }
             finalizeAccessedPartitions( eventData );
+
+            if ( eventData instanceof QueryEvent && eventData.getLogicalQueryInformation() != null ) {
+                eventData.getLogicalQueryInformation().getAccessedPartitions().values().forEach( PartitionAccessCounter.INSTANCE::recordRead );
+            }
         }
     }
 
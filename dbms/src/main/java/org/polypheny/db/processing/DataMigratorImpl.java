@@ -17,15 +17,26 @@
 package org.polypheny.db.processing;
 
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.linq4j.Enumerable;
@@ -33,6 +44,7 @@
 import org.jetbrains.annotations.Nullable;
 import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.ResultIterator;
+import org.polypheny.db.StatisticsManager;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.AlgStructuredTypeFlattener;
@@ -54,7 +66,9 @@
 import org.polypheny.db.algebra.type.AlgDataTypeSystem;
 import org.polypheny.db.algebra.type.AlgRecordType;
 import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.Entity;
 import org.polypheny.db.catalog.entity.LogicalAdapter;
+import org.polypheny.db.catalog.entity.LogicalConstraint;
 import org.polypheny.db.catalog.entity.allocation.AllocationCollection;
 import org.polypheny.db.catalog.entity.allocation.AllocationColumn;
 import org.polypheny.db.catalog.entity.allocation.AllocationEntity;
@@ -66,10 +80,15 @@
 import org.polypheny.db.catalog.entity.logical.LogicalGraph;
 import org.polypheny.db.catalog.entity.logical.LogicalPrimaryKey;
 import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.catalog.entity.physical.PhysicalEntity;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.catalog.logistic.ConstraintType;
 import org.polypheny.db.catalog.snapshot.LogicalRelSnapshot;
 import org.polypheny.db.catalog.snapshot.Snapshot;
 import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.monitoring.events.MonitoringType;
+import org.polypheny.db.partition.PartitionAccessCounter;
+import org.polypheny.db.partition.PartitionChangeLog;
 import org.polypheny.db.partition.PartitionManager;
 import org.polypheny.db.partition.PartitionManagerFactory;
 import org.polypheny.db.partition.properties.PartitionProperty;
@@ -86,6 +105,8 @@
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.PolyTypeFactoryImpl;
+import org.polypheny.db.type.PolyTypeFamily;
+import org.polypheny.db.type.entity.PolyNull;
 import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.type.entity.document.PolyDocument;
 import org.polypheny.db.type.entity.graph.PolyGraph;
@@ -192,35 +213,40 @@ public void copyDocData( AllocationCollection to, LogicalCollection from, Transa
 
         final ResultIterator sourceIterator = implementation.execute( statement, batchSize );
 
-        do {
+        // The next batch is read while the previous one is inserted
+        MigrationPipeline.run( adaptersOf( routed ), Set.of( to.adapterId ), () -> {
+            List<List<PolyValue>> batch = sourceIterator.getNextBatch();
+            return batch.isEmpty() ? null : batch;
+        }, batch -> {
             // we have a new statement
-            statement = transaction.createStatement();
-            builder = AlgBuilder.create( statement );
+            Statement targetStatement = transaction.createStatement();
+            AlgBuilder targetBuilder = AlgBuilder.create( targetStatement );
 
-            LogicalDocumentValues values = getLogicalDocValues( builder, sourceIterator.getNextBatch() );
+            LogicalDocumentValues values = getLogicalDocValues( targetBuilder, batch );
 
             if ( values.dynamicDocuments.isEmpty() && values.documents.isEmpty() ) {
                 // no values retrieved
                 return;
             }
 
-            LogicalDocumentModify modify = new LogicalDocumentModify( builder.getCluster().traitSetOf( ModelTrait.DOCUMENT ), to, values, Modify.Operation.INSERT, null, null, null );
+            LogicalDocumentModify modify = new LogicalDocumentModify( targetBuilder.getCluster().traitSetOf( ModelTrait.DOCUMENT ), to, values, Modify.Operation.INSERT, null, null, null );
 
             // AlgNode routedModify = RoutingManager.getInstance().getDmlRouter().routeDocumentDml( modify, statement, to, List.of( to.placementId ) );
 
-            PolyImplementation modifyImpl = statement.getQueryProcessor().prepareQuery(
+            PolyImplementation modifyImpl = targetStatement.getQueryProcessor().prepareQuery(
                     AlgRoot.of( modify, Kind.SELECT ),
                     modify.getCluster().getTypeFactory().builder().build(),
                     true,
                     false,
                     false );
 
-            final ResultIterator modifyIterator = modifyImpl.execute( statement, batchSize );
+            final ResultIterator modifyIterator = modifyImpl.execute( targetStatement, batchSize );
 
             while ( modifyIterator.hasMoreRows() ) {
                 modifyIterator.getNextBatch();
             }
-        } while ( implementation.hasMoreRows() );
+        } );
+        sourceIterator.close();
     }
 
 
@@ -248,7 +274,7 @@ private static LogicalLpgValues getLogicalLpgValues( AlgBuilder builder, PolyGra
 
 
     @Override
-    public void copyData(
+    public long copyData(
             Transaction transaction,
             LogicalAdapter targetStore,
             LogicalTable source,
@@ -256,9 +282,6 @@ public void copyData(
             AllocationEntity target ) {
         Snapshot snapshot = Catalog.snapshot();
 
-        Statement sourceStatement = transaction.createStatement();
-        Statement targetStatement = transaction.createStatement();
-
         List<LogicalColumn> copyColumns = new ArrayList<>( columns );
         // we add the primary key columns to the list of columns to copy, if they are not already in the list
         snapshot.rel().getPrimaryKey( source.primaryKey ).orElseThrow().fieldIds.forEach( pkColumnId -> {
@@ -267,41 +290,43 @@ public void copyData(
             }
         } );
 
-        AlgRoot sourceAlg = getSourceIterator(
-                sourceStatement,
-                new ColumnDistribution( source.id, copyColumns.stream().map( c -> c.id ).toList(), List.of( target.partitionId ), List.of( target.partitionId ), List.of( target.id ), snapshot ) );
-        AlgRoot targetAlg;
+        ColumnDistribution distribution = new ColumnDistribution( source.id, copyColumns.stream().map( c -> c.id ).toList(), List.of( target.partitionId ), List.of( target.partitionId ), List.of( target.id ), snapshot );
         AllocationTable allocation = target.unwrapOrThrow( AllocationTable.class );
         Catalog.getInstance().updateSnapshot();
-        if ( allocation.getColumns().size() == columns.size() ) {
-            // There have been no placements for this table on this storeId before. Build insert statement
-            targetAlg = buildInsertStatement( targetStatement, allocation.getColumns(), allocation );
-        } else {
-            // Build update statement
-            targetAlg = buildUpdateStatement( targetStatement, columns.stream().map( c -> Catalog.snapshot().alloc().getColumn( target.placementId, c.id ).orElseThrow() ).toList(), allocation );
-        }
+        // There have been no placements for this table on this storeId before if all columns are copied, otherwise the existing rows are updated
+        boolean isInsert = allocation.getColumns().size() == columns.size();
+        List<AllocationColumn> updatedColumns = isInsert ? List.of() : columns.stream().map( c -> Catalog.snapshot().alloc().getColumn( target.placementId, c.id ).orElseThrow() ).toList();
+
+        Statement sourceStatement = transaction.createStatement();
+        Statement targetStatement = transaction.createStatement();
+        AlgRoot sourceAlg = getSourceIterator( sourceStatement, distribution );
+        AlgRoot targetAlg = isInsert
+                ? buildInsertStatement( targetStatement, allocation.getColumns(), allocation )
+                : buildUpdateStatement( targetStatement, updatedColumns, allocation );
 
         // Execute Query
-        executeQuery( allocation.getColumns(), sourceAlg, sourceStatement, targetStatement, targetAlg, false, false );
+        return executeQuery( allocation.getColumns(), sourceAlg, sourceStatement, targetStatement, targetAlg, false, false );
     }
 
 
     @Override
-    public void copyData(
+    public long copyData(
             Transaction transaction,
             LogicalAdapter targetStore,
             LogicalTable source,
             List<LogicalColumn> columns,
             AllocationPlacement target ) {
         Snapshot snapshot = Catalog.snapshot();
+        long bytes = 0;
         for ( AllocationEntity entity : snapshot.alloc().getAllocsOfPlacement( target.id ) ) {
-            copyData( transaction, targetStore, source, columns, entity );
+            bytes += copyData( transaction, targetStore, source, columns, entity );
         }
+        return bytes;
     }
 
 
     @Override
-    public void executeQuery( List<AllocationColumn> selectedColumns, AlgRoot sourceAlg, Statement sourceStatement, Statement targetStatement, AlgRoot targetAlg, boolean isMaterializedView, boolean doesSubstituteOrderBy ) {
+    public long executeQuery( List<AllocationColumn> selectedColumns, AlgRoot sourceAlg, Statement sourceStatement, Statement targetStatement, AlgRoot targetAlg, boolean isMaterializedView, boolean doesSubstituteOrderBy ) {
         try {
             PolyImplementation implementation;
             if ( isMaterializedView ) {
@@ -340,26 +365,23 @@ public void executeQuery( List<AllocationColumn> selectedColumns, AlgRoot source
             }
 
             int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
-            int i = 0;
+            AtomicInteger i = new AtomicInteger();
+            AtomicLong bytes = new AtomicLong();
 
-            do {
-                ResultIterator iter = implementation.execute( sourceStatement, batchSize );
-                List<List<PolyValue>> rows = iter.getNextBatch();
-                iter.close();
-                if ( rows.isEmpty() ) {
-                    continue;
-                }
+            // The next batch is read while the previous one is written
+            PolyImplementation source = implementation;
+            MigrationPipeline.run( isMaterializedView ? null : adaptersOf( sourceAlg.alg ), adaptersOf( targetAlg.alg ), () -> readBatch( source, sourceStatement, batchSize ), rows -> {
                 Map<Long, List<PolyValue>> values = new HashMap<>();
 
                 for ( List<PolyValue> list : rows ) {
+                    bytes.addAndGet( getByteSize( list ) );
                     for ( Map.Entry<Long, Integer> entry : resultColMapping.entrySet() ) {
                         if ( !values.containsKey( entry.getKey() ) ) {
                             values.put( entry.getKey(), new LinkedList<>() );
                         }
                         if ( isMaterializedView ) {
                             if ( entry.getValue() > list.size() - 1 ) {
-                                values.get( entry.getKey() ).add( PolyInteger.of( i ) );
-                                i++;
+                                values.get( entry.getKey() ).add( PolyInteger.of( i.getAndIncrement() ) );
                             } else {
                                 values.get( entry.getKey() ).add( list.get( entry.getValue() ) );
                             }
@@ -392,13 +414,44 @@ public void executeQuery( List<AllocationColumn> selectedColumns, AlgRoot source
                     iterator.next();
                 }
                 targetStatement.getDataContext().resetParameterValues();
-            } while ( implementation.hasMoreRows() );
+            } );
+            return bytes.get();
         } catch ( Throwable t ) {
             throw new GenericRuntimeException( t );
         }
     }
 
 
+    /**
+     * Reads the next non-empty batch of the implementation.
+     *
+     * @return The batch or null if all rows have been read
+     */
+    @Nullable
+    private static List<List<PolyValue>> readBatch( PolyImplementation implementation, Statement statement, int batchSize ) {
+        do {
+            ResultIterator iter = implementation.execute( statement, batchSize );
+            List<List<PolyValue>> rows = iter.getNextBatch();
+            iter.close();
+            if ( !rows.isEmpty() ) {
+                return rows;
+            }
+        } while ( implementation.hasMoreRows() );
+        return null;
+    }
+
+
+    private static long getByteSize( List<PolyValue> row ) {
+        long bytes = 0;
+        for ( PolyValue value : row ) {
+            if ( value != null ) {
+                bytes += value.getByteSize().orElse( 0L );
+            }
+        }
+        return bytes;
+    }
+
+
     @Override
     public AlgRoot buildDeleteStatement( Statement statement, List<AllocationColumn> to, AllocationEntity allocation ) {
         AlgCluster cluster = AlgCluster.create(
@@ -572,68 +625,341 @@ public void copyAllocationData( Transaction transaction, LogicalAdapter store, L
                 columIndex = source.sourceAlg.alg.getTupleType().getField( partitionColumn.name, true, false ).getIndex();
             }
 
-            //int partitionColumnIndex = -1;
+            int partitionColumnIndex = columIndex;
+            int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+            List<AllocationColumn> sortedColumns = columns.stream().sorted( Comparator.comparingInt( c -> c.position ) ).toList();
+
+            // Rows are read and assigned to their partition while the previous batch is written
+            MigrationPipeline.run( adaptersOf( source.sourceAlg.alg ), Set.of( store.id ), () -> {
+                List<List<PolyValue>> rows = readBatch( result, source.sourceStatement, batchSize );
+                return rows == null ? null : splitByPartition( rows, partitionColumnIndex, sortedColumns, partitionManager, table, targetProperty );
+            }, partitionValues -> {
+                // Iterate over partitionValues in that way we don't even execute a statement which has no rows, every partition is written by its own statement.
+                // All partitions are on the same store, so they are written one after another.
+                for ( Entry<Long, Map<Long, Pair<AlgDataType, List<PolyValue>>>> dataOnPartition : partitionValues.entrySet() ) {
+                    long partitionId = dataOnPartition.getKey();
+                    writePartition( targetStatements.get( partitionId ), targetAlgs.get( partitionId ), source.sourceAlg.validatedRowType, dataOnPartition.getValue() );
+                }
+            } );
+        } catch ( Throwable t ) {
+            throw new GenericRuntimeException( t );
+        }
+    }
+
+
+    private static Map<Long, Map<Long, Pair<AlgDataType, List<PolyValue>>>> splitByPartition( List<List<PolyValue>> rows, int partitionColumnIndex, List<AllocationColumn> sortedColumns, PartitionManager partitionManager, LogicalTable table, PartitionProperty targetProperty ) {
+        Map<Long, Map<Long, Pair<AlgDataType, List<PolyValue>>>> partitionValues = new HashMap<>();
+
+        for ( List<PolyValue> row : rows ) {
             String parsedValue;
+            if ( row.get( partitionColumnIndex ) != null ) {
+                parsedValue = row.get( partitionColumnIndex ).toString();
+            } else {
+                parsedValue = PartitionManager.NULL_STRING;
+            }
 
-            int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+            long currentPartitionId = partitionManager.getTargetPartitionId( table, targetProperty, parsedValue );
 
-            do {
-                ResultIterator iter = result.execute( source.sourceStatement, batchSize );
-                List<List<PolyValue>> rows = iter.getNextBatch();
-                iter.close();
-                if ( rows.isEmpty() ) {
-                    continue;
+            int i = 0;
+            for ( AllocationColumn column : sortedColumns ) {
+                if ( !partitionValues.containsKey( currentPartitionId ) ) {
+                    partitionValues.put( currentPartitionId, new HashMap<>() );
+                }
+                if ( !partitionValues.get( currentPartitionId ).containsKey( column.columnId ) ) {
+                    partitionValues.get( currentPartitionId ).put( column.columnId, Pair.of( column.getAlgDataType(), new ArrayList<>() ) );
                 }
+                partitionValues.get( currentPartitionId ).get( column.columnId ).right.add( row.get( i++ ) );
+            }
+        }
+        return partitionValues;
+    }
+
 
-                Map<Long, Map<Long, Pair<AlgDataType, List<PolyValue>>>> partitionValues = new HashMap<>();
+    private static void writePartition( Statement targetStatement, AlgRoot targetAlg, AlgDataType parameterRowType, Map<Long, Pair<AlgDataType, List<PolyValue>>> values ) {
+        for ( Entry<Long, Pair<AlgDataType, List<PolyValue>>> columnDataOnPartition : values.entrySet() ) {
+            // Check partitionValue
+            targetStatement.getDataContext().addParameterValues( columnDataOnPartition.getKey(), columnDataOnPartition.getValue().left, columnDataOnPartition.getValue().right );
+        }
 
-                for ( List<PolyValue> row : rows ) {
+        Iterator<?> iterator = targetStatement.getQueryProcessor()
+                .prepareQuery( targetAlg, parameterRowType, true, false, false )
+                .enumerable( targetStatement.getDataContext() )
+                .iterator();
+        //noinspection WhileLoopReplaceableByForEach
+        while ( iterator.hasNext() ) {
+            iterator.next();
+        }
+        targetStatement.getDataContext().resetParameterValues();
+    }
 
-                    if ( row.get( columIndex ) != null ) {
-                        parsedValue = row.get( columIndex ).toString();
-                    } else {
-                        parsedValue = PartitionManager.NULL_STRING;
-                    }
 
-                    long currentPartitionId = partitionManager.getTargetPartitionId( table, targetProperty, parsedValue );
+    @Override
+    public long bulkLoad( Transaction transaction, LogicalTable table, List<LogicalColumn> columns, Supplier<List<List<PolyValue>>> reader ) {
+        Snapshot snapshot = transaction.getSnapshot();
+        if ( RuntimeConfig.FOREIGN_KEY_ENFORCEMENT.getBoolean() && !snapshot.rel().getForeignKeys( table.id ).isEmpty() ) {
+            throw new GenericRuntimeException( "Bulk loading does not enforce foreign keys, but foreign key enforcement is enabled for table %s", table.name );
+        }
+        if ( RuntimeConfig.POLYSTORE_INDEXES_ENABLED.getBoolean() && snapshot.rel().getIndexes( table.id, false ).stream().anyMatch( i -> i.location == -1 ) ) {
+            throw new GenericRuntimeException( "Bulk loading does not update polystore indexes, but table %s has polystore indexes", table.name );
+        }
 
-                    int i = 0;
-                    for ( AllocationColumn column : columns.stream().sorted( Comparator.comparingInt( c -> c.position ) ).toList() ) {
-                        if ( !partitionValues.containsKey( currentPartitionId ) ) {
-                            partitionValues.put( currentPartitionId, new HashMap<>() );
-                        }
-                        if ( !partitionValues.get( currentPartitionId ).containsKey( column.columnId ) ) {
-                            partitionValues.get( currentPartitionId ).put( column.columnId, Pair.of( column.getAlgDataType(), new ArrayList<>() ) );
+        List<LogicalColumn> tableColumns = snapshot.rel().getColumns( table.id ).stream().sorted( Comparator.comparingInt( c -> c.position ) ).toList();
+        Map<Long, Integer> columnIndexes = new HashMap<>();
+        for ( int i = 0; i < tableColumns.size(); i++ ) {
+            columnIndexes.put( tableColumns.get( i ).id, i );
+        }
+        int[] valueIndexes = new int[tableColumns.size()];
+        Arrays.fill( valueIndexes, -1 );
+        for ( int i = 0; i < columns.size(); i++ ) {
+            Integer index = columnIndexes.get( columns.get( i ).id );
+            if ( index == null ) {
+                throw new GenericRuntimeException( "Column %s is not a column of table %s", columns.get( i ).name, table.name );
+            }
+            valueIndexes[index] = i;
+        }
+
+        List<UniqueKey> uniqueKeys = RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.getBoolean() ? getUniqueKeys( transaction, table, columnIndexes ) : List.of();
+
+        PartitionProperty property = snapshot.alloc().getPartitionProperty( table.id ).orElseThrow();
+        PartitionManager partitionManager = property.isPartitioned ? PartitionManagerFactory.getInstance().getPartitionManager( property.partitionType ) : null;
+        int partitionColumnIndex = property.isPartitioned ? columnIndexes.get( property.partitionColumnId ) : -1;
+
+        // Every allocation is written by its own statement, the insert is built once per allocation
+        Map<Long, List<BulkTarget>> targets = new HashMap<>();
+        for ( AllocationPlacement placement : snapshot.alloc().getPlacementsFromLogical( table.id ) ) {
+            List<AllocationColumn> placementColumns = snapshot.alloc().getColumns( placement.id );
+            for ( long partitionId : property.partitionIds ) {
+                Optional<AllocationEntity> allocation = snapshot.alloc().getAlloc( placement.id, partitionId );
+                if ( allocation.isEmpty() ) {
+                    continue;
+                }
+                Statement statement = transaction.createStatement();
+                targets.computeIfAbsent( partitionId, id -> new ArrayList<>() )
+                        .add( new BulkTarget( allocation.get().adapterId, statement, buildInsertStatement( statement, placementColumns, allocation.get() ), placementColumns ) );
+            }
+        }
+
+        AtomicLong count = new AtomicLong();
+        // The next batch is validated and assigned to its partitions while the previous one is written
+        Set<Long> targetAdapters = targets.values().stream().flatMap( List::stream ).map( BulkTarget::adapterId ).collect( Collectors.toSet() );
+        MigrationPipeline.run( Set.of(), targetAdapters, () -> {
+            List<List<PolyValue>> rows = reader.get();
+            if ( rows == null ) {
+                return null;
+            }
+            Map<Long, List<PolyValue[]>> partitions = new HashMap<>();
+            // Duplicates within the batch are found here, keys used by the table are checked before the batch is written
+            List<Set<List<PolyValue>>> batchKeys = uniqueKeys.stream().map( k -> new HashSet<List<PolyValue>>() ).collect( Collectors.toList() );
+            for ( List<PolyValue> values : rows ) {
+                long rowNumber = count.incrementAndGet();
+                PolyValue[] row = toTableRow( values, columns.size(), tableColumns, valueIndexes, rowNumber );
+                for ( int i = 0; i < uniqueKeys.size(); i++ ) {
+                    List<PolyValue> key = uniqueKeys.get( i ).keyOf( row );
+                    if ( key != null && !batchKeys.get( i ).add( key ) ) {
+                        throw new GenericRuntimeException( "Row %s violates the unique constraint %s", rowNumber, uniqueKeys.get( i ).name() );
+                    }
+                }
+                long partitionId = property.partitionIds.get( 0 );
+                if ( partitionManager != null ) {
+                    PolyValue value = row[partitionColumnIndex];
+                    partitionId = partitionManager.getTargetPartitionId( table, property, value.isNull() ? PartitionManager.NULL_STRING : value.toString() );
+                }
+                partitions.computeIfAbsent( partitionId, id -> new ArrayList<>() ).add( row );
+            }
+            return partitions;
+        }, partitions -> {
+            for ( UniqueKey key : uniqueKeys ) {
+                key.checkExisting( transaction, table, tableColumns, partitions.values() );
+            }
+            Map<Long, List<Callable<Void>>> writes = new HashMap<>();
+            for ( Entry<Long, List<PolyValue[]>> rowsOnPartition : partitions.entrySet() ) {
+                for ( BulkTarget target : targets.getOrDefault( rowsOnPartition.getKey(), List.of() ) ) {
+                    Map<Long, Pair<AlgDataType, List<PolyValue>>> values = new HashMap<>();
+                    for ( AllocationColumn column : target.columns() ) {
+                        int index = columnIndexes.get( column.columnId );
+                        List<PolyValue> columnValues = new ArrayList<>( rowsOnPartition.getValue().size() );
+                        for ( PolyValue[] row : rowsOnPartition.getValue() ) {
+                            columnValues.add( row[index] );
                         }
-                        partitionValues.get( currentPartitionId ).get( column.columnId ).right.add( row.get( i++ ) );
+                        values.put( column.columnId, Pair.of( tableColumns.get( index ).getAlgDataType( AlgDataTypeFactory.DEFAULT ), columnValues ) );
                     }
+                    writes.computeIfAbsent( target.adapterId(), id -> new ArrayList<>() ).add( () -> {
+                        writePartition( target.statement(), target.insert(), table.getTupleType(), values );
+                        return null;
+                    } );
                 }
+            }
+            MigrationPipeline.runPerAdapter( writes );
+            // The partitions are written like by an insert, an online migration of them has to catch up
+            PartitionAccessCounter.INSTANCE.recordWrite( partitions.keySet() );
+            PartitionChangeLog.INSTANCE.recordWrite( transaction, partitions.keySet() );
+        } );
 
-                // Iterate over partitionValues in that way we don't even execute a statement which has no rows
-                for ( Entry<Long, Map<Long, Pair<AlgDataType, List<PolyValue>>>> dataOnPartition : partitionValues.entrySet() ) {
-                    long partitionId = dataOnPartition.getKey();
-                    Map<Long, Pair<AlgDataType, List<PolyValue>>> values = dataOnPartition.getValue();
-                    Statement currentTargetStatement = targetStatements.get( partitionId );
+        // The rows bypass the monitoring of inserts, so the statistics are updated once they are committed
+        long loaded = count.get();
+        transaction.attachCommitAction( () -> {
+            StatisticsManager statisticsManager = StatisticsManager.getInstance();
+            statisticsManager.updateRowCountPerEntity( table.id, loaded, MonitoringType.INSERT );
+            statisticsManager.entitiesToUpdate( table.id );
+        } );
+        return loaded;
+    }
 
-                    for ( Entry<Long, Pair<AlgDataType, List<PolyValue>>> columnDataOnPartition : values.entrySet() ) {
-                        // Check partitionValue
-                        currentTargetStatement.getDataContext().addParameterValues( columnDataOnPartition.getKey(), columnDataOnPartition.getValue().left, columnDataOnPartition.getValue().right );
-                    }
 
-                    Iterator<?> iterator = currentTargetStatement.getQueryProcessor()
-                            .prepareQuery( targetAlgs.get( partitionId ), source.sourceAlg.validatedRowType, true, false, false )
-                            .enumerable( currentTargetStatement.getDataContext() )
-                            .iterator();
-                    //noinspection WhileLoopReplaceableByForEach
-                    while ( iterator.hasNext() ) {
-                        iterator.next();
+    /**
+     * Collects the unique constraints of a table, including its primary key. Existing keys are not loaded, every batch is
+     * checked against the store instead.
+     */
+    private List<UniqueKey> getUniqueKeys( Transaction transaction, LogicalTable table, Map<Long, Integer> columnIndexes ) {
+        LogicalRelSnapshot snapshot = transaction.getSnapshot().rel();
+        List<Pair<String, List<Long>>> constraints = new ArrayList<>();
+        constraints.add( Pair.of( "PRIMARY KEY", snapshot.getPrimaryKey( table.primaryKey ).orElseThrow().fieldIds ) );
+        for ( LogicalConstraint constraint : snapshot.getConstraints( table.id ) ) {
+            if ( constraint.type == ConstraintType.UNIQUE ) {
+                constraints.add( Pair.of( constraint.name, constraint.key.fieldIds ) );
+            }
+        }
+
+        List<UniqueKey> uniqueKeys = new ArrayList<>();
+        for ( Pair<String, List<Long>> constraint : constraints ) {
+            int[] indexes = constraint.right.stream().mapToInt( columnIndexes::get ).toArray();
+            if ( uniqueKeys.stream().noneMatch( k -> Arrays.equals( k.indexes(), indexes ) ) ) {
+                uniqueKeys.add( new UniqueKey( constraint.left, indexes ) );
+            }
+        }
+        return uniqueKeys;
+    }
+
+
+    /**
+     * A unique constraint of the loaded table.
+     *
+     * @param indexes The indexes of the key columns within a row of the table
+     */
+    private record UniqueKey( String name, int[] indexes ) {
+
+        /**
+         * Returns the key of a row or null if it contains null, since such keys are never equal to another key.
+         */
+        @Nullable
+        List<PolyValue> keyOf( PolyValue[] row ) {
+            List<PolyValue> key = new ArrayList<>( indexes.length );
+            for ( int index : indexes ) {
+                if ( row[index].isNull() ) {
+                    return null;
+                }
+                key.add( row[index] );
+            }
+            return key;
+        }
+
+
+        /**
+         * Checks that none of the keys of a batch is already used in the table. Rows of earlier batches are written by the
+         * same transaction and therefore also seen by this query.
+         */
+        void checkExisting( Transaction transaction, LogicalTable table, List<LogicalColumn> tableColumns, Collection<List<PolyValue[]>> batch ) {
+            Statement statement = transaction.createStatement();
+            AlgBuilder builder = AlgBuilder.create( statement );
+            RexBuilder rexBuilder = builder.getRexBuilder();
+            builder.relScan( table );
+            List<RexNode> conditions = new ArrayList<>();
+            for ( List<PolyValue[]> rows : batch ) {
+                for ( PolyValue[] row : rows ) {
+                    List<PolyValue> key = keyOf( row );
+                    if ( key == null ) {
+                        continue;
+                    }
+                    List<RexNode> equalities = new ArrayList<>( indexes.length );
+                    for ( int i = 0; i < indexes.length; i++ ) {
+                        AlgDataType type = AlgDataTypeFactory.DEFAULT.createTypeWithNullability( tableColumns.get( indexes[i] ).getAlgDataType( AlgDataTypeFactory.DEFAULT ), false );
+                        equalities.add( builder.equals( builder.field( indexes[i] ), rexBuilder.makeLiteral( key.get( i ), type ) ) );
                     }
-                    currentTargetStatement.getDataContext().resetParameterValues();
+                    conditions.add( builder.and( equalities ) );
                 }
-            } while ( result.hasMoreRows() );
-        } catch ( Throwable t ) {
-            throw new GenericRuntimeException( t );
+            }
+            if ( conditions.isEmpty() ) {
+                return;
+            }
+            builder.filter( builder.or( conditions ) );
+            builder.project( Arrays.stream( indexes ).mapToObj( builder::field ).toList() );
+            PolyImplementation implementation = statement.getQueryProcessor().prepareQuery( AlgRoot.of( builder.build(), Kind.SELECT ), false );
+            List<List<PolyValue>> existing = readBatch( implementation, statement, 1 );
+            if ( existing != null ) {
+                throw new GenericRuntimeException( "Key %s violates the unique constraint %s", existing.get( 0 ), name );
+            }
+        }
+
+    }
+
+
+    /**
+     * Validates the values of a row and completes them to a row of the table.
+     *
+     * @param valueIndexes For every column of the table the index of its value or -1 if the row has no value for it
+     * @param rowNumber Number of the row used in errors, starting at 1
+     */
+    private static PolyValue[] toTableRow( List<PolyValue> values, int valueCount, List<LogicalColumn> tableColumns, int[] valueIndexes, long rowNumber ) {
+        if ( values.size() != valueCount ) {
+            throw new GenericRuntimeException( "Row %s has %s values, but %s were expected", rowNumber, values.size(), valueCount );
+        }
+        PolyValue[] row = new PolyValue[tableColumns.size()];
+        for ( int i = 0; i < row.length; i++ ) {
+            LogicalColumn column = tableColumns.get( i );
+            PolyValue value;
+            if ( valueIndexes[i] >= 0 ) {
+                value = values.get( valueIndexes[i] );
+            } else {
+                value = column.defaultValue == null ? null : column.defaultValue.value;
+            }
+            if ( value == null || value.isNull() ) {
+                if ( !column.nullable ) {
+                    throw new GenericRuntimeException( "Row %s has no value for column %s, which is not nullable", rowNumber, column.name );
+                }
+                row[i] = PolyNull.NULL;
+                continue;
+            }
+            try {
+                value = PolyValue.convert( value, column.type );
+            } catch ( RuntimeException e ) {
+                throw new GenericRuntimeException( "Row %s has a value of type %s for column %s of type %s", e, rowNumber, value.type, column.name, column.type );
+            }
+            if ( column.length != null && value.isString() && column.type.getFamily() == PolyTypeFamily.CHARACTER && value.asString().value.length() > column.length ) {
+                throw new GenericRuntimeException( "Row %s has a value for column %s which is longer than %s characters", rowNumber, column.name, column.length );
+            }
+            row[i] = value;
+        }
+        return row;
+    }
+
+
+    private record BulkTarget( long adapterId, Statement statement, AlgRoot insert, List<AllocationColumn> columns ) {
+
+    }
+
+
+    /**
+     * Collects the adapters of the entities used by an algebra.
+     *
+     * @return The ids of the adapters, or null if the algebra uses entities which are not placed on an adapter yet
+     */
+    @Nullable
+    private static Set<Long> adaptersOf( AlgNode alg ) {
+        Set<Long> adapters = new HashSet<>();
+        Deque<AlgNode> nodes = new ArrayDeque<>( List.of( alg ) );
+        while ( !nodes.isEmpty() ) {
+            AlgNode node = nodes.pop();
+            Entity entity = node.getEntity();
+            if ( entity instanceof AllocationEntity allocation ) {
+                adapters.add( allocation.adapterId );
+            } else if ( entity instanceof PhysicalEntity physical ) {
+                adapters.add( physical.adapterId );
+            } else if ( entity != null ) {
+                return null;
+            }
+            nodes.addAll( node.getInputs() );
         }
+        return adapters;
     }
 
 
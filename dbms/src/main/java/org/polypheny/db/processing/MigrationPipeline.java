@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Runs the reading and the writing side of a data migration concurrently.
+ * Batches are read on a separate thread and handed to the writer through a bounded queue, which limits the memory
+ * used for batches that have been read but not yet written.
+ *
+ * All statements of a migration belong to one transaction, which holds a single connection or session per adapter.
+ * These are not thread-safe, therefore work on the same adapter is never run concurrently: reading and writing only
+ * overlap if they use different adapters, and the writes of one adapter are executed one after another.
+ */
+final class MigrationPipeline {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool( r -> {
+        Thread thread = new Thread( r, "DataMigrator" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    // Marks the end of the batches
+    private static final Object END = new Object();
+
+
+    private MigrationPipeline() {
+    }
+
+
+    /**
+     * Reads batches until the reader returns null and writes them on the calling thread.
+     * The reader runs on a separate thread if it uses none of the adapters of the writer.
+     *
+     * @param readAdapters Adapters used by the reader, null if they are not known
+     * @param writeAdapters Adapters used by the writer, null if they are not known
+     * @param reader Returns the next batch or null if there are no more batches
+     * @param writer Writes a batch
+     * @param <T> Type of a batch
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void run( @Nullable Set<Long> readAdapters, @Nullable Set<Long> writeAdapters, Supplier<T> reader, Consumer<T> writer ) {
+        if ( readAdapters == null || writeAdapters == null || !Collections.disjoint( readAdapters, writeAdapters ) ) {
+            T batch;
+            while ( (batch = reader.get()) != null ) {
+                writer.accept( batch );
+            }
+            return;
+        }
+
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>( Math.max( 1, RuntimeConfig.DATA_MIGRATOR_QUEUE_SIZE.getInteger() ) );
+        Future<?> readerFuture = EXECUTOR.submit( () -> {
+            try {
+                T batch;
+                while ( (batch = reader.get()) != null ) {
+                    queue.put( batch );
+                }
+            } finally {
+                queue.put( END );
+            }
+            return null;
+        } );
+
+        try {
+            Object batch;
+            while ( (batch = queue.take()) != END ) {
+                writer.accept( (T) batch );
+            }
+            readerFuture.get();
+        } catch ( InterruptedException e ) {
+            readerFuture.cancel( true );
+            Thread.currentThread().interrupt();
+            throw new GenericRuntimeException( "Data migration has been interrupted", e );
+        } catch ( ExecutionException e ) {
+            throw unwrap( e );
+        } catch ( RuntimeException e ) {
+            // Stop the reader, which might be blocked on the full queue
+            readerFuture.cancel( true );
+            throw e;
+        }
+    }
+
+
+    /**
+     * Executes the tasks of different adapters concurrently and the tasks of one adapter one after another,
+     * and waits until all of them are finished.
+     * If a task fails, the remaining tasks are cancelled and the failure is rethrown.
+     *
+     * @param tasks The tasks grouped by the adapter they use
+     */
+    static void runPerAdapter( Map<Long, List<Callable<Void>>> tasks ) {
+        List<Callable<Void>> lanes = new ArrayList<>();
+        for ( List<Callable<Void>> adapterTasks : tasks.values() ) {
+            lanes.add( () -> {
+                for ( Callable<Void> task : adapterTasks ) {
+                    task.call();
+                }
+                return null;
+            } );
+        }
+        runAll( lanes );
+    }
+
+
+    private static void runAll( List<Callable<Void>> tasks ) {
+        if ( tasks.isEmpty() ) {
+            return;
+        }
+        if ( tasks.size() == 1 ) {
+            try {
+                tasks.get( 0 ).call();
+                return;
+            } catch ( RuntimeException e ) {
+                throw e;
+            } catch ( Exception e ) {
+                throw new GenericRuntimeException( e );
+            }
+        }
+        List<Future<Void>> futures = tasks.stream().map( EXECUTOR::submit ).toList();
+        try {
+            for ( Future<Void> future : futures ) {
+                future.get();
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GenericRuntimeException( "Data migration has been interrupted", e );
+        } catch ( ExecutionException e ) {
+            throw unwrap( e );
+        } finally {
+            futures.forEach( f -> f.cancel( true ) );
+        }
+    }
+
+
+    private static RuntimeException unwrap( ExecutionException e ) {
+        return e.getCause() instanceof RuntimeException r ? r : new GenericRuntimeException( e.getCause() );
+    }
+
+}
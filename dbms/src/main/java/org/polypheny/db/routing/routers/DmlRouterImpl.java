@@ -69,6 +69,8 @@
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
 import org.polypheny.db.catalog.logistic.EntityType;
 import org.polypheny.db.catalog.snapshot.Snapshot;
+import org.polypheny.db.partition.PartitionAccessCounter;
+import org.polypheny.db.partition.PartitionChangeLog;
 import org.polypheny.db.partition.PartitionManager;
 import org.polypheny.db.partition.PartitionManagerFactory;
 import org.polypheny.db.partition.properties.PartitionProperty;
@@ -287,6 +289,8 @@ public AlgNode visit( LogicalRelFilter filter ) {
                         .updateAccessedPartitions(
                                 Collections.singletonMap( oTable.get().id, accessedPartitions ) );
             }
+            PartitionAccessCounter.INSTANCE.recordWrite( accessedPartitions );
+            PartitionChangeLog.INSTANCE.recordWrite( statement.getTransaction(), accessedPartitions );
 
             if ( !operationWasRewritten ) {
                 for ( long partitionId : accessedPartitions ) {
@@ -24,6 +24,7 @@
 import org.polypheny.db.catalog.entity.allocation.AllocationEntity;
 import org.polypheny.db.catalog.entity.allocation.AllocationPartition;
 import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.partition.PartitionChangeLog;
 import org.polypheny.db.routing.ColumnDistribution;
 import org.polypheny.db.routing.Router;
 import org.polypheny.db.routing.RoutingContext;
@@ -48,7 +49,7 @@ protected List<RoutedAlgBuilder> handleVerticalPartitioningOrReplication( AlgNod
         // Only one builder available
 
         List<Long> partitionIds = partitions.stream().map( p -> p.id ).toList();
-        ColumnDistribution columnDistribution = new ColumnDistribution( table.id, table.getColumnIds(), partitionIds, partitionIds, List.of(), context.getCluster().getSnapshot() );
+        ColumnDistribution columnDistribution = new ColumnDistribution( table.id, table.getColumnIds(), partitionIds, partitionIds, PartitionChangeLog.INSTANCE.getHiddenAllocations(), context.getCluster().getSnapshot() );
         context.fieldDistribution = columnDistribution;
         builders.get( 0 ).push( super.buildJoinedScan( columnDistribution, context ) );
 
@@ -78,7 +79,7 @@ protected List<RoutedAlgBuilder> handleHorizontalPartitioning( AlgNode node, Log
 
         // Only one builder available
         //builders.get( 0 ).addPhysicalInfo( placementDistribution );
-        ColumnDistribution columnDistribution = new ColumnDistribution( table.id, table.getColumnIds(), partitionIds, partitionIds, List.of(), Catalog.snapshot() );
+        ColumnDistribution columnDistribution = new ColumnDistribution( table.id, table.getColumnIds(), partitionIds, partitionIds, PartitionChangeLog.INSTANCE.getHiddenAllocations(), Catalog.snapshot() );
         context.fieldDistribution = columnDistribution;
         builders.get( 0 ).push( super.buildJoinedScan( columnDistribution, context ) );
 
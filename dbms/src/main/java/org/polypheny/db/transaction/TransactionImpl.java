@@ -20,16 +20,16 @@
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
@@ -104,14 +104,15 @@ public class TransactionImpl implements Transaction, Comparable<Object> {
 
     private final TransactionAnalyzer analyzer; // wraps the queryAnalyzer with this transaction context
 
-    private final List<Statement> statements = new ArrayList<>();
+    // Statements might be created and executed concurrently, e.g., by the DataMigrator
+    private final List<Statement> statements = Collections.synchronizedList( new ArrayList<>() );
 
 
     @Getter
-    private final Set<LogicalTable> usedTables = new TreeSet<>();
+    private final Set<LogicalTable> usedTables = new ConcurrentSkipListSet<>();
 
     @Getter
-    private final Map<Long, List<LogicalConstraint>> entityConstraints = new HashMap<>();
+    private final Map<Long, List<LogicalConstraint>> entityConstraints = new ConcurrentHashMap<>();
 
     @Getter
     private final Set<Adapter<?>> involvedAdapters = new ConcurrentSkipListSet<>( Comparator.comparingLong( a -> a.adapterId ) );
@@ -132,7 +133,7 @@ public class TransactionImpl implements Transaction, Comparable<Object> {
     private final Collection<ConstraintCondition> commitConstraints = new ConcurrentLinkedDeque<>();
 
     @Getter
-    private final Set<Lockable> lockedEntities = new HashSet<>();
+    private final Set<Lockable> lockedEntities = ConcurrentHashMap.newKeySet();
 
     private boolean releasePhase = false;
 
@@ -413,8 +414,7 @@ public void getNewEntityConstraints( long entity ) {
 
     @Override
     public void addNewConstraint( long entityId, LogicalConstraint constraint ) {
-        this.entityConstraints.putIfAbsent( entityId, new ArrayList<>() );
-        this.entityConstraints.get( entityId ).add( constraint );
+        this.entityConstraints.computeIfAbsent( entityId, k -> new CopyOnWriteArrayList<>() ).add( constraint );
     }
 
 
@@ -62,6 +62,10 @@
 import org.polypheny.db.catalog.IdBuilder;
 import org.polypheny.db.catalog.impl.PolyCatalog;
 import org.polypheny.db.functions.Functions;
+import org.polypheny.db.languages.LanguageManager;
+import org.polypheny.db.languages.QueryLanguage;
+import org.polypheny.db.processing.ImplementationContext;
+import org.polypheny.db.processing.QueryContext;
 import org.polypheny.db.processing.caching.ImplementationCache;
 import org.polypheny.db.processing.caching.QueryPlanCache;
 import org.polypheny.db.processing.caching.RoutingPlanCache;
@@ -77,6 +81,7 @@
 import org.polypheny.db.type.entity.numerical.PolyFloat;
 import org.polypheny.db.type.entity.numerical.PolyInteger;
 import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.Pair;
 import org.polypheny.db.util.RunMode;
 import org.polypheny.db.webui.HttpServer;
@@ -207,6 +212,12 @@ public static void addHsqldb( String name, Statement statement ) throws SQLExcep
     }
 
 
+    public static void addFile( String name, Statement statement ) throws SQLException {
+        executeSQL( statement, "ALTER ADAPTERS ADD \"" + name + "\" USING 'File' AS 'Store'"
+                + " WITH '{mode:embedded,layout:segments}'" );
+    }
+
+
     public static void addMongodb( String name, Statement statement ) throws SQLException {
         executeSQL( statement, """
                 ALTER ADAPTERS ADD "%s" USING 'mongodb' AS 'Store' WITH '{trxLifetimeLimit:"1209600",mode:docker,instanceId:"%s"}'""".formatted( name, 0 ) );
@@ -449,6 +460,76 @@ public void resetCaches() {
     }
 
 
+    /**
+     * Checks that the queries return the same rows with and without a feature of the execution. The queries are
+     * executed with the feature disabled first. The caches are reset before each run, since the configuration only
+     * applies to newly implemented plans.
+     *
+     * @param disable Disables the feature
+     * @param enable Enables the feature
+     * @param ignoreOrder Whether the rows may be returned in a different order
+     * @return The generated code of every query with the feature enabled, to check that the feature was used
+     */
+    public List<String> checkSameResultsWithFeature( Statement statement, List<String> queries, Runnable disable, Runnable enable, boolean ignoreOrder ) throws SQLException {
+        disable.run();
+        resetCaches();
+        List<List<Object[]>> expected = new ArrayList<>();
+        for ( String query : queries ) {
+            List<Object[]> rows = convertResultSetToList( statement.executeQuery( query ) );
+            expected.add( ignoreOrder ? orderResultList( rows ) : rows );
+        }
+
+        enable.run();
+        resetCaches();
+        List<String> code = new ArrayList<>();
+        for ( int i = 0; i < queries.size(); i++ ) {
+            List<Object[]> actual = convertResultSetToList( statement.executeQuery( queries.get( i ) ) );
+            actual = ignoreOrder ? orderResultList( actual ) : actual;
+            assertEquals( expected.get( i ).size(), actual.size(), queries.get( i ) );
+            for ( int j = 0; j < actual.size(); j++ ) {
+                assertEquals( Arrays.asList( expected.get( i ).get( j ) ), Arrays.asList( actual.get( j ) ), queries.get( i ) );
+            }
+            code.add( getGeneratedCode( queries.get( i ) ) );
+        }
+        return code;
+    }
+
+
+    /**
+     * Returns the code generated for the physical plan of the SQL query. If the query was executed before, this is
+     * the code of the cached implementation which was executed.
+     */
+    public String getGeneratedCode( String query ) {
+        Transaction transaction = getTransaction();
+        try {
+            QueryContext context = QueryContext.builder()
+                    .query( query )
+                    .language( QueryLanguage.from( "sql" ) )
+                    .namespaceId( Catalog.defaultNamespaceId )
+                    .transactionManager( transactionManager )
+                    .origin( "Test Helper" )
+                    .build();
+            List<ImplementationContext> implementations = LanguageManager.getINSTANCE().anyPrepareQuery( context, transaction );
+            ImplementationContext implementation = implementations.get( implementations.size() - 1 );
+            if ( implementation.getException().isPresent() ) {
+                throw new RuntimeException( implementation.getException().get() );
+            }
+            return implementation.getImplementation().getPreparedResult().getCode();
+        } finally {
+            transaction.commit();
+        }
+    }
+
+
+    /**
+     * Asserts whether the generated code calls the given method.
+     */
+    public static void assertCalls( boolean expected, String code, BuiltInMethod method, String message ) {
+        String call = method.method.getDeclaringClass().getSimpleName() + "." + method.method.getName() + "(";
+        assertEquals( expected, code.contains( call ), message );
+    }
+
+
     public void checkAllTrxClosed() {
         checkTrxStatus( 0 );
     }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter;
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+
+/**
+ * Checks that the operations pushed into the columnar store return the same results as if they were executed by the enumerable
+ * operators, including conditions which cannot be pushed down.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Tag("adapter")
+public class ColumnarStoreTest {
+
+    private static final int ROWS = 20;
+
+
+    @BeforeAll
+    public static void start() throws SQLException {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"columnartest\" USING 'Columnar' AS 'Store' WITH '{chunkSize:\"4\",snapshotInterval:\"EVERY_MINUTE\"}'" );
+                statement.executeUpdate( "CREATE TABLE columnar_test( id INTEGER NOT NULL, amount INTEGER, name VARCHAR(20), PRIMARY KEY (id) ) ON STORE columnartest" );
+                for ( int i = 0; i < ROWS; i++ ) {
+                    statement.executeUpdate( "INSERT INTO columnar_test VALUES (" + i + ", " + (i % 5 == 0 ? "NULL" : i * 10) + ", 'name" + i % 2 + "')" );
+                }
+            }
+        }
+    }
+
+
+    @AfterAll
+    public static void stop() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE IF EXISTS columnar_test" );
+                statement.executeUpdate( "ALTER ADAPTERS DROP columnartest" );
+            }
+        }
+    }
+
+
+    @Test
+    public void filterAndProject() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT name, id FROM columnar_test WHERE amount > 150 AND id <= 18" ),
+                        ImmutableList.of(
+                                new Object[]{ "name0", 16 },
+                                new Object[]{ "name1", 17 },
+                                new Object[]{ "name0", 18 } ),
+                        true );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM columnar_test WHERE amount IS NULL" ),
+                        ImmutableList.of( new Object[]{ 0 }, new Object[]{ 5 }, new Object[]{ 10 }, new Object[]{ 15 } ),
+                        true );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM columnar_test WHERE 30 >= amount" ),
+                        ImmutableList.of( new Object[]{ 1 }, new Object[]{ 2 }, new Object[]{ 3 } ),
+                        true );
+            }
+        }
+    }
+
+
+    @Test
+    public void unsupportedConditions() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // Neither arithmetic nor disjunctions are pushed down, they are evaluated after the scan
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, amount + 1 FROM columnar_test WHERE amount + 1 > 181" ),
+                        ImmutableList.of( new Object[]{ 19, 191 } ) );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM columnar_test WHERE id = 1 OR amount = 20" ),
+                        ImmutableList.of( new Object[]{ 1 }, new Object[]{ 2 } ),
+                        true );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM columnar_test WHERE name LIKE '%1' AND id < 4" ),
+                        ImmutableList.of( new Object[]{ 1 }, new Object[]{ 3 } ),
+                        true );
+            }
+        }
+    }
+
+
+    @Test
+    public void preparedFilter() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( PreparedStatement statement = connection.prepareStatement( "SELECT id FROM columnar_test WHERE amount < ? AND name = ?" ) ) {
+                statement.setInt( 1, 60 );
+                statement.setString( 2, "name1" );
+                TestHelper.checkResultSet(
+                        statement.executeQuery(),
+                        ImmutableList.of( new Object[]{ 1 }, new Object[]{ 3 } ),
+                        true );
+            }
+        }
+    }
+
+
+    @Test
+    public void aggregates() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // Answered from the zone maps
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT COUNT(*), COUNT(amount), MIN(amount), MAX(id) FROM columnar_test" ),
+                        ImmutableList.of( new Object[]{ 20L, 16L, 10, 19 } ) );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT name, SUM(amount), COUNT(*) FROM columnar_test WHERE id < 10 GROUP BY name" ),
+                        ImmutableList.of(
+                                new Object[]{ "name0", 200, 5L },
+                                new Object[]{ "name1", 200, 5L } ),
+                        true );
+            }
+        }
+    }
+
+
+    @Test
+    public void aggregatesSeeUncommittedChanges() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DELETE FROM columnar_test WHERE id = 19" );
+                statement.executeUpdate( "INSERT INTO columnar_test VALUES (100, 5, 'name0')" );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT COUNT(*), MIN(amount), MAX(id) FROM columnar_test" ),
+                        ImmutableList.of( new Object[]{ 20L, 5, 100 } ) );
+                connection.rollback();
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT COUNT(*), MIN(amount), MAX(id) FROM columnar_test" ),
+                        ImmutableList.of( new Object[]{ 20L, 10, 19 } ) );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter;
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+
+/**
+ * Checks batched modifications on a Neo4j store, which are unwound by Neo4j in chunks of the configured batch size.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Tag("adapter")
+@Tag("docker")
+public class Neo4jBatchTest {
+
+    private static final int ROWS = 10;
+
+
+    @BeforeAll
+    public static void start() throws SQLException {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // A batch size smaller than the batches below splits them into several chunks
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"neo4jbatch\" USING 'Neo4j' AS 'Store' WITH '{mode:docker,instanceId:\"0\",batchSize:\"3\"}'" );
+                statement.executeUpdate( "CREATE TABLE neo4j_batch_test( id INTEGER NOT NULL, amount INTEGER, name VARCHAR(20), PRIMARY KEY (id) ) ON STORE neo4jbatch" );
+            }
+        }
+    }
+
+
+    @AfterAll
+    public static void stop() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE IF EXISTS neo4j_batch_test" );
+                statement.executeUpdate( "ALTER ADAPTERS DROP neo4jbatch" );
+            }
+        }
+    }
+
+
+    @Test
+    public void batchedInsertUpdateDelete() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    try ( PreparedStatement insert = connection.prepareStatement( "INSERT INTO neo4j_batch_test VALUES (?, ?, ?)" ) ) {
+                        for ( int i = 0; i < ROWS; i++ ) {
+                            insert.setInt( 1, i );
+                            if ( i % 4 == 0 ) {
+                                insert.setNull( 2, Types.INTEGER );
+                            } else {
+                                insert.setInt( 2, i * 10 );
+                            }
+                            insert.setString( 3, "name" + i );
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                    }
+                    connection.commit();
+
+                    List<Object[]> expected = new ArrayList<>();
+                    for ( int i = 0; i < ROWS; i++ ) {
+                        expected.add( new Object[]{ i, i % 4 == 0 ? null : i * 10, "name" + i } );
+                    }
+                    TestHelper.checkResultSet( statement.executeQuery( "SELECT id, amount, name FROM neo4j_batch_test ORDER BY id" ), expected );
+
+                    try ( PreparedStatement update = connection.prepareStatement( "UPDATE neo4j_batch_test SET name = ? WHERE id = ?" ) ) {
+                        for ( int i = 1; i < ROWS; i += 2 ) {
+                            update.setString( 1, "odd" + i );
+                            update.setInt( 2, i );
+                            update.addBatch();
+                        }
+                        update.executeBatch();
+                    }
+                    connection.commit();
+
+                    try ( PreparedStatement delete = connection.prepareStatement( "DELETE FROM neo4j_batch_test WHERE id = ?" ) ) {
+                        for ( int i = 0; i < ROWS; i += 3 ) {
+                            delete.setInt( 1, i );
+                            delete.addBatch();
+                        }
+                        delete.executeBatch();
+                    }
+                    connection.commit();
+
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT id, amount, name FROM neo4j_batch_test ORDER BY id" ),
+                            ImmutableList.of(
+                                    new Object[]{ 1, 10, "odd1" },
+                                    new Object[]{ 2, 20, "name2" },
+                                    new Object[]{ 4, null, "name4" },
+                                    new Object[]{ 5, 50, "odd5" },
+                                    new Object[]{ 7, 70, "odd7" },
+                                    new Object[]{ 8, null, "name8" } ) );
+                } finally {
+                    statement.executeUpdate( "DELETE FROM neo4j_batch_test" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+}
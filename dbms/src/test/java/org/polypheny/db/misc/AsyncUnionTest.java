@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.util.BuiltInMethod;
+
+@SuppressWarnings({ "SqlNoDataSourceInspection", "SqlDialectInspection" })
+@Tag("adapter")
+public class AsyncUnionTest {
+
+    private static TestHelper helper;
+
+
+    @BeforeAll
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        helper = TestHelper.getInstance();
+    }
+
+
+    /**
+     * Two partitions are placed on each of two stores, so the scans of the partitions on the same store share its
+     * connection and have to be executed one after another, while the stores are read concurrently.
+     */
+    @Test
+    public void partitionsOnTwoStoresTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE asyncuniontest( id INTEGER NOT NULL, name VARCHAR(20), amount INTEGER, PRIMARY KEY (id) ) "
+                        + "PARTITION BY HASH (id) PARTITIONS 4" );
+                boolean asyncUnion = RuntimeConfig.ASYNC_UNION.getBoolean();
+                try {
+                    TestHelper.addHsqldb( "asyncunionstore", statement );
+                    statement.executeUpdate( "ALTER TABLE asyncuniontest ADD PLACEMENT ON STORE \"asyncunionstore\"" );
+                    statement.executeUpdate( "ALTER TABLE asyncuniontest MODIFY PARTITIONS (0, 1) ON STORE \"asyncunionstore\"" );
+                    statement.executeUpdate( "ALTER TABLE asyncuniontest MODIFY PARTITIONS (2, 3) ON STORE \"hsqldb\"" );
+
+                    StringBuilder insert = new StringBuilder( "INSERT INTO asyncuniontest VALUES " );
+                    for ( int i = -100; i < 400; i++ ) {
+                        insert.append( i == -100 ? "" : ", " ).append( "(" ).append( i ).append( ", " )
+                                .append( i % 7 == 0 ? "NULL" : "'name" + i + "'" ).append( ", " )
+                                .append( i % 5 == 0 ? "NULL" : String.valueOf( i * 3 ) ).append( ")" );
+                    }
+                    statement.executeUpdate( insert.toString() );
+
+                    List<String> queries = List.of(
+                            "SELECT * FROM asyncuniontest",
+                            "SELECT id, name FROM asyncuniontest WHERE amount IS NULL",
+                            "SELECT name FROM asyncuniontest UNION SELECT name FROM asyncuniontest WHERE id < 0",
+                            "SELECT COUNT(*), SUM(amount) FROM asyncuniontest" );
+                    // both sides of the distinct union read both stores, so their unions are read sequentially
+                    List<Boolean> async = List.of( true, true, false, true );
+
+                    assertEquals( 500, TestHelper.convertResultSetToList( statement.executeQuery( queries.get( 0 ) ) ).size() );
+                    List<String> code = helper.checkSameResultsWithFeature(
+                            statement,
+                            queries,
+                            () -> RuntimeConfig.ASYNC_UNION.setBoolean( false ),
+                            () -> RuntimeConfig.ASYNC_UNION.setBoolean( true ),
+                            true );
+                    for ( int i = 0; i < queries.size(); i++ ) {
+                        TestHelper.assertCalls( async.get( i ), code.get( i ), BuiltInMethod.PARALLEL_UNION, queries.get( i ) );
+                    }
+                } finally {
+                    RuntimeConfig.ASYNC_UNION.setBoolean( asyncUnion );
+                    helper.resetCaches();
+                    statement.executeUpdate( "DROP TABLE IF EXISTS asyncuniontest" );
+                    statement.executeUpdate( "ALTER ADAPTERS DROP \"asyncunionstore\"" );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * A join reads the partitions of a table on two stores and a second table on one of these stores. The scan of the
+     * second table runs on the consumer thread and shares the connection of its store with a lane of the union, so the
+     * union has to be read sequentially.
+     */
+    @Test
+    public void joinWithScanOnSameStoreTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE asyncunionjoin( id INTEGER NOT NULL, name VARCHAR(20), PRIMARY KEY (id) ) "
+                        + "PARTITION BY HASH (id) PARTITIONS 2" );
+                statement.executeUpdate( "CREATE TABLE asyncunionjoinother( id INTEGER NOT NULL, amount INTEGER, PRIMARY KEY (id) )" );
+                boolean asyncUnion = RuntimeConfig.ASYNC_UNION.getBoolean();
+                try {
+                    TestHelper.addHsqldb( "asyncunionjoinstore", statement );
+                    statement.executeUpdate( "ALTER TABLE asyncunionjoin ADD PLACEMENT ON STORE \"asyncunionjoinstore\"" );
+                    statement.executeUpdate( "ALTER TABLE asyncunionjoin MODIFY PARTITIONS (0) ON STORE \"asyncunionjoinstore\"" );
+                    statement.executeUpdate( "ALTER TABLE asyncunionjoin MODIFY PARTITIONS (1) ON STORE \"hsqldb\"" );
+
+                    StringBuilder insert = new StringBuilder( "INSERT INTO asyncunionjoin VALUES " );
+                    StringBuilder insertOther = new StringBuilder( "INSERT INTO asyncunionjoinother VALUES " );
+                    for ( int i = 0; i < 300; i++ ) {
+                        insert.append( i == 0 ? "" : ", " ).append( "(" ).append( i ).append( ", 'name" ).append( i ).append( "')" );
+                        insertOther.append( i == 0 ? "" : ", " ).append( "(" ).append( i ).append( ", " ).append( i * 3 ).append( ")" );
+                    }
+                    statement.executeUpdate( insert.toString() );
+                    statement.executeUpdate( insertOther.toString() );
+
+                    List<String> queries = List.of(
+                            "SELECT j.id, j.name, o.amount FROM asyncunionjoin j JOIN asyncunionjoinother o ON j.id = o.id",
+                            "SELECT o.id, o.amount FROM asyncunionjoinother o WHERE o.id IN (SELECT id FROM asyncunionjoin WHERE name <> 'name7')" );
+
+                    assertEquals( 300, TestHelper.convertResultSetToList( statement.executeQuery( queries.get( 0 ) ) ).size() );
+                    List<String> code = helper.checkSameResultsWithFeature(
+                            statement,
+                            queries,
+                            () -> RuntimeConfig.ASYNC_UNION.setBoolean( false ),
+                            () -> RuntimeConfig.ASYNC_UNION.setBoolean( true ),
+                            true );
+                    for ( int i = 0; i < queries.size(); i++ ) {
+                        TestHelper.assertCalls( false, code.get( i ), BuiltInMethod.PARALLEL_UNION, queries.get( i ) );
+                    }
+                } finally {
+                    RuntimeConfig.ASYNC_UNION.setBoolean( asyncUnion );
+                    helper.resetCaches();
+                    statement.executeUpdate( "DROP TABLE IF EXISTS asyncunionjoin" );
+                    statement.executeUpdate( "DROP TABLE IF EXISTS asyncunionjoinother" );
+                    statement.executeUpdate( "ALTER ADAPTERS DROP \"asyncunionjoinstore\"" );
+                }
+            }
+        }
+    }
+
+}
@@ -20,6 +20,7 @@
 
 import com.google.common.collect.ImmutableList;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import org.junit.jupiter.api.BeforeAll;
@@ -30,6 +31,7 @@
 import org.polypheny.db.TestHelper.JdbcConnection;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.config.RuntimeConfig;
 
 @SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
 @Tag("adapter")
@@ -285,4 +287,49 @@ public void threeStoresTest() throws SQLException {
         }
     }
 
+
+
+    @Test
+    public void smallBatchCopyTest() throws SQLException {
+        int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+        // Small batches copy the table in many pipelined batches
+        RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.setInteger( 5 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE datamigratortest( "
+                        + "tprimary INTEGER NOT NULL, "
+                        + "tinteger INTEGER NULL, "
+                        + "PRIMARY KEY (tprimary) )" );
+
+                try {
+                    long expectedSum = 0;
+                    for ( int i = -50; i < 150; i++ ) {
+                        statement.executeUpdate( "INSERT INTO datamigratortest VALUES (" + i + "," + (i * 2) + ")" );
+                        expectedSum += i * 2L;
+                    }
+
+                    statement.executeUpdate( "ALTER ADAPTERS ADD \"store1\" USING 'Hsqldb' AS 'Store'"
+                            + " WITH '{maxConnections:\"25\",trxControlMode:locks,trxIsolationLevel:read_committed,type:Memory,tableType:Memory,mode:embedded}'" );
+                    statement.executeUpdate( "ALTER TABLE \"datamigratortest\" ADD PLACEMENT ON STORE \"store1\"" );
+                    statement.executeUpdate( "ALTER TABLE \"datamigratortest\" DROP PLACEMENT ON STORE \"hsqldb\"" );
+                    connection.commit();
+
+                    // Every row has been copied exactly once
+                    try ( ResultSet rs = statement.executeQuery( "SELECT COUNT(*), COUNT(DISTINCT tprimary), SUM(tinteger) FROM datamigratortest" ) ) {
+                        rs.next();
+                        assertEquals( 200, rs.getLong( 1 ) );
+                        assertEquals( 200, rs.getLong( 2 ) );
+                        assertEquals( expectedSum, rs.getLong( 3 ) );
+                    }
+                } finally {
+                    statement.executeUpdate( "DROP TABLE datamigratortest" );
+                    statement.executeUpdate( "ALTER ADAPTERS DROP \"store1\"" );
+                }
+            }
+        } finally {
+            RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.setInteger( batchSize );
+        }
+    }
+
 }
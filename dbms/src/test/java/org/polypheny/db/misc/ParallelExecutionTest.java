@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.util.BuiltInMethod;
+
+@SuppressWarnings({ "SqlNoDataSourceInspection", "SqlDialectInspection" })
+@Tag("adapter")
+public class ParallelExecutionTest {
+
+    private static TestHelper helper;
+
+
+    @BeforeAll
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        helper = TestHelper.getInstance();
+    }
+
+
+    /**
+     * Filters and projections evaluated on chunks of the input in parallel have to return the same rows in the same order
+     * as the sequential execution, including rows with null values. The table is placed on a file store, which does not
+     * evaluate expressions itself.
+     */
+    @Test
+    public void sameResultsAsSequentialExecution() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.addFile( "parallelstore", statement );
+                boolean parallel = RuntimeConfig.PARALLEL_EXECUTION.getBoolean();
+                int parallelism = RuntimeConfig.PARALLELISM.getInteger();
+                int chunkSize = RuntimeConfig.PARALLEL_CHUNK_SIZE.getInteger();
+                try {
+                    statement.executeUpdate( "CREATE TABLE paralleltest( id INTEGER NOT NULL, name VARCHAR(20), amount INTEGER, price DOUBLE, PRIMARY KEY (id) ) ON STORE \"parallelstore\"" );
+                    StringBuilder insert = new StringBuilder( "INSERT INTO paralleltest VALUES " );
+                    for ( int i = 0; i < 500; i++ ) {
+                        insert.append( i == 0 ? "" : ", " ).append( "(" ).append( i ).append( ", " )
+                                .append( i % 7 == 0 ? "NULL" : "'name" + i % 4 + "'" ).append( ", " )
+                                .append( i % 5 == 0 ? "NULL" : String.valueOf( 250 - i ) ).append( ", " )
+                                .append( i % 3 == 0 ? "NULL" : String.valueOf( i / 8.0 ) ).append( ")" );
+                    }
+                    statement.executeUpdate( insert.toString() );
+
+                    // every query evaluates an expression, so it contains a calc which is executed in parallel
+                    List<String> queries = List.of(
+                            "SELECT id, amount * 2, price + 1 FROM paralleltest ORDER BY id",
+                            "SELECT id, name, amount - 1 FROM paralleltest WHERE amount > 0 OR name IS NULL ORDER BY amount DESC NULLS LAST, id",
+                            "SELECT id, COALESCE(name, 'none'), amount + price FROM paralleltest WHERE id <> 13 ORDER BY name NULLS FIRST, id DESC",
+                            "SELECT id, CASE WHEN amount IS NULL THEN price ELSE amount END FROM paralleltest WHERE price IS NULL ORDER BY 2, id",
+                            // the calc above the sort has to keep the order of its input
+                            "SELECT id, amount * 3, name FROM (SELECT * FROM paralleltest ORDER BY price DESC NULLS FIRST, id LIMIT 400) WHERE amount IS NOT NULL OR name IS NULL" );
+
+                    // a small chunk size splits the input into many more chunks than workers
+                    List<String> code = helper.checkSameResultsWithFeature(
+                            statement,
+                            queries,
+                            () -> RuntimeConfig.PARALLEL_EXECUTION.setBoolean( false ),
+                            () -> {
+                                RuntimeConfig.PARALLEL_EXECUTION.setBoolean( true );
+                                RuntimeConfig.PARALLELISM.setInteger( 4 );
+                                RuntimeConfig.PARALLEL_CHUNK_SIZE.setInteger( 7 );
+                            },
+                            false );
+                    for ( int i = 0; i < queries.size(); i++ ) {
+                        TestHelper.assertCalls( true, code.get( i ), BuiltInMethod.PARALLEL_MAP, queries.get( i ) );
+                    }
+                } finally {
+                    RuntimeConfig.PARALLEL_EXECUTION.setBoolean( parallel );
+                    RuntimeConfig.PARALLELISM.setInteger( parallelism );
+                    RuntimeConfig.PARALLEL_CHUNK_SIZE.setInteger( chunkSize );
+                    helper.resetCaches();
+                    statement.executeUpdate( "DROP TABLE IF EXISTS paralleltest" );
+                    TestHelper.dropAdapter( "parallelstore", statement );
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.util.BuiltInMethod;
+
+@SuppressWarnings({ "SqlNoDataSourceInspection", "SqlDialectInspection" })
+@Tag("adapter")
+public class VectorizedExecutionTest {
+
+    private static TestHelper helper;
+
+
+    @BeforeAll
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        helper = TestHelper.getInstance();
+    }
+
+
+    /**
+     * The vectorized aggregations, including the filters and projections evaluated on the column vectors, and joins have
+     * to return the same results as the row based operators. The table is placed on a file store, which does not
+     * execute aggregations and joins itself.
+     */
+    @Test
+    public void sameResultsAsRowBasedExecution() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.addFile( "vectorizedstore", statement );
+                boolean vectorized = RuntimeConfig.VECTORIZED_EXECUTION.getBoolean();
+                try {
+                    statement.executeUpdate( "CREATE TABLE vectorizedtest( id INTEGER NOT NULL, name VARCHAR(20), amount INTEGER, price DOUBLE, PRIMARY KEY (id) ) ON STORE \"vectorizedstore\"" );
+                    StringBuilder insert = new StringBuilder( "INSERT INTO vectorizedtest VALUES " );
+                    for ( int i = -100; i < 400; i++ ) {
+                        insert.append( i == -100 ? "" : ", " ).append( "(" ).append( i ).append( ", " )
+                                .append( i % 7 == 0 ? "NULL" : "'name" + i % 4 + "'" ).append( ", " )
+                                .append( i % 5 == 0 ? "NULL" : String.valueOf( i * 3 ) ).append( ", " )
+                                .append( i % 3 == 0 ? "NULL" : String.valueOf( i / 8.0 ) ).append( ")" );
+                    }
+                    statement.executeUpdate( insert.toString() );
+
+                    List<String> aggregations = List.of(
+                            "SELECT COUNT(*), COUNT(amount), SUM(amount), MIN(price), MAX(price) FROM vectorizedtest",
+                            "SELECT name, COUNT(*), SUM(amount), MAX(price) FROM vectorizedtest GROUP BY name",
+                            "SELECT name, SUM(amount) FROM vectorizedtest WHERE amount > 30 AND price <= 20 GROUP BY name",
+                            "SELECT name, COUNT(*) FROM vectorizedtest WHERE name <> 'name1' AND amount IS NOT NULL GROUP BY name",
+                            "SELECT amount, COUNT(*) FROM vectorizedtest WHERE 100 > id GROUP BY amount",
+                            "SELECT SUM(amount) FROM vectorizedtest WHERE id + 1 > 10 OR name = 'name2'" );
+                    List<String> joins = List.of(
+                            "SELECT a.id, b.name FROM vectorizedtest a JOIN vectorizedtest b ON a.amount = b.id" );
+
+                    List<String> code = helper.checkSameResultsWithFeature(
+                            statement,
+                            Stream.concat( aggregations.stream(), joins.stream() ).toList(),
+                            () -> RuntimeConfig.VECTORIZED_EXECUTION.setBoolean( false ),
+                            () -> RuntimeConfig.VECTORIZED_EXECUTION.setBoolean( true ),
+                            true );
+                    for ( int i = 0; i < aggregations.size(); i++ ) {
+                        TestHelper.assertCalls( true, code.get( i ), BuiltInMethod.VECTOR_HASH_AGGREGATE, aggregations.get( i ) );
+                    }
+                    for ( int i = 0; i < joins.size(); i++ ) {
+                        TestHelper.assertCalls( true, code.get( aggregations.size() + i ), BuiltInMethod.VECTOR_HASH_JOIN, joins.get( i ) );
+                    }
+                } finally {
+                    RuntimeConfig.VECTORIZED_EXECUTION.setBoolean( vectorized );
+                    helper.resetCaches();
+                    statement.executeUpdate( "DROP TABLE IF EXISTS vectorizedtest" );
+                    TestHelper.dropAdapter( "vectorizedstore", statement );
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.allocation.AllocationPartition;
+import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.catalog.logistic.Pattern;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.partition.OnlinePartitionMigration.State;
+import org.polypheny.db.partition.properties.TemperaturePartitionProperty;
+
+@SuppressWarnings({ "SqlNoDataSourceInspection", "SqlDialectInspection" })
+@Tag("adapter")
+public class OnlinePartitionMigrationTest {
+
+    private static final int INITIAL_ROWS = 200;
+
+
+    @BeforeAll
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void concurrentWritesDuringMigration() throws Exception {
+        int chunkDelay = RuntimeConfig.TEMPERATURE_MIGRATION_CHUNK_DELAY.getInteger();
+        boolean online = RuntimeConfig.TEMPERATURE_ONLINE_MIGRATION.getBoolean();
+        // Slows down the migration, the writes below have to overlap with it
+        RuntimeConfig.TEMPERATURE_MIGRATION_CHUNK_DELAY.setInteger( 50 );
+        RuntimeConfig.TEMPERATURE_ONLINE_MIGRATION.setBoolean( true );
+
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE onlinemigrationtest( "
+                        + "tprimary INTEGER NOT NULL, "
+                        + "tinteger INTEGER NULL, "
+                        + "tvarchar VARCHAR(20) NULL, "
+                        + "PRIMARY KEY (tprimary) )"
+                        + "PARTITION BY TEMPERATURE(tvarchar)"
+                        + "(PARTITION hot VALUES(12%),"
+                        + "PARTITION cold VALUES(14%))"
+                        + " USING FREQUENCY write INTERVAL 10 minutes WITH 20 HASH PARTITIONS" );
+                try {
+                    // The HOT partitions are placed on an additional store, moving partitions to HOT copies them to this store
+                    TestHelper.addHsqldb( "onlinehot", statement );
+                    statement.executeUpdate( "ALTER TABLE onlinemigrationtest MODIFY PARTITIONS (hot) ON STORE onlinehot" );
+
+                    for ( int i = 0; i < INITIAL_ROWS; i++ ) {
+                        statement.executeUpdate( "INSERT INTO onlinemigrationtest VALUES (" + i + ", 0, 'value" + i + "')" );
+                    }
+
+                    LogicalTable table = Catalog.snapshot().rel().getTables( null, new Pattern( "onlinemigrationtest" ) ).get( 0 );
+                    TemperaturePartitionProperty property = (TemperaturePartitionProperty) Catalog.snapshot().alloc().getPartitionProperty( table.id ).orElseThrow();
+                    List<Long> coldPartitions = Catalog.snapshot().alloc().getPartitionsFromGroup( property.getColdPartitionGroupId() ).stream().map( p -> p.id ).toList();
+
+                    AtomicBoolean migrating = new AtomicBoolean( true );
+                    Future<int[]> writes = executor.submit( () -> write( migrating ) );
+                    Future<Integer> reads = executor.submit( () -> read( migrating ) );
+
+                    FrequencyMapImpl frequencyMap = (FrequencyMapImpl) FrequencyMap.INSTANCE;
+                    frequencyMap.redistributePartitions( table, coldPartitions, List.of() );
+                    OnlinePartitionMigration migration = frequencyMap.getMigration( table.id ).orElseThrow();
+                    long timeout = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis( 2 );
+                    while ( migration.isRunning() && System.currentTimeMillis() < timeout ) {
+                        Thread.sleep( 50 );
+                    }
+                    migrating.set( false );
+
+                    assertEquals( State.FINISHED, migration.getState() );
+                    assertTrue( PartitionChangeLog.INSTANCE.getHiddenAllocations().isEmpty() );
+                    List<Long> hotPartitions = Catalog.snapshot().alloc().getPartitionsFromGroup( property.getHotPartitionGroupId() ).stream().map( p -> p.id ).toList();
+                    assertTrue( hotPartitions.containsAll( coldPartitions ) );
+
+                    int[] written = writes.get( 1, TimeUnit.MINUTES );
+                    // No read must see an incompletely copied partition
+                    assertEquals( 0, reads.get( 1, TimeUnit.MINUTES ) );
+
+                    // All writes, including those during the migration, have to be visible on the new store
+                    try ( ResultSet rs = statement.executeQuery( "SELECT COUNT(*), SUM(tinteger) FROM onlinemigrationtest" ) ) {
+                        assertTrue( rs.next() );
+                        assertEquals( INITIAL_ROWS + written[0], rs.getInt( 1 ) );
+                        assertEquals( written[1], rs.getInt( 2 ) );
+                    }
+                    for ( AllocationPartition partition : Catalog.snapshot().alloc().getPartitionsFromLogical( table.id ) ) {
+                        assertFalse( Catalog.snapshot().alloc().getAllocsOfPartitions( partition.id ).isEmpty() );
+                    }
+                } finally {
+                    statement.executeUpdate( "DROP TABLE IF EXISTS onlinemigrationtest" );
+                    statement.executeUpdate( "ALTER ADAPTERS DROP onlinehot" );
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            RuntimeConfig.TEMPERATURE_MIGRATION_CHUNK_DELAY.setInteger( chunkDelay );
+            RuntimeConfig.TEMPERATURE_ONLINE_MIGRATION.setBoolean( online );
+        }
+    }
+
+
+    /**
+     * Inserts new rows and increments the integer column of existing rows until the migration has finished.
+     *
+     * @return The number of inserted rows and the number of increments
+     */
+    private static int[] write( AtomicBoolean migrating ) throws SQLException {
+        int inserted = 0;
+        int updated = 0;
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ); Statement statement = polyphenyDbConnection.getConnection().createStatement() ) {
+            for ( int i = 0; migrating.get(); i++ ) {
+                try {
+                    statement.executeUpdate( "INSERT INTO onlinemigrationtest VALUES (" + (INITIAL_ROWS + inserted) + ", 0, 'new" + i + "')" );
+                    inserted++;
+                } catch ( SQLException e ) {
+                    // Aborted, e.g., to resolve a deadlock with the migration
+                }
+                try {
+                    statement.executeUpdate( "UPDATE onlinemigrationtest SET tinteger = tinteger + 1 WHERE tprimary = " + (i % INITIAL_ROWS) );
+                    updated++;
+                } catch ( SQLException e ) {
+                    // Aborted, e.g., to resolve a deadlock with the migration
+                }
+            }
+        }
+        return new int[]{ inserted, updated };
+    }
+
+
+    /**
+     * Counts the rows until the migration has finished. As rows are only inserted, the count must never decrease.
+     *
+     * @return The number of reads which have seen fewer rows than a previous read
+     */
+    private static int read( AtomicBoolean migrating ) throws SQLException {
+        int violations = 0;
+        int previous = INITIAL_ROWS;
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ); Statement statement = polyphenyDbConnection.getConnection().createStatement() ) {
+            while ( migrating.get() ) {
+                try ( ResultSet rs = statement.executeQuery( "SELECT COUNT(*) FROM onlinemigrationtest" ) ) {
+                    rs.next();
+                    int count = rs.getInt( 1 );
+                    if ( count < previous ) {
+                        violations++;
+                    }
+                    previous = Math.max( previous, count );
+                } catch ( SQLException e ) {
+                    // Aborted, e.g., to resolve a deadlock with the migration
+                }
+            }
+        }
+        return violations;
+    }
+
+}
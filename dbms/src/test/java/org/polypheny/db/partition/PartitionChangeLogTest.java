@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.transaction.MockTransaction;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.transaction.locking.Lockable.LockType;
+import org.polypheny.db.transaction.locking.LockableImpl;
+
+public class PartitionChangeLogTest {
+
+    private static final List<Long> PARTITIONS = List.of( 1L, 2L );
+
+    private PartitionChangeLog changeLog;
+    private LockableImpl table;
+    private final AtomicLong nextTransactionId = new AtomicLong();
+
+
+    @BeforeAll
+    public static void setUpClass() {
+        TestHelper.getInstance();
+    }
+
+
+    @BeforeEach
+    public void setup() {
+        changeLog = new PartitionChangeLog();
+        table = new LockableImpl( null );
+    }
+
+
+    @AfterEach
+    public void tearDown() {
+        changeLog.release( PARTITIONS );
+    }
+
+
+    private Transaction startWriter( long partitionId ) {
+        Transaction transaction = new MockTransaction( nextTransactionId.incrementAndGet() );
+        transaction.acquireLockable( table, LockType.EXCLUSIVE );
+        changeLog.recordWrite( transaction, List.of( partitionId ) );
+        return transaction;
+    }
+
+
+    @Test
+    public void writeIsCapturedOnCommit() throws Exception {
+        changeLog.capture( PARTITIONS );
+        Transaction writer = startWriter( 1 );
+        assertTrue( changeLog.release( List.of() ).isEmpty() );
+
+        writer.commit();
+        assertEquals( Set.of( 1L ), changeLog.release( PARTITIONS ) );
+    }
+
+
+    @Test
+    public void writeRoutedBeforeCaptureIsCaptured() throws Exception {
+        Transaction writer = startWriter( 2 );
+        changeLog.capture( PARTITIONS );
+
+        writer.commit();
+        assertEquals( Set.of( 2L ), changeLog.release( PARTITIONS ) );
+    }
+
+
+    @Test
+    public void writeCommittedBeforeCaptureIsNotCaptured() throws Exception {
+        startWriter( 1 ).commit();
+        changeLog.capture( PARTITIONS );
+
+        assertTrue( changeLog.release( PARTITIONS ).isEmpty() );
+    }
+
+
+    @Test
+    public void rolledBackWriteIsNotCaptured() throws Exception {
+        changeLog.capture( PARTITIONS );
+        startWriter( 1 ).rollback( null );
+
+        assertTrue( changeLog.release( PARTITIONS ).isEmpty() );
+    }
+
+
+    @Test
+    public void otherPartitionsAreNotCaptured() throws Exception {
+        changeLog.capture( List.of( 1L ) );
+        startWriter( 2 ).commit();
+
+        assertTrue( changeLog.release( PARTITIONS ).isEmpty() );
+    }
+
+
+    @Test
+    public void writesAreCapturedOnceTheCatchUpHoldsTheLock() throws Exception {
+        changeLog.capture( PARTITIONS );
+
+        // A writer which has been routed, but has not committed yet
+        CountDownLatch routed = new CountDownLatch( 1 );
+        CountDownLatch commit = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 5 );
+        Future<?> pending = executor.submit( () -> {
+            Transaction writer = startWriter( 2 );
+            routed.countDown();
+            commit.await();
+            writer.commit();
+            return null;
+        } );
+        assertTrue( routed.await( 10, TimeUnit.SECONDS ) );
+
+        AtomicInteger committedWrites = new AtomicInteger();
+        List<Future<?>> writers = new ArrayList<>();
+        for ( int i = 0; i < 4; i++ ) {
+            writers.add( executor.submit( () -> {
+                for ( int j = 0; j < 25; j++ ) {
+                    Transaction writer = startWriter( 1 );
+                    committedWrites.incrementAndGet();
+                    writer.commit();
+                }
+                return null;
+            } ) );
+        }
+
+        // Like the copy of a partition, the catch-up has to wait for all running writers
+        Transaction catchUp = new MockTransaction( nextTransactionId.incrementAndGet() );
+        Future<Set<Long>> modified = executor.submit( () -> {
+            catchUp.acquireLockable( table, LockType.EXCLUSIVE );
+            return changeLog.release( PARTITIONS );
+        } );
+        commit.countDown();
+        pending.get( 10, TimeUnit.SECONDS );
+
+        Set<Long> captured = new HashSet<>( modified.get( 10, TimeUnit.SECONDS ) );
+        int writesBeforeCatchUp = committedWrites.get();
+        catchUp.commit();
+        for ( Future<?> writer : writers ) {
+            writer.get( 10, TimeUnit.SECONDS );
+        }
+        executor.shutdown();
+
+        assertTrue( captured.contains( 2L ) );
+        assertEquals( writesBeforeCatchUp > 0, captured.contains( 1L ) );
+    }
+
+
+    @Test
+    public void hiddenAllocations() {
+        assertTrue( changeLog.getHiddenAllocations().isEmpty() );
+
+        changeLog.hide( List.of( 10L, 11L ) );
+        assertEquals( Set.of( 10L, 11L ), Set.copyOf( changeLog.getHiddenAllocations() ) );
+
+        changeLog.reveal( List.of( 10L ) );
+        assertEquals( List.of( 11L ), changeLog.getHiddenAllocations() );
+
+        changeLog.reveal( List.of( 11L ) );
+        assertTrue( changeLog.getHiddenAllocations().isEmpty() );
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+
+
+public class MigrationPipelineTest {
+
+    @Test
+    public void readsOnWriterThreadIfAdaptersOverlap() {
+        Thread caller = Thread.currentThread();
+        List<Thread> readers = Collections.synchronizedList( new ArrayList<>() );
+        List<Integer> written = new ArrayList<>();
+        AtomicInteger next = new AtomicInteger();
+
+        MigrationPipeline.run( Set.of( 1L ), Set.of( 1L, 2L ), () -> {
+            readers.add( Thread.currentThread() );
+            int batch = next.getAndIncrement();
+            return batch < 5 ? batch : null;
+        }, written::add );
+
+        assertEquals( List.of( 0, 1, 2, 3, 4 ), written );
+        readers.forEach( reader -> assertEquals( caller, reader ) );
+    }
+
+
+    @Test
+    public void readsConcurrentlyIfAdaptersAreDisjoint() {
+        Thread caller = Thread.currentThread();
+        List<Thread> readers = Collections.synchronizedList( new ArrayList<>() );
+        List<Integer> written = new ArrayList<>();
+        AtomicInteger next = new AtomicInteger();
+
+        MigrationPipeline.run( Set.of( 1L ), Set.of( 2L ), () -> {
+            readers.add( Thread.currentThread() );
+            int batch = next.getAndIncrement();
+            return batch < 5 ? batch : null;
+        }, written::add );
+
+        assertEquals( List.of( 0, 1, 2, 3, 4 ), written );
+        readers.forEach( reader -> assertNotEquals( caller, reader ) );
+    }
+
+
+    @Test
+    public void unknownAdaptersAreNotPipelined() {
+        Thread caller = Thread.currentThread();
+        AtomicInteger next = new AtomicInteger();
+        MigrationPipeline.run( null, Set.of( 2L ), () -> {
+            assertEquals( caller, Thread.currentThread() );
+            return next.getAndIncrement() < 3 ? 1 : null;
+        }, batch -> {
+        } );
+        assertEquals( 4, next.get() );
+    }
+
+
+    @Test
+    public void writesOfOneAdapterDoNotOverlap() {
+        Map<Long, List<Callable<Void>>> tasks = new HashMap<>();
+        Map<Long, AtomicBoolean> running = Map.of( 1L, new AtomicBoolean(), 2L, new AtomicBoolean() );
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicInteger executed = new AtomicInteger();
+        for ( long adapterId : running.keySet() ) {
+            for ( int i = 0; i < 20; i++ ) {
+                tasks.computeIfAbsent( adapterId, id -> new ArrayList<>() ).add( () -> {
+                    if ( !running.get( adapterId ).compareAndSet( false, true ) ) {
+                        overlapped.set( true );
+                    }
+                    Thread.sleep( 1 );
+                    running.get( adapterId ).set( false );
+                    executed.incrementAndGet();
+                    return null;
+                } );
+            }
+        }
+
+        MigrationPipeline.runPerAdapter( tasks );
+
+        assertEquals( 40, executed.get() );
+        assertFalse( overlapped.get() );
+    }
+
+
+    @Test
+    public void failedWriteIsRethrown() {
+        Map<Long, List<Callable<Void>>> tasks = Map.of(
+                1L, List.of( () -> null ),
+                2L, List.of( () -> {
+                    throw new GenericRuntimeException( "write failed" );
+                } ) );
+        GenericRuntimeException e = assertThrows( GenericRuntimeException.class, () -> MigrationPipeline.runPerAdapter( tasks ) );
+        assertEquals( "write failed", e.getMessage() );
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.sql;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Tag("adapter")
+public class CopyTest {
+
+    private static final String CREATE_TABLE = "CREATE TABLE copy_test( id INTEGER NOT NULL, name VARCHAR(20), amount DOUBLE, PRIMARY KEY (id))";
+
+    private static Path directory;
+
+
+    @BeforeAll
+    public static void start() throws IOException {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+        directory = Files.createTempDirectory( "copy" );
+        RuntimeConfig.COPY_DIRECTORY.setString( directory.toString() );
+    }
+
+
+    @AfterAll
+    public static void stop() throws IOException {
+        RuntimeConfig.COPY_DIRECTORY.setString( "" );
+        try ( Stream<Path> files = Files.walk( directory ) ) {
+            for ( Path file : files.sorted( Comparator.reverseOrder() ).toList() ) {
+                Files.delete( file );
+            }
+        }
+    }
+
+
+    @Test
+    public void copyTest() throws Exception {
+        write( "rows.csv", "name,id,amount\nHans,1,2.5\n\"Smith, \"\"John\"\"\",2,\n,3,-1\n" );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    statement.executeUpdate( CREATE_TABLE );
+                    statement.executeUpdate( "COPY copy_test FROM 'rows.csv'" );
+
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT id, name, amount FROM copy_test ORDER BY id" ),
+                            ImmutableList.of(
+                                    new Object[]{ 1, "Hans", 2.5 },
+                                    new Object[]{ 2, "Smith, \"John\"", null },
+                                    new Object[]{ 3, null, -1.0 } ) );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE IF EXISTS copy_test" );
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void copyPartitionedTest() throws Exception {
+        StringBuilder rows = new StringBuilder( "id,name\n" );
+        for ( int i = -20; i < 80; i++ ) {
+            rows.append( i ).append( ",name" ).append( i ).append( '\n' );
+        }
+        write( "partitioned.csv", rows.toString() );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    statement.executeUpdate( CREATE_TABLE + " PARTITION BY HASH (id) PARTITIONS 3" );
+                    statement.executeUpdate( "COPY copy_test FROM 'partitioned.csv'" );
+
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT COUNT(*), SUM(id) FROM copy_test" ),
+                            ImmutableList.of( new Object[]{ 100L, 2950L } ) );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT name FROM copy_test WHERE id = -7" ),
+                            ImmutableList.of( new Object[]{ "name-7" } ) );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE IF EXISTS copy_test" );
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void rejectedRowTest() throws Exception {
+        write( "invalid.csv", "id,name\n1,\"multi\nline\"\n2,b\nx,c\n" );
+        write( "missing.csv", "id,name\n1,a\n2\n" );
+        write( "notNull.csv", "name\na\n" );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    statement.executeUpdate( CREATE_TABLE );
+
+                    // the quoted value spans two lines, so the invalid row is in line 5
+                    SQLException e = assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'invalid.csv'" ) );
+                    assertTrue( e.getMessage().contains( "Line 5" ), e.getMessage() );
+                    e = assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'missing.csv'" ) );
+                    assertTrue( e.getMessage().contains( "Line 3" ), e.getMessage() );
+                    assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'notNull.csv'" ) );
+
+                    // rejected rows abort the whole load
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT COUNT(*) FROM copy_test" ),
+                            ImmutableList.of( new Object[]{ 0L } ) );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE IF EXISTS copy_test" );
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void uniqueConstraintTest() throws Exception {
+        write( "unique.csv", "id,name\n2,b\n3,c\n" );
+        write( "duplicate.csv", "id,name\n4,d\n4,e\n" );
+        write( "batches.csv", "id,name\n6,f\n7,g\n8,h\n6,i\n" );
+        boolean enforcement = RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.getBoolean();
+        int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    statement.executeUpdate( CREATE_TABLE );
+                    statement.executeUpdate( "ALTER TABLE copy_test ADD CONSTRAINT copy_unique UNIQUE (name)" );
+                    statement.executeUpdate( "INSERT INTO copy_test (id, name) VALUES (1, 'a'), (5, 'c')" );
+                    RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.setBoolean( true );
+
+                    SQLException e = assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'unique.csv'" ) );
+                    assertTrue( e.getMessage().contains( "COPY_UNIQUE" ) || e.getMessage().contains( "copy_unique" ), e.getMessage() );
+                    e = assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'duplicate.csv'" ) );
+                    assertTrue( e.getMessage().contains( "PRIMARY KEY" ), e.getMessage() );
+
+                    // the duplicate is in a later batch than the first row, so it is found by the store
+                    RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.setInteger( 2 );
+                    e = assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'batches.csv'" ) );
+                    assertTrue( e.getMessage().contains( "PRIMARY KEY" ), e.getMessage() );
+                    RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.setInteger( batchSize );
+
+                    statement.executeUpdate( "DELETE FROM copy_test WHERE id = 5" );
+                    statement.executeUpdate( "COPY copy_test FROM 'unique.csv'" );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT id, name FROM copy_test ORDER BY id" ),
+                            ImmutableList.of(
+                                    new Object[]{ 1, "a" },
+                                    new Object[]{ 2, "b" },
+                                    new Object[]{ 3, "c" } ) );
+                } finally {
+                    RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.setBoolean( enforcement );
+                    RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.setInteger( batchSize );
+                    statement.executeUpdate( "DROP TABLE IF EXISTS copy_test" );
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void restrictedDirectoryTest() throws Exception {
+        Path outside = Files.createTempFile( "outside", ".csv" );
+        Files.writeString( outside, "id\n1\n", StandardCharsets.UTF_8 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    statement.executeUpdate( CREATE_TABLE );
+                    assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM '" + outside.toAbsolutePath() + "'" ) );
+                    assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM '../" + outside.getFileName() + "'" ) );
+
+                    RuntimeConfig.COPY_DIRECTORY.setString( "" );
+                    write( "allowed.csv", "id\n1\n" );
+                    assertThrows( SQLException.class, () -> statement.executeUpdate( "COPY copy_test FROM 'allowed.csv'" ) );
+                } finally {
+                    RuntimeConfig.COPY_DIRECTORY.setString( directory.toString() );
+                    Files.delete( outside );
+                    statement.executeUpdate( "DROP TABLE IF EXISTS copy_test" );
+                }
+            }
+        }
+    }
+
+
+    private static void write( String name, String content ) throws IOException {
+        Files.writeString( directory.resolve( name ), content, StandardCharsets.UTF_8 );
+    }
+
+}
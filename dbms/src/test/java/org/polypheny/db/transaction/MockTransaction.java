@@ -16,6 +16,7 @@
 
 package org.polypheny.db.transaction;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -43,6 +44,8 @@ public class MockTransaction implements Transaction {
 
     private Set<Lockable> locks;
 
+    private final List<Runnable> commitActions = new ArrayList<>();
+
     private boolean committed = false;
 
     @Getter
@@ -81,6 +84,7 @@ public LogicalUser getUser() {
 
     @Override
     public void attachCommitAction( Runnable action ) {
+        commitActions.add( action );
     }
 
 
@@ -91,6 +95,7 @@ public void attachCommitConstraint( Supplier<Boolean> constraintChecker, String
 
     @Override
     public void commit() throws TransactionException {
+        commitActions.forEach( Runnable::run );
         releaseAllLocks();
         committed = true;
     }
@@ -17,43 +17,60 @@
 package org.polypheny.db.monitoring.core;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import lombok.Getter;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
 import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.monitoring.events.DmlEvent;
 import org.polypheny.db.monitoring.events.MonitoringDataPoint;
 import org.polypheny.db.monitoring.events.MonitoringEvent;
+import org.polypheny.db.monitoring.events.MonitoringType;
+import org.polypheny.db.monitoring.events.QueryEvent;
+import org.polypheny.db.monitoring.events.analyzer.DmlEventAnalyzer;
+import org.polypheny.db.monitoring.events.analyzer.QueryEventAnalyzer;
 import org.polypheny.db.monitoring.repository.MonitoringRepository;
 import org.polypheny.db.monitoring.repository.PersistentMonitoringRepository;
 
 
 /**
- * MonitoringQueue implementation which stores the monitoring jobs in a concurrent queue and processes them with a
- * background worker task.
+ * MonitoringQueue implementation which stores the monitoring jobs in a lock-free ring buffer. A fixed number of
+ * background workers drain the buffer and process the events in batches.
+ * <p>
+ * Queueing an event never blocks the statement that produced it: query events can be sampled per
+ * {@link MonitoringType}, and they are dropped if the buffer is full. Both cases are counted. All other events, e.g. the
+ * DML and DDL events from which the statistics derive the row counts, are never sampled or dropped. If the buffer is full,
+ * they are kept in an unbounded overflow queue instead.
  */
 @Slf4j
 public class MonitoringQueueImpl implements MonitoringQueue {
 
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos( 50 );
+
     private final PersistentMonitoringRepository persistentRepository;
     private final MonitoringRepository statisticRepository;
-    private MonitoringThreadPoolExecutor threadPoolWorkers;
 
-    private final BlockingQueue<Runnable> eventQueue = new LinkedBlockingQueue<>();
+    private final MonitoringRingBuffer<MonitoringEvent> eventQueue;
+    private final Queue<MonitoringEvent> overflowQueue = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private volatile Map<MonitoringType, Double> samplingRates;
 
-    private final int CORE_POOL_SIZE;
-    private final int MAXIMUM_POOL_SIZE;
-    private final int KEEP_ALIVE_TIME;
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder sampledOutCount = new LongAdder();
 
-    private boolean backgroundProcessingActive;
-    private int threadCount;
+    private final boolean backgroundProcessingActive;
+    private final List<Thread> workers = new ArrayList<>();
 
 
     /**
@@ -69,48 +86,36 @@ public MonitoringQueueImpl(
         this.statisticRepository = statisticRepository;
         this.backgroundProcessingActive = backgroundProcessingActive;
 
-        this.CORE_POOL_SIZE = RuntimeConfig.MONITORING_CORE_POOL_SIZE.getInteger();
-        this.MAXIMUM_POOL_SIZE = RuntimeConfig.MONITORING_MAXIMUM_POOL_SIZE.getInteger();
-        this.KEEP_ALIVE_TIME = RuntimeConfig.MONITORING_POOL_KEEP_ALIVE_TIME.getInteger();
+        this.eventQueue = new MonitoringRingBuffer<>( RuntimeConfig.MONITORING_QUEUE_CAPACITY.getInteger() );
+        this.batchSize = Math.max( RuntimeConfig.MONITORING_BATCH_SIZE.getInteger(), 1 );
+        this.samplingRates = parseSamplingRates( RuntimeConfig.MONITORING_SAMPLING_RATES.getString() );
+        RuntimeConfig.MONITORING_SAMPLING_RATES.addObserver( new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                samplingRates = parseSamplingRates( c.getString() );
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+            }
+        } );
 
         if ( !this.backgroundProcessingActive ) {
-            threadPoolWorkers = new MonitoringThreadPoolExecutor(
-                    CORE_POOL_SIZE,
-                    MAXIMUM_POOL_SIZE,
-                    KEEP_ALIVE_TIME,
-                    TimeUnit.SECONDS,
-                    eventQueue );
             return;
         }
 
-        RuntimeConfig.MONITORING_CORE_POOL_SIZE.setRequiresRestart( true );
-        RuntimeConfig.MONITORING_MAXIMUM_POOL_SIZE.setRequiresRestart( true );
-        RuntimeConfig.MONITORING_POOL_KEEP_ALIVE_TIME.setRequiresRestart( true );
+        RuntimeConfig.MONITORING_WORKER_COUNT.setRequiresRestart( true );
+        RuntimeConfig.MONITORING_QUEUE_CAPACITY.setRequiresRestart( true );
+        RuntimeConfig.MONITORING_BATCH_SIZE.setRequiresRestart( true );
 
-        threadPoolWorkers = new MonitoringThreadPoolExecutor(
-                CORE_POOL_SIZE,
-                MAXIMUM_POOL_SIZE,
-                KEEP_ALIVE_TIME,
-                TimeUnit.SECONDS,
-                eventQueue );
-
-        // Instantiated thread count
-        this.threadCount = threadPoolWorkers.getPoolSize();
-
-        // Create a scheduled, separate thread which gets new thread count every 500 milliseconds
-        Timer timer = new Timer();
-        timer.scheduleAtFixedRate( new TimerTask() {
-            @Override
-            public synchronized void run() {
-                int newThreadCount = threadPoolWorkers.getPoolSize();
-                if ( newThreadCount != threadCount ) {
-                    threadCount = newThreadCount;
-                    if ( log.isDebugEnabled() ) {
-                        log.debug( "Thread count is now: {}", threadCount );
-                    }
-                }
-            }
-        }, 500, 500 );
+        int workerCount = Math.max( RuntimeConfig.MONITORING_WORKER_COUNT.getInteger(), 1 );
+        for ( int i = 0; i < workerCount; i++ ) {
+            Thread worker = new Thread( new MonitoringWorker(), "MonitoringWorker-" + i );
+            worker.setDaemon( true );
+            worker.start();
+            workers.add( worker );
+        }
     }
 
 
@@ -125,12 +130,32 @@ public MonitoringQueueImpl(
 
 
     @Override
-    public synchronized void queueEvent( @NonNull MonitoringEvent event ) {
-        if ( backgroundProcessingActive ) {
-            threadPoolWorkers.execute( new MonitoringWorker( event ) );
-        } else {
-            eventQueue.add( new MonitoringWorker( event ) );
+    public void queueEvent( @NonNull MonitoringEvent event ) {
+        boolean sheddable = event instanceof QueryEvent;
+        if ( sheddable && !isSampled( (QueryEvent) event ) ) {
+            sampledOutCount.increment();
+            return;
         }
+        // Once events overflowed, later events are appended to them to keep their order
+        if ( (!sheddable && !overflowQueue.isEmpty()) || !eventQueue.offer( event ) ) {
+            if ( sheddable ) {
+                droppedCount.increment();
+                return;
+            }
+            overflowQueue.add( event );
+        }
+        if ( backgroundProcessingActive && getNumberOfElementsInQueue() >= batchSize ) {
+            workers.forEach( LockSupport::unpark ); // do not wait for the idle timeout if there is enough work
+        }
+    }
+
+
+    private boolean isSampled( QueryEvent event ) {
+        if ( event.getMonitoringType() == null ) {
+            return true;
+        }
+        Double rate = samplingRates.get( event.getMonitoringType() );
+        return rate == null || ThreadLocalRandom.current().nextDouble() < rate;
     }
 
 
@@ -140,24 +165,18 @@ public synchronized void queueEvent( @NonNull MonitoringEvent event ) {
      * @return Current number of elements in Queue
      */
     @Override
-    public synchronized long getNumberOfElementsInQueue() {
-        return threadPoolWorkers.getQueue().size();
+    public long getNumberOfElementsInQueue() {
+        return eventQueue.size() + overflowQueue.size();
     }
 
 
     @Override
-    public synchronized List<HashMap<String, String>> getInformationOnElementsInQueue() {
+    public List<HashMap<String, String>> getInformationOnElementsInQueue() {
         List<HashMap<String, String>> infoList = new ArrayList<>();
-        List<MonitoringEvent> queueElements = new ArrayList<>();
 
-        threadPoolWorkers.getQueue().stream().limit( 100 ).toList()
-                .forEach(
-                        task -> queueElements.add(
-                                ((MonitoringWorker) task).getEvent()
-                        )
-                );
-
-        for ( MonitoringEvent event : queueElements ) {
+        List<MonitoringEvent> events = new ArrayList<>( eventQueue.peek( 100 ) );
+        overflowQueue.stream().limit( 100 - events.size() ).forEach( events::add );
+        for ( MonitoringEvent event : events ) {
             HashMap<String, String> infoRow = new HashMap<>();
             infoRow.put( "type", event.getClass().toString() );
             infoRow.put( "id", event.getId().toString() );
@@ -171,93 +190,105 @@ public synchronized List<HashMap<String, String>> getInformationOnElementsInQueu
 
     @Override
     public long getNumberOfProcessedEvents() {
-        return threadPoolWorkers.getCompletedTaskCount();
+        return processedCount.sum();
     }
 
 
-    /**
-     * Overrides beforeExecute and afterExecute of ThreadPoolExecutor to check the number of threads
-     * and logs new thread count if there is a change.
-     */
-    static class MonitoringThreadPoolExecutor extends ThreadPoolExecutor {
-
-
-        private int threadCount;
-
+    @Override
+    public long getNumberOfDroppedEvents() {
+        return droppedCount.sum();
+    }
 
-        public MonitoringThreadPoolExecutor(
-                int corePoolSize,
-                int maximumPoolSize,
-                long keepAliveTime,
-                TimeUnit unit,
-                BlockingQueue<Runnable> workQueue ) {
-            super( corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue );
-            this.threadCount = this.getPoolSize();
-        }
 
+    @Override
+    public long getNumberOfSampledOutEvents() {
+        return sampledOutCount.sum();
+    }
 
-        @Override
-        protected void beforeExecute( Thread t, Runnable r ) {
-            if ( this.threadCount != this.getPoolSize() ) {
-                this.threadCount = this.getPoolSize();
-                if ( log.isDebugEnabled() ) {
-                    log.debug( "Thread count for monitoring queue: {}", this.threadCount );
-                }
-            }
 
-            super.beforeExecute( t, r );
+    /**
+     * Parses sampling rates of the form {@code SELECT=0.1,UNION=0.5}. Invalid entries are ignored. Rates of types which
+     * are not queries have no effect, as only query events are sampled.
+     */
+    static Map<MonitoringType, Double> parseSamplingRates( String rates ) {
+        Map<MonitoringType, Double> result = new EnumMap<>( MonitoringType.class );
+        if ( rates == null || rates.isBlank() ) {
+            return result;
         }
-
-
-        @Override
-        protected void afterExecute( Runnable r, Throwable t ) {
-            super.afterExecute( r, t );
-
-            if ( this.threadCount != this.getPoolSize() ) {
-                this.threadCount = this.getPoolSize();
-                if ( log.isDebugEnabled() ) {
-                    log.debug( "Thread count for monitoring queue: {}", this.threadCount );
+        for ( String entry : rates.split( "," ) ) {
+            String[] parts = entry.split( "=" );
+            try {
+                if ( parts.length != 2 ) {
+                    throw new IllegalArgumentException( "Expected TYPE=RATE" );
                 }
+                double rate = Double.parseDouble( parts[1].trim() );
+                result.put( MonitoringType.valueOf( parts[0].trim().toUpperCase() ), Math.min( Math.max( rate, 0 ), 1 ) );
+            } catch ( IllegalArgumentException e ) {
+                log.warn( "Ignoring invalid monitoring sampling rate: {}", entry );
             }
         }
-
+        return result;
     }
 
 
-    @Getter
+    /**
+     * Background worker which drains the ring buffer and then the overflow queue in batches.
+     * If the buffer is empty, the worker parks with an exponential backoff.
+     */
     class MonitoringWorker implements Runnable {
 
-        private final MonitoringEvent event;
-
-
-        public MonitoringWorker( MonitoringEvent event ) {
-            this.event = event;
-        }
-
-
         @Override
         public void run() {
-            processQueue();
+            List<MonitoringEvent> batch = new ArrayList<>( batchSize );
+            long idleNanos = 1000;
+            while ( !Thread.currentThread().isInterrupted() ) {
+                eventQueue.drainTo( batch, batchSize );
+                MonitoringEvent overflow;
+                while ( batch.size() < batchSize && (overflow = overflowQueue.poll()) != null ) {
+                    batch.add( overflow );
+                }
+                if ( batch.isEmpty() ) {
+                    LockSupport.parkNanos( idleNanos );
+                    idleNanos = Math.min( idleNanos * 2, MAX_IDLE_NANOS );
+                    continue;
+                }
+                idleNanos = 1000;
+                try {
+                    processBatch( batch );
+                } catch ( Exception e ) {
+                    log.error( "An error occurred while processing monitoring events", e );
+                }
+                processedCount.add( batch.size() );
+                batch.clear();
+            }
         }
 
 
-        private void processQueue() {
-            if ( event != null ) {
-                if ( log.isDebugEnabled() ) {
-                    log.debug( "get new monitoring job {}", event.getId().toString() );
+        private void processBatch( List<MonitoringEvent> batch ) {
+            if ( log.isDebugEnabled() ) {
+                log.debug( "process batch of {} monitoring events", batch.size() );
+            }
+            List<QueryEvent> queryEvents = new ArrayList<>();
+            List<DmlEvent> dmlEvents = new ArrayList<>();
+            List<MonitoringDataPoint> dataPoints = new ArrayList<>( batch.size() );
+            for ( MonitoringEvent event : batch ) {
+                if ( event instanceof QueryEvent queryEvent ) {
+                    queryEvents.add( queryEvent );
+                } else if ( event instanceof DmlEvent dmlEvent ) {
+                    dmlEvents.add( dmlEvent );
+                } else {
+                    dataPoints.addAll( event.analyze() );
                 }
-
-                // Returns list of metrics which was produced by this particular event
-                final List<MonitoringDataPoint> dataPoints = event.analyze();
-                if ( !dataPoints.isEmpty() ) {
-                    // Sends all extracted metrics to subscribers
-                    for ( MonitoringDataPoint dataPoint : dataPoints ) {
-                        persistentRepository.dataPoint( dataPoint );
-                        // Statistics are only collected if Active Tracking is switched on
-                        if ( RuntimeConfig.ACTIVE_TRACKING.getBoolean() ) {
-                            statisticRepository.dataPoint( dataPoint );
-                        }
-                    }
+            }
+            dataPoints.addAll( QueryEventAnalyzer.analyze( queryEvents ) );
+            dataPoints.addAll( DmlEventAnalyzer.analyze( dmlEvents ) );
+
+            // Statistics are only collected if Active Tracking is switched on
+            boolean isActiveTracking = RuntimeConfig.ACTIVE_TRACKING.getBoolean();
+            for ( MonitoringDataPoint dataPoint : dataPoints ) {
+                persistentRepository.dataPoint( dataPoint );
+                if ( isActiveTracking ) {
+                    statisticRepository.dataPoint( dataPoint );
                 }
             }
         }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for multiple producers and multiple consumers.
+ * Every slot has a sequence number which tells producers and consumers whether the slot is ready to be written or read.
+ * Producers and consumers only compete for their respective position counter, which is claimed with a single CAS.
+ * Instead of blocking, {@link #offer(Object)} fails if the buffer is full.
+ *
+ * @param <E> the type of the elements
+ */
+class MonitoringRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // next position to read
+    private final AtomicLong tail = new AtomicLong(); // next position to write
+
+
+    /**
+     * @param capacity the minimum capacity, rounded up to the next power of two
+     */
+    MonitoringRingBuffer( int capacity ) {
+        int size = Integer.highestOneBit( Math.max( capacity, 2 ) - 1 ) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>( size );
+        this.sequences = new AtomicLongArray( size );
+        for ( int i = 0; i < size; i++ ) {
+            sequences.set( i, i );
+        }
+    }
+
+
+    /**
+     * Inserts the element if there is free space.
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer( E element ) {
+        long pos = tail.get();
+        while ( true ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get( index ) - pos;
+            if ( diff == 0 ) {
+                if ( tail.compareAndSet( pos, pos + 1 ) ) {
+                    elements.set( index, element );
+                    sequences.set( index, pos + 1 ); // publish
+                    return true;
+                }
+                pos = tail.get();
+            } else if ( diff < 0 ) {
+                return false; // slot still holds an element from the previous round
+            } else {
+                pos = tail.get(); // another producer was faster
+            }
+        }
+    }
+
+
+    /**
+     * Removes and returns the oldest element.
+     *
+     * @return the element or null if the buffer is empty
+     */
+    E poll() {
+        long pos = head.get();
+        while ( true ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get( index ) - (pos + 1);
+            if ( diff == 0 ) {
+                if ( head.compareAndSet( pos, pos + 1 ) ) {
+                    E element = elements.get( index );
+                    elements.set( index, null );
+                    sequences.set( index, pos + mask + 1 ); // free the slot for the next round
+                    return element;
+                }
+                pos = head.get();
+            } else if ( diff < 0 ) {
+                return null; // slot not yet published
+            } else {
+                pos = head.get(); // another consumer was faster
+            }
+        }
+    }
+
+
+    /**
+     * Removes up to maxElements elements and adds them to the batch.
+     *
+     * @return the number of drained elements
+     */
+    int drainTo( List<E> batch, int maxElements ) {
+        int count = 0;
+        while ( count < maxElements ) {
+            E element = poll();
+            if ( element == null ) {
+                break;
+            }
+            batch.add( element );
+            count++;
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the approximate number of elements in the buffer.
+     */
+    long size() {
+        return Math.max( 0, tail.get() - head.get() );
+    }
+
+
+    int capacity() {
+        return mask + 1;
+    }
+
+
+    /**
+     * Returns a weakly consistent snapshot of up to limit elements, the oldest element first.
+     * The elements are not removed.
+     */
+    List<E> peek( int limit ) {
+        List<E> result = new ArrayList<>();
+        long end = Math.min( tail.get(), head.get() + limit );
+        for ( long pos = head.get(); pos < end; pos++ ) {
+            E element = elements.get( (int) (pos & mask) );
+            if ( element != null ) {
+                result.add( element );
+            }
+        }
+        return result;
+    }
+
+}
@@ -82,6 +82,12 @@ public long getNumberOfElementsInQueue() {
     }
 
 
+    @Override
+    public long getNumberOfDroppedEvents() {
+        return monitoringQueue.getNumberOfDroppedEvents();
+    }
+
+
     /**
      * Removes all data points for given monitoring persistent type.
      *
@@ -17,12 +17,10 @@
 package org.polypheny.db.monitoring.events;
 
 
-import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.polypheny.db.monitoring.core.MonitoringServiceProvider;
 import org.polypheny.db.monitoring.events.analyzer.QueryEventAnalyzer;
 import org.polypheny.db.monitoring.events.metrics.QueryDataPointImpl;
 
@@ -43,11 +41,7 @@ public <T extends MonitoringDataPoint> List<Class<T>> getMetrics() {
 
     @Override
     public List<MonitoringDataPoint> analyze() {
-        final QueryDataPoint queryDataPoint = QueryEventAnalyzer.analyze( this );
-        if ( updatePostCosts ) {
-            MonitoringServiceProvider.getInstance().updateQueryPostCosts( this.physicalQueryClass, this.executionTime );
-        }
-        return Collections.singletonList( queryDataPoint );
+        return QueryEventAnalyzer.analyze( List.of( this ) );
     }
 
 }
@@ -17,16 +17,34 @@
 package org.polypheny.db.monitoring.events.analyzer;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.monitoring.events.DmlEvent;
+import org.polypheny.db.monitoring.events.MonitoringDataPoint;
 import org.polypheny.db.monitoring.events.metrics.DmlDataPoint;
 
 
 @Slf4j
 public class DmlEventAnalyzer {
 
+    /**
+     * Analyzes a batch of DML events.
+     *
+     * @param dmlEvents the events to analyze
+     * @return one data point per event, in the same order
+     */
+    public static List<MonitoringDataPoint> analyze( List<DmlEvent> dmlEvents ) {
+        List<MonitoringDataPoint> dataPoints = new ArrayList<>( dmlEvents.size() );
+        for ( DmlEvent dmlEvent : dmlEvents ) {
+            dataPoints.add( analyze( dmlEvent ) );
+        }
+        return dataPoints;
+    }
+
+
     public static DmlDataPoint analyze( DmlEvent dmlEvent ) {
         DmlDataPoint metric = DmlDataPoint
                 .builder()
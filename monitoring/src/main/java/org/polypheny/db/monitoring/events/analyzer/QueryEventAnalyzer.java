@@ -17,9 +17,13 @@
 package org.polypheny.db.monitoring.events.analyzer;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.monitoring.core.MonitoringServiceProvider;
+import org.polypheny.db.monitoring.events.MonitoringDataPoint;
 import org.polypheny.db.monitoring.events.QueryEvent;
 import org.polypheny.db.monitoring.events.metrics.QueryDataPointImpl;
 
@@ -27,6 +31,24 @@
 @Slf4j
 public class QueryEventAnalyzer {
 
+    /**
+     * Analyzes a batch of query events and updates the post costs of the events that request it.
+     *
+     * @param queryEvents the events to analyze
+     * @return one data point per event, in the same order
+     */
+    public static List<MonitoringDataPoint> analyze( List<QueryEvent> queryEvents ) {
+        List<MonitoringDataPoint> dataPoints = new ArrayList<>( queryEvents.size() );
+        for ( QueryEvent queryEvent : queryEvents ) {
+            dataPoints.add( analyze( queryEvent ) );
+            if ( queryEvent.isUpdatePostCosts() ) {
+                MonitoringServiceProvider.getInstance().updateQueryPostCosts( queryEvent.getPhysicalQueryClass(), queryEvent.getExecutionTime() );
+            }
+        }
+        return dataPoints;
+    }
+
+
     public static QueryDataPointImpl analyze( QueryEvent queryEvent ) {
 
         return QueryDataPointImpl
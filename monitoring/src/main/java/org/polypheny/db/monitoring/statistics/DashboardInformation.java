@@ -55,6 +55,10 @@ public class DashboardInformation {
     @Setter
     private long numberOfPendingEvents = 0;
 
+    @JsonProperty
+    @Setter
+    private long numberOfDroppedEvents = 0;
+
     @JsonProperty
     private Map<String, Pair<String, AdapterType>> availableAdapter = new HashMap<>();
 
@@ -74,9 +78,10 @@ public void updateStatistic() {
         Snapshot snapshot = Catalog.snapshot();
         this.catalogPersistent = Catalog.getInstance().isPersistent;
 
-        this.numberOfQueries = MonitoringServiceProvider.getInstance().getAllDataPoints( QueryDataPointImpl.class ).size();
-        this.numberOfWorkloads = MonitoringServiceProvider.getInstance().getAllDataPoints( DmlDataPoint.class ).size();
+        this.numberOfQueries = (int) MonitoringServiceProvider.getInstance().getNumberOfDataPoints( QueryDataPointImpl.class );
+        this.numberOfWorkloads = (int) MonitoringServiceProvider.getInstance().getNumberOfDataPoints( DmlDataPoint.class );
         this.numberOfPendingEvents = MonitoringServiceProvider.getInstance().getNumberOfElementsInQueue();
+        this.numberOfDroppedEvents = MonitoringServiceProvider.getInstance().getNumberOfDroppedEvents();
 
         this.availableAdapter = snapshot.getAdapters().stream().collect( Collectors.toMap( v -> v.uniqueName, v -> Pair.of( v.adapterTypeName, v.type ) ) );
         this.availableNamespaces = snapshot.getNamespaces( null ).stream()
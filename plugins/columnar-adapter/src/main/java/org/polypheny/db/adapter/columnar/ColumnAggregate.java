@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.columnar.storage.ColumnChunk;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.schema.types.Expressible;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * An aggregate function which is computed within the store.
+ */
+public class ColumnAggregate implements Expressible {
+
+    public static final Set<Kind> SUPPORTED_KINDS = Set.of( Kind.COUNT, Kind.SUM, Kind.SUM0, Kind.MIN, Kind.MAX );
+
+    public final Kind kind;
+    /**
+     * Index of the aggregated column in the table, {@code -1} for {@code COUNT(*)}
+     */
+    public final int column;
+    public final PolyType type;
+
+
+    public ColumnAggregate( Kind kind, int column, PolyType type ) {
+        this.kind = kind;
+        this.column = column;
+        this.type = type;
+    }
+
+
+    /**
+     * @return Whether the aggregate can be computed from the zone map of a chunk alone
+     */
+    public boolean isAnsweredByZoneMap() {
+        return kind == Kind.COUNT || kind == Kind.MIN || kind == Kind.MAX;
+    }
+
+
+    public Accumulator accumulator() {
+        return new Accumulator();
+    }
+
+
+    @Override
+    public Expression asExpression() {
+        return Expressions.new_(
+                ColumnAggregate.class,
+                Expressions.constant( kind ),
+                Expressions.constant( column ),
+                Expressions.constant( type ) );
+    }
+
+
+    /**
+     * The state of the aggregate for a single group.
+     */
+    public class Accumulator {
+
+        private long count = 0;
+        @Nullable
+        private BigDecimal sum;
+        @Nullable
+        private PolyValue extreme;
+
+
+        public void add( @Nullable PolyValue value ) {
+            if ( column >= 0 && value == null ) {
+                return;
+            }
+            switch ( kind ) {
+                case COUNT -> count++;
+                case SUM, SUM0 -> sum = sum == null ? value.asNumber().bigDecimalValue() : sum.add( value.asNumber().bigDecimalValue() );
+                case MIN, MAX -> merge( value );
+            }
+        }
+
+
+        /**
+         * Adds all rows of a chunk which does not contain deleted rows, using only its zone map.
+         *
+         * @return {@code false} if the zone map does not suffice, e.g. because the values are not comparable
+         */
+        public boolean addChunk( @Nullable ColumnChunk chunk, int rowCount ) {
+            if ( kind == Kind.COUNT ) {
+                count += chunk == null ? rowCount : chunk.getSize() - chunk.getNullCount();
+                return true;
+            }
+            if ( chunk.getNullCount() == chunk.getSize() ) {
+                return true;
+            }
+            if ( chunk.getMin() == null ) {
+                return false;
+            }
+            merge( kind == Kind.MIN ? chunk.getMin() : chunk.getMax() );
+            return true;
+        }
+
+
+        private void merge( PolyValue value ) {
+            if ( extreme == null ) {
+                extreme = value;
+                return;
+            }
+            Integer comparison = ColumnPredicate.compare( value, extreme );
+            if ( comparison != null && (kind == Kind.MIN ? comparison < 0 : comparison > 0) ) {
+                extreme = value;
+            }
+        }
+
+
+        @Nullable
+        public PolyValue result() {
+            return switch ( kind ) {
+                case COUNT -> PolyLong.of( count );
+                case SUM -> sum == null ? null : toType( sum );
+                case SUM0 -> toType( sum == null ? BigDecimal.ZERO : sum );
+                default -> extreme;
+            };
+        }
+
+
+        private PolyValue toType( BigDecimal value ) {
+            return switch ( type ) {
+                case TINYINT, SMALLINT, INTEGER -> PolyInteger.of( value.intValue() );
+                case BIGINT -> PolyLong.of( value.longValue() );
+                case FLOAT, REAL -> PolyFloat.of( value.floatValue() );
+                case DOUBLE -> PolyDouble.of( value.doubleValue() );
+                default -> PolyBigDecimal.of( value );
+            };
+        }
+
+    }
+
+}
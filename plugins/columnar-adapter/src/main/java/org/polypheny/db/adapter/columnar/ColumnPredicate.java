@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.columnar.storage.ColumnChunk;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.schema.types.Expressible;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * A comparison of a single column with a literal or a dynamic parameter. A filter is pushed into the store as a conjunction of such predicates.
+ * Predicates are evaluated column by column and use the zone maps of the chunks to skip whole row groups.
+ */
+public class ColumnPredicate implements Expressible {
+
+    public static final Set<Kind> SUPPORTED_KINDS = Set.of(
+            Kind.EQUALS,
+            Kind.NOT_EQUALS,
+            Kind.LESS_THAN,
+            Kind.LESS_THAN_OR_EQUAL,
+            Kind.GREATER_THAN,
+            Kind.GREATER_THAN_OR_EQUAL,
+            Kind.IS_NULL,
+            Kind.IS_NOT_NULL );
+
+    public final int column;
+    public final Kind kind;
+    @Nullable
+    public final ColumnValue operand;
+
+
+    public ColumnPredicate( int column, Kind kind, @Nullable ColumnValue operand ) {
+        this.column = column;
+        this.kind = kind;
+        this.operand = operand;
+    }
+
+
+    /**
+     * Tests a single value. Like in SQL, comparisons with NULL never match.
+     *
+     * @param value Value of the column, {@code null} for SQL NULL
+     * @param operand Evaluated operand of this predicate
+     */
+    public boolean test( @Nullable PolyValue value, @Nullable PolyValue operand ) {
+        if ( kind == Kind.IS_NULL ) {
+            return value == null;
+        } else if ( kind == Kind.IS_NOT_NULL ) {
+            return value != null;
+        } else if ( value == null || operand == null ) {
+            return false;
+        }
+        Integer comparison = compare( value, operand );
+        return comparison != null && accepts( comparison );
+    }
+
+
+    /**
+     * @param comparison Result of comparing the value of the column with the operand
+     */
+    public boolean accepts( int comparison ) {
+        return switch ( kind ) {
+            case EQUALS -> comparison == 0;
+            case NOT_EQUALS -> comparison != 0;
+            case LESS_THAN -> comparison < 0;
+            case LESS_THAN_OR_EQUAL -> comparison <= 0;
+            case GREATER_THAN -> comparison > 0;
+            case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+            default -> throw new IllegalStateException( "Not a comparison: " + kind );
+        };
+    }
+
+
+    /**
+     * Checks the zone map of a chunk.
+     *
+     * @return {@code false} if no value of the chunk can satisfy this predicate
+     */
+    public boolean mayMatch( ColumnChunk chunk, @Nullable PolyValue operand ) {
+        if ( kind == Kind.IS_NULL ) {
+            return chunk.getNullCount() > 0;
+        } else if ( kind == Kind.IS_NOT_NULL ) {
+            return chunk.getNullCount() < chunk.getSize();
+        } else if ( operand == null || chunk.getNullCount() == chunk.getSize() ) {
+            return false;
+        }
+        PolyValue min = chunk.getMin();
+        PolyValue max = chunk.getMax();
+        if ( min == null || max == null ) {
+            // The values of the chunk are not comparable
+            return true;
+        }
+        Integer minComparison = compare( min, operand );
+        Integer maxComparison = compare( max, operand );
+        if ( minComparison == null || maxComparison == null ) {
+            return true;
+        }
+        return switch ( kind ) {
+            case EQUALS -> minComparison <= 0 && maxComparison >= 0;
+            case NOT_EQUALS -> minComparison != 0 || maxComparison != 0;
+            case LESS_THAN -> minComparison < 0;
+            case LESS_THAN_OR_EQUAL -> minComparison <= 0;
+            case GREATER_THAN -> maxComparison > 0;
+            case GREATER_THAN_OR_EQUAL -> maxComparison >= 0;
+            default -> true;
+        };
+    }
+
+
+    /**
+     * Compares two non-null values. Numbers are compared by their value, independent of their type.
+     * Besides numbers, only strings, booleans and temporal values of the same type are comparable.
+     *
+     * @return The result of the comparison or {@code null} if the values are not comparable
+     */
+    @Nullable
+    public static Integer compare( PolyValue a, PolyValue b ) {
+        if ( a.isNumber() && b.isNumber() ) {
+            if ( a.isSameType( b ) ) {
+                return a.compareTo( b );
+            }
+            return a.asNumber().bigDecimalValue().compareTo( b.asNumber().bigDecimalValue() );
+        }
+        if ( !a.isSameType( b ) || !(a.isString() || a.isBoolean() || a.isTemporal()) ) {
+            return null;
+        }
+        return a.compareTo( b );
+    }
+
+
+    @Override
+    public Expression asExpression() {
+        return Expressions.new_(
+                ColumnPredicate.class,
+                Expressions.constant( column ),
+                Expressions.constant( kind ),
+                operand == null ? Expressions.constant( null, ColumnValue.class ) : operand.asExpression() );
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.schema.types.Expressible;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * A value which is evaluated for every row: a column of the table, a literal or a dynamic parameter.
+ * Instances are created during planning and passed to the generated code, see {@link #asExpression()}.
+ */
+public class ColumnValue implements Expressible {
+
+    public enum Type {
+        COLUMN,
+        LITERAL,
+        PARAMETER
+    }
+
+
+    public final Type type;
+    public final int column;
+    public final long parameter;
+    @Nullable
+    public final PolyValue literal;
+
+
+    public ColumnValue( Type type, int column, long parameter, @Nullable PolyValue literal ) {
+        this.type = type;
+        this.column = column;
+        this.parameter = parameter;
+        this.literal = literal;
+    }
+
+
+    public static ColumnValue column( int column ) {
+        return new ColumnValue( Type.COLUMN, column, -1, null );
+    }
+
+
+    public static ColumnValue literal( @Nullable PolyValue literal ) {
+        return new ColumnValue( Type.LITERAL, -1, -1, literal );
+    }
+
+
+    public static ColumnValue parameter( long index ) {
+        return new ColumnValue( Type.PARAMETER, -1, index, null );
+    }
+
+
+    /**
+     * @param row Values of the table columns, may be {@code null} if the value does not reference a column
+     * @param parameters Values of the dynamic parameters of the current batch
+     * @return The value or {@code null} for SQL NULL
+     */
+    @Nullable
+    public PolyValue get( @Nullable PolyValue[] row, Map<Long, PolyValue> parameters ) {
+        PolyValue value = switch ( type ) {
+            case COLUMN -> row[column];
+            case LITERAL -> literal;
+            case PARAMETER -> parameters.get( parameter );
+        };
+        return value == null || value.isNull() ? null : value;
+    }
+
+
+    @Override
+    public Expression asExpression() {
+        return Expressions.new_(
+                ColumnValue.class,
+                Expressions.constant( type ),
+                Expressions.constant( column ),
+                Expressions.constant( parameter ),
+                literal == null ? Expressions.constant( null, PolyValue.class ) : literal.asExpression() );
+    }
+
+}
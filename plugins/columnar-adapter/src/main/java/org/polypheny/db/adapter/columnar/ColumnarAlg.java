@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.Setter;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+
+
+public interface ColumnarAlg extends AlgNode {
+
+    /**
+     * When implementing this method, make sure to call implementor.visitChild as a first step!
+     * => the tree will be implemented from bottom-up
+     */
+    void implement( ColumnarImplementor implementor );
+
+    class ColumnarImplementor {
+
+        public enum Operation {
+            SELECT,
+            INSERT,
+            UPDATE,
+            DELETE
+        }
+
+
+        @Getter
+        @Setter
+        private ColumnarEntity entity;
+        @Getter
+        @Setter
+        private Operation operation;
+        /**
+         * The output of the current node in terms of the table columns, {@code null} if all columns of the table are returned
+         */
+        @Getter
+        @Nullable
+        private List<ColumnValue> projection;
+        @Getter
+        private final List<ColumnPredicate> predicates = new ArrayList<>();
+        @Getter
+        @Nullable
+        private List<Integer> groupKeys;
+        @Getter
+        @Nullable
+        private List<ColumnAggregate> aggregates;
+        @Getter
+        private final List<List<ColumnValue>> insertRows = new ArrayList<>();
+        @Getter
+        private final List<Integer> updateColumns = new ArrayList<>();
+        @Getter
+        private final List<ColumnValue> updateValues = new ArrayList<>();
+
+
+        public ColumnarImplementor() {
+            //intentionally empty
+        }
+
+
+        /**
+         * @return The value of a field of the current output
+         */
+        public ColumnValue resolve( int field ) {
+            if ( aggregates != null ) {
+                throw new GenericRuntimeException( "The result of an aggregation cannot be processed by the columnar store" );
+            }
+            return projection == null ? ColumnValue.column( field ) : projection.get( field );
+        }
+
+
+        /**
+         * @return The index of the table column a field of the current output refers to
+         */
+        public int resolveColumn( int field ) {
+            ColumnValue value = resolve( field );
+            if ( value.type != ColumnValue.Type.COLUMN ) {
+                throw new GenericRuntimeException( "Field %s does not refer to a column of the table", field );
+            }
+            return value.column;
+        }
+
+
+        public void project( List<ColumnValue> projection ) {
+            this.projection = List.copyOf( projection );
+        }
+
+
+        public void addPredicate( ColumnPredicate predicate ) {
+            predicates.add( predicate );
+        }
+
+
+        public void aggregate( List<Integer> groupKeys, List<ColumnAggregate> aggregates ) {
+            this.groupKeys = List.copyOf( groupKeys );
+            this.aggregates = List.copyOf( aggregates );
+            this.projection = null;
+        }
+
+
+        public void addInsertRow( List<ColumnValue> row ) {
+            insertRows.add( row );
+        }
+
+
+        public void addUpdate( int column, ColumnValue value ) {
+            updateColumns.add( column );
+            updateValues.add( value );
+        }
+
+
+        /**
+         * Has to be called in every implement method of all ColumnarAlg instances
+         */
+        public void visitChild( int ordinal, AlgNode input ) {
+            assert ordinal == 0;
+            ((ColumnarAlg) input).implement( this );
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import lombok.Getter;
+import org.polypheny.db.adapter.columnar.algebra.ColumnarRules;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.Convention;
+
+
+@Getter
+public class ColumnarConvention extends Convention.Impl {
+
+    private final ColumnarNamespace namespace;
+
+
+    public ColumnarConvention( String name, ColumnarNamespace namespace ) {
+        super( "ColumnarConvention." + name, ColumnarAlg.class );
+        this.namespace = namespace;
+    }
+
+
+    @Override
+    public void register( AlgPlanner planner ) {
+        for ( AlgOptRule rule : ColumnarRules.rules( this ) ) {
+            planner.addRuleDuringRuntime( rule );
+        }
+    }
+
+}
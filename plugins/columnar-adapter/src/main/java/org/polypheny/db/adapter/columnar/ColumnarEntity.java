@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.List;
+import lombok.Getter;
+import org.polypheny.db.adapter.columnar.algebra.ColumnarScan;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.common.Modify;
+import org.polypheny.db.algebra.core.common.Modify.Operation;
+import org.polypheny.db.algebra.logical.relational.LogicalRelModify;
+import org.polypheny.db.catalog.entity.Entity;
+import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.schema.types.ModifiableTable;
+import org.polypheny.db.schema.types.TranslatableEntity;
+
+
+public class ColumnarEntity extends PhysicalTable implements TranslatableEntity, ModifiableTable {
+
+    @Getter
+    private final ColumnarNamespace namespace;
+    @Getter
+    private final List<Long> pkIds; // Ids of the columns that are part of the primary key
+    private final PhysicalTable physical;
+
+
+    public ColumnarEntity( ColumnarNamespace namespace, PhysicalTable physical, List<Long> pkIds ) {
+        super( physical.id,
+                physical.allocationId,
+                physical.logicalId,
+                physical.name,
+                physical.columns,
+                physical.namespaceId,
+                physical.namespaceName,
+                physical.uniqueFieldIds,
+                physical.adapterId );
+        this.namespace = namespace;
+        this.pkIds = pkIds;
+        this.physical = physical;
+    }
+
+
+    @Override
+    public AlgNode toAlg( AlgCluster cluster, AlgTraitSet traitSet ) {
+        namespace.getConvention().register( cluster.getPlanner() );
+        return new ColumnarScan( cluster, physical, this );
+    }
+
+
+    @Override
+    public Modify<?> toModificationTable(
+            AlgCluster cluster,
+            AlgTraitSet algTraits,
+            Entity table,
+            AlgNode input,
+            Operation operation,
+            List<String> updateColumnList,
+            List<? extends RexNode> sourceExpressionList ) {
+        namespace.getConvention().register( cluster.getPlanner() );
+        return new LogicalRelModify(
+                cluster,
+                cluster.traitSetOf( Convention.NONE ),
+                table,
+                input,
+                operation,
+                updateColumnList,
+                sourceExpressionList,
+                true );
+    }
+
+}
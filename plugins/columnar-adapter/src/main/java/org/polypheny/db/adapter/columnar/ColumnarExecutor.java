@@ -0,0 +1,267 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.adapter.columnar.ColumnAggregate.Accumulator;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor.Operation;
+import org.polypheny.db.adapter.columnar.storage.ColumnChunk;
+import org.polypheny.db.adapter.columnar.storage.ColumnarTable;
+import org.polypheny.db.adapter.columnar.storage.RowGroup;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.category.PolyBlob;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * Executes the operations which have been pushed into the columnar store.
+ */
+final class ColumnarExecutor {
+
+    private ColumnarExecutor() {
+        // Utility class
+    }
+
+
+    static Enumerable<PolyValue[]> select(
+            ColumnarTable table,
+            PolyXid xid,
+            Long[] columnIds,
+            @Nullable List<ColumnValue> projection,
+            List<ColumnPredicate> predicates,
+            @Nullable List<Integer> groupKeys,
+            @Nullable List<ColumnAggregate> aggregates,
+            Map<Long, PolyValue> parameters,
+            AtomicBoolean cancelFlag ) {
+        if ( aggregates != null ) {
+            return Linq4j.asEnumerable( aggregate( table, xid, columnIds, predicates, groupKeys, aggregates, parameters, cancelFlag ) );
+        }
+
+        int[] columns = projection == null
+                ? IntStream.range( 0, columnIds.length ).toArray()
+                : projection.stream().filter( v -> v.type == ColumnValue.Type.COLUMN ).mapToInt( v -> v.column ).distinct().toArray();
+        Iterable<PolyValue[]> rows = () -> new ColumnarScanner( table, xid, columnIds, columns, predicates, parameters, g -> false, cancelFlag );
+        Enumerable<PolyValue[]> enumerable = Linq4j.asEnumerable( rows );
+        if ( projection == null ) {
+            return enumerable;
+        }
+        return enumerable.select( row -> {
+            PolyValue[] projected = new PolyValue[projection.size()];
+            for ( int i = 0; i < projected.length; i++ ) {
+                projected[i] = projection.get( i ).get( row, parameters );
+            }
+            return projected;
+        } );
+    }
+
+
+    /**
+     * Computes the aggregates for every group. Without predicates and group keys, COUNT, MIN and MAX are answered from the zone maps
+     * for all row groups without deleted rows, only the remaining groups are scanned.
+     */
+    private static List<PolyValue[]> aggregate(
+            ColumnarTable table,
+            PolyXid xid,
+            Long[] columnIds,
+            List<ColumnPredicate> predicates,
+            List<Integer> groupKeys,
+            List<ColumnAggregate> aggregates,
+            Map<Long, PolyValue> parameters,
+            AtomicBoolean cancelFlag ) {
+        Map<List<PolyValue>, Accumulator[]> results = new LinkedHashMap<>();
+        if ( groupKeys.isEmpty() ) {
+            results.put( List.of(), accumulators( aggregates ) );
+        }
+
+        ColumnarScanner scanner;
+        int[] columns = IntStream.concat( groupKeys.stream().mapToInt( k -> k ), aggregates.stream().mapToInt( a -> a.column ) )
+                .filter( c -> c >= 0 )
+                .distinct()
+                .toArray();
+        if ( groupKeys.isEmpty() && predicates.isEmpty() && aggregates.stream().allMatch( ColumnAggregate::isAnsweredByZoneMap ) ) {
+            Accumulator[] accumulators = results.get( List.of() );
+            List<RowGroup> groups = table.getGroups();
+            scanner = new ColumnarScanner( table, xid, columnIds, columns, predicates, parameters, g -> {
+                RowGroup group = groups.get( g );
+                if ( !table.isFullyVisible( xid, g, group ) ) {
+                    return false;
+                }
+                for ( ColumnAggregate aggregate : aggregates ) {
+                    if ( aggregate.kind != Kind.COUNT && group.getChunk( columnIds[aggregate.column] ).getMin() == null
+                            && group.getChunk( columnIds[aggregate.column] ).getNullCount() < group.getRowCount() ) {
+                        // Values are not comparable, the group has to be scanned
+                        return false;
+                    }
+                }
+                for ( int i = 0; i < aggregates.size(); i++ ) {
+                    ColumnChunk chunk = aggregates.get( i ).column < 0 ? null : group.getChunk( columnIds[aggregates.get( i ).column] );
+                    accumulators[i].addChunk( chunk, group.getRowCount() );
+                }
+                return true;
+            }, cancelFlag );
+        } else {
+            scanner = new ColumnarScanner( table, xid, columnIds, columns, predicates, parameters, g -> false, cancelFlag );
+        }
+
+        while ( scanner.hasNext() ) {
+            PolyValue[] row = scanner.next();
+            List<PolyValue> key = new ArrayList<>( groupKeys.size() );
+            for ( int groupKey : groupKeys ) {
+                key.add( row[groupKey] );
+            }
+            Accumulator[] accumulators = results.computeIfAbsent( key, k -> accumulators( aggregates ) );
+            for ( int i = 0; i < accumulators.length; i++ ) {
+                int column = aggregates.get( i ).column;
+                accumulators[i].add( column < 0 ? null : row[column] );
+            }
+        }
+
+        List<PolyValue[]> rows = new ArrayList<>( results.size() );
+        results.forEach( ( key, accumulators ) -> {
+            PolyValue[] row = new PolyValue[key.size() + accumulators.length];
+            for ( int i = 0; i < key.size(); i++ ) {
+                row[i] = key.get( i );
+            }
+            for ( int i = 0; i < accumulators.length; i++ ) {
+                row[key.size() + i] = accumulators[i].result();
+            }
+            rows.add( row );
+        } );
+        return rows;
+    }
+
+
+    private static Accumulator[] accumulators( List<ColumnAggregate> aggregates ) {
+        return aggregates.stream().map( ColumnAggregate::accumulator ).toArray( Accumulator[]::new );
+    }
+
+
+    /**
+     * Applies an INSERT, UPDATE or DELETE for every batch of parameters.
+     *
+     * @return The number of modified rows
+     */
+    static long modify(
+            Operation operation,
+            ColumnarTable table,
+            PolyXid xid,
+            Long[] columnIds,
+            PolyType[] columnTypes,
+            List<ColumnPredicate> predicates,
+            List<List<ColumnValue>> insertRows,
+            List<Integer> updateColumns,
+            List<ColumnValue> updateValues,
+            List<Map<Long, PolyValue>> batches,
+            AtomicBoolean cancelFlag ) {
+        List<Map<Long, PolyValue>> parameters = batches.isEmpty() ? List.of( Map.of() ) : batches;
+        List<Long> tableColumns = table.getColumnIds();
+        int[] positions = Arrays.stream( columnIds ).mapToInt( tableColumns::indexOf ).toArray();
+        int[] allColumns = IntStream.range( 0, columnIds.length ).toArray();
+
+        long count = 0;
+        if ( operation == Operation.INSERT ) {
+            List<PolyValue[]> rows = new ArrayList<>();
+            for ( Map<Long, PolyValue> batch : parameters ) {
+                for ( List<ColumnValue> values : insertRows ) {
+                    PolyValue[] row = new PolyValue[values.size()];
+                    for ( int i = 0; i < row.length; i++ ) {
+                        row[i] = normalize( values.get( i ).get( null, batch ), columnTypes[i] );
+                    }
+                    rows.add( toTableOrder( row, positions ) );
+                }
+            }
+            table.insert( xid, rows );
+            return rows.size();
+        }
+
+        for ( Map<Long, PolyValue> batch : parameters ) {
+            List<Long> ids = new ArrayList<>();
+            List<PolyValue[]> updated = new ArrayList<>();
+            ColumnarScanner scanner = new ColumnarScanner( table, xid, columnIds, allColumns, predicates, batch, g -> false, cancelFlag );
+            while ( scanner.hasNext() ) {
+                PolyValue[] row = scanner.next();
+                ids.add( scanner.getCurrentId() );
+                if ( operation == Operation.UPDATE ) {
+                    PolyValue[] newRow = row.clone();
+                    for ( int i = 0; i < updateColumns.size(); i++ ) {
+                        int column = updateColumns.get( i );
+                        newRow[column] = normalize( updateValues.get( i ).get( row, batch ), columnTypes[column] );
+                    }
+                    updated.add( toTableOrder( newRow, positions ) );
+                }
+            }
+            table.delete( xid, ids );
+            if ( operation == Operation.UPDATE ) {
+                table.insert( xid, updated );
+            }
+            count += ids.size();
+        }
+        return count;
+    }
+
+
+    private static PolyValue[] toTableOrder( PolyValue[] row, int[] positions ) {
+        PolyValue[] ordered = new PolyValue[row.length];
+        for ( int i = 0; i < row.length; i++ ) {
+            ordered[positions[i]] = row[i];
+        }
+        return ordered;
+    }
+
+
+    /**
+     * Converts a value to the representation used for its column. This makes equal values comparable by their hash codes,
+     * which is required by the dictionary encoding and the primary key index. Multimedia values are materialized.
+     */
+    @Nullable
+    static PolyValue normalize( @Nullable PolyValue value, PolyType type ) {
+        if ( value == null || value.isNull() ) {
+            return null;
+        }
+        if ( value.isBlob() ) {
+            return PolyBlob.of( value.asBlob().asByteArray() );
+        }
+        if ( !value.isNumber() ) {
+            return value;
+        }
+        return switch ( type ) {
+            case TINYINT, SMALLINT, INTEGER -> value instanceof PolyInteger ? value : PolyInteger.of( value.asNumber().intValue() );
+            case BIGINT -> value instanceof PolyLong ? value : PolyLong.of( value.asNumber().longValue() );
+            case FLOAT, REAL -> value instanceof PolyFloat ? value : PolyFloat.of( value.asNumber().floatValue() );
+            case DOUBLE -> value instanceof PolyDouble ? value : PolyDouble.of( value.asNumber().doubleValue() );
+            case DECIMAL -> value instanceof PolyBigDecimal ? value : PolyBigDecimal.of( value.asNumber().bigDecimalValue() );
+            default -> value;
+        };
+    }
+
+}
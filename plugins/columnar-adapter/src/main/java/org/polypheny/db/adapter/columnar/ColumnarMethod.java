@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Types;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor.Operation;
+import org.polypheny.db.type.PolyType;
+
+
+public enum ColumnarMethod {
+
+    EXECUTE( ColumnarNamespace.class, "execute", Long.class, Long.class, DataContext.class, Long[].class, List.class, List.class, List.class, List.class ),
+    EXECUTE_MODIFY( ColumnarNamespace.class, "executeModify", Operation.class, Long.class, Long.class, DataContext.class, Long[].class, PolyType[].class, List.class, List.class, List.class, List.class );
+
+    public final Method method;
+
+
+    ColumnarMethod( Class<?> clazz, String methodName, Class<?>... argumentTypes ) {
+        this.method = Types.lookupMethod( clazz, methodName, argumentTypes );
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.adapter.AdapterManager;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor.Operation;
+import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.schema.Namespace;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+@Getter
+public class ColumnarNamespace extends Namespace {
+
+    private final String name;
+    private final ColumnarStore store;
+    private final ColumnarConvention convention;
+
+
+    public ColumnarNamespace( long id, long adapterId, String name, ColumnarStore store ) {
+        super( id, adapterId );
+        this.name = name;
+        this.store = store;
+        this.convention = new ColumnarConvention( name, this );
+    }
+
+
+    public ColumnarEntity createEntity( PhysicalTable table, List<Long> pkIds ) {
+        return new ColumnarEntity( this, table, pkIds );
+    }
+
+
+    /**
+     * Called from generated code
+     * Executes SELECT operations
+     * see {@link ColumnarMethod#EXECUTE}
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<PolyValue[]> execute(
+            final Long adapterId,
+            final Long allocId,
+            final DataContext dataContext,
+            final Long[] columnIds,
+            final @Nullable List<ColumnValue> projection,
+            final List<ColumnPredicate> predicates,
+            final @Nullable List<Integer> groupKeys,
+            final @Nullable List<ColumnAggregate> aggregates ) {
+        ColumnarStore store = getStore( adapterId, dataContext );
+        Transaction transaction = dataContext.getStatement().getTransaction();
+        List<Map<Long, PolyValue>> batches = dataContext.getParameterValues();
+        return ColumnarExecutor.select(
+                store.getStorage().getTable( allocId ),
+                transaction.getXid(),
+                columnIds,
+                projection,
+                predicates,
+                groupKeys,
+                aggregates,
+                batches.isEmpty() ? Collections.emptyMap() : batches.get( 0 ),
+                transaction.getCancelFlag() );
+    }
+
+
+    /**
+     * Called from generated code
+     * Executes INSERT, UPDATE and DELETE operations
+     * see {@link ColumnarMethod#EXECUTE_MODIFY}
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<PolyValue[]> executeModify(
+            final Operation operation,
+            final Long adapterId,
+            final Long allocId,
+            final DataContext dataContext,
+            final Long[] columnIds,
+            final PolyType[] columnTypes,
+            final List<ColumnPredicate> predicates,
+            final List<List<ColumnValue>> insertRows,
+            final List<Integer> updateColumns,
+            final List<ColumnValue> updateValues ) {
+        ColumnarStore store = getStore( adapterId, dataContext );
+        Transaction transaction = dataContext.getStatement().getTransaction();
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<PolyValue[]> enumerator() {
+                // The modification is applied when the result is requested, like for the other stores
+                long count = ColumnarExecutor.modify(
+                        operation,
+                        store.getStorage().getTable( allocId ),
+                        transaction.getXid(),
+                        columnIds,
+                        columnTypes,
+                        predicates,
+                        insertRows,
+                        updateColumns,
+                        updateValues,
+                        dataContext.getParameterValues(),
+                        transaction.getCancelFlag() );
+                return Linq4j.singletonEnumerator( new PolyValue[]{ PolyLong.of( count ) } );
+            }
+        };
+    }
+
+
+    private static ColumnarStore getStore( long adapterId, DataContext dataContext ) {
+        ColumnarStore store = (ColumnarStore) AdapterManager.getInstance().getAdapter( adapterId ).orElseThrow();
+        dataContext.getStatement().getTransaction().registerInvolvedAdapter( store );
+        return store;
+    }
+
+}
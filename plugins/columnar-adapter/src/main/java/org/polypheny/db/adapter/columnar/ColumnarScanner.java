@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+import org.polypheny.db.adapter.columnar.storage.ColumnChunk;
+import org.polypheny.db.adapter.columnar.storage.ColumnarTable;
+import org.polypheny.db.adapter.columnar.storage.ColumnarTable.PendingRow;
+import org.polypheny.db.adapter.columnar.storage.RowGroup;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Iterates the rows of a {@link ColumnarTable} which are visible to a transaction and satisfy all predicates.
+ * <p>
+ * The table is processed one row group at a time: groups whose zone maps exclude a predicate are skipped, the predicates
+ * are evaluated column by column on the encoded chunks and only the requested columns of the remaining rows are decoded.
+ * The rows inserted by the transaction itself are returned last.
+ */
+class ColumnarScanner implements Iterator<PolyValue[]> {
+
+    private final ColumnarTable table;
+    private final PolyXid xid;
+    private final Long[] columnIds;
+    private final int[] columns;
+    private final List<ColumnPredicate> predicates;
+    private final PolyValue[] operands;
+    private final IntPredicate skipGroup;
+    private final AtomicBoolean cancelFlag;
+    private final List<RowGroup> groups;
+
+    private int nextGroup = 0;
+    private boolean pendingDone = false;
+    private final List<PolyValue[]> buffer = new ArrayList<>();
+    private final List<Long> bufferIds = new ArrayList<>();
+    private int position = 0;
+    private long currentId;
+
+
+    /**
+     * @param columnIds Ids of the columns of the entity, the returned rows contain their values in this order
+     * @param columns Indexes of the columns which have to be decoded, the other values of the returned rows are {@code null}
+     * @param parameters Values of the dynamic parameters used by the predicates
+     * @param skipGroup Called once for every row group, groups for which it returns {@code true} are skipped
+     */
+    ColumnarScanner(
+            ColumnarTable table,
+            PolyXid xid,
+            Long[] columnIds,
+            int[] columns,
+            List<ColumnPredicate> predicates,
+            Map<Long, PolyValue> parameters,
+            IntPredicate skipGroup,
+            AtomicBoolean cancelFlag ) {
+        this.table = table;
+        this.xid = xid;
+        this.columnIds = columnIds;
+        this.columns = columns;
+        this.predicates = predicates;
+        this.operands = new PolyValue[predicates.size()];
+        for ( int i = 0; i < predicates.size(); i++ ) {
+            ColumnValue operand = predicates.get( i ).operand;
+            operands[i] = operand == null ? null : operand.get( null, parameters );
+        }
+        this.skipGroup = skipGroup;
+        this.cancelFlag = cancelFlag;
+        this.groups = table.getGroups();
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        while ( position >= buffer.size() ) {
+            if ( cancelFlag.get() || (nextGroup >= groups.size() && pendingDone) ) {
+                return false;
+            }
+            buffer.clear();
+            bufferIds.clear();
+            position = 0;
+            if ( nextGroup < groups.size() ) {
+                int index = nextGroup++;
+                if ( !skipGroup.test( index ) ) {
+                    scanGroup( index, groups.get( index ) );
+                }
+            } else {
+                scanPending();
+                pendingDone = true;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public PolyValue[] next() {
+        if ( !hasNext() ) {
+            throw new NoSuchElementException();
+        }
+        currentId = bufferIds.get( position );
+        return buffer.get( position++ );
+    }
+
+
+    /**
+     * @return The row id of the row returned last
+     */
+    long getCurrentId() {
+        return currentId;
+    }
+
+
+    private void scanGroup( int index, RowGroup group ) {
+        for ( int i = 0; i < predicates.size(); i++ ) {
+            if ( !predicates.get( i ).mayMatch( chunk( group, predicates.get( i ).column ), operands[i] ) ) {
+                return;
+            }
+        }
+        BitSet selection = table.getVisibleRows( xid, index, group );
+        for ( int i = 0; i < predicates.size() && !selection.isEmpty(); i++ ) {
+            chunk( group, predicates.get( i ).column ).select( predicates.get( i ), operands[i], selection );
+        }
+        if ( selection.isEmpty() ) {
+            return;
+        }
+
+        for ( int row = selection.nextSetBit( 0 ); row >= 0; row = selection.nextSetBit( row + 1 ) ) {
+            buffer.add( new PolyValue[columnIds.length] );
+            bufferIds.add( ColumnarTable.rowId( index, row ) );
+        }
+        // Decode column by column
+        for ( int column : columns ) {
+            ColumnChunk chunk = chunk( group, column );
+            int i = 0;
+            for ( int row = selection.nextSetBit( 0 ); row >= 0; row = selection.nextSetBit( row + 1 ) ) {
+                buffer.get( i++ )[column] = chunk.get( row );
+            }
+        }
+    }
+
+
+    private void scanPending() {
+        List<Long> tableColumns = table.getColumnIds();
+        for ( PendingRow pending : table.getPendingRows( xid ) ) {
+            PolyValue[] row = new PolyValue[columnIds.length];
+            for ( int i = 0; i < columnIds.length; i++ ) {
+                row[i] = pending.values()[tableColumns.indexOf( columnIds[i] )];
+            }
+            if ( matches( row ) ) {
+                buffer.add( row );
+                bufferIds.add( pending.id() );
+            }
+        }
+    }
+
+
+    private boolean matches( PolyValue[] row ) {
+        for ( int i = 0; i < predicates.size(); i++ ) {
+            if ( !predicates.get( i ).test( row[predicates.get( i ).column], operands[i] ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private ColumnChunk chunk( RowGroup group, int column ) {
+        return group.getChunk( columnIds[column] );
+    }
+
+}
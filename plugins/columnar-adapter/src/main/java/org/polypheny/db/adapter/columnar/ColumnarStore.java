@@ -0,0 +1,336 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.experimental.Delegate;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.pf4j.Extension;
+import org.polypheny.db.adapter.DataStore;
+import org.polypheny.db.adapter.DeployMode;
+import org.polypheny.db.adapter.RelationalModifyDelegate;
+import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingInteger;
+import org.polypheny.db.adapter.annotations.AdapterSettingList;
+import org.polypheny.db.adapter.columnar.storage.ColumnarStorage;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.catalogs.RelAdapterCatalog;
+import org.polypheny.db.catalog.entity.allocation.AllocationCollection;
+import org.polypheny.db.catalog.entity.allocation.AllocationGraph;
+import org.polypheny.db.catalog.entity.allocation.AllocationTable;
+import org.polypheny.db.catalog.entity.allocation.AllocationTableWrapper;
+import org.polypheny.db.catalog.entity.logical.LogicalColumn;
+import org.polypheny.db.catalog.entity.logical.LogicalIndex;
+import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.catalog.entity.logical.LogicalTableWrapper;
+import org.polypheny.db.catalog.entity.physical.PhysicalColumn;
+import org.polypheny.db.catalog.entity.physical.PhysicalEntity;
+import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.prepare.Context;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.PolyphenyHomeDirManager;
+import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
+import org.polypheny.db.util.background.BackgroundTask.TaskSchedulingType;
+import org.polypheny.db.util.background.BackgroundTaskManager;
+
+@Slf4j
+@Extension
+@AdapterProperties(
+        name = "Columnar",
+        description = "An embedded store which keeps all data in memory as compressed column chunks. It is suited for analytical queries. The data is made durable by periodic snapshots, changes committed after the last snapshot are lost on a crash.",
+        usedModes = DeployMode.EMBEDDED,
+        defaultMode = DeployMode.EMBEDDED)
+@AdapterSettingInteger(name = "chunkSize", defaultValue = 4096, position = 1,
+        description = "Number of rows per row group. Larger groups compress better, smaller groups allow skipping more data.")
+@AdapterSettingList(name = "snapshotInterval", options = { "EVERY_TEN_SECONDS", "EVERY_MINUTE", "EVERY_TEN_MINUTES" }, defaultValue = "EVERY_MINUTE", position = 2,
+        description = "How often changed tables are written to disk.")
+public class ColumnarStore extends DataStore<RelAdapterCatalog> {
+
+    @Delegate(excludes = Exclude.class)
+    private final RelationalModifyDelegate delegate;
+
+    private final File rootDir;
+    @Getter
+    private final ColumnarStorage storage;
+    private final String snapshotTaskId;
+    @Getter
+    private ColumnarNamespace currentNamespace;
+
+    @Getter
+    private final List<PolyType> unsupportedTypes = ImmutableList.of( PolyType.ARRAY, PolyType.MAP );
+
+
+    public ColumnarStore( final long storeId, final String uniqueName, final Map<String, String> settings, final DeployMode mode ) {
+        super( storeId, uniqueName, settings, mode, true, new RelAdapterCatalog( storeId ) );
+        PolyphenyHomeDirManager fileManager = PolyphenyHomeDirManager.getInstance();
+        File adapterRoot = fileManager.registerNewFolder( "data/columnar-store" );
+        rootDir = fileManager.registerNewFolder( adapterRoot, "store" + getAdapterId() );
+
+        int chunkSize = Integer.parseInt( settings.get( "chunkSize" ) );
+        if ( chunkSize < 1 ) {
+            throw new GenericRuntimeException( "The chunk size has to be positive" );
+        }
+        storage = new ColumnarStorage( rootDir, chunkSize );
+        snapshotTaskId = BackgroundTaskManager.INSTANCE.registerTask(
+                storage::snapshot,
+                "Write snapshots of columnar store " + uniqueName,
+                TaskPriority.LOW,
+                TaskSchedulingType.valueOf( settings.get( "snapshotInterval" ) ) );
+
+        this.delegate = new RelationalModifyDelegate( this, adapterCatalog );
+    }
+
+
+    @Override
+    public void updateNamespace( String name, long id ) {
+        if ( currentNamespace == null ) {
+            currentNamespace = new ColumnarNamespace( id, adapterId, name, this );
+        }
+
+        putNamespace( currentNamespace );
+    }
+
+
+    @Override
+    public List<PhysicalEntity> createTable( Context context, LogicalTableWrapper logical, AllocationTableWrapper allocationWrapper ) {
+        context.getStatement().getTransaction().registerInvolvedAdapter( this );
+        updateNamespace( logical.table.getNamespaceName(), logical.table.namespaceId );
+
+        PhysicalTable table = adapterCatalog.createTable(
+                logical.table.getNamespaceName(),
+                getPhysicalTableName( allocationWrapper.table.id ),
+                allocationWrapper.columns.stream().collect( Collectors.toMap( c -> c.columnId, c -> getPhysicalColumnName( c.columnId ) ) ),
+                logical.table,
+                logical.columns.stream().collect( Collectors.toMap( c -> c.id, c -> c ) ),
+                logical.pkIds, allocationWrapper );
+
+        storage.createTable( allocationWrapper.table.id, table.getColumnIds(), logical.pkIds );
+
+        ColumnarEntity physical = currentNamespace.createEntity( table, logical.pkIds );
+        adapterCatalog.replacePhysical( physical );
+        return List.of( physical );
+    }
+
+
+    private static String getPhysicalTableName( long allocId ) {
+        return "tab" + allocId;
+    }
+
+
+    private static String getPhysicalColumnName( long columnId ) {
+        return "col" + columnId;
+    }
+
+
+    @Override
+    public void dropTable( Context context, long allocId ) {
+        context.getStatement().getTransaction().registerInvolvedAdapter( this );
+        storage.dropTable( allocId );
+        adapterCatalog.removeAllocAndPhysical( allocId );
+    }
+
+
+    @Override
+    public void renameLogicalColumn( long id, String newColumnName ) {
+        long allocId = adapterCatalog.fields.values().stream().filter( c -> c.id == id ).map( c -> c.allocId ).findFirst().orElseThrow();
+        ColumnarEntity table = adapterCatalog.fromAllocation( allocId ).unwrapOrThrow( ColumnarEntity.class );
+
+        adapterCatalog.renameLogicalColumn( id, newColumnName );
+
+        updateNativePhysical( allocId, table.getPkIds() );
+    }
+
+
+    @Override
+    public void addColumn( Context context, long allocId, LogicalColumn logicalColumn ) {
+        context.getStatement().getTransaction().registerInvolvedAdapter( this );
+        ColumnarEntity table = adapterCatalog.fromAllocation( allocId ).unwrapOrThrow( ColumnarEntity.class );
+        int max = adapterCatalog.getColumns( allocId ).stream().max( Comparator.comparingInt( a -> a.position ) ).orElseThrow().position;
+        PhysicalColumn column = adapterCatalog.addColumn( getPhysicalColumnName( logicalColumn.id ), allocId, max + 1, logicalColumn );
+
+        PolyValue defaultValue = column.defaultValue == null ? null : ColumnarExecutor.normalize( column.defaultValue.value, column.type );
+        storage.getTable( allocId ).addColumn( column.id, defaultValue );
+
+        updateNativePhysical( allocId, table.getPkIds() );
+    }
+
+
+    @Override
+    public void dropColumn( Context context, long allocId, long columnId ) {
+        context.getStatement().getTransaction().registerInvolvedAdapter( this );
+        ColumnarEntity table = adapterCatalog.fromAllocation( allocId ).unwrapOrThrow( ColumnarEntity.class );
+
+        adapterCatalog.dropColumn( allocId, columnId );
+        storage.getTable( allocId ).dropColumn( columnId );
+
+        updateNativePhysical( allocId, table.getPkIds() );
+    }
+
+
+    private void updateNativePhysical( long allocId, List<Long> pkIds ) {
+        PhysicalTable table = adapterCatalog.fromAllocation( allocId );
+        adapterCatalog.replacePhysical( currentNamespace.createEntity( table, pkIds ) );
+    }
+
+
+    @Override
+    public String addIndex( Context context, LogicalIndex index, AllocationTable allocation ) {
+        throw new GenericRuntimeException( "Columnar adapter does not support adding indexes" );
+    }
+
+
+    @Override
+    public void dropIndex( Context context, LogicalIndex catalogIndex, long allocId ) {
+        throw new GenericRuntimeException( "Columnar adapter does not support dropping indexes" );
+    }
+
+
+    @Override
+    public void updateColumnType( Context context, long allocId, LogicalColumn newCol ) {
+        throw new GenericRuntimeException( "Columnar adapter does not support updating column types!" );
+    }
+
+
+    @Override
+    public boolean prepare( PolyXid xid ) {
+        return storage.prepare( xid );
+    }
+
+
+    @Override
+    public void commit( PolyXid xid ) {
+        storage.commit( xid );
+    }
+
+
+    @Override
+    public void rollback( PolyXid xid ) {
+        storage.rollback( xid );
+    }
+
+
+    @Override
+    public void truncate( Context context, long allocId ) {
+        storage.getTable( allocId ).truncate();
+    }
+
+
+    @Override
+    public List<IndexMethodModel> getAvailableIndexMethods() {
+        return ImmutableList.of();
+    }
+
+
+    @Override
+    public IndexMethodModel getDefaultIndexMethod() {
+        throw new GenericRuntimeException( "Columnar adapter does not support adding indexes" );
+    }
+
+
+    @Override
+    public List<FunctionalIndexInfo> getFunctionalIndexes( LogicalTable catalogTable ) {
+        List<Long> pkIds = Catalog.snapshot().rel().getPrimaryKey( catalogTable.primaryKey ).orElseThrow().fieldIds;
+        return ImmutableList.of( new FunctionalIndexInfo( pkIds, "PRIMARY (unique)" ) );
+    }
+
+
+    @Override
+    public void shutdown() {
+        log.info( "Shutting down columnar store '{}'", getUniqueName() );
+        BackgroundTaskManager.INSTANCE.removeBackgroundTask( snapshotTaskId );
+        try {
+            FileUtils.deleteDirectory( rootDir );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not delete the snapshots of the columnar store", e );
+        }
+    }
+
+
+    @Override
+    protected void reloadSettings( List<String> updatedSettings ) {
+        throw new UnsupportedOperationException( "Cannot change the settings of the columnar store" );
+    }
+
+
+    @Override
+    public void restoreTable( AllocationTable alloc, List<PhysicalEntity> entities, Context context ) {
+        for ( PhysicalEntity entity : entities ) {
+            PhysicalTable table = entity.unwrapOrThrow( PhysicalTable.class );
+            updateNamespace( table.namespaceName, table.namespaceId );
+            storage.restoreTable( alloc.id, table.getColumnIds(), table.uniqueFieldIds );
+            adapterCatalog.addPhysical( alloc, currentNamespace.createEntity( table, table.uniqueFieldIds ) );
+        }
+    }
+
+
+    @Override
+    public void restoreGraph( AllocationGraph alloc, List<PhysicalEntity> entities, Context context ) {
+        // already created substitution with the restore tables
+        // restore link between alloc and physical
+        adapterCatalog.addPhysical( alloc, entities.toArray( new PhysicalEntity[]{} ) );
+    }
+
+
+    @Override
+    public void restoreCollection( AllocationCollection alloc, List<PhysicalEntity> entities, Context context ) {
+        // already created substitution with the restore tables
+        // restore link between alloc and physical
+        adapterCatalog.addPhysical( alloc, entities.toArray( new PhysicalEntity[]{} ) );
+    }
+
+
+    @SuppressWarnings("unused")
+    public interface Exclude {
+
+        void renameLogicalColumn( long id, String name );
+
+        void dropIndex( Context context, LogicalIndex catalogIndex, long allocId );
+
+        String addIndex( Context context, LogicalIndex index, AllocationTable allocation );
+
+        void dropColumn( Context context, long allocId, long columnId );
+
+        void dropTable( Context context, long allocId );
+
+        void updateColumnType( Context context, long allocId, LogicalColumn newCol );
+
+        void addColumn( Context context, long allocId, LogicalColumn logicalColumn );
+
+        void refreshTable( long allocId );
+
+        void createTable( Context context, LogicalTableWrapper logical, AllocationTableWrapper allocationWrapper );
+
+        void restoreTable( AllocationTable alloc, List<PhysicalEntity> entities, Context context );
+
+        void restoreGraph( AllocationGraph alloc, List<PhysicalEntity> entities, Context context );
+
+        void restoreCollection( AllocationCollection alloc, List<PhysicalEntity> entities, Context context );
+
+    }
+
+}
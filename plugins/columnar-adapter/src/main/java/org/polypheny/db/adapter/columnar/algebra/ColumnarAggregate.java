@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.polypheny.db.adapter.columnar.ColumnAggregate;
+import org.polypheny.db.adapter.columnar.ColumnarAlg;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.schema.trait.ModelTrait;
+import org.polypheny.db.util.ImmutableBitSet;
+
+
+/**
+ * An aggregation which is computed while scanning the column chunks. Without filter and grouping, COUNT, MIN and MAX
+ * are answered from the zone maps of the row groups.
+ */
+public class ColumnarAggregate extends Aggregate implements ColumnarAlg {
+
+    public ColumnarAggregate( AlgCluster cluster, AlgTraitSet traits, AlgNode child, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        super( cluster, traits.replace( ModelTrait.RELATIONAL ), child, indicator, groupSet, groupSets, aggCalls );
+    }
+
+
+    @Override
+    public Aggregate copy( AlgTraitSet traitSet, AlgNode input, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        return new ColumnarAggregate( getCluster(), traitSet, input, indicator, groupSet, groupSets, aggCalls );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.1 );
+    }
+
+
+    @Override
+    public void implement( ColumnarImplementor implementor ) {
+        implementor.visitChild( 0, getInput() );
+        List<Integer> groupKeys = new ArrayList<>();
+        for ( int key : groupSet ) {
+            groupKeys.add( implementor.resolveColumn( key ) );
+        }
+        List<ColumnAggregate> aggregates = new ArrayList<>();
+        for ( AggregateCall call : aggCalls ) {
+            int column = call.getArgList().isEmpty() ? -1 : implementor.resolveColumn( call.getArgList().get( 0 ) );
+            aggregates.add( new ColumnAggregate( call.getAggregation().getKind(), column, call.type.getPolyType() ) );
+        }
+        implementor.aggregate( groupKeys, aggregates );
+    }
+
+}
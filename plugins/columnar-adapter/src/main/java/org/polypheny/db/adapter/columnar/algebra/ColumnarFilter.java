@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.adapter.columnar.ColumnarAlg;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.schema.trait.ModelTrait;
+
+
+/**
+ * A conjunction of simple comparisons, which is evaluated column-wise within the store, see {@link ColumnarRules#isSupportedCondition}.
+ */
+public class ColumnarFilter extends Filter implements ColumnarAlg {
+
+    protected ColumnarFilter( AlgCluster cluster, AlgTraitSet traits, AlgNode child, RexNode condition ) {
+        super( cluster, traits.replace( ModelTrait.RELATIONAL ), child, condition );
+    }
+
+
+    @Override
+    public Filter copy( AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        return new ColumnarFilter( getCluster(), traitSet, input, condition );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.1 );
+    }
+
+
+    @Override
+    public void implement( ColumnarImplementor implementor ) {
+        implementor.visitChild( 0, getInput() );
+        for ( RexNode node : AlgOptUtil.conjunctions( condition ) ) {
+            RexCall call = (RexCall) node;
+            RexNode left = call.getOperands().get( 0 );
+            if ( call.getOperands().size() == 1 ) {
+                implementor.addPredicate( new ColumnPredicate( implementor.resolveColumn( ((RexIndexRef) left).getIndex() ), call.getKind(), null ) );
+                continue;
+            }
+            RexNode right = call.getOperands().get( 1 );
+            if ( left instanceof RexIndexRef ref ) {
+                implementor.addPredicate( new ColumnPredicate( implementor.resolveColumn( ref.getIndex() ), call.getKind(), ColumnarProject.toValue( right, implementor ) ) );
+            } else {
+                // The column is on the right side, e.g. 5 < x
+                Kind kind = call.getKind().reverse();
+                implementor.addPredicate( new ColumnPredicate( implementor.resolveColumn( ((RexIndexRef) right).getIndex() ), kind, ColumnarProject.toValue( left, implementor ) ) );
+            }
+        }
+    }
+
+}
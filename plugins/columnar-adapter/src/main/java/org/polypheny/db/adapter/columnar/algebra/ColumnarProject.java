@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.polypheny.db.adapter.columnar.ColumnValue;
+import org.polypheny.db.adapter.columnar.ColumnarAlg;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor.Operation;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+
+
+public class ColumnarProject extends Project implements ColumnarAlg {
+
+    public ColumnarProject( AlgCluster cluster, AlgTraitSet traits, AlgNode input, List<? extends RexNode> projects, AlgDataType rowType ) {
+        super( cluster, traits, input, projects, rowType );
+    }
+
+
+    @Override
+    public Project copy( AlgTraitSet traitSet, AlgNode input, List<RexNode> projects, AlgDataType rowType ) {
+        return new ColumnarProject( getCluster(), traitSet, input, projects, rowType );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.1 );
+    }
+
+
+    @Override
+    public void implement( ColumnarImplementor implementor ) {
+        implementor.visitChild( 0, getInput() );
+        if ( implementor.getOperation() != Operation.INSERT ) {
+            List<ColumnValue> projection = new ArrayList<>( exps.size() );
+            for ( RexNode node : exps ) {
+                projection.add( toValue( node, implementor ) );
+            }
+            implementor.project( projection );
+            return;
+        }
+
+        // The rows to insert are the values of the child (if any), mapped through this projection
+        List<List<ColumnValue>> rows = implementor.getInsertRows();
+        if ( rows.isEmpty() ) {
+            rows.add( map( null ) );
+            return;
+        }
+        rows.replaceAll( this::map );
+    }
+
+
+    private List<ColumnValue> map( List<ColumnValue> input ) {
+        List<ColumnValue> row = new ArrayList<>( exps.size() );
+        for ( RexNode node : exps ) {
+            if ( node instanceof RexIndexRef ref ) {
+                if ( input == null ) {
+                    throw new GenericRuntimeException( "Could not implement insert with a reference to an input field" );
+                }
+                row.add( input.get( ref.getIndex() ) );
+            } else {
+                row.add( toValue( node, null ) );
+            }
+        }
+        return row;
+    }
+
+
+    /**
+     * Translates an input reference, a literal or a dynamic parameter.
+     *
+     * @param implementor Used to resolve input references, may be {@code null} if the node is no input reference
+     */
+    static ColumnValue toValue( RexNode node, ColumnarImplementor implementor ) {
+        if ( node instanceof RexIndexRef ref ) {
+            return implementor.resolve( ref.getIndex() );
+        } else if ( node instanceof RexLiteral literal ) {
+            return ColumnValue.literal( literal.value );
+        } else if ( node instanceof RexDynamicParam param ) {
+            return ColumnValue.parameter( param.getIndex() );
+        }
+        throw new GenericRuntimeException( "Could not implement " + node.getClass().getSimpleName() + " " + node );
+    }
+
+}
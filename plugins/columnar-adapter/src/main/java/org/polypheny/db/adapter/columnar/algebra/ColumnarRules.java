@@ -0,0 +1,346 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.polypheny.db.adapter.columnar.ColumnAggregate;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.adapter.columnar.ColumnarConvention;
+import org.polypheny.db.adapter.columnar.ColumnarEntity;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.core.relational.RelModify;
+import org.polypheny.db.algebra.enumerable.EnumerableConvention;
+import org.polypheny.db.algebra.util.UnsupportedRelFromInsertShuttle;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.volcano.AlgSubset;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.tools.AlgBuilderFactory;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.Util;
+
+
+/**
+ * Rules which push scans, simple filters and projections, aggregations and modifications into the columnar store.
+ * Everything the store cannot evaluate itself stays in the enumerable convention.
+ */
+public class ColumnarRules {
+
+    public static List<AlgOptRule> rules( ColumnarConvention out ) {
+        return ImmutableList.of(
+                new ColumnarToEnumerableConverterRule( out, AlgFactories.LOGICAL_BUILDER ),
+                new ColumnarProjectRule( out, AlgFactories.LOGICAL_BUILDER ),
+                new ColumnarFilterRule( out, AlgFactories.LOGICAL_BUILDER ),
+                new ColumnarAggregateRule( out, AlgFactories.LOGICAL_BUILDER ),
+                new ColumnarValuesRule( out, AlgFactories.LOGICAL_BUILDER ),
+                new ColumnarTableModificationRule( out, AlgFactories.LOGICAL_BUILDER )
+        );
+    }
+
+
+    /**
+     * @return Whether the node is a literal or a dynamic parameter
+     */
+    static boolean isValue( RexNode node ) {
+        return node instanceof RexLiteral || node instanceof RexDynamicParam;
+    }
+
+
+    /**
+     * Checks that the input of a node produces table columns for the given fields. Nodes above an aggregation are not pushed,
+     * as the store returns the result of an aggregation directly.
+     */
+    static boolean refersToColumns( AlgNode input, Set<Integer> fields ) {
+        AlgNode node = input instanceof AlgSubset subset ? subset.getOriginal() : input;
+        if ( node instanceof Aggregate ) {
+            return false;
+        }
+        if ( node instanceof Project project ) {
+            return fields.stream().allMatch( f -> project.getProjects().get( f ) instanceof RexIndexRef );
+        }
+        return true;
+    }
+
+
+    /**
+     * A condition is supported if it is a conjunction of comparisons between a column and a literal or a dynamic parameter
+     * with a comparable type.
+     */
+    static boolean isSupportedCondition( RexNode condition ) {
+        for ( RexNode node : AlgOptUtil.conjunctions( condition ) ) {
+            if ( !(node instanceof RexCall call) || !ColumnPredicate.SUPPORTED_KINDS.contains( call.getKind() ) ) {
+                return false;
+            }
+            List<RexNode> operands = call.getOperands();
+            if ( operands.size() == 1 ) {
+                if ( !(operands.get( 0 ) instanceof RexIndexRef) ) {
+                    return false;
+                }
+                continue;
+            }
+            RexNode left = operands.get( 0 );
+            RexNode right = operands.get( 1 );
+            boolean supported = (left instanceof RexIndexRef && isValue( right )) || (isValue( left ) && right instanceof RexIndexRef);
+            if ( !supported || !isComparable( left.getType().getPolyType(), right.getType().getPolyType() ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean isComparable( PolyType a, PolyType b ) {
+        if ( PolyType.NUMERIC_TYPES.contains( a ) ) {
+            return PolyType.NUMERIC_TYPES.contains( b );
+        } else if ( PolyType.CHAR_TYPES.contains( a ) ) {
+            return PolyType.CHAR_TYPES.contains( b );
+        }
+        return a == b && (PolyType.BOOLEAN_TYPES.contains( a ) || PolyType.DATETIME_TYPES.contains( a ));
+    }
+
+
+    private static Set<Integer> referencedFields( RexNode condition ) {
+        return AlgOptUtil.InputFinder.bits( condition ).asSet();
+    }
+
+
+    static class ColumnarTableModificationRule extends ConverterRule {
+
+        protected final ColumnarConvention convention;
+
+
+        public ColumnarTableModificationRule( ColumnarConvention out, AlgBuilderFactory algBuilderFactory ) {
+            super( RelModify.class, ColumnarTableModificationRule::supports, Convention.NONE, out, algBuilderFactory, "ColumnarTableModificationRule:" + out.getName() );
+            this.convention = out;
+        }
+
+
+        private static boolean supports( RelModify<?> node ) {
+            if ( node.isInsert() && node.containsScan() ) {
+                // insert from select is not implemented
+                return false;
+            }
+            return node.getSourceExpressions() == null || node.getSourceExpressions().stream().allMatch( ColumnarRules::isValue );
+        }
+
+
+        @Override
+        public boolean matches( AlgOptRuleCall call ) {
+            final RelModify<?> modify = call.alg( 0 );
+            if ( modify.getEntity() == null || modify.getEntity().unwrap( ColumnarEntity.class ).isEmpty() ) {
+                return false;
+            }
+            return !modify.isInsert() || !UnsupportedRelFromInsertShuttle.contains( modify );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final RelModify<?> modify = (RelModify<?>) alg;
+            final AlgTraitSet traitSet = modify.getTraitSet().replace( convention );
+            return new ColumnarTableModify(
+                    modify.getCluster(),
+                    traitSet,
+                    modify.getEntity().unwrap( ColumnarEntity.class ).orElseThrow(),
+                    AlgOptRule.convert( modify.getInput(), traitSet ),
+                    modify.getOperation(),
+                    modify.getUpdateColumns(),
+                    modify.getSourceExpressions(),
+                    modify.isFlattened() );
+        }
+
+    }
+
+
+    static class ColumnarToEnumerableConverterRule extends ConverterRule {
+
+        public ColumnarToEnumerableConverterRule( ColumnarConvention convention, AlgBuilderFactory algBuilderFactory ) {
+            super( AlgNode.class, Util::containsEntity, convention, EnumerableConvention.INSTANCE, algBuilderFactory, "ColumnarToEnumerableConverterRule:" + convention.getName() );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            AlgTraitSet newTraitSet = alg.getTraitSet().replace( getOutTrait() );
+            return new ColumnarToEnumerableConverter( alg.getCluster(), newTraitSet, alg );
+        }
+
+    }
+
+
+    static class ColumnarProjectRule extends ConverterRule {
+
+        protected final ColumnarConvention convention;
+
+
+        public ColumnarProjectRule( ColumnarConvention out, AlgBuilderFactory algBuilderFactory ) {
+            super( Project.class, p -> p.getProjects().stream().allMatch( e -> e instanceof RexIndexRef || isValue( e ) ), Convention.NONE, out, algBuilderFactory, "ColumnarProjectRule:" + out.getName() );
+            this.convention = out;
+        }
+
+
+        @Override
+        public boolean matches( AlgOptRuleCall call ) {
+            Project project = call.alg( 0 );
+            return refersToColumns( project.getInput(), Set.of() );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final Project project = (Project) alg;
+            final AlgTraitSet traitSet = project.getTraitSet().replace( convention );
+            return new ColumnarProject(
+                    project.getCluster(),
+                    traitSet,
+                    convert( project.getInput(), project.getInput().getTraitSet().replace( convention ) ),
+                    project.getProjects(),
+                    project.getTupleType() );
+        }
+
+    }
+
+
+    static class ColumnarFilterRule extends ConverterRule {
+
+        protected final ColumnarConvention convention;
+
+
+        public ColumnarFilterRule( ColumnarConvention out, AlgBuilderFactory algBuilderFactory ) {
+            super( Filter.class, f -> isSupportedCondition( f.getCondition() ), Convention.NONE, out, algBuilderFactory, "ColumnarFilterRule:" + out.getName() );
+            this.convention = out;
+        }
+
+
+        @Override
+        public boolean matches( AlgOptRuleCall call ) {
+            Filter filter = call.alg( 0 );
+            return refersToColumns( filter.getInput(), referencedFields( filter.getCondition() ) );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final Filter filter = (Filter) alg;
+            final AlgTraitSet traitSet = filter.getTraitSet().replace( convention );
+            return new ColumnarFilter(
+                    filter.getCluster(),
+                    traitSet,
+                    convert( filter.getInput(), filter.getInput().getTraitSet().replace( convention ) ),
+                    filter.getCondition() );
+        }
+
+    }
+
+
+    static class ColumnarAggregateRule extends ConverterRule {
+
+        protected final ColumnarConvention convention;
+
+
+        public ColumnarAggregateRule( ColumnarConvention out, AlgBuilderFactory algBuilderFactory ) {
+            super( Aggregate.class, ColumnarAggregateRule::supports, Convention.NONE, out, algBuilderFactory, "ColumnarAggregateRule:" + out.getName() );
+            this.convention = out;
+        }
+
+
+        private static boolean supports( Aggregate aggregate ) {
+            if ( aggregate.indicator || aggregate.getGroupSets().size() != 1 ) {
+                // GROUPING SETS, CUBE and ROLLUP are not supported
+                return false;
+            }
+            for ( AggregateCall call : aggregate.getAggCallList() ) {
+                if ( !ColumnAggregate.SUPPORTED_KINDS.contains( call.getAggregation().getKind() ) || call.isDistinct() || call.hasFilter() || call.getArgList().size() > 1 ) {
+                    return false;
+                }
+                if ( call.getArgList().isEmpty() && call.getAggregation().getKind() != Kind.COUNT ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        @Override
+        public boolean matches( AlgOptRuleCall call ) {
+            Aggregate aggregate = call.alg( 0 );
+            Set<Integer> fields = new HashSet<>( aggregate.getGroupSet().asSet() );
+            aggregate.getAggCallList().forEach( c -> fields.addAll( c.getArgList() ) );
+            return refersToColumns( aggregate.getInput(), fields );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final Aggregate aggregate = (Aggregate) alg;
+            final AlgTraitSet traitSet = aggregate.getTraitSet().replace( convention );
+            return new ColumnarAggregate(
+                    aggregate.getCluster(),
+                    traitSet,
+                    convert( aggregate.getInput(), aggregate.getInput().getTraitSet().replace( convention ) ),
+                    aggregate.indicator,
+                    aggregate.getGroupSet(),
+                    aggregate.getGroupSets(),
+                    aggregate.getAggCallList() );
+        }
+
+    }
+
+
+    static class ColumnarValuesRule extends ConverterRule {
+
+        ColumnarConvention convention;
+
+
+        ColumnarValuesRule( ColumnarConvention out, AlgBuilderFactory algBuilderFactory ) {
+            super( Values.class, r -> true, Convention.NONE, out, algBuilderFactory, "ColumnarValuesRule:" + out.getName() );
+            this.convention = out;
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            Values values = (Values) alg;
+            return new ColumnarValues(
+                    values.getCluster(),
+                    values.getTupleType(),
+                    values.getTuples(),
+                    values.getTraitSet().replace( convention ) );
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import java.util.List;
+import org.polypheny.db.adapter.columnar.ColumnarAlg;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor.Operation;
+import org.polypheny.db.adapter.columnar.ColumnarEntity;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.relational.RelScan;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.entity.Entity;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.schema.trait.ModelTrait;
+
+
+public class ColumnarScan extends RelScan<ColumnarEntity> implements ColumnarAlg {
+
+    private final ColumnarEntity columnarEntity;
+
+
+    public ColumnarScan( AlgCluster cluster, Entity table, ColumnarEntity columnarEntity ) {
+        super( cluster, cluster.traitSetOf( columnarEntity.getNamespace().getConvention() ).replace( ModelTrait.RELATIONAL ), columnarEntity );
+        this.columnarEntity = columnarEntity;
+    }
+
+
+    @Override
+    public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new ColumnarScan( getCluster(), entity, columnarEntity );
+    }
+
+
+    @Override
+    public AlgDataType deriveRowType() {
+        return columnarEntity.getTupleType();
+    }
+
+
+    @Override
+    public void register( AlgPlanner planner ) {
+        getConvention().register( planner );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.1 );
+    }
+
+
+    @Override
+    public void implement( ColumnarImplementor implementor ) {
+        implementor.setEntity( columnarEntity );
+        //only set SELECT operation if we're not in a insert/update/delete
+        if ( implementor.getOperation() == null ) {
+            implementor.setOperation( Operation.SELECT );
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import java.util.List;
+import org.polypheny.db.adapter.columnar.ColumnarAlg;
+import org.polypheny.db.adapter.columnar.ColumnarEntity;
+import org.polypheny.db.algebra.AbstractAlgNode;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.relational.RelModify;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexNode;
+
+
+public class ColumnarTableModify extends RelModify<ColumnarEntity> implements ColumnarAlg {
+
+    public ColumnarTableModify( AlgCluster cluster, AlgTraitSet traits, ColumnarEntity table, AlgNode child, Operation operation, List<String> updateColumnList, List<? extends RexNode> sourceExpressionList, boolean flattened ) {
+        super( cluster, traits, table, child, operation, updateColumnList, sourceExpressionList, flattened );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.1 );
+    }
+
+
+    @Override
+    public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new ColumnarTableModify(
+                getCluster(),
+                traitSet,
+                entity,
+                AbstractAlgNode.sole( inputs ),
+                getOperation(),
+                getUpdateColumns(),
+                getSourceExpressions(),
+                isFlattened() );
+    }
+
+
+    @Override
+    public void register( AlgPlanner planner ) {
+        getConvention().register( planner );
+    }
+
+
+    @Override
+    public void implement( final ColumnarImplementor implementor ) {
+        implementor.setOperation( switch ( getOperation() ) {
+            case INSERT -> ColumnarImplementor.Operation.INSERT;
+            case UPDATE -> ColumnarImplementor.Operation.UPDATE;
+            case DELETE -> ColumnarImplementor.Operation.DELETE;
+            default -> throw new GenericRuntimeException( "The columnar adapter does not support %s operations", getOperation() );
+        } );//do it first, so children know that we have an insert/update/delete
+        implementor.visitChild( 0, getInput() );
+        implementor.setEntity( entity );
+
+        if ( getOperation() == Operation.UPDATE ) {
+            for ( int i = 0; i < getUpdateColumns().size(); i++ ) {
+                int column = entity.getTupleType().getField( getUpdateColumns().get( i ), false, false ).getIndex();
+                implementor.addUpdate( column, ColumnarProject.toValue( getSourceExpressions().get( i ), null ) );
+            }
+        }
+    }
+
+}
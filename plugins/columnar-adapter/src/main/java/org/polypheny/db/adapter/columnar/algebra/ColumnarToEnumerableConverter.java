@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Blocks;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.columnar.ColumnAggregate;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.adapter.columnar.ColumnValue;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor;
+import org.polypheny.db.adapter.columnar.ColumnarAlg.ColumnarImplementor.Operation;
+import org.polypheny.db.adapter.columnar.ColumnarEntity;
+import org.polypheny.db.adapter.columnar.ColumnarMethod;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.enumerable.EnumerableAlg;
+import org.polypheny.db.algebra.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.algebra.enumerable.PhysType;
+import org.polypheny.db.algebra.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.catalog.entity.physical.PhysicalColumn;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.ConventionTraitDef;
+import org.polypheny.db.schema.types.Expressible;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+public class ColumnarToEnumerableConverter extends ConverterImpl implements EnumerableAlg {
+
+    public ColumnarToEnumerableConverter( AlgCluster cluster, AlgTraitSet traits, AlgNode input ) {
+        super( cluster, ConventionTraitDef.INSTANCE, traits, input );
+    }
+
+
+    @Override
+    public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new ColumnarToEnumerableConverter( getCluster(), traitSet, sole( inputs ) );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.1 );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder list = new BlockBuilder();
+        PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getTupleType(), pref.preferArray() );
+
+        ColumnarImplementor columnarImplementor = new ColumnarImplementor();
+        columnarImplementor.visitChild( 0, getInput() );
+        ColumnarEntity entity = columnarImplementor.getEntity();
+
+        List<Expression> columnIds = new ArrayList<>();
+        List<Expression> columnTypes = new ArrayList<>();
+        for ( PhysicalColumn column : entity.columns ) {
+            columnIds.add( Expressions.constant( column.id, Long.class ) );
+            columnTypes.add( Expressions.constant( column.type, PolyType.class ) );
+        }
+        Expression predicates = expressibles( ColumnPredicate.class, columnarImplementor.getPredicates() );
+
+        Expression enumerable;
+        if ( columnarImplementor.getOperation() == Operation.SELECT ) {
+            enumerable = list.append(
+                    "enumerable",
+                    Expressions.call(
+                            ColumnarMethod.EXECUTE.method,
+                            Expressions.constant( entity.getAdapterId() ),
+                            Expressions.constant( entity.allocationId ),
+                            DataContext.ROOT,
+                            Expressions.newArrayInit( Long.class, columnIds.toArray( new Expression[0] ) ),
+                            columnarImplementor.getProjection() == null ? Expressions.constant( null ) : expressibles( ColumnValue.class, columnarImplementor.getProjection() ),
+                            predicates,
+                            columnarImplementor.getGroupKeys() == null ? Expressions.constant( null ) : constants( columnarImplementor.getGroupKeys() ),
+                            columnarImplementor.getAggregates() == null ? Expressions.constant( null ) : expressibles( ColumnAggregate.class, columnarImplementor.getAggregates() ) ) );
+        } else {
+            List<Expression> insertRows = new ArrayList<>();
+            for ( List<ColumnValue> row : columnarImplementor.getInsertRows() ) {
+                insertRows.add( expressibles( ColumnValue.class, row ) );
+            }
+            enumerable = list.append(
+                    "enumerable",
+                    Expressions.call(
+                            ColumnarMethod.EXECUTE_MODIFY.method,
+                            Expressions.constant( columnarImplementor.getOperation() ),
+                            Expressions.constant( entity.getAdapterId() ),
+                            Expressions.constant( entity.allocationId ),
+                            DataContext.ROOT,
+                            Expressions.newArrayInit( Long.class, columnIds.toArray( new Expression[0] ) ),
+                            Expressions.newArrayInit( PolyType.class, columnTypes.toArray( new Expression[0] ) ),
+                            predicates,
+                            asList( List.class, insertRows ),
+                            constants( columnarImplementor.getUpdateColumns() ),
+                            expressibles( ColumnValue.class, columnarImplementor.getUpdateValues() ) ) );
+        }
+
+        list.add( Expressions.return_( null, enumerable ) );
+
+        return implementor.result( physType, Blocks.toBlock( list.toBlock() ) );
+    }
+
+
+    private static Expression expressibles( Class<? extends Expressible> type, List<? extends Expressible> values ) {
+        return asList( type, values.stream().map( Expressible::asExpression ).toList() );
+    }
+
+
+    private static Expression constants( List<Integer> values ) {
+        return asList( Integer.class, values.stream().map( v -> (Expression) Expressions.constant( v, Integer.class ) ).toList() );
+    }
+
+
+    private static Expression asList( Type type, List<Expression> expressions ) {
+        return Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, Expressions.newArrayInit( type, expressions ) );
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.algebra;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.polypheny.db.adapter.columnar.ColumnValue;
+import org.polypheny.db.adapter.columnar.ColumnarAlg;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgRecordType;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexLiteral;
+
+
+public class ColumnarValues extends Values implements ColumnarAlg {
+
+    protected ColumnarValues( AlgCluster cluster, AlgDataType rowType, ImmutableList<ImmutableList<RexLiteral>> tuples, AlgTraitSet traits ) {
+        super( cluster, rowType, tuples, traits );
+    }
+
+
+    @Override
+    public void implement( final ColumnarImplementor implementor ) {
+        AlgRecordType recordType = (AlgRecordType) getTupleType();
+        if ( recordType.isPrepared() ) {
+            // Batch insert, the values of every field are provided as dynamic parameters with the index of the field
+            List<ColumnValue> row = new ArrayList<>( recordType.getFieldCount() );
+            for ( int i = 0; i < recordType.getFieldCount(); i++ ) {
+                row.add( ColumnValue.parameter( i ) );
+            }
+            implementor.addInsertRow( row );
+            return;
+        }
+
+        for ( ImmutableList<RexLiteral> literalList : tuples ) {
+            List<ColumnValue> row = new ArrayList<>( literalList.size() );
+            for ( RexLiteral literal : literalList ) {
+                row.add( ColumnValue.literal( literal.value ) );
+            }
+            implementor.addInsertRow( row );
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * Frame-of-reference encoding for integer columns: every value is stored as its bit-packed distance to the minimum of the chunk.
+ * Comparisons with integer operands are evaluated on the primitive values without materializing them.
+ */
+final class BitPackedChunk extends ColumnChunk {
+
+    private final long base;
+    private final BitPackedInts offsets;
+    private final BitSet nulls;
+    private final boolean longs;
+
+
+    private BitPackedChunk( long base, BitPackedInts offsets, BitSet nulls, boolean longs, ZoneMap zoneMap ) {
+        super( offsets.getSize(), zoneMap );
+        this.base = base;
+        this.offsets = offsets;
+        this.nulls = nulls;
+        this.longs = longs;
+    }
+
+
+    /**
+     * @param values Values which are either all {@link PolyInteger} or all {@link PolyLong}, with at least one non-null value
+     * @return The chunk or {@code null} if the range of the values is too large to be represented
+     */
+    @Nullable
+    static BitPackedChunk of( List<PolyValue> values, ZoneMap zoneMap ) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        boolean longs = false;
+        for ( PolyValue value : values ) {
+            if ( value != null ) {
+                long v = value.asNumber().longValue();
+                min = Math.min( min, v );
+                max = Math.max( max, v );
+                longs = value instanceof PolyLong;
+            }
+        }
+        if ( max - min < 0 ) {
+            // Overflow, the range does not fit into 63 bits
+            return null;
+        }
+
+        long[] offsets = new long[values.size()];
+        BitSet nulls = new BitSet( values.size() );
+        for ( int i = 0; i < offsets.length; i++ ) {
+            PolyValue value = values.get( i );
+            if ( value == null ) {
+                nulls.set( i );
+            } else {
+                offsets[i] = value.asNumber().longValue() - min;
+            }
+        }
+        return new BitPackedChunk( min, BitPackedInts.pack( offsets, offsets.length ), nulls, longs, zoneMap );
+    }
+
+
+    @Override
+    public Encoding getEncoding() {
+        return Encoding.BIT_PACKED;
+    }
+
+
+    @Nullable
+    @Override
+    public PolyValue get( int row ) {
+        if ( nulls.get( row ) ) {
+            return null;
+        }
+        long value = base + offsets.get( row );
+        return longs ? PolyLong.of( value ) : PolyInteger.of( (int) value );
+    }
+
+
+    @Override
+    public void select( ColumnPredicate predicate, @Nullable PolyValue operand, BitSet selection ) {
+        if ( predicate.kind == Kind.IS_NULL || predicate.kind == Kind.IS_NOT_NULL || !(operand instanceof PolyInteger || operand instanceof PolyLong) ) {
+            super.select( predicate, operand, selection );
+            return;
+        }
+        long target = operand.asNumber().longValue();
+        for ( int i = selection.nextSetBit( 0 ); i >= 0 && i < size; i = selection.nextSetBit( i + 1 ) ) {
+            if ( nulls.get( i ) || !predicate.accepts( Long.compare( base + offsets.get( i ), target ) ) ) {
+                selection.clear( i );
+            }
+        }
+    }
+
+
+    @Override
+    void writeData( DataOutput out ) throws IOException {
+        out.writeLong( base );
+        out.writeBoolean( longs );
+        long[] words = nulls.toLongArray();
+        out.writeInt( words.length );
+        for ( long word : words ) {
+            out.writeLong( word );
+        }
+        offsets.write( out );
+    }
+
+
+    static BitPackedChunk read( DataInput in, int size, ZoneMap zoneMap ) throws IOException {
+        long base = in.readLong();
+        boolean longs = in.readBoolean();
+        long[] words = new long[in.readInt()];
+        for ( int i = 0; i < words.length; i++ ) {
+            words[i] = in.readLong();
+        }
+        return new BitPackedChunk( base, BitPackedInts.read( in ), BitSet.valueOf( words ), longs, zoneMap );
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import lombok.Getter;
+
+
+/**
+ * An immutable array of non-negative integers which are stored using only as many bits as the largest value requires.
+ */
+public final class BitPackedInts {
+
+    @Getter
+    private final int size;
+    @Getter
+    private final int bitWidth;
+    private final long[] words;
+
+
+    private BitPackedInts( int size, int bitWidth, long[] words ) {
+        this.size = size;
+        this.bitWidth = bitWidth;
+        this.words = words;
+    }
+
+
+    /**
+     * @return The number of bits required to store the given non-negative value
+     */
+    public static int bitsRequired( long maxValue ) {
+        return 64 - Long.numberOfLeadingZeros( maxValue );
+    }
+
+
+    public static BitPackedInts pack( long[] values, int size ) {
+        long max = 0;
+        for ( int i = 0; i < size; i++ ) {
+            if ( values[i] < 0 ) {
+                throw new IllegalArgumentException( "Only non-negative values can be bit-packed" );
+            }
+            max = Math.max( max, values[i] );
+        }
+        int bitWidth = bitsRequired( max );
+        long[] words = new long[(int) (((long) size * bitWidth + 63) >>> 6)];
+        for ( int i = 0; i < size && bitWidth > 0; i++ ) {
+            long bitIndex = (long) i * bitWidth;
+            int word = (int) (bitIndex >>> 6);
+            int offset = (int) (bitIndex & 63);
+            words[word] |= values[i] << offset;
+            if ( offset + bitWidth > 64 ) {
+                words[word + 1] |= values[i] >>> (64 - offset);
+            }
+        }
+        return new BitPackedInts( size, bitWidth, words );
+    }
+
+
+    public long get( int index ) {
+        if ( bitWidth == 0 ) {
+            return 0;
+        }
+        long bitIndex = (long) index * bitWidth;
+        int word = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+        long value = words[word] >>> offset;
+        if ( offset + bitWidth > 64 ) {
+            value |= words[word + 1] << (64 - offset);
+        }
+        return bitWidth == 64 ? value : value & ((1L << bitWidth) - 1);
+    }
+
+
+    public long getMemorySize() {
+        return (long) words.length * Long.BYTES;
+    }
+
+
+    void write( DataOutput out ) throws IOException {
+        out.writeInt( size );
+        out.writeByte( bitWidth );
+        out.writeInt( words.length );
+        for ( long word : words ) {
+            out.writeLong( word );
+        }
+    }
+
+
+    static BitPackedInts read( DataInput in ) throws IOException {
+        int size = in.readInt();
+        int bitWidth = in.readUnsignedByte();
+        long[] words = new long[in.readInt()];
+        for ( int i = 0; i < words.length; i++ ) {
+            words[i] = in.readLong();
+        }
+        return new BitPackedInts( size, bitWidth, words );
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * The values of one column within a {@link RowGroup}. Chunks are immutable and keep a zone map (minimum, maximum and number of nulls),
+ * which allows skipping chunks that cannot contain matching rows.
+ * <p>
+ * SQL NULL is represented by {@code null}.
+ */
+public abstract class ColumnChunk {
+
+    /**
+     * Run-length encoding is used if the average run is at least this long.
+     */
+    static final int MIN_AVERAGE_RUN_LENGTH = 4;
+
+    /**
+     * Dictionary encoding is used if every distinct value occurs at least this often on average.
+     */
+    static final int MIN_AVERAGE_DICTIONARY_OCCURRENCES = 2;
+
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+
+    public enum Encoding {
+        PLAIN,
+        RUN_LENGTH,
+        DICTIONARY,
+        BIT_PACKED
+    }
+
+
+    @Getter
+    protected final int size;
+    @Getter
+    @Nullable
+    private final PolyValue min;
+    @Getter
+    @Nullable
+    private final PolyValue max;
+    @Getter
+    private final int nullCount;
+
+
+    protected ColumnChunk( int size, ZoneMap zoneMap ) {
+        this.size = size;
+        this.min = zoneMap.min;
+        this.max = zoneMap.max;
+        this.nullCount = zoneMap.nullCount;
+    }
+
+
+    public abstract Encoding getEncoding();
+
+    /**
+     * @return The value of the given row or {@code null} for SQL NULL
+     */
+    @Nullable
+    public abstract PolyValue get( int row );
+
+    abstract void writeData( DataOutput out ) throws IOException;
+
+
+    /**
+     * Clears the bits of all selected rows whose value does not satisfy the predicate.
+     * Encodings override this to evaluate the predicate once per distinct value or on the encoded representation.
+     */
+    public void select( ColumnPredicate predicate, @Nullable PolyValue operand, BitSet selection ) {
+        for ( int i = selection.nextSetBit( 0 ); i >= 0 && i < size; i = selection.nextSetBit( i + 1 ) ) {
+            if ( !predicate.test( get( i ), operand ) ) {
+                selection.clear( i );
+            }
+        }
+    }
+
+
+    /**
+     * Encodes the values using the most compact encoding. The values have to be normalized to the type of the column.
+     */
+    public static ColumnChunk encode( List<PolyValue> values ) {
+        int size = values.size();
+        ZoneMap zoneMap = ZoneMap.of( values );
+
+        int runs = 0;
+        for ( int i = 0; i < size; i++ ) {
+            if ( i == 0 || !Objects.equals( values.get( i - 1 ), values.get( i ) ) ) {
+                runs++;
+            }
+        }
+        if ( (long) runs * MIN_AVERAGE_RUN_LENGTH <= size ) {
+            return RunLengthChunk.of( values, zoneMap );
+        }
+
+        if ( zoneMap.nullCount < size && isIntegral( values ) ) {
+            BitPackedChunk chunk = BitPackedChunk.of( values, zoneMap );
+            if ( chunk != null ) {
+                return chunk;
+            }
+        }
+
+        Map<PolyValue, Integer> dictionary = new HashMap<>();
+        int limit = Math.min( MAX_DICTIONARY_SIZE, size / MIN_AVERAGE_DICTIONARY_OCCURRENCES );
+        for ( PolyValue value : values ) {
+            if ( value != null ) {
+                dictionary.putIfAbsent( value, dictionary.size() );
+                if ( dictionary.size() > limit ) {
+                    return new PlainChunk( values.toArray( new PolyValue[0] ), zoneMap );
+                }
+            }
+        }
+        return DictionaryChunk.of( values, dictionary, zoneMap );
+    }
+
+
+    /**
+     * Stores the values without encoding them, used for row groups which are still filled.
+     */
+    public static ColumnChunk plain( List<PolyValue> values ) {
+        return new PlainChunk( values.toArray( new PolyValue[0] ), ZoneMap.of( values ) );
+    }
+
+
+    /**
+     * A chunk in which every row has the same value, used when a column is added to existing rows.
+     */
+    public static ColumnChunk constant( @Nullable PolyValue value, int size ) {
+        return RunLengthChunk.of( Collections.nCopies( size, value ), ZoneMap.of( value, size ) );
+    }
+
+
+    /**
+     * @return Whether all non-null values are stored as integers or all as longs
+     */
+    private static boolean isIntegral( List<PolyValue> values ) {
+        Class<?> clazz = null;
+        for ( PolyValue value : values ) {
+            if ( value == null ) {
+                continue;
+            }
+            if ( !(value instanceof PolyInteger || value instanceof PolyLong) || (clazz != null && clazz != value.getClass()) ) {
+                return false;
+            }
+            clazz = value.getClass();
+        }
+        return true;
+    }
+
+
+    public void write( DataOutput out ) throws IOException {
+        out.writeByte( getEncoding().ordinal() );
+        out.writeInt( size );
+        out.writeInt( nullCount );
+        writeValue( out, min );
+        writeValue( out, max );
+        writeData( out );
+    }
+
+
+    public static ColumnChunk read( DataInput in ) throws IOException {
+        Encoding encoding = Encoding.values()[in.readUnsignedByte()];
+        int size = in.readInt();
+        ZoneMap zoneMap = new ZoneMap( in.readInt(), readValue( in ), readValue( in ) );
+        return switch ( encoding ) {
+            case PLAIN -> PlainChunk.read( in, size, zoneMap );
+            case RUN_LENGTH -> RunLengthChunk.read( in, size, zoneMap );
+            case DICTIONARY -> DictionaryChunk.read( in, size, zoneMap );
+            case BIT_PACKED -> BitPackedChunk.read( in, size, zoneMap );
+        };
+    }
+
+
+    static void writeValue( DataOutput out, @Nullable PolyValue value ) throws IOException {
+        if ( value == null ) {
+            out.writeInt( -1 );
+            return;
+        }
+        byte[] bytes = value.toTypedJson().getBytes( StandardCharsets.UTF_8 );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+
+    @Nullable
+    static PolyValue readValue( DataInput in ) throws IOException {
+        int length = in.readInt();
+        if ( length < 0 ) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+        PolyValue value = PolyValue.fromTypedJson( new String( bytes, StandardCharsets.UTF_8 ), PolyValue.class );
+        if ( value == null ) {
+            throw new GenericRuntimeException( "Could not deserialize value of columnar snapshot" );
+        }
+        return value;
+    }
+
+
+    /**
+     * Minimum, maximum and number of nulls of a chunk. Minimum and maximum are {@code null} if the chunk contains only nulls
+     * or if its values are not comparable.
+     */
+    record ZoneMap( int nullCount, @Nullable PolyValue min, @Nullable PolyValue max ) {
+
+        static ZoneMap of( List<PolyValue> values ) {
+            int nullCount = 0;
+            PolyValue min = null;
+            PolyValue max = null;
+            boolean comparable = true;
+            for ( PolyValue value : values ) {
+                if ( value == null ) {
+                    nullCount++;
+                    continue;
+                }
+                if ( !comparable ) {
+                    continue;
+                }
+                if ( min == null ) {
+                    min = value;
+                    max = value;
+                    continue;
+                }
+                Integer minComparison = ColumnPredicate.compare( value, min );
+                Integer maxComparison = ColumnPredicate.compare( value, max );
+                if ( minComparison == null || maxComparison == null ) {
+                    comparable = false;
+                    continue;
+                }
+                if ( minComparison < 0 ) {
+                    min = value;
+                }
+                if ( maxComparison > 0 ) {
+                    max = value;
+                }
+            }
+            return comparable ? new ZoneMap( nullCount, min, max ) : new ZoneMap( nullCount, null, null );
+        }
+
+
+        static ZoneMap of( @Nullable PolyValue value, int size ) {
+            return value == null ? new ZoneMap( size, null, null ) : new ZoneMap( 0, value, value );
+        }
+
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.transaction.PolyXid;
+
+
+/**
+ * Keeps the tables of a columnar store in memory and makes them durable by periodically writing snapshots of the
+ * committed state of changed tables. Every table is written to its own file, which is replaced atomically.
+ */
+@Slf4j
+public class ColumnarStorage {
+
+    private static final int MAGIC = 0x50434f4c; // PCOL
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".col";
+    private static final String TEMP_PREFIX = "_";
+
+    private final File folder;
+    @Getter
+    private final int chunkSize;
+    private final Map<Long, ColumnarTable> tables = new ConcurrentHashMap<>();
+
+
+    public ColumnarStorage( File folder, int chunkSize ) {
+        this.folder = folder;
+        this.chunkSize = chunkSize;
+        File[] leftOvers = folder.listFiles( f -> f.getName().startsWith( TEMP_PREFIX ) );
+        if ( leftOvers != null ) {
+            for ( File file : leftOvers ) {
+                deleteFile( file );
+            }
+        }
+    }
+
+
+    private File getFile( long allocId ) {
+        return new File( folder, "tab" + allocId + SUFFIX );
+    }
+
+
+    public ColumnarTable createTable( long allocId, List<Long> columnIds, List<Long> primaryKey ) {
+        ColumnarTable table = new ColumnarTable( allocId, columnIds, primaryKey, chunkSize );
+        tables.put( allocId, table );
+        return table;
+    }
+
+
+    /**
+     * Loads the last snapshot of a table, or creates an empty table if it has not been written yet.
+     */
+    public ColumnarTable restoreTable( long allocId, List<Long> columnIds, List<Long> primaryKey ) {
+        File file = getFile( allocId );
+        if ( !file.exists() ) {
+            return createTable( allocId, columnIds, primaryKey );
+        }
+        ColumnarTable table;
+        try ( CheckedInputStream checked = new CheckedInputStream( new BufferedInputStream( new FileInputStream( file ) ), new CRC32() );
+                DataInputStream in = new DataInputStream( checked ) ) {
+            if ( in.readInt() != MAGIC || in.readInt() != VERSION ) {
+                throw new GenericRuntimeException( "%s is not a columnar snapshot", file.getAbsolutePath() );
+            }
+            table = ColumnarTable.read( in, allocId, chunkSize );
+            long checksum = checked.getChecksum().getValue();
+            if ( in.readLong() != checksum ) {
+                throw new GenericRuntimeException( "Snapshot %s is corrupted", file.getAbsolutePath() );
+            }
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read snapshot " + file.getAbsolutePath(), e );
+        }
+
+        // Columns which have been changed after the snapshot has been written
+        for ( long columnId : table.getColumnIds() ) {
+            if ( !columnIds.contains( columnId ) ) {
+                table.dropColumn( columnId );
+            }
+        }
+        for ( long columnId : columnIds ) {
+            if ( !table.getColumnIds().contains( columnId ) ) {
+                log.warn( "Column {} of allocation {} is missing in the snapshot and is restored with null values", columnId, allocId );
+                table.addColumn( columnId, null );
+            }
+        }
+        tables.put( allocId, table );
+        return table;
+    }
+
+
+    public ColumnarTable getTable( long allocId ) {
+        ColumnarTable table = tables.get( allocId );
+        if ( table == null ) {
+            throw new GenericRuntimeException( "Allocation %s is not stored in this columnar store", allocId );
+        }
+        return table;
+    }
+
+
+    public void dropTable( long allocId ) {
+        tables.remove( allocId );
+        deleteFile( getFile( allocId ) );
+    }
+
+
+    public boolean prepare( PolyXid xid ) {
+        return tables.values().stream().allMatch( t -> t.prepare( xid ) );
+    }
+
+
+    public void commit( PolyXid xid ) {
+        tables.values().forEach( t -> t.commit( xid ) );
+    }
+
+
+    public void rollback( PolyXid xid ) {
+        tables.values().forEach( t -> t.rollback( xid ) );
+    }
+
+
+    /**
+     * Writes a snapshot of every table which has changed since its last snapshot. Called periodically by a background task.
+     */
+    public void snapshot() {
+        for ( ColumnarTable table : tables.values() ) {
+            if ( !table.isDirty() ) {
+                continue;
+            }
+            try {
+                write( table );
+            } catch ( IOException | RuntimeException e ) {
+                log.warn( "Could not write snapshot of allocation {}", table.getAllocId(), e );
+            }
+        }
+    }
+
+
+    private void write( ColumnarTable table ) throws IOException {
+        File target = getFile( table.getAllocId() );
+        File tmp = new File( folder, TEMP_PREFIX + target.getName() );
+        try ( FileOutputStream file = new FileOutputStream( tmp ) ) {
+            CheckedOutputStream checked = new CheckedOutputStream( new BufferedOutputStream( file ), new CRC32() );
+            DataOutputStream out = new DataOutputStream( checked );
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            table.write( out );
+            out.writeLong( checked.getChecksum().getValue() );
+            out.flush();
+            file.getFD().sync();
+        } catch ( IOException | RuntimeException e ) {
+            deleteFile( tmp );
+            throw e;
+        }
+        if ( !tables.containsKey( table.getAllocId() ) ) {
+            // Dropped in the meantime
+            deleteFile( tmp );
+            return;
+        }
+        Files.move( tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+
+    private static void deleteFile( File file ) {
+        try {
+            Files.deleteIfExists( file.toPath() );
+        } catch ( IOException e ) {
+            log.warn( "Could not delete columnar snapshot {}", file.getAbsolutePath(), e );
+        }
+    }
+
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * An allocation of the columnar store. Committed rows are stored in immutable {@link RowGroup}s of at most {@code chunkSize} rows,
+ * only the last group is filled up by later commits. Its chunks stay unencoded until the group is full.
+ * <p>
+ * Changes of a transaction are kept in memory until it commits and are only visible to the transaction itself.
+ * Rows are addressed by their row id, which consists of the index of the group and the index of the row within the group.
+ * Rows inserted by the running transaction have negative ids. Like the other embedded stores, the table relies on the locks of
+ * the transaction manager: row ids only change when deleted rows are compacted, which is done while no transaction has pending changes.
+ */
+@Slf4j
+public class ColumnarTable {
+
+    /**
+     * Fraction of deleted rows from which on the row groups are rewritten.
+     */
+    static final double COMPACTION_THRESHOLD = 0.5;
+
+    @Getter
+    private final long allocId;
+    private final int chunkSize;
+    @Getter
+    private volatile List<Long> columnIds;
+    private final List<Long> primaryKey;
+    @Getter
+    private volatile List<RowGroup> groups = List.of();
+
+    private final Map<List<PolyValue>, Long> keys = new HashMap<>(); // primary key -> row id, guarded by this
+    private final Map<PolyXid, Pending> pending = new ConcurrentHashMap<>();
+    @Getter
+    private volatile boolean dirty = false;
+
+
+    public ColumnarTable( long allocId, List<Long> columnIds, List<Long> primaryKey, int chunkSize ) {
+        this.allocId = allocId;
+        this.columnIds = List.copyOf( columnIds );
+        this.primaryKey = List.copyOf( primaryKey );
+        this.chunkSize = chunkSize;
+    }
+
+
+    public static long rowId( int group, int row ) {
+        return ((long) group << 32) | row;
+    }
+
+
+    /**
+     * @return The rows of the group which are visible to the transaction, i.e. neither deleted nor deleted by the transaction itself
+     */
+    public BitSet getVisibleRows( PolyXid xid, int groupIndex, RowGroup group ) {
+        BitSet rows = group.getLiveRows();
+        Pending own = pending.get( xid );
+        if ( own != null ) {
+            BitSet deleted = own.deletes.get( groupIndex );
+            if ( deleted != null ) {
+                rows.andNot( deleted );
+            }
+        }
+        return rows;
+    }
+
+
+    /**
+     * @return Whether all committed rows of the group are visible to the transaction
+     */
+    public boolean isFullyVisible( PolyXid xid, int groupIndex, RowGroup group ) {
+        Pending own = pending.get( xid );
+        return !group.hasDeletions() && (own == null || !own.deletes.containsKey( groupIndex ));
+    }
+
+
+    /**
+     * @return The rows inserted by the transaction itself
+     */
+    public List<PendingRow> getPendingRows( PolyXid xid ) {
+        Pending own = pending.get( xid );
+        if ( own == null ) {
+            return List.of();
+        }
+        synchronized ( own ) {
+            List<PendingRow> rows = new ArrayList<>();
+            for ( int i = 0; i < own.inserts.size(); i++ ) {
+                if ( own.inserts.get( i ) != null ) {
+                    rows.add( new PendingRow( -(i + 1), own.inserts.get( i ) ) );
+                }
+            }
+            return rows;
+        }
+    }
+
+
+    /**
+     * Adds rows to the pending changes of a transaction.
+     *
+     * @param rows Values of all columns, in the order of {@link #getColumnIds()}
+     */
+    public void insert( PolyXid xid, List<PolyValue[]> rows ) {
+        Pending own = pending.computeIfAbsent( xid, k -> new Pending() );
+        synchronized ( own ) {
+            Set<List<PolyValue>> added = new HashSet<>();
+            synchronized ( this ) {
+                for ( PolyValue[] row : rows ) {
+                    List<PolyValue> key = key( row );
+                    Long existing = keys.get( key );
+                    if ( !added.add( key ) || own.insertKeys.containsKey( key ) || (existing != null && !own.isDeleted( existing )) ) {
+                        throw new GenericRuntimeException( "Primary key conflict! You are trying to insert a row with a primary key that already exists." );
+                    }
+                }
+            }
+            for ( PolyValue[] row : rows ) {
+                own.insertKeys.put( key( row ), own.inserts.size() );
+                own.inserts.add( row );
+            }
+        }
+    }
+
+
+    /**
+     * Marks rows as deleted by the transaction.
+     */
+    public void delete( PolyXid xid, List<Long> rowIds ) {
+        Pending own = pending.computeIfAbsent( xid, k -> new Pending() );
+        synchronized ( own ) {
+            for ( long rowId : rowIds ) {
+                if ( rowId < 0 ) {
+                    int index = (int) (-rowId - 1);
+                    own.insertKeys.remove( key( own.inserts.get( index ) ) );
+                    own.inserts.set( index, null );
+                } else {
+                    own.deletes.computeIfAbsent( (int) (rowId >>> 32), g -> new BitSet() ).set( (int) rowId );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Checks whether the rows inserted by the transaction are still unique.
+     */
+    public synchronized boolean prepare( PolyXid xid ) {
+        Pending own = pending.get( xid );
+        if ( own == null ) {
+            return true;
+        }
+        for ( List<PolyValue> key : own.insertKeys.keySet() ) {
+            Long existing = keys.get( key );
+            if ( existing != null && !own.isDeleted( existing ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    public synchronized void commit( PolyXid xid ) {
+        Pending own = pending.remove( xid );
+        if ( own == null ) {
+            return;
+        }
+        List<RowGroup> updated = new ArrayList<>( groups );
+        for ( Entry<Integer, BitSet> entry : own.deletes.entrySet() ) {
+            RowGroup group = updated.get( entry.getKey() );
+            BitSet rows = entry.getValue();
+            for ( int row = rows.nextSetBit( 0 ); row >= 0; row = rows.nextSetBit( row + 1 ) ) {
+                keys.remove( key( group, row ) );
+            }
+            updated.set( entry.getKey(), group.withDeleted( rows ) );
+        }
+        append( updated, own.inserts.stream().filter( Objects::nonNull ).toList() );
+        groups = List.copyOf( updated );
+        dirty = true;
+
+        if ( pending.isEmpty() && needsCompaction() ) {
+            compact();
+        }
+    }
+
+
+    public void rollback( PolyXid xid ) {
+        pending.remove( xid );
+    }
+
+
+    /**
+     * Appends rows to the last group as long as it is not sealed and creates new groups for the remaining ones.
+     */
+    private void append( List<RowGroup> groups, List<PolyValue[]> rows ) {
+        List<Long> columnIds = this.columnIds;
+        int next = 0;
+        while ( next < rows.size() ) {
+            RowGroup last = groups.isEmpty() ? null : groups.get( groups.size() - 1 );
+            boolean fill = last != null && !last.isSealed();
+            int groupIndex = fill ? groups.size() - 1 : groups.size();
+            int existing = fill ? last.getRowCount() : 0;
+            int count = Math.min( chunkSize - existing, rows.size() - next );
+
+            List<List<PolyValue>> columns = new ArrayList<>();
+            for ( int c = 0; c < columnIds.size(); c++ ) {
+                List<PolyValue> values = new ArrayList<>( existing + count );
+                for ( int i = 0; i < existing; i++ ) {
+                    values.add( last.get( columnIds.get( c ), i ) );
+                }
+                for ( int i = next; i < next + count; i++ ) {
+                    values.add( rows.get( i )[c] );
+                }
+                columns.add( values );
+            }
+            for ( int i = 0; i < count; i++ ) {
+                keys.put( key( rows.get( next + i ) ), rowId( groupIndex, existing + i ) );
+            }
+
+            RowGroup group = build( columnIds, columns, existing + count, fill ? last.getDeletedRows() : new BitSet() );
+            if ( fill ) {
+                groups.set( groupIndex, group );
+            } else {
+                groups.add( group );
+            }
+            next += count;
+        }
+    }
+
+
+    private RowGroup build( List<Long> columnIds, List<List<PolyValue>> columns, int rowCount, BitSet deleted ) {
+        boolean sealed = rowCount >= chunkSize;
+        Map<Long, ColumnChunk> chunks = new HashMap<>();
+        for ( int c = 0; c < columnIds.size(); c++ ) {
+            chunks.put( columnIds.get( c ), sealed ? ColumnChunk.encode( columns.get( c ) ) : ColumnChunk.plain( columns.get( c ) ) );
+        }
+        return new RowGroup( rowCount, chunks, deleted, sealed );
+    }
+
+
+    private boolean needsCompaction() {
+        long rows = 0;
+        long deleted = 0;
+        for ( RowGroup group : groups ) {
+            rows += group.getRowCount();
+            deleted += group.getRowCount() - group.getLiveRowCount();
+        }
+        return deleted > 0 && deleted >= rows * COMPACTION_THRESHOLD;
+    }
+
+
+    /**
+     * Rewrites all row groups without the deleted rows and rebuilds the primary key index.
+     * Must only be called while no transaction has pending changes, as the row ids change.
+     */
+    private synchronized void compact() {
+        List<RowGroup> current = groups;
+        List<PolyValue[]> rows = new ArrayList<>();
+        for ( RowGroup group : current ) {
+            BitSet live = group.getLiveRows();
+            for ( int row = live.nextSetBit( 0 ); row >= 0; row = live.nextSetBit( row + 1 ) ) {
+                PolyValue[] values = new PolyValue[columnIds.size()];
+                for ( int c = 0; c < values.length; c++ ) {
+                    values[c] = group.get( columnIds.get( c ), row );
+                }
+                rows.add( values );
+            }
+        }
+        keys.clear();
+        List<RowGroup> compacted = new ArrayList<>();
+        append( compacted, rows );
+        groups = List.copyOf( compacted );
+        dirty = true;
+        log.debug( "Compacted {} row groups of allocation {} into {}", current.size(), allocId, compacted.size() );
+    }
+
+
+    private synchronized void indexKeys() {
+        keys.clear();
+        List<RowGroup> current = groups;
+        for ( int g = 0; g < current.size(); g++ ) {
+            RowGroup group = current.get( g );
+            for ( int row = 0; row < group.getRowCount(); row++ ) {
+                keys.put( key( group, row ), rowId( g, row ) );
+            }
+        }
+    }
+
+
+    public synchronized void addColumn( long columnId, @Nullable PolyValue defaultValue ) {
+        List<RowGroup> updated = new ArrayList<>();
+        for ( RowGroup group : groups ) {
+            updated.add( group.withColumn( columnId, ColumnChunk.constant( defaultValue, group.getRowCount() ) ) );
+        }
+        for ( Pending own : pending.values() ) {
+            synchronized ( own ) {
+                own.inserts.replaceAll( row -> {
+                    if ( row == null ) {
+                        return null;
+                    }
+                    PolyValue[] extended = Arrays.copyOf( row, row.length + 1 );
+                    extended[row.length] = defaultValue;
+                    return extended;
+                } );
+            }
+        }
+        List<Long> ids = new ArrayList<>( columnIds );
+        ids.add( columnId );
+        columnIds = List.copyOf( ids );
+        groups = List.copyOf( updated );
+        dirty = true;
+    }
+
+
+    public synchronized void dropColumn( long columnId ) {
+        int index = columnIds.indexOf( columnId );
+        if ( index < 0 ) {
+            return;
+        }
+        List<RowGroup> updated = new ArrayList<>();
+        for ( RowGroup group : groups ) {
+            updated.add( group.withoutColumn( columnId ) );
+        }
+        for ( Pending own : pending.values() ) {
+            synchronized ( own ) {
+                own.inserts.replaceAll( row -> {
+                    if ( row == null ) {
+                        return null;
+                    }
+                    List<PolyValue> values = new ArrayList<>( Arrays.asList( row ) );
+                    values.remove( index );
+                    return values.toArray( new PolyValue[0] );
+                } );
+            }
+        }
+        List<Long> ids = new ArrayList<>( columnIds );
+        ids.remove( index );
+        columnIds = List.copyOf( ids );
+        groups = List.copyOf( updated );
+        dirty = true;
+    }
+
+
+    /**
+     * Removes all committed rows. Like in the other stores, truncating a table is not transactional.
+     */
+    public synchronized void truncate() {
+        groups = List.of();
+        keys.clear();
+        dirty = true;
+    }
+
+
+    private List<PolyValue> key( PolyValue[] row ) {
+        List<PolyValue> key = new ArrayList<>( primaryKey.size() );
+        for ( long columnId : primaryKey ) {
+            key.add( row[columnIds.indexOf( columnId )] );
+        }
+        return key;
+    }
+
+
+    private List<PolyValue> key( RowGroup group, int row ) {
+        List<PolyValue> key = new ArrayList<>( primaryKey.size() );
+        for ( long columnId : primaryKey ) {
+            key.add( group.get( columnId, row ) );
+        }
+        return key;
+    }
+
+
+    /**
+     * Writes the committed state of the table. Pending changes are not part of a snapshot.
+     */
+    public void write( DataOutput out ) throws IOException {
+        List<Long> columnIds;
+        List<RowGroup> groups;
+        synchronized ( this ) {
+            columnIds = this.columnIds;
+            groups = this.groups;
+            dirty = false;
+        }
+        try {
+            out.writeInt( columnIds.size() );
+            for ( long columnId : columnIds ) {
+                out.writeLong( columnId );
+            }
+            out.writeInt( primaryKey.size() );
+            for ( long columnId : primaryKey ) {
+                out.writeLong( columnId );
+            }
+            out.writeInt( groups.size() );
+            for ( RowGroup group : groups ) {
+                group.write( out );
+            }
+        } catch ( IOException | RuntimeException e ) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+
+    public static ColumnarTable read( DataInput in, long allocId, int chunkSize ) throws IOException {
+        List<Long> columnIds = new ArrayList<>();
+        for ( int i = in.readInt(); i > 0; i-- ) {
+            columnIds.add( in.readLong() );
+        }
+        List<Long> primaryKey = new ArrayList<>();
+        for ( int i = in.readInt(); i > 0; i-- ) {
+            primaryKey.add( in.readLong() );
+        }
+        List<RowGroup> groups = new ArrayList<>();
+        for ( int i = in.readInt(); i > 0; i-- ) {
+            groups.add( RowGroup.read( in ) );
+        }
+
+        ColumnarTable table = new ColumnarTable( allocId, columnIds, primaryKey, chunkSize );
+        table.groups = List.copyOf( groups );
+        if ( groups.stream().anyMatch( RowGroup::hasDeletions ) ) {
+            table.compact();
+        } else {
+            table.indexKeys();
+        }
+        table.dirty = false;
+        return table;
+    }
+
+
+    /**
+     * A row inserted by a running transaction.
+     *
+     * @param id Negative id of the row
+     */
+    public record PendingRow( long id, PolyValue[] values ) {
+
+    }
+
+
+    /**
+     * The changes of a running transaction.
+     */
+    private static class Pending {
+
+        private final List<PolyValue[]> inserts = new ArrayList<>(); // entries of deleted rows are null
+        private final Map<List<PolyValue>, Integer> insertKeys = new HashMap<>();
+        private final Map<Integer, BitSet> deletes = new HashMap<>();
+
+
+        private boolean isDeleted( long rowId ) {
+            BitSet rows = deletes.get( (int) (rowId >>> 32) );
+            return rows != null && rows.get( (int) rowId );
+        }
+
+    }
+
+}
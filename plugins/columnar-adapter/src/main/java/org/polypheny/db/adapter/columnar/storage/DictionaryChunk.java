@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nullable;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Stores every distinct value once and the rows as bit-packed codes referencing them. Code {@code 0} is reserved for NULL.
+ * Predicates are evaluated once per distinct value.
+ */
+final class DictionaryChunk extends ColumnChunk {
+
+    private final PolyValue[] dictionary;
+    private final BitPackedInts codes;
+
+
+    private DictionaryChunk( PolyValue[] dictionary, BitPackedInts codes, ZoneMap zoneMap ) {
+        super( codes.getSize(), zoneMap );
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+
+    /**
+     * @param dictionary Distinct non-null values and their position in the dictionary
+     */
+    static DictionaryChunk of( List<PolyValue> values, Map<PolyValue, Integer> dictionary, ZoneMap zoneMap ) {
+        PolyValue[] entries = new PolyValue[dictionary.size()];
+        for ( Entry<PolyValue, Integer> entry : dictionary.entrySet() ) {
+            entries[entry.getValue()] = entry.getKey();
+        }
+        long[] codes = new long[values.size()];
+        for ( int i = 0; i < codes.length; i++ ) {
+            PolyValue value = values.get( i );
+            codes[i] = value == null ? 0 : dictionary.get( value ) + 1;
+        }
+        return new DictionaryChunk( entries, BitPackedInts.pack( codes, codes.length ), zoneMap );
+    }
+
+
+    @Override
+    public Encoding getEncoding() {
+        return Encoding.DICTIONARY;
+    }
+
+
+    @Nullable
+    @Override
+    public PolyValue get( int row ) {
+        int code = (int) codes.get( row );
+        return code == 0 ? null : dictionary[code - 1];
+    }
+
+
+    @Override
+    public void select( ColumnPredicate predicate, @Nullable PolyValue operand, BitSet selection ) {
+        boolean[] matches = new boolean[dictionary.length + 1];
+        matches[0] = predicate.test( null, operand );
+        for ( int i = 0; i < dictionary.length; i++ ) {
+            matches[i + 1] = predicate.test( dictionary[i], operand );
+        }
+        for ( int i = selection.nextSetBit( 0 ); i >= 0 && i < size; i = selection.nextSetBit( i + 1 ) ) {
+            if ( !matches[(int) codes.get( i )] ) {
+                selection.clear( i );
+            }
+        }
+    }
+
+
+    @Override
+    void writeData( DataOutput out ) throws IOException {
+        out.writeInt( dictionary.length );
+        for ( PolyValue value : dictionary ) {
+            writeValue( out, value );
+        }
+        codes.write( out );
+    }
+
+
+    static DictionaryChunk read( DataInput in, int size, ZoneMap zoneMap ) throws IOException {
+        PolyValue[] dictionary = new PolyValue[in.readInt()];
+        for ( int i = 0; i < dictionary.length; i++ ) {
+            dictionary[i] = readValue( in );
+        }
+        return new DictionaryChunk( dictionary, BitPackedInts.read( in ), zoneMap );
+    }
+
+}
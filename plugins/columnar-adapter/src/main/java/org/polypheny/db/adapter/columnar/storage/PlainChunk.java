@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import javax.annotation.Nullable;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Stores every value as is. Used for high-cardinality columns and for row groups which are still filled.
+ */
+final class PlainChunk extends ColumnChunk {
+
+    private final PolyValue[] values;
+
+
+    PlainChunk( PolyValue[] values, ZoneMap zoneMap ) {
+        super( values.length, zoneMap );
+        this.values = values;
+    }
+
+
+    @Override
+    public Encoding getEncoding() {
+        return Encoding.PLAIN;
+    }
+
+
+    @Nullable
+    @Override
+    public PolyValue get( int row ) {
+        return values[row];
+    }
+
+
+    @Override
+    void writeData( DataOutput out ) throws IOException {
+        for ( PolyValue value : values ) {
+            writeValue( out, value );
+        }
+    }
+
+
+    static PlainChunk read( DataInput in, int size, ZoneMap zoneMap ) throws IOException {
+        PolyValue[] values = new PolyValue[size];
+        for ( int i = 0; i < size; i++ ) {
+            values[i] = readValue( in );
+        }
+        return new PlainChunk( values, zoneMap );
+    }
+
+}
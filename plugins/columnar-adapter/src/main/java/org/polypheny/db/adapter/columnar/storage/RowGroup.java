@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * A horizontal slice of a table, storing one {@link ColumnChunk} per column. Row groups are immutable, changes create a new instance.
+ * Deleted rows are only marked and removed when the table is compacted.
+ */
+public final class RowGroup {
+
+    @Getter
+    private final int rowCount;
+    private final Map<Long, ColumnChunk> chunks;
+    private final BitSet deleted;
+    /**
+     * Whether the group has reached its final size and its chunks are encoded
+     */
+    @Getter
+    private final boolean sealed;
+
+
+    RowGroup( int rowCount, Map<Long, ColumnChunk> chunks, BitSet deleted, boolean sealed ) {
+        this.rowCount = rowCount;
+        this.chunks = chunks;
+        this.deleted = deleted;
+        this.sealed = sealed;
+    }
+
+
+    public ColumnChunk getChunk( long columnId ) {
+        ColumnChunk chunk = chunks.get( columnId );
+        if ( chunk == null ) {
+            throw new GenericRuntimeException( "Column %s is not stored in the columnar store", columnId );
+        }
+        return chunk;
+    }
+
+
+    @Nullable
+    public PolyValue get( long columnId, int row ) {
+        return getChunk( columnId ).get( row );
+    }
+
+
+    public boolean isDeleted( int row ) {
+        return deleted.get( row );
+    }
+
+
+    public boolean hasDeletions() {
+        return !deleted.isEmpty();
+    }
+
+
+    public int getLiveRowCount() {
+        return rowCount - deleted.cardinality();
+    }
+
+
+    /**
+     * @return A copy of the bit set of the rows which have not been deleted
+     */
+    public BitSet getLiveRows() {
+        BitSet live = new BitSet( rowCount );
+        live.set( 0, rowCount );
+        live.andNot( deleted );
+        return live;
+    }
+
+
+    BitSet getDeletedRows() {
+        return (BitSet) deleted.clone();
+    }
+
+
+    RowGroup withDeleted( BitSet rows ) {
+        BitSet updated = (BitSet) deleted.clone();
+        updated.or( rows );
+        return new RowGroup( rowCount, chunks, updated, sealed );
+    }
+
+
+    RowGroup withColumn( long columnId, ColumnChunk chunk ) {
+        Map<Long, ColumnChunk> updated = new HashMap<>( chunks );
+        updated.put( columnId, chunk );
+        return new RowGroup( rowCount, updated, deleted, sealed );
+    }
+
+
+    RowGroup withoutColumn( long columnId ) {
+        Map<Long, ColumnChunk> updated = new HashMap<>( chunks );
+        updated.remove( columnId );
+        return new RowGroup( rowCount, updated, deleted, sealed );
+    }
+
+
+    void write( DataOutput out ) throws IOException {
+        out.writeInt( rowCount );
+        out.writeBoolean( sealed );
+        long[] words = deleted.toLongArray();
+        out.writeInt( words.length );
+        for ( long word : words ) {
+            out.writeLong( word );
+        }
+        out.writeInt( chunks.size() );
+        for ( Entry<Long, ColumnChunk> entry : chunks.entrySet() ) {
+            out.writeLong( entry.getKey() );
+            entry.getValue().write( out );
+        }
+    }
+
+
+    static RowGroup read( DataInput in ) throws IOException {
+        int rowCount = in.readInt();
+        boolean sealed = in.readBoolean();
+        long[] words = new long[in.readInt()];
+        for ( int i = 0; i < words.length; i++ ) {
+            words[i] = in.readLong();
+        }
+        int columns = in.readInt();
+        Map<Long, ColumnChunk> chunks = new HashMap<>();
+        for ( int i = 0; i < columns; i++ ) {
+            chunks.put( in.readLong(), ColumnChunk.read( in ) );
+        }
+        return new RowGroup( rowCount, chunks, BitSet.valueOf( words ), sealed );
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Stores runs of equal values once, together with the end of the run. Suited for sorted or low-cardinality columns.
+ */
+final class RunLengthChunk extends ColumnChunk {
+
+    private final PolyValue[] runValues;
+    private final int[] runEnds; // exclusive
+
+
+    private RunLengthChunk( int size, PolyValue[] runValues, int[] runEnds, ZoneMap zoneMap ) {
+        super( size, zoneMap );
+        this.runValues = runValues;
+        this.runEnds = runEnds;
+    }
+
+
+    static RunLengthChunk of( List<PolyValue> values, ZoneMap zoneMap ) {
+        List<PolyValue> runValues = new ArrayList<>();
+        List<Integer> runEnds = new ArrayList<>();
+        for ( int i = 0; i < values.size(); i++ ) {
+            if ( i > 0 && Objects.equals( values.get( i - 1 ), values.get( i ) ) ) {
+                runEnds.set( runEnds.size() - 1, i + 1 );
+            } else {
+                runValues.add( values.get( i ) );
+                runEnds.add( i + 1 );
+            }
+        }
+        return new RunLengthChunk( values.size(), runValues.toArray( new PolyValue[0] ), runEnds.stream().mapToInt( Integer::intValue ).toArray(), zoneMap );
+    }
+
+
+    @Override
+    public Encoding getEncoding() {
+        return Encoding.RUN_LENGTH;
+    }
+
+
+    @Nullable
+    @Override
+    public PolyValue get( int row ) {
+        int run = Arrays.binarySearch( runEnds, row + 1 );
+        // The run of a row is the first one ending after it
+        return runValues[run >= 0 ? run : -run - 1];
+    }
+
+
+    @Override
+    public void select( ColumnPredicate predicate, @Nullable PolyValue operand, BitSet selection ) {
+        int start = 0;
+        for ( int run = 0; run < runValues.length; run++ ) {
+            if ( !predicate.test( runValues[run], operand ) ) {
+                selection.clear( start, runEnds[run] );
+            }
+            start = runEnds[run];
+        }
+    }
+
+
+    @Override
+    void writeData( DataOutput out ) throws IOException {
+        out.writeInt( runValues.length );
+        for ( int run = 0; run < runValues.length; run++ ) {
+            out.writeInt( runEnds[run] );
+            writeValue( out, runValues[run] );
+        }
+    }
+
+
+    static RunLengthChunk read( DataInput in, int size, ZoneMap zoneMap ) throws IOException {
+        int runs = in.readInt();
+        PolyValue[] runValues = new PolyValue[runs];
+        int[] runEnds = new int[runs];
+        for ( int run = 0; run < runs; run++ ) {
+            runEnds[run] = in.readInt();
+            runValues[run] = readValue( in );
+        }
+        return new RunLengthChunk( size, runValues, runEnds, zoneMap );
+    }
+
+}
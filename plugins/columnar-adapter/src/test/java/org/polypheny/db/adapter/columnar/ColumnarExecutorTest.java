@@ -0,0 +1,284 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.adapter.columnar.storage.ColumnarTable;
+import org.polypheny.db.adapter.columnar.storage.RowGroup;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.transaction.PUID;
+import org.polypheny.db.transaction.PUID.Type;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+public class ColumnarExecutorTest {
+
+    private static final Long[] COLUMNS = { 1L, 2L, 3L };
+    private static final int ROWS = 50;
+
+    private ColumnarTable table;
+
+
+    private static PolyXid xid() {
+        return PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+    }
+
+
+    /**
+     * Every seventh value is null, the strings repeat and are therefore dictionary encoded.
+     */
+    private static PolyValue[] row( int id ) {
+        return new PolyValue[]{
+                PolyInteger.of( id ),
+                id % 7 == 0 ? null : PolyInteger.of( (id * 37) % 101 ),
+                PolyString.of( "group" + id % 3 ) };
+    }
+
+
+    @BeforeEach
+    public void setup() {
+        table = new ColumnarTable( 0, Arrays.asList( COLUMNS ), List.of( 1L ), 8 );
+        PolyXid xid = xid();
+        table.insert( xid, IntStream.range( 0, ROWS ).mapToObj( ColumnarExecutorTest::row ).toList() );
+        table.commit( xid );
+    }
+
+
+    private List<PolyValue[]> select( PolyXid xid, List<ColumnPredicate> predicates ) {
+        return ColumnarExecutor.select( table, xid, COLUMNS, null, predicates, null, null, Map.of( 0L, PolyInteger.of( 50 ) ), new AtomicBoolean() ).toList();
+    }
+
+
+    private List<PolyValue[]> aggregate( PolyXid xid, List<ColumnPredicate> predicates, List<Integer> groupKeys, List<ColumnAggregate> aggregates ) {
+        return ColumnarExecutor.select( table, xid, COLUMNS, null, predicates, groupKeys, aggregates, Map.of(), new AtomicBoolean() ).toList();
+    }
+
+
+    /**
+     * @return The ids of the rows which are visible to the transaction and match the filter, evaluated without the store
+     */
+    private List<Integer> expected( PolyXid xid, Predicate<PolyValue[]> filter ) {
+        List<Integer> ids = new ArrayList<>();
+        List<RowGroup> groups = table.getGroups();
+        for ( int g = 0; g < groups.size(); g++ ) {
+            RowGroup group = groups.get( g );
+            table.getVisibleRows( xid, g, group ).stream().forEach( row -> {
+                PolyValue[] values = Arrays.stream( COLUMNS ).map( c -> group.get( c, row ) ).toArray( PolyValue[]::new );
+                if ( filter.test( values ) ) {
+                    ids.add( values[0].asNumber().intValue() );
+                }
+            } );
+        }
+        table.getPendingRows( xid ).stream().map( ColumnarTable.PendingRow::values ).filter( filter ).forEach( r -> ids.add( r[0].asNumber().intValue() ) );
+        return ids.stream().sorted().toList();
+    }
+
+
+    private static List<Integer> ids( List<PolyValue[]> rows ) {
+        return rows.stream().map( r -> r[0].asNumber().intValue() ).sorted().toList();
+    }
+
+
+    private static Integer value( PolyValue[] row ) {
+        return row[1] == null ? null : row[1].asNumber().intValue();
+    }
+
+
+    @Test
+    public void predicatesMatchFilter() {
+        PolyXid xid = xid();
+        assertEquals( expected( xid, r -> true ), ids( select( xid, List.of() ) ) );
+
+        assertEquals(
+                expected( xid, r -> value( r ) != null && value( r ) < 30 ),
+                ids( select( xid, List.of( new ColumnPredicate( 1, Kind.LESS_THAN, ColumnValue.literal( PolyInteger.of( 30 ) ) ) ) ) ) );
+        assertEquals(
+                expected( xid, r -> value( r ) != null && value( r ) >= 50 ),
+                ids( select( xid, List.of( new ColumnPredicate( 1, Kind.GREATER_THAN_OR_EQUAL, ColumnValue.parameter( 0 ) ) ) ) ) );
+        assertEquals(
+                expected( xid, r -> value( r ) != null && value( r ) != 37 ),
+                ids( select( xid, List.of( new ColumnPredicate( 1, Kind.NOT_EQUALS, ColumnValue.literal( PolyLong.of( 37 ) ) ) ) ) ) );
+        assertEquals(
+                expected( xid, r -> value( r ) == null ),
+                ids( select( xid, List.of( new ColumnPredicate( 1, Kind.IS_NULL, null ) ) ) ) );
+        // Conditions are combined with AND
+        assertEquals(
+                expected( xid, r -> r[2].asString().value.equals( "group1" ) && r[0].asNumber().intValue() <= 20 ),
+                ids( select( xid, List.of(
+                        new ColumnPredicate( 2, Kind.EQUALS, ColumnValue.literal( PolyString.of( "group1" ) ) ),
+                        new ColumnPredicate( 0, Kind.LESS_THAN_OR_EQUAL, ColumnValue.literal( PolyInteger.of( 20 ) ) ) ) ) ) );
+        // Comparisons with NULL never match
+        assertEquals( List.of(), select( xid, List.of( new ColumnPredicate( 1, Kind.EQUALS, ColumnValue.literal( null ) ) ) ) );
+        // Values outside all zone maps
+        assertEquals( List.of(), select( xid, List.of( new ColumnPredicate( 0, Kind.GREATER_THAN, ColumnValue.literal( PolyInteger.of( ROWS ) ) ) ) ) );
+    }
+
+
+    @Test
+    public void predicatesSeeOwnChanges() {
+        PolyXid xid = xid();
+        table.delete( xid, List.of( ColumnarTable.rowId( 0, 1 ), ColumnarTable.rowId( 2, 3 ) ) );
+        table.insert( xid, List.of( row( 100 ), row( 101 ) ) );
+        List<ColumnPredicate> predicates = List.of( new ColumnPredicate( 0, Kind.GREATER_THAN, ColumnValue.literal( PolyInteger.of( 0 ) ) ) );
+
+        List<Integer> visible = ids( select( xid, predicates ) );
+        assertEquals( expected( xid, r -> r[0].asNumber().intValue() > 0 ), visible );
+        assertEquals( ROWS - 1 - 2 + 2, visible.size() );
+        assertEquals( ROWS - 1, select( xid(), predicates ).size() );
+    }
+
+
+    @Test
+    public void projection() {
+        List<PolyValue[]> rows = ColumnarExecutor.select(
+                table,
+                xid(),
+                COLUMNS,
+                List.of( ColumnValue.column( 2 ), ColumnValue.literal( PolyInteger.of( 1 ) ), ColumnValue.column( 0 ) ),
+                List.of( new ColumnPredicate( 0, Kind.EQUALS, ColumnValue.literal( PolyInteger.of( 4 ) ) ) ),
+                null,
+                null,
+                Map.of(),
+                new AtomicBoolean() ).toList();
+        assertEquals( 1, rows.size() );
+        assertEquals( List.of( PolyString.of( "group1" ), PolyInteger.of( 1 ), PolyInteger.of( 4 ) ), Arrays.asList( rows.get( 0 ) ) );
+    }
+
+
+    /**
+     * Without predicates, COUNT, MIN and MAX are answered from the zone maps. A predicate matching all rows forces a scan.
+     */
+    private void assertZoneMapsMatchScan( PolyXid xid ) {
+        List<ColumnAggregate> aggregates = List.of(
+                new ColumnAggregate( Kind.COUNT, -1, PolyType.BIGINT ),
+                new ColumnAggregate( Kind.COUNT, 1, PolyType.BIGINT ),
+                new ColumnAggregate( Kind.MIN, 1, PolyType.INTEGER ),
+                new ColumnAggregate( Kind.MAX, 1, PolyType.INTEGER ),
+                new ColumnAggregate( Kind.MIN, 2, PolyType.VARCHAR ),
+                new ColumnAggregate( Kind.MAX, 0, PolyType.INTEGER ) );
+        List<ColumnPredicate> all = List.of( new ColumnPredicate( 0, Kind.IS_NOT_NULL, null ) );
+
+        PolyValue[] zoneMaps = aggregate( xid, List.of(), List.of(), aggregates ).get( 0 );
+        PolyValue[] scanned = aggregate( xid, all, List.of(), aggregates ).get( 0 );
+        assertEquals( Arrays.asList( scanned ), Arrays.asList( zoneMaps ) );
+
+        List<Integer> ids = expected( xid, r -> true );
+        List<Integer> values = new ArrayList<>();
+        for ( int id : ids ) {
+            Integer value = value( row( id ) );
+            if ( value != null ) {
+                values.add( value );
+            }
+        }
+        assertEquals( ids.size(), zoneMaps[0].asNumber().intValue() );
+        assertEquals( values.size(), zoneMaps[1].asNumber().intValue() );
+        assertEquals( values.stream().min( Integer::compare ).orElseThrow(), zoneMaps[2].asNumber().intValue() );
+        assertEquals( values.stream().max( Integer::compare ).orElseThrow(), zoneMaps[3].asNumber().intValue() );
+        assertEquals( PolyString.of( "group0" ), zoneMaps[4] );
+        assertEquals( ids.get( ids.size() - 1 ), zoneMaps[5].asNumber().intValue() );
+    }
+
+
+    @Test
+    public void zoneMapAggregates() {
+        assertZoneMapsMatchScan( xid() );
+    }
+
+
+    @Test
+    public void zoneMapAggregatesWithDeletedRows() {
+        // Deleting the maximum and the minimum of the second column, the zone maps of the groups are not updated
+        PolyXid deleter = xid();
+        List<Long> rowIds = new ArrayList<>();
+        List<RowGroup> groups = table.getGroups();
+        for ( int g = 0; g < groups.size(); g++ ) {
+            for ( int row = 0; row < groups.get( g ).getRowCount(); row++ ) {
+                PolyValue value = groups.get( g ).get( 2L, row );
+                if ( value != null && (value.asNumber().intValue() < 10 || value.asNumber().intValue() > 90) ) {
+                    rowIds.add( ColumnarTable.rowId( g, row ) );
+                }
+            }
+        }
+        table.delete( deleter, rowIds );
+        // Visible to the deleting transaction only
+        assertZoneMapsMatchScan( deleter );
+        assertZoneMapsMatchScan( xid() );
+
+        table.commit( deleter );
+        assertZoneMapsMatchScan( xid() );
+    }
+
+
+    @Test
+    public void zoneMapAggregatesWithPendingRows() {
+        PolyXid writer = xid();
+        table.insert( writer, List.of( row( 200 ), row( 201 ) ) );
+        assertZoneMapsMatchScan( writer );
+        assertZoneMapsMatchScan( xid() );
+    }
+
+
+    @Test
+    public void emptyAggregates() {
+        table.truncate();
+        PolyValue[] result = aggregate( xid(), List.of(), List.of(), List.of(
+                new ColumnAggregate( Kind.COUNT, -1, PolyType.BIGINT ),
+                new ColumnAggregate( Kind.MIN, 1, PolyType.INTEGER ),
+                new ColumnAggregate( Kind.SUM, 1, PolyType.INTEGER ),
+                new ColumnAggregate( Kind.SUM0, 1, PolyType.INTEGER ) ) ).get( 0 );
+        assertEquals( 0, result[0].asNumber().intValue() );
+        assertNull( result[1] );
+        assertNull( result[2] );
+        assertEquals( 0, result[3].asNumber().intValue() );
+        // Without rows, there are no groups
+        assertEquals( List.of(), aggregate( xid(), List.of(), List.of( 2 ), List.of( new ColumnAggregate( Kind.COUNT, -1, PolyType.BIGINT ) ) ) );
+    }
+
+
+    @Test
+    public void groupedSum() {
+        List<PolyValue[]> result = aggregate(
+                xid(),
+                List.of( new ColumnPredicate( 0, Kind.LESS_THAN, ColumnValue.literal( PolyInteger.of( 30 ) ) ) ),
+                List.of( 2 ),
+                List.of( new ColumnAggregate( Kind.SUM, 1, PolyType.INTEGER ), new ColumnAggregate( Kind.COUNT, -1, PolyType.BIGINT ) ) );
+        assertEquals( 3, result.size() );
+        for ( PolyValue[] group : result ) {
+            int remainder = Integer.parseInt( group[0].asString().value.substring( "group".length() ) );
+            List<Integer> ids = IntStream.range( 0, 30 ).filter( i -> i % 3 == remainder ).boxed().toList();
+            int sum = ids.stream().map( i -> value( row( i ) ) ).filter( v -> v != null ).mapToInt( v -> v ).sum();
+            assertEquals( sum, group[1].asNumber().intValue() );
+            assertEquals( ids.size(), group[2].asNumber().intValue() );
+        }
+    }
+
+}
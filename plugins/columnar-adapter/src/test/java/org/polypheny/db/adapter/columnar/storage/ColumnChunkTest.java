@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.adapter.columnar.ColumnPredicate;
+import org.polypheny.db.adapter.columnar.ColumnValue;
+import org.polypheny.db.adapter.columnar.storage.ColumnChunk.Encoding;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+public class ColumnChunkTest {
+
+    @Test
+    public void testRunLength() throws IOException {
+        List<PolyValue> values = new ArrayList<>();
+        values.addAll( Collections.nCopies( 50, PolyString.of( "a" ) ) );
+        values.addAll( Collections.nCopies( 30, null ) );
+        values.addAll( Collections.nCopies( 20, PolyString.of( "b" ) ) );
+
+        ColumnChunk chunk = ColumnChunk.encode( values );
+        assertEquals( Encoding.RUN_LENGTH, chunk.getEncoding() );
+        assertEquals( 30, chunk.getNullCount() );
+        assertEquals( PolyString.of( "a" ), chunk.getMin() );
+        assertEquals( PolyString.of( "b" ), chunk.getMax() );
+        assertValues( values, chunk );
+        assertValues( values, roundTrip( chunk ) );
+
+        assertEquals( 20, select( chunk, Kind.EQUALS, PolyString.of( "b" ) ).cardinality() );
+        assertEquals( 30, select( chunk, Kind.IS_NULL, null ).cardinality() );
+    }
+
+
+    @Test
+    public void testDictionary() throws IOException {
+        List<PolyValue> values = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ ) {
+            values.add( i % 10 == 0 ? null : PolyString.of( "value" + i % 3 ) );
+        }
+
+        ColumnChunk chunk = ColumnChunk.encode( values );
+        assertEquals( Encoding.DICTIONARY, chunk.getEncoding() );
+        assertEquals( 10, chunk.getNullCount() );
+        assertValues( values, chunk );
+        assertValues( values, roundTrip( chunk ) );
+
+        BitSet selection = select( chunk, Kind.NOT_EQUALS, PolyString.of( "value0" ) );
+        for ( int i = 0; i < values.size(); i++ ) {
+            assertEquals( values.get( i ) != null && !values.get( i ).equals( PolyString.of( "value0" ) ), selection.get( i ) );
+        }
+    }
+
+
+    @Test
+    public void testBitPacked() throws IOException {
+        List<PolyValue> values = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ ) {
+            values.add( i == 42 ? null : PolyLong.of( 1_000_000_000_000L + i ) );
+        }
+
+        ColumnChunk chunk = ColumnChunk.encode( values );
+        assertEquals( Encoding.BIT_PACKED, chunk.getEncoding() );
+        assertEquals( PolyLong.of( 1_000_000_000_000L ), chunk.getMin() );
+        assertEquals( PolyLong.of( 1_000_000_000_099L ), chunk.getMax() );
+        assertValues( values, chunk );
+        assertValues( values, roundTrip( chunk ) );
+
+        // Operands of a different numeric type are compared by value
+        assertEquals( 99, select( chunk, Kind.GREATER_THAN, PolyInteger.of( 0 ) ).cardinality() );
+        assertEquals( 10, select( chunk, Kind.LESS_THAN, PolyLong.of( 1_000_000_000_010L ) ).cardinality() );
+    }
+
+
+    @Test
+    public void testPlain() throws IOException {
+        List<PolyValue> values = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ ) {
+            values.add( PolyString.of( "unique" + i ) );
+        }
+
+        ColumnChunk chunk = ColumnChunk.encode( values );
+        assertEquals( Encoding.PLAIN, chunk.getEncoding() );
+        assertEquals( 0, chunk.getNullCount() );
+        assertValues( values, chunk );
+        assertValues( values, roundTrip( chunk ) );
+    }
+
+
+    @Test
+    public void testZoneMap() {
+        List<PolyValue> values = new ArrayList<>();
+        for ( int i = 10; i < 20; i++ ) {
+            values.add( PolyInteger.of( i ) );
+        }
+        ColumnChunk chunk = ColumnChunk.encode( values );
+
+        assertFalse( predicate( Kind.EQUALS ).mayMatch( chunk, PolyInteger.of( 5 ) ) );
+        assertTrue( predicate( Kind.EQUALS ).mayMatch( chunk, PolyInteger.of( 15 ) ) );
+        assertFalse( predicate( Kind.GREATER_THAN ).mayMatch( chunk, PolyInteger.of( 19 ) ) );
+        assertTrue( predicate( Kind.GREATER_THAN_OR_EQUAL ).mayMatch( chunk, PolyInteger.of( 19 ) ) );
+        assertFalse( predicate( Kind.LESS_THAN ).mayMatch( chunk, PolyLong.of( 10 ) ) );
+        assertFalse( predicate( Kind.IS_NULL ).mayMatch( chunk, null ) );
+
+        ColumnChunk nulls = ColumnChunk.constant( null, 10 );
+        assertNull( nulls.getMin() );
+        assertTrue( predicate( Kind.IS_NULL ).mayMatch( nulls, null ) );
+        assertFalse( predicate( Kind.EQUALS ).mayMatch( nulls, PolyInteger.of( 15 ) ) );
+    }
+
+
+    private static ColumnPredicate predicate( Kind kind ) {
+        return new ColumnPredicate( 0, kind, ColumnValue.column( 0 ) );
+    }
+
+
+    private static BitSet select( ColumnChunk chunk, Kind kind, PolyValue operand ) {
+        BitSet selection = new BitSet( chunk.getSize() );
+        selection.set( 0, chunk.getSize() );
+        chunk.select( predicate( kind ), operand, selection );
+        return selection;
+    }
+
+
+    private static void assertValues( List<PolyValue> expected, ColumnChunk chunk ) {
+        assertEquals( expected.size(), chunk.getSize() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertEquals( expected.get( i ), chunk.get( i ), "Row " + i );
+        }
+    }
+
+
+    private static ColumnChunk roundTrip( ColumnChunk chunk ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        chunk.write( new DataOutputStream( bytes ) );
+        return ColumnChunk.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+    }
+
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.columnar.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.adapter.columnar.storage.ColumnarTable.PendingRow;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.transaction.PUID;
+import org.polypheny.db.transaction.PUID.Type;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+
+public class ColumnarTableTest {
+
+    private static final List<Long> COLUMNS = List.of( 1L, 2L );
+    private static final List<Long> PRIMARY_KEY = List.of( 1L );
+    private static final int CHUNK_SIZE = 4;
+
+    @TempDir
+    Path folder;
+
+
+    private static PolyXid xid() {
+        return PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+    }
+
+
+    private static PolyValue[] row( int id, String name ) {
+        return new PolyValue[]{ PolyInteger.of( id ), name == null ? null : PolyString.of( name ) };
+    }
+
+
+    private static List<PolyValue[]> rows( int from, int to ) {
+        return IntStream.range( from, to ).mapToObj( i -> row( i, "name" + i ) ).toList();
+    }
+
+
+    /**
+     * @return The rows visible to the transaction as {@code id:name}, sorted
+     */
+    private static List<String> scan( ColumnarTable table, PolyXid xid ) {
+        List<String> result = new ArrayList<>();
+        List<RowGroup> groups = table.getGroups();
+        for ( int g = 0; g < groups.size(); g++ ) {
+            RowGroup group = groups.get( g );
+            BitSet visible = table.getVisibleRows( xid, g, group );
+            for ( int row = visible.nextSetBit( 0 ); row >= 0; row = visible.nextSetBit( row + 1 ) ) {
+                result.add( format( group.get( 1L, row ), group.get( 2L, row ) ) );
+            }
+        }
+        for ( PendingRow pending : table.getPendingRows( xid ) ) {
+            result.add( format( pending.values()[0], pending.values()[1] ) );
+        }
+        return result.stream().sorted().toList();
+    }
+
+
+    private static String format( PolyValue id, PolyValue name ) {
+        return id.asNumber().intValue() + ":" + (name == null ? "null" : name.asString().value);
+    }
+
+
+    private static List<String> expected( int from, int to ) {
+        return IntStream.range( from, to ).mapToObj( i -> i + ":name" + i ).sorted().toList();
+    }
+
+
+    /**
+     * @return The row ids of the committed rows with the given ids
+     */
+    private static List<Long> rowIds( ColumnarTable table, int... ids ) {
+        List<Long> rowIds = new ArrayList<>();
+        List<RowGroup> groups = table.getGroups();
+        for ( int g = 0; g < groups.size(); g++ ) {
+            RowGroup group = groups.get( g );
+            BitSet live = group.getLiveRows();
+            for ( int row = live.nextSetBit( 0 ); row >= 0; row = live.nextSetBit( row + 1 ) ) {
+                int id = group.get( 1L, row ).asNumber().intValue();
+                if ( IntStream.of( ids ).anyMatch( i -> i == id ) ) {
+                    rowIds.add( ColumnarTable.rowId( g, row ) );
+                }
+            }
+        }
+        return rowIds;
+    }
+
+
+    @Test
+    public void pendingRowsAreOnlyVisibleToTheirTransaction() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid writer = xid();
+        table.insert( writer, rows( 0, 3 ) );
+
+        assertEquals( expected( 0, 3 ), scan( table, writer ) );
+        assertTrue( scan( table, xid() ).isEmpty() );
+        assertTrue( table.getGroups().isEmpty() );
+    }
+
+
+    @Test
+    public void commitPublishesRows() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid writer = xid();
+        table.insert( writer, rows( 0, 10 ) );
+        assertTrue( table.prepare( writer ) );
+        table.commit( writer );
+
+        assertEquals( expected( 0, 10 ), scan( table, xid() ) );
+        assertTrue( table.getPendingRows( writer ).isEmpty() );
+        assertTrue( table.isDirty() );
+        // Full groups are sealed, the last one is filled up by the next commit
+        assertEquals( 3, table.getGroups().size() );
+        assertTrue( table.getGroups().get( 1 ).isSealed() );
+        assertFalse( table.getGroups().get( 2 ).isSealed() );
+
+        PolyXid next = xid();
+        table.insert( next, rows( 10, 12 ) );
+        table.commit( next );
+        assertEquals( expected( 0, 12 ), scan( table, xid() ) );
+        assertEquals( 3, table.getGroups().size() );
+        assertTrue( table.getGroups().get( 2 ).isSealed() );
+    }
+
+
+    @Test
+    public void rollbackDiscardsChanges() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 5 ) );
+        table.commit( setup );
+
+        PolyXid writer = xid();
+        table.insert( writer, rows( 5, 8 ) );
+        table.delete( writer, rowIds( table, 0, 1 ) );
+        assertEquals( expected( 2, 8 ), scan( table, writer ) );
+        assertEquals( expected( 0, 5 ), scan( table, xid() ) );
+
+        table.rollback( writer );
+        assertEquals( expected( 0, 5 ), scan( table, writer ) );
+        assertEquals( expected( 0, 5 ), scan( table, xid() ) );
+    }
+
+
+    @Test
+    public void deleteAndUpdate() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 5 ) );
+        table.commit( setup );
+
+        // An update deletes the old version of the row and inserts the new one
+        PolyXid writer = xid();
+        table.delete( writer, rowIds( table, 2 ) );
+        table.insert( writer, List.of( row( 2, "updated" ) ) );
+        // Rows inserted by the transaction itself are removed by their negative id
+        table.insert( writer, List.of( row( 7, "removed" ) ) );
+        long pendingId = table.getPendingRows( writer ).stream().filter( r -> r.values()[0].asNumber().intValue() == 7 ).findFirst().orElseThrow().id();
+        assertTrue( pendingId < 0 );
+        table.delete( writer, List.of( pendingId ) );
+        assertTrue( table.prepare( writer ) );
+        table.commit( writer );
+
+        assertEquals( List.of( "0:name0", "1:name1", "2:updated", "3:name3", "4:name4" ), scan( table, xid() ) );
+    }
+
+
+    @Test
+    public void primaryKeyConflicts() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 2 ) );
+        table.commit( setup );
+
+        PolyXid writer = xid();
+        assertThrows( GenericRuntimeException.class, () -> table.insert( writer, List.of( row( 1, "duplicate" ) ) ) );
+        assertThrows( GenericRuntimeException.class, () -> table.insert( writer, List.of( row( 5, "a" ), row( 5, "b" ) ) ) );
+        // A failed insert does not leave any rows behind
+        assertTrue( table.getPendingRows( writer ).isEmpty() );
+
+        // Two transactions insert the same key, the second one cannot commit anymore
+        PolyXid first = xid();
+        PolyXid second = xid();
+        table.insert( first, List.of( row( 9, "first" ) ) );
+        table.insert( second, List.of( row( 9, "second" ) ) );
+        assertTrue( table.prepare( first ) );
+        table.commit( first );
+        assertFalse( table.prepare( second ) );
+        table.rollback( second );
+        assertEquals( List.of( "0:name0", "1:name1", "9:first" ), scan( table, xid() ) );
+    }
+
+
+    @Test
+    public void compactionRemovesDeletedRows() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 12 ) );
+        table.commit( setup );
+
+        PolyXid deleter = xid();
+        table.delete( deleter, rowIds( table, 0, 1, 2, 3, 4 ) );
+        table.commit( deleter );
+        // Below the threshold, the rows are only marked as deleted
+        assertEquals( 3, table.getGroups().size() );
+        assertTrue( table.getGroups().get( 0 ).hasDeletions() );
+
+        deleter = xid();
+        table.delete( deleter, rowIds( table, 5, 6 ) );
+        table.commit( deleter );
+        assertEquals( expected( 7, 12 ), scan( table, xid() ) );
+        assertEquals( 2, table.getGroups().size() );
+        assertTrue( table.getGroups().stream().noneMatch( RowGroup::hasDeletions ) );
+
+        // The primary key index has been rebuilt with the new row ids
+        PolyXid writer = xid();
+        table.insert( writer, List.of( row( 0, "again" ) ) );
+        assertThrows( GenericRuntimeException.class, () -> table.insert( writer, List.of( row( 8, "duplicate" ) ) ) );
+        table.delete( writer, rowIds( table, 8 ) );
+        table.commit( writer );
+        assertEquals( List.of( "0:again", "10:name10", "11:name11", "7:name7", "9:name9" ), scan( table, xid() ) );
+    }
+
+
+    @Test
+    public void compactionWaitsForPendingChanges() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 8 ) );
+        table.commit( setup );
+
+        PolyXid running = xid();
+        List<Long> ids = rowIds( table, 7 );
+        table.delete( running, ids );
+
+        PolyXid deleter = xid();
+        table.delete( deleter, rowIds( table, 0, 1, 2, 3, 4, 5 ) );
+        table.commit( deleter );
+        // The row ids of the running transaction must stay valid
+        assertEquals( 2, table.getGroups().size() );
+        assertEquals( ids, rowIds( table, 7 ) );
+
+        table.commit( running );
+        assertEquals( List.of( "6:name6" ), scan( table, xid() ) );
+    }
+
+
+    @Test
+    public void addAndDropColumn() {
+        ColumnarTable table = new ColumnarTable( 0, COLUMNS, PRIMARY_KEY, CHUNK_SIZE );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 2 ) );
+        table.commit( setup );
+        PolyXid running = xid();
+        table.insert( running, rows( 2, 3 ) );
+
+        table.addColumn( 3L, PolyInteger.of( 42 ) );
+        assertEquals( List.of( 1L, 2L, 3L ), table.getColumnIds() );
+        assertEquals( PolyInteger.of( 42 ), table.getGroups().get( 0 ).get( 3L, 1 ) );
+        assertEquals( PolyInteger.of( 42 ), table.getPendingRows( running ).get( 0 ).values()[2] );
+
+        table.dropColumn( 2L );
+        assertEquals( List.of( 1L, 3L ), table.getColumnIds() );
+        assertEquals( 2, table.getPendingRows( running ).get( 0 ).values().length );
+        table.commit( running );
+        assertEquals( 3, table.getGroups().get( 0 ).getRowCount() );
+        assertEquals( PolyInteger.of( 42 ), table.getGroups().get( 0 ).get( 3L, 2 ) );
+    }
+
+
+    @Test
+    public void snapshotRestore() {
+        ColumnarStorage storage = new ColumnarStorage( folder.toFile(), CHUNK_SIZE );
+        ColumnarTable table = storage.createTable( 7, COLUMNS, PRIMARY_KEY );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 10 ) );
+        table.insert( setup, List.of( row( 10, null ) ) );
+        storage.commit( setup );
+        PolyXid deleter = xid();
+        table.delete( deleter, rowIds( table, 3 ) );
+        storage.commit( deleter );
+        // Changes which are not committed are not part of the snapshot
+        PolyXid running = xid();
+        table.insert( running, rows( 20, 22 ) );
+
+        storage.snapshot();
+        assertFalse( table.isDirty() );
+        assertTrue( new File( folder.toFile(), "tab7.col" ).exists() );
+
+        ColumnarStorage restored = new ColumnarStorage( folder.toFile(), CHUNK_SIZE );
+        ColumnarTable copy = restored.restoreTable( 7, COLUMNS, PRIMARY_KEY );
+        List<String> expected = new ArrayList<>( expected( 0, 10 ) );
+        expected.remove( "3:name3" );
+        expected.add( "10:null" );
+        assertEquals( expected.stream().sorted().toList(), scan( copy, xid() ) );
+        assertFalse( copy.isDirty() );
+        // Deleted rows are removed while loading, the primary key index is rebuilt
+        assertTrue( copy.getGroups().stream().noneMatch( RowGroup::hasDeletions ) );
+        PolyXid writer = xid();
+        assertThrows( GenericRuntimeException.class, () -> copy.insert( writer, List.of( row( 5, "duplicate" ) ) ) );
+        copy.insert( writer, List.of( row( 3, "again" ) ) );
+        assertTrue( copy.prepare( writer ) );
+    }
+
+
+    @Test
+    public void snapshotRestoreWithChangedColumns() {
+        ColumnarStorage storage = new ColumnarStorage( folder.toFile(), CHUNK_SIZE );
+        ColumnarTable table = storage.createTable( 7, COLUMNS, PRIMARY_KEY );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 3 ) );
+        storage.commit( setup );
+        storage.snapshot();
+
+        ColumnarTable copy = new ColumnarStorage( folder.toFile(), CHUNK_SIZE ).restoreTable( 7, List.of( 1L, 3L ), PRIMARY_KEY );
+        assertEquals( List.of( 1L, 3L ), copy.getColumnIds() );
+        RowGroup group = copy.getGroups().get( 0 );
+        assertEquals( 3, group.getRowCount() );
+        assertEquals( PolyInteger.of( 2 ), group.get( 1L, 2 ) );
+        assertEquals( 3, group.getChunk( 3L ).getNullCount() );
+    }
+
+
+    @Test
+    public void missingSnapshotCreatesEmptyTable() {
+        ColumnarStorage storage = new ColumnarStorage( folder.toFile(), CHUNK_SIZE );
+        ColumnarTable table = storage.restoreTable( 7, COLUMNS, PRIMARY_KEY );
+        assertTrue( table.getGroups().isEmpty() );
+        assertSame( table, storage.getTable( 7 ) );
+    }
+
+
+    @Test
+    public void corruptedSnapshotIsRejected() throws IOException {
+        ColumnarStorage storage = new ColumnarStorage( folder.toFile(), CHUNK_SIZE );
+        ColumnarTable table = storage.createTable( 7, COLUMNS, PRIMARY_KEY );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 3 ) );
+        storage.commit( setup );
+        storage.snapshot();
+
+        File file = new File( folder.toFile(), "tab7.col" );
+        try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) ) {
+            long position = raf.length() - 1;
+            raf.seek( position );
+            int last = raf.read();
+            raf.seek( position );
+            raf.write( last ^ 0xff );
+        }
+        assertThrows( GenericRuntimeException.class, () -> new ColumnarStorage( folder.toFile(), CHUNK_SIZE ).restoreTable( 7, COLUMNS, PRIMARY_KEY ) );
+    }
+
+
+    @Test
+    public void droppedTableIsNotRestored() {
+        ColumnarStorage storage = new ColumnarStorage( folder.toFile(), CHUNK_SIZE );
+        ColumnarTable table = storage.createTable( 7, COLUMNS, PRIMARY_KEY );
+        PolyXid setup = xid();
+        table.insert( setup, rows( 0, 3 ) );
+        storage.commit( setup );
+        storage.snapshot();
+        storage.dropTable( 7 );
+
+        assertFalse( new File( folder.toFile(), "tab7.col" ).exists() );
+        assertTrue( new ColumnarStorage( folder.toFile(), CHUNK_SIZE ).restoreTable( 7, COLUMNS, PRIMARY_KEY ).getGroups().isEmpty() );
+    }
+
+}
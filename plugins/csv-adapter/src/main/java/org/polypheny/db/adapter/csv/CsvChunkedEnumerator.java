@@ -0,0 +1,693 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerator;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+import org.polypheny.db.util.Source;
+import org.polypheny.db.util.temporal.DateTimeUtils;
+
+
+/**
+ * Enumerator that reads a large, uncompressed CSV file in parallel. The file is split into byte ranges which start at
+ * record boundaries. The ranges are memory-mapped and parsed concurrently, the rows are returned in the order of the file.
+ * <p>
+ * Records without quotes and escape characters are tokenized directly on the mapped bytes: equality filters are compared
+ * on the raw bytes and only the requested fields are decoded. Integers, booleans, dates, times and timestamps in the
+ * default formats are parsed without creating intermediate strings. All other records and values are handled like in
+ * {@link CsvEnumerator}, so both enumerators return the same rows.
+ */
+@Slf4j
+final class CsvChunkedEnumerator implements Enumerator<PolyValue[]> {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool( r -> {
+        Thread thread = new Thread( r, "CsvScan" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    /**
+     * Ranges are not made smaller than this, as splitting small files does not pay off.
+     */
+    static final long MIN_CHUNK_SIZE = 8L << 20;
+
+    /**
+     * Upper bound for the size of a range, a single mapping is limited to 2 GB.
+     */
+    static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Number of batches buffered per range, this bounds the memory used by ranges which have been parsed ahead.
+     */
+    private static final int QUEUE_CAPACITY = 4;
+
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+    // Marks the end of the rows of a range
+    private static final Object END = new Object();
+
+    private final FileChannel channel;
+    private final AtomicBoolean cancelFlag;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<CsvFieldType> fieldTypes;
+    private final int[] fields;
+    @Nullable
+    private final String[] filterValues;
+    @Nullable
+    private final byte[][] filterBytes;
+    private final List<BlockingQueue<Object>> queues = new ArrayList<>();
+    private final List<Future<?>> workers = new ArrayList<>();
+
+    private int chunk = 0;
+    private Iterator<PolyValue[]> batch = Collections.emptyIterator();
+    private PolyValue[] current;
+
+
+    CsvChunkedEnumerator( FileChannel channel, long[] boundaries, AtomicBoolean cancelFlag, List<CsvFieldType> fieldTypes, int[] fields, @Nullable String[] filterValues ) {
+        this.channel = channel;
+        this.cancelFlag = cancelFlag;
+        this.fieldTypes = fieldTypes;
+        this.fields = fields;
+        this.filterValues = filterValues;
+        if ( filterValues == null ) {
+            this.filterBytes = null;
+        } else {
+            this.filterBytes = new byte[filterValues.length][];
+            for ( int i = 0; i < filterValues.length; i++ ) {
+                filterBytes[i] = filterValues[i] == null ? null : filterValues[i].getBytes( StandardCharsets.UTF_8 );
+            }
+        }
+
+        for ( int i = 0; i < boundaries.length - 1; i++ ) {
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>( QUEUE_CAPACITY );
+            queues.add( queue );
+            workers.add( EXECUTOR.submit( new ChunkParser( boundaries[i], boundaries[i + 1], i == 0, queue ) ) );
+        }
+    }
+
+
+    /**
+     * Opens an enumerator which reads the file in parallel.
+     *
+     * @param threshold Minimal size of a file in bytes to be read in parallel, {@code 0} disables parallel reading
+     * @return The enumerator or {@code null} if the file should be read sequentially
+     */
+    @Nullable
+    static CsvChunkedEnumerator open( Source source, long threshold, AtomicBoolean cancelFlag, List<CsvFieldType> fieldTypes, int[] fields, @Nullable String[] filterValues ) {
+        if ( threshold <= 0 || !source.isFile() || source.path().endsWith( ".gz" ) || source.file().length() < threshold ) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open( source.file().toPath(), StandardOpenOption.READ );
+            long[] boundaries = split( channel, chunkCount( channel.size() ) );
+            if ( boundaries == null ) {
+                log.debug( "{} contains escaped quotes, it is read sequentially", source.path() );
+                channel.close();
+                return null;
+            }
+            return new CsvChunkedEnumerator( channel, boundaries, cancelFlag, fieldTypes, fields, filterValues );
+        } catch ( IOException e ) {
+            closeQuietly( channel );
+            throw new GenericRuntimeException( "Could not split CSV file " + source.path(), e );
+        }
+    }
+
+
+    /**
+     * @return The number of ranges a file is split into, one per core unless the ranges would become too small or too large
+     */
+    static int chunkCount( long size ) {
+        long chunks = Math.max( Math.min( Runtime.getRuntime().availableProcessors(), size / MIN_CHUNK_SIZE ), (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE );
+        return (int) Math.max( 1, chunks );
+    }
+
+
+    /**
+     * Splits a file into ranges which start at record boundaries. To know whether a range starts within a quoted field,
+     * the quotes are counted in all ranges in parallel first.
+     *
+     * @return The offsets at which the ranges start, followed by the size of the file, or {@code null} if the file contains
+     * escaped quotes, as the boundaries cannot be determined by counting quotes then
+     */
+    @Nullable
+    static long[] split( FileChannel channel, int chunks ) throws IOException {
+        long size = channel.size();
+        long[] nominal = new long[chunks + 1];
+        for ( int i = 0; i <= chunks; i++ ) {
+            nominal[i] = size / chunks * i + Math.min( i, size % chunks );
+        }
+
+        List<Future<Long>> counts = new ArrayList<>();
+        for ( int i = 0; i < chunks; i++ ) {
+            long start = nominal[i];
+            long end = nominal[i + 1];
+            counts.add( EXECUTOR.submit( () -> countQuotes( channel, start, end ) ) );
+        }
+
+        long[] boundaries = new long[chunks + 1];
+        boundaries[chunks] = size;
+        long quotes = 0;
+        for ( int i = 0; i < chunks; i++ ) {
+            long count;
+            try {
+                count = counts.get( i ).get();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new IOException( e );
+            } catch ( ExecutionException e ) {
+                throw new IOException( e.getCause() );
+            }
+            if ( count < 0 ) {
+                counts.forEach( c -> c.cancel( true ) );
+                return null;
+            }
+            if ( i > 0 ) {
+                boundaries[i] = nextRecord( channel, nominal[i], quotes % 2 == 1 );
+            }
+            quotes += count;
+        }
+        return boundaries;
+    }
+
+
+    /**
+     * @return The number of quotes in the range or {@code -1} if a quote is escaped with a backslash
+     */
+    private static long countQuotes( FileChannel channel, long start, long end ) throws IOException {
+        if ( start == end ) {
+            return 0;
+        }
+        long offset = Math.max( 0, start - 1 ); // include the previous byte to detect escapes at the start of the range
+        MappedByteBuffer buffer = channel.map( MapMode.READ_ONLY, offset, end - offset );
+        int limit = buffer.limit();
+        long count = 0;
+        byte previous = 0;
+        for ( int i = 0; i < limit; i++ ) {
+            byte b = buffer.get( i );
+            if ( b == '"' ) {
+                if ( previous == '\\' ) {
+                    return -1;
+                }
+                if ( offset + i >= start ) {
+                    count++;
+                }
+            }
+            previous = b;
+        }
+        return count;
+    }
+
+
+    /**
+     * @return The offset of the first record which starts after the given offset
+     */
+    private static long nextRecord( FileChannel channel, long offset, boolean quoted ) throws IOException {
+        long size = channel.size();
+        while ( offset < size ) {
+            MappedByteBuffer buffer = channel.map( MapMode.READ_ONLY, offset, Math.min( size - offset, MAX_CHUNK_SIZE ) );
+            int limit = buffer.limit();
+            for ( int i = 0; i < limit; i++ ) {
+                byte b = buffer.get( i );
+                if ( b == '"' ) {
+                    quoted = !quoted;
+                } else if ( b == '\n' && !quoted ) {
+                    return offset + i + 1;
+                }
+            }
+            offset += limit;
+        }
+        return size;
+    }
+
+
+    @Override
+    public PolyValue[] current() {
+        return current;
+    }
+
+
+    @Override
+    public boolean moveNext() {
+        while ( !batch.hasNext() ) {
+            if ( chunk >= queues.size() ) {
+                current = null;
+                return false;
+            }
+            Object next;
+            try {
+                next = queues.get( chunk ).poll( 100, TimeUnit.MILLISECONDS );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GenericRuntimeException( e );
+            }
+            if ( cancelFlag.get() ) {
+                close();
+                return false;
+            }
+            if ( next == null ) {
+                continue;
+            }
+            if ( next == END ) {
+                chunk++;
+            } else if ( next instanceof Throwable t ) {
+                close();
+                throw new GenericRuntimeException( "Error while reading CSV file", t );
+            } else {
+                //noinspection unchecked
+                batch = ((List<PolyValue[]>) next).iterator();
+            }
+        }
+        current = batch.next();
+        return true;
+    }
+
+
+    @Override
+    public void reset() {
+        throw new UnsupportedOperationException();
+    }
+
+
+    @Override
+    public void close() {
+        if ( closed.getAndSet( true ) ) {
+            return;
+        }
+        workers.forEach( w -> w.cancel( true ) );
+        closeQuietly( channel );
+    }
+
+
+    private static void closeQuietly( @Nullable FileChannel channel ) {
+        if ( channel == null ) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch ( IOException e ) {
+            log.warn( "Error closing CSV file", e );
+        }
+    }
+
+
+    /**
+     * Parses the records of one range.
+     */
+    private class ChunkParser implements Runnable {
+
+        private final long start;
+        private final long end;
+        private final boolean header;
+        private final BlockingQueue<Object> queue;
+        private final CsvEnumerator.ArrayRowConverter converter = new CsvEnumerator.ArrayRowConverter( fieldTypes, fields );
+        private final CsvFieldType[] types = fieldTypes.toArray( new CsvFieldType[0] );
+        private final CSVParser parser = new CSVParserBuilder().build();
+
+        private MappedByteBuffer buffer;
+        // start and end offsets of the fields of the current record
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private byte[] scratch = new byte[64];
+
+
+        ChunkParser( long start, long end, boolean header, BlockingQueue<Object> queue ) {
+            this.start = start;
+            this.end = end;
+            this.header = header;
+            this.queue = queue;
+        }
+
+
+        @Override
+        public void run() {
+            try {
+                parse();
+            } catch ( Throwable t ) {
+                put( t );
+            }
+        }
+
+
+        private void parse() throws IOException {
+            buffer = channel.map( MapMode.READ_ONLY, start, end - start );
+            int limit = buffer.limit();
+            int pos = 0;
+            boolean skip = header;
+            List<PolyValue[]> rows = new ArrayList<>( BATCH_SIZE );
+            while ( pos < limit ) {
+                if ( closed.get() || cancelFlag.get() ) {
+                    return;
+                }
+                int recordStart = pos;
+                int count = 0;
+                boolean quoted = false;
+                boolean special = false;
+                starts[0] = pos;
+                for ( ; pos < limit; pos++ ) {
+                    byte b = buffer.get( pos );
+                    if ( b == '"' ) {
+                        quoted = !quoted;
+                        special = true;
+                    } else if ( b == '\\' ) {
+                        special = true;
+                    } else if ( !quoted ) {
+                        if ( b == ',' ) {
+                            ends[count++] = pos;
+                            grow( count );
+                            starts[count] = pos + 1;
+                        } else if ( b == '\n' ) {
+                            break;
+                        }
+                    }
+                }
+                int recordEnd = pos > recordStart && buffer.get( pos - 1 ) == '\r' ? pos - 1 : pos;
+                if ( pos < limit ) {
+                    pos++; // skip the line break
+                }
+                ends[count++] = recordEnd;
+
+                if ( skip ) {
+                    skip = false;
+                    continue;
+                }
+                if ( recordEnd == recordStart ) {
+                    continue;
+                }
+                PolyValue[] row = special ? convertSpecial( recordStart, recordEnd ) : convert( count );
+                if ( row == null ) {
+                    continue;
+                }
+                rows.add( row );
+                if ( rows.size() == BATCH_SIZE ) {
+                    if ( !put( rows ) ) {
+                        return;
+                    }
+                    rows = new ArrayList<>( BATCH_SIZE );
+                }
+            }
+            if ( !rows.isEmpty() && !put( rows ) ) {
+                return;
+            }
+            put( END );
+        }
+
+
+        private void grow( int count ) {
+            if ( count == starts.length ) {
+                int[] newStarts = new int[count * 2];
+                int[] newEnds = new int[count * 2];
+                System.arraycopy( starts, 0, newStarts, 0, count );
+                System.arraycopy( ends, 0, newEnds, 0, count );
+                starts = newStarts;
+                ends = newEnds;
+            }
+        }
+
+
+        /**
+         * @return {@code false} if the enumerator has been closed
+         */
+        private boolean put( Object item ) {
+            try {
+                while ( !queue.offer( item, 100, TimeUnit.MILLISECONDS ) ) {
+                    if ( closed.get() || cancelFlag.get() ) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+
+        /**
+         * Converts a record without quotes and escape characters.
+         *
+         * @param count Number of fields of the record
+         * @return The row or {@code null} if the record does not satisfy the filters
+         */
+        @Nullable
+        private PolyValue[] convert( int count ) {
+            if ( filterBytes != null ) {
+                for ( int i = 0; i < filterBytes.length && i < count; i++ ) {
+                    if ( filterBytes[i] != null && !equals( starts[i], ends[i], filterBytes[i] ) ) {
+                        return null;
+                    }
+                }
+            }
+            PolyValue[] row = new PolyValue[fields.length];
+            for ( int i = 0; i < fields.length; i++ ) {
+                int field = fields[i];
+                row[i] = field < count ? convert( types[i], starts[field], ends[field] ) : PolyNull.NULL;
+            }
+            return row;
+        }
+
+
+        /**
+         * Converts a record with quotes or escape characters using OpenCSV, like {@link CsvEnumerator}.
+         */
+        @Nullable
+        private PolyValue[] convertSpecial( int recordStart, int recordEnd ) throws IOException {
+            String[] strings = parser.parseLine( string( recordStart, recordEnd ).replace( "\r\n", "\n" ) );
+            if ( filterValues != null ) {
+                for ( int i = 0; i < strings.length; i++ ) {
+                    if ( filterValues[i] != null && !filterValues[i].equals( strings[i] ) ) {
+                        return null;
+                    }
+                }
+            }
+            return converter.convertRow( strings );
+        }
+
+
+        private PolyValue convert( CsvFieldType type, int start, int end ) {
+            if ( type == null || type == CsvFieldType.STRING ) {
+                return PolyString.of( string( start, end ) );
+            }
+            if ( start == end ) {
+                return PolyNull.NULL;
+            }
+            switch ( type ) {
+                case BOOLEAN:
+                    return PolyBoolean.of( end - start == 4 && equalsIgnoreCase( start, "true" ) );
+                case BYTE:
+                case SHORT:
+                case INT: {
+                    long value = parseLong( start, end );
+                    long bound = type == CsvFieldType.BYTE ? Byte.MAX_VALUE : type == CsvFieldType.SHORT ? Short.MAX_VALUE : Integer.MAX_VALUE;
+                    if ( value != NOT_A_NUMBER && value <= bound && value >= -bound - 1 ) {
+                        return PolyInteger.of( (int) value );
+                    }
+                    break;
+                }
+                case LONG: {
+                    long value = parseLong( start, end );
+                    if ( value != NOT_A_NUMBER ) {
+                        return PolyLong.of( value );
+                    }
+                    break;
+                }
+                case DATE: {
+                    long days = end - start == 10 ? parseDate( start ) : NOT_A_NUMBER;
+                    if ( days != NOT_A_NUMBER ) {
+                        return PolyDate.of( new Date( days * DateTimeUtils.MILLIS_PER_DAY ) );
+                    }
+                    break;
+                }
+                case TIME: {
+                    long millis = end - start == 8 ? parseTime( start ) : NOT_A_NUMBER;
+                    if ( millis != NOT_A_NUMBER ) {
+                        return PolyTime.of( (int) millis );
+                    }
+                    break;
+                }
+                case TIMESTAMP: {
+                    if ( end - start == 19 && buffer.get( start + 10 ) == ' ' ) {
+                        long days = parseDate( start );
+                        long millis = parseTime( start + 11 );
+                        if ( days != NOT_A_NUMBER && millis != NOT_A_NUMBER ) {
+                            return PolyTimestamp.of( days * DateTimeUtils.MILLIS_PER_DAY + millis );
+                        }
+                    }
+                    break;
+                }
+                default:
+                    // Floating point numbers are parsed from strings
+                    break;
+            }
+            return converter.convert( type, string( start, end ) );
+        }
+
+
+        private String string( int start, int end ) {
+            int length = end - start;
+            if ( scratch.length < length ) {
+                scratch = new byte[Math.max( length, scratch.length * 2 )];
+            }
+            buffer.get( start, scratch, 0, length );
+            return new String( scratch, 0, length, StandardCharsets.UTF_8 );
+        }
+
+
+        private boolean equals( int start, int end, byte[] value ) {
+            if ( end - start != value.length ) {
+                return false;
+            }
+            for ( int i = 0; i < value.length; i++ ) {
+                if ( buffer.get( start + i ) != value[i] ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private boolean equalsIgnoreCase( int start, String value ) {
+            for ( int i = 0; i < value.length(); i++ ) {
+                if ( Character.toLowerCase( buffer.get( start + i ) ) != value.charAt( i ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        /**
+         * Parses an optionally negative decimal integer with at most 18 digits, which cannot overflow.
+         *
+         * @return The value or {@link #NOT_A_NUMBER} if the value has another format
+         */
+        private long parseLong( int start, int end ) {
+            boolean negative = buffer.get( start ) == '-';
+            int i = negative ? start + 1 : start;
+            if ( i == end || end - i > 18 ) {
+                return NOT_A_NUMBER;
+            }
+            long value = 0;
+            for ( ; i < end; i++ ) {
+                int digit = buffer.get( i ) - '0';
+                if ( digit < 0 || digit > 9 ) {
+                    return NOT_A_NUMBER;
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+
+        private int digits( int start, int length ) {
+            int value = 0;
+            for ( int i = start; i < start + length; i++ ) {
+                int digit = buffer.get( i ) - '0';
+                if ( digit < 0 || digit > 9 ) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+
+        /**
+         * Parses a date in the format {@code yyyy-MM-dd}. Dates before 1600 are left to the date format,
+         * which uses the Julian calendar for them.
+         *
+         * @return The days since the epoch or {@link #NOT_A_NUMBER} if the date is invalid or has another format
+         */
+        private long parseDate( int start ) {
+            if ( buffer.get( start + 4 ) != '-' || buffer.get( start + 7 ) != '-' ) {
+                return NOT_A_NUMBER;
+            }
+            int year = digits( start, 4 );
+            int month = digits( start + 5, 2 );
+            int day = digits( start + 8, 2 );
+            if ( year < 1600 || month < 1 || month > 12 || day < 1 || day > daysInMonth( year, month ) ) {
+                return NOT_A_NUMBER;
+            }
+            return DateTimeUtils.ymdToUnixDate( year, month, day );
+        }
+
+
+        /**
+         * Parses a time in the format {@code HH:mm:ss}.
+         *
+         * @return The milliseconds of the day or {@link #NOT_A_NUMBER} if the time is invalid or has another format
+         */
+        private long parseTime( int start ) {
+            if ( buffer.get( start + 2 ) != ':' || buffer.get( start + 5 ) != ':' ) {
+                return NOT_A_NUMBER;
+            }
+            int hour = digits( start, 2 );
+            int minute = digits( start + 3, 2 );
+            int second = digits( start + 6, 2 );
+            if ( hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 ) {
+                return NOT_A_NUMBER;
+            }
+            return ((hour * 60L + minute) * 60 + second) * 1000;
+        }
+
+
+        private static int daysInMonth( int year, int month ) {
+            return switch ( month ) {
+                case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+                case 4, 6, 9, 11 -> 30;
+                default -> 31;
+            };
+        }
+
+    }
+
+}
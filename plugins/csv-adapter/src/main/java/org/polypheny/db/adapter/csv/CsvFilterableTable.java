@@ -74,7 +74,7 @@ public Enumerable<PolyValue[]> scan( DataContext dataContext, List<RexNode> filt
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new CsvEnumerator( source, cancelFlag, false, filterValues, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ) );
+                return openEnumerator( cancelFlag, filterValues, fields );
             }
         };
     }
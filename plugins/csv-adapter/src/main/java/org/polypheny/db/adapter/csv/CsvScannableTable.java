@@ -68,7 +68,7 @@ public Enumerable<PolyValue[]> scan( DataContext dataContext ) {
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new CsvEnumerator( source, cancelFlag, false, null, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ) );
+                return openEnumerator( cancelFlag, null, fields );
             }
         };
     }
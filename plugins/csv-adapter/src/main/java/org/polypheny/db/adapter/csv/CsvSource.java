@@ -38,10 +38,12 @@
 import org.polypheny.db.adapter.RelationalDataSource;
 import org.polypheny.db.adapter.RelationalScanDelegate;
 import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingBoolean;
 import org.polypheny.db.adapter.annotations.AdapterSettingDirectory;
 import org.polypheny.db.adapter.annotations.AdapterSettingInteger;
 import org.polypheny.db.adapter.annotations.AdapterSettingList;
 import org.polypheny.db.adapter.annotations.AdapterSettingString;
+import org.polypheny.db.adapter.cache.SourceSidecar;
 import org.polypheny.db.adapter.csv.CsvTable.Flavor;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.catalogs.RelAdapterCatalog;
@@ -74,6 +76,8 @@
 @AdapterSettingString(subOf = "method_link", defaultValue = "classpath://hr", name = "directoryName", description = "You can select a path to a folder or specific .csv or .csv.gz files.", position = 2)
 @AdapterSettingInteger(name = "maxStringLength", defaultValue = 255, position = 3,
         description = "Which length (number of characters including whitespace) should be used for the varchar columns. Make sure this is equal or larger than the longest string in any of the columns.")
+@AdapterSettingInteger(name = "parallelScanThreshold", defaultValue = 64, position = 4,
+        description = "Uncompressed files larger than this many megabytes are split into chunks which are parsed in parallel. Set to 0 to always read files sequentially.")
 public class CsvSource extends DataSource<RelAdapterCatalog> implements RelationalDataSource {
 
     private static final Logger log = LoggerFactory.getLogger( CsvSource.class );
@@ -85,6 +89,10 @@ public class CsvSource extends DataSource<RelAdapterCatalog> implements Relation
     @Getter
     private CsvSchema currentNamespace;
     private final int maxStringLength;
+    @Getter
+    private final long parallelScanThreshold;
+    @Getter
+    private final boolean sidecarCache;
     private Map<String, List<ExportedColumn>> exportedColumnCache;
 
 
@@ -103,6 +111,14 @@ public CsvSource( final long storeId, final String uniqueName, final Map<String,
             throw new GenericRuntimeException( "Invalid value for maxStringLength: " + maxStringLength );
         }
 
+        // Adapters deployed before this setting existed do not have it
+        int threshold = settings.containsKey( "parallelScanThreshold" ) ? Integer.parseInt( settings.get( "parallelScanThreshold" ) ) : 64;
+        if ( threshold < 0 ) {
+            throw new GenericRuntimeException( "Invalid value for parallelScanThreshold: " + threshold );
+        }
+        parallelScanThreshold = threshold * (1L << 20);
+        sidecarCache = Boolean.parseBoolean( settings.getOrDefault( "sidecarCache", "false" ) );
+
         addInformationExportedColumns();
         enableInformationPage();
 
@@ -327,6 +343,7 @@ public void rollback( PolyXid xid ) {
     @Override
     public void shutdown() {
         removeInformationPage();
+        SourceSidecar.deleteAll( adapterId );
     }
 
 
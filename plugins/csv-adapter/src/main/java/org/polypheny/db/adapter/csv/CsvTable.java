@@ -34,7 +34,13 @@
 package org.polypheny.db.adapter.csv;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.adapter.cache.SourceSidecar;
 import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.util.Source;
 
 
@@ -47,6 +53,8 @@ public abstract class CsvTable extends PhysicalTable {
     protected List<CsvFieldType> fieldTypes;
     protected final int[] fields;
     protected final CsvSource csvSource;
+    @Nullable
+    private final SourceSidecar sidecar;
 
 
     /**
@@ -67,6 +75,85 @@ public abstract class CsvTable extends PhysicalTable {
         this.fieldTypes = fieldTypes;
         this.fields = fields;
         this.csvSource = csvSource;
+        this.sidecar = csvSource.isSidecarCache() && source.isFile() ? SourceSidecar.of( csvSource.getAdapterId(), table.name, source.file() ) : null;
+    }
+
+
+    /**
+     * Opens an enumerator over the given fields. If enabled, the rows are read from the {@link SourceSidecar} of the file.
+     * Otherwise, large files are read in parallel, see {@link CsvChunkedEnumerator}.
+     *
+     * @param filterValues Values the fields have to be equal to, {@code null} for fields which are not filtered
+     */
+    Enumerator<PolyValue[]> openEnumerator( AtomicBoolean cancelFlag, @Nullable String[] filterValues, int[] fields ) {
+        if ( sidecar != null ) {
+            Enumerator<PolyValue[]> enumerator = openSidecar( cancelFlag, filterValues, fields );
+            if ( enumerator != null ) {
+                return enumerator;
+            }
+        }
+        Enumerator<PolyValue[]> enumerator = CsvChunkedEnumerator.open( source, csvSource.getParallelScanThreshold(), cancelFlag, fieldTypes, fields, filterValues );
+        if ( enumerator != null ) {
+            return enumerator;
+        }
+        return new CsvEnumerator( source, cancelFlag, false, filterValues, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ) );
+    }
+
+
+    /**
+     * @return An enumerator over the sidecar or {@code null} if the file has to be read, in which case the sidecar is rebuilt
+     * unless it is only unable to evaluate the filter
+     */
+    @Nullable
+    private Enumerator<PolyValue[]> openSidecar( AtomicBoolean cancelFlag, @Nullable String[] filterValues, int[] fields ) {
+        if ( !isSidecarFilter( fieldTypes, filterValues ) ) {
+            return null;
+        }
+        Enumerator<PolyValue[]> enumerator = sidecar.open( fields, toSidecarFilter( filterValues ), cancelFlag );
+        if ( enumerator == null ) {
+            int[] all = CsvEnumerator.identityList( fieldTypes.size() );
+            sidecar.scheduleBuild(
+                    () -> new CsvEnumerator( source, new AtomicBoolean(), false, null, new CsvEnumerator.ArrayRowConverter( fieldTypes, all ) ),
+                    fieldTypes.size(),
+                    logicalId );
+        }
+        return enumerator;
+    }
+
+
+    /**
+     * The file is filtered by comparing the raw strings of the fields, while the sidecar compares typed values.
+     * Both comparisons only agree for string fields, whose typed values are their raw strings. A filter on any other field
+     * would match different rows depending on whether a sidecar exists, it is therefore always evaluated on the file.
+     *
+     * @return Whether the sidecar returns the same rows for the filter as the file
+     */
+    static boolean isSidecarFilter( List<CsvFieldType> fieldTypes, @Nullable String[] filterValues ) {
+        if ( filterValues == null ) {
+            return true;
+        }
+        for ( int i = 0; i < filterValues.length; i++ ) {
+            if ( filterValues[i] != null && fieldTypes.get( i ) != null && fieldTypes.get( i ) != CsvFieldType.STRING ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * @return The values the columns of the sidecar have to be equal to, see {@link #isSidecarFilter(List, String[])}
+     */
+    @Nullable
+    static PolyValue[] toSidecarFilter( @Nullable String[] filterValues ) {
+        if ( filterValues == null ) {
+            return null;
+        }
+        PolyValue[] equalTo = new PolyValue[filterValues.length];
+        for ( int i = 0; i < filterValues.length; i++ ) {
+            equalTo[i] = filterValues[i] == null ? null : PolyString.of( filterValues[i] );
+        }
+        return equalTo;
     }
 
 
@@ -72,7 +72,7 @@ public Enumerable<PolyValue[]> project( final DataContext dataContext, final int
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new CsvEnumerator( source, cancelFlag, fieldTypes, fields );
+                return openEnumerator( cancelFlag, null, fields );
             }
         };
     }
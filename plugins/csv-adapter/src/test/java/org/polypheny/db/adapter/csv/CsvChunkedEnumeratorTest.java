@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.Source;
+import org.polypheny.db.util.Sources;
+
+public class CsvChunkedEnumeratorTest {
+
+    private static final List<CsvFieldType> FIELD_TYPES = List.of(
+            CsvFieldType.INT,
+            CsvFieldType.STRING,
+            CsvFieldType.DATE,
+            CsvFieldType.TIMESTAMP,
+            CsvFieldType.BOOLEAN,
+            CsvFieldType.DOUBLE );
+
+    @TempDir
+    Path folder;
+
+
+    @Test
+    public void testSameRowsAsSequential() throws IOException {
+        File file = createFile();
+        int[] fields = CsvEnumerator.identityList( FIELD_TYPES.size() );
+        for ( int chunks : new int[]{ 1, 2, 7, 64 } ) {
+            assertSameRows( readSequential( file, null, fields ), readChunked( file, chunks, null, fields ) );
+        }
+    }
+
+
+    @Test
+    public void testFilterAndProjection() throws IOException {
+        File file = createFile();
+        String[] filter = new String[FIELD_TYPES.size()];
+        filter[4] = "TRUE";
+        int[] fields = new int[]{ 0, 3 };
+        List<PolyValue[]> expected = readSequential( file, filter, fields );
+        assertEquals( 500, expected.size() );
+        assertSameRows( expected, readChunked( file, 5, filter, fields ) );
+    }
+
+
+    @Test
+    public void testEscapedQuotesAreNotSplit() throws IOException {
+        File file = folder.resolve( "escaped.csv" ).toFile();
+        Files.writeString( file.toPath(), "a:string\n\"x\\\"y\"\n" );
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+            assertNull( CsvChunkedEnumerator.split( channel, 2 ) );
+        }
+    }
+
+
+    private File createFile() throws IOException {
+        StringBuilder builder = new StringBuilder( "id:int,name:string,born:date,updated:timestamp,active:boolean,score:double\n" );
+        for ( int i = 0; i < 2000; i++ ) {
+            String name = switch ( i % 5 ) {
+                case 0 -> "\"Smith, John\"";
+                case 1 -> "\"multi\nline \"\"quoted\"\" value\"";
+                case 2 -> "";
+                default -> "name" + i;
+            };
+            String date = i % 7 == 0 ? "" : String.format( "%04d-%02d-%02d", 1990 + i % 40, 1 + i % 12, 1 + i % 28 );
+            String timestamp = String.format( "2020-02-%02d %02d:%02d:%02d", 1 + i % 29, i % 24, i % 60, (i * 7) % 60 );
+            builder.append( i % 11 == 0 ? -i : i ).append( ',' )
+                    .append( name ).append( ',' )
+                    .append( date ).append( ',' )
+                    .append( timestamp ).append( ',' )
+                    .append( i % 4 == 0 ? "TRUE" : "false" ).append( ',' )
+                    .append( i / 3.0 )
+                    .append( i % 3 == 0 ? "\r\n" : "\n" );
+        }
+        File file = folder.resolve( "data.csv" ).toFile();
+        Files.writeString( file.toPath(), builder.toString(), StandardCharsets.UTF_8 );
+        return file;
+    }
+
+
+    private static List<PolyValue[]> readSequential( File file, String[] filter, int[] fields ) {
+        Source source = Sources.of( file );
+        return readAll( new CsvEnumerator( source, new AtomicBoolean(), false, filter, new CsvEnumerator.ArrayRowConverter( FIELD_TYPES, fields ) ) );
+    }
+
+
+    private static List<PolyValue[]> readChunked( File file, int chunks, String[] filter, int[] fields ) throws IOException {
+        FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+        long[] boundaries = CsvChunkedEnumerator.split( channel, chunks );
+        return readAll( new CsvChunkedEnumerator( channel, boundaries, new AtomicBoolean(), FIELD_TYPES, fields, filter ) );
+    }
+
+
+    private static List<PolyValue[]> readAll( Enumerator<PolyValue[]> enumerator ) {
+        List<PolyValue[]> rows = new ArrayList<>();
+        while ( enumerator.moveNext() ) {
+            rows.add( enumerator.current() );
+        }
+        enumerator.close();
+        return rows;
+    }
+
+
+    private static void assertSameRows( List<PolyValue[]> expected, List<PolyValue[]> actual ) {
+        assertEquals( expected.size(), actual.size() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertArrayEquals( expected.get( i ), actual.get( i ), "Row " + i );
+        }
+    }
+
+}
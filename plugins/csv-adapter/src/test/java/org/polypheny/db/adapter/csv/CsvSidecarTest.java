@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.adapter.cache.SourceSidecar;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.Sources;
+
+/**
+ * Checks that a filtered scan returns the same rows, independent of whether it reads the file or its {@link SourceSidecar}.
+ */
+public class CsvSidecarTest {
+
+    private static final List<CsvFieldType> FIELD_TYPES = List.of(
+            CsvFieldType.INT,
+            CsvFieldType.STRING,
+            CsvFieldType.BOOLEAN );
+
+    @TempDir
+    Path folder;
+
+
+    @Test
+    public void testStringFilterUsesSidecar() throws IOException {
+        SourceSidecar sidecar = build();
+        int[] fields = new int[]{ 1, 0 };
+        for ( String value : new String[]{ "name3", "", "NAME3", "007" } ) {
+            String[] filter = new String[FIELD_TYPES.size()];
+            filter[1] = value;
+            assertTrue( CsvTable.isSidecarFilter( FIELD_TYPES, filter ) );
+            List<PolyValue[]> expected = readFile( filter, fields );
+            assertFalse( expected.isEmpty(), value );
+            assertSameRows( expected, readAll( sidecar.open( fields, CsvTable.toSidecarFilter( filter ), new AtomicBoolean() ) ) );
+        }
+        assertSameRows( readFile( null, fields ), readAll( sidecar.open( fields, CsvTable.toSidecarFilter( null ), new AtomicBoolean() ) ) );
+    }
+
+
+    @Test
+    public void testTypedFilterReadsFile() throws IOException {
+        build();
+        // "7" and "007" are the same integer, but the file only matches the raw string "7"
+        String[] filter = new String[FIELD_TYPES.size()];
+        filter[0] = "7";
+        assertFalse( CsvTable.isSidecarFilter( FIELD_TYPES, filter ) );
+        assertEquals( 1, readFile( filter, new int[]{ 0 } ).size() );
+
+        filter = new String[FIELD_TYPES.size()];
+        filter[2] = "TRUE";
+        assertFalse( CsvTable.isSidecarFilter( FIELD_TYPES, filter ) );
+    }
+
+
+    private File file() {
+        return folder.resolve( "data.csv" ).toFile();
+    }
+
+
+    private SourceSidecar build() throws IOException {
+        StringBuilder builder = new StringBuilder( "id:int,name:string,active:boolean\n" );
+        for ( int i = 0; i < 100; i++ ) {
+            String name = switch ( i % 5 ) {
+                case 0 -> "";
+                case 1 -> "NAME3";
+                case 2 -> "007";
+                default -> "name" + i % 4;
+            };
+            builder.append( i == 8 ? "007" : String.valueOf( i ) ).append( ',' )
+                    .append( name ).append( ',' )
+                    .append( i % 2 == 0 ? "TRUE" : "true" ).append( '\n' );
+        }
+        Files.writeString( file().toPath(), builder.toString(), StandardCharsets.UTF_8 );
+
+        SourceSidecar sidecar = new SourceSidecar( folder.resolve( "data.bin" ).toFile(), file() );
+        int[] all = CsvEnumerator.identityList( FIELD_TYPES.size() );
+        sidecar.build( new CsvEnumerator( Sources.of( file() ), new AtomicBoolean(), false, null, new CsvEnumerator.ArrayRowConverter( FIELD_TYPES, all ) ), FIELD_TYPES.size() );
+        return sidecar;
+    }
+
+
+    private List<PolyValue[]> readFile( String[] filter, int[] fields ) {
+        return readAll( new CsvEnumerator( Sources.of( file() ), new AtomicBoolean(), false, filter, new CsvEnumerator.ArrayRowConverter( FIELD_TYPES, fields ) ) );
+    }
+
+
+    private static List<PolyValue[]> readAll( Enumerator<PolyValue[]> enumerator ) {
+        assertNotNull( enumerator );
+        List<PolyValue[]> rows = new ArrayList<>();
+        while ( enumerator.moveNext() ) {
+            rows.add( enumerator.current() );
+        }
+        enumerator.close();
+        return rows;
+    }
+
+
+    private static void assertSameRows( List<PolyValue[]> expected, List<PolyValue[]> actual ) {
+        assertEquals( expected.size(), actual.size() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertArrayEquals( expected.get( i ), actual.get( i ), "Row " + i );
+        }
+    }
+
+}
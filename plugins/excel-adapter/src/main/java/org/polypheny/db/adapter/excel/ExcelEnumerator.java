@@ -62,8 +62,8 @@ class ExcelEnumerator implements Enumerator<PolyValue[]> {
     private PolyValue[] current;
 
     private static final FastDateFormat TIME_FORMAT_DATE;
-    private static final FastDateFormat TIME_FORMAT_TIME;
-    private static final FastDateFormat TIME_FORMAT_TIMESTAMP;
+    static final FastDateFormat TIME_FORMAT_TIME;
+    static final FastDateFormat TIME_FORMAT_TIMESTAMP;
 
     /**
      * Name of the column that is implicitly created in an Excel stream table to hold the data arrival time.
@@ -64,7 +64,7 @@ public Enumerable<PolyValue[]> scan( DataContext dataContext, List<RexNode> filt
         return new AbstractEnumerable<PolyValue[]>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new ExcelEnumerator( source, cancelFlag, false, filterValues, new ExcelEnumerator.ArrayRowConverter( fieldTypes, fields ), sheet );
+                return openEnumerator( cancelFlag, filterValues );
             }
         };
     }
@@ -59,7 +59,7 @@ public Enumerable<PolyValue[]> scan( DataContext dataContext ) {
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new ExcelEnumerator( source, cancelFlag, false, null, new ExcelEnumerator.ArrayRowConverter( fieldTypes, fields ), sheet );
+                return openEnumerator( cancelFlag, null );
             }
         };
     }
@@ -25,7 +25,6 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,10 +43,12 @@
 import org.polypheny.db.adapter.RelationalDataSource;
 import org.polypheny.db.adapter.RelationalScanDelegate;
 import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingBoolean;
 import org.polypheny.db.adapter.annotations.AdapterSettingDirectory;
 import org.polypheny.db.adapter.annotations.AdapterSettingInteger;
 import org.polypheny.db.adapter.annotations.AdapterSettingList;
 import org.polypheny.db.adapter.annotations.AdapterSettingString;
+import org.polypheny.db.adapter.cache.SourceSidecar;
 import org.polypheny.db.adapter.excel.ExcelTable.Flavor;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.catalogs.RelAdapterCatalog;
@@ -78,6 +79,10 @@
 @AdapterSettingString(name = "sheetName", description = "default to read the first sheet", defaultValue = "", required = false)
 @AdapterSettingInteger(name = "maxStringLength", defaultValue = 255, position = 2,
         description = "Which length (number of characters including whitespace) should be used for the varchar columns. Make sure this is equal or larger than the longest string in any of the columns.")
+@AdapterSettingBoolean(name = "sidecarCache", defaultValue = false, position = 3,
+        description = "Keep a binary copy of every sheet in the Polypheny home directory, which is read instead of the file as long as the file is not modified.")
+@AdapterSettingInteger(name = "streamingThreshold", defaultValue = 16, position = 4,
+        description = "XLSX files larger than this many megabytes are read row by row instead of loading the whole workbook into memory. Set to 0 to always load the whole workbook.")
 public class ExcelSource extends DataSource<RelAdapterCatalog> implements RelationalDataSource {
 
     @Delegate(excludes = Excludes.class)
@@ -87,6 +92,10 @@ public class ExcelSource extends DataSource<RelAdapterCatalog> implements Relati
     @Getter
     private ExcelNamespace currentNamespace;
     private final int maxStringLength;
+    @Getter
+    private final boolean sidecarCache;
+    @Getter
+    private final long streamingThreshold;
     private Map<String, List<ExportedColumn>> exportedColumnCache;
     public String sheetName;
 
@@ -102,6 +111,13 @@ public ExcelSource( final long storeId, final String uniqueName, final Map<Strin
             throw new GenericRuntimeException( "Invalid value for maxStringLength: " + maxStringLength );
         }
         this.sheetName = settings.get( "sheetName" );
+        // Adapters deployed before these settings existed do not have them
+        this.sidecarCache = Boolean.parseBoolean( settings.getOrDefault( "sidecarCache", "false" ) );
+        int threshold = Integer.parseInt( settings.getOrDefault( "streamingThreshold", "16" ) );
+        if ( threshold < 0 ) {
+            throw new GenericRuntimeException( "Invalid value for streamingThreshold: " + threshold );
+        }
+        this.streamingThreshold = threshold * (1L << 20);
 
         setExcelDir( settings );
         addInformationExportedColumns();
@@ -181,6 +197,7 @@ public void rollback( PolyXid xid ) {
     @Override
     public void shutdown() {
         removeInformationPage();
+        SourceSidecar.deleteAll( adapterId );
     }
 
 
@@ -240,105 +257,113 @@ public Map<String, List<ExportedColumn>> getExportedColumns() {
 
             List<ExportedColumn> list = new ArrayList<>();
             int position = 1;
+            Source source;
             try {
-                Source source = Sources.of( new URL( excelDir, fileName ) );
-                File file = new File( source.path() );   //creating a new file instance
-                FileInputStream fs = new FileInputStream( file );
-
-                Workbook workbook = WorkbookFactory.create( fs );
-                Sheet sheet;
-
-                if ( this.sheetName.equals( "" ) ) {
-                    sheet = workbook.getSheetAt( 0 );
-                    currentSheetName = workbook.getSheetName( 0 );
+                source = Sources.of( new URL( excelDir, fileName ) );
+            } catch ( MalformedURLException e ) {
+                throw new GenericRuntimeException( e );
+            }
+            List<String> header;
+            if ( XlsxStreamingEnumerator.accepts( source, streamingThreshold ) ) {
+                // Large workbooks are not loaded into memory, only their first row is read
+                XlsxStreamingEnumerator.Header streamed = XlsxStreamingEnumerator.readHeader( source, this.sheetName );
+                currentSheetName = streamed.sheetName();
+                header = streamed.cells();
+            } else {
+                header = new ArrayList<>();
+                try ( FileInputStream fs = new FileInputStream( source.path() ); Workbook workbook = WorkbookFactory.create( fs ) ) {
+                    Sheet sheet;
+                    if ( this.sheetName.equals( "" ) ) {
+                        sheet = workbook.getSheetAt( 0 );
+                        currentSheetName = workbook.getSheetName( 0 );
+                    } else {
+                        sheet = workbook.getSheet( this.sheetName );
+                        currentSheetName = this.sheetName;
+                    }
 
-                } else {
-                    sheet = workbook.getSheet( this.sheetName );
-                    currentSheetName = this.sheetName;
+                    // Read first row to extract column attribute name and datatype
+                    for ( Row row : sheet ) {
+                        for ( Cell cell : row ) {
+                            header.add( cell.getStringCellValue() );
+                        }
+                        break;
+                    }
+                } catch ( IOException | IllegalStateException e ) {
+                    throw new GenericRuntimeException( e );
                 }
+            }
 
-                // Read first row to extract column attribute name and datatype
-                for ( Row row : sheet ) {
-                    // For each row, iterate through all the columns
-                    Iterator<Cell> cellIterator = row.cellIterator();
-
-                    while ( cellIterator.hasNext() ) {
-                        Cell cell = cellIterator.next();
-                        try {
-                            String[] colSplit = cell.getStringCellValue().split( ":" );
-                            String name = colSplit[0]
-                                    .toLowerCase()
-                                    .trim()
-                                    .replaceAll( "[^a-z0-9_]+", "" );
-                            String typeStr = "string";
-                            if ( colSplit.length > 1 ) {
-                                typeStr = colSplit[1].toLowerCase().trim();
-                            }
-                            PolyType collectionsType = null;
-                            PolyType type;
-                            Integer length = null;
-                            Integer scale = null;
-                            Integer dimension = null;
-                            Integer cardinality = null;
-                            switch ( typeStr.toLowerCase() ) {
-                                case "int":
-                                    type = PolyType.INTEGER;
-                                    break;
-                                case "string":
-                                    type = PolyType.VARCHAR;
-                                    length = maxStringLength;
-                                    break;
-                                case "boolean":
-                                    type = PolyType.BOOLEAN;
-                                    break;
-                                case "long":
-                                    type = PolyType.BIGINT;
-                                    break;
-                                case "float":
-                                    type = PolyType.REAL;
-                                    break;
-                                case "double":
-                                    type = PolyType.DOUBLE;
-                                    break;
-                                case "date":
-                                    type = PolyType.DATE;
-                                    break;
-                                case "time":
-                                    type = PolyType.TIME;
-                                    length = 0;
-                                    break;
-                                case "timestamp":
-                                    type = PolyType.TIMESTAMP;
-                                    length = 0;
-                                    break;
-                                default:
-                                    throw new GenericRuntimeException( "Unknown type: " + typeStr.toLowerCase() );
-                            }
-
-                            list.add( new ExportedColumn(
-                                    name,
-                                    type,
-                                    collectionsType,
-                                    length,
-                                    scale,
-                                    dimension,
-                                    cardinality,
-                                    false,
-                                    fileName,
-                                    physicalTableName,
-                                    name,
-                                    position,
-                                    position == 1 ) ); // TODO
-
-                            position++;
-                        } catch ( Exception e ) {
-                            throw new GenericRuntimeException( e );
-                        }
+            for ( String cell : header ) {
+                try {
+                    String[] colSplit = cell.split( ":" );
+                    String name = colSplit[0]
+                            .toLowerCase()
+                            .trim()
+                            .replaceAll( "[^a-z0-9_]+", "" );
+                    String typeStr = "string";
+                    if ( colSplit.length > 1 ) {
+                        typeStr = colSplit[1].toLowerCase().trim();
+                    }
+                    PolyType collectionsType = null;
+                    PolyType type;
+                    Integer length = null;
+                    Integer scale = null;
+                    Integer dimension = null;
+                    Integer cardinality = null;
+                    switch ( typeStr.toLowerCase() ) {
+                        case "int":
+                            type = PolyType.INTEGER;
+                            break;
+                        case "string":
+                            type = PolyType.VARCHAR;
+                            length = maxStringLength;
+                            break;
+                        case "boolean":
+                            type = PolyType.BOOLEAN;
+                            break;
+                        case "long":
+                            type = PolyType.BIGINT;
+                            break;
+                        case "float":
+                            type = PolyType.REAL;
+                            break;
+                        case "double":
+                            type = PolyType.DOUBLE;
+                            break;
+                        case "date":
+                            type = PolyType.DATE;
+                            break;
+                        case "time":
+                            type = PolyType.TIME;
+                            length = 0;
+                            break;
+                        case "timestamp":
+                            type = PolyType.TIMESTAMP;
+                            length = 0;
+                            break;
+                        default:
+                            throw new GenericRuntimeException( "Unknown type: " + typeStr.toLowerCase() );
                     }
-                    break;
+
+                    list.add( new ExportedColumn(
+                            name,
+                            type,
+                            collectionsType,
+                            length,
+                            scale,
+                            dimension,
+                            cardinality,
+                            false,
+                            fileName,
+                            physicalTableName,
+                            name,
+                            position,
+                            position == 1 ) ); // TODO
+
+                    position++;
+                } catch ( Exception e ) {
+                    throw new GenericRuntimeException( e );
                 }
-            } catch ( IOException e ) {
-                throw new GenericRuntimeException( e );
             }
             exportedColumnCache.put( physicalTableName + "_" + currentSheetName, list );
         }
@@ -17,12 +17,19 @@
 package org.polypheny.db.adapter.excel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.adapter.cache.SourceSidecar;
 import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeFactory;
 import org.polypheny.db.algebra.type.AlgProtoDataType;
 import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.util.Source;
 
 public class ExcelTable extends PhysicalTable {
@@ -33,6 +40,8 @@ public class ExcelTable extends PhysicalTable {
     protected final int[] fields;
     protected final ExcelSource excelSource;
     protected final String sheet;
+    @Nullable
+    private final SourceSidecar sidecar;
 
 
     /**
@@ -54,6 +63,7 @@ public class ExcelTable extends PhysicalTable {
         this.fields = fields;
         this.excelSource = excelSource;
         this.sheet = sheet;
+        this.sidecar = excelSource.isSidecarCache() && source.isFile() ? SourceSidecar.of( excelSource.getAdapterId(), table.name, source.file() ) : null;
     }
 
 
@@ -81,6 +91,35 @@ public AlgDataType getTupleType( AlgDataTypeFactory typeFactory ) {
     }
 
 
+    /**
+     * Opens an enumerator over all fields of this table. If enabled, the rows are read from the {@link SourceSidecar} of the file.
+     */
+    Enumerator<PolyValue[]> openEnumerator( AtomicBoolean cancelFlag, @Nullable String[] filterValues ) {
+        boolean filtered = filterValues != null && Arrays.stream( filterValues ).anyMatch( Objects::nonNull );
+        if ( sidecar != null && !filtered ) {
+            Enumerator<PolyValue[]> enumerator = sidecar.open( ExcelEnumerator.identityList( fields.length ), null, cancelFlag );
+            if ( enumerator != null ) {
+                return enumerator;
+            }
+            sidecar.scheduleBuild( () -> openFile( new AtomicBoolean(), null, fields ), fields.length, logicalId );
+        }
+        return openFile( cancelFlag, filterValues, fields );
+    }
+
+
+    /**
+     * Reads the file. Large XLSX workbooks are read row by row instead of being loaded into memory, see {@link XlsxStreamingEnumerator}.
+     *
+     * @param fields Position (starting with 1) in the row which every column of the sheet is read into
+     */
+    Enumerator<PolyValue[]> openFile( AtomicBoolean cancelFlag, @Nullable String[] filterValues, int[] fields ) {
+        if ( XlsxStreamingEnumerator.accepts( source, excelSource.getStreamingThreshold() ) ) {
+            return XlsxStreamingEnumerator.open( source, sheet, cancelFlag, fieldTypes, fields );
+        }
+        return new ExcelEnumerator( source, cancelFlag, false, filterValues, new ExcelEnumerator.ArrayRowConverter( fieldTypes, fields ), sheet );
+    }
+
+
     /**
      * Various degrees of table "intelligence".
      */
@@ -62,7 +62,7 @@ public Enumerable<PolyValue[]> project( final DataContext dataContext, final int
         return new AbstractEnumerable<PolyValue[]>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new ExcelEnumerator( source, cancelFlag, fieldTypes, fields, sheet );
+                return openFile( cancelFlag, null, fields );
             }
         };
     }
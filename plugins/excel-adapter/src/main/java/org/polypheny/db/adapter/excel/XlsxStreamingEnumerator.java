@@ -0,0 +1,476 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+import org.polypheny.db.util.Source;
+import org.polypheny.db.util.temporal.DateTimeUtils;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Reads the rows of a sheet of an XLSX workbook one by one, using a pull parser on the XML of the sheet.
+ * In contrast to {@link ExcelEnumerator}, the workbook is not loaded into memory, only the shared strings table is.
+ * Cells of columns which are not projected are skipped without being converted.
+ * <p>
+ * The values are converted like {@link ExcelEnumerator.RowConverter} converts the cells of a loaded workbook, the value getters of
+ * the POI cells are emulated for this. Like there, missing cells are left empty, blank cells are read as empty string, zero or
+ * false, and reading a value of another kind than the one of the cell fails.
+ */
+final class XlsxStreamingEnumerator implements Enumerator<PolyValue[]> {
+
+    private enum CellKind {
+        STRING,
+        NUMERIC,
+        BOOLEAN,
+        BLANK,
+        ERROR
+    }
+
+
+    /**
+     * @param sheetName Name of the read sheet
+     * @param cells Cells of the first row of the sheet
+     */
+    record Header( String sheetName, List<String> cells ) {
+
+    }
+
+
+    private final OPCPackage pkg;
+    private final String sheetName;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final boolean date1904;
+    private final AtomicBoolean cancelFlag;
+
+    private final ExcelFieldType[] fieldTypes;
+    /**
+     * Output position of every column of the sheet, {@code -1} for columns which are not read.
+     */
+    private final int[] outputs;
+
+    private boolean headerSkipped;
+    private PolyValue[] current;
+
+
+    private XlsxStreamingEnumerator( OPCPackage pkg, String sheetName, InputStream sheetStream, ReadOnlySharedStringsTable sharedStrings, boolean date1904, AtomicBoolean cancelFlag, ExcelFieldType[] fieldTypes, int[] columns ) throws XMLStreamException {
+        this.pkg = pkg;
+        this.sheetName = sheetName;
+        this.sheetStream = sheetStream;
+        this.xml = XMLHelper.newXMLInputFactory().createXMLStreamReader( sheetStream );
+        this.sharedStrings = sharedStrings;
+        this.date1904 = date1904;
+        this.cancelFlag = cancelFlag;
+        this.fieldTypes = fieldTypes;
+        int maxColumn = Arrays.stream( columns ).max().orElse( -1 );
+        this.outputs = new int[maxColumn + 1];
+        Arrays.fill( outputs, -1 );
+        for ( int i = 0; i < columns.length; i++ ) {
+            if ( columns[i] >= 0 ) {
+                outputs[columns[i]] = i;
+            }
+        }
+    }
+
+
+    /**
+     * @return Whether the source is an XLSX workbook larger than the threshold
+     */
+    static boolean accepts( Source source, long threshold ) {
+        if ( threshold <= 0 || !source.isFile() ) {
+            return false;
+        }
+        String path = source.path().toLowerCase( Locale.ROOT );
+        return (path.endsWith( ".xlsx" ) || path.endsWith( ".xlsm" )) && source.file().length() > threshold;
+    }
+
+
+    /**
+     * Opens the sheet for the same rows as an {@link ExcelEnumerator} with an {@link ExcelEnumerator.ArrayRowConverter} of the
+     * given field types and fields.
+     *
+     * @param sheetName Name of the sheet, the first sheet is read if empty
+     * @param fields Position (starting with 1) in the row which every column of the sheet is read into
+     */
+    static XlsxStreamingEnumerator open( Source source, String sheetName, AtomicBoolean cancelFlag, List<ExcelFieldType> fieldTypes, int[] fields ) {
+        int[] columns = new int[fields.length];
+        Arrays.fill( columns, -1 );
+        for ( int column = 0; column < fields.length; column++ ) {
+            int position = fields[column] - 1;
+            if ( position >= 0 && position < columns.length ) {
+                columns[position] = column;
+            }
+        }
+        ExcelFieldType[] types = new ExcelFieldType[fields.length];
+        for ( int i = 0; i < types.length && i < fieldTypes.size(); i++ ) {
+            types[i] = fieldTypes.get( i );
+        }
+        return open( source, sheetName, cancelFlag, types, columns );
+    }
+
+
+    /**
+     * @param sheetName Name of the sheet, the first sheet is read if empty
+     * @param fieldTypes Type of every output column
+     * @param columns Sheet column of every output column, {@code -1} for output columns which are always null
+     */
+    static XlsxStreamingEnumerator open( Source source, String sheetName, AtomicBoolean cancelFlag, ExcelFieldType[] fieldTypes, int[] columns ) {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open( source.file(), PackageAccess.READ );
+            XSSFReader reader = new XSSFReader( pkg );
+            boolean date1904 = isDate1904( reader );
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while ( sheets.hasNext() ) {
+                InputStream sheet = sheets.next();
+                if ( sheetName == null || sheetName.isEmpty() || sheets.getSheetName().equals( sheetName ) ) {
+                    return new XlsxStreamingEnumerator( pkg, sheets.getSheetName(), sheet, new ReadOnlySharedStringsTable( pkg ), date1904, cancelFlag, fieldTypes, columns );
+                }
+                sheet.close();
+            }
+            throw new GenericRuntimeException( "There is no sheet %s in %s", sheetName, source.path() );
+        } catch ( IOException | OpenXML4JException | SAXException | XMLStreamException e ) {
+            if ( pkg != null ) {
+                pkg.revert();
+            }
+            throw new GenericRuntimeException( "Could not open %s", e, source.path() );
+        }
+    }
+
+
+    /**
+     * Reads the first row of the sheet without loading the workbook, the cells are read like
+     * {@link org.apache.poi.ss.usermodel.Cell#getStringCellValue()} reads them.
+     *
+     * @param sheetName Name of the sheet, the first sheet is read if empty
+     */
+    static Header readHeader( Source source, String sheetName ) {
+        try ( XlsxStreamingEnumerator enumerator = open( source, sheetName, new AtomicBoolean(), new ExcelFieldType[0], new int[0] ) ) {
+            return new Header( enumerator.sheetName, enumerator.readHeaderCells() );
+        } catch ( XMLStreamException e ) {
+            throw new GenericRuntimeException( "Could not read the header of %s", e, source.path() );
+        }
+    }
+
+
+    private List<String> readHeaderCells() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        while ( xml.hasNext() ) {
+            if ( xml.next() != XMLStreamConstants.START_ELEMENT || !xml.getLocalName().equals( "row" ) ) {
+                continue;
+            }
+            while ( xml.hasNext() ) {
+                int event = xml.next();
+                if ( event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals( "row" ) ) {
+                    break;
+                }
+                if ( event == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals( "c" ) ) {
+                    cells.add( readCell( xml.getAttributeValue( null, "t" ), null ).asString().value );
+                }
+            }
+            break;
+        }
+        return cells;
+    }
+
+
+    private static boolean isDate1904( XSSFReader reader ) throws IOException, OpenXML4JException, XMLStreamException {
+        try ( InputStream workbook = reader.getWorkbookData() ) {
+            XMLStreamReader xml = XMLHelper.newXMLInputFactory().createXMLStreamReader( workbook );
+            try {
+                while ( xml.hasNext() ) {
+                    if ( xml.next() == XMLStreamConstants.START_ELEMENT ) {
+                        String name = xml.getLocalName();
+                        if ( name.equals( "workbookPr" ) ) {
+                            String value = xml.getAttributeValue( null, "date1904" );
+                            return "1".equals( value ) || "true".equals( value );
+                        } else if ( name.equals( "sheets" ) ) {
+                            // The workbook properties precede the sheets
+                            return false;
+                        }
+                    }
+                }
+                return false;
+            } finally {
+                xml.close();
+            }
+        }
+    }
+
+
+    @Override
+    public PolyValue[] current() {
+        return current;
+    }
+
+
+    @Override
+    public boolean moveNext() {
+        try {
+            while ( !cancelFlag.get() && xml.hasNext() ) {
+                if ( xml.next() != XMLStreamConstants.START_ELEMENT || !xml.getLocalName().equals( "row" ) ) {
+                    continue;
+                }
+                PolyValue[] row = readRow();
+                if ( !headerSkipped ) {
+                    headerSkipped = true;
+                    continue;
+                }
+                current = row;
+                return true;
+            }
+            current = null;
+            return false;
+        } catch ( XMLStreamException e ) {
+            throw new GenericRuntimeException( "Could not read the sheet", e );
+        }
+    }
+
+
+    /**
+     * Reads the cells of the current row element, the reader is positioned after its end tag afterward.
+     */
+    private PolyValue[] readRow() throws XMLStreamException {
+        PolyValue[] values = new PolyValue[fieldTypes.length];
+        int nextColumn = 0;
+        while ( xml.hasNext() ) {
+            int event = xml.next();
+            if ( event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals( "row" ) ) {
+                break;
+            }
+            if ( event != XMLStreamConstants.START_ELEMENT || !xml.getLocalName().equals( "c" ) ) {
+                continue;
+            }
+            String reference = xml.getAttributeValue( null, "r" );
+            int column = reference == null ? nextColumn : columnOf( reference );
+            nextColumn = column + 1;
+            int output = column < outputs.length ? outputs[column] : -1;
+            if ( output < 0 ) {
+                skipElement();
+                continue;
+            }
+            values[output] = readCell( xml.getAttributeValue( null, "t" ), fieldTypes[output] );
+        }
+        return values;
+    }
+
+
+    private PolyValue readCell( String type, ExcelFieldType fieldType ) throws XMLStreamException {
+        String value = null;
+        StringBuilder inline = null;
+        boolean formula = false;
+        while ( xml.hasNext() ) {
+            int event = xml.next();
+            if ( event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals( "c" ) ) {
+                break;
+            }
+            if ( event == XMLStreamConstants.START_ELEMENT ) {
+                if ( xml.getLocalName().equals( "v" ) ) {
+                    value = xml.getElementText();
+                } else if ( xml.getLocalName().equals( "f" ) ) {
+                    formula = true;
+                } else if ( xml.getLocalName().equals( "t" ) ) {
+                    // Text of an inline string, possibly split into several runs
+                    inline = inline == null ? new StringBuilder() : inline;
+                    inline.append( xml.getElementText() );
+                }
+            }
+        }
+
+        CellKind kind;
+        String text = value;
+        if ( type == null || type.equals( "n" ) ) {
+            // The cached result of a formula without value is zero
+            kind = value == null && !formula ? CellKind.BLANK : CellKind.NUMERIC;
+            text = value == null ? "0" : value;
+        } else if ( type.equals( "s" ) ) {
+            kind = CellKind.STRING;
+            text = value == null ? "" : sharedStrings.getItemAt( Integer.parseInt( value ) ).getString();
+        } else if ( type.equals( "inlineStr" ) ) {
+            kind = CellKind.STRING;
+            text = inline == null ? "" : inline.toString();
+        } else if ( type.equals( "str" ) ) {
+            kind = CellKind.STRING;
+            text = value == null ? "" : value;
+        } else if ( type.equals( "b" ) ) {
+            kind = CellKind.BOOLEAN;
+        } else {
+            kind = CellKind.ERROR;
+        }
+        try {
+            return convert( fieldType, kind, text, formula );
+        } catch ( Exception e ) {
+            throw new GenericRuntimeException( "Could not read %s from the document.", text );
+        }
+    }
+
+
+    /**
+     * @param formula Whether the cell holds the cached result of a formula, for which POI does not report the type of the result
+     */
+    private PolyValue convert( ExcelFieldType fieldType, CellKind kind, String text, boolean formula ) throws ParseException {
+        if ( fieldType == null ) {
+            return PolyString.of( stringValue( kind, text ) );
+        }
+        boolean string = kind == CellKind.STRING && !formula;
+        return switch ( fieldType ) {
+            case BOOLEAN -> PolyBoolean.of( booleanValue( kind, text ) );
+            case BYTE -> PolyInteger.of( Byte.parseByte( stringValue( kind, text ) ) );
+            case SHORT -> PolyInteger.of( Short.parseShort( stringValue( kind, text ) ) );
+            case INT -> PolyInteger.of( numericValue( kind, text ) );
+            case LONG -> string ? PolyLong.of( Long.parseLong( text ) ) : PolyLong.of( numericValue( kind, text ) );
+            case FLOAT -> string ? PolyFloat.of( Float.parseFloat( text ) ) : PolyFloat.of( numericValue( kind, text ) );
+            case DOUBLE -> PolyDouble.of( numericValue( kind, text ) );
+            case DATE -> {
+                if ( string ) {
+                    LocalDate date = LocalDate.parse( text, DateTimeFormatter.ofPattern( "dd.MM.yyyy", Locale.ENGLISH ) );
+                    yield PolyDate.of( (TimeUnit.DAYS.toMillis( date.toEpochDay() ) / DateTimeUtils.MILLIS_PER_DAY) );
+                }
+                if ( kind == CellKind.BLANK ) {
+                    // POI has no date for blank cells
+                    throw new IllegalStateException( "Cannot get a date from a blank cell" );
+                }
+                Date date = DateUtil.getJavaDate( numericValue( kind, text ), date1904 );
+                yield PolyDate.of( (int) (date.getTime() / DateTimeUtils.MILLIS_PER_DAY) );
+            }
+            case TIME -> PolyTime.of( ExcelEnumerator.TIME_FORMAT_TIME.parse( stringValue( kind, text ) ).getTime() );
+            case TIMESTAMP -> PolyTimestamp.of( ExcelEnumerator.TIME_FORMAT_TIMESTAMP.parse( stringValue( kind, text ) ).getTime() );
+            default -> PolyString.of( stringValue( kind, text ) );
+        };
+    }
+
+
+    /**
+     * Emulates {@link org.apache.poi.ss.usermodel.Cell#getStringCellValue()}.
+     */
+    private static String stringValue( CellKind kind, String text ) {
+        return switch ( kind ) {
+            case STRING -> text;
+            case BLANK -> "";
+            default -> throw new IllegalStateException( "Cannot get a STRING value from a " + kind + " cell" );
+        };
+    }
+
+
+    /**
+     * Emulates {@link org.apache.poi.ss.usermodel.Cell#getNumericCellValue()}.
+     */
+    private static double numericValue( CellKind kind, String text ) {
+        return switch ( kind ) {
+            case NUMERIC -> Double.parseDouble( text );
+            case BLANK -> 0;
+            default -> throw new IllegalStateException( "Cannot get a NUMERIC value from a " + kind + " cell" );
+        };
+    }
+
+
+    /**
+     * Emulates {@link org.apache.poi.ss.usermodel.Cell#getBooleanCellValue()}.
+     */
+    private static boolean booleanValue( CellKind kind, String text ) {
+        return switch ( kind ) {
+            case BOOLEAN -> "1".equals( text );
+            case BLANK -> false;
+            default -> throw new IllegalStateException( "Cannot get a BOOLEAN value from a " + kind + " cell" );
+        };
+    }
+
+
+    /**
+     * @param reference Cell reference like {@code AB12}
+     * @return The zero-based column index
+     */
+    static int columnOf( String reference ) {
+        int column = 0;
+        for ( int i = 0; i < reference.length(); i++ ) {
+            char c = reference.charAt( i );
+            if ( c < 'A' || c > 'Z' ) {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while ( depth > 0 && xml.hasNext() ) {
+            int event = xml.next();
+            if ( event == XMLStreamConstants.START_ELEMENT ) {
+                depth++;
+            } else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                depth--;
+            }
+        }
+    }
+
+
+    @Override
+    public void reset() {
+        throw new UnsupportedOperationException();
+    }
+
+
+    @Override
+    public void close() {
+        try {
+            xml.close();
+            sheetStream.close();
+        } catch ( XMLStreamException | IOException e ) {
+            throw new GenericRuntimeException( "Could not close the sheet", e );
+        } finally {
+            pkg.revert();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.excel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.Source;
+import org.polypheny.db.util.Sources;
+
+/**
+ * Checks that a streamed workbook returns the same rows as the loaded workbook, see {@link XlsxStreamingEnumerator}.
+ */
+public class XlsxStreamingEnumeratorTest {
+
+    private static final List<ExcelFieldType> FIELD_TYPES = List.of(
+            ExcelFieldType.INT,
+            ExcelFieldType.STRING,
+            ExcelFieldType.DOUBLE,
+            ExcelFieldType.BOOLEAN );
+
+    @TempDir
+    Path folder;
+
+
+    @Test
+    public void testSameRows() throws IOException {
+        Source source = write( "data.xlsx", sheet -> {
+            Row row = sheet.createRow( 1 );
+            row.createCell( 0 ).setCellValue( 1 );
+            row.createCell( 1 ).setCellValue( "a" );
+            row.createCell( 2 ).setCellValue( 1.5 );
+            row.createCell( 3 ).setCellValue( true );
+
+            // missing cells
+            row = sheet.createRow( 2 );
+            row.createCell( 0 ).setCellValue( 2 );
+            row.createCell( 2 ).setCellValue( 2.5 );
+
+            // blank cells
+            row = sheet.createRow( 3 );
+            row.createCell( 0 ).setCellValue( 3 );
+            row.createCell( 1 ).setBlank();
+            row.createCell( 2 ).setBlank();
+            row.createCell( 3 ).setBlank();
+
+            row = sheet.createRow( 5 );
+            row.createCell( 0 ).setCellValue( 4 );
+            row.createCell( 1 ).setCellValue( "" );
+            row.createCell( 2 ).setCellValue( 0 );
+            row.createCell( 3 ).setCellValue( false );
+        } );
+
+        List<PolyValue[]> expected = readLoaded( source, FIELD_TYPES, new int[]{ 1, 2, 3, 4 } );
+        assertEquals( 4, expected.size() );
+        assertNull( expected.get( 1 )[1] );
+        assertNull( expected.get( 1 )[3] );
+        assertSameRows( expected, readStreamed( source, FIELD_TYPES, new int[]{ 1, 2, 3, 4 } ) );
+
+        // the type of every output column is given by its position
+        List<ExcelFieldType> reversed = List.of( ExcelFieldType.BOOLEAN, ExcelFieldType.DOUBLE, ExcelFieldType.STRING, ExcelFieldType.INT );
+        assertSameRows( readLoaded( source, reversed, new int[]{ 4, 3, 2, 1 } ), readStreamed( source, reversed, new int[]{ 4, 3, 2, 1 } ) );
+    }
+
+
+    @Test
+    public void testMismatchingCellFails() throws IOException {
+        Source source = write( "mismatch.xlsx", sheet -> {
+            Row row = sheet.createRow( 1 );
+            row.createCell( 0 ).setCellValue( 1 );
+            row.createCell( 1 ).setCellValue( 2 );
+        } );
+        List<ExcelFieldType> types = List.of( ExcelFieldType.INT, ExcelFieldType.STRING );
+
+        assertThrows( GenericRuntimeException.class, () -> readLoaded( source, types, new int[]{ 1, 2 } ) );
+        assertThrows( GenericRuntimeException.class, () -> readStreamed( source, types, new int[]{ 1, 2 } ) );
+    }
+
+
+    @Test
+    public void testHeader() throws IOException {
+        Source source = write( "header.xlsx", sheet -> {
+            sheet.getRow( 0 ).createCell( 5 ).setBlank();
+            sheet.createRow( 1 ).createCell( 0 ).setCellValue( 1 );
+        } );
+
+        XlsxStreamingEnumerator.Header header = XlsxStreamingEnumerator.readHeader( source, "" );
+        assertEquals( "data", header.sheetName() );
+        assertEquals( List.of( "column0", "column1", "column2", "column3", "" ), header.cells() );
+        assertThrows( GenericRuntimeException.class, () -> XlsxStreamingEnumerator.readHeader( source, "missing" ) );
+    }
+
+
+    private Source write( String name, SheetWriter writer ) throws IOException {
+        File file = folder.resolve( name ).toFile();
+        try ( XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream( file ) ) {
+            Sheet sheet = workbook.createSheet( "data" );
+            Row header = sheet.createRow( 0 );
+            for ( int i = 0; i < FIELD_TYPES.size(); i++ ) {
+                header.createCell( i ).setCellValue( "column" + i );
+            }
+            writer.write( sheet );
+            workbook.write( out );
+        }
+        return Sources.of( file );
+    }
+
+
+    private static List<PolyValue[]> readLoaded( Source source, List<ExcelFieldType> fieldTypes, int[] fields ) {
+        return readAll( new ExcelEnumerator( source, new AtomicBoolean(), false, null, new ExcelEnumerator.ArrayRowConverter( fieldTypes, fields ), "" ) );
+    }
+
+
+    private static List<PolyValue[]> readStreamed( Source source, List<ExcelFieldType> fieldTypes, int[] fields ) {
+        return readAll( XlsxStreamingEnumerator.open( source, "", new AtomicBoolean(), fieldTypes, fields ) );
+    }
+
+
+    private static List<PolyValue[]> readAll( Enumerator<PolyValue[]> enumerator ) {
+        List<PolyValue[]> rows = new ArrayList<>();
+        try {
+            while ( enumerator.moveNext() ) {
+                rows.add( enumerator.current() );
+            }
+        } finally {
+            enumerator.close();
+        }
+        return rows;
+    }
+
+
+    private static void assertSameRows( List<PolyValue[]> expected, List<PolyValue[]> actual ) {
+        assertEquals( expected.size(), actual.size() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertArrayEquals( expected.get( i ), actual.get( i ), "Row " + i );
+        }
+    }
+
+
+    private interface SheetWriter {
+
+        void write( Sheet sheet );
+
+    }
+
+}
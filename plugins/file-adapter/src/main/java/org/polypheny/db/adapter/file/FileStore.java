@@ -30,10 +30,12 @@
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
@@ -46,6 +48,9 @@
 import org.polypheny.db.adapter.DeployMode;
 import org.polypheny.db.adapter.RelationalModifyDelegate;
 import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingList;
+import org.polypheny.db.adapter.file.segment.SegmentRecord;
+import org.polypheny.db.adapter.file.segment.SegmentStorage;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.catalogs.RelAdapterCatalog;
 import org.polypheny.db.catalog.entity.allocation.AllocationCollection;
@@ -71,6 +76,9 @@
 import org.polypheny.db.type.entity.PolyNull;
 import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.util.PolyphenyHomeDirManager;
+import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
+import org.polypheny.db.util.background.BackgroundTask.TaskSchedulingType;
+import org.polypheny.db.util.background.BackgroundTaskManager;
 
 @Slf4j
 @Extension
@@ -79,6 +87,8 @@
         description = "An adapter that stores all data as files. It is especially suitable for multimedia collections.",
         usedModes = DeployMode.EMBEDDED,
         defaultMode = DeployMode.EMBEDDED)
+@AdapterSettingList(name = "layout", options = { "cellFiles", "segments" }, defaultValue = "cellFiles", position = 1,
+        description = "Whether every value is stored in its own file or rows are appended to segment files. Segments are considerably faster for tables with many rows.")
 public class FileStore extends DataStore<RelAdapterCatalog> {
 
     @Delegate(excludes = Exclude.class)
@@ -100,6 +110,14 @@ public class FileStore extends DataStore<RelAdapterCatalog> {
 
     private final File WAL; // A folder containing the write ahead log
 
+    /**
+     * Storage for the segment layout, {@code null} if every value is stored in its own file
+     */
+    @Getter
+    @Nullable
+    private final SegmentStorage segmentStorage;
+    private String compactionTaskId;
+
     @Getter
     private final List<PolyType> unsupportedTypes = ImmutableList.of( PolyType.ARRAY, PolyType.MAP );
 
@@ -113,7 +131,21 @@ public FileStore( final long storeId, final String uniqueName, final Map<String,
 
         WAL = fileManager.registerNewFolder( rootDir, "WAL" );
 
+        if ( "segments".equals( settings.get( "layout" ) ) ) {
+            segmentStorage = new SegmentStorage( fileManager.registerNewFolder( rootDir, "segments" ) );
+        } else {
+            segmentStorage = null;
+        }
+
         trxRecovery();
+        if ( segmentStorage != null ) {
+            segmentStorage.discardPending();
+            compactionTaskId = BackgroundTaskManager.INSTANCE.registerTask(
+                    segmentStorage::compact,
+                    "Compact segments of file store " + uniqueName,
+                    TaskPriority.LOW,
+                    TaskSchedulingType.EVERY_TEN_SECONDS );
+        }
         setInformationPage();
 
         this.delegate = new RelationalModifyDelegate( this, adapterCatalog );
@@ -176,10 +208,14 @@ public List<PhysicalEntity> createTable( Context context, LogicalTableWrapper lo
                 logical.columns.stream().collect( Collectors.toMap( c -> c.id, c -> c ) ),
                 logical.pkIds, allocationWrapper );
 
-        for ( LogicalColumn col : logical.columns ) {
-            File newColumnFolder = getColumnFolder( col.id, allocationWrapper.table.id );
-            if ( !newColumnFolder.mkdir() ) {
-                throw new GenericRuntimeException( "Could not create column folder " + newColumnFolder.getAbsolutePath() );
+        if ( segmentStorage != null ) {
+            segmentStorage.createTable( allocationWrapper.table.id );
+        } else {
+            for ( LogicalColumn col : logical.columns ) {
+                File newColumnFolder = getColumnFolder( col.id, allocationWrapper.table.id );
+                if ( !newColumnFolder.mkdir() ) {
+                    throw new GenericRuntimeException( "Could not create column folder " + newColumnFolder.getAbsolutePath() );
+                }
             }
         }
 
@@ -201,12 +237,16 @@ public void dropTable( Context context, long allocId ) {
         // TODO check if it is on this store?
 
         PhysicalTable table = adapterCatalog.fromAllocation( allocId );
-        for ( long colId : table.getColumnIds() ) {
-            File f = getColumnFolder( colId, allocId );
-            try {
-                FileUtils.deleteDirectory( f );
-            } catch ( IOException e ) {
-                throw new GenericRuntimeException( "Could not drop table " + colId, e );
+        if ( segmentStorage != null ) {
+            segmentStorage.dropTable( allocId );
+        } else {
+            for ( long colId : table.getColumnIds() ) {
+                File f = getColumnFolder( colId, allocId );
+                try {
+                    FileUtils.deleteDirectory( f );
+                } catch ( IOException e ) {
+                    throw new GenericRuntimeException( "Could not drop table " + colId, e );
+                }
             }
         }
 
@@ -236,23 +276,35 @@ public void addColumn( Context context, long allocId, LogicalColumn logicalColum
         int max = adapterCatalog.getColumns( allocId ).stream().max( Comparator.comparingInt( a -> a.position ) ).orElseThrow().position;
         PhysicalColumn column = adapterCatalog.addColumn( getPhysicalColumnName( logicalColumn.id, allocId ), allocId, max + 1, logicalColumn );
 
-        File newColumnFolder = getColumnFolder( column.id, allocId );
-        if ( !newColumnFolder.mkdir() ) {
-            throw new GenericRuntimeException( "Could not create column folder " + newColumnFolder.getName() );
-        }
-
         PolyValue value = PolyNull.NULL;
         // Add default values
         if ( column.defaultValue != null ) {
             value = column.defaultValue.value;
         }
-        try {
-            File primaryKeyDir = new File( rootDir, getPhysicalColumnName( table.columns.get( 0 ).id, allocId ) );
-            for ( File entry : Objects.requireNonNull( primaryKeyDir.listFiles() ) ) {
-                FileModifier.write( new File( newColumnFolder, entry.getName() ), value );
+
+        if ( segmentStorage != null ) {
+            // Missing values are read as null, rows therefore only have to be rewritten for a non-null default value
+            if ( !value.isNull() ) {
+                String defaultValue = value.toTypedJson();
+                segmentStorage.getTable( allocId ).rewrite( record -> {
+                    Map<Long, String> values = new HashMap<>( record.values() );
+                    values.put( column.id, defaultValue );
+                    return new SegmentRecord( record.key(), values );
+                } );
+            }
+        } else {
+            File newColumnFolder = getColumnFolder( column.id, allocId );
+            if ( !newColumnFolder.mkdir() ) {
+                throw new GenericRuntimeException( "Could not create column folder " + newColumnFolder.getName() );
+            }
+            try {
+                File primaryKeyDir = new File( rootDir, getPhysicalColumnName( table.columns.get( 0 ).id, allocId ) );
+                for ( File entry : Objects.requireNonNull( primaryKeyDir.listFiles() ) ) {
+                    FileModifier.write( new File( newColumnFolder, entry.getName() ), value );
+                }
+            } catch ( IOException e ) {
+                throw new GenericRuntimeException( "Caught exception while inserting default values", e );
             }
-        } catch ( IOException e ) {
-            throw new GenericRuntimeException( "Caught exception while inserting default values", e );
         }
 
         updateNativePhysical( allocId, table.getPkIds() );
@@ -272,11 +324,14 @@ public void dropColumn( Context context, long allocId, long columnId ) {
         FileTranslatableEntity fileTranslatableEntity = adapterCatalog.fromAllocation( allocId ).unwrapOrThrow( FileTranslatableEntity.class );
 
         adapterCatalog.dropColumn( allocId, columnId );
-        File columnFile = getColumnFolder( columnId, allocId );
-        try {
-            FileUtils.deleteDirectory( columnFile );
-        } catch ( IOException e ) {
-            throw new GenericRuntimeException( "Could not delete column folder", e );
+        // In the segment layout, the values of the dropped column are ignored by readers
+        if ( segmentStorage == null ) {
+            File columnFile = getColumnFolder( columnId, allocId );
+            try {
+                FileUtils.deleteDirectory( columnFile );
+            } catch ( IOException e ) {
+                throw new GenericRuntimeException( "Could not delete column folder", e );
+            }
         }
 
         updateNativePhysical( allocId, fileTranslatableEntity.getPkIds() );
@@ -423,6 +478,9 @@ public void commitOrRollback( final PolyXid xid, final boolean commit ) {
                 }
             }
         }
+        if ( segmentStorage != null ) {
+            segmentStorage.commitOrRollback( xidHash, commit );
+        }
         cleanupHardlinks( xid );
     }
 
@@ -443,6 +501,10 @@ private void cleanupHardlinks( final PolyXid xid ) {
     public void truncate( Context context, long allocId ) {
         //context.getStatement().getTransaction().registerInvolvedStore( this );
         PhysicalTable table = adapterCatalog.fromAllocation( allocId ).unwrapOrThrow( FileTranslatableEntity.class );
+        if ( segmentStorage != null ) {
+            segmentStorage.getTable( allocId ).truncate();
+            return;
+        }
         try {
             for ( PhysicalColumn column : table.columns ) {
                 File columnFolder = getColumnFolder( column.id, allocId );
@@ -486,6 +548,9 @@ public List<FunctionalIndexInfo> getFunctionalIndexes( LogicalTable catalogTable
     public void shutdown() {
         log.info( "Shutting down file store '{}'", getUniqueName() );
         removeInformationPage();
+        if ( compactionTaskId != null ) {
+            BackgroundTaskManager.INSTANCE.removeBackgroundTask( compactionTaskId );
+        }
         try {
             FileHelper.deleteDirRecursively( rootDir );
         } catch ( IOException e ) {
@@ -31,6 +31,9 @@
 import org.polypheny.db.adapter.AdapterManager;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.file.FileAlg.FileImplementor.Operation;
+import org.polypheny.db.adapter.file.segment.SegmentEnumerator;
+import org.polypheny.db.adapter.file.segment.SegmentModifier;
+import org.polypheny.db.adapter.file.segment.SegmentStorage;
 import org.polypheny.db.catalog.entity.physical.PhysicalTable;
 import org.polypheny.db.schema.Namespace;
 import org.polypheny.db.type.entity.PolyValue;
@@ -92,10 +95,15 @@ public static Enumerable<PolyValue[]> execute(
             final @Nullable List<Value> projectionMapping,
             final Condition condition,
             final List<List<PolyValue>> updates ) {
-        dataContext.getStatement().getTransaction().registerInvolvedAdapter( AdapterManager.getInstance().getAdapter( adapterId ).orElseThrow() );
+        Adapter<?> adapter = AdapterManager.getInstance().getAdapter( adapterId ).orElseThrow();
+        dataContext.getStatement().getTransaction().registerInvolvedAdapter( adapter );
+        SegmentStorage segmentStorage = ((FileStore) adapter).getSegmentStorage();
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
+                if ( segmentStorage != null ) {
+                    return new SegmentEnumerator( operation, segmentStorage.getTable( allocId ), columnIds, entity, pkIds, projectionMapping, dataContext, condition, updates );
+                }
                 return new FileEnumerator( operation, path, allocId, columnIds, entity, pkIds, projectionMapping, dataContext, condition, updates );
             }
         };
@@ -120,7 +128,9 @@ public static Enumerable<PolyValue[]> executeModify(
             final Boolean isBatch,
             final List<List<PolyValue>> insertValues,
             final Condition condition ) {
-        dataContext.getStatement().getTransaction().registerInvolvedAdapter( AdapterManager.getInstance().getAdapter( adapterId ).orElseThrow() );
+        Adapter<?> adapter = AdapterManager.getInstance().getAdapter( adapterId ).orElseThrow();
+        dataContext.getStatement().getTransaction().registerInvolvedAdapter( adapter );
+        SegmentStorage segmentStorage = ((FileStore) adapter).getSegmentStorage();
         final List<List<PolyValue>> insert;
 
         List<List<PolyValue>> rows = new ArrayList<>();
@@ -150,6 +160,9 @@ public static Enumerable<PolyValue[]> executeModify(
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
+                if ( segmentStorage != null ) {
+                    return new SegmentModifier( operation, segmentStorage.getTable( allocId ), columnIds, entity, pkIds, dataContext, insert );
+                }
                 return new FileModifier( operation, path, allocId, columnIds, entity, pkIds, dataContext, insert, condition );
             }
         };
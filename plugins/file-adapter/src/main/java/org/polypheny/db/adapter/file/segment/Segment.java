@@ -0,0 +1,367 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+
+
+/**
+ * An immutable file containing records sorted by their primary key.
+ * <p>
+ * Layout: {@code [magic, version] [record]* [index] [indexOffset, indexChecksum, magic]}.
+ * Every record is stored as {@code [length, checksum, payload]}, which allows detecting torn or corrupted writes.
+ * The index is sparse and contains the key and the offset of every {@value #INDEX_INTERVAL}th record,
+ * a point lookup therefore reads at most {@value #INDEX_INTERVAL} records.
+ * <p>
+ * A segment covers the commit sequence numbers {@code from} to {@code to}. Segments written by a single
+ * commit cover a single sequence number, segments written by a compaction cover the range of the merged segments.
+ */
+public class Segment {
+
+    static final int MAGIC = 0x50534547; // PSEG
+    static final int VERSION = 1;
+    static final int INDEX_INTERVAL = 32;
+    static final String SUFFIX = ".seg";
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int TRAILER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    private static final byte PUT = 0;
+    private static final byte TOMBSTONE = 1;
+
+    @Getter
+    private final File file;
+    @Getter
+    private final long from;
+    @Getter
+    private final long to;
+    @Getter
+    private final long recordCount;
+    private final String[] indexKeys;
+    private final long[] indexOffsets;
+    @Nullable
+    private final String maxKey;
+    private final long dataEnd;
+
+
+    private Segment( File file, long from, long to, long recordCount, String[] indexKeys, long[] indexOffsets, @Nullable String maxKey, long dataEnd ) {
+        this.file = file;
+        this.from = from;
+        this.to = to;
+        this.recordCount = recordCount;
+        this.indexKeys = indexKeys;
+        this.indexOffsets = indexOffsets;
+        this.maxKey = maxKey;
+        this.dataEnd = dataEnd;
+    }
+
+
+    static String getFileName( long from, long to ) {
+        return from + "_" + to + SUFFIX;
+    }
+
+
+    /**
+     * Writes a new segment and forces it to disk.
+     *
+     * @param file Target file, must not exist
+     * @param records Records ordered by their key, every key must only be contained once
+     */
+    static Segment write( File file, long from, long to, Iterator<SegmentRecord> records ) throws IOException {
+        List<String> indexKeys = new ArrayList<>();
+        List<Long> indexOffsets = new ArrayList<>();
+        String lastKey = null;
+        long count = 0;
+        long offset = HEADER_SIZE;
+
+        try ( FileOutputStream fos = new FileOutputStream( file ); DataOutputStream out = new DataOutputStream( new BufferedOutputStream( fos ) ) ) {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+
+            while ( records.hasNext() ) {
+                SegmentRecord record = records.next();
+                if ( lastKey != null && lastKey.compareTo( record.key() ) >= 0 ) {
+                    throw new GenericRuntimeException( "Records of a segment have to be ordered by their key" );
+                }
+                if ( count % INDEX_INTERVAL == 0 ) {
+                    indexKeys.add( record.key() );
+                    indexOffsets.add( offset );
+                }
+                byte[] payload = encode( record );
+                out.writeInt( payload.length );
+                out.writeInt( checksum( payload ) );
+                out.write( payload );
+                offset += 2L * Integer.BYTES + payload.length;
+                lastKey = record.key();
+                count++;
+            }
+
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream( indexBytes );
+            index.writeLong( count );
+            index.writeInt( indexKeys.size() );
+            for ( int i = 0; i < indexKeys.size(); i++ ) {
+                writeString( index, indexKeys.get( i ) );
+                index.writeLong( indexOffsets.get( i ) );
+            }
+            writeString( index, lastKey );
+            byte[] indexPayload = indexBytes.toByteArray();
+
+            out.write( indexPayload );
+            out.writeLong( offset );
+            out.writeInt( checksum( indexPayload ) );
+            out.writeInt( MAGIC );
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        return new Segment(
+                file,
+                from,
+                to,
+                count,
+                indexKeys.toArray( new String[0] ),
+                indexOffsets.stream().mapToLong( Long::longValue ).toArray(),
+                lastKey,
+                offset );
+    }
+
+
+    /**
+     * Opens an existing segment and loads its sparse index.
+     */
+    static Segment open( File file, long from, long to ) throws IOException {
+        try ( RandomAccessFile raf = new RandomAccessFile( file, "r" ) ) {
+            long length = raf.length();
+            if ( length < HEADER_SIZE + TRAILER_SIZE ) {
+                throw new IOException( "Segment " + file.getName() + " is truncated" );
+            }
+            if ( raf.readInt() != MAGIC || raf.readInt() != VERSION ) {
+                throw new IOException( "File " + file.getName() + " is not a segment of a supported version" );
+            }
+            raf.seek( length - TRAILER_SIZE );
+            long indexOffset = raf.readLong();
+            int indexChecksum = raf.readInt();
+            if ( raf.readInt() != MAGIC || indexOffset < HEADER_SIZE || indexOffset > length - TRAILER_SIZE ) {
+                throw new IOException( "Segment " + file.getName() + " has an invalid trailer" );
+            }
+
+            byte[] indexPayload = new byte[(int) (length - TRAILER_SIZE - indexOffset)];
+            raf.seek( indexOffset );
+            raf.readFully( indexPayload );
+            if ( checksum( indexPayload ) != indexChecksum ) {
+                throw new IOException( "Checksum mismatch in the index of segment " + file.getName() );
+            }
+
+            DataInputStream index = new DataInputStream( new ByteArrayInputStream( indexPayload ) );
+            long count = index.readLong();
+            int entries = index.readInt();
+            String[] keys = new String[entries];
+            long[] offsets = new long[entries];
+            for ( int i = 0; i < entries; i++ ) {
+                keys[i] = readString( index );
+                offsets[i] = index.readLong();
+            }
+            String maxKey = readString( index );
+            return new Segment( file, from, to, count, keys, offsets, maxKey, indexOffset );
+        }
+    }
+
+
+    /**
+     * Looks up the record with the given key using the sparse index.
+     *
+     * @return The record, which might be a tombstone, or {@code null} if the segment does not contain the key
+     */
+    @Nullable
+    SegmentRecord lookup( String key ) throws IOException {
+        if ( maxKey == null || key.compareTo( indexKeys[0] ) < 0 || key.compareTo( maxKey ) > 0 ) {
+            return null;
+        }
+        int position = Arrays.binarySearch( indexKeys, key );
+        if ( position < 0 ) {
+            // Start at the greatest indexed key which is smaller than the requested key
+            position = -position - 2;
+        }
+        try ( Reader reader = new Reader( indexOffsets[position] ) ) {
+            for ( int i = 0; i < INDEX_INTERVAL && reader.hasNext(); i++ ) {
+                SegmentRecord record = reader.next();
+                int comparison = record.key().compareTo( key );
+                if ( comparison == 0 ) {
+                    return record;
+                } else if ( comparison > 0 ) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Opens a reader over all records of this segment in the order of their keys.
+     * The file is opened immediately, the reader therefore remains valid if the segment is deleted in the meantime.
+     */
+    Reader reader() throws IOException {
+        return new Reader( HEADER_SIZE );
+    }
+
+
+    private static byte[] encode( SegmentRecord record ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream( bytes );
+        out.writeByte( record.isTombstone() ? TOMBSTONE : PUT );
+        writeString( out, record.key() );
+        if ( !record.isTombstone() ) {
+            out.writeInt( record.values().size() );
+            for ( Entry<Long, String> entry : record.values().entrySet() ) {
+                out.writeLong( entry.getKey() );
+                writeString( out, entry.getValue() );
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+
+    private static SegmentRecord decode( byte[] payload ) throws IOException {
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( payload ) );
+        byte type = in.readByte();
+        String key = readString( in );
+        if ( type == TOMBSTONE ) {
+            return SegmentRecord.tombstone( key );
+        }
+        int size = in.readInt();
+        Map<Long, String> values = new HashMap<>( size * 2 );
+        for ( int i = 0; i < size; i++ ) {
+            values.put( in.readLong(), readString( in ) );
+        }
+        return new SegmentRecord( key, values );
+    }
+
+
+    private static void writeString( DataOutputStream out, @Nullable String value ) throws IOException {
+        if ( value == null ) {
+            out.writeInt( -1 );
+            return;
+        }
+        byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+
+    @Nullable
+    private static String readString( DataInputStream in ) throws IOException {
+        int length = in.readInt();
+        if ( length < 0 ) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+
+    private static int checksum( byte[] bytes ) {
+        CRC32 crc = new CRC32();
+        crc.update( bytes );
+        return (int) crc.getValue();
+    }
+
+
+    /**
+     * Sequential reader over the records of a segment, starting at a given offset. Every record is verified against its checksum.
+     */
+    class Reader implements Iterator<SegmentRecord>, Closeable {
+
+        private final FileChannel channel;
+        private final DataInputStream in;
+        private long position;
+
+
+        private Reader( long offset ) throws IOException {
+            this.channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+            this.channel.position( offset );
+            this.in = new DataInputStream( new BufferedInputStream( Channels.newInputStream( channel ), 64 * 1024 ) );
+            this.position = offset;
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            return position < dataEnd;
+        }
+
+
+        @Override
+        public SegmentRecord next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                byte[] payload = new byte[length];
+                in.readFully( payload );
+                if ( checksum( payload ) != checksum ) {
+                    throw new GenericRuntimeException( "Checksum mismatch in segment %s at offset %s", file.getName(), position );
+                }
+                position += 2L * Integer.BYTES + length;
+                return decode( payload );
+            } catch ( EOFException e ) {
+                throw new GenericRuntimeException( "Segment " + file.getName() + " is truncated", e );
+            } catch ( IOException e ) {
+                throw new GenericRuntimeException( "Could not read segment " + file.getName(), e );
+            }
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+            channel.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.file.Condition;
+import org.polypheny.db.adapter.file.FileAlg.FileImplementor.Operation;
+import org.polypheny.db.adapter.file.FileEnumerator.EnumerableDataContext;
+import org.polypheny.db.adapter.file.FileStore;
+import org.polypheny.db.adapter.file.FileTranslatableEntity;
+import org.polypheny.db.adapter.file.Value;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.PolyTypeUtil;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.category.PolyBlob;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * Executes SELECT, UPDATE and DELETE operations on an allocation stored in segments.
+ * Rows are read by merging the segments visible to the transaction, modifications are written to a new pending segment.
+ * Multimedia values are stored within the segments and are therefore always returned as byte arrays.
+ */
+public class SegmentEnumerator implements Enumerator<PolyValue[]> {
+
+    final Operation operation;
+    final SegmentTable table;
+    final String xidHash;
+    final Long[] columnIds;
+    final List<AlgDataTypeField> columnTypes;
+    final Integer[] pkMapping;
+    final DataContext dataContext;
+    final Condition condition;
+    final List<Value> projectionMapping;
+    final Map<Integer, Value> updates = new HashMap<>();
+    PolyValue[] current;
+    private SegmentMerger scan;
+    private boolean modified = false;
+
+
+    /**
+     * @param table Segments of the allocation
+     * @param columnIds Ids of the columns that come from a tableScan
+     * @param projectionMapping Mapping on how to project a table, see {@link org.polypheny.db.adapter.file.FileEnumerator}
+     * @param condition Condition that can be {@code null}. The columnReferences in the filter point to the columns coming from the tableScan
+     * @param updates Values of the updated columns in case of an UPDATE
+     */
+    public SegmentEnumerator(
+            final Operation operation,
+            final SegmentTable table,
+            final Long[] columnIds,
+            final FileTranslatableEntity entity,
+            final List<Long> pkIds,
+            final @Nullable List<Value> projectionMapping,
+            final DataContext dataContext,
+            final @Nullable Condition condition,
+            final @Nullable List<List<PolyValue>> updates ) {
+        this.operation = operation;
+        this.table = table;
+        this.columnIds = columnIds;
+        this.columnTypes = entity.getTupleType().getFields();
+        this.dataContext = operation == Operation.INSERT ? dataContext : new EnumerableDataContext( dataContext );
+        this.condition = condition;
+        this.projectionMapping = projectionMapping;
+        this.xidHash = FileStore.SHA.hashString( dataContext.getStatement().getTransaction().getXid().toString(), FileStore.CHARSET ).toString();
+
+        if ( updates != null ) {
+            for ( PolyValue update : updates.get( 0 ) ) {
+                this.updates.put( ((Value) update).getColumnReference(), (Value) update );
+            }
+        }
+
+        List<Long> colIdsAsList = List.of( columnIds );
+        this.pkMapping = pkIds.stream().map( colIdsAsList::indexOf ).toArray( Integer[]::new );
+    }
+
+
+    @Override
+    public PolyValue[] current() {
+        return current;
+    }
+
+
+    @Override
+    public boolean moveNext() {
+        if ( operation == Operation.SELECT ) {
+            return nextSelect();
+        } else if ( operation == Operation.INSERT ) {
+            throw new GenericRuntimeException( "Not supported" );
+        }
+        if ( modified ) {
+            return false;
+        }
+
+        // UPDATE and DELETE return a single row containing the number of modified rows
+        long count = 0;
+        EnumerableDataContext batches = (EnumerableDataContext) dataContext;
+        for ( ; ; ) {
+            count += modify();
+            if ( batches.isEmpty() ) {
+                break;
+            }
+            batches.next();
+        }
+        current = new PolyLong[]{ PolyLong.of( count ) };
+        modified = true;
+        return true;
+    }
+
+
+    private boolean nextSelect() {
+        if ( scan == null ) {
+            scan = table.scan( xidHash );
+        }
+        while ( scan.hasNext() ) {
+            if ( dataContext.getStatement().getTransaction().getCancelFlag().get() ) {
+                return false;
+            }
+            List<PolyValue> row = toRow( scan.next() );
+            if ( condition != null && !condition.matches( row, columnTypes, dataContext ) ) {
+                continue;
+            }
+            if ( projectionMapping != null ) {
+                row = project( row );
+            }
+            current = row.toArray( new PolyValue[0] );
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Applies the UPDATE or DELETE for the current parameter batch.
+     *
+     * @return The number of modified rows
+     */
+    private long modify() {
+        NavigableMap<String, SegmentRecord> changes = new TreeMap<>();
+        Set<String> matchedKeys = new HashSet<>();
+        try ( SegmentMerger rows = table.scan( xidHash ) ) {
+            while ( rows.hasNext() ) {
+                SegmentRecord record = rows.next();
+                List<PolyValue> row = toRow( record );
+                if ( condition != null && !condition.matches( row, columnTypes, dataContext ) ) {
+                    continue;
+                }
+                matchedKeys.add( record.key() );
+                if ( operation == Operation.DELETE ) {
+                    changes.put( record.key(), SegmentRecord.tombstone( record.key() ) );
+                    continue;
+                }
+
+                List<PolyValue> updated = new ArrayList<>( row );
+                for ( Entry<Integer, Value> update : updates.entrySet() ) {
+                    updated.set( update.getKey(), update.getValue().getValue( row, dataContext, 0 ) );
+                }
+                SegmentRecord newRecord = toRecord( updated );
+                if ( !newRecord.key().equals( record.key() ) ) {
+                    // Another row might already have been moved to the old key
+                    changes.putIfAbsent( record.key(), SegmentRecord.tombstone( record.key() ) );
+                }
+                changes.put( newRecord.key(), newRecord );
+            }
+        }
+
+        for ( Entry<String, SegmentRecord> change : changes.entrySet() ) {
+            if ( !change.getValue().isTombstone() && !matchedKeys.contains( change.getKey() ) && table.get( change.getKey(), xidHash ) != null ) {
+                throw new GenericRuntimeException( "Primary key conflict! You are trying to update a row to a primary key that already exists." );
+            }
+        }
+        table.write( xidHash, changes );
+        return matchedKeys.size();
+    }
+
+
+    List<PolyValue> toRow( SegmentRecord record ) {
+        List<PolyValue> row = new ArrayList<>( columnIds.length );
+        for ( int i = 0; i < columnIds.length; i++ ) {
+            String value = record.values().get( columnIds[i] );
+            row.add( value == null ? null : PolyTypeUtil.stringToObject( value, columnTypes.get( i ) ) );
+        }
+        return row;
+    }
+
+
+    SegmentRecord toRecord( List<PolyValue> row ) {
+        List<String> primaryKey = new ArrayList<>( pkMapping.length );
+        for ( int index : pkMapping ) {
+            PolyValue value = row.get( index );
+            primaryKey.add( value == null || value.isNull() ? "" : value.toJson() );
+        }
+
+        Map<Long, String> values = new HashMap<>();
+        for ( int i = 0; i < columnIds.length; i++ ) {
+            PolyValue value = row.get( i );
+            if ( value == null || value.isNull() ) {
+                continue;
+            }
+            if ( value.isBlob() ) {
+                // Streams cannot be serialized, the content is therefore materialized
+                value = PolyBlob.of( value.asBlob().asByteArray() );
+            }
+            values.put( columnIds[i], value.toTypedJson() );
+        }
+        return new SegmentRecord( SegmentTable.key( primaryKey ), values );
+    }
+
+
+    private List<PolyValue> project( final List<PolyValue> row ) {
+        List<PolyValue> out = new ArrayList<>( projectionMapping.size() );
+        for ( Value value : projectionMapping ) {
+            out.add( value.getValue( row, dataContext, 0 ) );
+        }
+        return out;
+    }
+
+
+    @Override
+    public void reset() {
+        close();
+        modified = false;
+    }
+
+
+    @Override
+    public void close() {
+        if ( scan != null ) {
+            scan.close();
+            scan = null;
+        }
+    }
+
+}
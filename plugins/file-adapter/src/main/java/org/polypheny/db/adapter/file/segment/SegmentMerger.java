@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.adapter.file.segment.Segment.Reader;
+
+
+/**
+ * Merges the records of multiple segments in the order of their keys.
+ * If a key is contained in several segments, only the record of the newest segment is returned.
+ * Since every segment is sorted, the merge only keeps a single record per segment in memory.
+ */
+@Slf4j
+class SegmentMerger implements Iterator<SegmentRecord>, Closeable {
+
+    private final List<Reader> readers = new ArrayList<>();
+    private final PriorityQueue<Head> heads = new PriorityQueue<>( Comparator.<Head, String>comparing( h -> h.record.key() ).thenComparingInt( h -> h.age ) );
+    private final boolean dropTombstones;
+    private SegmentRecord next;
+
+
+    /**
+     * @param segments Segments ordered from the newest to the oldest
+     * @param dropTombstones Whether deleted records should be skipped instead of being returned as tombstones
+     */
+    SegmentMerger( List<Segment> segments, boolean dropTombstones ) throws IOException {
+        this.dropTombstones = dropTombstones;
+        try {
+            // Open all readers upfront, so that a concurrent compaction cannot remove a segment of this snapshot
+            for ( Segment segment : segments ) {
+                readers.add( segment.reader() );
+            }
+        } catch ( IOException e ) {
+            close();
+            throw e;
+        }
+        for ( int i = 0; i < readers.size(); i++ ) {
+            advance( new Head( readers.get( i ), i ) );
+        }
+        this.next = fetch();
+    }
+
+
+    private void advance( Head head ) {
+        if ( head.reader.hasNext() ) {
+            head.record = head.reader.next();
+            heads.add( head );
+        }
+    }
+
+
+    private SegmentRecord fetch() {
+        while ( !heads.isEmpty() ) {
+            Head newest = heads.poll();
+            SegmentRecord record = newest.record;
+            // Skip older versions of the same row
+            while ( !heads.isEmpty() && heads.peek().record.key().equals( record.key() ) ) {
+                advance( heads.poll() );
+            }
+            advance( newest );
+            if ( !(dropTombstones && record.isTombstone()) ) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+
+    @Override
+    public SegmentRecord next() {
+        if ( next == null ) {
+            throw new NoSuchElementException();
+        }
+        SegmentRecord record = next;
+        next = fetch();
+        return record;
+    }
+
+
+    @Override
+    public void close() {
+        for ( Reader reader : readers ) {
+            try {
+                reader.close();
+            } catch ( IOException e ) {
+                log.warn( "Could not close segment reader", e );
+            }
+        }
+    }
+
+
+    private static class Head {
+
+        private final Reader reader;
+        private final int age;
+        private SegmentRecord record;
+
+
+        private Head( Reader reader, int age ) {
+            this.reader = reader;
+            this.age = age;
+        }
+
+    }
+
+}
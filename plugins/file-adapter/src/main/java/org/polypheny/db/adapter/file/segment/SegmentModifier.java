@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.file.FileAlg.FileImplementor.Operation;
+import org.polypheny.db.adapter.file.FileTranslatableEntity;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+
+/**
+ * Executes INSERT operations on an allocation stored in segments. All rows of a statement are written to a single pending segment.
+ */
+public class SegmentModifier extends SegmentEnumerator {
+
+    private final List<List<PolyValue>> insertValues;
+    private boolean inserted = false;
+
+
+    public SegmentModifier(
+            final Operation operation,
+            final SegmentTable table,
+            final Long[] columnIds,
+            final FileTranslatableEntity entity,
+            final List<Long> pkIds,
+            final DataContext dataContext,
+            final List<List<PolyValue>> insertValues ) {
+        super( operation, table, columnIds, entity, pkIds, null, dataContext, null, null );
+        this.insertValues = insertValues;
+    }
+
+
+    /**
+     * First call: insert all rows, set current to the number of inserted rows and return true.
+     * Second call: return false
+     */
+    @Override
+    public boolean moveNext() {
+        if ( inserted || dataContext.getStatement().getTransaction().getCancelFlag().get() ) {
+            return false;
+        }
+        NavigableMap<String, SegmentRecord> changes = new TreeMap<>();
+        for ( List<PolyValue> row : insertValues ) {
+            SegmentRecord record = toRecord( row );
+            // The sparse index allows this lookup without scanning the segments
+            if ( changes.containsKey( record.key() ) || table.get( record.key(), xidHash ) != null ) {
+                throw new GenericRuntimeException( "Primary key conflict! You are trying to insert a row with a primary key that already exists." );
+            }
+            changes.put( record.key(), record );
+        }
+        table.write( xidHash, changes );
+
+        current = new PolyLong[]{ PolyLong.of( insertValues.size() ) };
+        inserted = true;
+        return true;
+    }
+
+
+    @Override
+    public void reset() {
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.util.Map;
+import javax.annotation.Nullable;
+
+
+/**
+ * A single entry of a segment, either the current version of a row or a tombstone marking the row as deleted.
+ *
+ * @param key Serialized primary key of the row
+ * @param values Typed JSON of the values of the row by column id, or {@code null} for a tombstone
+ */
+public record SegmentRecord( String key, @Nullable Map<Long, String> values ) {
+
+    public static SegmentRecord tombstone( String key ) {
+        return new SegmentRecord( key, null );
+    }
+
+
+    public boolean isTombstone() {
+        return values == null;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+
+
+/**
+ * Log-structured storage layout of the file store.
+ * <p>
+ * Instead of storing every value in its own file, the rows of an allocation are appended to immutable segment files
+ * (see {@link Segment}). Each allocation is stored in its own folder, which is loaded lazily.
+ */
+@Slf4j
+public class SegmentStorage {
+
+    /**
+     * Number of committed segments of an allocation from which on they are merged by the background compaction.
+     */
+    public static final int COMPACTION_THRESHOLD = 8;
+
+    private final File root;
+    private final Map<Long, SegmentTable> tables = new ConcurrentHashMap<>();
+
+
+    public SegmentStorage( File root ) {
+        this.root = root;
+    }
+
+
+    private File getFolder( long allocId ) {
+        return new File( root, "tab" + allocId );
+    }
+
+
+    public void createTable( long allocId ) {
+        File folder = getFolder( allocId );
+        if ( !folder.mkdir() ) {
+            throw new GenericRuntimeException( "Could not create segment folder " + folder.getAbsolutePath() );
+        }
+    }
+
+
+    public SegmentTable getTable( long allocId ) {
+        return tables.computeIfAbsent( allocId, id -> new SegmentTable( getFolder( id ) ) );
+    }
+
+
+    public void dropTable( long allocId ) {
+        tables.remove( allocId );
+        try {
+            FileUtils.deleteDirectory( getFolder( allocId ) );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not drop segments of allocation " + allocId, e );
+        }
+    }
+
+
+    /**
+     * Publishes or discards the pending segments of a transaction in all allocations.
+     */
+    public void commitOrRollback( String xidHash, boolean commit ) {
+        File[] folders = root.listFiles( File::isDirectory );
+        if ( folders == null ) {
+            return;
+        }
+        for ( File folder : folders ) {
+            String[] names = folder.list( ( dir, name ) -> name.startsWith( SegmentTable.PENDING_PREFIX + xidHash ) );
+            if ( names != null && names.length > 0 ) {
+                getTable( Long.parseLong( folder.getName().substring( 3 ) ) ).commitOrRollback( xidHash, commit );
+            }
+        }
+    }
+
+
+    /**
+     * Removes pending segments of transactions for which no decision has been logged in the WAL.
+     * Must only be called during startup, after the WAL has been recovered.
+     */
+    public void discardPending() {
+        File[] folders = root.listFiles( File::isDirectory );
+        if ( folders == null ) {
+            return;
+        }
+        for ( File folder : folders ) {
+            File[] files = folder.listFiles( f -> f.getName().startsWith( SegmentTable.PENDING_PREFIX ) );
+            if ( files == null ) {
+                continue;
+            }
+            for ( File file : files ) {
+                if ( !file.delete() ) {
+                    log.warn( "Could not delete pending segment {}", file.getAbsolutePath() );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Compacts all allocations which have accumulated too many segments. Called periodically by a background task.
+     */
+    public void compact() {
+        for ( SegmentTable table : tables.values() ) {
+            try {
+                table.compact( COMPACTION_THRESHOLD );
+            } catch ( RuntimeException e ) {
+                log.warn( "Compaction of {} failed", table.getFolder().getName(), e );
+            }
+        }
+    }
+
+}
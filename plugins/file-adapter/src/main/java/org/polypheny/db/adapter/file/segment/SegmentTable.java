@@ -0,0 +1,334 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+
+
+/**
+ * The segments of a single allocation of the file store.
+ * <p>
+ * Every transaction writes its changes to pending segments, which are only visible to the transaction itself.
+ * On commit, the pending segments are published by renaming them to the next commit sequence numbers, on rollback they are deleted.
+ * Both actions are idempotent and can therefore be repeated when recovering from the WAL of the file store.
+ * <p>
+ * Reads merge all visible segments, newer segments shadow the records of older ones. Compaction merges all committed segments
+ * into a single one and removes the tombstones. Merged segments are only deleted during the following compaction, which gives
+ * readers that have obtained a snapshot just before the compaction time to open them.
+ */
+@Slf4j
+public class SegmentTable {
+
+    static final String PENDING_PREFIX = "_ins_";
+    private static final String COMPACTION_PREFIX = "_compact_";
+
+    @Getter
+    private final File folder;
+
+    private volatile List<Segment> segments; // newest first
+    private final Map<String, List<Segment>> pending = new ConcurrentHashMap<>(); // xid hash -> pending segments, newest first
+    private final List<Segment> retired = new ArrayList<>();
+    private final AtomicLong pendingCounter = new AtomicLong();
+    private final Object compactionLock = new Object(); // acquired before the monitor of the table
+    private long sequence;
+
+
+    SegmentTable( File folder ) {
+        this.folder = folder;
+        this.segments = load();
+        this.sequence = segments.isEmpty() ? 0 : segments.get( 0 ).getTo();
+    }
+
+
+    /**
+     * Loads the committed segments. Segments which are covered by a compacted segment are left-overs of an interrupted compaction and are removed.
+     */
+    private List<Segment> load() {
+        File[] files = folder.listFiles( f -> f.isFile() && !f.getName().startsWith( "_" ) && f.getName().endsWith( Segment.SUFFIX ) );
+        if ( files == null ) {
+            return List.of();
+        }
+        for ( File file : Objects.requireNonNull( folder.listFiles( f -> f.getName().startsWith( COMPACTION_PREFIX ) ) ) ) {
+            deleteFile( file );
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for ( File file : files ) {
+            String[] parts = file.getName().substring( 0, file.getName().length() - Segment.SUFFIX.length() ).split( "_" );
+            ranges.add( new long[]{ Long.parseLong( parts[0] ), Long.parseLong( parts[1] ) } );
+        }
+        // Newest first, wider ranges before the ranges they cover
+        ranges.sort( Comparator.<long[]>comparingLong( r -> -r[1] ).thenComparingLong( r -> r[0] ) );
+
+        List<Segment> loaded = new ArrayList<>();
+        for ( long[] range : ranges ) {
+            File file = new File( folder, Segment.getFileName( range[0], range[1] ) );
+            boolean covered = loaded.stream().anyMatch( s -> s.getFrom() <= range[0] && range[1] <= s.getTo() );
+            if ( covered ) {
+                deleteFile( file );
+                continue;
+            }
+            try {
+                loaded.add( Segment.open( file, range[0], range[1] ) );
+            } catch ( IOException e ) {
+                throw new GenericRuntimeException( "Could not open segment " + file.getAbsolutePath(), e );
+            }
+        }
+        return List.copyOf( loaded );
+    }
+
+
+    /**
+     * Builds the key of a row from the values of its primary key columns.
+     */
+    public static String key( List<String> primaryKeyValues ) {
+        return String.join( "\u0000", primaryKeyValues );
+    }
+
+
+    /**
+     * @return The segments visible to the transaction, from the newest to the oldest
+     */
+    private List<Segment> snapshot( String xidHash ) {
+        List<Segment> own = pending.get( xidHash );
+        if ( own == null || own.isEmpty() ) {
+            return segments;
+        }
+        List<Segment> snapshot = new ArrayList<>( own );
+        snapshot.addAll( segments );
+        return snapshot;
+    }
+
+
+    /**
+     * Looks up the current version of a row as seen by the given transaction.
+     *
+     * @return The row or {@code null} if there is no such row
+     */
+    @Nullable
+    public SegmentRecord get( String key, String xidHash ) {
+        try {
+            for ( Segment segment : snapshot( xidHash ) ) {
+                SegmentRecord record = segment.lookup( key );
+                if ( record != null ) {
+                    return record.isTombstone() ? null : record;
+                }
+            }
+            return null;
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read segments of " + folder.getName(), e );
+        }
+    }
+
+
+    /**
+     * Opens an iterator over all rows visible to the given transaction, ordered by their key. The iterator has to be closed.
+     */
+    SegmentMerger scan( String xidHash ) {
+        try {
+            return new SegmentMerger( snapshot( xidHash ), true );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read segments of " + folder.getName(), e );
+        }
+    }
+
+
+    /**
+     * Writes changes of a transaction to a new pending segment.
+     *
+     * @param changes New row versions and tombstones by their key
+     */
+    public void write( String xidHash, NavigableMap<String, SegmentRecord> changes ) {
+        if ( changes.isEmpty() ) {
+            return;
+        }
+        File file = new File( folder, PENDING_PREFIX + xidHash + "_" + pendingCounter.incrementAndGet() + Segment.SUFFIX );
+        try {
+            Segment segment = Segment.write( file, -1, -1, changes.values().iterator() );
+            pending.computeIfAbsent( xidHash, k -> new CopyOnWriteArrayList<>() ).add( 0, segment );
+        } catch ( IOException e ) {
+            deleteFile( file );
+            throw new GenericRuntimeException( "Could not write segment to " + folder.getName(), e );
+        }
+    }
+
+
+    /**
+     * Publishes or discards the pending segments of a transaction.
+     */
+    synchronized void commitOrRollback( String xidHash, boolean commit ) {
+        pending.remove( xidHash );
+        String prefix = PENDING_PREFIX + xidHash + "_";
+        File[] files = folder.listFiles( f -> f.getName().startsWith( prefix ) );
+        if ( files == null || files.length == 0 ) {
+            return;
+        }
+        if ( !commit ) {
+            Arrays.stream( files ).forEach( SegmentTable::deleteFile );
+            return;
+        }
+
+        // Publish in the order the segments have been written
+        Arrays.sort( files, Comparator.comparingLong( f -> Long.parseLong( f.getName().substring( prefix.length(), f.getName().length() - Segment.SUFFIX.length() ) ) ) );
+        List<Segment> published = new ArrayList<>( segments );
+        for ( File file : files ) {
+            long seq = ++sequence;
+            File target = new File( folder, Segment.getFileName( seq, seq ) );
+            try {
+                Files.move( file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE );
+                published.add( 0, Segment.open( target, seq, seq ) );
+            } catch ( IOException e ) {
+                throw new GenericRuntimeException( "Could not commit segment " + file.getAbsolutePath(), e );
+            }
+        }
+        segments = List.copyOf( published );
+    }
+
+
+    /**
+     * Merges all committed segments into a single segment if there are at least {@code threshold} of them.
+     *
+     * @return Whether the segments have been compacted
+     */
+    boolean compact( int threshold ) {
+        synchronized ( compactionLock ) {
+            deleteRetired();
+            List<Segment> current = segments;
+            if ( current.size() < Math.max( 2, threshold ) ) {
+                return false;
+            }
+            merge( current, UnaryOperator.identity() );
+            return true;
+        }
+    }
+
+
+    /**
+     * Rewrites all committed rows, e.g. to add a default value for a new column.
+     * Rows written by running transactions are not affected.
+     */
+    public void rewrite( UnaryOperator<SegmentRecord> transformation ) {
+        synchronized ( compactionLock ) {
+            deleteRetired();
+            List<Segment> current = segments;
+            if ( !current.isEmpty() ) {
+                merge( current, transformation );
+            }
+        }
+    }
+
+
+    private void merge( List<Segment> current, UnaryOperator<SegmentRecord> transformation ) {
+        // Commits only prepend segments, the merged segments are therefore always the oldest ones and tombstones can be dropped
+        long from = current.get( current.size() - 1 ).getFrom();
+        long to = current.get( 0 ).getTo();
+        File tmp = new File( folder, COMPACTION_PREFIX + Segment.getFileName( from, to ) );
+        File target = new File( folder, Segment.getFileName( from, to ) );
+
+        Segment merged = null;
+        try ( SegmentMerger merger = new SegmentMerger( current, true ) ) {
+            Iterator<SegmentRecord> records = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return merger.hasNext();
+                }
+
+
+                @Override
+                public SegmentRecord next() {
+                    return transformation.apply( merger.next() );
+                }
+            };
+            long count = current.stream().mapToLong( Segment::getRecordCount ).sum();
+            if ( count > 0 ) {
+                Segment.write( tmp, from, to, records );
+                Files.move( tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE );
+                merged = Segment.open( target, from, to );
+            }
+        } catch ( IOException e ) {
+            deleteFile( tmp );
+            throw new GenericRuntimeException( "Could not compact segments of " + folder.getName(), e );
+        }
+
+        synchronized ( this ) {
+            List<Segment> updated = new ArrayList<>( segments.subList( 0, segments.size() - current.size() ) );
+            if ( merged != null && merged.getRecordCount() > 0 ) {
+                updated.add( merged );
+            } else if ( merged != null ) {
+                retired.add( merged );
+            }
+            segments = List.copyOf( updated );
+            retired.addAll( current );
+        }
+        log.debug( "Compacted {} segments of {}", current.size(), folder.getName() );
+    }
+
+
+    private synchronized void deleteRetired() {
+        retired.forEach( s -> deleteFile( s.getFile() ) );
+        retired.clear();
+    }
+
+
+    /**
+     * Removes all committed rows. Like truncating a table stored in cell files, this is not transactional.
+     * Waits for a running compaction, whose merged segment would otherwise bring back the truncated rows on the next load.
+     */
+    public void truncate() {
+        synchronized ( compactionLock ) {
+            synchronized ( this ) {
+                deleteRetired();
+                segments.forEach( s -> deleteFile( s.getFile() ) );
+                segments = List.of();
+            }
+        }
+    }
+
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+
+    private static void deleteFile( File file ) {
+        try {
+            Files.deleteIfExists( file.toPath() );
+        } catch ( IOException e ) {
+            log.warn( "Could not delete segment file {}", file.getAbsolutePath(), e );
+        }
+    }
+
+}
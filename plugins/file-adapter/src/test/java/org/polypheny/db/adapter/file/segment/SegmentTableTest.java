@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.file.segment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+public class SegmentTableTest {
+
+    private static final long ALLOC_ID = 7;
+
+    @TempDir
+    Path root;
+
+    private SegmentStorage storage;
+
+
+    @BeforeEach
+    public void setUp() {
+        storage = new SegmentStorage( root.toFile() );
+        storage.createTable( ALLOC_ID );
+    }
+
+
+    @Test
+    public void pendingRowsAreOnlyVisibleToTheirTransaction() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        table.write( "a", rows( put( 1, "one" ), put( 2, "two" ) ) );
+
+        assertEquals( "one", value( table.get( key( 1 ), "a" ) ) );
+        assertNull( table.get( key( 1 ), "b" ) );
+        assertEquals( List.of(), scan( table, "b" ) );
+        assertEquals( List.of( key( 1 ), key( 2 ) ), scan( table, "a" ) );
+    }
+
+
+    @Test
+    public void commitPublishesRows() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        table.write( "a", rows( put( 1, "one" ), put( 2, "two" ) ) );
+        table.write( "a", rows( put( 2, "zwei" ), put( 3, "three" ) ) );
+        storage.commitOrRollback( "a", true );
+
+        assertEquals( 2, table.getSegmentCount() );
+        assertEquals( List.of( key( 1 ), key( 2 ), key( 3 ) ), scan( table, "b" ) );
+        // the segment written later shadows the earlier one
+        assertEquals( "zwei", value( table.get( key( 2 ), "b" ) ) );
+        assertNoPendingFiles();
+    }
+
+
+    @Test
+    public void rollbackDiscardsRows() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        table.write( "a", rows( put( 1, "one" ) ) );
+        storage.commitOrRollback( "a", true );
+
+        table.write( "b", rows( put( 2, "two" ), SegmentRecord.tombstone( key( 1 ) ) ) );
+        assertNull( table.get( key( 1 ), "b" ) );
+        storage.commitOrRollback( "b", false );
+
+        assertEquals( "one", value( table.get( key( 1 ), "c" ) ) );
+        assertNull( table.get( key( 2 ), "c" ) );
+        assertEquals( 1, table.getSegmentCount() );
+        assertNoPendingFiles();
+    }
+
+
+    @Test
+    public void tombstonesHideRows() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        table.write( "a", rows( put( 1, "one" ), put( 2, "two" ) ) );
+        storage.commitOrRollback( "a", true );
+        table.write( "b", rows( SegmentRecord.tombstone( key( 1 ) ) ) );
+        storage.commitOrRollback( "b", true );
+
+        assertNull( table.get( key( 1 ), "c" ) );
+        assertEquals( List.of( key( 2 ) ), scan( table, "c" ) );
+    }
+
+
+    @Test
+    public void recoveryAfterCrash() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        table.write( "a", rows( put( 1, "one" ) ) );
+        storage.commitOrRollback( "a", true );
+        // "b" has logged its commit decision in the WAL, "c" has not decided yet when the store crashes
+        table.write( "b", rows( put( 2, "two" ) ) );
+        table.write( "c", rows( put( 3, "three" ) ) );
+
+        SegmentStorage recovered = new SegmentStorage( root.toFile() );
+        // the WAL replays the decision of "b", afterward the undecided transactions are discarded
+        recovered.commitOrRollback( "b", true );
+        recovered.discardPending();
+        // replaying a decision again is a no-op
+        recovered.commitOrRollback( "b", true );
+
+        SegmentTable table2 = recovered.getTable( ALLOC_ID );
+        assertEquals( List.of( key( 1 ), key( 2 ) ), scan( table2, "d" ) );
+        assertNull( table2.get( key( 3 ), "c" ) );
+        assertNoPendingFiles();
+
+        // the sequence continues after the recovered segments
+        table2.write( "e", rows( put( 2, "zwei" ) ) );
+        recovered.commitOrRollback( "e", true );
+        assertEquals( "zwei", value( new SegmentStorage( root.toFile() ).getTable( ALLOC_ID ).get( key( 2 ), "f" ) ) );
+    }
+
+
+    @Test
+    public void compactionMergesSegments() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        for ( int i = 0; i < 10; i++ ) {
+            table.write( "t" + i, rows( put( i, "v" + i ), put( i + 1, "w" + i ) ) );
+            storage.commitOrRollback( "t" + i, true );
+        }
+        table.write( "del", rows( SegmentRecord.tombstone( key( 0 ) ) ) );
+        storage.commitOrRollback( "del", true );
+        List<String> before = scan( table, "x" );
+
+        assertFalse( table.compact( 20 ) );
+        assertTrue( table.compact( 8 ) );
+
+        assertEquals( 1, table.getSegmentCount() );
+        assertEquals( before, scan( table, "x" ) );
+        assertNull( table.get( key( 0 ), "x" ) );
+        assertEquals( "w9", value( table.get( key( 10 ), "x" ) ) );
+        assertEquals( "v5", value( table.get( key( 5 ), "x" ) ) );
+
+        // a reload sees the compacted segment only, the merged ones are removed with the next compaction
+        table.compact( 8 );
+        assertEquals( 1, segmentFiles().size() );
+        SegmentTable reloaded = new SegmentStorage( root.toFile() ).getTable( ALLOC_ID );
+        assertEquals( before, scan( reloaded, "x" ) );
+    }
+
+
+    @Test
+    public void interruptedCompactionIsRemovedOnLoad() throws IOException {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        for ( int i = 0; i < 3; i++ ) {
+            table.write( "t" + i, rows( put( i, "v" + i ) ) );
+            storage.commitOrRollback( "t" + i, true );
+        }
+        File folder = table.getFolder();
+        // a merged segment whose inputs have not been removed yet and an unfinished merge
+        table.compact( 2 );
+        assertEquals( 4, segmentFiles().size() ); // 1_3 and the retired 1_1, 2_2, 3_3
+        Files.writeString( new File( folder, "_compact_1_3.seg" ).toPath(), "garbage" );
+
+        SegmentTable reloaded = new SegmentStorage( root.toFile() ).getTable( ALLOC_ID );
+        assertEquals( 1, reloaded.getSegmentCount() );
+        assertEquals( List.of( key( 0 ), key( 1 ), key( 2 ) ), scan( reloaded, "x" ) );
+        assertEquals( 1, segmentFiles().size() );
+        assertFalse( new File( folder, "_compact_1_3.seg" ).exists() );
+    }
+
+
+    @Test
+    public void truncateRemovesRows() {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        table.write( "a", rows( put( 1, "one" ) ) );
+        storage.commitOrRollback( "a", true );
+        table.truncate();
+
+        assertEquals( List.of(), scan( table, "b" ) );
+        assertEquals( List.of(), scan( new SegmentStorage( root.toFile() ).getTable( ALLOC_ID ), "b" ) );
+    }
+
+
+    @Test
+    public void truncateWaitsForCompaction() throws Exception {
+        SegmentTable table = storage.getTable( ALLOC_ID );
+        for ( int i = 0; i < 4; i++ ) {
+            table.write( "t" + i, rows( put( i, "v" + i ) ) );
+            storage.commitOrRollback( "t" + i, true );
+        }
+
+        CountDownLatch merging = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread compaction = new Thread( () -> {
+            try {
+                table.rewrite( record -> {
+                    merging.countDown();
+                    try {
+                        release.await();
+                    } catch ( InterruptedException e ) {
+                        throw new RuntimeException( e );
+                    }
+                    return record;
+                } );
+            } catch ( Throwable t ) {
+                failure.set( t );
+            }
+        } );
+        compaction.start();
+        assertTrue( merging.await( 10, TimeUnit.SECONDS ) );
+
+        Thread truncate = new Thread( table::truncate );
+        truncate.start();
+        truncate.join( 200 );
+        assertTrue( truncate.isAlive(), "Truncate has to wait for the running compaction" );
+
+        release.countDown();
+        compaction.join( 10_000 );
+        truncate.join( 10_000 );
+        assertNull( failure.get() );
+
+        assertEquals( List.of(), scan( table, "x" ) );
+        // the merged segment must not bring back the truncated rows
+        assertEquals( List.of(), scan( new SegmentStorage( root.toFile() ).getTable( ALLOC_ID ), "x" ) );
+    }
+
+
+    private List<File> segmentFiles() {
+        File[] files = storage.getTable( ALLOC_ID ).getFolder().listFiles( f -> f.getName().endsWith( Segment.SUFFIX ) && !f.getName().startsWith( "_" ) );
+        assertNotNull( files );
+        return List.of( files );
+    }
+
+
+    private void assertNoPendingFiles() {
+        File[] files = storage.getTable( ALLOC_ID ).getFolder().listFiles( f -> f.getName().startsWith( SegmentTable.PENDING_PREFIX ) );
+        assertNotNull( files );
+        assertEquals( 0, files.length );
+    }
+
+
+    private static String key( int id ) {
+        return SegmentTable.key( List.of( String.valueOf( id ) ) );
+    }
+
+
+    private static SegmentRecord put( int id, String value ) {
+        return new SegmentRecord( key( id ), Map.of( 1L, value ) );
+    }
+
+
+    private static NavigableMap<String, SegmentRecord> rows( SegmentRecord... records ) {
+        NavigableMap<String, SegmentRecord> rows = new TreeMap<>();
+        for ( SegmentRecord record : records ) {
+            rows.put( record.key(), record );
+        }
+        return rows;
+    }
+
+
+    private static String value( SegmentRecord record ) {
+        assertNotNull( record );
+        return record.values().get( 1L );
+    }
+
+
+    private static List<String> scan( SegmentTable table, String xidHash ) {
+        List<String> keys = new ArrayList<>();
+        try ( SegmentMerger merger = table.scan( xidHash ) ) {
+            merger.forEachRemaining( record -> keys.add( record.key() ) );
+        }
+        return keys;
+    }
+
+}
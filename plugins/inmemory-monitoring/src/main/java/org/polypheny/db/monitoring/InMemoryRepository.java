@@ -1,5 +1,5 @@
 /*
- * Copyright 2019-2024 The Polypheny Project
+ * Copyright 2019-2025 The Polypheny Project
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,28 +20,31 @@
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.monitoring.events.MonitoringDataPoint;
 import org.polypheny.db.monitoring.events.QueryPostCost;
 import org.polypheny.db.monitoring.events.metrics.QueryPostCostImpl;
 import org.polypheny.db.monitoring.repository.PersistentMonitoringRepository;
 import org.polypheny.db.util.PolyphenyHomeDirManager;
+import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
+import org.polypheny.db.util.background.BackgroundTask.TaskSchedulingType;
+import org.polypheny.db.util.background.BackgroundTaskManager;
 
 @Slf4j
 public class InMemoryRepository implements PersistentMonitoringRepository {
 
     private static final String FILE_PATH = "simpleBackendDb";
     private static final String FOLDER_NAME = "monitoring";
-    protected final Map<Class<?>, Map<UUID, MonitoringDataPoint>> data = new ConcurrentHashMap<>();
+    protected final Map<Class<?>, TimeSeries> data = new ConcurrentHashMap<>();
     protected Map<String, QueryPostCostImpl> queryPostCosts;
+    private String expireTaskId;
 
 
     @Override
@@ -52,39 +55,60 @@ public void initialize( boolean resetRepository ) {
 
     @Override
     public void dataPoint( @NonNull MonitoringDataPoint dataPoint ) {
-        Map<UUID, MonitoringDataPoint> table = this.data.get( dataPoint.getClass() );
-        if ( table == null ) {
-            this.createPersistentTable( dataPoint.getClass() );
-            table = this.data.get( dataPoint.getClass() );
+        if ( dataPoint.timestamp() == null ) {
+            log.debug( "Ignoring monitoring data point without timestamp: {}", dataPoint.id() );
+            return;
         }
+        TimeSeries series = data.computeIfAbsent( dataPoint.getClass(), k -> new TimeSeries() );
+        series.add(
+                dataPoint,
+                System.currentTimeMillis(),
+                RuntimeConfig.MONITORING_RAW_RETENTION.getInteger() * MinuteAggregate.MINUTE_MILLIS,
+                RuntimeConfig.MONITORING_AGGREGATE_RETENTION.getInteger() * MinuteAggregate.MINUTE_MILLIS,
+                RuntimeConfig.MONITORING_MAX_DATA_POINTS.getInteger() );
+    }
 
-        if ( table != null ) {
-            table.put( dataPoint.id(), dataPoint );
+
+    /**
+     * Enforces the retention of the given series. Adding data points only expires data when a new segment is started,
+     * therefore this is also done before reading and periodically in the background.
+     */
+    private TimeSeries expire( TimeSeries series ) {
+        if ( series != null ) {
+            series.expire(
+                    System.currentTimeMillis(),
+                    RuntimeConfig.MONITORING_RAW_RETENTION.getInteger() * MinuteAggregate.MINUTE_MILLIS,
+                    RuntimeConfig.MONITORING_AGGREGATE_RETENTION.getInteger() * MinuteAggregate.MINUTE_MILLIS,
+                    RuntimeConfig.MONITORING_MAX_DATA_POINTS.getInteger() );
         }
+        return series;
+    }
+
+
+    private void expireAll() {
+        data.values().forEach( this::expire );
     }
 
 
     @Override
     public <TPersistent extends MonitoringDataPoint> List<TPersistent> getAllDataPoints( @NonNull Class<TPersistent> dataPointClass ) {
-        final Map<UUID, MonitoringDataPoint> table = this.data.get( dataPointClass );
-        if ( table != null ) {
-            return table.values()
-                    .stream()
-                    .map( monitoringPersistentData -> (TPersistent) monitoringPersistentData )
-                    .filter( elem -> elem != null && elem.timestamp() != null )
-                    .sorted( Comparator.comparing( MonitoringDataPoint::timestamp ).reversed() )
-                    .toList();
+        final TimeSeries series = expire( this.data.get( dataPointClass ) );
+        if ( series != null ) {
+            return series.getAll();
         }
 
         return Collections.emptyList();
     }
 
 
+    /**
+     * Returns the number of data points, including the data points that were already downsampled.
+     */
     @Override
     public <TPersistent extends MonitoringDataPoint> long getNumberOfDataPoints( @NonNull Class<TPersistent> dataPointClass ) {
-        final Map<UUID, MonitoringDataPoint> table = this.data.get( dataPointClass );
-        if ( table != null ) {
-            return table.values().size();
+        final TimeSeries series = expire( this.data.get( dataPointClass ) );
+        if ( series != null ) {
+            return series.size() + series.aggregatedSize();
         }
         return 0;
     }
@@ -92,14 +116,9 @@ public <TPersistent extends MonitoringDataPoint> long getNumberOfDataPoints( @No
 
     @Override
     public <T extends MonitoringDataPoint> List<T> getDataPointsBefore( @NonNull Class<T> dataPointClass, @NonNull Timestamp timestamp ) {
-        final Map<UUID, MonitoringDataPoint> table = this.data.get( dataPointClass );
-        if ( table != null ) {
-            return table.values()
-                    .stream()
-                    .map( monitoringPersistentData -> (T) monitoringPersistentData )
-                    .sorted( Comparator.comparing( MonitoringDataPoint::timestamp ).reversed() )
-                    .filter( elem -> elem.timestamp().before( timestamp ) )
-                    .toList();
+        final TimeSeries series = expire( this.data.get( dataPointClass ) );
+        if ( series != null ) {
+            return series.getBefore( timestamp.getTime() );
         }
 
         return Collections.emptyList();
@@ -108,14 +127,9 @@ public <T extends MonitoringDataPoint> List<T> getDataPointsBefore( @NonNull Cla
 
     @Override
     public <T extends MonitoringDataPoint> List<T> getDataPointsAfter( @NonNull Class<T> dataPointClass, @NonNull Timestamp timestamp ) {
-        final Map<UUID, MonitoringDataPoint> table = this.data.get( dataPointClass );
-        if ( table != null ) {
-            return table.values()
-                    .stream()
-                    .map( monitoringPersistentData -> (T) monitoringPersistentData )
-                    .sorted( Comparator.comparing( MonitoringDataPoint::timestamp ).reversed() )
-                    .filter( elem -> elem.timestamp().after( timestamp ) )
-                    .toList();
+        final TimeSeries series = expire( this.data.get( dataPointClass ) );
+        if ( series != null ) {
+            return series.getAfter( timestamp.getTime() );
         }
 
         return Collections.emptyList();
@@ -204,6 +218,14 @@ public void resetQueryPostCosts() {
     protected void initialize( String filePath, String folderName, boolean resetRepository ) {
 
         synchronized ( this ) {
+            if ( expireTaskId == null ) {
+                expireTaskId = BackgroundTaskManager.INSTANCE.registerTask(
+                        this::expireAll,
+                        "Expire monitoring data points",
+                        TaskPriority.LOW,
+                        TaskSchedulingType.EVERY_MINUTE );
+            }
+
             File folder = PolyphenyHomeDirManager.getInstance().registerNewFolder( folderName );
 
             // Assume that file is locked
@@ -229,12 +251,4 @@ private void initializePostCosts() {
         queryPostCosts = new HashMap<>();
     }
 
-
-    private void createPersistentTable( Class<? extends MonitoringDataPoint> classPersistentData ) {
-        if ( classPersistentData != null ) {
-            final Map<UUID, MonitoringDataPoint> treeMap = new HashMap<>();
-            data.put( classPersistentData, treeMap );
-        }
-    }
-
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring;
+
+import lombok.Getter;
+
+/**
+ * Number of downsampled data points of one type that were recorded within the same minute.
+ */
+@Getter
+class MinuteAggregate {
+
+    static final long MINUTE_MILLIS = 60_000;
+
+    private final long minute; // start of the minute in epoch millis
+    private long count;
+
+
+    MinuteAggregate( long minute ) {
+        this.minute = minute;
+    }
+
+
+    static long getMinute( long timestamp ) {
+        return Math.floorDiv( timestamp, MINUTE_MILLIS ) * MINUTE_MILLIS;
+    }
+
+
+    void add() {
+        count++;
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.polypheny.db.monitoring.events.MonitoringDataPoint;
+
+/**
+ * Stores the data points of a single type ordered by their timestamp.
+ * The data points are kept in segments of primitive timestamp arrays and payload arrays, which allows answering
+ * range queries with a binary search instead of scanning and sorting all data points.
+ * <p>
+ * Data points that are older than the raw retention, or that exceed the maximum number of data points, are downsampled
+ * into per-minute counts. Aggregates are dropped after the aggregate retention. Expiry runs whenever a new segment is
+ * started and can be triggered explicitly with {@link #expire(long, long, long, long)}, e.g. by a periodic task.
+ * Retired segments are recycled for new data points.
+ */
+class TimeSeries {
+
+    static final int SEGMENT_SIZE = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Segment> segments = new ArrayList<>(); // ordered by time, oldest first, with non-overlapping ranges
+    private final TreeMap<Long, MinuteAggregate> aggregates = new TreeMap<>();
+    private Segment recycled;
+    private long size;
+
+
+    /**
+     * Adds the data point and removes expired data.
+     *
+     * @param dataPoint the data point with a non-null timestamp
+     * @param now the current time in millis, used for determining expired data
+     * @param rawRetention time in millis for which data points are kept
+     * @param aggregateRetention time in millis for which aggregates are kept
+     * @param maxSize maximum number of data points that are kept
+     */
+    void add( MonitoringDataPoint dataPoint, long now, long rawRetention, long aggregateRetention, long maxSize ) {
+        long timestamp = dataPoint.timestamp().getTime();
+        lock.writeLock().lock();
+        try {
+            Segment last = segments.isEmpty() ? null : segments.get( segments.size() - 1 );
+            if ( last == null || (last.isFull() && timestamp >= last.getLast()) ) {
+                expireLocked( now, rawRetention, aggregateRetention, maxSize ); // a good time for cleaning up
+                last = newSegment();
+                segments.add( last );
+            }
+            // data points usually arrive in order, so we search backwards
+            int i = segments.size() - 1;
+            while ( i > 0 && segments.get( i ).getFirst() > timestamp ) {
+                i--;
+            }
+            segments.get( i ).insert( timestamp, dataPoint );
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns all data points with a timestamp strictly after the given timestamp, the youngest data point first.
+     */
+    <T extends MonitoringDataPoint> List<T> getAfter( long timestamp ) {
+        lock.readLock().lock();
+        try {
+            List<T> result = new ArrayList<>();
+            for ( int i = segments.size() - 1; i >= 0; i-- ) {
+                Segment segment = segments.get( i );
+                int from = segment.upperBound( timestamp );
+                segment.collectDescending( from, segment.size, result );
+                if ( from > 0 ) {
+                    break; // all remaining segments are older
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns all data points with a timestamp strictly before the given timestamp, the youngest data point first.
+     */
+    <T extends MonitoringDataPoint> List<T> getBefore( long timestamp ) {
+        lock.readLock().lock();
+        try {
+            List<T> result = new ArrayList<>();
+            int i = segments.size() - 1;
+            while ( i >= 0 && segments.get( i ).getFirst() >= timestamp ) {
+                i--;
+            }
+            for ( ; i >= 0; i-- ) {
+                Segment segment = segments.get( i );
+                segment.collectDescending( 0, segment.lowerBound( timestamp ), result );
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    <T extends MonitoringDataPoint> List<T> getAll() {
+        return getAfter( Long.MIN_VALUE );
+    }
+
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the number of data points that are only retained in aggregated form.
+     */
+    long aggregatedSize() {
+        lock.readLock().lock();
+        try {
+            return aggregates.values().stream().mapToLong( MinuteAggregate::getCount ).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Downsamples the data points that are older than the raw retention or exceed the maximum number of data points,
+     * and drops aggregates that are older than the aggregate retention.
+     *
+     * @param now the current time in millis
+     * @param rawRetention time in millis for which data points are kept
+     * @param aggregateRetention time in millis for which aggregates are kept
+     * @param maxSize maximum number of data points that are kept
+     */
+    void expire( long now, long rawRetention, long aggregateRetention, long maxSize ) {
+        lock.writeLock().lock();
+        try {
+            expireLocked( now, rawRetention, aggregateRetention, maxSize );
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    private void expireLocked( long now, long rawRetention, long aggregateRetention, long maxSize ) {
+        long cutoff = now - rawRetention;
+        while ( !segments.isEmpty() && (segments.get( 0 ).getLast() < cutoff || size - segments.get( 0 ).size >= maxSize) ) {
+            downsample( segments.remove( 0 ) );
+        }
+        if ( !segments.isEmpty() ) {
+            // only part of the oldest segment is expired
+            Segment oldest = segments.get( 0 );
+            int n = (int) Math.max( oldest.lowerBound( cutoff ), Math.min( oldest.size, size - maxSize ) );
+            if ( n > 0 ) {
+                downsample( oldest, n );
+                oldest.removeFirst( n );
+                size -= n;
+            }
+        }
+        aggregates.headMap( MinuteAggregate.getMinute( now - aggregateRetention ) ).clear();
+    }
+
+
+    private void downsample( Segment segment ) {
+        downsample( segment, segment.size );
+        size -= segment.size;
+        segment.clear();
+        if ( segment.timestamps.length == SEGMENT_SIZE ) {
+            recycled = segment; // segments that grew by out-of-order inserts are not recycled
+        }
+    }
+
+
+    private void downsample( Segment segment, int n ) {
+        for ( int i = 0; i < n; i++ ) {
+            aggregates.computeIfAbsent( MinuteAggregate.getMinute( segment.timestamps[i] ), MinuteAggregate::new ).add();
+        }
+    }
+
+
+    private Segment newSegment() {
+        if ( recycled != null ) {
+            Segment segment = recycled;
+            recycled = null;
+            return segment;
+        }
+        return new Segment();
+    }
+
+
+    private static class Segment {
+
+        private long[] timestamps = new long[SEGMENT_SIZE];
+        private MonitoringDataPoint[] points = new MonitoringDataPoint[SEGMENT_SIZE];
+        private int size;
+
+
+        boolean isFull() {
+            return size >= SEGMENT_SIZE;
+        }
+
+
+        long getFirst() {
+            return size == 0 ? Long.MIN_VALUE : timestamps[0];
+        }
+
+
+        long getLast() {
+            return size == 0 ? Long.MIN_VALUE : timestamps[size - 1];
+        }
+
+
+        void insert( long timestamp, MonitoringDataPoint dataPoint ) {
+            if ( size == timestamps.length ) {
+                // only happens for data points that arrive out of order
+                timestamps = Arrays.copyOf( timestamps, size + SEGMENT_SIZE / 4 );
+                points = Arrays.copyOf( points, size + SEGMENT_SIZE / 4 );
+            }
+            int pos = upperBound( timestamp );
+            if ( pos < size ) {
+                System.arraycopy( timestamps, pos, timestamps, pos + 1, size - pos );
+                System.arraycopy( points, pos, points, pos + 1, size - pos );
+            }
+            timestamps[pos] = timestamp;
+            points[pos] = dataPoint;
+            size++;
+        }
+
+
+        /**
+         * Returns the index of the first timestamp that is strictly greater than the given timestamp.
+         */
+        int upperBound( long timestamp ) {
+            int low = 0;
+            int high = size;
+            while ( low < high ) {
+                int mid = (low + high) >>> 1;
+                if ( timestamps[mid] <= timestamp ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+
+        /**
+         * Returns the index of the first timestamp that is greater than or equal to the given timestamp.
+         */
+        int lowerBound( long timestamp ) {
+            int low = 0;
+            int high = size;
+            while ( low < high ) {
+                int mid = (low + high) >>> 1;
+                if ( timestamps[mid] < timestamp ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+
+        @SuppressWarnings("unchecked")
+        <T extends MonitoringDataPoint> void collectDescending( int from, int to, List<T> result ) {
+            for ( int i = to - 1; i >= from; i-- ) {
+                result.add( (T) points[i] );
+            }
+        }
+
+
+        void removeFirst( int n ) {
+            System.arraycopy( timestamps, n, timestamps, 0, size - n );
+            System.arraycopy( points, n, points, 0, size - n );
+            Arrays.fill( points, size - n, size, null );
+            size -= n;
+        }
+
+
+        void clear() {
+            Arrays.fill( points, 0, size, null );
+            size = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.monitoring.events.MonitoringDataPoint;
+import org.polypheny.db.monitoring.events.metrics.DmlDataPoint;
+
+class TimeSeriesTest {
+
+    private static final long NOW = 1_000_000_000L;
+    private static final long RETENTION = Long.MAX_VALUE / 4;
+
+
+    @Test
+    void rangeQueriesWithOutOfOrderPointsTest() {
+        TimeSeries series = new TimeSeries();
+        int n = TimeSeries.SEGMENT_SIZE * 3;
+        for ( int i = 0; i < n; i++ ) {
+            long time = i % 10 == 0 ? i - 5 : i; // some data points arrive late
+            series.add( dataPoint( time ), NOW, RETENTION, RETENTION, Long.MAX_VALUE );
+        }
+
+        List<MonitoringDataPoint> after = series.getAfter( n / 2 );
+        assertTrue( after.stream().allMatch( p -> p.timestamp().getTime() > n / 2 ) );
+        assertEquals( n - n / 2 - 1, after.size() );
+        assertDescending( after );
+
+        List<MonitoringDataPoint> before = series.getBefore( 100 );
+        assertTrue( before.stream().allMatch( p -> p.timestamp().getTime() < 100 ) );
+        assertDescending( before );
+        assertEquals( n, series.getAll().size() );
+    }
+
+
+    @Test
+    void oldPointsAreDownsampledTest() {
+        TimeSeries series = new TimeSeries();
+        int n = TimeSeries.SEGMENT_SIZE * 2 + 1;
+        for ( int i = 0; i < n; i++ ) {
+            series.add( dataPoint( i * 100L ), NOW, RETENTION, RETENTION, TimeSeries.SEGMENT_SIZE );
+        }
+
+        assertTrue( series.size() <= TimeSeries.SEGMENT_SIZE + 1 );
+        assertEquals( n, series.size() + series.aggregatedSize() );
+    }
+
+
+    @Test
+    void retentionIsEnforcedWithoutNewDataPointsTest() {
+        TimeSeries series = new TimeSeries();
+        int n = 100; // fewer than a segment, so adding never expires anything
+        for ( int i = 0; i < n; i++ ) {
+            series.add( dataPoint( i * 1000L ), NOW, RETENTION, RETENTION, Long.MAX_VALUE );
+        }
+        assertEquals( n, series.size() );
+
+        // the first half is older than the raw retention
+        series.expire( n / 2 * 1000L + 10, 10, RETENTION, Long.MAX_VALUE );
+        assertEquals( n / 2, series.size() );
+        assertEquals( n / 2, series.aggregatedSize() );
+        assertTrue( series.getAll().stream().allMatch( p -> p.timestamp().getTime() >= n / 2 * 1000L ) );
+
+        series.expire( n / 2 * 1000L + 10, 10, RETENTION, 10 );
+        assertEquals( 10, series.size() );
+        assertEquals( n - 10, series.aggregatedSize() );
+
+        // aggregates are dropped after the aggregate retention
+        series.expire( NOW, NOW, 10, Long.MAX_VALUE );
+        assertEquals( 10, series.size() );
+        assertEquals( 0, series.aggregatedSize() );
+    }
+
+
+    private static void assertDescending( List<MonitoringDataPoint> points ) {
+        for ( int i = 1; i < points.size(); i++ ) {
+            assertTrue( points.get( i - 1 ).timestamp().getTime() >= points.get( i ).timestamp().getTime() );
+        }
+    }
+
+
+    private static MonitoringDataPoint dataPoint( long time ) {
+        return DmlDataPoint.builder().Id( UUID.randomUUID() ).recordedTimestamp( new Timestamp( time ) ).build();
+    }
+
+}
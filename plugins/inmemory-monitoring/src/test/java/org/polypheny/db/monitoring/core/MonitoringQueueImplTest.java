@@ -26,7 +26,11 @@
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.polypheny.db.TestHelper;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.monitoring.events.DdlEvent;
+import org.polypheny.db.monitoring.events.DmlEvent;
 import org.polypheny.db.monitoring.events.MonitoringEvent;
+import org.polypheny.db.monitoring.events.MonitoringType;
 import org.polypheny.db.monitoring.events.QueryEvent;
 import org.polypheny.db.monitoring.repository.MonitoringRepository;
 import org.polypheny.db.monitoring.repository.PersistentMonitoringRepository;
@@ -116,4 +120,40 @@ public void queueEventValidEventsQueueConsistsElements() {
         assertEquals( QueryEvent.class.toString(), infoString.get( "type" ) );
     }
 
+
+    @Test
+    public void dmlAndDdlEventsAreNeverSampledOrDropped() {
+        int capacity = RuntimeConfig.MONITORING_QUEUE_CAPACITY.getInteger();
+        String rates = RuntimeConfig.MONITORING_SAMPLING_RATES.getString();
+        RuntimeConfig.MONITORING_QUEUE_CAPACITY.setInteger( 4 );
+        RuntimeConfig.MONITORING_SAMPLING_RATES.setString( "INSERT=0,SELECT=0" );
+        try {
+            MonitoringQueue sut = new MonitoringQueueImpl( false, Mockito.mock( PersistentMonitoringRepository.class ), Mockito.mock( MonitoringRepository.class ) );
+
+            for ( int i = 0; i < 10; i++ ) {
+                DmlEvent event = new DmlEvent();
+                event.setMonitoringType( MonitoringType.INSERT );
+                sut.queueEvent( event );
+            }
+            sut.queueEvent( new DdlEvent() );
+            assertEquals( 11L, sut.getNumberOfElementsInQueue() );
+
+            // queries are sampled, and dropped while the queue is full
+            QueryEvent sampled = new QueryEvent();
+            sampled.setMonitoringType( MonitoringType.SELECT );
+            sut.queueEvent( sampled );
+            QueryEvent dropped = new QueryEvent();
+            dropped.setMonitoringType( MonitoringType.UNION );
+            sut.queueEvent( dropped );
+
+            assertEquals( 11L, sut.getNumberOfElementsInQueue() );
+            assertEquals( 1L, sut.getNumberOfSampledOutEvents() );
+            assertEquals( 1L, sut.getNumberOfDroppedEvents() );
+            assertEquals( 11, sut.getInformationOnElementsInQueue().size() );
+        } finally {
+            RuntimeConfig.MONITORING_QUEUE_CAPACITY.setInteger( capacity );
+            RuntimeConfig.MONITORING_SAMPLING_RATES.setString( rates );
+        }
+    }
+
 }
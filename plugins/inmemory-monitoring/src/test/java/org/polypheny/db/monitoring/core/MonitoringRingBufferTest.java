@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.monitoring.events.MonitoringType;
+
+
+class MonitoringRingBufferTest {
+
+    @Test
+    public void offerFailsIfFull() {
+        MonitoringRingBuffer<Integer> buffer = new MonitoringRingBuffer<>( 3 );
+        assertEquals( 4, buffer.capacity() );
+        for ( int i = 0; i < 4; i++ ) {
+            assertTrue( buffer.offer( i ) );
+        }
+        assertFalse( buffer.offer( 4 ) );
+        assertEquals( 0, buffer.poll() );
+        assertTrue( buffer.offer( 4 ) );
+
+        List<Integer> batch = new ArrayList<>();
+        assertEquals( 4, buffer.drainTo( batch, 10 ) );
+        assertEquals( List.of( 1, 2, 3, 4 ), batch );
+        assertNull( buffer.poll() );
+    }
+
+
+    @Test
+    public void concurrentProducersAndConsumers() throws InterruptedException {
+        MonitoringRingBuffer<Integer> buffer = new MonitoringRingBuffer<>( 64 );
+        int producers = 4;
+        int perProducer = 20_000;
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        AtomicInteger remaining = new AtomicInteger( producers * perProducer );
+
+        List<Thread> threads = new ArrayList<>();
+        for ( int p = 0; p < producers; p++ ) {
+            int offset = p * perProducer;
+            threads.add( new Thread( () -> {
+                for ( int i = 0; i < perProducer; i++ ) {
+                    while ( !buffer.offer( offset + i ) ) {
+                        Thread.onSpinWait();
+                    }
+                }
+            } ) );
+        }
+        for ( int c = 0; c < 2; c++ ) {
+            threads.add( new Thread( () -> {
+                List<Integer> batch = new ArrayList<>();
+                while ( remaining.get() > 0 ) {
+                    int n = buffer.drainTo( batch, 16 );
+                    batch.forEach( e -> assertTrue( consumed.add( e ), "Element was consumed twice: " + e ) );
+                    remaining.addAndGet( -n );
+                    batch.clear();
+                }
+            } ) );
+        }
+        for ( Thread thread : threads ) {
+            thread.start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join( 30_000 );
+        }
+        assertEquals( producers * perProducer, consumed.size() );
+    }
+
+
+    @Test
+    public void invalidSamplingRatesAreIgnored() {
+        Map<MonitoringType, Double> rates = MonitoringQueueImpl.parseSamplingRates( "select=0.25, INSERT=2,UNKNOWN=0.5,DELETE" );
+        assertEquals( Map.of( MonitoringType.SELECT, 0.25, MonitoringType.INSERT, 1.0 ), rates );
+    }
+
+}
@@ -58,7 +58,8 @@ public TransactionalConnectionFactory( BasicDataSource dataSource, int maxConnec
 
 
     @Override
-    public TransactionalConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
+    // Statements of one transaction may run on several threads, the check and the registration of a handler have to be atomic
+    public synchronized TransactionalConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
         if ( !activeInstances.containsKey( xid ) ) {
             TransactionalConnectionHandler transactionHandler = getFreeTransactionHandler();
             transactionHandler.xid = xid;
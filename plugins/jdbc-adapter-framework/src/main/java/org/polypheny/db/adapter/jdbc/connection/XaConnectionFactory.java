@@ -60,7 +60,8 @@ public XaConnectionFactory( XADataSource dataSource, int maxConnections, SqlDial
 
 
     @Override
-    public XaConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
+    // Statements of one transaction may run on several threads, the check and the registration of a handler have to be atomic
+    public synchronized XaConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
         if ( !activeInstances.containsKey( xid ) ) {
             XaConnectionHandler xaConnectionHandler = getFreeTransactionHandler();
             xaConnectionHandler.init( xid );
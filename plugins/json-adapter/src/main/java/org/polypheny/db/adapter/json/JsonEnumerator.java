@@ -7,9 +7,16 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 import org.apache.calcite.linq4j.Enumerator;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.schema.document.DocumentPushdown;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
 import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.document.PolyDocument;
+import org.polypheny.db.type.entity.relational.PolyMap;
 
 final class JsonEnumerator implements Enumerator<PolyValue[]> {
 
@@ -17,13 +24,20 @@ final class JsonEnumerator implements Enumerator<PolyValue[]> {
     private final static JsonToPolyConverter CONVERTER = new JsonToPolyConverter();
 
     private final URL url;
+    private final DocumentPushdown pushdown;
     private JsonParser parser;
     private PolyValue[] current;
     private boolean isCollection;
 
 
     JsonEnumerator( URL url ) {
+        this( url, DocumentPushdown.NONE );
+    }
+
+
+    JsonEnumerator( URL url, DocumentPushdown pushdown ) {
         this.url = url;
+        this.pushdown = pushdown;
     }
 
 
@@ -39,7 +53,7 @@ private void initializeParser() throws IOException {
     }
 
 
-    private JsonNode getNextNode() throws IOException {
+    private PolyDocument getNextDocument() throws IOException {
         if ( parser == null || parser.isClosed() ) {
             return null;
         }
@@ -49,16 +63,56 @@ private JsonNode getNextNode() throws IOException {
                 if ( parser.currentToken() != JsonToken.START_OBJECT ) {
                     continue;
                 }
-                return MAPPER.readTree( parser );
+                PolyDocument document = readDocument();
+                if ( document != null ) {
+                    return document;
+                }
             }
         }
 
-        JsonNode node = null;
+        PolyDocument document = null;
         if ( parser.currentToken() == JsonToken.START_OBJECT ) {
-            node = MAPPER.readTree( parser );
+            document = readDocument();
             isCollection = false;
         }
-        return node;
+        return document;
+    }
+
+
+    /**
+     * Reads the object at the current position of the parser. Without a pushdown the whole object is read as a tree,
+     * otherwise only the needed top-level fields are materialized and the rest of the object is skipped as soon as
+     * a predicate fails.
+     *
+     * @return the document or {@code null} if it was dropped by the pushdown
+     */
+    private PolyDocument readDocument() throws IOException {
+        if ( pushdown.isEmpty() ) {
+            return CONVERTER.nodeToPolyDocument( MAPPER.readTree( parser ) );
+        }
+
+        Map<PolyString, PolyValue> fields = new HashMap<>();
+        while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            String name = parser.currentName();
+            parser.nextToken();
+            if ( !pushdown.needs( name ) ) {
+                parser.skipChildren();
+                continue;
+            }
+            JsonNode node = MAPPER.readTree( parser );
+            PolyValue value = node == null ? PolyNull.NULL : CONVERTER.nodeToPolyValue( node );
+            if ( !pushdown.test( name, value ) ) {
+                while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                return null;
+            }
+            if ( pushdown.keeps( name ) ) {
+                fields.put( PolyString.of( name ), value );
+            }
+        }
+        return new PolyDocument( PolyMap.of( fields ) );
     }
 
 
@@ -74,9 +128,9 @@ public boolean moveNext() {
             if ( parser == null ) {
                 initializeParser();
             }
-            JsonNode node = getNextNode();
-            current = node == null ? null : new PolyValue[]{ CONVERTER.nodeToPolyDocument( node ) };
-            return node != null;
+            PolyDocument document = getNextDocument();
+            current = document == null ? null : new PolyValue[]{ document };
+            return document != null;
         } catch ( IOException e ) {
             throw new GenericRuntimeException( "Error reading JSON: " + e.getMessage(), e );
         }
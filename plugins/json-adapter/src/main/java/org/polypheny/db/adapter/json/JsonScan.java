@@ -23,6 +23,7 @@
 import org.jetbrains.annotations.NotNull;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.core.document.DocumentPushdownScan;
 import org.polypheny.db.algebra.core.document.DocumentScan;
 import org.polypheny.db.algebra.enumerable.EnumerableAlg;
 import org.polypheny.db.algebra.enumerable.EnumerableAlgImplementor;
@@ -30,36 +31,59 @@
 import org.polypheny.db.algebra.enumerable.PhysType;
 import org.polypheny.db.algebra.enumerable.PhysTypeImpl;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.rules.DocumentPushdownRule;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.plan.AlgCluster;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgPlanner;
 import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.schema.document.DocumentPushdown;
+import org.polypheny.db.schema.types.FilterableCollection;
 import org.polypheny.db.schema.types.ScannableEntity;
 
-public final class JsonScan extends DocumentScan<JsonCollection> implements EnumerableAlg {
+public final class JsonScan extends DocumentScan<JsonCollection> implements EnumerableAlg, DocumentPushdownScan {
 
     @Getter
     private final JsonCollection collection;
+    @Getter
+    private final DocumentPushdown pushdown;
 
 
     JsonScan( AlgCluster cluster, @NotNull JsonCollection collection ) {
+        this( cluster, collection, DocumentPushdown.NONE );
+    }
+
+
+    JsonScan( AlgCluster cluster, @NotNull JsonCollection collection, @NotNull DocumentPushdown pushdown ) {
         super( cluster, cluster.traitSetOf( EnumerableConvention.INSTANCE ), collection );
         this.collection = collection;
+        this.pushdown = pushdown;
     }
 
 
     @Override
     public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
         assert inputs.isEmpty();
-        return new JsonScan( getCluster(), collection );
+        return new JsonScan( getCluster(), collection, pushdown );
+    }
+
+
+    @Override
+    public AlgNode withPushdown( DocumentPushdown pushdown ) {
+        return new JsonScan( getCluster(), collection, pushdown );
     }
 
 
     @Override
     public AlgWriter explainTerms( AlgWriter pw ) {
-        return super.explainTerms( pw );
+        return super.explainTerms( pw ).itemIf( "pushdown", pushdown, !pushdown.isEmpty() );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return super.algCompareString() + pushdown + "&";
     }
 
 
@@ -73,13 +97,18 @@ public AlgDataType deriveRowType() {
     @Override
     public void register( @NotNull AlgPlanner planner ) {
         planner.addRule( JsonScanRule.INSTANCE );
+        planner.addRule( DocumentPushdownRule.FILTER );
+        planner.addRule( DocumentPushdownRule.PROJECT );
+        planner.addRule( DocumentPushdownRule.PROJECT_FILTER );
     }
 
 
     @Override
     public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
-        // copied over from the csv project scan rule
-        return super.computeSelfCost( planner, mq ).multiplyBy( (3D) / ((double) entity.getTupleType().getFieldCount() + 2D) );
+        // copied over from the csv project scan rule, a scan which drops documents or fields while parsing is cheaper
+        return super.computeSelfCost( planner, mq )
+                .multiplyBy( (3D) / ((double) entity.getTupleType().getFieldCount() + 2D) )
+                .multiplyBy( (pushdown.hasPredicates() ? 0.5 : 1D) * (pushdown.getFields() != null ? 0.75 : 1D) );
     }
 
 
@@ -87,7 +116,10 @@ public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getTupleType(), pref.preferArray() );
 
-        return implementor.result( physType, Blocks.toBlock( Expressions.call( entity.asExpression( ScannableEntity.class ), "scan", implementor.getRootExpression() ) ) );
+        if ( pushdown.isEmpty() ) {
+            return implementor.result( physType, Blocks.toBlock( Expressions.call( entity.asExpression( ScannableEntity.class ), "scan", implementor.getRootExpression() ) ) );
+        }
+        return implementor.result( physType, Blocks.toBlock( Expressions.call( entity.asExpression( FilterableCollection.class ), "scan", implementor.getRootExpression(), pushdown.asExpression() ) ) );
     }
 
 }
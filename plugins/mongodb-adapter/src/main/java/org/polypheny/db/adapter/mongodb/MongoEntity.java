@@ -35,13 +35,17 @@
 
 
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.DeleteManyModel;
 import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.WriteModel;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -71,6 +75,7 @@
 import org.bson.json.JsonWriterSettings;
 import org.polypheny.db.adapter.AdapterManager;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.mongodb.MongoPlugin.MongoStore;
 import org.polypheny.db.adapter.mongodb.rules.MongoScan;
 import org.polypheny.db.adapter.mongodb.util.MongoDynamic;
 import org.polypheny.db.adapter.mongodb.util.MongoTupleType;
@@ -498,35 +503,19 @@ private long doDML( Operation operation, String filter, List<String> operations,
                         // prepared we use document update not pipeline
                         MongoDynamic filterUtil = new MongoDynamic( BsonDocument.parse( filter ), bucket );
                         MongoDynamic docUtil = new MongoDynamic( BsonDocument.parse( operations.get( 0 ) ), bucket );
+                        List<WriteModel<Document>> updates = new ArrayList<>();
                         for ( Map<Long, PolyValue> parameterValue : dataContext.getParameterValues() ) {
+                            BsonDocument rowFilter = filterUtil.insert( parameterValue );
+                            BsonDocument rowUpdate = docUtil.insert( parameterValue );
+                            log.debug( "filter {}", rowFilter );
+                            log.debug( "operation {}", rowUpdate );
                             if ( onlyOne ) {
-                                if ( needsDocument ) {
-                                    changes += entity
-                                            .getCollection()
-                                            .updateOne( session, filterUtil.insert( parameterValue ), docUtil.insert( parameterValue ) )
-                                            .getModifiedCount();
-                                } else {
-                                    changes += entity
-                                            .getCollection()
-                                            .updateOne( session, filterUtil.insert( parameterValue ), List.of( docUtil.insert( parameterValue ) ) )
-                                            .getModifiedCount();
-                                }
+                                updates.add( needsDocument ? new UpdateOneModel<>( rowFilter, rowUpdate ) : new UpdateOneModel<>( rowFilter, List.of( rowUpdate ) ) );
                             } else {
-                                log.debug( "filter {}", filterUtil.insert( parameterValue ) );
-                                log.debug( "operation {}", docUtil.insert( parameterValue ) );
-                                if ( needsDocument ) {
-                                    changes += entity
-                                            .getCollection()
-                                            .updateMany( session, filterUtil.insert( parameterValue ), docUtil.insert( parameterValue ) )
-                                            .getModifiedCount();
-                                } else {
-                                    changes += entity
-                                            .getCollection()
-                                            .updateMany( session, filterUtil.insert( parameterValue ), List.of( docUtil.insert( parameterValue ) ) )
-                                            .getModifiedCount();
-                                }
+                                updates.add( needsDocument ? new UpdateManyModel<>( rowFilter, rowUpdate ) : new UpdateManyModel<>( rowFilter, List.of( rowUpdate ) ) );
                             }
                         }
+                        changes = bulkWrite( session, updates ).getModifiedCount();
                     } else {
                         // direct
                         if ( onlyOne ) {
@@ -555,7 +544,7 @@ private long doDML( Operation operation, String filter, List<String> operations,
                             filters = filterUtil.getAll( dataContext.getParameterValues(), DeleteManyModel::new );
                         }
 
-                        changes = entity.getCollection().bulkWrite( session, filters ).getDeletedCount();
+                        changes = bulkWrite( session, filters ).getDeletedCount();
                     } else {
                         // direct
                         if ( onlyOne ) {
@@ -579,6 +568,17 @@ private long doDML( Operation operation, String filter, List<String> operations,
 
         }
 
+
+        /**
+         * Sends the modifications of all parameter rows to MongoDB in a single round trip.
+         */
+        private BulkWriteResult bulkWrite( ClientSession session, List<? extends WriteModel<Document>> writes ) {
+            MongoStore store = entity.getMongoNamespace().getStore();
+            BulkWriteResult result = entity.getCollection().bulkWrite( session, writes, new BulkWriteOptions().ordered( store.isOrderedBulkWrites() ) );
+            store.recordBulkWrite( writes.size() );
+            return result;
+        }
+
     }
 
 }
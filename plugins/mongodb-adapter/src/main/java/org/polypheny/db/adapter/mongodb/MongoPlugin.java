@@ -31,6 +31,7 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
@@ -48,6 +49,7 @@
 import org.polypheny.db.adapter.DeployMode.DeploySetting;
 import org.polypheny.db.adapter.DocumentModifyDelegate;
 import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingBoolean;
 import org.polypheny.db.adapter.annotations.AdapterSettingInteger;
 import org.polypheny.db.adapter.annotations.AdapterSettingString;
 import org.polypheny.db.algebra.AlgNode;
@@ -73,6 +75,8 @@
 import org.polypheny.db.docker.DockerContainer.HostAndPort;
 import org.polypheny.db.docker.DockerInstance;
 import org.polypheny.db.docker.DockerManager;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
 import org.polypheny.db.plugins.PluginContext;
 import org.polypheny.db.plugins.PolyPlugin;
 import org.polypheny.db.prepare.Context;
@@ -121,6 +125,8 @@ public void stop() {
     @AdapterSettingInteger(name = "port", defaultValue = 27017, appliesTo = DeploySetting.REMOTE)
     @AdapterSettingString(name = "host", defaultValue = "localhost", appliesTo = DeploySetting.REMOTE)
     @AdapterSettingInteger(name = "trxLifetimeLimit", defaultValue = 1209600) // two weeks
+    @AdapterSettingBoolean(name = "orderedBulkWrites", defaultValue = true, modifiable = true,
+            description = "Whether batched modifications are applied in order and stop at the first error. Unordered batches can be applied faster by MongoDB.")
     public static class MongoStore extends DataStore<DocAdapterCatalog> {
 
         private final String DEFAULT_DATABASE = "public";
@@ -139,6 +145,11 @@ public static class MongoStore extends DataStore<DocAdapterCatalog> {
         @Getter
         private final List<PolyType> unsupportedTypes = ImmutableList.of();
 
+        @Getter
+        private boolean orderedBulkWrites;
+        private final AtomicLong bulkWrites = new AtomicLong();
+        private final AtomicLong savedRoundTrips = new AtomicLong();
+
 
         public MongoStore( final long adapterId, final String uniqueName, final Map<String, String> settings, final DeployMode mode ) {
             super( adapterId, uniqueName, settings, mode, true, new DocAdapterCatalog( adapterId ) );
@@ -201,7 +212,10 @@ public MongoStore( final long adapterId, final String uniqueName, final Map<Stri
                 throw new GenericRuntimeException( "Not supported deploy mode: " + deployMode.name() );
             }
 
+            this.orderedBulkWrites = Boolean.parseBoolean( settings.getOrDefault( "orderedBulkWrites", "true" ) );
+
             addInformationPhysicalNames();
+            addInformationBulkWrites();
             enableInformationPage();
 
             this.transactionProvider = new TransactionProvider( this.client );
@@ -221,6 +235,35 @@ private String getSetting( Map<String, String> settings, String key ) {
         }
 
 
+        private void addInformationBulkWrites() {
+            InformationGroup group = new InformationGroup( informationPage, "Bulk Writes" );
+            InformationKeyValue bulkWritesKv = new InformationKeyValue( group );
+            informationElements.add( bulkWritesKv );
+
+            group.setRefreshFunction( () -> {
+                long writes = bulkWrites.get();
+                long saved = savedRoundTrips.get();
+                bulkWritesKv.putPair( "Mode", orderedBulkWrites ? "Ordered" : "Unordered" );
+                bulkWritesKv.putPair( "Batched Statements", String.valueOf( writes ) );
+                bulkWritesKv.putPair( "Saved Round Trips", String.valueOf( saved ) );
+                bulkWritesKv.putPair( "Saved Round Trips per Statement", writes == 0 ? "0" : String.format( "%.2f", (double) saved / writes ) );
+            } );
+
+            informationGroups.add( group );
+        }
+
+
+        /**
+         * Records a bulk write of a prepared statement, which replaced one round trip per parameter row.
+         *
+         * @param operations the number of operations which were sent in the bulk write
+         */
+        public void recordBulkWrite( int operations ) {
+            bulkWrites.incrementAndGet();
+            savedRoundTrips.addAndGet( operations - 1 );
+        }
+
+
         @Override
         public void resetDockerConnection() {
             DockerContainer c = DockerContainer.getContainerByUUID( deploymentId )
@@ -297,7 +340,9 @@ public void shutdown() {
 
         @Override
         protected void reloadSettings( List<String> updatedSettings ) {
-
+            if ( updatedSettings.contains( "orderedBulkWrites" ) ) {
+                this.orderedBulkWrites = Boolean.parseBoolean( settings.get( "orderedBulkWrites" ) );
+            }
         }
 
 
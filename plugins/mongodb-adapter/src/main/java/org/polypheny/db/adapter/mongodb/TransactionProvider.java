@@ -21,9 +21,9 @@
 import com.mongodb.TransactionOptions;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoClient;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.transaction.PolyXid;
@@ -39,7 +39,7 @@ public class TransactionProvider {
     @Setter
     private MongoClient client;
 
-    private final Map<PolyXid, ClientSession> sessions = new HashMap<>();
+    private final Map<PolyXid, ClientSession> sessions = new ConcurrentHashMap<>();
 
 
     public TransactionProvider( MongoClient client ) {
@@ -56,19 +56,11 @@ public TransactionProvider( MongoClient client ) {
     public ClientSession startTransaction( PolyXid xid, boolean withTrx ) {
         TransactionOptions options = TransactionOptions.builder().build();
 
-        ClientSession session;
-        if ( !sessions.containsKey( xid ) ) {
-            session = client.startSession();
-            if ( withTrx ) {
-                session.startTransaction( options );
-            }
-            synchronized ( this ) {
-                sessions.put( xid, session );
-            }
-        } else {
-            session = sessions.get( xid );
+        // Statements of one transaction may run on several threads, so exactly one session is started per transaction
+        ClientSession session = sessions.computeIfAbsent( xid, id -> client.startSession() );
+        synchronized ( session ) {
             if ( withTrx && !session.hasActiveTransaction() ) {
-                session.startTransaction();
+                session.startTransaction( options );
             }
         }
 
@@ -84,8 +76,8 @@ public ClientSession startTransaction( PolyXid xid, boolean withTrx ) {
      * @param xid the corresponding PolyXid for the transaction
      */
     public void commit( PolyXid xid ) {
-        if ( sessions.containsKey( xid ) ) {
-            ClientSession session = sessions.get( xid );
+        ClientSession session = sessions.remove( xid );
+        if ( session != null ) {
             try {
                 if ( session.hasActiveTransaction() ) {
                     session.commitTransaction();
@@ -95,10 +87,7 @@ public void commit( PolyXid xid ) {
                     session.abortTransaction();
                 }
             } finally {
-                synchronized ( this ) {
-                    session.close();
-                    sessions.remove( xid );
-                }
+                session.close();
             }
         } else {
             log.info( "No-op commit" );
@@ -124,16 +113,12 @@ public void commitAll() {
      * @param xid the corresponding PolyXid
      */
     public void rollback( PolyXid xid ) {
-        if ( sessions.containsKey( xid ) ) {
-            try ( ClientSession session = sessions.get( xid ) ) {
+        ClientSession removed = sessions.remove( xid );
+        if ( removed != null ) {
+            try ( ClientSession session = removed ) {
                 session.abortTransaction();
             } catch ( MongoClientException e ) {
                 // empty on purpose
-            } finally {
-                synchronized ( this ) {
-                    sessions.get( xid ).close();
-                    sessions.remove( xid );
-                }
             }
         } else {
             log.info( "No-op rollback" );
@@ -142,10 +127,8 @@ public void rollback( PolyXid xid ) {
 
 
     public ClientSession getSession( PolyXid xid ) {
-        if ( !sessions.containsKey( xid ) ) {
-            return startTransaction( xid, true );
-        }
-        return sessions.get( xid );
+        ClientSession session = sessions.get( xid );
+        return session != null ? session : startTransaction( xid, true );
     }
 
 }
@@ -143,6 +143,8 @@ static String getMappingLabel( long id ) {
     @AdapterSettingInteger(name = "port", defaultValue = 7687, appliesTo = DeploySetting.REMOTE)
     @AdapterSettingString(name = "user", defaultValue = "neo4j", appliesTo = DeploySetting.REMOTE)
     @AdapterSettingString(name = "password", defaultValue = "neo4j", appliesTo = DeploySetting.REMOTE)
+    @AdapterSettingInteger(name = "batchSize", defaultValue = 1000, modifiable = true,
+            description = "Number of parameter rows which are sent to Neo4j in a single statement. A value of 1 executes every row on its own.")
     public static class Neo4jStore extends DataStore<GraphAdapterCatalog> {
 
         private final String DEFAULT_DATABASE = "public";
@@ -161,6 +163,8 @@ public static class Neo4jStore extends DataStore<GraphAdapterCatalog> {
 
         private final TransactionProvider transactionProvider;
         private String host;
+        @Getter
+        private int batchSize;
 
 
         public Neo4jStore( final long adapterId, final String uniqueName, final Map<String, String> adapterSettings, DeployMode mode ) {
@@ -175,6 +179,7 @@ public Neo4jStore( final long adapterId, final String uniqueName, final Map<Stri
                 this.pass = settings.get( "password" );
             }
             this.auth = AuthTokens.basic( this.user, this.pass );
+            this.batchSize = readBatchSize();
 
             if ( deployMode == DeployMode.DOCKER ) {
                 if ( settings.getOrDefault( "deploymentId", "" ).isEmpty() ) {
@@ -573,7 +578,18 @@ public void shutdown() {
 
         @Override
         protected void reloadSettings( List<String> updatedSettings ) {
+            if ( updatedSettings.contains( "batchSize" ) ) {
+                this.batchSize = readBatchSize();
+            }
+        }
 
+
+        private int readBatchSize() {
+            int batchSize = Integer.parseInt( settings.getOrDefault( "batchSize", "1000" ) );
+            if ( batchSize < 1 ) {
+                throw new GenericRuntimeException( "The batch size has to be at least 1" );
+            }
+            return batchSize;
         }
 
 
@@ -212,10 +212,22 @@ public Enumerable<PolyValue[]> execute( String query, NestedPolyType types, Map<
 
             log.debug( "Executing query: {}", query );
 
+            int batchSize = entity.namespace.store.getBatchSize();
+
             List<Result> results = new ArrayList<>();
             if ( dataContext.getParameterValues().size() == 1 ) {
                 String adjustedQuery = needsPreparedReturn ? query + " RETURN 1" : query;
                 results.add( trx.run( adjustedQuery, toParameters( dataContext.getParameterValues().get( 0 ), prepared, false ) ) );
+            } else if ( dataContext.getParameterValues().size() > 1 && needsPreparedReturn && batchSize > 1 ) {
+                // the rows are unwound by Neo4j, the WITH aggregates the modified rows of a chunk into a single result
+                String adjustedQuery = NeoUtil.unwindParameters( query ) + " WITH count(*) AS modified RETURN " + dataContext.getParameterValues().size();
+                List<Map<Long, PolyValue>> values = dataContext.getParameterValues();
+                for ( int i = 0; i < values.size(); i += batchSize ) {
+                    List<Map<String, Object>> rows = values.subList( i, Math.min( i + batchSize, values.size() ) ).stream()
+                            .map( value -> toParameters( value, prepared, false ) )
+                            .toList();
+                    results.add( trx.run( adjustedQuery, Map.of( "rows", rows ) ) );
+                }
             } else if ( !dataContext.getParameterValues().isEmpty() ) {
                 String adjustedQuery = needsPreparedReturn ? query + " RETURN " + dataContext.getParameterValues().size() : query;
                 for ( Map<Long, PolyValue> value : dataContext.getParameterValues() ) {
@@ -277,6 +277,43 @@ static String fixParameter( String name ) {
         return name;
     }
 
+    /**
+     * Rewrites a parameterized query to execute it once per entry of the list parameter <code>$rows</code>,
+     * every parameter <code>$pX</code> outside of quoted strings and identifiers is replaced by <code>row.pX</code>.
+     *
+     * @param query the query which references the parameters of a single row
+     * @return the query which unwinds all rows
+     */
+    public static String unwindParameters( String query ) {
+        StringBuilder unwound = new StringBuilder( "UNWIND $rows AS row\n" );
+        char quote = 0;
+        for ( int i = 0; i < query.length(); i++ ) {
+            char c = query.charAt( i );
+            if ( quote != 0 ) {
+                if ( c == '\\' && quote != '`' && i + 1 < query.length() ) {
+                    unwound.append( c );
+                    c = query.charAt( ++i );
+                } else if ( c == quote ) {
+                    quote = 0;
+                }
+            } else if ( c == '\'' || c == '"' || c == '`' ) {
+                quote = c;
+            } else if ( c == '$' && i + 2 < query.length() && query.charAt( i + 1 ) == 'p' && Character.isDigit( query.charAt( i + 2 ) ) ) {
+                int end = i + 2;
+                while ( end < query.length() && Character.isDigit( query.charAt( end ) ) ) {
+                    end++;
+                }
+                if ( end == query.length() || !Character.isLetterOrDigit( query.charAt( end ) ) && query.charAt( end ) != '_' ) {
+                    unwound.append( "row." ).append( query, i + 1, end );
+                    i = end - 1;
+                    continue;
+                }
+            }
+            unwound.append( c );
+        }
+        return unwound.toString();
+    }
+
 
     static String rexAsString( RexLiteral literal, String mappingLabel, boolean isLiteral ) {
         Object ob = literal.getValue();
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.neo4j.util;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Unit tests for {@link NeoUtil#unwindParameters(String)}.
+ */
+public class NeoUtilTest {
+
+    private static final String UNWIND = "UNWIND $rows AS row\n";
+
+
+    @Test
+    public void testParametersAreReplaced() {
+        assertEquals(
+                UNWIND + "CREATE (n:n_1 {id: row.p0, name: row.p1, amount: row.p12})",
+                NeoUtil.unwindParameters( "CREATE (n:n_1 {id: $p0, name: $p1, amount: $p12})" ) );
+        assertEquals(
+                UNWIND + "MATCH (n:n_1) WHERE n.id = row.p0 SET n.amount = n.amount + row.p1",
+                NeoUtil.unwindParameters( "MATCH (n:n_1) WHERE n.id = $p0 SET n.amount = n.amount + $p1" ) );
+        assertEquals(
+                UNWIND + "MATCH (n:n_1) WHERE n.id = row.p3 DELETE n",
+                NeoUtil.unwindParameters( "MATCH (n:n_1) WHERE n.id = $p3 DELETE n" ) );
+    }
+
+
+    @Test
+    public void testParameterAtEndOfQuery() {
+        assertEquals( UNWIND + "MATCH (n) WHERE n.id = row.p7", NeoUtil.unwindParameters( "MATCH (n) WHERE n.id = $p7" ) );
+    }
+
+
+    @Test
+    public void testQuotedParametersAreKept() {
+        assertEquals(
+                UNWIND + "MATCH (n) WHERE n.name = '$p0' AND n.other = \"$p1\" AND n.`$p2` = row.p3",
+                NeoUtil.unwindParameters( "MATCH (n) WHERE n.name = '$p0' AND n.other = \"$p1\" AND n.`$p2` = $p3" ) );
+        // escaped quotes do not end the string
+        assertEquals(
+                UNWIND + "MATCH (n) WHERE n.name = 'it\\'s $p0' AND n.id = row.p1",
+                NeoUtil.unwindParameters( "MATCH (n) WHERE n.name = 'it\\'s $p0' AND n.id = $p1" ) );
+    }
+
+
+    @Test
+    public void testOtherParametersAreKept() {
+        // only parameters of the form $p<number> are generated for the values of a row
+        assertEquals(
+                UNWIND + "MATCH (n) WHERE n.a = $param AND n.b = $p AND n.c = $p1x AND n.d = $p1_ AND n.e = $x1 AND n.f = row.p2",
+                NeoUtil.unwindParameters( "MATCH (n) WHERE n.a = $param AND n.b = $p AND n.c = $p1x AND n.d = $p1_ AND n.e = $x1 AND n.f = $p2" ) );
+    }
+
+}
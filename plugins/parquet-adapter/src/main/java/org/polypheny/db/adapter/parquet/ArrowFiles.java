@@ -0,0 +1,317 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.Decimal256Vector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.LargeVarBinaryVector;
+import org.apache.arrow.vector.LargeVarCharVector;
+import org.apache.arrow.vector.TimeMicroVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeNanoVector;
+import org.apache.arrow.vector.TimeSecVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyBinary;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+
+/**
+ * Reads files in the Arrow IPC file format, also known as Feather V2. The Arrow IPC stream format cannot be read,
+ * since its record batches cannot be located without reading the whole file.
+ * <p>
+ * Arrow files carry no statistics, pushed predicates are evaluated on the decoded vectors before the rows are
+ * materialized. The record batches are decoded in parallel by a {@link BlockEnumerator}.
+ * <p>
+ * Arrow accesses the memory of direct buffers, which requires {@code java.nio} to be opened. The start scripts and the
+ * manifest of the server jar do this, if Polypheny is launched differently, reading an Arrow file fails with an error
+ * naming the required flag. Parquet files are not affected.
+ */
+@Slf4j
+final class ArrowFiles {
+
+    private ArrowFiles() {
+        // Utility class
+    }
+
+
+    private static BufferAllocator allocator() {
+        try {
+            // Fails if java.nio is not opened to Arrow
+            Class.forName( "org.apache.arrow.memory.util.MemoryUtil", true, ArrowFiles.class.getClassLoader() );
+        } catch ( ClassNotFoundException | LinkageError e ) {
+            throw new GenericRuntimeException( "Reading Arrow files requires starting Polypheny with --add-opens=java.base/java.nio=ALL-UNNAMED", e );
+        }
+        return new RootAllocator();
+    }
+
+
+    /**
+     * Maps the top-level columns of the file to Polypheny types.
+     * Nested columns and columns of unsupported types are not exported.
+     */
+    static List<FileColumn> columns( File file, int maxStringLength ) throws IOException {
+        try ( BufferAllocator allocator = allocator();
+                FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+                ArrowFileReader reader = new ArrowFileReader( channel, allocator ) ) {
+            List<FileColumn> columns = new ArrayList<>();
+            for ( Field field : reader.getVectorSchemaRoot().getSchema().getFields() ) {
+                FileColumn column = column( field, maxStringLength );
+                if ( column == null ) {
+                    log.warn( "Column {} of {} has an unsupported type and is ignored.", field.getName(), file.getName() );
+                    continue;
+                }
+                columns.add( column );
+            }
+            return columns;
+        }
+    }
+
+
+    @Nullable
+    private static FileColumn column( Field field, int maxStringLength ) {
+        String name = field.getName();
+        boolean nullable = field.isNullable();
+        ArrowType type = field.getType();
+        if ( type instanceof ArrowType.Int integer ) {
+            if ( !integer.getIsSigned() && integer.getBitWidth() == 64 ) {
+                return new FileColumn( name, PolyType.DECIMAL, 20, 0, nullable );
+            }
+            int bits = integer.getIsSigned() ? integer.getBitWidth() : integer.getBitWidth() + 1;
+            return new FileColumn( name, bits <= 32 ? PolyType.INTEGER : PolyType.BIGINT, null, null, nullable );
+        } else if ( type instanceof ArrowType.FloatingPoint floatingPoint ) {
+            return switch ( floatingPoint.getPrecision() ) {
+                case SINGLE -> new FileColumn( name, PolyType.REAL, null, null, nullable );
+                case DOUBLE -> new FileColumn( name, PolyType.DOUBLE, null, null, nullable );
+                case HALF -> null;
+            };
+        } else if ( type instanceof ArrowType.Bool ) {
+            return new FileColumn( name, PolyType.BOOLEAN, null, null, nullable );
+        } else if ( type instanceof ArrowType.Utf8 || type instanceof ArrowType.LargeUtf8 ) {
+            return new FileColumn( name, PolyType.VARCHAR, maxStringLength, null, nullable );
+        } else if ( type instanceof ArrowType.Binary || type instanceof ArrowType.LargeBinary || type instanceof ArrowType.FixedSizeBinary ) {
+            return new FileColumn( name, PolyType.VARBINARY, null, null, nullable );
+        } else if ( type instanceof ArrowType.Decimal decimal ) {
+            return new FileColumn( name, PolyType.DECIMAL, decimal.getPrecision(), decimal.getScale(), nullable );
+        } else if ( type instanceof ArrowType.Date ) {
+            return new FileColumn( name, PolyType.DATE, null, null, nullable );
+        } else if ( type instanceof ArrowType.Time ) {
+            return new FileColumn( name, PolyType.TIME, 0, null, nullable );
+        } else if ( type instanceof ArrowType.Timestamp ) {
+            return new FileColumn( name, PolyType.TIMESTAMP, 0, null, nullable );
+        }
+        return null;
+    }
+
+
+    /**
+     * Opens an enumerator over the given columns of the file.
+     *
+     * @param columns the names of the columns in the file, in the order they are returned
+     * @param predicates pushed predicates, their fields refer to {@code names}
+     * @param names the names of all columns of the table in the file
+     */
+    static Enumerator<PolyValue[]> open( File file, String[] columns, ColumnPredicate[] predicates, String[] names, int parallelism, AtomicBoolean cancelFlag ) {
+        int batches;
+        try ( BufferAllocator allocator = allocator();
+                FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+                ArrowFileReader reader = new ArrowFileReader( channel, allocator ) ) {
+            batches = reader.getRecordBlocks().size();
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read Arrow file %s", e, file.getName() );
+        }
+        int[] blocks = new int[batches];
+        for ( int i = 0; i < batches; i++ ) {
+            blocks[i] = i;
+        }
+        String[] predicateColumns = new String[predicates.length];
+        for ( int i = 0; i < predicates.length; i++ ) {
+            predicateColumns[i] = names[predicates[i].field()];
+        }
+        return new BlockEnumerator( blocks, parallelism, cancelFlag, () -> new BatchReader( file, columns, predicates, predicateColumns ) );
+    }
+
+
+    static PolyValue convert( FieldVector vector, int index ) {
+        if ( vector.isNull( index ) ) {
+            return PolyNull.NULL;
+        }
+        if ( vector instanceof UInt8Vector unsigned ) {
+            return PolyBigDecimal.of( new BigDecimal( Long.toUnsignedString( unsigned.get( index ) ) ) );
+        } else if ( vector instanceof BaseIntVector integer ) {
+            ArrowType.Int type = (ArrowType.Int) vector.getField().getType();
+            long value = integer.getValueAsLong( index );
+            if ( !type.getIsSigned() ) {
+                // Unsigned vectors return the sign-extended value
+                value = value & ((1L << type.getBitWidth()) - 1);
+            }
+            int bits = type.getIsSigned() ? type.getBitWidth() : type.getBitWidth() + 1;
+            return bits <= 32 ? PolyInteger.of( (int) value ) : PolyLong.of( value );
+        } else if ( vector instanceof Float4Vector floats ) {
+            return PolyFloat.of( floats.get( index ) );
+        } else if ( vector instanceof Float8Vector doubles ) {
+            return PolyDouble.of( doubles.get( index ) );
+        } else if ( vector instanceof BitVector bits ) {
+            return PolyBoolean.of( bits.get( index ) == 1 );
+        } else if ( vector instanceof VarCharVector strings ) {
+            return PolyString.of( new String( strings.get( index ), StandardCharsets.UTF_8 ) );
+        } else if ( vector instanceof LargeVarCharVector strings ) {
+            return PolyString.of( new String( strings.get( index ), StandardCharsets.UTF_8 ) );
+        } else if ( vector instanceof VarBinaryVector binaries ) {
+            return PolyBinary.of( binaries.get( index ) );
+        } else if ( vector instanceof LargeVarBinaryVector binaries ) {
+            return PolyBinary.of( binaries.get( index ) );
+        } else if ( vector instanceof FixedSizeBinaryVector binaries ) {
+            return PolyBinary.of( binaries.get( index ) );
+        } else if ( vector instanceof DecimalVector decimals ) {
+            return PolyBigDecimal.of( decimals.getObject( index ) );
+        } else if ( vector instanceof Decimal256Vector decimals ) {
+            return PolyBigDecimal.of( decimals.getObject( index ) );
+        } else if ( vector instanceof DateDayVector dates ) {
+            return PolyDate.ofDays( dates.get( index ) );
+        } else if ( vector instanceof DateMilliVector dates ) {
+            return PolyDate.of( dates.get( index ) );
+        } else if ( vector instanceof TimeSecVector times ) {
+            return PolyTime.of( times.get( index ) * 1000 );
+        } else if ( vector instanceof TimeMilliVector times ) {
+            return PolyTime.of( times.get( index ) );
+        } else if ( vector instanceof TimeMicroVector times ) {
+            return PolyTime.of( (int) (times.get( index ) / 1_000L) );
+        } else if ( vector instanceof TimeNanoVector times ) {
+            return PolyTime.of( (int) (times.get( index ) / 1_000_000L) );
+        } else if ( vector instanceof TimeStampVector timestamps ) {
+            ArrowType.Timestamp type = (ArrowType.Timestamp) vector.getField().getType();
+            long value = timestamps.get( index );
+            return PolyTimestamp.of( switch ( type.getUnit() ) {
+                case SECOND -> value * 1000L;
+                case MILLISECOND -> value;
+                case MICROSECOND -> Math.floorDiv( value, 1_000L );
+                case NANOSECOND -> Math.floorDiv( value, 1_000_000L );
+            } );
+        }
+        throw new GenericRuntimeException( "Unsupported Arrow vector: " + vector.getClass().getSimpleName() );
+    }
+
+
+    /**
+     * Reads single record batches of a file, every instance is used by one thread at a time.
+     */
+    private static final class BatchReader implements BlockEnumerator.BlockReader {
+
+        private final BufferAllocator allocator;
+        private final FileChannel channel;
+        private final ArrowFileReader reader;
+        private final String[] columns;
+        private final ColumnPredicate[] predicates;
+        private final String[] predicateColumns;
+
+
+        private BatchReader( File file, String[] columns, ColumnPredicate[] predicates, String[] predicateColumns ) throws IOException {
+            this.allocator = allocator();
+            this.channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+            this.reader = new ArrowFileReader( channel, allocator );
+            this.columns = columns;
+            this.predicates = predicates;
+            this.predicateColumns = predicateColumns;
+        }
+
+
+        @Override
+        public List<PolyValue[]> read( int batch ) throws IOException {
+            reader.loadRecordBatch( reader.getRecordBlocks().get( batch ) );
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            FieldVector[] vectors = new FieldVector[columns.length];
+            for ( int i = 0; i < columns.length; i++ ) {
+                vectors[i] = root.getVector( columns[i] );
+            }
+            FieldVector[] predicateVectors = new FieldVector[predicates.length];
+            for ( int i = 0; i < predicates.length; i++ ) {
+                predicateVectors[i] = root.getVector( predicateColumns[i] );
+            }
+
+            int count = root.getRowCount();
+            List<PolyValue[]> rows = new ArrayList<>( count );
+            rows:
+            for ( int i = 0; i < count; i++ ) {
+                for ( int j = 0; j < predicates.length; j++ ) {
+                    if ( predicateVectors[j] != null && !predicates[j].test( convert( predicateVectors[j], i ) ) ) {
+                        continue rows;
+                    }
+                }
+                PolyValue[] row = new PolyValue[vectors.length];
+                for ( int j = 0; j < vectors.length; j++ ) {
+                    row[j] = convert( vectors[j], i );
+                }
+                rows.add( row );
+            }
+            return rows;
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            try {
+                reader.close();
+                channel.close();
+            } finally {
+                allocator.close();
+            }
+        }
+
+    }
+
+}
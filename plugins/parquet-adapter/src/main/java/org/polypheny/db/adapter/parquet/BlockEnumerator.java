@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.entity.PolyValue;
+
+/**
+ * Enumerates the rows of independently decodable blocks of a file, i.e. the row groups of a Parquet file or the
+ * record batches of an Arrow file.
+ * <p>
+ * Up to {@code parallelism} blocks are decoded ahead on a shared pool while the rows of the current block are
+ * returned, the order of the rows is the order of the blocks. Every running task uses its own {@link BlockReader},
+ * readers are reused for later blocks.
+ */
+@Slf4j
+final class BlockEnumerator implements Enumerator<PolyValue[]> {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool( runnable -> {
+        Thread thread = new Thread( runnable, "parquet-adapter-reader" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    private final int[] blocks;
+    private final int parallelism;
+    private final AtomicBoolean cancelFlag;
+    private final ReaderFactory factory;
+
+    private final Queue<BlockReader> idle = new ConcurrentLinkedQueue<>();
+    private final Deque<Future<List<PolyValue[]>>> pending = new ArrayDeque<>();
+    private int next = 0;
+    private Iterator<PolyValue[]> rows = Collections.emptyIterator();
+    private PolyValue[] current;
+    private volatile boolean closed = false;
+
+
+    BlockEnumerator( int[] blocks, int parallelism, AtomicBoolean cancelFlag, ReaderFactory factory ) {
+        this.blocks = blocks;
+        this.parallelism = Math.max( 1, parallelism );
+        this.cancelFlag = cancelFlag;
+        this.factory = factory;
+    }
+
+
+    @Override
+    public PolyValue[] current() {
+        return current;
+    }
+
+
+    @Override
+    public boolean moveNext() {
+        while ( !rows.hasNext() ) {
+            if ( cancelFlag.get() ) {
+                return false;
+            }
+            List<PolyValue[]> block = nextBlock();
+            if ( block == null ) {
+                return false;
+            }
+            rows = block.iterator();
+        }
+        current = rows.next();
+        return true;
+    }
+
+
+    private List<PolyValue[]> nextBlock() {
+        if ( parallelism == 1 ) {
+            return next < blocks.length ? read( blocks[next++] ) : null;
+        }
+        while ( pending.size() < parallelism && next < blocks.length ) {
+            int block = blocks[next++];
+            pending.add( EXECUTOR.submit( () -> read( block ) ) );
+        }
+        Future<List<PolyValue[]>> future = pending.poll();
+        if ( future == null ) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GenericRuntimeException( e );
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException runtimeException ) {
+                throw runtimeException;
+            }
+            throw new GenericRuntimeException( e.getCause() );
+        }
+    }
+
+
+    private List<PolyValue[]> read( int block ) {
+        BlockReader reader = idle.poll();
+        try {
+            if ( reader == null ) {
+                reader = factory.create();
+            }
+            return reader.read( block );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read block %s", e, block );
+        } finally {
+            if ( reader != null ) {
+                idle.add( reader );
+                if ( closed ) {
+                    closeIdle();
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public void reset() {
+        close();
+        closed = false;
+        next = 0;
+        rows = Collections.emptyIterator();
+        current = null;
+    }
+
+
+    @Override
+    public void close() {
+        closed = true;
+        for ( Future<List<PolyValue[]>> future : pending ) {
+            future.cancel( false );
+        }
+        pending.clear();
+        closeIdle();
+    }
+
+
+    private void closeIdle() {
+        BlockReader reader;
+        while ( (reader = idle.poll()) != null ) {
+            try {
+                reader.close();
+            } catch ( IOException e ) {
+                log.warn( "Could not close reader", e );
+            }
+        }
+    }
+
+
+    /**
+     * Decodes single blocks of a file.
+     */
+    interface BlockReader extends AutoCloseable {
+
+        List<PolyValue[]> read( int block ) throws IOException;
+
+        @Override
+        void close() throws IOException;
+
+    }
+
+
+    interface ReaderFactory {
+
+        BlockReader create() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.util.Set;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.schema.types.Expressible;
+import org.polypheny.db.type.entity.PolyValue;
+
+/**
+ * Comparison of a column of a {@link ParquetTable} with a literal, which is pushed into the scan of the file.
+ *
+ * @param field the index of the column in the table
+ * @param kind one of {@link Kind#EQUALS}, {@link Kind#LESS_THAN}, {@link Kind#LESS_THAN_OR_EQUAL}, {@link Kind#GREATER_THAN} or {@link Kind#GREATER_THAN_OR_EQUAL}
+ */
+public record ColumnPredicate(int field, Kind kind, PolyValue value) implements Expressible {
+
+    private static final Set<Kind> KINDS = Set.of( Kind.EQUALS, Kind.LESS_THAN, Kind.LESS_THAN_OR_EQUAL, Kind.GREATER_THAN, Kind.GREATER_THAN_OR_EQUAL );
+
+
+    /**
+     * @param fields the columns of the table which are returned by the scan the condition refers to
+     * @return the predicate or {@code null} if the condition is not a comparison of a column with a literal
+     */
+    @Nullable
+    static ColumnPredicate of( RexNode node, int[] fields ) {
+        if ( !(node instanceof RexCall call) || !KINDS.contains( call.getKind() ) || call.operands.size() != 2 ) {
+            return null;
+        }
+        RexNode left = call.operands.get( 0 );
+        RexNode right = call.operands.get( 1 );
+        if ( left instanceof RexIndexRef ref && right instanceof RexLiteral literal ) {
+            return of( fields[ref.getIndex()], call.getKind(), literal );
+        } else if ( left instanceof RexLiteral literal && right instanceof RexIndexRef ref ) {
+            return of( fields[ref.getIndex()], call.getKind().reverse(), literal );
+        }
+        return null;
+    }
+
+
+    @Nullable
+    private static ColumnPredicate of( int field, Kind kind, RexLiteral literal ) {
+        if ( literal.value == null || literal.value.isNull() ) {
+            return null;
+        }
+        return new ColumnPredicate( field, kind, literal.value );
+    }
+
+
+    /**
+     * Evaluates the predicate on a value of the column.
+     *
+     * @return {@code false} if the row definitely does not satisfy the predicate
+     */
+    public boolean test( PolyValue value ) {
+        if ( value == null || value.isNull() ) {
+            // A comparison with null is never true
+            return false;
+        }
+        Integer comparison = compare( value, this.value );
+        if ( comparison == null ) {
+            return true;
+        }
+        return switch ( kind ) {
+            case EQUALS -> comparison == 0;
+            case LESS_THAN -> comparison < 0;
+            case LESS_THAN_OR_EQUAL -> comparison <= 0;
+            case GREATER_THAN -> comparison > 0;
+            case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+            default -> true;
+        };
+    }
+
+
+    @Nullable
+    private static Integer compare( PolyValue a, PolyValue b ) {
+        // Temporal values are numbers as well, they are only compared with values of the same type
+        if ( a.isTemporal() || b.isTemporal() ) {
+            return a.type == b.type ? a.asTemporal().getMillisSinceEpoch().compareTo( b.asTemporal().getMillisSinceEpoch() ) : null;
+        }
+        if ( a.isNumber() && b.isNumber() ) {
+            return a.asNumber().bigDecimalValue().compareTo( b.asNumber().bigDecimalValue() );
+        }
+        if ( a.isString() && b.isString() ) {
+            return a.asString().value.compareTo( b.asString().value );
+        }
+        if ( a.isBoolean() && b.isBoolean() ) {
+            return Boolean.compare( a.asBoolean().value, b.asBoolean().value );
+        }
+        return null;
+    }
+
+
+    @Override
+    public Expression asExpression() {
+        return Expressions.new_(
+                ColumnPredicate.class,
+                Expressions.constant( field ),
+                Expressions.constant( kind ),
+                value.asExpression() );
+    }
+
+
+    @Override
+    public String toString() {
+        return "$" + field + " " + kind.sql + " " + value;
+    }
+
+}
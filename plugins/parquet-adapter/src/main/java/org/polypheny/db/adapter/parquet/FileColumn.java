@@ -0,0 +1,30 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.type.PolyType;
+
+/**
+ * A top-level column of a Parquet or Arrow file mapped to a Polypheny type.
+ *
+ * @param name the name of the column in the file
+ * @param length the precision of decimals, the maximal length of strings or {@code 0} for temporal types
+ */
+record FileColumn(String name, PolyType type, @Nullable Integer length, @Nullable Integer scale, boolean nullable) {
+
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.EnumLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Type.Repetition;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyBinary;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+import org.polypheny.db.util.temporal.DateTimeUtils;
+
+/**
+ * Reads Parquet files without Hadoop file systems.
+ * <p>
+ * Pushed predicates are handed to the Parquet reader, which skips row groups based on their statistics, dictionary
+ * pages and bloom filters, and drops single records which do not match. Only the requested columns are read and
+ * the remaining row groups are decoded in parallel by a {@link BlockEnumerator}.
+ */
+@Slf4j
+final class ParquetFiles {
+
+    private static final long JULIAN_EPOCH_OFFSET_DAYS = 2_440_588;
+
+
+    private ParquetFiles() {
+        // Utility class
+    }
+
+
+    /**
+     * Maps the top-level columns of the file to Polypheny types.
+     * Nested and repeated columns and columns of unsupported types are not exported.
+     */
+    static List<FileColumn> columns( File file, int maxStringLength ) throws IOException {
+        try ( ParquetFileReader reader = ParquetFileReader.open( new LocalInputFile( file.toPath() ), ParquetReadOptions.builder().build() ) ) {
+            List<FileColumn> columns = new ArrayList<>();
+            for ( Type type : reader.getFileMetaData().getSchema().getFields() ) {
+                FileColumn column = column( type, maxStringLength );
+                if ( column == null ) {
+                    log.warn( "Column {} of {} has an unsupported type and is ignored.", type.getName(), file.getName() );
+                    continue;
+                }
+                columns.add( column );
+            }
+            return columns;
+        }
+    }
+
+
+    @Nullable
+    private static FileColumn column( Type type, int maxStringLength ) {
+        if ( !type.isPrimitive() || type.getRepetition() == Repetition.REPEATED ) {
+            return null;
+        }
+        PrimitiveType primitive = type.asPrimitiveType();
+        LogicalTypeAnnotation annotation = primitive.getLogicalTypeAnnotation();
+        boolean nullable = type.getRepetition() == Repetition.OPTIONAL;
+        if ( annotation instanceof DecimalLogicalTypeAnnotation decimal ) {
+            return new FileColumn( type.getName(), PolyType.DECIMAL, decimal.getPrecision(), decimal.getScale(), nullable );
+        }
+        return switch ( primitive.getPrimitiveTypeName() ) {
+            case BOOLEAN -> new FileColumn( type.getName(), PolyType.BOOLEAN, null, null, nullable );
+            case INT32 -> {
+                if ( annotation instanceof DateLogicalTypeAnnotation ) {
+                    yield new FileColumn( type.getName(), PolyType.DATE, null, null, nullable );
+                } else if ( annotation instanceof TimeLogicalTypeAnnotation ) {
+                    yield new FileColumn( type.getName(), PolyType.TIME, 0, null, nullable );
+                } else if ( annotation instanceof IntLogicalTypeAnnotation integer && !integer.isSigned() ) {
+                    yield new FileColumn( type.getName(), PolyType.BIGINT, null, null, nullable );
+                }
+                yield new FileColumn( type.getName(), PolyType.INTEGER, null, null, nullable );
+            }
+            case INT64 -> {
+                if ( annotation instanceof TimestampLogicalTypeAnnotation ) {
+                    yield new FileColumn( type.getName(), PolyType.TIMESTAMP, 0, null, nullable );
+                } else if ( annotation instanceof TimeLogicalTypeAnnotation ) {
+                    yield new FileColumn( type.getName(), PolyType.TIME, 0, null, nullable );
+                } else if ( annotation instanceof IntLogicalTypeAnnotation integer && !integer.isSigned() ) {
+                    yield new FileColumn( type.getName(), PolyType.DECIMAL, 20, 0, nullable );
+                }
+                yield new FileColumn( type.getName(), PolyType.BIGINT, null, null, nullable );
+            }
+            case INT96 -> new FileColumn( type.getName(), PolyType.TIMESTAMP, 0, null, nullable );
+            case FLOAT -> new FileColumn( type.getName(), PolyType.REAL, null, null, nullable );
+            case DOUBLE -> new FileColumn( type.getName(), PolyType.DOUBLE, null, null, nullable );
+            case BINARY -> isText( annotation )
+                    ? new FileColumn( type.getName(), PolyType.VARCHAR, maxStringLength, null, nullable )
+                    : new FileColumn( type.getName(), PolyType.VARBINARY, null, null, nullable );
+            case FIXED_LEN_BYTE_ARRAY -> new FileColumn( type.getName(), PolyType.VARBINARY, null, null, nullable );
+        };
+    }
+
+
+    private static boolean isText( @Nullable LogicalTypeAnnotation annotation ) {
+        return annotation instanceof StringLogicalTypeAnnotation
+                || annotation instanceof EnumLogicalTypeAnnotation
+                || annotation instanceof JsonLogicalTypeAnnotation;
+    }
+
+
+    /**
+     * Opens an enumerator over the given columns of the file.
+     *
+     * @param columns the names of the columns in the file, in the order they are returned
+     * @param predicates pushed predicates, their fields refer to {@code names}
+     * @param names the names of all columns of the table in the file
+     */
+    static Enumerator<PolyValue[]> open( File file, String[] columns, ColumnPredicate[] predicates, String[] names, int parallelism, AtomicBoolean cancelFlag ) {
+        try ( ParquetFileReader reader = ParquetFileReader.open( new LocalInputFile( file.toPath() ), ParquetReadOptions.builder().build() ) ) {
+            MessageType schema = reader.getFileMetaData().getSchema();
+            FilterPredicate filter = toFilter( schema, predicates, names );
+
+            // The row groups are filtered once, the readers of the single row groups only apply the record filter
+            int[] rowGroups;
+            if ( filter == null ) {
+                rowGroups = new int[reader.getRowGroups().size()];
+                for ( int i = 0; i < rowGroups.length; i++ ) {
+                    rowGroups[i] = i;
+                }
+            } else {
+                rowGroups = filterRowGroups( file, filter );
+            }
+
+            // Columns of the predicates have to be read for the record filter to evaluate them
+            List<Type> requested = new ArrayList<>();
+            int[] outputs = new int[columns.length];
+            for ( int i = 0; i < columns.length; i++ ) {
+                outputs[i] = indexOf( requested, schema.getType( columns[i] ) );
+            }
+            if ( filter != null ) {
+                for ( ColumnPredicate predicate : predicates ) {
+                    indexOf( requested, schema.getType( names[predicate.field()] ) );
+                }
+            }
+            MessageType projection = new MessageType( schema.getName(), requested );
+            ParquetReadOptions options = ParquetReadOptions.builder()
+                    .useStatsFilter( false )
+                    .useDictionaryFilter( false )
+                    .useBloomFilter( false )
+                    .useColumnIndexFilter( false )
+                    .withRecordFilter( filter == null ? FilterCompat.NOOP : FilterCompat.get( filter ) )
+                    .build();
+            return new BlockEnumerator( rowGroups, parallelism, cancelFlag, () -> new RowGroupReader( file, options, projection, outputs ) );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Could not read Parquet file %s", e, file.getName() );
+        }
+    }
+
+
+    private static int indexOf( List<Type> types, Type type ) {
+        int index = types.indexOf( type );
+        if ( index < 0 ) {
+            types.add( type );
+            index = types.size() - 1;
+        }
+        return index;
+    }
+
+
+    /**
+     * @return the indexes of the row groups which may contain matching records according to their statistics, dictionaries and bloom filters
+     */
+    private static int[] filterRowGroups( File file, FilterPredicate filter ) throws IOException {
+        ParquetReadOptions options = ParquetReadOptions.builder().withRecordFilter( FilterCompat.get( filter ) ).build();
+        try ( ParquetFileReader reader = ParquetFileReader.open( new LocalInputFile( file.toPath() ), options ) ) {
+            List<BlockMetaData> all = reader.getFooter().getBlocks();
+            List<BlockMetaData> remaining = reader.getRowGroups();
+            int[] rowGroups = new int[remaining.size()];
+            for ( int i = 0; i < rowGroups.length; i++ ) {
+                rowGroups[i] = all.indexOf( remaining.get( i ) );
+            }
+            log.debug( "Skipping {} of {} row groups of {}", all.size() - rowGroups.length, all.size(), file.getName() );
+            return rowGroups;
+        }
+    }
+
+
+    /**
+     * Translates the predicates into a Parquet filter. Predicates whose literal cannot be represented exactly in the
+     * physical type of their column are left to the filter above the scan.
+     *
+     * @return the conjunction of the translated predicates or {@code null} if none could be translated
+     */
+    @Nullable
+    static FilterPredicate toFilter( MessageType schema, ColumnPredicate[] predicates, String[] names ) {
+        FilterPredicate filter = null;
+        for ( ColumnPredicate predicate : predicates ) {
+            String name = names[predicate.field()];
+            if ( !schema.containsField( name ) ) {
+                continue;
+            }
+            FilterPredicate translated = toFilter( schema.getType( name ), predicate );
+            if ( translated != null ) {
+                filter = filter == null ? translated : FilterApi.and( filter, translated );
+            }
+        }
+        return filter;
+    }
+
+
+    @Nullable
+    private static FilterPredicate toFilter( Type type, ColumnPredicate predicate ) {
+        if ( !type.isPrimitive() || type.getRepetition() == Repetition.REPEATED ) {
+            return null;
+        }
+        PrimitiveType primitive = type.asPrimitiveType();
+        LogicalTypeAnnotation annotation = primitive.getLogicalTypeAnnotation();
+        PolyValue value = predicate.value();
+        String name = type.getName();
+        if ( annotation instanceof DecimalLogicalTypeAnnotation || annotation instanceof TimeLogicalTypeAnnotation
+                || (annotation instanceof IntLogicalTypeAnnotation integer && !integer.isSigned()) ) {
+            return null;
+        }
+        return switch ( primitive.getPrimitiveTypeName() ) {
+            case INT32 -> {
+                Long converted;
+                if ( annotation instanceof DateLogicalTypeAnnotation ) {
+                    converted = value.isDate() ? value.asDate().getDaysSinceEpoch() : null;
+                } else {
+                    converted = exactLong( value );
+                }
+                if ( converted == null || converted != converted.intValue() ) {
+                    yield null;
+                }
+                yield compare( FilterApi.intColumn( name ), predicate.kind(), converted.intValue() );
+            }
+            case INT64 -> {
+                Long converted;
+                if ( annotation instanceof TimestampLogicalTypeAnnotation timestamp ) {
+                    converted = value.isTimestamp() ? toUnit( value.asTimestamp().millisSinceEpoch, timestamp.getUnit() ) : null;
+                } else {
+                    converted = exactLong( value );
+                }
+                yield converted == null ? null : compare( FilterApi.longColumn( name ), predicate.kind(), converted );
+            }
+            case FLOAT -> {
+                if ( value.isTemporal() || !value.isNumber() ) {
+                    yield null;
+                }
+                float converted = value.asNumber().floatValue();
+                yield new BigDecimal( converted ).compareTo( value.asNumber().bigDecimalValue() ) == 0
+                        ? compare( FilterApi.floatColumn( name ), predicate.kind(), converted )
+                        : null;
+            }
+            case DOUBLE -> {
+                if ( value.isTemporal() || !value.isNumber() ) {
+                    yield null;
+                }
+                double converted = value.asNumber().doubleValue();
+                yield new BigDecimal( converted ).compareTo( value.asNumber().bigDecimalValue() ) == 0
+                        ? compare( FilterApi.doubleColumn( name ), predicate.kind(), converted )
+                        : null;
+            }
+            // The byte order of Parquet does not necessarily match the order of strings, only equality is pushed
+            case BOOLEAN -> value.isBoolean() && predicate.kind() == Kind.EQUALS
+                    ? FilterApi.eq( FilterApi.booleanColumn( name ), value.asBoolean().value )
+                    : null;
+            case BINARY -> value.isString() && isText( annotation ) && predicate.kind() == Kind.EQUALS
+                    ? FilterApi.eq( FilterApi.binaryColumn( name ), Binary.fromString( value.asString().value ) )
+                    : null;
+            case INT96, FIXED_LEN_BYTE_ARRAY -> null;
+        };
+    }
+
+
+    private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate compare( C column, Kind kind, T value ) {
+        return switch ( kind ) {
+            case EQUALS -> FilterApi.eq( column, value );
+            case LESS_THAN -> FilterApi.lt( column, value );
+            case LESS_THAN_OR_EQUAL -> FilterApi.ltEq( column, value );
+            case GREATER_THAN -> FilterApi.gt( column, value );
+            case GREATER_THAN_OR_EQUAL -> FilterApi.gtEq( column, value );
+            default -> throw new GenericRuntimeException( "Unsupported predicate: " + kind );
+        };
+    }
+
+
+    /**
+     * @return the value if it is an integral number, otherwise {@code null}
+     */
+    @Nullable
+    private static Long exactLong( PolyValue value ) {
+        if ( value.isTemporal() || !value.isNumber() ) {
+            return null;
+        }
+        try {
+            return value.asNumber().bigDecimalValue().longValueExact();
+        } catch ( ArithmeticException e ) {
+            return null;
+        }
+    }
+
+
+    @Nullable
+    private static Long toUnit( long millis, TimeUnit unit ) {
+        try {
+            return switch ( unit ) {
+                case MILLIS -> millis;
+                case MICROS -> Math.multiplyExact( millis, 1_000L );
+                case NANOS -> Math.multiplyExact( millis, 1_000_000L );
+            };
+        } catch ( ArithmeticException e ) {
+            return null;
+        }
+    }
+
+
+    private static long toMillis( long value, TimeUnit unit ) {
+        return switch ( unit ) {
+            case MILLIS -> value;
+            case MICROS -> Math.floorDiv( value, 1_000L );
+            case NANOS -> Math.floorDiv( value, 1_000_000L );
+        };
+    }
+
+
+    /**
+     * Converts the value of a field of a record.
+     */
+    static PolyValue convert( Group group, int field, PrimitiveType type ) {
+        if ( group.getFieldRepetitionCount( field ) == 0 ) {
+            return PolyNull.NULL;
+        }
+        LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+        return switch ( type.getPrimitiveTypeName() ) {
+            case BOOLEAN -> PolyBoolean.of( group.getBoolean( field, 0 ) );
+            case INT32 -> {
+                int value = group.getInteger( field, 0 );
+                if ( annotation instanceof DecimalLogicalTypeAnnotation decimal ) {
+                    yield PolyBigDecimal.of( BigDecimal.valueOf( value, decimal.getScale() ) );
+                } else if ( annotation instanceof DateLogicalTypeAnnotation ) {
+                    yield PolyDate.ofDays( value );
+                } else if ( annotation instanceof TimeLogicalTypeAnnotation ) {
+                    yield PolyTime.of( value );
+                } else if ( annotation instanceof IntLogicalTypeAnnotation integer && !integer.isSigned() ) {
+                    yield PolyLong.of( Integer.toUnsignedLong( value ) );
+                }
+                yield PolyInteger.of( value );
+            }
+            case INT64 -> {
+                long value = group.getLong( field, 0 );
+                if ( annotation instanceof DecimalLogicalTypeAnnotation decimal ) {
+                    yield PolyBigDecimal.of( BigDecimal.valueOf( value, decimal.getScale() ) );
+                } else if ( annotation instanceof TimestampLogicalTypeAnnotation timestamp ) {
+                    yield PolyTimestamp.of( toMillis( value, timestamp.getUnit() ) );
+                } else if ( annotation instanceof TimeLogicalTypeAnnotation time ) {
+                    yield PolyTime.of( (int) toMillis( value, time.getUnit() ) );
+                } else if ( annotation instanceof IntLogicalTypeAnnotation integer && !integer.isSigned() ) {
+                    yield PolyBigDecimal.of( new BigDecimal( Long.toUnsignedString( value ) ) );
+                }
+                yield PolyLong.of( value );
+            }
+            case INT96 -> PolyTimestamp.of( int96ToMillis( group.getInt96( field, 0 ) ) );
+            case FLOAT -> PolyFloat.of( group.getFloat( field, 0 ) );
+            case DOUBLE -> PolyDouble.of( group.getDouble( field, 0 ) );
+            case BINARY, FIXED_LEN_BYTE_ARRAY -> {
+                Binary value = group.getBinary( field, 0 );
+                if ( annotation instanceof DecimalLogicalTypeAnnotation decimal ) {
+                    yield PolyBigDecimal.of( new BigDecimal( new BigInteger( value.getBytes() ), decimal.getScale() ) );
+                } else if ( isText( annotation ) ) {
+                    yield PolyString.of( value.toStringUsingUTF8() );
+                }
+                yield PolyBinary.of( value.getBytes() );
+            }
+        };
+    }
+
+
+    /**
+     * Legacy timestamps consist of the nanoseconds of the day followed by the Julian day, both little-endian.
+     */
+    private static long int96ToMillis( Binary value ) {
+        ByteBuffer buffer = value.toByteBuffer().order( ByteOrder.LITTLE_ENDIAN );
+        long nanosOfDay = buffer.getLong();
+        int julianDay = buffer.getInt();
+        return (julianDay - JULIAN_EPOCH_OFFSET_DAYS) * DateTimeUtils.MILLIS_PER_DAY + nanosOfDay / 1_000_000L;
+    }
+
+
+    /**
+     * Reads single row groups of a file, every instance is used by one thread at a time.
+     */
+    private static final class RowGroupReader implements BlockEnumerator.BlockReader {
+
+        private final ParquetFileReader reader;
+        private final MessageType projection;
+        private final MessageColumnIO columnIO;
+        private final FilterCompat.Filter filter;
+        private final int[] outputs;
+        private final PrimitiveType[] types;
+
+
+        private RowGroupReader( File file, ParquetReadOptions options, MessageType projection, int[] outputs ) throws IOException {
+            this.reader = ParquetFileReader.open( new LocalInputFile( file.toPath() ), options );
+            this.reader.setRequestedSchema( projection );
+            this.projection = projection;
+            this.columnIO = new ColumnIOFactory().getColumnIO( projection, reader.getFileMetaData().getSchema() );
+            this.filter = options.getRecordFilter();
+            this.outputs = outputs;
+            this.types = new PrimitiveType[outputs.length];
+            for ( int i = 0; i < outputs.length; i++ ) {
+                types[i] = projection.getType( outputs[i] ).asPrimitiveType();
+            }
+        }
+
+
+        @Override
+        public List<PolyValue[]> read( int rowGroup ) throws IOException {
+            PageReadStore pages = reader.readRowGroup( rowGroup );
+            RecordReader<Group> records = columnIO.getRecordReader( pages, new GroupRecordConverter( projection ), filter );
+            long count = pages.getRowCount();
+            List<PolyValue[]> rows = new ArrayList<>();
+            for ( long i = 0; i < count; i++ ) {
+                Group group = records.read();
+                if ( group == null || records.shouldSkipCurrentRecord() ) {
+                    continue;
+                }
+                PolyValue[] row = new PolyValue[outputs.length];
+                for ( int j = 0; j < outputs.length; j++ ) {
+                    row[j] = convert( group, outputs[j], types[j] );
+                }
+                rows.add( row );
+            }
+            return rows;
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.io.File;
+import java.util.List;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.adapter.RelationalDataSource.ExportedColumn;
+import org.polypheny.db.catalog.entity.physical.PhysicalColumn;
+import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.schema.Namespace;
+
+
+/**
+ * Schema mapped onto a directory of Parquet and Arrow files. Each table in the schema is a file in that directory.
+ */
+public class ParquetNamespace extends Namespace {
+
+    private final File directory;
+
+
+    /**
+     * Creates a Parquet schema.
+     *
+     * @param directory Directory that holds the files, or a single file
+     */
+    public ParquetNamespace( long id, long adapterId, File directory ) {
+        super( id, adapterId );
+        this.directory = directory;
+    }
+
+
+    public ParquetTable createParquetTable( long id, PhysicalTable table, ParquetSource parquetSource ) {
+        List<ExportedColumn> columns = parquetSource.getExportedColumns().get( table.name );
+        if ( columns == null ) {
+            // See CsvSchema, the source is not aware of the enumerated names the DdlManager assigns to duplicates
+            String unenumeratedEntityName = table.name.replaceAll( "\\d+$", "" );
+            throw new GenericRuntimeException( "A logical relational entity with name '" + unenumeratedEntityName + "' already exists." );
+        }
+        // The names of the columns are sanitized, the file is read using the original names
+        String[] columnNames = new String[table.getColumns().size()];
+        int i = 0;
+        for ( PhysicalColumn column : table.getColumns() ) {
+            columnNames[i++] = columns.get( column.position ).physicalColumnName();
+        }
+
+        String fileName = columns.get( 0 ).physicalSchemaName();
+        File file = directory.isFile() ? directory : new File( directory, fileName );
+        return new ParquetTable( id, table, file, columnNames, parquetSource );
+    }
+
+
+    @Override
+    protected @Nullable Convention getConvention() {
+        return null; // No convention
+    }
+
+}
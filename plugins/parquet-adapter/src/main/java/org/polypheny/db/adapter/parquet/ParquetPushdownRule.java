@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.polypheny.db.algebra.logical.relational.LogicalRelFilter;
+import org.polypheny.db.algebra.logical.relational.LogicalRelProject;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+import org.polypheny.db.plan.AlgOptRuleOperand;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.plan.AlgOptUtil.InputFinder;
+import org.polypheny.db.rex.RexIndexRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexUtil;
+import org.polypheny.db.util.ImmutableBitSet;
+import org.polypheny.db.util.mapping.Mapping;
+import org.polypheny.db.util.mapping.Mappings;
+
+/**
+ * Planner rule which pushes the columns needed by a project and the comparisons of a filter with literals into a
+ * {@link ParquetScan}. Trivial projects are replaced by the scan, like in the CSV adapter. Filters stay on top of the
+ * scan, the scan only skips row groups and rows which definitely do not match.
+ */
+final class ParquetPushdownRule extends AlgOptRule {
+
+    static final ParquetPushdownRule FILTER = new ParquetPushdownRule(
+            operand( LogicalRelFilter.class, operand( ParquetScan.class, none() ) ),
+            "ParquetPushdownRule:filter" );
+
+    static final ParquetPushdownRule PROJECT = new ParquetPushdownRule(
+            operand( LogicalRelProject.class, operand( ParquetScan.class, none() ) ),
+            "ParquetPushdownRule:project" );
+
+    static final ParquetPushdownRule PROJECT_FILTER = new ParquetPushdownRule(
+            operand( LogicalRelProject.class, operand( LogicalRelFilter.class, operand( ParquetScan.class, none() ) ) ),
+            "ParquetPushdownRule:project_filter" );
+
+
+    private ParquetPushdownRule( AlgOptRuleOperand operand, String description ) {
+        super( operand, description );
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final ParquetScan scan = call.alg( call.algs.length - 1 );
+
+        if ( call.algs.length == 2 && call.alg( 0 ) instanceof LogicalRelFilter filter ) {
+            if ( !scan.predicates.isEmpty() ) {
+                return;
+            }
+            List<ColumnPredicate> predicates = new ArrayList<>();
+            for ( RexNode node : AlgOptUtil.conjunctions( filter.getCondition() ) ) {
+                ColumnPredicate predicate = ColumnPredicate.of( node, scan.fields );
+                if ( predicate != null ) {
+                    predicates.add( predicate );
+                }
+            }
+            if ( !predicates.isEmpty() ) {
+                call.transformTo( filter.copy( filter.getTraitSet(), List.of( new ParquetScan( scan.getCluster(), scan.getEntity(), scan.fields, List.copyOf( predicates ) ) ) ) );
+            }
+            return;
+        }
+
+        final LogicalRelProject project = call.alg( 0 );
+        final LogicalRelFilter filter = call.algs.length == 3 ? call.alg( 1 ) : null;
+        if ( filter == null ) {
+            int[] fields = getProjectFields( project.getProjects(), scan.fields );
+            if ( fields != null ) {
+                // Project contains just field references
+                call.transformTo( new ParquetScan( scan.getCluster(), scan.getEntity(), fields, scan.predicates ) );
+                return;
+            }
+        }
+
+        ImmutableBitSet used = InputFinder.bits( project.getProjects(), filter == null ? null : filter.getCondition() );
+        if ( used.isEmpty() || used.cardinality() == scan.fields.length ) {
+            // Files are read by column, at least one has to be requested
+            return;
+        }
+        List<Integer> sources = used.asList();
+        int[] fields = new int[sources.size()];
+        for ( int i = 0; i < fields.length; i++ ) {
+            fields[i] = scan.fields[sources.get( i )];
+        }
+        Mapping mapping = Mappings.target( sources, scan.fields.length );
+        LogicalRelFilter input = null;
+        ParquetScan narrowed = new ParquetScan( scan.getCluster(), scan.getEntity(), fields, scan.predicates );
+        if ( filter != null ) {
+            input = filter.copy( filter.getTraitSet(), narrowed, RexUtil.apply( mapping, filter.getCondition() ) );
+        }
+        List<RexNode> projects = new ArrayList<>();
+        for ( RexNode node : project.getProjects() ) {
+            projects.add( RexUtil.apply( mapping, node ) );
+        }
+        call.transformTo( project.copy( project.getTraitSet(), input == null ? narrowed : input, projects, project.getTupleType() ) );
+    }
+
+
+    private static int[] getProjectFields( List<RexNode> exps, int[] scanFields ) {
+        final int[] fields = new int[exps.size()];
+        for ( int i = 0; i < exps.size(); i++ ) {
+            final RexNode exp = exps.get( i );
+            if ( exp instanceof RexIndexRef ref ) {
+                fields[i] = scanFields[ref.getIndex()];
+            } else {
+                return null; // not a simple projection
+            }
+        }
+        return fields;
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Blocks;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.Primitive;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.core.relational.RelScan;
+import org.polypheny.db.algebra.enumerable.EnumerableAlg;
+import org.polypheny.db.algebra.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.algebra.enumerable.EnumerableConvention;
+import org.polypheny.db.algebra.enumerable.PhysType;
+import org.polypheny.db.algebra.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeFactory;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+
+
+/**
+ * Relational expression representing a scan of a Parquet or Arrow file.
+ *
+ * Like any table scan, it serves as a leaf node of a query tree.
+ */
+public class ParquetScan extends RelScan<ParquetTable> implements EnumerableAlg {
+
+    /**
+     * The fields of the table which are returned.
+     */
+    final int[] fields;
+    /**
+     * Predicates on the fields of the table used to skip data while reading, see {@link ParquetPushdownRule}.
+     */
+    final List<ColumnPredicate> predicates;
+
+
+    protected ParquetScan( AlgCluster cluster, ParquetTable table, int[] fields, List<ColumnPredicate> predicates ) {
+        super( cluster, cluster.traitSetOf( EnumerableConvention.INSTANCE ), table );
+        this.fields = fields;
+        this.predicates = predicates;
+    }
+
+
+    @Override
+    public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        assert inputs.isEmpty();
+        return new ParquetScan( getCluster(), entity, fields, predicates );
+    }
+
+
+    @Override
+    public AlgWriter explainTerms( AlgWriter pw ) {
+        return super.explainTerms( pw )
+                .item( "fields", Primitive.asList( fields ) )
+                .itemIf( "predicates", predicates, !predicates.isEmpty() );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return super.algCompareString() + Primitive.asList( fields ) + predicates + "&";
+    }
+
+
+    @Override
+    public AlgDataType deriveRowType() {
+        final List<AlgDataTypeField> fieldList = entity.getTupleType().getFields();
+        final AlgDataTypeFactory.Builder builder = getCluster().getTypeFactory().builder();
+        for ( int field : fields ) {
+            builder.add( fieldList.get( field ) );
+        }
+        return builder.build();
+    }
+
+
+    @Override
+    public void register( AlgPlanner planner ) {
+        planner.addRule( ParquetPushdownRule.PROJECT );
+        planner.addRule( ParquetPushdownRule.FILTER );
+        planner.addRule( ParquetPushdownRule.PROJECT_FILTER );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgPlanner planner, AlgMetadataQuery mq ) {
+        // Like the CSV scan, a scan with fewer fields is more attractive, only the requested columns are read from the file.
+        // Pushed predicates allow to skip row groups and rows, which makes the scan cheaper still.
+        double factor = ((double) fields.length + 2D) / ((double) entity.getTupleType().getFieldCount() + 2D);
+        if ( !predicates.isEmpty() ) {
+            factor *= 0.5;
+        }
+        return super.computeSelfCost( planner, mq ).multiplyBy( factor );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getTupleType(), pref.preferArray() );
+
+        return implementor.result( physType, Blocks.toBlock( Expressions.call(
+                entity.asExpression( ParquetTable.class ),
+                "project",
+                implementor.getRootExpression(),
+                Expressions.constant( fields ),
+                Expressions.newArrayInit( ColumnPredicate.class, predicates.stream().map( ColumnPredicate::asExpression ).toList() ) ) ) );
+    }
+
+}
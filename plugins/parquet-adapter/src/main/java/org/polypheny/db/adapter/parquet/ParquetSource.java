@@ -0,0 +1,324 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.experimental.Delegate;
+import lombok.extern.slf4j.Slf4j;
+import org.pf4j.Extension;
+import org.polypheny.db.adapter.ConnectionMethod;
+import org.polypheny.db.adapter.DataSource;
+import org.polypheny.db.adapter.DeployMode;
+import org.polypheny.db.adapter.RelationalDataSource;
+import org.polypheny.db.adapter.RelationalScanDelegate;
+import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingDirectory;
+import org.polypheny.db.adapter.annotations.AdapterSettingInteger;
+import org.polypheny.db.adapter.annotations.AdapterSettingList;
+import org.polypheny.db.adapter.annotations.AdapterSettingString;
+import org.polypheny.db.catalog.catalogs.RelAdapterCatalog;
+import org.polypheny.db.catalog.entity.allocation.AllocationTable;
+import org.polypheny.db.catalog.entity.allocation.AllocationTableWrapper;
+import org.polypheny.db.catalog.entity.logical.LogicalTableWrapper;
+import org.polypheny.db.catalog.entity.physical.PhysicalEntity;
+import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.catalog.logistic.DataModel;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.prepare.Context;
+import org.polypheny.db.transaction.PolyXid;
+
+@Slf4j
+@Extension
+@AdapterProperties(
+        name = "Parquet",
+        description = "An adapter for querying Parquet and Arrow IPC files. The location of the directory containing the files can be specified. Currently, this adapter only supports read operations.",
+        usedModes = DeployMode.EMBEDDED,
+        defaultMode = DeployMode.EMBEDDED)
+@AdapterSettingList(name = "method", options = { "upload", "link" }, defaultValue = "upload", description = "If the supplied file(s) should be uploaded or a link to the local filesystem is used (sufficient permissions are required).", position = 1)
+@AdapterSettingDirectory(subOf = "method_upload", name = "directory", defaultValue = "", description = "You can upload one or multiple .parquet, .arrow or .feather files.", position = 2)
+@AdapterSettingString(subOf = "method_link", defaultValue = ".", name = "directoryName", description = "You can select a path to a folder or specific .parquet, .arrow or .feather files.", position = 2)
+@AdapterSettingInteger(name = "maxStringLength", defaultValue = 255, position = 3,
+        description = "Which length (number of characters including whitespace) should be used for the varchar columns. Make sure this is equal or larger than the longest string in any of the columns.")
+@AdapterSettingInteger(name = "parallelism", defaultValue = 4, position = 4,
+        description = "How many row groups or record batches of a file are decoded concurrently. Set to 1 to read files sequentially.")
+public class ParquetSource extends DataSource<RelAdapterCatalog> implements RelationalDataSource {
+
+    private static final Set<String> EXTENSIONS = Set.of( ".parquet", ".arrow", ".feather" );
+
+    @Delegate(excludes = Excludes.class)
+    private final RelationalScanDelegate delegate;
+    private final ConnectionMethod connectionMethod;
+
+    private File directory;
+    @Getter
+    private ParquetNamespace currentNamespace;
+    private final int maxStringLength;
+    @Getter
+    private final int parallelism;
+    private Map<String, List<ExportedColumn>> exportedColumnCache;
+
+
+    public ParquetSource( final long storeId, final String uniqueName, final Map<String, String> settings, final DeployMode mode ) {
+        super( storeId, uniqueName, settings, mode, true, new RelAdapterCatalog( storeId ), Set.of( DataModel.RELATIONAL ) );
+
+        this.connectionMethod = settings.containsKey( "method" ) ? ConnectionMethod.from( settings.get( "method" ).toUpperCase() ) : ConnectionMethod.UPLOAD;
+
+        setDirectory( settings );
+
+        maxStringLength = Integer.parseInt( settings.get( "maxStringLength" ) );
+        if ( maxStringLength < 1 ) {
+            throw new GenericRuntimeException( "Invalid value for maxStringLength: " + maxStringLength );
+        }
+        parallelism = Integer.parseInt( settings.get( "parallelism" ) );
+        if ( parallelism < 1 ) {
+            throw new GenericRuntimeException( "Invalid value for parallelism: " + parallelism );
+        }
+
+        addInformationExportedColumns();
+        enableInformationPage();
+
+        this.delegate = new RelationalScanDelegate( this, adapterCatalog );
+    }
+
+
+    @Override
+    public void updateNamespace( String name, long id ) {
+        currentNamespace = new ParquetNamespace( id, adapterId, directory );
+    }
+
+
+    @Override
+    public List<PhysicalEntity> createTable( Context context, LogicalTableWrapper logical, AllocationTableWrapper allocation ) {
+        PhysicalTable table = adapterCatalog.createTable(
+                logical.table.getNamespaceName(),
+                logical.table.name,
+                logical.columns.stream().collect( Collectors.toMap( c -> c.id, c -> c.name ) ),
+                logical.table,
+                logical.columns.stream().collect( Collectors.toMap( t -> t.id, t -> t ) ),
+                logical.pkIds, allocation );
+
+        ParquetTable physical = currentNamespace.createParquetTable( table.id, table, this );
+
+        adapterCatalog.replacePhysical( physical );
+
+        return List.of( physical );
+    }
+
+
+    @Override
+    public void restoreTable( AllocationTable alloc, List<PhysicalEntity> entities, Context context ) {
+        PhysicalEntity table = entities.get( 0 );
+        updateNamespace( table.namespaceName, table.namespaceId );
+        adapterCatalog.addPhysical( alloc, currentNamespace.createParquetTable( table.id, table.unwrapOrThrow( PhysicalTable.class ), this ) );
+    }
+
+
+    private void setDirectory( Map<String, String> settings ) {
+        String dir = settings.get( "directory" );
+        if ( connectionMethod == ConnectionMethod.LINK ) {
+            dir = settings.get( "directoryName" );
+        }
+        directory = new File( dir );
+    }
+
+
+    @Override
+    public void truncate( Context context, long allocId ) {
+        throw new GenericRuntimeException( "Parquet adapter does not support truncate" );
+    }
+
+
+    @Override
+    public Map<String, List<ExportedColumn>> getExportedColumns() {
+        if ( connectionMethod == ConnectionMethod.UPLOAD && exportedColumnCache != null ) {
+            // if we upload, file will not be changed, and we can cache the columns information, if "link" is used this is not advised
+            return exportedColumnCache;
+        }
+        Map<String, List<ExportedColumn>> exportedColumnCache = new HashMap<>();
+        File[] files;
+        if ( directory.isFile() ) {
+            // single file
+            files = new File[]{ directory };
+        } else {
+            files = directory.listFiles( ( d, name ) -> isSupported( name ) );
+            if ( files == null ) {
+                throw new GenericRuntimeException( "No .parquet, .arrow or .feather files where found." );
+            }
+        }
+        for ( File file : files ) {
+            String fileName = file.getName();
+            String physicalTableName = computePhysicalEntityName( fileName );
+
+            List<FileColumn> fileColumns;
+            try {
+                fileColumns = fileName.toLowerCase().endsWith( ".parquet" )
+                        ? ParquetFiles.columns( file, maxStringLength )
+                        : ArrowFiles.columns( file, maxStringLength );
+            } catch ( IOException e ) {
+                throw new GenericRuntimeException( "Could not read the schema of %s", e, fileName );
+            }
+
+            List<ExportedColumn> list = new ArrayList<>();
+            int position = 1;
+            for ( FileColumn column : fileColumns ) {
+                String name = column.name()
+                        .toLowerCase()
+                        .trim()
+                        .replaceAll( "[^a-z0-9_]+", "" );
+                list.add( new ExportedColumn(
+                        name,
+                        column.type(),
+                        null,
+                        column.length(),
+                        column.scale(),
+                        null,
+                        null,
+                        column.nullable(),
+                        fileName,
+                        physicalTableName,
+                        column.name(),
+                        position,
+                        // Like the CSV adapter, the first column is the primary key, unless it contains nulls
+                        position == 1 && !column.nullable() ) );
+                position++;
+            }
+            if ( list.isEmpty() ) {
+                log.warn( "File {} has no supported columns and is ignored.", fileName );
+                continue;
+            }
+            exportedColumnCache.put( physicalTableName, list );
+        }
+        this.exportedColumnCache = exportedColumnCache;
+        return exportedColumnCache;
+    }
+
+
+    private static boolean isSupported( String fileName ) {
+        String lowerCase = fileName.toLowerCase();
+        return EXTENSIONS.stream().anyMatch( lowerCase::endsWith );
+    }
+
+
+    private static String computePhysicalEntityName( String fileName ) {
+        String physicalTableName = fileName.toLowerCase();
+        return physicalTableName
+                .substring( 0, physicalTableName.lastIndexOf( '.' ) )
+                .trim()
+                .replaceAll( "[^a-z0-9_]+", "" );
+    }
+
+
+    @Override
+    public boolean prepare( PolyXid xid ) {
+        log.debug( "Parquet Store does not support prepare()." );
+        return true;
+    }
+
+
+    @Override
+    public void commit( PolyXid xid ) {
+        log.debug( "Parquet Store does not support commit()." );
+    }
+
+
+    @Override
+    public void rollback( PolyXid xid ) {
+        log.debug( "Parquet Store does not support rollback()." );
+    }
+
+
+    @Override
+    public void shutdown() {
+        removeInformationPage();
+    }
+
+
+    @Override
+    protected void reloadSettings( List<String> updatedSettings ) {
+        if ( updatedSettings.contains( "directory" ) ) {
+            setDirectory( settings );
+        }
+    }
+
+
+    private void addInformationExportedColumns() {
+        for ( Map.Entry<String, List<ExportedColumn>> entry : getExportedColumns().entrySet() ) {
+            InformationGroup group = new InformationGroup( informationPage, entry.getValue().get( 0 ).physicalSchemaName() );
+            informationGroups.add( group );
+
+            InformationTable table = new InformationTable(
+                    group,
+                    Arrays.asList( "Position", "Column Name", "Type", "Nullable", "Filename", "Primary" ) );
+            for ( ExportedColumn exportedColumn : entry.getValue() ) {
+                table.addRow(
+                        exportedColumn.physicalPosition(),
+                        exportedColumn.name(),
+                        exportedColumn.getDisplayType(),
+                        exportedColumn.nullable() ? "✔" : "",
+                        exportedColumn.physicalSchemaName(),
+                        exportedColumn.primary() ? "✔" : ""
+                );
+            }
+            informationElements.add( table );
+        }
+    }
+
+
+    protected void updateNativePhysical( long allocId ) {
+        PhysicalTable table = adapterCatalog.fromAllocation( allocId );
+        adapterCatalog.replacePhysical( this.currentNamespace.createParquetTable( table.id, table, this ) );
+    }
+
+
+    @Override
+    public void renameLogicalColumn( long id, String newColumnName ) {
+        adapterCatalog.renameLogicalColumn( id, newColumnName );
+        adapterCatalog.fields.values().stream().filter( c -> c.id == id ).forEach( c -> updateNativePhysical( c.allocId ) );
+    }
+
+
+    @Override
+    public RelationalDataSource asRelationalDataSource() {
+        return this;
+    }
+
+
+    @SuppressWarnings("unused")
+    private interface Excludes {
+
+        void renameLogicalColumn( long id, String newColumnName );
+
+        void refreshTable( long allocId );
+
+        void createTable( Context context, LogicalTableWrapper logical, AllocationTableWrapper allocation );
+
+        void restoreTable( AllocationTable alloc, List<PhysicalEntity> entities );
+
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.catalog.entity.physical.PhysicalTable;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.schema.types.TranslatableEntity;
+import org.polypheny.db.type.entity.PolyValue;
+
+
+/**
+ * Table based on a Parquet or Arrow IPC file.
+ */
+public class ParquetTable extends PhysicalTable implements TranslatableEntity {
+
+    private final File file;
+    private final boolean arrow;
+    /**
+     * The names of the columns in the file, in the order of the fields of the table.
+     */
+    private final String[] columnNames;
+    private final ParquetSource parquetSource;
+
+
+    ParquetTable( long id, PhysicalTable table, File file, String[] columnNames, ParquetSource parquetSource ) {
+        super(
+                id,
+                table.allocationId,
+                table.logicalId,
+                table.name,
+                table.columns,
+                table.namespaceId,
+                table.namespaceName,
+                table.uniqueFieldIds,
+                table.adapterId );
+        this.file = file;
+        this.arrow = !file.getName().toLowerCase().endsWith( ".parquet" );
+        this.columnNames = columnNames;
+        this.parquetSource = parquetSource;
+    }
+
+
+    /**
+     * Returns an enumerable over a given projection of the fields, which skips rows not satisfying the predicates
+     * where the file allows to do so cheaply. Rows are not guaranteed to satisfy the predicates.
+     *
+     * Called from generated code.
+     */
+    public Enumerable<PolyValue[]> project( final DataContext dataContext, final int[] fields, final ColumnPredicate[] predicates ) {
+        dataContext.getStatement().getTransaction().registerInvolvedAdapter( parquetSource );
+        final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get( dataContext );
+        final String[] columns = new String[fields.length];
+        for ( int i = 0; i < fields.length; i++ ) {
+            columns[i] = columnNames[fields[i]];
+        }
+        final int parallelism = parquetSource.getParallelism();
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<PolyValue[]> enumerator() {
+                return arrow
+                        ? ArrowFiles.open( file, columns, predicates, columnNames, parallelism, cancelFlag )
+                        : ParquetFiles.open( file, columns, predicates, columnNames, parallelism, cancelFlag );
+            }
+        };
+    }
+
+
+    @Override
+    public AlgNode toAlg( AlgCluster cluster, AlgTraitSet traitSet ) {
+        // Request all fields.
+        int[] fields = new int[columnNames.length];
+        for ( int i = 0; i < fields.length; i++ ) {
+            fields[i] = i;
+        }
+        return new ParquetScan( cluster, this, fields, List.of() );
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+public class ParquetFilesTest {
+
+    private static final int ROWS = 10_000;
+    private static final String[] NAMES = { "id", "name", "score" };
+
+    @TempDir
+    static File directory;
+
+    private static File parquet;
+    private static File arrow;
+
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        parquet = new File( directory, "data.parquet" );
+        MessageType schema = MessageTypeParser.parseMessageType(
+                "message data { required int32 id; optional binary name (STRING); required double score; }" );
+        SimpleGroupFactory factory = new SimpleGroupFactory( schema );
+        // Small row groups, so the statistics of most of them exclude a selective predicate
+        try ( ParquetWriter<Group> writer = ExampleParquetWriter.builder( new LocalOutputFile( parquet.toPath() ) )
+                .withType( schema )
+                .withRowGroupSize( 8 * 1024L )
+                .withPageSize( 1024 )
+                .build() ) {
+            for ( int i = 0; i < ROWS; i++ ) {
+                Group group = factory.newGroup().append( "id", i ).append( "score", i / 2.0 );
+                if ( i % 10 != 0 ) {
+                    group.append( "name", "name" + i % 7 );
+                }
+                writer.write( group );
+            }
+        }
+
+        arrow = new File( directory, "data.arrow" );
+        try ( BufferAllocator allocator = new RootAllocator();
+                IntVector id = new IntVector( "id", allocator );
+                VarCharVector name = new VarCharVector( "name", allocator );
+                VectorSchemaRoot root = VectorSchemaRoot.of( id, name );
+                FileOutputStream out = new FileOutputStream( arrow );
+                ArrowFileWriter writer = new ArrowFileWriter( root, null, out.getChannel() ) ) {
+            writer.start();
+            for ( int batch = 0; batch < 10; batch++ ) {
+                id.allocateNew( ROWS / 10 );
+                name.allocateNew( ROWS / 10 );
+                for ( int i = 0; i < ROWS / 10; i++ ) {
+                    int value = batch * (ROWS / 10) + i;
+                    id.set( i, value );
+                    name.setSafe( i, ("name" + value % 7).getBytes() );
+                }
+                root.setRowCount( ROWS / 10 );
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+    }
+
+
+    @Test
+    public void testParquetColumns() throws IOException {
+        List<FileColumn> columns = ParquetFiles.columns( parquet, 255 );
+        assertEquals( 3, columns.size() );
+        assertEquals( PolyType.INTEGER, columns.get( 0 ).type() );
+        assertFalse( columns.get( 0 ).nullable() );
+        assertEquals( PolyType.VARCHAR, columns.get( 1 ).type() );
+        assertTrue( columns.get( 1 ).nullable() );
+        assertEquals( PolyType.DOUBLE, columns.get( 2 ).type() );
+    }
+
+
+    @Test
+    public void testParquetProjectionAndPredicate() {
+        ColumnPredicate[] predicates = { new ColumnPredicate( 0, Kind.GREATER_THAN_OR_EQUAL, PolyInteger.of( 9_900 ) ) };
+        List<PolyValue[]> rows = read( ParquetFiles.open( parquet, new String[]{ "score", "id" }, predicates, NAMES, 4, new AtomicBoolean() ) );
+
+        assertEquals( 100, rows.size() );
+        for ( int i = 0; i < rows.size(); i++ ) {
+            assertEquals( 2, rows.get( i ).length );
+            assertEquals( 9_900 + i, rows.get( i )[1].asNumber().intValue() );
+            assertEquals( (9_900 + i) / 2.0, rows.get( i )[0].asNumber().doubleValue() );
+        }
+    }
+
+
+    @Test
+    public void testParquetSequentialMatchesParallel() {
+        ColumnPredicate[] predicates = { new ColumnPredicate( 1, Kind.EQUALS, PolyString.of( "name3" ) ) };
+        List<PolyValue[]> sequential = read( ParquetFiles.open( parquet, new String[]{ "id", "name" }, predicates, NAMES, 1, new AtomicBoolean() ) );
+        List<PolyValue[]> parallel = read( ParquetFiles.open( parquet, new String[]{ "id", "name" }, predicates, NAMES, 8, new AtomicBoolean() ) );
+
+        assertEquals( sequential.size(), parallel.size() );
+        for ( int i = 0; i < sequential.size(); i++ ) {
+            assertEquals( sequential.get( i )[0], parallel.get( i )[0] );
+            assertEquals( "name3", parallel.get( i )[1].asString().value );
+        }
+    }
+
+
+    @Test
+    public void testOnlyExactPredicatesAreTranslated() {
+        MessageType schema = MessageTypeParser.parseMessageType(
+                "message data { required int32 id; optional binary name (STRING); required double score; }" );
+        assertNotNull( ParquetFiles.toFilter( schema, new ColumnPredicate[]{ new ColumnPredicate( 0, Kind.LESS_THAN, PolyInteger.of( 5 ) ) }, NAMES ) );
+        // Byte order and collation of strings may differ
+        assertNull( ParquetFiles.toFilter( schema, new ColumnPredicate[]{ new ColumnPredicate( 1, Kind.LESS_THAN, PolyString.of( "b" ) ) }, NAMES ) );
+        // Does not fit into an int
+        assertNull( ParquetFiles.toFilter( schema, new ColumnPredicate[]{ new ColumnPredicate( 0, Kind.EQUALS, PolyLong.of( 1L << 40 ) ) }, NAMES ) );
+    }
+
+
+    @Test
+    public void testArrowProjectionAndPredicate() throws IOException {
+        List<FileColumn> columns = ArrowFiles.columns( arrow, 255 );
+        assertEquals( 2, columns.size() );
+        assertEquals( PolyType.INTEGER, columns.get( 0 ).type() );
+        assertEquals( PolyType.VARCHAR, columns.get( 1 ).type() );
+
+        ColumnPredicate[] predicates = { new ColumnPredicate( 0, Kind.LESS_THAN, PolyInteger.of( 1_500 ) ) };
+        List<PolyValue[]> rows = read( ArrowFiles.open( arrow, new String[]{ "name" }, predicates, NAMES, 4, new AtomicBoolean() ) );
+
+        assertEquals( 1_500, rows.size() );
+        for ( int i = 0; i < rows.size(); i++ ) {
+            assertEquals( 1, rows.get( i ).length );
+            assertEquals( "name" + i % 7, rows.get( i )[0].asString().value );
+        }
+    }
+
+
+    @Test
+    public void testArrowFileIsReadCompletely() {
+        List<PolyValue[]> sequential = read( ArrowFiles.open( arrow, new String[]{ "id", "name" }, new ColumnPredicate[0], NAMES, 1, new AtomicBoolean() ) );
+        List<PolyValue[]> parallel = read( ArrowFiles.open( arrow, new String[]{ "id", "name" }, new ColumnPredicate[0], NAMES, 8, new AtomicBoolean() ) );
+
+        assertEquals( ROWS, sequential.size() );
+        assertEquals( ROWS, parallel.size() );
+        for ( int i = 0; i < ROWS; i++ ) {
+            assertEquals( i, sequential.get( i )[0].asNumber().intValue() );
+            assertEquals( "name" + i % 7, sequential.get( i )[1].asString().value );
+            assertEquals( sequential.get( i )[0], parallel.get( i )[0] );
+            assertEquals( sequential.get( i )[1], parallel.get( i )[1] );
+        }
+    }
+
+
+    private static List<PolyValue[]> read( Enumerator<PolyValue[]> enumerator ) {
+        List<PolyValue[]> rows = new ArrayList<>();
+        try ( enumerator ) {
+            while ( enumerator.moveNext() ) {
+                rows.add( enumerator.current() );
+            }
+        }
+        return rows;
+    }
+
+}
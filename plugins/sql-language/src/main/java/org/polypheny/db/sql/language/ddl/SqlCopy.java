@@ -0,0 +1,307 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.sql.language.ddl;
+
+
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.logical.LogicalColumn;
+import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.languages.ParserPos;
+import org.polypheny.db.nodes.ExecutableStatement;
+import org.polypheny.db.nodes.Node;
+import org.polypheny.db.prepare.Context;
+import org.polypheny.db.processing.QueryContext.ParsedQueryContext;
+import org.polypheny.db.sql.language.SqlDdl;
+import org.polypheny.db.sql.language.SqlIdentifier;
+import org.polypheny.db.sql.language.SqlLiteral;
+import org.polypheny.db.sql.language.SqlNode;
+import org.polypheny.db.sql.language.SqlOperator;
+import org.polypheny.db.sql.language.SqlSpecialOperator;
+import org.polypheny.db.sql.language.SqlWriter;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.transaction.locking.Lockable;
+import org.polypheny.db.transaction.locking.Lockable.LockType;
+import org.polypheny.db.type.entity.PolyBoolean;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyFloat;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+import org.polypheny.db.type.entity.temporal.PolyDate;
+import org.polypheny.db.type.entity.temporal.PolyTime;
+import org.polypheny.db.type.entity.temporal.PolyTimestamp;
+import org.polypheny.db.util.DateString;
+import org.polypheny.db.util.TimeString;
+import org.polypheny.db.util.TimestampString;
+
+
+/**
+ * Parse tree for {@code COPY table FROM 'file'} statement.
+ *
+ * The file is read as CSV whose first line names the columns of the values, the remaining columns are set to their
+ * default value. The rows are loaded with the bulk-load path of the {@link org.polypheny.db.processing.DataMigrator},
+ * which does not plan an insert per row. Only files within the directory configured by {@link RuntimeConfig#COPY_DIRECTORY}
+ * can be copied.
+ */
+@Slf4j
+public class SqlCopy extends SqlDdl implements ExecutableStatement {
+
+    private static final SqlOperator OPERATOR = new SqlSpecialOperator( "COPY", Kind.OTHER_DDL );
+
+    private final SqlIdentifier name;
+    private final SqlNode file;
+
+
+    /**
+     * Creates a SqlCopy.
+     */
+    public SqlCopy( ParserPos pos, SqlIdentifier name, SqlNode file ) {
+        super( OPERATOR, pos );
+        this.name = name;
+        this.file = file;
+    }
+
+
+    @Override
+    public List<Node> getOperandList() {
+        return ImmutableList.of( name, file );
+    }
+
+
+    @Override
+    public List<SqlNode> getSqlOperandList() {
+        return ImmutableList.of( name, file );
+    }
+
+
+    @Override
+    public void unparse( SqlWriter writer, int leftPrec, int rightPrec ) {
+        writer.keyword( getOperator().getName() );
+        name.unparse( writer, leftPrec, rightPrec );
+        writer.keyword( "FROM" );
+        file.unparse( writer, leftPrec, rightPrec );
+    }
+
+
+    @Override
+    public void execute( Context context, Statement statement, ParsedQueryContext parsedQueryContext ) {
+        LogicalTable table = getTableFailOnEmpty( context, name );
+        File source = resolve( ((SqlLiteral) file).getValueAs( String.class ) );
+
+        int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+        try ( CsvReader reader = new CsvReader( Files.newBufferedReader( source.toPath(), StandardCharsets.UTF_8 ) ) ) {
+            List<String> header = reader.next();
+            if ( header == null ) {
+                throw new GenericRuntimeException( "The file %s is empty", source.getPath() );
+            }
+            List<LogicalColumn> columns = new ArrayList<>();
+            for ( String columnName : header ) {
+                columns.add( Catalog.snapshot().rel().getColumn( table.id, columnName.trim() )
+                        .orElseThrow( () -> new GenericRuntimeException( "There is no column %s in table %s", columnName, table.name ) ) );
+            }
+
+            long count = statement.getTransaction().getDataMigrator().bulkLoad( statement.getTransaction(), table, columns, () -> {
+                List<List<PolyValue>> batch = new ArrayList<>();
+                List<String> record;
+                while ( batch.size() < batchSize && (record = reader.next()) != null ) {
+                    if ( record.size() != columns.size() ) {
+                        throw new GenericRuntimeException( "Line %s of %s has %s values, but %s were expected", reader.recordLine, source.getPath(), record.size(), columns.size() );
+                    }
+                    List<PolyValue> values = new ArrayList<>( columns.size() );
+                    for ( int i = 0; i < columns.size(); i++ ) {
+                        values.add( parse( record.get( i ), columns.get( i ), reader.recordLine ) );
+                    }
+                    batch.add( values );
+                }
+                return batch.isEmpty() ? null : batch;
+            } );
+            log.debug( "Copied {} rows from {} into {}", count, source.getPath(), table.name );
+        } catch ( IOException | UncheckedIOException e ) {
+            throw new GenericRuntimeException( "Could not read %s", e, source.getPath() );
+        }
+    }
+
+
+    /**
+     * Resolves the path of the file against the directory configured for COPY. Paths which leave this directory are
+     * rejected, so COPY cannot be used to read arbitrary files of the server.
+     */
+    static File resolve( String path ) {
+        String directory = RuntimeConfig.COPY_DIRECTORY.getString();
+        if ( directory == null || directory.isBlank() ) {
+            throw new GenericRuntimeException( "COPY is disabled, as no directory is configured to copy files from" );
+        }
+        try {
+            Path root = Path.of( directory ).toRealPath();
+            Path source = root.resolve( path ).normalize();
+            if ( !Files.isRegularFile( source ) ) {
+                throw new GenericRuntimeException( "There is no file %s", path );
+            }
+            if ( !source.toRealPath().startsWith( root ) ) {
+                throw new GenericRuntimeException( "The file %s is not within the directory configured to copy files from", path );
+            }
+            return source.toFile();
+        } catch ( IOException | InvalidPathException e ) {
+            throw new GenericRuntimeException( "Could not resolve %s", e, path );
+        }
+    }
+
+
+    @Override
+    public Map<Lockable, LockType> deriveLockables( Context context, ParsedQueryContext parsedQueryContext ) {
+        return getMapOfTableLockable( name, context, LockType.EXCLUSIVE );
+    }
+
+
+    private static PolyValue parse( String value, LogicalColumn column, long line ) {
+        if ( value == null ) {
+            return PolyNull.NULL;
+        }
+        try {
+            return switch ( column.type ) {
+                case BOOLEAN -> switch ( value.trim().toLowerCase() ) {
+                    case "true" -> PolyBoolean.TRUE;
+                    case "false" -> PolyBoolean.FALSE;
+                    default -> throw new IllegalArgumentException( value );
+                };
+                case TINYINT, SMALLINT, INTEGER -> PolyInteger.of( Integer.parseInt( value.trim() ) );
+                case BIGINT -> PolyLong.of( Long.parseLong( value.trim() ) );
+                case DECIMAL -> PolyBigDecimal.of( value.trim() );
+                case REAL, FLOAT -> PolyFloat.of( Float.parseFloat( value.trim() ) );
+                case DOUBLE -> PolyDouble.of( Double.parseDouble( value.trim() ) );
+                case DATE -> PolyDate.of( new DateString( value.trim() ).getMillisSinceEpoch() );
+                case TIME -> PolyTime.of( new TimeString( value.trim() ).getMillisOfDay() );
+                case TIMESTAMP -> PolyTimestamp.of( new TimestampString( value.trim() ).getMillisSinceEpoch() );
+                case CHAR, VARCHAR, TEXT -> PolyString.of( value );
+                default -> throw new GenericRuntimeException( "Copying into columns of type %s is not supported", column.type );
+            };
+        } catch ( IllegalArgumentException e ) {
+            throw new GenericRuntimeException( "Line %s has the value '%s' for column %s of type %s", e, line, value, column.name, column.type );
+        }
+    }
+
+
+    /**
+     * Minimal reader for RFC 4180 records: fields may be quoted, contain escaped quotes ({@code ""}) and line breaks.
+     * An empty field which is not quoted is read as null.
+     */
+    static class CsvReader implements AutoCloseable {
+
+        private final BufferedReader reader;
+        private long line = 1; // physical line of the next character
+        long recordLine = 0; // physical line in which the last record starts
+
+
+        CsvReader( Reader reader ) {
+            this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader( reader );
+        }
+
+
+        List<String> next() {
+            try {
+                int c = reader.read();
+                if ( c == -1 ) {
+                    return null;
+                }
+                recordLine = line;
+                List<String> fields = new ArrayList<>();
+                StringBuilder field = new StringBuilder();
+                boolean quoted = false;
+                boolean wasQuoted = false;
+                while ( true ) {
+                    if ( quoted ) {
+                        if ( c == -1 ) {
+                            throw new GenericRuntimeException( "The quoted value starting in line %s is not closed", recordLine );
+                        } else if ( c == '"' ) {
+                            reader.mark( 1 );
+                            int following = reader.read();
+                            if ( following == '"' ) {
+                                field.append( '"' );
+                            } else {
+                                quoted = false;
+                                reader.reset();
+                            }
+                        } else {
+                            if ( c == '\n' || (c == '\r' && !followedByNewline()) ) {
+                                line++;
+                            }
+                            field.append( (char) c );
+                        }
+                    } else if ( c == '"' && field.isEmpty() && !wasQuoted ) {
+                        quoted = true;
+                        wasQuoted = true;
+                    } else if ( c == ',' || c == '\n' || c == '\r' || c == -1 ) {
+                        fields.add( field.isEmpty() && !wasQuoted ? null : field.toString() );
+                        field.setLength( 0 );
+                        wasQuoted = false;
+                        if ( c == '\r' ) {
+                            reader.mark( 1 );
+                            if ( reader.read() != '\n' ) {
+                                reader.reset();
+                            }
+                        }
+                        if ( c != ',' ) {
+                            line++;
+                            return fields;
+                        }
+                    } else {
+                        field.append( (char) c );
+                    }
+                    c = reader.read();
+                }
+            } catch ( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+
+        private boolean followedByNewline() throws IOException {
+            reader.mark( 1 );
+            boolean newline = reader.read() == '\n';
+            reader.reset();
+            return newline;
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.sql.language.ddl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.sql.language.ddl.SqlCopy.CsvReader;
+
+public class CsvReaderTest {
+
+    @Test
+    public void readsFields() {
+        CsvReader reader = new CsvReader( new StringReader( "id,name\n1,Hans\r\n2,\"Smith, John\"\n" ) );
+        assertEquals( List.of( "id", "name" ), reader.next() );
+        assertEquals( List.of( "1", "Hans" ), reader.next() );
+        assertEquals( List.of( "2", "Smith, John" ), reader.next() );
+        assertNull( reader.next() );
+    }
+
+
+    @Test
+    public void readsUnquotedEmptyFieldAsNull() {
+        CsvReader reader = new CsvReader( new StringReader( "1,,\"\"" ) );
+        assertEquals( Arrays.asList( "1", null, "" ), reader.next() );
+        assertNull( reader.next() );
+    }
+
+
+    @Test
+    public void readsEscapedQuotes() {
+        CsvReader reader = new CsvReader( new StringReader( "\"say \"\"hi\"\"\",x\n" ) );
+        assertEquals( List.of( "say \"hi\"", "x" ), reader.next() );
+    }
+
+
+    @Test
+    public void countsPhysicalLines() {
+        CsvReader reader = new CsvReader( new StringReader( "id,text\n1,\"first\nsecond\r\nthird\"\n2,b\r\n3,\"c\rd\"\n4,e\n" ) );
+        reader.next();
+        assertEquals( 1, reader.recordLine );
+        assertEquals( List.of( "1", "first\nsecond\r\nthird" ), reader.next() );
+        assertEquals( 2, reader.recordLine );
+        reader.next();
+        assertEquals( 5, reader.recordLine );
+        reader.next();
+        assertEquals( 6, reader.recordLine );
+        reader.next();
+        assertEquals( 8, reader.recordLine );
+    }
+
+
+    @Test
+    public void rejectsUnclosedQuote() {
+        CsvReader reader = new CsvReader( new StringReader( "1,a\n2,\"b\nc" ) );
+        reader.next();
+        GenericRuntimeException e = assertThrows( GenericRuntimeException.class, reader::next );
+        assertTrue( e.getMessage().contains( "line 2" ), e.getMessage() );
+    }
+
+}
@@ -307,4 +307,16 @@ public void testDropFunctionIfExists() {
         sql( sql ).ok( expected );
     }
 
+
+    @Test
+    public void testCopy() {
+        sql( "copy x.t from 'data/t.csv'" ).ok( "COPY `X`.`T` FROM 'data/t.csv'" );
+    }
+
+
+    @Test
+    public void testCopyFromNonLiteral() {
+        sql( "copy t from ^1^" ).fails( "(?s)Encountered \"1\" at .*" );
+    }
+
 }
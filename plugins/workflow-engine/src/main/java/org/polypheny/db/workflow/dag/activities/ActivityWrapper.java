@@ -86,6 +86,8 @@ public class ActivityWrapper {
     private String dynamicName; // null if the activity has no dynamic name
     @Setter
     private ExecutionInfo executionInfo; // execution info from last execution
+    @Setter
+    private List<String> outFingerprints; // fingerprints of the outputs of the last successful execution, null if not executed
 
 
     protected ActivityWrapper( UUID id, Activity activity, String type, Map<String, JsonNode> settings, ActivityConfigModel config, RenderModel rendering ) {
@@ -261,6 +263,7 @@ public void resetExecution( Map<String, JsonNode> workflowVariables ) {
         state = ActivityState.IDLE;
         isRolledBack = false;
         executionInfo = null;
+        outFingerprints = null;
     }
 
 
@@ -48,6 +48,19 @@ default Optional<Boolean> canPipe( List<TypePreview> inTypes, SettingsPreview se
         return Optional.of( true );
     }
 
+    /**
+     * Whether every output tuple of this activity only depends on a single input tuple, given the resolved settings.
+     * If true, the activity may be executed as several parallel instances, each consuming a disjoint partition
+     * of its single input and writing to the same output. The order of the output tuples is then no longer preserved.
+     * Parallel instances share the same {@link PipeExecutionContext}, but each instance uses its own call to {@code pipe()}.
+     *
+     * @param settings the resolved settings
+     * @return true if the activity can be executed on partitions of its input independently
+     */
+    default boolean isRowIndependent( Settings settings ) {
+        return false;
+    }
+
     /**
      * Default implementation that uses the {@code pipe()} method for executing this activity without a PipeExecutor.
      * It is always desirable to override this method with a custom implementation that does not depend on {@code pipe()}.
@@ -233,7 +233,8 @@ private void write(
         int mapCapacity = (int) Math.ceil( table.getTupleType().getFieldCount() / 0.75 );
         long rowCount = 0;
         long countDelta = Math.max( totalRows / 100, 1 );
-        try ( BatchWriter writer = new BatchWriter( context, transaction.createStatement(), paramTypes ) ) {
+        BatchWriter writer = new BatchWriter( context, transaction.createStatement(), paramTypes );
+        try ( writer ) {
             for ( List<PolyValue> row : rows ) {
                 Map<Long, PolyValue> map = new HashMap<>( mapCapacity );
                 if ( keepPkCol ) {
@@ -262,6 +263,11 @@ private void write(
                 }
             }
         }
+        if ( ctx != null ) {
+            ctx.reportBatchWrites( writer.getWrittenCount(), writer.getExecutionNanos() );
+        } else {
+            pipeCtx.reportBatchWrites( writer.getWrittenCount(), writer.getExecutionNanos() );
+        }
     }
 
 
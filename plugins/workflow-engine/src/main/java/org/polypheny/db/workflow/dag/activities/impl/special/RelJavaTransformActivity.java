@@ -260,6 +260,16 @@ public Optional<Boolean> canPipe( List<TypePreview> inTypes, SettingsPreview set
     }
 
 
+    /**
+     * The transformation code may keep state across rows (like the row counter of the default code),
+     * so this activity is never executed on partitions of its input.
+     */
+    @Override
+    public boolean isRowIndependent( Settings settings ) {
+        return false;
+    }
+
+
     @Override
     public AlgDataType lockOutputType( List<AlgDataType> inTypes, Settings settings ) throws Exception {
         RelTransformable transformable = (RelTransformable) simpleCbe.createInstance( new StringReader( getCode( settings ) ) );
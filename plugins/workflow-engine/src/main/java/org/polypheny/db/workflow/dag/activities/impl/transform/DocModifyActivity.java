@@ -166,6 +166,12 @@ public void pipe( List<InputPipe> inputs, OutputPipe output, Settings settings,
     }
 
 
+    @Override
+    public boolean isRowIndependent( Settings settings ) {
+        return true;
+    }
+
+
     public static PolyDocument modify( PolyDocument doc, String mode, String source, String target ) throws Exception {
         switch ( mode ) {
             case "move" -> {
@@ -89,6 +89,12 @@ public List<TypePreview> previewOutTypes( List<TypePreview> inTypes, SettingsPre
     }
 
 
+    @Override
+    public boolean isRowIndependent( Settings settings ) {
+        return true;
+    }
+
+
     @Override
     public void execute( List<CheckpointReader> inputs, Settings settings, ExecutionContext ctx ) throws Exception {
         Pipeable.super.execute( inputs, settings, ctx );
@@ -192,6 +192,12 @@ public void pipe( List<InputPipe> inputs, OutputPipe output, Settings settings,
     }
 
 
+    @Override
+    public boolean isRowIndependent( Settings settings ) {
+        return true;
+    }
+
+
     @Override
     public void execute( List<CheckpointReader> inputs, Settings settings, ExecutionContext ctx ) throws Exception {
         Pipeable.super.execute( inputs, settings, ctx ); // Pipe is easier to control than fuse
@@ -16,13 +16,34 @@
 
 package org.polypheny.db.workflow.engine.execution;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.logistic.DataModel;
+import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.workflow.dag.Workflow;
 import org.polypheny.db.workflow.dag.activities.ActivityWrapper;
+import org.polypheny.db.workflow.dag.activities.Pipeable;
+import org.polypheny.db.workflow.dag.activities.Pipeable.PipeInterruptedException;
+import org.polypheny.db.workflow.dag.activities.TypePreview;
 import org.polypheny.db.workflow.dag.settings.SettingDef.Settings;
+import org.polypheny.db.workflow.dag.settings.SettingDef.SettingsPreview;
 import org.polypheny.db.workflow.engine.execution.context.ExecutionContextImpl;
+import org.polypheny.db.workflow.engine.execution.context.PipeExecutionContext;
+import org.polypheny.db.workflow.engine.execution.pipe.CheckpointInputPipe;
+import org.polypheny.db.workflow.engine.execution.pipe.CheckpointOutputPipe;
+import org.polypheny.db.workflow.engine.execution.pipe.InputPipe;
+import org.polypheny.db.workflow.engine.execution.pipe.OutputPipe;
+import org.polypheny.db.workflow.engine.execution.pipe.PartitionOutputPipe;
+import org.polypheny.db.workflow.engine.execution.pipe.QueuePipe;
 import org.polypheny.db.workflow.engine.monitoring.ExecutionInfo;
 import org.polypheny.db.workflow.engine.storage.StorageManager;
 import org.polypheny.db.workflow.engine.storage.reader.CheckpointReader;
@@ -30,12 +51,16 @@
 /**
  * Executor that executes a single activity using its execute() method.
  * This executor should only be used if the activity is neither fusable, pipeable, nor is it a VariableWriter.
+ * Row-independent Pipeable activities with a configured parallelism are executed by running {@code pipe()} on partitions of the input in parallel.
  */
 @Slf4j
 public class DefaultExecutor extends Executor {
 
+    public static final long MIN_TUPLES_PER_PARTITION = 10_000; // smaller inputs are not worth the overhead of partitioning
+
     private final ActivityWrapper wrapper;
     private ExecutionContextImpl ctx;
+    private ExecutorService executor;
 
 
     public DefaultExecutor( StorageManager sm, Workflow wf, UUID activityId, ExecutionInfo info ) {
@@ -53,7 +78,12 @@ void execute() throws ExecutorException {
             this.ctx = ctx;
             Settings settings = wrapper.resolveSettings();
             ctx.logInfo( "Starting execution with settings: " + settings.serialize() );
-            wrapper.getActivity().execute( inputs, settings, ctx );
+            int partitionCount = getPartitionCount( inputs, settings );
+            if ( partitionCount > 1 ) {
+                executePartitioned( (Pipeable) wrapper.getActivity(), inputs.get( 0 ), partitionCount, settings );
+            } else {
+                wrapper.getActivity().execute( inputs, settings, ctx );
+            }
             wrapper.setOutTypePreview( sm.getCheckpointPreviewTypes( wrapper.getId() ) );
             ctx.updateProgress( 1 ); // ensure progress is correct
         } catch ( ExecutorException e ) {
@@ -67,6 +97,126 @@ void execute() throws ExecutorException {
     }
 
 
+    /**
+     * Determines the number of partitions to use for executing the activity.
+     * A value larger than 1 is only returned for row-independent Pipeable activities with a single
+     * relational or document input that are configured to be executed in parallel.
+     */
+    private int getPartitionCount( List<CheckpointReader> inputs, Settings settings ) {
+        int parallelism = wrapper.getConfig().getParallelism();
+        if ( parallelism <= 1 || !(wrapper.getActivity() instanceof Pipeable pipeable) ) {
+            return 1;
+        }
+        if ( inputs.size() != 1 || inputs.get( 0 ) == null || inputs.get( 0 ).getDataModel() == DataModel.GRAPH
+                || wrapper.getDef().getOutPortTypes().length != 1 ) {
+            return 1; // graphs cannot be split, since edges have to be piped after all nodes
+        }
+        List<TypePreview> inTypes = List.of( TypePreview.ofType( inputs.get( 0 ).getTupleType() ) );
+        if ( !pipeable.isRowIndependent( settings ) || !pipeable.canPipe( inTypes, SettingsPreview.of( settings ) ).orElse( false ) ) {
+            return 1;
+        }
+        long maxPartitions = Math.max( inputs.get( 0 ).getTupleCount() / MIN_TUPLES_PER_PARTITION, 1 );
+        return (int) Math.min( parallelism, maxPartitions );
+    }
+
+
+    /**
+     * Executes the activity as several parallel instances of {@code pipe()} that each consume a disjoint partition of the input.
+     * If the reader can split the checkpoint, every partition uses its own reader (and thus transaction).
+     * Otherwise, the checkpoint is read once and its tuples are routed to the partitions.
+     * The outputs of all partitions are written to the same checkpoint.
+     */
+    private void executePartitioned( Pipeable activity, CheckpointReader input, int partitionCount, Settings settings ) throws Exception {
+        ctx.logInfo( "Executing activity in " + partitionCount + " parallel partitions." );
+        AlgDataType type = activity.lockOutputType( List.of( input.getTupleType() ), settings );
+        List<Long> inCounts = List.of( input.getTupleCount() );
+        PipeExecutionContext pipeCtx = ctx.toPipeExecutionContext( inCounts );
+        long tupleCount = activity.estimateTupleCount( List.of( input.getTupleType() ), settings, inCounts, pipeCtx::getTransaction );
+
+        boolean isRouted = !input.canSplit(); // reading a partition would require a full scan of the checkpoint
+        List<CheckpointReader> readers = new ArrayList<>( List.of( input ) );
+        for ( int i = 1; i < partitionCount && !isRouted; i++ ) {
+            readers.add( getReader( wrapper, 0 ) );
+        }
+        List<QueuePipe> queues = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool( partitionCount );
+        this.executor = executor; // store in field for manual interrupt
+        try ( OutputPipe outPipe = new CheckpointOutputPipe( type, ctx.createWriter( 0, type ), pipeCtx, tupleCount ) ) {
+            List<Future<Void>> futures = new ArrayList<>();
+            for ( int i = 0; i < partitionCount; i++ ) {
+                InputPipe inPipe;
+                if ( isRouted ) {
+                    QueuePipe queue = new QueuePipe( workflow.getConfig().getPipelineQueueCapacity(), input.getTupleType(), pipeCtx, -1 );
+                    queues.add( queue );
+                    inPipe = queue;
+                } else {
+                    inPipe = new CheckpointInputPipe( readers.get( i ), i, partitionCount );
+                }
+                futures.add( executor.submit( () -> {
+                    try ( OutputPipe partitionPipe = new PartitionOutputPipe( outPipe ) ) {
+                        activity.pipe( List.of( inPipe ), partitionPipe, settings, pipeCtx );
+                    } finally {
+                        inPipe.finishIteration(); // a partition that stops consuming must not block the routing of tuples
+                    }
+                    return null;
+                } ) );
+            }
+            if ( isRouted ) {
+                routeTuples( input, queues );
+            }
+
+            for ( Future<Void> future : futures ) {
+                try {
+                    future.get();
+                } catch ( ExecutionException e ) {
+                    futures.forEach( f -> f.cancel( true ) ); // ensure all remaining partitions are cancelled
+                    if ( e.getCause() instanceof PipeInterruptedException ) {
+                        ctx.throwException( "Activity execution was interrupted" );
+                    }
+                    ctx.throwException( e.getCause() );
+                } catch ( CancellationException e ) {
+                    ctx.throwException( "Activity execution was interrupted" );
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            for ( CheckpointReader reader : readers.subList( 1, readers.size() ) ) {
+                reader.close();
+            }
+        }
+    }
+
+
+    /**
+     * Reads the input once and distributes its tuples round-robin to the partitions.
+     * Partitions that no longer consume tuples are skipped.
+     */
+    private void routeTuples( CheckpointReader input, List<QueuePipe> partitions ) throws Exception {
+        try {
+            boolean[] isFinished = new boolean[partitions.size()];
+            int active = partitions.size();
+            int partition = 0;
+            Iterator<List<PolyValue>> iterator = input.getIterator();
+            while ( active > 0 && iterator.hasNext() ) {
+                while ( isFinished[partition] ) {
+                    partition = (partition + 1) % partitions.size();
+                }
+                if ( !partitions.get( partition ).put( iterator.next() ) ) {
+                    isFinished[partition] = true;
+                    active--;
+                }
+                partition = (partition + 1) % partitions.size();
+                ctx.checkInterrupted();
+            }
+        } finally {
+            for ( QueuePipe queue : partitions ) {
+                queue.close();
+            }
+        }
+    }
+
+
     @Override
     public ExecutorType getType() {
         return ExecutorType.DEFAULT;
@@ -79,6 +229,9 @@ public void interrupt() {
         if ( ctx != null ) {
             ctx.setInterrupted();
         }
+        if ( executor != null ) {
+            executor.shutdownNow();
+        }
     }
 
 
@@ -27,6 +27,7 @@
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.logistic.DataModel;
 import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.processing.ImplementationContext.ExecutedContext;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.transaction.Statement;
@@ -87,6 +88,7 @@ void execute() throws ExecutorException {
             Pair<AlgNode, Long> pair = constructAlgNode( rootId, cluster, transaction );
             root = AlgRoot.of( pair.left, Kind.SELECT );
             estimatedTupleCount = pair.right;
+            recordPlannerCost( root.alg, cluster );
         } catch ( Exception e ) {
             if ( logErrors ) {
                 log.warn( "FusionExecutor caught exception", e );
@@ -111,7 +113,9 @@ void execute() throws ExecutorException {
         long countDelta = Math.max( estimatedTupleCount / 100, 1 );
         long count = 0;
         Iterator<PolyValue[]> iterator = executedContext.getIterator().getIterator();
+        CheckpointWriter checkpointWriter = null;
         try ( CheckpointWriter writer = sm.createCheckpoint( rootId, 0, root.validatedRowType, rootWrapper.getConfig().getPreferredStore( 0 ), model ) ) {
+            checkpointWriter = writer;
             while ( iterator.hasNext() ) {
                 writer.write( Arrays.asList( iterator.next() ) );
                 count++;
@@ -133,6 +137,8 @@ void execute() throws ExecutorException {
         } finally {
             executedContext.getIterator().close();
         }
+        // the last batch is only written when the writer is closed
+        info.addBatchWrites( checkpointWriter.getWriteCount(), checkpointWriter.getBatchNanos() );
 
     }
 
@@ -198,6 +204,23 @@ private Pair<AlgNode, Long> constructAlgNode( UUID root, AlgCluster cluster, Tra
     }
 
 
+    /**
+     * Stores the cumulative cost of the fused tree as estimated by the query planner, which allows comparing it
+     * to the estimate of the workflow optimizer and the actual duration.
+     */
+    private void recordPlannerCost( AlgNode alg, AlgCluster cluster ) {
+        try {
+            AlgOptCost cost = cluster.getMetadataQuery().getCumulativeCost( alg );
+            if ( cost != null && !cost.isInfinite() ) {
+                info.setPlannerCost( cost.getCosts() );
+                info.appendLog( rootId, LogLevel.INFO, "Estimated cost of fused tree: " + cost );
+            }
+        } catch ( Exception e ) {
+            log.debug( "Unable to estimate the cost of the fused tree", e ); // the cost is only informative
+        }
+    }
+
+
     private void updateLogErrors( ActivityWrapper wrapper ) {
         if ( !logErrors ) {
             logErrors = wrapper.getConfig().isLogErrors();
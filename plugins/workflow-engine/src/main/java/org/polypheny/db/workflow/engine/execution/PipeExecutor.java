@@ -33,6 +33,7 @@
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.logistic.DataModel;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.util.graph.AttributedDirectedGraph;
 import org.polypheny.db.util.graph.TopologicalOrderIterator;
 import org.polypheny.db.workflow.dag.Workflow;
@@ -40,6 +41,7 @@
 import org.polypheny.db.workflow.dag.activities.Pipeable;
 import org.polypheny.db.workflow.dag.settings.SettingDef.Settings;
 import org.polypheny.db.workflow.engine.execution.context.ExecutionContextImpl;
+import org.polypheny.db.workflow.engine.execution.pipe.BatchingQueuePipe;
 import org.polypheny.db.workflow.engine.execution.pipe.CheckpointInputPipe;
 import org.polypheny.db.workflow.engine.execution.pipe.CheckpointOutputPipe;
 import org.polypheny.db.workflow.engine.execution.pipe.InputPipe;
@@ -64,7 +66,7 @@ public class PipeExecutor extends Executor {
     private final UUID rootId;
     private final Map<UUID, AlgDataType> outTypes = new HashMap<>(); // maps activities to their (only!) output type
     private final Map<UUID, Long> outCounts = new HashMap<>(); // maps activities to the estimated number of tuples they produce, or -1 if no estimation is possible
-    private final Map<UUID, QueuePipe> outQueues = new HashMap<>(); // maps activities to their (only!) output queue
+    private final Map<UUID, InputPipe> outQueues = new HashMap<>(); // maps activities to their (only!) output queue
     private final Map<UUID, Integer> dynamicInPortCounts = new HashMap<>(); // maps activities to their dynamic inPort count (rather expensive to compute so we cache it)
     private final Map<UUID, ExecutionContextImpl> contexts = new HashMap<>();
     private final Map<UUID, Settings> settingsSnapshot = new HashMap<>();
@@ -144,6 +146,7 @@ void execute() throws ExecutorException {
         }
         if ( writer != null ) {
             info.setTuplesWritten( writer.getWriteCount() );
+            info.addBatchWrites( writer.getWriteCount(), writer.getBatchNanos() );
         }
     }
 
@@ -246,7 +249,7 @@ private List<Callable<Void>> getCallables() throws Exception {
             InputPipe[] inPipesArr = new InputPipe[dynamicInPortCounts.get( currentId )];
             for ( ExecutionEdge edge : inEdges ) {
                 assert !edge.isControl() : "Execution tree for pipelining must not contain control edges";
-                QueuePipe inPipe = outQueues.get( edge.getSource() );
+                InputPipe inPipe = outQueues.get( edge.getSource() );
                 inPipesArr[edge.getToPort()] = inPipe;
                 if ( !wrapper.getDef().getInPortType( edge.getToPort() ).couldBeCompatibleWith( inPipe.getType() ) ) {
                     new CloseableList( readers ).close(); // no need to close the QueryPipes, since they are not associated with a transaction
@@ -267,8 +270,8 @@ private List<Callable<Void>> getCallables() throws Exception {
             if ( currentId.equals( rootId ) ) {
                 outPipe = getCheckpointWriterPipe( rootId, rootType );
             } else {
-                outPipe = new QueuePipe( queueCapacity, outTypes.get( currentId ), contexts.get( currentId ), outCounts.get( currentId ) );
-                outQueues.put( currentId, (QueuePipe) outPipe );
+                outPipe = getQueuePipe( currentId );
+                outQueues.put( currentId, (InputPipe) outPipe );
             }
             callables.add( getCallable( wrapper, inPipes, outPipe ) );
         }
@@ -276,6 +279,17 @@ private List<Callable<Void>> getCallables() throws Exception {
     }
 
 
+    private OutputPipe getQueuePipe( UUID activityId ) {
+        AlgDataType type = outTypes.get( activityId );
+        ExecutionContextImpl ctx = contexts.get( activityId );
+        long count = outCounts.get( activityId );
+        if ( RuntimeConfig.WORKFLOWS_BATCHED_PIPES.getBoolean() ) {
+            return new BatchingQueuePipe( queueCapacity, type, ctx, count );
+        }
+        return new QueuePipe( queueCapacity, type, ctx, count );
+    }
+
+
     private Callable<Void> getCallable( ActivityWrapper wrapper, List<InputPipe> inPipes, OutputPipe outPipe ) {
         Settings settings = settingsSnapshot.get( wrapper.getId() );
         Pipeable activity = (Pipeable) wrapper.getActivity();
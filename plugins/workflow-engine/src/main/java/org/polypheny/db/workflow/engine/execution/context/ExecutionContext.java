@@ -85,6 +85,15 @@ public interface ExecutionContext {
 
     ReadableVariableStore getVariableStore();
 
+    /**
+     * Reports tuples that the activity wrote in batches outside of its output writers, e.g. into an external table,
+     * together with the time spent executing the batches. The throughput is shown by the execution monitor.
+     *
+     * @param tuples the number of written tuples
+     * @param nanos the time in nanoseconds spent executing the batches
+     */
+    void reportBatchWrites( long tuples, long nanos );
+
     /**
      * Logs an informational message.
      *
@@ -185,6 +185,12 @@ public boolean isLogErrors() {
     }
 
 
+    @Override
+    public void reportBatchWrites( long tuples, long nanos ) {
+        info.addBatchWrites( tuples, nanos );
+    }
+
+
     @Override
     public void logInfo( String message ) {
         info.appendLog( activityWrapper.getId(), LogLevel.INFO, message );
@@ -228,6 +234,7 @@ public void close() throws Exception {
             try {
                 writer.close();
                 writeCount += writer.getWriteCount();
+                info.addBatchWrites( writer.getWriteCount(), writer.getBatchNanos() );
             } catch ( Exception e ) {
                 exceptions.add( e );
             }
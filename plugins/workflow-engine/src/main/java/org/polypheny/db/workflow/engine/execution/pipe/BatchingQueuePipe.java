@@ -0,0 +1,287 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.execution.pipe;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.jetbrains.annotations.NotNull;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.workflow.dag.activities.Pipeable.PipeInterruptedException;
+import org.polypheny.db.workflow.engine.execution.context.PipeExecutionContext;
+
+/**
+ * A pipe that transfers tuples in chunks through a bounded single-producer single-consumer ring buffer.
+ * In contrast to the {@link QueuePipe}, the producer and consumer only synchronize once per chunk instead of once per tuple.
+ * <p>
+ * The chunk size adapts to the relative speed of both sides: it grows while the producer has to wait for free slots
+ * and shrinks whenever the consumer has to wait for tuples. A waiting consumer additionally causes the producer to
+ * publish its partial chunk immediately, which keeps the latency low for slow producers.
+ * The total number of buffered tuples is bounded by approximately the specified capacity.
+ */
+public class BatchingQueuePipe implements InputPipe, OutputPipe {
+
+    private static final int MAX_SLOTS = 16;
+    private static final int INITIAL_CHUNK_SIZE = 8;
+    private static final int SPIN_TRIES = 128;
+    private static final long PARK_NANOS = 1_000_000; // upper bound for parking, in case a wakeup is missed
+
+    private static final List<List<PolyValue>> END_MARKER = List.of();
+
+    private final List<List<PolyValue>>[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot to be read, only written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to be written, only written by the producer
+    private volatile Thread waitingConsumer;
+    private volatile Thread waitingProducer;
+    private volatile boolean finishedByConsumer; // whether the consumer of the pipe is not interested in any more values
+
+    private final AlgDataType type;
+    private final PipeExecutionContext ctx;
+
+    // producer state
+    private final int maxChunkSize;
+    private int chunkSize;
+    private List<List<PolyValue>> chunk;
+    private boolean closed;
+
+    // consumer state
+    private boolean hasNext = true; // whether all tuples to ever be produced have been consumed
+    private List<List<PolyValue>> current = List.of();
+    private int position;
+    private boolean startedIteration;
+
+    private final long totalCount; // the estimated total number of tuples to be piped, or -1 if no estimation is possible
+    private final long countDelta; // the number of tuples to be taken between updates to the progress;
+    private final boolean canEstimateProgress;
+    private long count;
+
+
+    /**
+     * Creates a new pipe.
+     *
+     * @param capacity the approximate maximum number of tuples that are buffered by this pipe
+     */
+    @SuppressWarnings("unchecked")
+    public BatchingQueuePipe( int capacity, AlgDataType type, PipeExecutionContext sourceCtx, long estimatedTotalCount ) {
+        int slotCount = Math.min( MAX_SLOTS, Integer.highestOneBit( Math.max( 1, capacity ) ) );
+        this.slots = new List[slotCount];
+        this.mask = slotCount - 1;
+        this.maxChunkSize = Math.max( 1, capacity / slotCount );
+        this.chunkSize = Math.min( INITIAL_CHUNK_SIZE, maxChunkSize );
+        this.chunk = new ArrayList<>( chunkSize );
+
+        this.type = type;
+        this.ctx = sourceCtx;
+        this.totalCount = estimatedTotalCount;
+        this.canEstimateProgress = totalCount > 0;
+        this.countDelta = canEstimateProgress ? Math.max( totalCount / 100, 1 ) : -1;
+    }
+
+
+    @Override
+    public AlgDataType getType() {
+        return type;
+    }
+
+
+    @Override
+    public boolean put( List<PolyValue> value ) throws PipeInterruptedException {
+        assert !value.isEmpty() : "Cannot pipe empty list.";
+        if ( finishedByConsumer ) {
+            return false; // prevent deadlock, since consumer does no longer consume
+        }
+        chunk.add( value );
+        if ( chunk.size() >= chunkSize ) {
+            flush();
+        } else if ( waitingConsumer != null ) {
+            chunkSize = Math.max( 1, chunkSize >> 1 );
+            flush();
+        }
+        count++;
+        if ( canEstimateProgress && count % countDelta == 0 ) {
+            ctx.updateProgress( getEstimatedProgress() );
+        }
+        return !finishedByConsumer;
+    }
+
+
+    /**
+     * Publishes the current chunk to the consumer, waiting for a free slot if necessary.
+     */
+    private void flush() throws PipeInterruptedException {
+        if ( Thread.interrupted() ) {
+            throw new PipeInterruptedException();
+        }
+        if ( publish( chunk ) ) {
+            chunk = new ArrayList<>( chunkSize );
+        } else {
+            chunk.clear();
+        }
+    }
+
+
+    /**
+     * @return false if the chunk was not published, since the consumer is no longer interested in any values
+     */
+    private boolean publish( List<List<PolyValue>> values ) throws PipeInterruptedException {
+        long t = tail.get();
+        int tries = 0;
+        boolean hadToWait = false;
+        while ( t - head.get() >= slots.length ) {
+            if ( finishedByConsumer ) {
+                return false;
+            }
+            hadToWait = true;
+            if ( tries++ < SPIN_TRIES ) {
+                Thread.onSpinWait();
+                continue;
+            }
+            waitingProducer = Thread.currentThread();
+            if ( t - head.get() >= slots.length && !finishedByConsumer ) {
+                LockSupport.parkNanos( this, PARK_NANOS );
+            }
+            waitingProducer = null;
+            if ( Thread.interrupted() ) {
+                throw new PipeInterruptedException();
+            }
+        }
+        if ( hadToWait ) {
+            chunkSize = Math.min( maxChunkSize, chunkSize << 1 ); // consumer is slower, larger chunks reduce the synchronization overhead
+        }
+        slots[(int) (t & mask)] = values;
+        tail.set( t + 1 );
+        Thread consumer = waitingConsumer;
+        if ( consumer != null ) {
+            LockSupport.unpark( consumer );
+        }
+        return true;
+    }
+
+
+    /**
+     * Takes the next chunk from the ring buffer, waiting until one is available.
+     */
+    private List<List<PolyValue>> take() throws PipeInterruptedException {
+        long h = head.get();
+        int tries = 0;
+        while ( tail.get() == h ) {
+            if ( tries++ < SPIN_TRIES ) {
+                Thread.onSpinWait();
+                continue;
+            }
+            waitingConsumer = Thread.currentThread();
+            if ( tail.get() == h ) {
+                LockSupport.parkNanos( this, PARK_NANOS );
+            }
+            waitingConsumer = null;
+            if ( Thread.interrupted() ) {
+                throw new PipeInterruptedException();
+            }
+        }
+        int index = (int) (h & mask);
+        List<List<PolyValue>> values = slots[index];
+        slots[index] = null;
+        head.set( h + 1 );
+        Thread producer = waitingProducer;
+        if ( producer != null ) {
+            LockSupport.unpark( producer );
+        }
+        return values;
+    }
+
+
+    @NotNull
+    @Override
+    public Iterator<List<PolyValue>> iterator() {
+        if ( startedIteration ) {
+            throw new IllegalStateException( "Cannot iterate more than once over the values of this pipe." );
+        }
+        startedIteration = true;
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if ( position < current.size() ) {
+                    return true;
+                }
+                while ( hasNext ) {
+                    current = take();
+                    position = 0;
+                    if ( current.isEmpty() ) {
+                        hasNext = false; // empty chunk is end marker
+                    } else {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+
+            @Override
+            public List<PolyValue> next() throws PipeInterruptedException {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                return current.get( position++ );
+            }
+        };
+    }
+
+
+    @Override
+    public void finishIteration() {
+        if ( !hasNext || finishedByConsumer ) {
+            return;
+        }
+        finishedByConsumer = true;
+        current = List.of();
+        // drop buffered chunks, the next time put is called by the producer, they get the signal to stop producing
+        for ( long h = head.get(), t = tail.get(); h < t; h++ ) {
+            slots[(int) (h & mask)] = null;
+        }
+        Thread producer = waitingProducer;
+        if ( producer != null ) {
+            LockSupport.unpark( producer );
+        }
+        ctx.updateProgress( 1 );
+    }
+
+
+    @Override
+    public double getEstimatedProgress() {
+        return canEstimateProgress ? (double) count / totalCount : -1;
+    }
+
+
+    @Override
+    public void close() throws Exception {
+        if ( closed || finishedByConsumer ) {
+            return;
+        }
+        closed = true;
+        if ( !chunk.isEmpty() && !publish( chunk ) ) {
+            return;
+        }
+        chunk = List.of();
+        publish( END_MARKER );
+    }
+
+}
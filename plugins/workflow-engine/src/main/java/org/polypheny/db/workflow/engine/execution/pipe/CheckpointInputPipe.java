@@ -29,11 +29,28 @@ public class CheckpointInputPipe implements InputPipe, AutoCloseable {
     private final CheckpointReader reader;
     private Iterator<List<PolyValue>> checkpointIterator;
     private final AlgDataType type;
+    private final int partition;
+    private final int partitionCount;
 
 
     public CheckpointInputPipe( CheckpointReader reader ) {
+        this( reader, 0, 1 );
+    }
+
+
+    /**
+     * Creates an input pipe that only returns the tuples of a single partition of the checkpoint.
+     *
+     * @param reader the reader of the checkpoint
+     * @param partition the index of the partition
+     * @param partitionCount the total number of partitions
+     * @see CheckpointReader#getArrayIterator(int, int)
+     */
+    public CheckpointInputPipe( CheckpointReader reader, int partition, int partitionCount ) {
         this.reader = reader;
         this.type = reader.getTupleType();
+        this.partition = partition;
+        this.partitionCount = partitionCount;
     }
 
 
@@ -49,7 +66,7 @@ public Iterator<List<PolyValue>> iterator() {
         if ( this.checkpointIterator != null ) {
             throw new IllegalStateException( "Cannot iterate more than once over the values of this pipe." );
         }
-        this.checkpointIterator = reader.getIterator();
+        this.checkpointIterator = partitionCount == 1 ? reader.getIterator() : reader.getIterator( partition, partitionCount );
         return new Iterator<>() {
             @Override
             public boolean hasNext() {
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.execution.pipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.workflow.dag.activities.Pipeable.PipeInterruptedException;
+
+/**
+ * OutputPipe used by a single instance of a partitioned activity execution.
+ * Tuples are collected locally and forwarded in chunks to the target pipe, which is shared among all partitions.
+ * This way, the partitions only need to synchronize once per chunk instead of once per tuple.
+ */
+public class PartitionOutputPipe implements OutputPipe {
+
+    public static final int CHUNK_SIZE = 256;
+
+    private final OutputPipe target;
+    private final List<List<PolyValue>> chunk = new ArrayList<>( CHUNK_SIZE );
+    private boolean isFinished = false;
+
+
+    /**
+     * Creates a new OutputPipe for a partition.
+     *
+     * @param target the shared target pipe. It is also used as the lock for synchronizing the partitions.
+     */
+    public PartitionOutputPipe( OutputPipe target ) {
+        this.target = target;
+    }
+
+
+    @Override
+    public boolean put( List<PolyValue> value ) throws PipeInterruptedException {
+        if ( isFinished ) {
+            return false;
+        }
+        chunk.add( value );
+        if ( chunk.size() >= CHUNK_SIZE ) {
+            flush();
+        }
+        return !isFinished;
+    }
+
+
+    private void flush() throws PipeInterruptedException {
+        if ( chunk.isEmpty() ) {
+            return;
+        }
+        synchronized ( target ) {
+            for ( List<PolyValue> value : chunk ) {
+                if ( !target.put( value ) ) {
+                    isFinished = true;
+                    break;
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+
+    @Override
+    public double getEstimatedProgress() {
+        synchronized ( target ) {
+            return target.getEstimatedProgress();
+        }
+    }
+
+
+    /**
+     * Forwards the remaining tuples to the target pipe.
+     * The target pipe itself is not closed, since it is shared with the other partitions.
+     */
+    @Override
+    public void close() throws PipeInterruptedException {
+        flush();
+    }
+
+
+    @Override
+    public AlgDataType getType() {
+        return target.getType();
+    }
+
+}
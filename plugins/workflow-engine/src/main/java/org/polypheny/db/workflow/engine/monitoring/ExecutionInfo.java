@@ -55,6 +55,19 @@ public class ExecutionInfo {
     private double combinedProgress; // only used by FusionExecutor, since we cannot specify the progress of individual activities
     @Getter
     private long tuplesWritten = -1;
+    @Getter
+    private long batchTuples; // tuples written in batches, counted together with batchNanos
+    @Getter
+    private long batchNanos; // time spent executing write batches
+    @Getter
+    @Setter
+    private long inputTupleCount = -1; // number of tuples in the input checkpoints of the submission, -1 if unknown
+    @Getter
+    @Setter
+    private double estimatedMillis = -1; // estimated duration of the execution by the optimizer
+    @Getter
+    @Setter
+    private double plannerCost = -1; // cumulative cost of the fused AlgNode tree, as estimated by the query planner
 
     private final CircularFifoQueue<String> log;
 
@@ -94,6 +107,39 @@ public void setTuplesWritten( long tuplesWritten ) {
     }
 
 
+    /**
+     * Adds tuples that were written in batches, together with the time spent executing the batches.
+     * Writers that do not measure their batches are ignored.
+     */
+    public synchronized void addBatchWrites( long tuples, long nanos ) {
+        if ( tuples <= 0 || nanos <= 0 ) {
+            return;
+        }
+        batchTuples += tuples;
+        batchNanos += nanos;
+    }
+
+
+    /**
+     * Returns the number of tuples written per second while executing write batches, or -1 if no batches were measured.
+     */
+    public synchronized double getBatchTuplesPerSecond() {
+        return batchNanos <= 0 ? -1 : batchTuples / (batchNanos / 1e9);
+    }
+
+
+    /**
+     * Returns the number of written tuples per second of execution, or -1 if no tuples were written.
+     */
+    public double getTuplesPerSecond() {
+        long nanos = getDurationNanos( ExecutionState.EXECUTING );
+        if ( tuplesWritten < 0 || nanos <= 0 ) {
+            return -1;
+        }
+        return tuplesWritten / (nanos / 1e9);
+    }
+
+
     public double getProgress() {
         if ( usesCombinedProgress() ) {
             return combinedProgress;
@@ -199,6 +245,10 @@ public synchronized ExecutionInfoModel toModel( boolean includeLog ) {
                 state,
                 isSuccess,
                 tuplesWritten,
+                getTuplesPerSecond(),
+                getBatchTuplesPerSecond(),
+                estimatedMillis,
+                plannerCost,
                 includeLog ? List.copyOf( log ) : null
         );
     }
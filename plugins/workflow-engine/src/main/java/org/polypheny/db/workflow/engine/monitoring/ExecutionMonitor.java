@@ -35,6 +35,7 @@
 import org.apache.commons.lang3.time.StopWatch;
 import org.polypheny.db.workflow.dag.Workflow;
 import org.polypheny.db.workflow.engine.execution.Executor.ExecutorType;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionInfo.ExecutionState;
 import org.polypheny.db.workflow.models.ExecutionMonitorModel;
 import org.polypheny.db.workflow.models.responses.WsResponse;
 import org.polypheny.db.workflow.models.responses.WsResponse.ProgressUpdateResponse;
@@ -51,11 +52,16 @@ public class ExecutionMonitor {
     private final StopWatch workflowDuration;
     private int totalCount = -1;
     private final Set<UUID> skippedActivities = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> reusedActivities = ConcurrentHashMap.newKeySet(); // activities whose checkpoints were restored from the CheckpointCache
 
     // needs to be updated manually
     private int successCount;
     private int failCount;
     private long tuplesWritten;
+    private long batchTuples; // tuples of the measured write batches
+    private long batchNanos; // time spent executing the measured write batches
+    private double estimatedMillis; // summed over all successful executions with an estimate
+    private double actualMillis; // summed over the same executions as estimatedMillis
     @Getter
     private boolean isOverallSuccess;
 
@@ -104,6 +110,15 @@ public void addSkippedActivity( UUID activityId ) {
     }
 
 
+    /**
+     * Registers an activity that was not executed, since its checkpoints could be reused.
+     * It counts as a successfully executed activity.
+     */
+    public void addReusedActivity( UUID activityId ) {
+        reusedActivities.add( activityId );
+    }
+
+
     public void setTotalCount( int totalCount ) {
         if ( totalCount < 0 ) {
             throw new IllegalArgumentException( "Total count was already set" );
@@ -180,6 +195,25 @@ public long getWorkflowDurationMillis() {
     }
 
 
+    /**
+     * Returns the throughput of the workflow as written tuples per second of the total workflow duration.
+     * The counts are only updated by {@link #toModel()}.
+     */
+    public double getTuplesPerSecond() {
+        long millis = getWorkflowDurationMillis();
+        return millis <= 0 ? 0 : tuplesWritten / (millis / 1000d);
+    }
+
+
+    /**
+     * Returns the throughput of the write batches as tuples per second of the time spent executing them, or -1 if no batches were measured.
+     * The counts are only updated by {@link #toModel()}.
+     */
+    public double getBatchTuplesPerSecond() {
+        return batchNanos <= 0 ? -1 : batchTuples / (batchNanos / 1e9);
+    }
+
+
     public ExecutionMonitorModel toModel() {
         updateCounts();
         return new ExecutionMonitorModel(
@@ -193,6 +227,10 @@ public ExecutionMonitorModel toModel() {
                 skippedActivities.size(),
                 getActivityCounts(),
                 tuplesWritten,
+                getTuplesPerSecond(),
+                getBatchTuplesPerSecond(),
+                estimatedMillis,
+                actualMillis,
                 workflowDuration.isStopped() ? isOverallSuccess : null
         );
     }
@@ -216,6 +254,10 @@ private void updateCounts() {
         int successCount = 0;
         int failCount = 0;
         long tuplesWritten = 0;
+        long batchTuples = 0;
+        long batchNanos = 0;
+        double estimatedMillis = 0;
+        double actualMillis = 0;
         for ( ExecutionInfo info : infos ) {
             if ( info.isDone() ) {
                 if ( info.isSuccess() ) {
@@ -224,14 +266,24 @@ private void updateCounts() {
                     if ( tuples > 0 ) {
                         tuplesWritten += tuples;
                     }
+                    batchTuples += info.getBatchTuples();
+                    batchNanos += info.getBatchNanos();
+                    if ( info.getEstimatedMillis() >= 0 ) {
+                        estimatedMillis += info.getEstimatedMillis();
+                        actualMillis += info.getDurationMillis( ExecutionState.EXECUTING );
+                    }
                 } else {
                     failCount += info.getActivities().size();
                 }
             }
         }
-        this.successCount = successCount;
+        this.successCount = successCount + reusedActivities.size();
         this.failCount = failCount;
         this.tuplesWritten = tuplesWritten;
+        this.batchTuples = batchTuples;
+        this.batchNanos = batchNanos;
+        this.estimatedMillis = estimatedMillis;
+        this.actualMillis = actualMillis;
     }
 
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.monitoring;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.polypheny.db.workflow.dag.Workflow;
+import org.polypheny.db.workflow.engine.execution.Executor.ExecutorType;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionInfo.ExecutionState;
+
+/**
+ * Collects the observed processing time per input tuple for each combination of activity type and executor type.
+ * The statistics are shared by all workflows and are used by the optimizer to estimate the cost of future executions.
+ * Since the executors do not measure individual activities, the duration of an execution is distributed evenly among its activities.
+ * <p>
+ * For fused executions, the cumulative cost estimated by the query planner is recorded as well.
+ * Relating it to the observed duration gives the time per planner cost unit, which converts planner costs into durations.
+ */
+public class ExecutionStatistics {
+
+    public static final ExecutionStatistics INSTANCE = new ExecutionStatistics();
+
+    private static final double SMOOTHING = 0.3; // weight of the most recent observation
+
+    private final Map<String, Double> nanosPerTuple = new ConcurrentHashMap<>();
+    private final Map<String, Double> plannerCostPerTuple = new ConcurrentHashMap<>();
+    private double nanosPerCostUnit = -1;
+
+
+    private ExecutionStatistics() {
+    }
+
+
+    /**
+     * Updates the statistics with the observed duration of a successful execution.
+     * Executions without known input tuple count are ignored.
+     */
+    public void record( Workflow workflow, ExecutionInfo info ) {
+        if ( !info.isSuccess() ) {
+            return;
+        }
+        List<String> activityTypes = info.getActivities().stream().map( n -> workflow.getActivity( n ).getType() ).toList();
+        record( activityTypes, info.getExecutorType(), info.getInputTupleCount(), info.getDurationNanos( ExecutionState.EXECUTING ), info.getPlannerCost() );
+    }
+
+
+    /**
+     * Updates the statistics with a single observation.
+     *
+     * @param activityTypes the types of the executed activities
+     * @param executorType the executor that was used
+     * @param tuples the number of input tuples
+     * @param nanos the duration of the execution
+     * @param plannerCost the cumulative planner cost of the fused tree or a negative value if the activities were not fused
+     */
+    public void record( List<String> activityTypes, ExecutorType executorType, long tuples, long nanos, double plannerCost ) {
+        if ( tuples <= 0 || nanos <= 0 || activityTypes.isEmpty() ) {
+            return;
+        }
+        double observed = (double) nanos / tuples / activityTypes.size();
+        for ( String activityType : activityTypes ) {
+            nanosPerTuple.merge( getKey( activityType, executorType ), observed, ExecutionStatistics::smooth );
+        }
+        if ( executorType == ExecutorType.FUSION && plannerCost > 0 ) {
+            double costPerTuple = plannerCost / tuples / activityTypes.size();
+            for ( String activityType : activityTypes ) {
+                plannerCostPerTuple.merge( activityType, costPerTuple, ExecutionStatistics::smooth );
+            }
+            synchronized ( this ) {
+                nanosPerCostUnit = nanosPerCostUnit < 0 ? nanos / plannerCost : smooth( nanosPerCostUnit, nanos / plannerCost );
+            }
+        }
+    }
+
+
+    /**
+     * Returns the smoothed processing time per input tuple in nanoseconds, or -1 if no execution has been observed yet.
+     */
+    public double getNanosPerTuple( String activityType, ExecutorType executorType ) {
+        return nanosPerTuple.getOrDefault( getKey( activityType, executorType ), -1d );
+    }
+
+
+    /**
+     * Returns the smoothed planner cost per input tuple of fused executions of the activity type, or -1 if it has never been fused.
+     */
+    public double getPlannerCostPerTuple( String activityType ) {
+        return plannerCostPerTuple.getOrDefault( activityType, -1d );
+    }
+
+
+    /**
+     * Returns the smoothed execution time per planner cost unit over all fused executions, or -1 if no fused execution has been observed yet.
+     */
+    public synchronized double getNanosPerCostUnit() {
+        return nanosPerCostUnit;
+    }
+
+
+    public synchronized void clear() {
+        nanosPerTuple.clear();
+        plannerCostPerTuple.clear();
+        nanosPerCostUnit = -1;
+    }
+
+
+    private static double smooth( double previous, double current ) {
+        return (1 - SMOOTHING) * previous + SMOOTHING * current;
+    }
+
+
+    private static String getKey( String activityType, ExecutorType executorType ) {
+        return activityType + "|" + executorType;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.scheduler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.polypheny.db.workflow.dag.Workflow;
+import org.polypheny.db.workflow.dag.activities.Activity.ActivityCategory;
+import org.polypheny.db.workflow.dag.activities.Activity.ContextConsumer;
+import org.polypheny.db.workflow.dag.activities.ActivityDef;
+import org.polypheny.db.workflow.dag.activities.ActivityWrapper;
+import org.polypheny.db.workflow.dag.activities.VariableWriter;
+import org.polypheny.db.workflow.dag.edges.DataEdge;
+import org.polypheny.db.workflow.dag.edges.Edge.EdgeState;
+import org.polypheny.db.workflow.models.ActivityConfigModel.CommonType;
+
+/**
+ * Computes the fingerprints of activity outputs.
+ * The fingerprint of a deterministic activity is derived from its type, resolved settings, variables and the fingerprints of its inputs.
+ * Two outputs with the same fingerprint are therefore expected to contain the same tuples.
+ * <p>
+ * Activities that read from or write to entities or external systems are not deterministic, since there is no way
+ * to detect changes to the underlying data. Their outputs get a random fingerprint for every execution,
+ * which still allows to reuse the outputs of successors while the same checkpoint is used as input.
+ */
+public final class ActivityFingerprint {
+
+    private static final String VOLATILE_PREFIX = "~";
+    private static final List<ActivityCategory> VOLATILE_CATEGORIES = List.of(
+            ActivityCategory.EXTRACT, ActivityCategory.LOAD, ActivityCategory.EXTERNAL, ActivityCategory.NESTED );
+
+
+    private ActivityFingerprint() {
+        // This is a utility class
+    }
+
+
+    /**
+     * Computes the fingerprint for each output of the activity.
+     * Should only be called when all inputs of the activity are resolved and its variables are stable.
+     *
+     * @param workflow the workflow containing the activity
+     * @param wrapper the activity
+     * @return a list containing one fingerprint per output
+     */
+    public static List<String> compute( Workflow workflow, ActivityWrapper wrapper ) {
+        ActivityDef def = wrapper.getDef();
+        int outCount = def.getOutPortTypes().length;
+        String base = isDeterministic( wrapper ) ? computeBase( workflow, wrapper ) : null;
+
+        List<String> fingerprints = new ArrayList<>( outCount );
+        for ( int i = 0; i < outCount; i++ ) {
+            fingerprints.add( base == null ?
+                    VOLATILE_PREFIX + UUID.randomUUID() :
+                    Hashing.sha256().hashString( base + i, StandardCharsets.UTF_8 ).toString() );
+        }
+        return fingerprints;
+    }
+
+
+    /**
+     * Whether the checkpoints of the activity can be reused by a different execution with the same fingerprints.
+     * This is not the case for activities that write variables, since skipping their execution would result in missing variables.
+     */
+    public static boolean isReusable( ActivityWrapper wrapper ) {
+        return isDeterministic( wrapper )
+                && !(wrapper.getActivity() instanceof VariableWriter)
+                && wrapper.getConfig().getCommonType() == CommonType.NONE
+                && wrapper.getDef().getOutPortTypes().length > 0;
+    }
+
+
+    public static boolean isVolatile( String fingerprint ) {
+        return fingerprint.startsWith( VOLATILE_PREFIX );
+    }
+
+
+    private static boolean isDeterministic( ActivityWrapper wrapper ) {
+        if ( wrapper.getActivity() instanceof ContextConsumer ) {
+            return false;
+        }
+        ActivityDef def = wrapper.getDef();
+        return VOLATILE_CATEGORIES.stream().noneMatch( def::hasCategory );
+    }
+
+
+    /**
+     * Returns the string that gets hashed for computing the fingerprints, or null if any input has no fingerprint.
+     */
+    private static String computeBase( Workflow workflow, ActivityWrapper wrapper ) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString( wrapper.getType(), StandardCharsets.UTF_8 );
+        try {
+            putSorted( hasher, wrapper.resolveSettings().getSerializableSettings() );
+        } catch ( Exception e ) {
+            return null;
+        }
+        putSorted( hasher, wrapper.getVariables().getAllVariables() );
+
+        for ( int i = 0; i < wrapper.getDef().getDynamicInPortCount( workflow.getInEdges( wrapper.getId() ) ); i++ ) {
+            DataEdge edge = workflow.getDataEdge( wrapper.getId(), i );
+            if ( edge == null || edge.getState() == EdgeState.INACTIVE ) {
+                hasher.putString( "-", StandardCharsets.UTF_8 );
+                continue;
+            }
+            List<String> inFingerprints = edge.getFrom().getOutFingerprints();
+            if ( inFingerprints == null || inFingerprints.size() <= edge.getFromPort() ) {
+                return null;
+            }
+            hasher.putString( inFingerprints.get( edge.getFromPort() ), StandardCharsets.UTF_8 );
+        }
+        return hasher.hash().toString();
+    }
+
+
+    private static void putSorted( Hasher hasher, Map<String, JsonNode> values ) {
+        for ( Entry<String, JsonNode> entry : new TreeMap<>( values ).entrySet() ) {
+            hasher.putString( entry.getKey(), StandardCharsets.UTF_8 ).putString( entry.getValue().toString(), StandardCharsets.UTF_8 );
+        }
+    }
+
+}
@@ -102,6 +102,10 @@ public synchronized ExecutionMonitor startExecution( Workflow workflow, StorageM
             monitor.setReadyForNextExecution();
             throw e;
         }
+        if ( submissions.isEmpty() && scheduler.isFinished() ) {
+            monitor.setReadyForNextExecution(); // all activities could reuse cached checkpoints
+            return monitor;
+        }
         if ( submissions.isEmpty() ) {
             throw new GenericRuntimeException( "At least one activity needs to be executable when submitting a workflow for execution" );
         }
@@ -50,6 +50,7 @@
 import org.polypheny.db.workflow.engine.monitoring.ExecutionInfo;
 import org.polypheny.db.workflow.engine.monitoring.ExecutionInfo.LogLevel;
 import org.polypheny.db.workflow.engine.monitoring.ExecutionMonitor;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionStatistics;
 import org.polypheny.db.workflow.engine.scheduler.optimizer.WorkflowOptimizer;
 import org.polypheny.db.workflow.engine.scheduler.optimizer.WorkflowOptimizer.SubmissionFactory;
 import org.polypheny.db.workflow.engine.scheduler.optimizer.WorkflowOptimizerImpl;
@@ -61,6 +62,7 @@
  * The scheduler takes a workflow and a (optional) target activitiy.
  * It determines what activities have to be executed in order to execute the target activity or all leaf nodes of the workflow, if no target was specified.
  * The scheduler uses the fact that activities with checkpoints do not have to be executed again (if the entire workflow should be executed again, it first needs to be reset).
+ * Activities whose fingerprint matches a checkpoint in the {@link org.polypheny.db.workflow.engine.storage.CheckpointCache} reuse that checkpoint instead of being executed.
  * <p>
  * We can assume that only a single thread (the GlobalScheduler coordinator) is accessing methods of a
  * WorkflowScheduler instance after its construction.
@@ -107,7 +109,7 @@ public WorkflowScheduler( Workflow workflow, StorageManager sm, @Nullable Nested
 
         workflow.validateStructure( sm, this.execDag );
         workflow.setState( WorkflowState.EXECUTING );
-        this.optimizer = new WorkflowOptimizerImpl( workflow, execDag );
+        this.optimizer = new WorkflowOptimizerImpl( workflow, execDag, sm );
 
     }
 
@@ -117,9 +119,9 @@ public List<ExecutionSubmission> startExecution() {
                 .filter( activity -> activity.getState() == ActivityState.QUEUED )
                 .count()
         );
+        finishLatch = new CountDownLatch( 1 );
         List<ExecutionSubmission> submissions = computeNextSubmissions();
         executionMonitor.forwardStates();
-        finishLatch = new CountDownLatch( 1 );
         return submissions;
     }
 
@@ -259,7 +261,10 @@ public List<ExecutionSubmission> handleExecutionResult( ExecutionResult result )
             result = new ExecutionResult( result.getSubmission(), new ExecutorException( "An error occurred while closing open transactions of executed activities", e ) );
         }
 
-        if ( !result.isSuccess() ) {
+        if ( result.isSuccess() ) {
+            ExecutionStatistics.INSTANCE.record( workflow, result.getSubmission().getInfo() );
+            assignFingerprints( result.getActivities(), result.getRootId() );
+        } else {
             sm.dropCheckpoints( result.getRootId() ); // remove any created checkpoints
             setErrorVariable( result.getActivities(), result.getException() );
         }
@@ -315,6 +320,15 @@ private void updateTransactions( ExecutionResult result ) throws TransactionExce
 
 
     private List<ExecutionSubmission> computeNextSubmissions() {
+        reuseCachedCheckpoints();
+        if ( remainingActivities.isEmpty() ) {
+            // all remaining activities could reuse cached checkpoints
+            if ( pendingCount == 0 ) {
+                setFinished();
+            }
+            return List.of();
+        }
+
         List<SubmissionFactory> factories = optimizer.computeNextTrees( maxWorkers - pendingCount, activePartition.commonType );
         if ( pendingCount == 0 && factories.isEmpty() ) {
             throw new IllegalStateException( "The optimizer is unable to determine the next activity to be executed" );
@@ -330,6 +344,70 @@ private List<ExecutionSubmission> computeNextSubmissions() {
     }
 
 
+    /**
+     * Computes the fingerprints of successfully executed activities.
+     * Only the root activity has checkpoints, whose fingerprints are passed on to the StorageManager.
+     */
+    private void assignFingerprints( Set<UUID> activities, UUID rootId ) {
+        for ( UUID n : TopologicalOrderIterator.of( GraphUtils.getInducedSubgraph( execDag, activities ) ) ) {
+            ActivityWrapper wrapper = workflow.getActivity( n );
+            List<String> fingerprints = ActivityFingerprint.compute( workflow, wrapper );
+            wrapper.setOutFingerprints( fingerprints );
+            if ( n.equals( rootId ) ) {
+                boolean isReusable = ActivityFingerprint.isReusable( wrapper ) && fingerprints.stream().noneMatch( ActivityFingerprint::isVolatile );
+                sm.setFingerprints( n, fingerprints, isReusable );
+            }
+        }
+    }
+
+
+    /**
+     * Restores the checkpoints of all activities that are ready to be executed and whose fingerprints match cached checkpoints.
+     * Those activities are then treated as if they were executed successfully, which might make further activities ready.
+     */
+    private void reuseCachedCheckpoints() {
+        if ( isAborted ) {
+            return;
+        }
+        boolean hasReused = true;
+        while ( hasReused && !remainingActivities.isEmpty() ) {
+            hasReused = false;
+            for ( UUID n : List.copyOf( remainingActivities ) ) {
+                if ( remainingActivities.contains( n ) && tryReuseCheckpoints( n ) ) {
+                    hasReused = true;
+                }
+            }
+        }
+    }
+
+
+    private boolean tryReuseCheckpoints( UUID activityId ) {
+        ActivityWrapper wrapper = workflow.getActivity( activityId );
+        if ( wrapper.getState() != ActivityState.QUEUED || activePartition.commonType != CommonType.NONE
+                || !ActivityFingerprint.isReusable( wrapper ) || !workflow.hasStableInVariables( activityId ) ) {
+            return false;
+        }
+        workflow.recomputeInVariables( activityId );
+        List<String> fingerprints = ActivityFingerprint.compute( workflow, wrapper );
+        if ( fingerprints.stream().anyMatch( ActivityFingerprint::isVolatile ) || !sm.reuseCheckpoints( activityId, fingerprints ) ) {
+            return false;
+        }
+
+        wrapper.setOutFingerprints( fingerprints );
+        wrapper.setOutTypePreview( sm.getCheckpointPreviewTypes( activityId ) );
+        remainingActivities.remove( activityId );
+        try {
+            activePartition.setResolved( activityId, true );
+        } catch ( TransactionException e ) {
+            throw new IllegalStateException( "Non-atomic partitions do not commit any transactions", e );
+        }
+        executionMonitor.addReusedActivity( activityId );
+        updateGraph( true, Set.of( activityId ), activityId, execDag );
+        updatePartitions();
+        return true;
+    }
+
+
     private void setErrorVariable( Set<UUID> activities, ExecutorException exception ) {
         ObjectNode value = exception.getVariableValue( activities );
         for ( UUID n : activities ) {
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.scheduler.optimizer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.polypheny.db.catalog.logistic.DataModel;
+import org.polypheny.db.util.graph.AttributedDirectedGraph;
+import org.polypheny.db.workflow.dag.Workflow;
+import org.polypheny.db.workflow.dag.activities.Activity.PortType;
+import org.polypheny.db.workflow.dag.activities.ActivityWrapper;
+import org.polypheny.db.workflow.dag.edges.DataEdge;
+import org.polypheny.db.workflow.dag.edges.Edge;
+import org.polypheny.db.workflow.dag.edges.Edge.EdgeState;
+import org.polypheny.db.workflow.engine.execution.Executor.ExecutorType;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionStatistics;
+import org.polypheny.db.workflow.engine.scheduler.ExecutionEdge;
+import org.polypheny.db.workflow.engine.storage.StorageManager;
+
+/**
+ * Estimates the duration of executing a set of activities with a given executor.
+ * Tuple counts are taken from existing checkpoints and propagated through activities that have not yet been executed,
+ * assuming that every activity outputs as many tuples as it receives.
+ * <p>
+ * The processing time per tuple is taken from previous executions if available (see {@link ExecutionStatistics}).
+ * For fused executions, the planner cost per tuple of the activity is converted into a duration using the time per cost unit
+ * observed over all fused executions. The planner cost is only known once an activity has been fused, since building the
+ * fused tree requires access to the input checkpoints.
+ * <p>
+ * Reading and writing checkpoints depends on where they are stored: checkpoints in the {@link StorageManager#LOCAL_CHECKPOINT_STORE}
+ * are cheap to write and scan, but must be materialized in a data store before a fused query can read them.
+ * <p>
+ * The default constants only need to be accurate relative to each other: materializing a checkpoint is expensive,
+ * while passing tuples through a pipe or within a fused query is cheap.
+ */
+class CostModel {
+
+    /**
+     * Assumed number of tuples produced by an activity without inputs, since its output size is only known after it was executed.
+     */
+    static final long DEFAULT_TUPLE_COUNT = 1000;
+    /**
+     * Fixed overhead of every submission for scheduling it and opening its transactions and checkpoints.
+     */
+    static final double SUBMISSION_OVERHEAD_MILLIS = 5;
+    /**
+     * Overhead per activity of a pipe submission, where each activity is executed in its own thread.
+     */
+    static final double PIPE_THREAD_MILLIS = 1;
+    /**
+     * Time to insert a tuple into a checkpoint in a data store, which goes through the query processor in batches.
+     */
+    static final double STORE_WRITE_NANOS = 2000;
+    /**
+     * Time to append a tuple to a checkpoint file of the local checkpoint store.
+     */
+    static final double LOCAL_WRITE_NANOS = 400;
+    /**
+     * Time to scan a tuple of a checkpoint in a data store.
+     */
+    static final double STORE_READ_NANOS = 500;
+    /**
+     * Time to scan a tuple of a checkpoint file of the local checkpoint store.
+     */
+    static final double LOCAL_READ_NANOS = 150;
+    /**
+     * Time to pass a tuple from one activity to the next through the queue of a pipe.
+     */
+    static final double PIPE_TRANSFER_NANOS = 100;
+    /**
+     * Time for an activity to process a tuple if it has not been observed yet.
+     */
+    static final double PROCESS_NANOS = 1000;
+    /**
+     * Time for a fused activity to process a tuple if it has not been observed yet. Fused activities are executed as a single optimized query.
+     */
+    static final double FUSED_PROCESS_NANOS = 500;
+
+    private final Workflow workflow;
+    private final StorageManager sm;
+    private final Map<UUID, Long> tupleCounts = new HashMap<>();
+
+
+    CostModel( Workflow workflow, StorageManager sm ) {
+        this.workflow = workflow;
+        this.sm = sm;
+    }
+
+
+    /**
+     * Estimates the duration of executing the given component as a single submission.
+     *
+     * @param subDag the graph containing the component
+     * @param component the activities of the submission
+     * @param executorType the executor that is used for the submission
+     * @return the estimated duration in milliseconds
+     */
+    double estimateMillis( AttributedDirectedGraph<UUID, ExecutionEdge> subDag, Set<UUID> component, ExecutorType executorType ) {
+        double nanos = 0;
+        for ( UUID n : component ) {
+            ActivityWrapper wrapper = workflow.getActivity( n );
+            long tuples = estimateTupleCount( n );
+            nanos += tuples * getProcessNanos( wrapper.getType(), executorType );
+
+            boolean isOutput = subDag.getOutwardEdges( n ).stream().noneMatch( e -> component.contains( e.getTarget() ) );
+            if ( executorType == ExecutorType.DEFAULT || executorType == ExecutorType.VARIABLE_WRITER || isOutput ) {
+                nanos += tuples * getWriteNanos( wrapper, executorType );
+            } else if ( executorType == ExecutorType.PIPE ) {
+                nanos += tuples * PIPE_TRANSFER_NANOS;
+            }
+        }
+        nanos += getReadNanos( component, executorType );
+
+        double millis = SUBMISSION_OVERHEAD_MILLIS + nanos / 1e6;
+        if ( executorType == ExecutorType.PIPE ) {
+            millis += component.size() * PIPE_THREAD_MILLIS;
+        }
+        return millis;
+    }
+
+
+    /**
+     * Returns the number of tuples in the existing checkpoints that are read by the given activities.
+     *
+     * @return the tuple count or -1 if any checkpoint count is unknown
+     */
+    long getInputTupleCount( Set<UUID> component ) {
+        long count = 0;
+        for ( UUID n : component ) {
+            for ( Edge edge : workflow.getInEdges( n ) ) {
+                if ( edge instanceof DataEdge dataEdge && edge.getState() != EdgeState.INACTIVE && !component.contains( dataEdge.getFrom().getId() ) ) {
+                    long tuples = sm.getTupleCount( dataEdge.getFrom().getId(), dataEdge.getFromPort() );
+                    if ( tuples < 0 ) {
+                        return -1;
+                    }
+                    count += tuples;
+                }
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Estimates the number of tuples the activity processes, which is also used as the estimated size of each of its outputs.
+     */
+    long estimateTupleCount( UUID activityId ) {
+        Long cached = tupleCounts.get( activityId );
+        if ( cached != null ) {
+            return cached;
+        }
+        long count = 0;
+        boolean hasInputs = false;
+        for ( Edge edge : workflow.getInEdges( activityId ) ) {
+            if ( edge instanceof DataEdge dataEdge && edge.getState() != EdgeState.INACTIVE ) {
+                hasInputs = true;
+                UUID source = dataEdge.getFrom().getId();
+                long tuples = sm.getTupleCount( source, dataEdge.getFromPort() );
+                count += tuples >= 0 ? tuples : estimateTupleCount( source );
+            }
+        }
+        if ( !hasInputs ) {
+            count = DEFAULT_TUPLE_COUNT;
+        }
+        tupleCounts.put( activityId, count );
+        return count;
+    }
+
+
+    /**
+     * Returns the time per tuple for writing all outputs of the activity to their checkpoints.
+     * A fused tree only writes the first output of its root.
+     */
+    private double getWriteNanos( ActivityWrapper wrapper, ExecutorType executorType ) {
+        int outputCount = executorType == ExecutorType.FUSION ? 1 : wrapper.getDef().getOutPortTypes().length;
+        if ( outputCount == 0 ) {
+            return STORE_WRITE_NANOS; // activities without outputs usually write to a data store
+        }
+        double nanos = 0;
+        for ( int i = 0; i < outputCount; i++ ) {
+            nanos += isLocalStore( wrapper, i ) ? LOCAL_WRITE_NANOS : STORE_WRITE_NANOS;
+        }
+        return nanos;
+    }
+
+
+    /**
+     * Returns the time for reading all checkpoints that are inputs of the component.
+     * Checkpoints that do not exist yet are assumed to be stored where their activity will write them.
+     */
+    private double getReadNanos( Set<UUID> component, ExecutorType executorType ) {
+        double nanos = 0;
+        for ( UUID n : component ) {
+            for ( Edge edge : workflow.getInEdges( n ) ) {
+                if ( edge instanceof DataEdge dataEdge && edge.getState() != EdgeState.INACTIVE && !component.contains( dataEdge.getFrom().getId() ) ) {
+                    UUID source = dataEdge.getFrom().getId();
+                    int port = dataEdge.getFromPort();
+                    long tuples = sm.getTupleCount( source, port );
+                    if ( tuples < 0 ) {
+                        tuples = estimateTupleCount( source );
+                    }
+                    boolean isLocal = sm.hasCheckpoint( source, port ) ? sm.isLocalCheckpoint( source, port ) : isLocalStore( dataEdge.getFrom(), port );
+                    if ( !isLocal ) {
+                        nanos += tuples * STORE_READ_NANOS;
+                    } else if ( executorType == ExecutorType.FUSION ) {
+                        nanos += tuples * (LOCAL_READ_NANOS + STORE_WRITE_NANOS + STORE_READ_NANOS); // materialization
+                    } else {
+                        nanos += tuples * LOCAL_READ_NANOS;
+                    }
+                }
+            }
+        }
+        return nanos;
+    }
+
+
+    /**
+     * Returns true if the specified output of the activity will be written to the local checkpoint store.
+     */
+    private boolean isLocalStore( ActivityWrapper wrapper, int outputIdx ) {
+        PortType[] portTypes = wrapper.getDef().getOutPortTypes();
+        if ( outputIdx >= portTypes.length || portTypes[outputIdx].getDataModel() != DataModel.RELATIONAL ) {
+            return false; // only relational checkpoints can be stored locally
+        }
+        String store = wrapper.getConfig().getPreferredStore( outputIdx );
+        if ( store == null || store.isEmpty() ) {
+            store = sm.getDefaultStore( DataModel.RELATIONAL );
+        }
+        return StorageManager.LOCAL_CHECKPOINT_STORE.equals( store );
+    }
+
+
+    private static double getProcessNanos( String activityType, ExecutorType executorType ) {
+        ExecutionStatistics statistics = ExecutionStatistics.INSTANCE;
+        if ( executorType == ExecutorType.FUSION ) {
+            double plannerCost = statistics.getPlannerCostPerTuple( activityType );
+            double nanosPerCostUnit = statistics.getNanosPerCostUnit();
+            if ( plannerCost >= 0 && nanosPerCostUnit >= 0 ) {
+                return plannerCost * nanosPerCostUnit;
+            }
+        }
+        double observed = statistics.getNanosPerTuple( activityType, executorType );
+        if ( observed >= 0 ) {
+            return observed;
+        }
+        return executorType == ExecutorType.FUSION ? FUSED_PROCESS_NANOS : PROCESS_NANOS;
+    }
+
+}
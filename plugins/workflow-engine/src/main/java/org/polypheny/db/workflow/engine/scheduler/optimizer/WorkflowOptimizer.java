@@ -47,13 +47,15 @@ public abstract class WorkflowOptimizer {
 
     final Workflow workflow;
     final AttributedDirectedGraph<UUID, ExecutionEdge> execDag;
+    final StorageManager sm;
     final boolean isFusionEnabled;
     final boolean isPipelineEnabled;
 
 
-    protected WorkflowOptimizer( Workflow workflow, AttributedDirectedGraph<UUID, ExecutionEdge> execDag ) {
+    protected WorkflowOptimizer( Workflow workflow, AttributedDirectedGraph<UUID, ExecutionEdge> execDag, StorageManager sm ) {
         this.workflow = workflow;
         this.execDag = execDag;
+        this.sm = sm;
         WorkflowConfigModel config = workflow.getConfig();
         isFusionEnabled = config.isFusionEnabled();
         isPipelineEnabled = config.isPipelineEnabled();
@@ -95,6 +97,9 @@ boolean canFuse( UUID activityId ) {
 
     boolean canPipe( UUID activityId ) {
         ActivityWrapper wrapper = workflow.getActivity( activityId );
+        if ( wrapper.getConfig().getParallelism() > 1 ) {
+            return false; // partitioned execution is only possible with the DefaultExecutor
+        }
         if ( wrapper.getActivity() instanceof Pipeable pipeable ) {
             return pipeable.canPipe( wrapper.getInTypePreview(), wrapper.getSettingsPreview() ).orElse( false );
         }
@@ -141,6 +146,8 @@ public static class SubmissionFactory {
         private final Set<UUID> activities;
         private final ExecutorType executorType;
         private final CommonType commonType;
+        private double estimatedMillis = -1;
+        private long inputTupleCount = -1;
 
 
         public SubmissionFactory( AttributedDirectedGraph<UUID, ExecutionEdge> tree, Set<UUID> activities, ExecutorType executorType, CommonType commonType ) {
@@ -160,9 +167,23 @@ public SubmissionFactory( UUID activity, ExecutorType executorType, CommonType c
         }
 
 
+        /**
+         * Attaches the estimate of the optimizer, which gets recorded in the ExecutionInfo of the submission.
+         *
+         * @param estimatedMillis the estimated duration of the execution
+         * @param inputTupleCount the number of tuples in the input checkpoints, or -1 if unknown
+         */
+        public void setEstimate( double estimatedMillis, long inputTupleCount ) {
+            this.estimatedMillis = estimatedMillis;
+            this.inputTupleCount = inputTupleCount;
+        }
+
+
         public ExecutionSubmission create( StorageManager sm, Workflow wf ) {
             UUID root = getRootActivity(); // root of inverted tree
             ExecutionInfo info = new ExecutionInfo( activities, root, executorType, wf.getConfig().getLogCapacity() );
+            info.setEstimatedMillis( estimatedMillis );
+            info.setInputTupleCount( inputTupleCount );
             activities.forEach( n -> wf.getActivity( n ).setExecutionInfo( info ) );
             Executor executor = switch ( executorType ) {
                 case DEFAULT -> new DefaultExecutor( sm, wf, root, info );
@@ -39,31 +39,46 @@
 import org.polypheny.db.workflow.engine.scheduler.ExecutionEdge;
 import org.polypheny.db.workflow.engine.scheduler.ExecutionEdge.ExecutionEdgeFactory;
 import org.polypheny.db.workflow.engine.scheduler.GraphUtils;
+import org.polypheny.db.workflow.engine.storage.StorageManager;
 import org.polypheny.db.workflow.models.ActivityConfigModel.CommonType;
 
 public class WorkflowOptimizerImpl extends WorkflowOptimizer {
 
 
-    public WorkflowOptimizerImpl( Workflow workflow, AttributedDirectedGraph<UUID, ExecutionEdge> execDag ) {
-        super( workflow, execDag );
+    public WorkflowOptimizerImpl( Workflow workflow, AttributedDirectedGraph<UUID, ExecutionEdge> execDag, StorageManager sm ) {
+        super( workflow, execDag, sm );
     }
 
 
     @Override
     public List<SubmissionFactory> computeNextTrees( CommonType commonType ) {
-        ColoredDag colored = getColoredSubDag( commonType, true );
+        CostModel costModel = new CostModel( workflow, sm );
+
+        // candidates are ordered by preference, in case their estimated costs are equal
+        List<ColoredDag> candidates = new ArrayList<>();
+        candidates.add( getColoredSubDag( commonType, true, true ) );
         if ( isFusionEnabled ) {
-            ColoredDag alternative = getColoredSubDag( commonType, false );
-            if ( getSkippedCheckpointsCount( alternative ) > getSkippedCheckpointsCount( colored ) ) {
-                // while we do prefer fusion over pipelining, a higher number of skipped checkpoints is always better
-                colored = alternative;
+            candidates.add( getColoredSubDag( commonType, false, true ) );
+        }
+        if ( isFusionEnabled || isPipelineEnabled ) {
+            candidates.add( getColoredSubDag( commonType, true, false ) ); // materialize every intermediate result
+        }
+
+        ColoredDag colored = null;
+        double minCost = Double.MAX_VALUE;
+        for ( ColoredDag candidate : candidates ) {
+            double cost = estimateMillis( candidate, costModel );
+            if ( cost < minCost ) {
+                colored = candidate;
+                minCost = cost;
             }
         }
-        return createFactories( colored.left, getFirstConnectedComponents( colored.left, colored.middle, colored.right ), commonType );
+        assert colored != null;
+        return createFactories( colored.left, getFirstConnectedComponents( colored.left, colored.middle, colored.right ), commonType, costModel );
     }
 
 
-    private ColoredDag getColoredSubDag( CommonType commonType, boolean fuseBeforePipe ) {
+    private ColoredDag getColoredSubDag( CommonType commonType, boolean fuseBeforePipe, boolean skipCheckpoints ) {
         AttributedDirectedGraph<UUID, ExecutionEdge> subDag = AttributedDirectedGraph.create( new ExecutionEdgeFactory() );
         Map<UUID, NodeColor> nodeColors = new HashMap<>();
         Map<ExecutionEdge, EdgeColor> edgeColors = new HashMap<>();
@@ -71,6 +86,9 @@ private ColoredDag getColoredSubDag( CommonType commonType, boolean fuseBeforePi
 
         // order determines priority if an activity implements multiple interfaces
         determineVariableWriters( subDag, nodeColors, edgeColors );
+        if ( !skipCheckpoints ) {
+            return ColoredDag.of( subDag, nodeColors, edgeColors );
+        }
         if ( fuseBeforePipe && isFusionEnabled ) {
             determineFusions( subDag, nodeColors, edgeColors );
         }
@@ -187,8 +205,46 @@ private void determinePipes( AttributedDirectedGraph<UUID, ExecutionEdge> subDag
     }
 
 
-    private int getSkippedCheckpointsCount( ColoredDag colored ) {
-        return (int) colored.right.values().stream().filter( c -> c == EdgeColor.FUSED || c == EdgeColor.PIPED ).count();
+    /**
+     * Estimates the total duration of executing all activities of the colored subDag, not only the ones that can be submitted next.
+     */
+    private double estimateMillis( ColoredDag colored, CostModel costModel ) {
+        double millis = 0;
+        for ( Pair<Set<UUID>, NodeColor> component : getAllComponents( colored.left, colored.middle, colored.right ) ) {
+            millis += costModel.estimateMillis( colored.left, component.left, component.right.executorType );
+        }
+        return millis;
+    }
+
+
+    /**
+     * Partitions the activities that are not yet executing into the components that would be executed as a single submission.
+     */
+    private List<Pair<Set<UUID>, NodeColor>> getAllComponents( AttributedDirectedGraph<UUID, ExecutionEdge> subDag, Map<UUID, NodeColor> nodeColors, Map<ExecutionEdge, EdgeColor> edgeColors ) {
+        List<Pair<Set<UUID>, NodeColor>> components = new ArrayList<>();
+        Set<UUID> visited = new HashSet<>();
+        for ( UUID start : subDag.vertexSet() ) {
+            NodeColor color = nodeColors.get( start );
+            if ( visited.contains( start ) || color.executorType == null ) {
+                continue;
+            }
+            Set<UUID> component = new HashSet<>();
+            Queue<UUID> open = new LinkedList<>( List.of( start ) );
+            while ( !open.isEmpty() ) {
+                UUID n = open.remove();
+                if ( !visited.add( n ) ) {
+                    continue;
+                }
+                component.add( n );
+                if ( color.compatibleEdge == null ) {
+                    continue;
+                }
+                subDag.getInwardEdges( n ).stream().filter( e -> edgeColors.get( e ) == color.compatibleEdge ).forEach( e -> open.add( e.getSource() ) );
+                subDag.getOutwardEdges( n ).stream().filter( e -> edgeColors.get( e ) == color.compatibleEdge ).forEach( e -> open.add( e.getTarget() ) );
+            }
+            components.add( Pair.of( component, color ) );
+        }
+        return components;
     }
 
 
@@ -262,9 +318,9 @@ private List<Pair<Set<UUID>, NodeColor>> getFirstConnectedComponents( Attributed
     }
 
 
-    private List<SubmissionFactory> createFactories( AttributedDirectedGraph<UUID, ExecutionEdge> subDag, List<Pair<Set<UUID>, NodeColor>> components, CommonType commonType ) {
-        PriorityQueue<Pair<Integer, SubmissionFactory>> queue
-                = new PriorityQueue<>( Comparator.comparingInt( obj -> (int) ((Pair<?, ?>) obj).getLeft() ).reversed() );
+    private List<SubmissionFactory> createFactories( AttributedDirectedGraph<UUID, ExecutionEdge> subDag, List<Pair<Set<UUID>, NodeColor>> components, CommonType commonType, CostModel costModel ) {
+        PriorityQueue<Pair<Double, SubmissionFactory>> queue
+                = new PriorityQueue<>( Comparator.comparingDouble( obj -> (double) ((Pair<?, ?>) obj).getLeft() ).reversed() );
 
         for ( Pair<Set<UUID>, NodeColor> component : components ) {
             SubmissionFactory factory = new SubmissionFactory(
@@ -272,7 +328,9 @@ private List<SubmissionFactory> createFactories( AttributedDirectedGraph<UUID, E
                     component.left,
                     component.right.executorType,
                     commonType );
-            queue.add( Pair.of( factory.getActivities().size(), factory ) ); // larger trees have higher priority
+            double millis = costModel.estimateMillis( subDag, component.left, component.right.executorType );
+            factory.setEstimate( millis, costModel.getInputTupleCount( component.left ) );
+            queue.add( Pair.of( millis, factory ) ); // longer running submissions have higher priority
         }
 
         List<SubmissionFactory> result = new ArrayList<>();
@@ -19,10 +19,14 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.entity.logical.LogicalTable;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.catalog.snapshot.Snapshot;
 import org.polypheny.db.processing.ImplementationContext.ExecutedContext;
 import org.polypheny.db.processing.QueryContext;
 import org.polypheny.db.processing.QueryContext.ParsedQueryContext;
@@ -30,6 +34,12 @@
 import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.util.Pair;
 
+/**
+ * Writes tuples with a parameterized query in batches.
+ * If the target table is neither partitioned nor replicated, the query is prepared only once and the implementation is
+ * re-executed for every batch. Otherwise, it is prepared again for every batch, as routing depends on the parameter values.
+ * Batches are executed on the calling thread, since the statement and its transaction must not be shared between threads.
+ */
 @Slf4j
 public class BatchWriter implements AutoCloseable {
 
@@ -43,6 +53,13 @@ public class BatchWriter implements AutoCloseable {
 
     private final Statement writeStatement;
     private final Pair<ParsedQueryContext, AlgRoot> parsed;
+    private PolyImplementation implementation; // prepared with the first batch
+    private Boolean reusable; // whether the implementation of the first batch can be executed for later batches
+
+    @Getter
+    private long writtenCount = 0;
+    @Getter
+    private long executionNanos = 0; // time spent executing batches
 
 
     public BatchWriter( QueryContext context, Statement statement, Map<Long, AlgDataType> paramTypes ) {
@@ -65,31 +82,63 @@ public void write( Map<Long, PolyValue> valueMap ) {
     }
 
 
+    /**
+     * Returns the number of tuples written per second while executing batches, or 0 if nothing was written yet.
+     */
+    public double getTuplesPerSecond() {
+        return executionNanos == 0 ? 0 : writtenCount / (executionNanos / 1e9);
+    }
+
+
     private void executeBatch() {
+        long start = System.nanoTime();
         int batchSize = paramValues.size();
 
         writeStatement.getDataContext().setParameterTypes( paramTypes );
         writeStatement.getDataContext().setParameterValues( paramValues );
 
-        // create new implementation for each batch
-        ExecutedContext executedContext = QueryUtils.executeQuery( parsed, writeStatement );
-
-        if ( executedContext.getException().isPresent() ) {
-            Throwable e = executedContext.getException().get();
-            String msg = e.getMessage();
-            if ( e.getCause() != null ) {
-                msg += ". Cause: " + e.getCause().getMessage();
+        long changedCount;
+        try {
+            if ( implementation == null || !isReusable() ) {
+                implementation = writeStatement.getQueryProcessor().prepareQuery( parsed.right, false );
             }
-            throw new GenericRuntimeException( "An error occurred while writing a batch: " + msg, e );
+            // the implementation reads the parameter values from the data context, so a reusable one can be executed again for every batch
+            ExecutedContext executedContext = QueryUtils.executeQuery( parsed, writeStatement, implementation );
+            if ( executedContext.getException().isPresent() ) {
+                Throwable e = executedContext.getException().get();
+                String msg = e.getMessage();
+                if ( e.getCause() != null ) {
+                    msg += ". Cause: " + e.getCause().getMessage();
+                }
+                throw new GenericRuntimeException( "An error occurred while writing a batch: " + msg, e );
+            }
+            List<List<PolyValue>> results = executedContext.getIterator().getAllRowsAndClose();
+            changedCount = results.size() == 1 ? results.get( 0 ).get( 0 ).asNumber().longValue() : 0;
+        } finally {
+            paramValues.clear();
+            writeStatement.getDataContext().resetParameterValues();
         }
-        List<List<PolyValue>> results = executedContext.getIterator().getAllRowsAndClose();
-        long changedCount = results.size() == 1 ? results.get( 0 ).get( 0 ).asNumber().longValue() : 0;
+
         if ( changedCount != batchSize ) {
             log.warn( "Unable to write all values of the batch: {} of {} tuples were written", changedCount, batchSize );
         }
+        writtenCount += changedCount;
+        executionNanos += System.nanoTime() - start;
+    }
 
-        paramValues.clear();
-        writeStatement.getDataContext().resetParameterValues();
+
+    /**
+     * The router reads the parameter values when the query is prepared, e.g. to assign the rows of a partitioned table to its partitions.
+     * A prepared implementation can therefore only be reused for a table with a single partition and a single placement.
+     */
+    private boolean isReusable() {
+        if ( reusable == null ) {
+            Snapshot snapshot = writeStatement.getTransaction().getSnapshot();
+            reusable = parsed.right.alg.getEntity() instanceof LogicalTable table
+                    && snapshot.alloc().getPlacementsFromLogical( table.id ).size() == 1
+                    && snapshot.alloc().getPartitionProperty( table.id ).map( property -> !property.isPartitioned ).orElse( false );
+        }
+        return reusable;
     }
 
 
@@ -98,6 +147,9 @@ public void close() throws Exception {
         if ( !paramValues.isEmpty() ) {
             executeBatch();
         }
+        if ( writtenCount > 0 ) {
+            log.debug( "Wrote {} tuples at {} tuples/s", writtenCount, Math.round( getTuplesPerSecond() ) );
+        }
     }
 
 }
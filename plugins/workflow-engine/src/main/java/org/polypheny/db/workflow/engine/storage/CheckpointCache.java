@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nullable;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.catalog.entity.logical.LogicalEntity;
+import org.polypheny.db.config.RuntimeConfig;
+
+/**
+ * A least recently used cache of checkpoints that are no longer attached to an activity, but can be reused by any
+ * activity output with the same fingerprint.
+ * <p>
+ * Checkpoints that are stored in a data store belong to the namespaces of their session. They can therefore only be
+ * reused within the session that created them and are evicted when that session is closed.
+ * Checkpoint files are handed over to the cache when their session is closed and can be reused by any other session.
+ * The number of cached checkpoints is limited by {@link RuntimeConfig#WORKFLOWS_CHECKPOINT_CACHE_SIZE}.
+ */
+@Slf4j
+public class CheckpointCache {
+
+    public static final CheckpointCache INSTANCE = new CheckpointCache();
+
+    private final LinkedHashMap<String, CachedCheckpoint> checkpoints = new LinkedHashMap<>( 16, 0.75f, true );
+
+
+    private CheckpointCache() {
+    }
+
+
+    public static int getCapacity() {
+        return Math.max( RuntimeConfig.WORKFLOWS_CHECKPOINT_CACHE_SIZE.getInteger(), 0 );
+    }
+
+
+    /**
+     * Adds the checkpoint to the cache. Any checkpoint with the same fingerprint is evicted, as well as the least
+     * recently used checkpoints if the capacity of the cache is exceeded.
+     *
+     * @param checkpoint the checkpoint to cache. From now on, the cache is responsible for dropping it.
+     */
+    public void put( CachedCheckpoint checkpoint ) {
+        List<CachedCheckpoint> evicted = new ArrayList<>();
+        synchronized ( this ) {
+            CachedCheckpoint previous = checkpoints.put( checkpoint.getFingerprint(), checkpoint );
+            if ( previous != null ) {
+                evicted.add( previous );
+            }
+            Iterator<CachedCheckpoint> it = checkpoints.values().iterator();
+            while ( checkpoints.size() > getCapacity() && it.hasNext() ) {
+                evicted.add( it.next() );
+                it.remove();
+            }
+        }
+        evicted.forEach( CheckpointCache::drop ); // dropping might take a while, we do not want to block the cache
+    }
+
+
+    /**
+     * Removes the checkpoint with the given fingerprint from the cache and returns it, if it can be reused by the given session.
+     *
+     * @param fingerprint the fingerprint of the requested activity output
+     * @param sessionId the session that wants to reuse the checkpoint
+     * @return the cached checkpoint, or null if there is no reusable checkpoint. The caller is now responsible for dropping it.
+     */
+    @Nullable
+    public synchronized CachedCheckpoint take( String fingerprint, UUID sessionId ) {
+        CachedCheckpoint checkpoint = checkpoints.get( fingerprint );
+        if ( checkpoint == null || !checkpoint.isAvailableTo( sessionId ) ) {
+            return null;
+        }
+        checkpoints.remove( fingerprint );
+        return checkpoint;
+    }
+
+
+    /**
+     * Evicts the checkpoint with the given fingerprint from the cache, if there is any.
+     */
+    public void evict( String fingerprint ) {
+        CachedCheckpoint checkpoint;
+        synchronized ( this ) {
+            checkpoint = checkpoints.remove( fingerprint );
+        }
+        if ( checkpoint != null ) {
+            drop( checkpoint );
+        }
+    }
+
+
+    /**
+     * Must be called when a session is closed.
+     * Its checkpoint files are handed over to the cache by the given function, all other checkpoints are evicted.
+     *
+     * @param sessionId the session that is closed
+     * @param share returns a shared copy of a checkpoint file that no longer depends on the session
+     */
+    public void release( UUID sessionId, UnaryOperator<CachedCheckpoint> share ) {
+        List<CachedCheckpoint> owned = new ArrayList<>();
+        synchronized ( this ) {
+            for ( Iterator<Entry<String, CachedCheckpoint>> it = checkpoints.entrySet().iterator(); it.hasNext(); ) {
+                CachedCheckpoint checkpoint = it.next().getValue();
+                if ( sessionId.equals( checkpoint.getSessionId() ) ) {
+                    owned.add( checkpoint );
+                    it.remove();
+                }
+            }
+        }
+        for ( CachedCheckpoint checkpoint : owned ) {
+            if ( checkpoint.getFile() == null ) {
+                drop( checkpoint );
+                continue;
+            }
+            try {
+                put( share.apply( checkpoint ) );
+            } catch ( Exception e ) {
+                log.warn( "Unable to share cached checkpoint file {}", checkpoint.getFile(), e );
+                drop( checkpoint );
+            }
+        }
+    }
+
+
+    public synchronized int size() {
+        return checkpoints.size();
+    }
+
+
+    private static void drop( CachedCheckpoint checkpoint ) {
+        try {
+            checkpoint.getDropper().run();
+        } catch ( Exception e ) {
+            log.warn( "Unable to drop cached checkpoint {}", checkpoint.getFingerprint(), e );
+        }
+    }
+
+
+    /**
+     * A checkpoint of an activity output that is stored in the cache.
+     */
+    @Value
+    public static class CachedCheckpoint {
+
+        String fingerprint;
+        @Nullable
+        UUID sessionId; // null if the checkpoint is shared between all sessions
+        @Nullable
+        LogicalEntity entity; // null for checkpoint files
+        CheckpointMetadata metadata;
+        @Nullable
+        Path file;
+        Runnable dropper;
+
+
+        public boolean isAvailableTo( UUID sessionId ) {
+            return this.sessionId == null || this.sessionId.equals( sessionId );
+        }
+
+    }
+
+}
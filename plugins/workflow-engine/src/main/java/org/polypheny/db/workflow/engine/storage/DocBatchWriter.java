@@ -68,6 +68,7 @@ public class DocBatchWriter implements AutoCloseable {
     private boolean isJdbc = true;
     private JdbcSchema jdbcSchema;
     private String insertQuery;
+    private PreparedStatement preparedInsert; // reused for all batches
 
 
     public DocBatchWriter( LogicalCollection collection, Transaction transaction ) {
@@ -187,17 +188,21 @@ public JdbcTable getTable( AlgNode node ) {
             insertQuery = "INSERT INTO \"" + table.namespaceName + "\".\"" + table.name + "\" (" + QueryUtils.quoteAndJoin( table.getColumnNames() ) + ") VALUES (?, ?)";
         }
 
-        ConnectionHandler handler = jdbcSchema.getConnectionHandler( statement.getDataContext() );
         List<String> docIdList = List.of( DocumentType.DOCUMENT_ID );
-        try ( PreparedStatement stmt = handler.prepareStatement( insertQuery ) ) {
+        try {
+            if ( preparedInsert == null ) {
+                ConnectionHandler handler = jdbcSchema.getConnectionHandler( statement.getDataContext() );
+                preparedInsert = handler.prepareStatement( insertQuery );
+            }
             for ( Map<Long, PolyValue> map : paramValues ) {
                 PolyDocument doc = map.get( 0L ).asDocument();
                 ActivityUtils.addDocId( doc );
-                stmt.setString( 1, RefactorFunctions.fromDocument( RefactorFunctions.get( doc, Activity.docId ) ).value );
-                stmt.setString( 2, RefactorFunctions.fromDocument( RefactorFunctions.removeNames( doc, docIdList ) ).value );
-                stmt.addBatch();
+                preparedInsert.setString( 1, RefactorFunctions.fromDocument( RefactorFunctions.get( doc, Activity.docId ) ).value );
+                preparedInsert.setString( 2, RefactorFunctions.fromDocument( RefactorFunctions.removeNames( doc, docIdList ) ).value );
+                preparedInsert.addBatch();
             }
-            stmt.executeBatch();
+            preparedInsert.executeBatch();
+            preparedInsert.clearBatch();
         } catch ( SQLException e ) {
             throw new GenericRuntimeException( e );
         }
@@ -233,9 +238,15 @@ private void executePreparedBatch() {
 
     @Override
     public void close() throws Exception {
-        if ( !paramValues.isEmpty() ) {
-            executeBatch();
-            //executePreparedBatch();
+        try {
+            if ( !paramValues.isEmpty() ) {
+                executeBatch();
+                //executePreparedBatch();
+            }
+        } finally {
+            if ( preparedInsert != null ) {
+                preparedInsert.close();
+            }
         }
     }
 
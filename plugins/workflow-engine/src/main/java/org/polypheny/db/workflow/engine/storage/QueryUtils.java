@@ -117,7 +117,14 @@ public static Pair<ParsedQueryContext, AlgRoot> parseAndTranslateQuery( QueryCon
 
 
     public static ExecutedContext executeQuery( Pair<ParsedQueryContext, AlgRoot> parsed, Statement statement ) {
-        PolyImplementation implementation = statement.getQueryProcessor().prepareQuery( parsed.right, false );
+        return executeQuery( parsed, statement, statement.getQueryProcessor().prepareQuery( parsed.right, false ) );
+    }
+
+
+    /**
+     * Executes an implementation of the parsed query that was already prepared, e.g. to execute a parameterized query again with new parameter values.
+     */
+    public static ExecutedContext executeQuery( Pair<ParsedQueryContext, AlgRoot> parsed, Statement statement, PolyImplementation implementation ) {
         return new ImplementationContext( implementation, parsed.left, statement, null ).execute( statement );
     }
 
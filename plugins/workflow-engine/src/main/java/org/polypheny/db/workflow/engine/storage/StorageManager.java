@@ -46,6 +46,11 @@ public interface StorageManager extends AutoCloseable {
     String PK_COL = "_key";
     AlgDataTypeField PK_FIELD = new AlgDataTypeFieldImpl( null, PK_COL, 0, AlgDataTypeFactory.DEFAULT.createPolyType( PolyType.BIGINT ) );
     String DEFAULT_CHECKPOINT_ADAPTER = "workflow_checkpoints";
+    /**
+     * Store name that can be used instead of a data store to write relational checkpoints to local columnar files.
+     * Document and graph checkpoints are written to the {@link #DEFAULT_CHECKPOINT_ADAPTER} instead.
+     */
+    String LOCAL_CHECKPOINT_STORE = "local_columnar";
 
     UUID getSessionId();
 
@@ -59,6 +64,13 @@ public interface StorageManager extends AutoCloseable {
 
     AlgDataType getTupleType( UUID activityId, int outputIdx );
 
+    /**
+     * Returns the number of tuples in the specified checkpoint without opening a reader.
+     *
+     * @return the tuple count or -1 if the checkpoint does not exist or is still being written
+     */
+    long getTupleCount( UUID activityId, int outputIdx );
+
     List<TypePreview> getCheckpointPreviewTypes( UUID activityId );
 
     /**
@@ -93,6 +105,12 @@ public interface StorageManager extends AutoCloseable {
 
     boolean hasCheckpoint( UUID activityId, int outputIdx );
 
+    /**
+     * Returns true if the specified checkpoint is only stored in a local file of the {@link #LOCAL_CHECKPOINT_STORE} and not in a data store.
+     * Such checkpoints are cheap to scan, but must first be materialized in a data store before they can be queried.
+     */
+    boolean isLocalCheckpoint( UUID activityId, int outputIdx );
+
     boolean hasAllCheckpoints( UUID activityId, int outputCount );
 
     /**
@@ -108,6 +126,27 @@ public interface StorageManager extends AutoCloseable {
 
     boolean isLinkedCheckpoint( UUID activityId, int outputIdx );
 
+    /**
+     * Assigns fingerprints to the existing checkpoints of the specified activity.
+     * If the checkpoints are reusable, they are handed over to the {@link CheckpointCache} instead of being dropped,
+     * which allows a later execution of an activity with identical fingerprints to reuse them.
+     *
+     * @param activityId the activity whose checkpoints were created by a successful execution
+     * @param fingerprints the fingerprint of each output of the activity
+     * @param isReusable whether the checkpoints can be reused by a different execution with the same fingerprints
+     */
+    void setFingerprints( UUID activityId, List<String> fingerprints, boolean isReusable );
+
+    /**
+     * Tries to restore the checkpoints of all outputs of the specified activity from the {@link CheckpointCache}.
+     * Either all or none of the checkpoints are restored.
+     *
+     * @param activityId the activity whose checkpoints should be restored
+     * @param fingerprints the fingerprint of each output of the activity
+     * @return true if all checkpoints were restored
+     */
+    boolean reuseCheckpoints( UUID activityId, List<String> fingerprints );
+
     /**
      * Returns a transaction to be used by the specified activity for extracting or loading data stored in this Polypheny instance (excluding checkpoints).
      * Each activity has at most 1 such transaction at any point. If commonType != NONE, the transaction is shared between multiple activities
@@ -18,7 +18,13 @@
 
 import static org.polypheny.db.workflow.engine.storage.LpgBatchWriter.BATCHABLE_LPG_ADAPTERS;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +50,7 @@
 import org.polypheny.db.catalog.entity.logical.LogicalGraph;
 import org.polypheny.db.catalog.entity.logical.LogicalNamespace;
 import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
 import org.polypheny.db.catalog.logistic.Collation;
 import org.polypheny.db.catalog.logistic.ConstraintType;
 import org.polypheny.db.catalog.logistic.DataModel;
@@ -62,20 +69,25 @@
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.util.DeadlockException;
 import org.polypheny.db.util.Pair;
+import org.polypheny.db.util.PolyphenyHomeDirManager;
 import org.polypheny.db.workflow.dag.activities.ActivityUtils;
 import org.polypheny.db.workflow.dag.activities.TypePreview;
 import org.polypheny.db.workflow.dag.activities.TypePreview.DocType;
 import org.polypheny.db.workflow.dag.activities.TypePreview.LpgType;
 import org.polypheny.db.workflow.dag.activities.TypePreview.RelType;
 import org.polypheny.db.workflow.dag.activities.TypePreview.UnknownType;
+import org.polypheny.db.workflow.engine.storage.CheckpointCache.CachedCheckpoint;
 import org.polypheny.db.workflow.engine.storage.CheckpointMetadata.DocMetadata;
 import org.polypheny.db.workflow.engine.storage.CheckpointMetadata.LpgMetadata;
 import org.polypheny.db.workflow.engine.storage.CheckpointMetadata.RelMetadata;
+import org.polypheny.db.workflow.engine.storage.columnar.ColumnarFileReader;
 import org.polypheny.db.workflow.engine.storage.reader.CheckpointReader;
+import org.polypheny.db.workflow.engine.storage.reader.ColumnarRelReader;
 import org.polypheny.db.workflow.engine.storage.reader.DocReader;
 import org.polypheny.db.workflow.engine.storage.reader.LpgReader;
 import org.polypheny.db.workflow.engine.storage.reader.RelReader;
 import org.polypheny.db.workflow.engine.storage.writer.CheckpointWriter;
+import org.polypheny.db.workflow.engine.storage.writer.ColumnarRelWriter;
 import org.polypheny.db.workflow.engine.storage.writer.DocWriter;
 import org.polypheny.db.workflow.engine.storage.writer.LpgWriter;
 import org.polypheny.db.workflow.engine.storage.writer.RelWriter;
@@ -90,12 +102,19 @@ public class StorageManagerImpl implements StorageManager {
     public static final String LPG_PREFIX = "lpg_";
     public static final String TABLE_PREFIX = "t_";
     public static final String COLLECTION_PREFIX = "c_";
+    public static final String CHECKPOINT_FILES_PATH = "data/workflow_checkpoints";
+    public static final String CHECKPOINT_FILE_SUFFIX = ".pcol";
+    public static final String SHARED_CHECKPOINT_FILES_PATH = CHECKPOINT_FILES_PATH + "/shared"; // checkpoint files in the CheckpointCache that outlived their session
+    public static final String CACHED_PREFIX = "k_";
     public static final AtomicBoolean STARTED_ADAPTER = new AtomicBoolean( false );
 
     private final UUID sessionId;
     private final Map<DataModel, String> defaultStores;
     private final Map<UUID, Map<Integer, Pair<LogicalEntity, CheckpointMetadata>>> checkpoints = new ConcurrentHashMap<>();
     private final Set<Pair<UUID, Integer>> linkedCheckpoints = ConcurrentHashMap.newKeySet();  // Checkpoints that are managed by a different StorageManager, but are linked to the output of an activity in this workflow
+    private final Map<Pair<UUID, Integer>, Path> checkpointFiles = new ConcurrentHashMap<>(); // Checkpoints that are stored in local files. Their entity is null.
+    private final Map<Pair<UUID, Integer>, LogicalTable> materializedFiles = new ConcurrentHashMap<>(); // Tables that were created for file checkpoints, since they were used in a query
+    private final Map<Pair<UUID, Integer>, String> fingerprints = new ConcurrentHashMap<>(); // Checkpoints that are handed over to the CheckpointCache when they are dropped
     private final Map<Long, String> registeredNamespaces = new ConcurrentHashMap<>();
     private final AdapterManager adapterManager;
     private final DdlManager ddlManager;
@@ -107,6 +126,7 @@ public class StorageManagerImpl implements StorageManager {
 
     private final long relNamespace;
     private final long docNamespace;
+    private boolean isClosing = false;
 
 
     public StorageManagerImpl( TransactionManager transactionManager, UUID sessionId, Map<DataModel, String> defaultStores ) {
@@ -157,6 +177,10 @@ public void setDefaultStore( DataModel model, String storeName ) {
     @Override
     public CheckpointReader readCheckpoint( UUID activityId, int outputIdx ) {
         Pair<LogicalEntity, CheckpointMetadata> checkpoint = Objects.requireNonNull( checkpoints.get( activityId ).get( outputIdx ), "Checkpoint does not exist for output " + outputIdx + " of activity " + activityId );
+        Path file = checkpointFiles.get( Pair.of( activityId, outputIdx ) );
+        if ( file != null ) {
+            return new ColumnarRelReader( file, checkpoint.right.asRel(), () -> materializeFile( activityId, outputIdx ) );
+        }
         LogicalEntity entity = checkpoint.left;
         return switch ( entity.dataModel ) {
             case RELATIONAL -> new RelReader( (LogicalTable) entity, QueryUtils.startTransaction( transactionManager, entity.namespaceId, "RelRead" ), checkpoint.right.asRel() );
@@ -168,12 +192,25 @@ public CheckpointReader readCheckpoint( UUID activityId, int outputIdx ) {
 
     @Override
     public DataModel getDataModel( UUID activityId, int outputIdx ) {
-        return getCheckpoint( activityId, outputIdx ).dataModel;
+        return Objects.requireNonNull( checkpoints.get( activityId ).get( outputIdx ) ).right.getDataModel();
+    }
+
+
+    @Override
+    public long getTupleCount( UUID activityId, int outputIdx ) {
+        Pair<LogicalEntity, CheckpointMetadata> checkpoint = checkpoints.getOrDefault( activityId, Map.of() ).get( outputIdx );
+        if ( checkpoint == null || checkpoint.right.isOpen() ) {
+            return -1;
+        }
+        return checkpoint.right.getTupleCount();
     }
 
 
     @Override
     public AlgDataType getTupleType( UUID activityId, int outputIdx ) {
+        if ( checkpointFiles.containsKey( Pair.of( activityId, outputIdx ) ) ) {
+            return Objects.requireNonNull( checkpoints.get( activityId ).get( outputIdx ) ).right.asRel().getType();
+        }
         return getCheckpoint( activityId, outputIdx ).getTupleType();
     }
 
@@ -188,7 +225,9 @@ public List<TypePreview> getCheckpointPreviewTypes( UUID activityId ) {
         for ( int i = 0; i < outputs.size(); i++ ) {
             LogicalEntity output = outputs.get( i ).left;
             CheckpointMetadata meta = outputs.get( i ).right;
-            if ( output == null ) {
+            if ( checkpointFiles.containsKey( Pair.of( activityId, i ) ) ) {
+                previews.add( RelType.of( meta.asRel().getType() ) );
+            } else if ( output == null ) {
                 previews.add( UnknownType.of() );
             } else {
                 TypePreview preview = switch ( meta.getDataModel() ) {
@@ -223,6 +262,23 @@ public synchronized RelWriter createRelCheckpoint( UUID activityId, int outputId
             throw new IllegalArgumentException( "Found duplicate column in output table: " + duplicateField );
         }
 
+        if ( storeName.equals( LOCAL_CHECKPOINT_STORE ) ) {
+            Path path = new File( getCheckpointDir(), getTableName( activityId, outputIdx ) + CHECKPOINT_FILE_SUFFIX ).toPath();
+            RelMetadata meta = new RelMetadata( type );
+            register( activityId, outputIdx, null, meta );
+            checkpointFiles.put( Pair.of( activityId, outputIdx ), path );
+            return new ColumnarRelWriter( path, type, resetPk, meta );
+        }
+
+        LogicalTable table = createTable( activityId, outputIdx, type, storeName );
+        RelMetadata meta = new RelMetadata( table.getTupleType() );
+        register( activityId, outputIdx, table, meta );
+        return new RelWriter( table, QueryUtils.startTransaction( transactionManager, relNamespace, "RelWrite" ), resetPk, meta );
+    }
+
+
+    private LogicalTable createTable( UUID activityId, int outputIdx, AlgDataType type, String storeName ) {
+        AlgDataTypeField pkField = type.getFields().get( 0 );
         String tableName = getTableName( activityId, outputIdx );
         Transaction transaction = QueryUtils.startTransaction( transactionManager, relNamespace, "RelCreate" );
 
@@ -244,17 +300,41 @@ public synchronized RelWriter createRelCheckpoint( UUID activityId, int outputId
             }
         }
 
-        LogicalTable table = Catalog.snapshot().rel().getTable( relNamespace, tableName ).orElseThrow();
-        RelMetadata meta = new RelMetadata( table.getTupleType() );
-        register( activityId, outputIdx, table, meta );
-        return new RelWriter( table, QueryUtils.startTransaction( transactionManager, relNamespace, "RelWrite" ), resetPk, meta );
+        return Catalog.snapshot().rel().getTable( relNamespace, tableName ).orElseThrow();
+    }
+
+
+    /**
+     * Copies the tuples of a file checkpoint into a table, which is created only once per checkpoint.
+     * This is required for using the checkpoint in a query or an algebra tree.
+     *
+     * @return a reader for the table
+     */
+    private synchronized RelReader materializeFile( UUID activityId, int outputIdx ) {
+        Pair<UUID, Integer> key = Pair.of( activityId, outputIdx );
+        RelMetadata meta = Objects.requireNonNull( checkpoints.get( activityId ).get( outputIdx ) ).right.asRel();
+        LogicalTable table = materializedFiles.get( key );
+        if ( table == null ) {
+            AlgDataType type = meta.getType();
+            table = createTable( activityId, outputIdx, type, getDefaultFallbackStore( DataModel.RELATIONAL ) );
+            List<PolyType> types = type.getFields().stream().map( f -> f.getType().getPolyType() ).toList();
+            try ( ColumnarFileReader file = new ColumnarFileReader( checkpointFiles.get( key ), types );
+                    RelWriter writer = new RelWriter( table, QueryUtils.startTransaction( transactionManager, relNamespace, "RelMaterialize" ), false, new RelMetadata( table.getTupleType() ) ) ) {
+                file.iterator().forEachRemaining( row -> writer.write( Arrays.asList( row ) ) );
+            } catch ( Exception e ) {
+                dropEntity( table );
+                throw new GenericRuntimeException( "Unable to materialize checkpoint file for activity " + activityId, e );
+            }
+            materializedFiles.put( key, table );
+        }
+        return new RelReader( table, QueryUtils.startTransaction( transactionManager, relNamespace, "RelRead" ), meta );
     }
 
 
     @Override
     public synchronized DocWriter createDocCheckpoint( UUID activityId, int outputIdx, @Nullable String storeName ) {
-        if ( storeName == null || storeName.isEmpty() ) {
-            storeName = getDefaultStore( DataModel.DOCUMENT );
+        if ( storeName == null || storeName.isEmpty() || storeName.equals( LOCAL_CHECKPOINT_STORE ) ) {
+            storeName = getDefaultFallbackStore( DataModel.DOCUMENT );
         }
 
         String collectionName = getCollectionName( activityId, outputIdx );
@@ -286,8 +366,8 @@ public synchronized DocWriter createDocCheckpoint( UUID activityId, int outputId
 
     @Override
     public synchronized LpgWriter createLpgCheckpoint( UUID activityId, int outputIdx, @Nullable String storeName ) {
-        if ( storeName == null || storeName.isEmpty() ) {
-            storeName = getDefaultStore( DataModel.GRAPH );
+        if ( storeName == null || storeName.isEmpty() || storeName.equals( LOCAL_CHECKPOINT_STORE ) ) {
+            storeName = getDefaultFallbackStore( DataModel.GRAPH );
         }
         String graphName = getGraphName( activityId, outputIdx );
         Transaction transaction = QueryUtils.startTransaction( transactionManager, Catalog.defaultNamespaceId, "LpgCreate" );
@@ -334,7 +414,10 @@ public synchronized CheckpointWriter createCheckpoint( UUID activityId, int outp
     public void dropCheckpoints( UUID activityId ) {
         for ( Entry<Integer, Pair<LogicalEntity, CheckpointMetadata>> entry : checkpoints.getOrDefault( activityId, Map.of() ).entrySet() ) {
             if ( !isLinkedCheckpoint( activityId, entry.getKey() ) ) {
-                dropEntity( entry.getValue().getLeft() );
+                dropOrCacheCheckpoint( activityId, entry.getKey(), entry.getValue() );
+            } else {
+                checkpointFiles.remove( Pair.of( activityId, entry.getKey() ) );
+                dropMaterializedFile( activityId, entry.getKey() );
             }
             // We don't drop a linked checkpoint, as it is managed by a different StorageManager instance
         }
@@ -347,7 +430,7 @@ public void dropManagedCheckpoints( UUID activityId ) {
         Map<Integer, Pair<LogicalEntity, CheckpointMetadata>> editable = new HashMap<>( checkpoints.getOrDefault( activityId, Map.of() ) );
         for ( Entry<Integer, Pair<LogicalEntity, CheckpointMetadata>> entry : checkpoints.getOrDefault( activityId, Map.of() ).entrySet() ) {
             if ( !isLinkedCheckpoint( activityId, entry.getKey() ) ) {
-                dropEntity( entry.getValue().getLeft() );
+                dropOrCacheCheckpoint( activityId, entry.getKey(), entry.getValue() );
                 editable.remove( entry.getKey() );
             }
             // We don't drop a linked checkpoint, as it is managed by a different StorageManager instance
@@ -372,9 +455,19 @@ public boolean hasCheckpoint( UUID activityId, int outputIdx ) {
     }
 
 
+    @Override
+    public boolean isLocalCheckpoint( UUID activityId, int outputIdx ) {
+        Pair<UUID, Integer> key = Pair.of( activityId, outputIdx );
+        return checkpointFiles.containsKey( key ) && !materializedFiles.containsKey( key );
+    }
+
+
     @Override
     public void linkCheckpoint( UUID activityId, int outputIdx, CheckpointReader reader ) {
         linkedCheckpoints.add( Pair.of( activityId, outputIdx ) );
+        if ( reader instanceof ColumnarRelReader fileReader ) {
+            checkpointFiles.put( Pair.of( activityId, outputIdx ), fileReader.getPath() );
+        }
         checkpoints.computeIfAbsent( activityId, k -> new ConcurrentHashMap<>() )
                 .put( outputIdx, Pair.of( reader.getEntity(), reader.getMetadata() ) );
     }
@@ -386,6 +479,51 @@ public boolean isLinkedCheckpoint( UUID activityId, int outputIdx ) {
     }
 
 
+    @Override
+    public void setFingerprints( UUID activityId, List<String> fingerprints, boolean isReusable ) {
+        for ( int i = 0; i < fingerprints.size(); i++ ) {
+            Pair<UUID, Integer> key = Pair.of( activityId, i );
+            if ( isReusable && hasCheckpoint( activityId, i ) && !isLinkedCheckpoint( activityId, i ) ) {
+                this.fingerprints.put( key, fingerprints.get( i ) );
+            } else {
+                this.fingerprints.remove( key );
+            }
+        }
+    }
+
+
+    @Override
+    public synchronized boolean reuseCheckpoints( UUID activityId, List<String> fingerprints ) {
+        if ( fingerprints.isEmpty() || CheckpointCache.getCapacity() == 0 ) {
+            return false;
+        }
+        List<CachedCheckpoint> cached = new ArrayList<>();
+        for ( String fingerprint : fingerprints ) {
+            CachedCheckpoint checkpoint = CheckpointCache.INSTANCE.take( fingerprint, sessionId );
+            if ( checkpoint == null ) {
+                cached.forEach( CheckpointCache.INSTANCE::put ); // all or nothing
+                return false;
+            }
+            cached.add( checkpoint );
+        }
+
+        for ( int i = 0; i < cached.size(); i++ ) {
+            CachedCheckpoint checkpoint = cached.get( i );
+            Pair<UUID, Integer> key = Pair.of( activityId, i );
+            if ( checkpoint.getFile() != null ) {
+                Path file = checkpoint.getFile();
+                if ( checkpoint.getSessionId() == null ) {
+                    file = moveFile( file, new File( getCheckpointDir(), file.getFileName().toString() ).toPath() );
+                }
+                checkpointFiles.put( key, file );
+            }
+            register( activityId, i, checkpoint.getEntity(), checkpoint.getMetadata() );
+            this.fingerprints.put( key, checkpoint.getFingerprint() );
+        }
+        return true;
+    }
+
+
     @Override
     public boolean hasAllCheckpoints( UUID activityId, int outputCount ) {
         if ( outputCount < 0 ) {
@@ -475,6 +613,114 @@ private void register( UUID activityId, int outputIdx, LogicalEntity entity, Che
     }
 
 
+    /**
+     * Returns the default store for the given data model, or the default checkpoint adapter if the default store
+     * is not a data store.
+     */
+    private String getDefaultFallbackStore( DataModel model ) {
+        String storeName = getDefaultStore( model );
+        return storeName.equals( LOCAL_CHECKPOINT_STORE ) ? DEFAULT_CHECKPOINT_ADAPTER : storeName;
+    }
+
+
+    private File getCheckpointDir() {
+        return PolyphenyHomeDirManager.getInstance().registerNewFolder( CHECKPOINT_FILES_PATH + "/" + sessionId );
+    }
+
+
+    private void dropOrCacheCheckpoint( UUID activityId, int outputIdx, Pair<LogicalEntity, CheckpointMetadata> checkpoint ) {
+        String fingerprint = fingerprints.remove( Pair.of( activityId, outputIdx ) );
+        if ( fingerprint == null || !cacheCheckpoint( activityId, outputIdx, fingerprint, checkpoint.left, checkpoint.right ) ) {
+            dropCheckpoint( activityId, outputIdx, checkpoint.left );
+        }
+    }
+
+
+    /**
+     * Hands the checkpoint over to the {@link CheckpointCache}.
+     * The checkpoint gets renamed according to its fingerprint, since the activity might create a new checkpoint with the original name.
+     *
+     * @return true if the checkpoint was cached, false if it still needs to be dropped
+     */
+    private boolean cacheCheckpoint( UUID activityId, int outputIdx, String fingerprint, LogicalEntity entity, CheckpointMetadata meta ) {
+        Pair<UUID, Integer> key = Pair.of( activityId, outputIdx );
+        boolean isFile = checkpointFiles.containsKey( key );
+        if ( CheckpointCache.getCapacity() == 0 || meta.getDataModel() == DataModel.GRAPH || (isClosing && !isFile) ) {
+            return false; // entities of this session are about to be removed anyway
+        }
+        CheckpointCache.INSTANCE.evict( fingerprint ); // an equivalent checkpoint would have the same name
+        String name = CACHED_PREFIX + fingerprint.substring( 0, 32 );
+        try {
+            if ( isFile ) {
+                dropMaterializedFile( activityId, outputIdx );
+                Path file = checkpointFiles.get( key );
+                Path cached = moveFile( file, file.resolveSibling( name + CHECKPOINT_FILE_SUFFIX ) );
+                checkpointFiles.remove( key );
+                CheckpointCache.INSTANCE.put( new CachedCheckpoint( fingerprint, sessionId, null, meta, cached, () -> deleteFile( cached ) ) );
+            } else {
+                LogicalEntity renamed = renameEntity( entity, name );
+                CheckpointCache.INSTANCE.put( new CachedCheckpoint( fingerprint, sessionId, renamed, meta, null, () -> dropEntity( renamed ) ) );
+            }
+            return true;
+        } catch ( Exception e ) {
+            log.warn( "Unable to cache checkpoint of activity {}", activityId, e );
+            return false;
+        }
+    }
+
+
+    private CachedCheckpoint shareCachedFile( CachedCheckpoint checkpoint ) {
+        File dir = PolyphenyHomeDirManager.getInstance().registerNewFolder( SHARED_CHECKPOINT_FILES_PATH );
+        Path shared = moveFile( checkpoint.getFile(), new File( dir, checkpoint.getFile().getFileName().toString() ).toPath() );
+        return new CachedCheckpoint( checkpoint.getFingerprint(), null, null, checkpoint.getMetadata(), shared, () -> deleteFile( shared ) );
+    }
+
+
+    private LogicalEntity renameEntity( LogicalEntity entity, String name ) {
+        if ( entity.getName().equals( name ) ) {
+            return entity; // checkpoint was already restored from the cache before
+        }
+        Transaction transaction = QueryUtils.startTransaction( transactionManager, entity.getNamespaceId(), "CacheCheckpoint" );
+        try {
+            acquireSchemaLock( transaction, entity.getNamespaceId() );
+            switch ( entity.dataModel ) {
+                case RELATIONAL -> ddlManager.renameTable( (LogicalTable) entity, name, transaction.createStatement() );
+                case DOCUMENT -> ddlManager.renameCollection( (LogicalCollection) entity, name, transaction.createStatement() );
+                case GRAPH -> throw new GenericRuntimeException( "Graph checkpoints cannot be renamed" );
+            }
+            transaction.commit();
+        } finally {
+            if ( transaction.isActive() ) {
+                transaction.rollback( null );
+            }
+        }
+        return switch ( entity.dataModel ) {
+            case RELATIONAL -> Catalog.snapshot().rel().getTable( entity.id ).orElseThrow();
+            case DOCUMENT -> Catalog.snapshot().doc().getCollection( entity.id ).orElseThrow();
+            case GRAPH -> entity;
+        };
+    }
+
+
+    private void dropCheckpoint( UUID activityId, int outputIdx, LogicalEntity entity ) {
+        Path file = checkpointFiles.remove( Pair.of( activityId, outputIdx ) );
+        if ( file == null ) {
+            dropEntity( entity );
+            return;
+        }
+        dropMaterializedFile( activityId, outputIdx );
+        deleteFile( file );
+    }
+
+
+    private void dropMaterializedFile( UUID activityId, int outputIdx ) {
+        LogicalTable table = materializedFiles.remove( Pair.of( activityId, outputIdx ) );
+        if ( table != null ) {
+            dropEntity( table );
+        }
+    }
+
+
     private DataStore<?> getStore( String storeName ) {
         return adapterManager.getStore( storeName ).orElseThrow( () -> new IllegalArgumentException( "Adapter does not exist: " + storeName ) );
     }
@@ -588,6 +834,22 @@ private static void acquireSchemaLock( Transaction transaction, long namespaceId
     }
 
 
+    private static Path moveFile( Path source, Path target ) {
+        try {
+            return Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to move checkpoint file " + source, e );
+        }
+    }
+
+
+    private static void deleteFile( Path file ) {
+        if ( !file.toFile().delete() ) {
+            log.warn( "Unable to delete checkpoint file {}", file );
+        }
+    }
+
+
     private String getTableName( UUID activityId, int outputIdx ) {
         return TABLE_PREFIX + activityId.toString().replace( "-", "" ) + "_" + outputIdx;
     }
@@ -626,8 +888,11 @@ public void close() throws Exception {
             }
         }
 
+        isClosing = true;
         dropAllCheckpoints();
+        CheckpointCache.INSTANCE.release( sessionId, this::shareCachedFile );
         dropNamespaces();
+        PolyphenyHomeDirManager.getInstance().recursiveDeleteFolder( CHECKPOINT_FILES_PATH + "/" + sessionId );
     }
 
 
@@ -636,6 +901,7 @@ public void close() throws Exception {
      * This should only be called on startup to clean up anything that was not removed.
      */
     public static void clearAll( TransactionManager transactionManager ) {
+        PolyphenyHomeDirManager.getInstance().recursiveDeleteFolder( CHECKPOINT_FILES_PATH );
         DdlManager ddlManager = DdlManager.getInstance();
         for ( LogicalNamespace ns : Catalog.snapshot().getNamespaces( null ) ) {
             Transaction transaction = QueryUtils.startTransaction( transactionManager, Catalog.defaultNamespaceId, "ClearAllCheckpoints" );
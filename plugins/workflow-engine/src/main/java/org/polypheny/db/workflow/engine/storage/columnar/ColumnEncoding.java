@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.type.PolySerializable;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+
+/**
+ * The encodings of a column chunk in a columnar checkpoint file.
+ * Only the non-null values of a chunk are encoded, the null values are tracked by a separate bitmap.
+ */
+public enum ColumnEncoding {
+    /**
+     * Zigzag encoded variable length deltas between consecutive values.
+     */
+    LONG_DELTA( 0 ),
+    /**
+     * Raw 8 byte doubles.
+     */
+    DOUBLE( 1 ),
+    /**
+     * A dictionary of distinct UTF-8 strings, followed by a variable length code per value.
+     */
+    DICTIONARY( 2 ),
+    /**
+     * Length-prefixed UTF-8 strings.
+     */
+    PLAIN_STRING( 3 ),
+    /**
+     * Length-prefixed values in the binary serialization format of {@link PolyValue}.
+     */
+    SERIALIZED( 4 );
+
+    final byte id;
+
+
+    ColumnEncoding( int id ) {
+        this.id = (byte) id;
+    }
+
+
+    static ColumnEncoding fromId( byte id ) {
+        for ( ColumnEncoding encoding : values() ) {
+            if ( encoding.id == id ) {
+                return encoding;
+            }
+        }
+        throw new GenericRuntimeException( "Unknown column encoding in checkpoint file: " + id );
+    }
+
+
+    static byte[] serialize( PolyValue value ) {
+        return value.serialize().getBytes( PolySerializable.SERIALIZAION_CHARSET );
+    }
+
+
+    static PolyValue deserialize( ByteBuffer buffer, int length ) {
+        byte[] bytes = new byte[length];
+        buffer.get( bytes );
+        return PolyValue.deserialize( new String( bytes, PolySerializable.SERIALIZAION_CHARSET ) );
+    }
+
+
+    static PolyString readString( ByteBuffer buffer, int length ) {
+        byte[] bytes = new byte[length];
+        buffer.get( bytes );
+        return PolyString.of( new String( bytes, StandardCharsets.UTF_8 ) );
+    }
+
+}
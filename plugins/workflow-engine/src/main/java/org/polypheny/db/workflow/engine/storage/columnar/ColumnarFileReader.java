@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import lombok.Getter;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.runtime.vector.ColumnVector;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+
+/**
+ * Reads a columnar checkpoint file written by a {@link ColumnarFileWriter}.
+ * Segments are memory mapped and decoded one at a time while iterating.
+ */
+public class ColumnarFileReader implements AutoCloseable {
+
+    private static final int FOOTER_TAIL_LENGTH = 2 * Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final List<PolyType> types;
+    private final FileChannel channel;
+    private final long[] segmentOffsets;
+    private final int[] segmentLengths;
+    @Getter
+    private final long rowCount;
+
+
+    public ColumnarFileReader( Path path, List<PolyType> types ) {
+        this.path = path;
+        this.types = types;
+        try {
+            this.channel = FileChannel.open( path, StandardOpenOption.READ );
+            long size = channel.size();
+            ByteBuffer header = channel.map( MapMode.READ_ONLY, 0, 3 * Integer.BYTES );
+            if ( header.getInt() != ColumnarFileWriter.MAGIC || header.getInt() != ColumnarFileWriter.VERSION || header.getInt() != types.size() ) {
+                throw new GenericRuntimeException( "Invalid checkpoint file: " + path );
+            }
+            ByteBuffer tail = channel.map( MapMode.READ_ONLY, size - FOOTER_TAIL_LENGTH, FOOTER_TAIL_LENGTH );
+            rowCount = tail.getLong();
+            long footerOffset = tail.getLong();
+            if ( tail.getInt() != ColumnarFileWriter.MAGIC ) {
+                throw new GenericRuntimeException( "Checkpoint file was not closed correctly: " + path );
+            }
+            ByteBuffer footer = channel.map( MapMode.READ_ONLY, footerOffset, size - FOOTER_TAIL_LENGTH - footerOffset );
+            int segmentCount = footer.getInt();
+            segmentOffsets = new long[segmentCount];
+            segmentLengths = new int[segmentCount];
+            for ( int i = 0; i < segmentCount; i++ ) {
+                segmentOffsets[i] = footer.getLong();
+                segmentLengths[i] = footer.getInt();
+                footer.getInt(); // row count of segment
+            }
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to open checkpoint file " + path, e );
+        }
+    }
+
+
+    /**
+     * Returns a new iterator over all rows of the file.
+     * Only a single segment is decoded at any point in time.
+     */
+    public Iterator<PolyValue[]> iterator() {
+        return iterator( 0, 1 );
+    }
+
+
+    /**
+     * Returns a new iterator over the rows of every {@code segmentStep}-th segment, starting at {@code firstSegment}.
+     * This splits the file into contiguous ranges of rows without having to decode the skipped segments.
+     *
+     * @param firstSegment the index of the first segment to read
+     * @param segmentStep the distance between two consecutive segments to read
+     */
+    public Iterator<PolyValue[]> iterator( int firstSegment, int segmentStep ) {
+        return new Iterator<>() {
+            private int segment = firstSegment;
+            private PolyValue[][] columns;
+            private int rows;
+            private int position;
+
+
+            @Override
+            public boolean hasNext() {
+                while ( position >= rows ) {
+                    if ( segment >= segmentOffsets.length ) {
+                        return false;
+                    }
+                    columns = readSegment( segment );
+                    segment += segmentStep;
+                    rows = columns.length == 0 ? 0 : columns[0].length;
+                    position = 0;
+                }
+                return true;
+            }
+
+
+            @Override
+            public PolyValue[] next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                PolyValue[] row = new PolyValue[columns.length];
+                for ( int i = 0; i < row.length; i++ ) {
+                    row[i] = columns[i][position];
+                }
+                position++;
+                return row;
+            }
+        };
+    }
+
+
+    private PolyValue[][] readSegment( int segment ) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map( MapMode.READ_ONLY, segmentOffsets[segment], segmentLengths[segment] );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to read checkpoint file " + path, e );
+        }
+        int rows = buffer.getInt();
+        PolyValue[][] columns = new PolyValue[types.size()][];
+        for ( int i = 0; i < columns.length; i++ ) {
+            columns[i] = readChunk( buffer, rows, types.get( i ) );
+        }
+        return columns;
+    }
+
+
+    private PolyValue[] readChunk( ByteBuffer buffer, int rows, PolyType type ) {
+        ColumnEncoding encoding = ColumnEncoding.fromId( buffer.get() );
+        byte flags = buffer.get();
+        int rawLength = buffer.getInt();
+        int storedLength = buffer.getInt();
+
+        ByteBuffer chunk = buffer.slice( buffer.position(), storedLength );
+        buffer.position( buffer.position() + storedLength );
+        if ( (flags & ColumnarFileWriter.FLAG_COMPRESSED) != 0 ) {
+            chunk = decompress( chunk, rawLength );
+        }
+
+        byte[] nulls = null;
+        if ( (flags & ColumnarFileWriter.FLAG_HAS_NULLS) != 0 ) {
+            nulls = new byte[(rows + 7) >> 3];
+            chunk.get( nulls );
+        }
+
+        PolyValue[] values = new PolyValue[rows];
+        switch ( encoding ) {
+            case LONG_DELTA -> {
+                long previous = 0;
+                for ( int i = 0; i < rows; i++ ) {
+                    if ( !isNull( nulls, i ) ) {
+                        previous += unzigzag( readVarLong( chunk ) );
+                        values[i] = ColumnVector.box( previous, type );
+                    }
+                }
+            }
+            case DOUBLE -> {
+                for ( int i = 0; i < rows; i++ ) {
+                    if ( !isNull( nulls, i ) ) {
+                        values[i] = ColumnVector.box( chunk.getDouble(), type );
+                    }
+                }
+            }
+            case DICTIONARY -> {
+                PolyString[] dictionary = new PolyString[(int) readVarLong( chunk )];
+                for ( int code = 0; code < dictionary.length; code++ ) {
+                    dictionary[code] = ColumnEncoding.readString( chunk, (int) readVarLong( chunk ) );
+                }
+                for ( int i = 0; i < rows; i++ ) {
+                    if ( !isNull( nulls, i ) ) {
+                        values[i] = dictionary[(int) readVarLong( chunk )];
+                    }
+                }
+            }
+            case PLAIN_STRING -> {
+                for ( int i = 0; i < rows; i++ ) {
+                    if ( !isNull( nulls, i ) ) {
+                        values[i] = ColumnEncoding.readString( chunk, (int) readVarLong( chunk ) );
+                    }
+                }
+            }
+            case SERIALIZED -> {
+                for ( int i = 0; i < rows; i++ ) {
+                    if ( !isNull( nulls, i ) ) {
+                        values[i] = ColumnEncoding.deserialize( chunk, (int) readVarLong( chunk ) );
+                    }
+                }
+            }
+        }
+        if ( nulls != null ) {
+            for ( int i = 0; i < rows; i++ ) {
+                if ( isNull( nulls, i ) ) {
+                    values[i] = PolyNull.NULL;
+                }
+            }
+        }
+        return values;
+    }
+
+
+    private ByteBuffer decompress( ByteBuffer compressed, int rawLength ) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput( compressed );
+            ByteBuffer raw = ByteBuffer.allocate( rawLength );
+            while ( raw.hasRemaining() && !inflater.finished() ) {
+                inflater.inflate( raw );
+            }
+            return raw.flip();
+        } catch ( DataFormatException e ) {
+            throw new GenericRuntimeException( "Corrupt checkpoint file " + path, e );
+        } finally {
+            inflater.end();
+        }
+    }
+
+
+    private static boolean isNull( byte[] nulls, int index ) {
+        return nulls != null && (nulls[index >> 3] & (1 << (index & 7))) != 0;
+    }
+
+
+    private static long readVarLong( ByteBuffer buffer ) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ( (b & 0x80) != 0 );
+        return value;
+    }
+
+
+    private static long unzigzag( long value ) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to close checkpoint file " + path, e );
+        }
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage.columnar;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.runtime.vector.ColumnVector;
+import org.polypheny.db.runtime.vector.DictionaryVector;
+import org.polypheny.db.runtime.vector.DoubleVector;
+import org.polypheny.db.runtime.vector.LongVector;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+
+/**
+ * Writes rows to a columnar checkpoint file.
+ * <p>
+ * Rows are buffered in {@link ColumnVector}s and written as segments of at most {@link #SEGMENT_SIZE} rows.
+ * Each segment stores one chunk per column, which is compressed if this saves a considerable amount of space.
+ * The file ends with a footer that contains the offset of every segment, which allows a reader to map single segments.
+ * <pre>
+ * file:    MAGIC VERSION columnCount segment* footer
+ * segment: rowCount (encoding flags rawLength storedLength bytes)*
+ * footer:  segmentCount (offset length rowCount)* totalRowCount footerOffset MAGIC
+ * </pre>
+ */
+public class ColumnarFileWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x50434b50; // "PCKP"
+    public static final int VERSION = 1;
+    public static final int SEGMENT_SIZE = 8192;
+
+    static final byte FLAG_HAS_NULLS = 1;
+    static final byte FLAG_COMPRESSED = 2;
+    private static final int MIN_COMPRESSION_LENGTH = 256;
+
+    private final List<PolyType> types;
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+    private ColumnVector[] columns;
+    private int bufferedRows;
+
+    private long position;
+    private long rowCount;
+    private final List<long[]> segments = new ArrayList<>(); // offset, length, rowCount
+    private boolean closed;
+
+
+    public ColumnarFileWriter( Path path, List<PolyType> types ) {
+        this.types = types;
+        try {
+            OutputStream stream = Files.newOutputStream( path );
+            this.out = new DataOutputStream( new BufferedOutputStream( stream, 1 << 16 ) );
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( types.size() );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to create checkpoint file " + path, e );
+        }
+        position = 3 * Integer.BYTES;
+        resetColumns();
+    }
+
+
+    public void write( PolyValue[] row ) {
+        assert row.length == types.size();
+        for ( int i = 0; i < row.length; i++ ) {
+            PolyValue value = row[i];
+            if ( value != null && columns[i] instanceof DictionaryVector && !value.isNull() && !value.isString() ) {
+                value = PolyString.of( value.toJson() );
+            }
+            columns[i].append( value );
+        }
+        bufferedRows++;
+        rowCount++;
+        if ( bufferedRows == SEGMENT_SIZE ) {
+            flushSegment();
+        }
+    }
+
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+
+    private void resetColumns() {
+        columns = new ColumnVector[types.size()];
+        for ( int i = 0; i < columns.length; i++ ) {
+            columns[i] = ColumnVector.create( types.get( i ), SEGMENT_SIZE );
+        }
+        bufferedRows = 0;
+    }
+
+
+    private void flushSegment() {
+        if ( bufferedRows == 0 ) {
+            return;
+        }
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        try {
+            DataOutputStream segmentOut = new DataOutputStream( segment );
+            segmentOut.writeInt( bufferedRows );
+            for ( ColumnVector column : columns ) {
+                writeChunk( segmentOut, column );
+            }
+            segmentOut.flush();
+            segment.writeTo( out );
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to write checkpoint file", e );
+        }
+        segments.add( new long[]{ position, segment.size(), bufferedRows } );
+        position += segment.size();
+        resetColumns();
+    }
+
+
+    private void writeChunk( DataOutputStream segmentOut, ColumnVector column ) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        boolean hasNulls = !column.hasNoNulls();
+        if ( hasNulls ) {
+            byte[] bitmap = new byte[(column.getSize() + 7) >> 3];
+            for ( int i = 0; i < column.getSize(); i++ ) {
+                if ( column.isNull( i ) ) {
+                    bitmap[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            raw.write( bitmap );
+        }
+        ColumnEncoding encoding = encodeValues( raw, column );
+
+        byte[] bytes = raw.toByteArray();
+        byte flags = hasNulls ? FLAG_HAS_NULLS : 0;
+        byte[] stored = bytes;
+        if ( bytes.length >= MIN_COMPRESSION_LENGTH ) {
+            byte[] compressed = compress( bytes );
+            if ( compressed.length < bytes.length * 9L / 10 ) {
+                stored = compressed;
+                flags |= FLAG_COMPRESSED;
+            }
+        }
+        segmentOut.writeByte( encoding.id );
+        segmentOut.writeByte( flags );
+        segmentOut.writeInt( bytes.length );
+        segmentOut.writeInt( stored.length );
+        segmentOut.write( stored );
+    }
+
+
+    private ColumnEncoding encodeValues( ByteArrayOutputStream raw, ColumnVector column ) throws IOException {
+        int size = column.getSize();
+        if ( column instanceof LongVector longs ) {
+            long[] values = longs.values();
+            long previous = 0;
+            for ( int i = 0; i < size; i++ ) {
+                if ( !column.isNull( i ) ) {
+                    writeVarLong( raw, zigzag( values[i] - previous ) );
+                    previous = values[i];
+                }
+            }
+            return ColumnEncoding.LONG_DELTA;
+        } else if ( column instanceof DoubleVector doubles ) {
+            DataOutputStream dataOut = new DataOutputStream( raw );
+            double[] values = doubles.values();
+            for ( int i = 0; i < size; i++ ) {
+                if ( !column.isNull( i ) ) {
+                    dataOut.writeDouble( values[i] );
+                }
+            }
+            dataOut.flush();
+            return ColumnEncoding.DOUBLE;
+        } else if ( column instanceof DictionaryVector dictionary ) {
+            if ( dictionary.getDictionarySize() > size / 2 ) {
+                // too many distinct values for the dictionary to pay off
+                for ( int i = 0; i < size; i++ ) {
+                    if ( !column.isNull( i ) ) {
+                        writeBytes( raw, dictionary.getDictionaryValue( dictionary.getCode( i ) ).value.getBytes( StandardCharsets.UTF_8 ) );
+                    }
+                }
+                return ColumnEncoding.PLAIN_STRING;
+            }
+            writeVarLong( raw, dictionary.getDictionarySize() );
+            for ( int code = 0; code < dictionary.getDictionarySize(); code++ ) {
+                writeBytes( raw, dictionary.getDictionaryValue( code ).value.getBytes( StandardCharsets.UTF_8 ) );
+            }
+            int[] codes = dictionary.codes();
+            for ( int i = 0; i < size; i++ ) {
+                if ( !column.isNull( i ) ) {
+                    writeVarLong( raw, codes[i] );
+                }
+            }
+            return ColumnEncoding.DICTIONARY;
+        }
+        for ( int i = 0; i < size; i++ ) {
+            if ( !column.isNull( i ) ) {
+                writeBytes( raw, ColumnEncoding.serialize( column.get( i ) ) );
+            }
+        }
+        return ColumnEncoding.SERIALIZED;
+    }
+
+
+    private byte[] compress( byte[] bytes ) {
+        deflater.reset();
+        deflater.setInput( bytes );
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream( bytes.length / 2 );
+        byte[] buffer = new byte[8192];
+        while ( !deflater.finished() ) {
+            int n = deflater.deflate( buffer );
+            compressed.write( buffer, 0, n );
+        }
+        return compressed.toByteArray();
+    }
+
+
+    private static void writeBytes( ByteArrayOutputStream raw, byte[] bytes ) {
+        writeVarLong( raw, bytes.length );
+        raw.write( bytes, 0, bytes.length );
+    }
+
+
+    static void writeVarLong( ByteArrayOutputStream raw, long value ) {
+        while ( (value & ~0x7FL) != 0 ) {
+            raw.write( (int) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        raw.write( (int) value );
+    }
+
+
+    static long zigzag( long value ) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        try {
+            flushSegment();
+            long footerOffset = position;
+            out.writeInt( segments.size() );
+            for ( long[] segment : segments ) {
+                out.writeLong( segment[0] );
+                out.writeInt( (int) segment[1] );
+                out.writeInt( (int) segment[2] );
+            }
+            out.writeLong( rowCount );
+            out.writeLong( footerOffset );
+            out.writeInt( MAGIC );
+            out.close();
+        } catch ( IOException e ) {
+            throw new GenericRuntimeException( "Unable to write checkpoint file", e );
+        } finally {
+            deflater.end();
+        }
+    }
+
+}
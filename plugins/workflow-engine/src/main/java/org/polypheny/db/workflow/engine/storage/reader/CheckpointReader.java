@@ -21,6 +21,7 @@
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import javax.annotation.Nullable;
 import lombok.Getter;
@@ -71,6 +72,62 @@ public CheckpointReader( LogicalEntity entity, Transaction transaction, Checkpoi
      */
     public abstract Iterator<PolyValue[]> getArrayIterator();
 
+    /**
+     * Get a new PolyValue[] iterator for a single partition of this checkpoint.
+     * The partitions for {@code 0 <= partition < partitionCount} are disjoint and together contain all tuples of this checkpoint.
+     * The default implementation iterates over the whole checkpoint and only returns every {@code partitionCount}-th tuple.
+     * Readers that can split a checkpoint more efficiently should override this method together with {@link #canSplit()}.
+     * The iterator is closed automatically when this reader is closed.
+     *
+     * @param partition the index of the partition
+     * @param partitionCount the total number of partitions
+     * @return a PolyValue[] iterator representing the tuples of the partition
+     */
+    public Iterator<PolyValue[]> getArrayIterator( int partition, int partitionCount ) {
+        assert 0 <= partition && partition < partitionCount;
+        Iterator<PolyValue[]> iterator = getArrayIterator();
+        if ( partitionCount == 1 ) {
+            return iterator;
+        }
+        return new Iterator<>() {
+            private long position = 0;
+            private PolyValue[] next;
+
+
+            @Override
+            public boolean hasNext() {
+                while ( next == null && iterator.hasNext() ) {
+                    PolyValue[] tuple = iterator.next();
+                    if ( position++ % partitionCount == partition ) {
+                        next = tuple;
+                    }
+                }
+                return next != null;
+            }
+
+
+            @Override
+            public PolyValue[] next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                PolyValue[] tuple = next;
+                next = null;
+                return tuple;
+            }
+        };
+    }
+
+    /**
+     * Whether {@link #getArrayIterator(int, int)} only reads the tuples of the partition.
+     * Otherwise, reading all partitions results in one full scan of the checkpoint per partition.
+     *
+     * @return true if this reader can split the checkpoint without scanning all of it for every partition
+     */
+    public boolean canSplit() {
+        return false;
+    }
+
     public abstract long getTupleCount();
 
     public abstract DataModel getDataModel();
@@ -88,6 +145,21 @@ public final Iterator<List<PolyValue>> getIterator() {
     }
 
 
+    /**
+     * Get a new iterator for a single partition of this checkpoint that transforms the raw PolyValue array into a
+     * mutable list.
+     * The iterator is closed automatically when this reader is closed.
+     *
+     * @param partition the index of the partition
+     * @param partitionCount the total number of partitions
+     * @return An iterator that yields the tuples of the partition as mutable lists.
+     * @see #getArrayIterator(int, int)
+     */
+    public final Iterator<List<PolyValue>> getIterator( int partition, int partitionCount ) {
+        return arrayToListIterator( getArrayIterator( partition, partitionCount ), false );
+    }
+
+
     /**
      * Convenience method that wraps the iterator from {@code getIterator()} into an Iterable
      * to enable enhanced for loops.
@@ -150,6 +222,22 @@ public AlgDataType getTupleType() {
     }
 
 
+    /**
+     * Returns the entity that represents this checkpoint in queries.
+     */
+    LogicalEntity getQueryEntity() {
+        return entity;
+    }
+
+
+    /**
+     * Returns the transaction to be used for queries that read this checkpoint.
+     */
+    Transaction getQueryTransaction() {
+        return transaction;
+    }
+
+
     void registerIterator( Iterator<PolyValue[]> iterator ) {
         if ( iterator instanceof AutoCloseable closeable ) {
             openIterators.add( closeable );
@@ -205,11 +293,12 @@ public List<PolyValue> next() {
      */
     public Pair<AlgDataType, Iterator<List<PolyValue>>> getIteratorFromQuery( CheckpointQuery query, List<CheckpointReader> inputs ) {
         assert inputs.contains( this );
-        List<LogicalEntity> entities = inputs.stream().map( reader -> reader == null ? null : reader.entity ).toList();
+        List<LogicalEntity> entities = inputs.stream().map( reader -> reader == null ? null : reader.getQueryEntity() ).toList();
 
         String queryStr = query.getQueryWithPlaceholdersReplaced( entities );
 
-        QueryContext context = QueryUtils.constructContext( queryStr, query.getQueryLanguage(), entity.getNamespaceId(), transaction );
+        Transaction transaction = getQueryTransaction();
+        QueryContext context = QueryUtils.constructContext( queryStr, query.getQueryLanguage(), getQueryEntity().getNamespaceId(), transaction );
         Statement statement = transaction.createStatement();
         Pair<ParsedQueryContext, AlgRoot> parsed = QueryUtils.parseAndTranslateQuery( context, statement );
 
@@ -256,7 +345,9 @@ public void close() {
             }
         }
         openIterators.clear();
-        transaction.commit();  // read-only transaction
+        if ( transaction != null ) {
+            transaction.commit();  // read-only transaction
+        }
     }
 
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage.reader;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.catalog.entity.logical.LogicalEntity;
+import org.polypheny.db.catalog.logistic.DataModel;
+import org.polypheny.db.plan.AlgCluster;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.Triple;
+import org.polypheny.db.webui.models.results.Result;
+import org.polypheny.db.workflow.engine.storage.CheckpointMetadata.RelMetadata;
+import org.polypheny.db.workflow.engine.storage.columnar.ColumnarFileReader;
+
+/**
+ * Reads a relational checkpoint that is stored in a local columnar file.
+ * <p>
+ * Iterating over the tuples does not involve the query pipeline at all. Only if the checkpoint is used in
+ * a query or an algebra tree (e.g. for fusion), it gets materialized as a table once.
+ */
+public class ColumnarRelReader extends CheckpointReader {
+
+    @Getter
+    private final Path path;
+    private final Supplier<RelReader> materializer;
+    private RelReader materialized;
+
+
+    /**
+     * Creates a new reader for a columnar checkpoint file.
+     *
+     * @param path the checkpoint file
+     * @param metadata the metadata of the checkpoint
+     * @param materializer returns a reader for a table that contains the same tuples as the file
+     */
+    public ColumnarRelReader( Path path, RelMetadata metadata, Supplier<RelReader> materializer ) {
+        super( null, null, metadata );
+        this.path = path;
+        this.materializer = materializer;
+    }
+
+
+    @Override
+    public AlgNode getAlgNode( AlgCluster cluster ) {
+        return materialize().getAlgNode( cluster );
+    }
+
+
+    @Override
+    public Iterator<PolyValue[]> getArrayIterator() {
+        return getArrayIterator( 0, 1 );
+    }
+
+
+    /**
+     * Splits the checkpoint by assigning its segments round-robin to the partitions.
+     */
+    @Override
+    public Iterator<PolyValue[]> getArrayIterator( int partition, int partitionCount ) {
+        FileIterator iterator = new FileIterator( new ColumnarFileReader( path, getTupleType().getFields().stream().map( AlgDataTypeField::getType ).map( AlgDataType::getPolyType ).toList() ), partition, partitionCount );
+        registerIterator( iterator );
+        return iterator;
+    }
+
+
+    @Override
+    public boolean canSplit() {
+        return true;
+    }
+
+
+    @Override
+    public long getTupleCount() {
+        return metadata.getTupleCount();
+    }
+
+
+    @Override
+    public DataModel getDataModel() {
+        return DataModel.RELATIONAL;
+    }
+
+
+    @Override
+    public Triple<Result<?, ?>, Integer, Long> getPreview( @Nullable Integer maxTuples ) {
+        return materialize().getPreview( maxTuples );
+    }
+
+
+    @Override
+    public AlgDataType getTupleType() {
+        return metadata.asRel().getType();
+    }
+
+
+    @Override
+    LogicalEntity getQueryEntity() {
+        return materialize().getEntity();
+    }
+
+
+    @Override
+    Transaction getQueryTransaction() {
+        return materialize().transaction;
+    }
+
+
+    private RelReader materialize() {
+        if ( materialized == null ) {
+            materialized = materializer.get();
+        }
+        return materialized;
+    }
+
+
+    @Override
+    public void close() {
+        super.close();
+        if ( materialized != null ) {
+            materialized.close();
+            materialized = null;
+        }
+    }
+
+
+    private static class FileIterator implements Iterator<PolyValue[]>, AutoCloseable {
+
+        private final ColumnarFileReader file;
+        private final Iterator<PolyValue[]> iterator;
+
+
+        private FileIterator( ColumnarFileReader file, int firstSegment, int segmentStep ) {
+            this.file = file;
+            this.iterator = file.iterator( firstSegment, segmentStep );
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+
+        @Override
+        public PolyValue[] next() {
+            return iterator.next();
+        }
+
+
+        @Override
+        public void close() {
+            file.close();
+        }
+
+    }
+
+}
@@ -82,6 +82,28 @@ public Iterator<PolyValue[]> getArrayIterator() {
     }
 
 
+    /**
+     * Splits the checkpoint by the remainder of its primary key, which lets the store evaluate the filter.
+     * The remainder of a negative key is negative, it is shifted into {@code [0, partitionCount)} to not lose these tuples.
+     */
+    @Override
+    public Iterator<PolyValue[]> getArrayIterator( int partition, int partitionCount ) {
+        if ( partitionCount == 1 ) {
+            return getArrayIterator();
+        }
+        String key = QueryUtils.quote( StorageManager.PK_COL );
+        String query = "SELECT " + quotedCols + " FROM " + quotedIdentifier
+                + " WHERE MOD(MOD(" + key + ", " + partitionCount + ") + " + partitionCount + ", " + partitionCount + ") = " + partition;
+        return executeSqlQuery( query );
+    }
+
+
+    @Override
+    public boolean canSplit() {
+        return true;
+    }
+
+
     @Override
     public long getTupleCount() {
         return getRowCount();
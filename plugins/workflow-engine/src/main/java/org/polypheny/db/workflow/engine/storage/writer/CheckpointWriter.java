@@ -99,6 +99,15 @@ public final void write( Iterable<List<PolyValue>> iterable, ExecutionContext ct
     public abstract long getWriteCount();
 
 
+    /**
+     * Returns the time in nanoseconds spent executing the batches that wrote the tuples,
+     * or 0 if the writer does not measure its batches.
+     */
+    public long getBatchNanos() {
+        return 0;
+    }
+
+
     @Override
     public void close() throws Exception {
         // even in case of an error we can commit, since the checkpoint will be dropped
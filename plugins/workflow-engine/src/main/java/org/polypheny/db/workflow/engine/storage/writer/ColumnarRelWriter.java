@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage.writer;
+
+import java.nio.file.Path;
+import java.util.Map;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.workflow.engine.storage.CheckpointMetadata.RelMetadata;
+import org.polypheny.db.workflow.engine.storage.columnar.ColumnarFileWriter;
+
+/**
+ * A RelWriter that writes the checkpoint to a local columnar file instead of a table.
+ */
+public class ColumnarRelWriter extends RelWriter {
+
+    private final ColumnarFileWriter file;
+    private final int fieldCount;
+    private boolean closed;
+
+
+    public ColumnarRelWriter( Path path, AlgDataType type, boolean resetPk, RelMetadata metadata ) {
+        super( type, resetPk, metadata );
+        this.fieldCount = type.getFieldCount();
+        this.file = new ColumnarFileWriter( path, type.getFields().stream().map( AlgDataTypeField::getType ).map( AlgDataType::getPolyType ).toList() );
+    }
+
+
+    @Override
+    protected void writeRow( Map<Long, PolyValue> rowMap ) {
+        PolyValue[] row = new PolyValue[fieldCount];
+        for ( int i = 0; i < fieldCount; i++ ) {
+            row[i] = rowMap.get( (long) i );
+        }
+        file.write( row );
+    }
+
+
+    @Override
+    public void close() throws Exception {
+        metadata.asRel().setTupleCount( getWriteCount() );
+        if ( !closed ) { // ensure writer is only closed once
+            closed = true;
+            try {
+                file.close();
+            } finally {
+                metadata.close();
+            }
+        }
+    }
+
+}
@@ -40,6 +40,17 @@ public class RelWriter extends CheckpointWriter {
     private long writeCount = 0;
 
 
+    /**
+     * Creates a RelWriter that is not backed by a table. Subclasses must override {@link #writeRow(Map)} and {@link #close()}.
+     */
+    protected RelWriter( AlgDataType type, boolean resetPk, RelMetadata metadata ) {
+        super( null, null, metadata );
+        this.resetPk = resetPk;
+        this.mapCapacity = (int) Math.ceil( type.getFieldCount() / 0.75 );
+        this.writer = null;
+    }
+
+
     public RelWriter( LogicalTable table, Transaction transaction, boolean resetPk, RelMetadata metadata ) {
         super( table, transaction, metadata );
         this.resetPk = resetPk;
@@ -135,6 +146,12 @@ public long getWriteCount() {
     }
 
 
+    @Override
+    public long getBatchNanos() {
+        return writer == null ? 0 : writer.getExecutionNanos();
+    }
+
+
     @Override
     public void close() throws Exception {
         metadata.asRel().setTupleCount( writeCount );
@@ -154,6 +171,14 @@ private void writeToBatch( Map<Long, PolyValue> rowMap ) {
             currentPk++;
         }
         writeCount++;
+        writeRow( rowMap );
+    }
+
+
+    /**
+     * Writes a complete row, where the keys of the map correspond to the column indices.
+     */
+    protected void writeRow( Map<Long, PolyValue> rowMap ) {
         writer.write( rowMap );
     }
 
@@ -42,6 +42,12 @@ public class ActivityConfigModel {
 
     boolean logErrors;
 
+    /**
+     * The number of parallel instances used for executing a row-independent Pipeable activity over disjoint partitions of its input.
+     * Values smaller than 2 result in the usual sequential execution.
+     */
+    int parallelism;
+
 
     /**
      * Returns the name of the preferred store corresponding to the given output index
@@ -67,7 +73,8 @@ public ActivityConfigModel(
             @JsonProperty(value = "commonType", required = true) CommonType commonType,
             @JsonProperty("controlStateMerger") ControlStateMerger controlStateMerger,
             @JsonProperty("expectedOutcome") ExpectedOutcome expectedOutcome,
-            @JsonProperty("logErrors") boolean logErrors ) {
+            @JsonProperty("logErrors") boolean logErrors,
+            @JsonProperty("parallelism") int parallelism ) {
 
         this.enforceCheckpoint = enforceCheckpoint;
         this.timeoutSeconds = timeoutSeconds;
@@ -76,11 +83,12 @@ public ActivityConfigModel(
         this.controlStateMerger = controlStateMerger;
         this.expectedOutcome = expectedOutcome != null ? expectedOutcome : ExpectedOutcome.ANY; // Default handling
         this.logErrors = logErrors;
+        this.parallelism = Math.max( parallelism, 1 );
     }
 
 
     public static ActivityConfigModel of() {
-        return new ActivityConfigModel( false, 0, null, CommonType.NONE, ControlStateMerger.AND_AND, ExpectedOutcome.ANY, true );
+        return new ActivityConfigModel( false, 0, null, CommonType.NONE, ControlStateMerger.AND_AND, ExpectedOutcome.ANY, true, 1 );
     }
 
 
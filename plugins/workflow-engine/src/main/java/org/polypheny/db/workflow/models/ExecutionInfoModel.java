@@ -41,6 +41,10 @@ public class ExecutionInfoModel {
     @Getter(AccessLevel.NONE)
     boolean isSuccess; // only valid when state == DONE
     long tuplesWritten;
+    double tuplesPerSecond; // -1 if no tuples were written
+    double batchTuplesPerSecond; // tuples written per second while executing write batches, -1 if no batches were measured
+    double estimatedDuration; // millis, as estimated by the optimizer. -1 if no estimate is available
+    double plannerCost; // -1 if the activities were not fused
     @JsonInclude(JsonInclude.Include.NON_NULL)
     List<String> log;
 
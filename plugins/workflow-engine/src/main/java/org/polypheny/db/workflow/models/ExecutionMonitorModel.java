@@ -36,6 +36,10 @@ public class ExecutionMonitorModel {
     int skipCount;
     Map<ExecutorType, Integer> countByExecutorType;
     long tuplesWritten;
+    double tuplesPerSecond; // written tuples per second of workflow duration
+    double batchTuplesPerSecond; // tuples written per second while executing write batches, -1 if no batches were measured
+    double estimatedDuration; // sum of the durations estimated by the optimizer, in millis
+    double actualDuration; // sum of the actual execution durations of the same executions, in millis
     @JsonInclude(JsonInclude.Include.NON_NULL)
     Boolean isSuccess;
 
@@ -196,6 +196,38 @@ public static Workflow getSimplePipe() {
     }
 
 
+    public static Pair<Workflow, List<UUID>> getPartitionedStringClean( int nRows, int parallelism ) {
+        ActivityConfigModel config = new ActivityConfigModel( false, 0, null, CommonType.NONE, ControlStateMerger.AND_AND, ExpectedOutcome.ANY, true, parallelism );
+        Map<String, JsonNode> settings = Map.of(
+                "targets", mapper.valueToTree( Map.of( "include", List.of( "name" ), "exclude", List.of(), "unspecifiedIndex", -1 ) ),
+                "casing", TextNode.valueOf( "upper" ) );
+        List<ActivityModel> activities = List.of(
+                new ActivityModel( "relValues", Map.of( "rowCount", IntNode.valueOf( nRows ) ) ),
+                new ActivityModel( "relStringClean", UUID.randomUUID(), settings, config, RenderModel.of() )
+        );
+        List<EdgeModel> edges = List.of(
+                EdgeModel.of( activities.get( 0 ), activities.get( 1 ), 0 )
+        );
+        return getWorkflowWithActivities( activities, edges, false, false, 1 );
+    }
+
+
+    public static Pair<Workflow, List<UUID>> getPartitionedDocStringClean( int nDocs, int parallelism ) {
+        ActivityConfigModel config = new ActivityConfigModel( false, 0, null, CommonType.NONE, ControlStateMerger.AND_AND, ExpectedOutcome.ANY, true, parallelism );
+        Map<String, JsonNode> settings = Map.of(
+                "targets", mapper.valueToTree( Map.of( "include", List.of( "name" ), "exclude", List.of(), "unspecifiedIndex", -1 ) ),
+                "casing", TextNode.valueOf( "upper" ) );
+        List<ActivityModel> activities = List.of(
+                new ActivityModel( "docValues", Map.of( "count", IntNode.valueOf( nDocs ) ) ),
+                new ActivityModel( "docStringClean", UUID.randomUUID(), settings, config, RenderModel.of() )
+        );
+        List<EdgeModel> edges = List.of(
+                EdgeModel.of( activities.get( 0 ), activities.get( 1 ), 0 )
+        );
+        return getWorkflowWithActivities( activities, edges, false, false, 1 );
+    }
+
+
     public static Workflow getLongRunningPipe( int minMillis ) {
         int n = 100;
         List<ActivityModel> activities = List.of(
@@ -270,6 +302,21 @@ public static Pair<Workflow, List<UUID>> pipeOverwritesFuse() {
     }
 
 
+    public static Pair<Workflow, List<UUID>> getFusableAndPipeableChain() {
+        // all activities can be fused or piped, the optimizer decides based on the estimated cost
+        List<ActivityModel> activities = List.of(
+                new ActivityModel( "relValues" ),
+                new ActivityModel( "identity" ),
+                new ActivityModel( "identity" )
+        );
+        List<EdgeModel> edges = List.of(
+                EdgeModel.of( activities.get( 0 ), activities.get( 1 ), 0 ),
+                EdgeModel.of( activities.get( 1 ), activities.get( 2 ), 0 )
+        );
+        return getWorkflowWithActivities( activities, edges, true, true, 1 );
+    }
+
+
     public static Workflow getVariableWritingWorkflow() {
         List<ActivityModel> activities = List.of(
                 new ActivityModel( "relValues" ),
@@ -510,7 +557,7 @@ private static Pair<Workflow, List<UUID>> getWorkflowWithActivities( List<Activi
 
 
     private static ActivityModel getCommonActivity( String type, Map<String, JsonNode> settings, CommonType commonType ) {
-        ActivityConfigModel config = new ActivityConfigModel( false, 0, null, commonType, ControlStateMerger.AND_AND, ExpectedOutcome.ANY, true );
+        ActivityConfigModel config = new ActivityConfigModel( false, 0, null, commonType, ControlStateMerger.AND_AND, ExpectedOutcome.ANY, true, 1 );
         return new ActivityModel( type, UUID.randomUUID(), settings, config, RenderModel.of() );
     }
 
@@ -169,6 +169,15 @@ public void checkSubPointers() {
     }
 
 
+    @Test
+    public void javaTransformIsNotRowIndependentTest() {
+        // the transformation code may keep state across rows, like the row counter of the default code
+        String activityType = "relJavaTransform";
+        Pipeable activity = (Pipeable) ActivityRegistry.activityFromType( activityType );
+        assertFalse( activity.isRowIndependent( ActivityRegistry.getDefaultSettings( activityType ) ) );
+    }
+
+
     @Test
     public void intVariableResolveTest() throws InvalidSettingException {
         int newValue = 42;
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.execution.pipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+import org.polypheny.db.workflow.dag.activities.impl.transform.IdentityActivity;
+import org.polypheny.db.workflow.dag.variables.ReadableVariableStore;
+import org.polypheny.db.workflow.engine.execution.context.PipeExecutionContext;
+
+class BatchingQueuePipeTest {
+
+    private static final int CAPACITY = 1000;
+
+
+    @Test
+    void identityChainPreservesOrderTest() throws Exception {
+        int n = 100_000;
+        List<List<PolyValue>> result = new ArrayList<>();
+        runIdentityChain( 5, n, result );
+
+        assertEquals( n, result.size() );
+        for ( int i = 0; i < n; i++ ) {
+            assertEquals( i, result.get( i ).get( 0 ).asInteger().value );
+        }
+    }
+
+
+    @Test
+    void finishedConsumerStopsProducerTest() throws Exception {
+        BatchingQueuePipe pipe = new BatchingQueuePipe( 10, null, new DummyContext(), -1 );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> producer = executor.submit( () -> {
+                int i = 0;
+                try ( pipe ) {
+                    while ( pipe.put( PolyInteger.of( i ) ) ) {
+                        i++;
+                    }
+                }
+                return i;
+            } );
+            int consumed = 0;
+            for ( List<PolyValue> ignored : pipe ) {
+                if ( ++consumed == 50 ) {
+                    pipe.finishIteration();
+                    break;
+                }
+            }
+            assertTrue( producer.get( 5, TimeUnit.SECONDS ) >= 50 );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Pipes {@code n} tuples through a chain of {@link IdentityActivity} instances, each running in its own thread.
+     */
+    private static void runIdentityChain( int chainLength, int n, List<List<PolyValue>> result ) throws Exception {
+        List<InputPipe> pipes = new ArrayList<>();
+        for ( int i = 0; i <= chainLength; i++ ) {
+            pipes.add( new BatchingQueuePipe( CAPACITY, null, new DummyContext(), n ) );
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( chainLength + 1 );
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add( executor.submit( () -> {
+                try ( OutputPipe out = (OutputPipe) pipes.get( 0 ) ) {
+                    for ( int i = 0; i < n; i++ ) {
+                        out.put( PolyInteger.of( i ) );
+                    }
+                }
+                return null;
+            } ) );
+            for ( int i = 0; i < chainLength; i++ ) {
+                InputPipe in = pipes.get( i );
+                OutputPipe out = (OutputPipe) pipes.get( i + 1 );
+                futures.add( executor.submit( () -> {
+                    try ( out ) {
+                        new IdentityActivity().pipe( List.of( in ), out, null, new DummyContext() );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( List<PolyValue> value : pipes.get( chainLength ) ) {
+                result.add( value );
+            }
+            for ( Future<?> future : futures ) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private static class DummyContext implements PipeExecutionContext {
+
+        @Override
+        public void checkPipeInterrupted() {
+        }
+
+
+        @Override
+        public void updateProgress( double value ) {
+        }
+
+
+        @Override
+        public Transaction getTransaction() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public ReadableVariableStore getVariableStore() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void reportBatchWrites( long tuples, long nanos ) {
+        }
+
+
+        @Override
+        public void logInfo( String message ) {
+        }
+
+
+        @Override
+        public void logWarning( String message ) {
+        }
+
+
+        @Override
+        public void logError( String message ) {
+        }
+
+
+        @Override
+        public List<Long> getEstimatedInCounts() {
+            return List.of();
+        }
+
+    }
+
+}
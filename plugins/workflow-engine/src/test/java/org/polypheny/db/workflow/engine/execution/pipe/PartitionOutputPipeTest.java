@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.execution.pipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+
+class PartitionOutputPipeTest {
+
+    @Test
+    void allPartitionsAreForwardedTest() throws Exception {
+        int partitionCount = 4;
+        int n = 10_000; // not a multiple of the chunk size, the last chunk is forwarded when closing
+        CollectingPipe target = new CollectingPipe( -1 );
+        ExecutorService executor = Executors.newFixedThreadPool( partitionCount );
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int p = 0; p < partitionCount; p++ ) {
+                int partition = p;
+                futures.add( executor.submit( () -> {
+                    try ( PartitionOutputPipe pipe = new PartitionOutputPipe( target ) ) {
+                        for ( int i = partition; i < n; i += partitionCount ) {
+                            assertTrue( pipe.put( PolyInteger.of( i ) ) );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures ) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals( n, target.values.size() );
+        assertEquals( n, target.values.stream().map( v -> v.get( 0 ).asInteger().value ).distinct().count() );
+
+        // the tuples of a partition keep their order
+        List<Integer> first = target.values.stream().map( v -> v.get( 0 ).asInteger().value ).filter( i -> i % partitionCount == 0 ).toList();
+        assertEquals( first.stream().sorted().toList(), first );
+    }
+
+
+    @Test
+    void finishedTargetStopsPartitionTest() throws Exception {
+        CollectingPipe target = new CollectingPipe( 10 );
+        int put = 0;
+        try ( PartitionOutputPipe pipe = new PartitionOutputPipe( target ) ) {
+            while ( pipe.put( PolyInteger.of( put ) ) ) {
+                put++;
+                if ( put > 10 * PartitionOutputPipe.CHUNK_SIZE ) {
+                    break;
+                }
+            }
+            assertFalse( pipe.put( PolyInteger.of( put ) ) );
+        }
+        // the pipe stops once the first chunk has been rejected by the target
+        assertEquals( PartitionOutputPipe.CHUNK_SIZE - 1, put );
+        assertEquals( 10, target.values.size() );
+    }
+
+
+    /**
+     * Collects the tuples and rejects all tuples after the given limit.
+     */
+    private static class CollectingPipe implements OutputPipe {
+
+        private final List<List<PolyValue>> values = new ArrayList<>();
+        private final int limit;
+
+
+        private CollectingPipe( int limit ) {
+            this.limit = limit;
+        }
+
+
+        @Override
+        public boolean put( List<PolyValue> value ) {
+            if ( limit >= 0 && values.size() >= limit ) {
+                return false;
+            }
+            values.add( value );
+            return true;
+        }
+
+
+        @Override
+        public AlgDataType getType() {
+            return null;
+        }
+
+
+        @Override
+        public double getEstimatedProgress() {
+            return -1;
+        }
+
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
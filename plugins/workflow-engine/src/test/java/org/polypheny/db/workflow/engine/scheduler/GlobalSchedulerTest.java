@@ -23,6 +23,7 @@
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -31,6 +32,7 @@
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.polypheny.db.TestHelper;
+import org.polypheny.db.type.entity.PolyString;
 import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.util.Pair;
 import org.polypheny.db.workflow.WorkflowUtils;
@@ -38,6 +40,7 @@
 import org.polypheny.db.workflow.dag.Workflow.WorkflowState;
 import org.polypheny.db.workflow.dag.activities.ActivityWrapper.ActivityState;
 import org.polypheny.db.workflow.dag.edges.ControlEdge;
+import org.polypheny.db.workflow.engine.execution.DefaultExecutor;
 import org.polypheny.db.workflow.engine.storage.StorageManager;
 import org.polypheny.db.workflow.engine.storage.StorageManagerImpl;
 import org.polypheny.db.workflow.engine.storage.StorageUtils;
@@ -124,6 +127,44 @@ void executeMergeWorkflowTest() throws Exception {
     }
 
 
+    @Test
+    void executePartitionedActivityTest() throws Exception {
+        int n = 3 * (int) DefaultExecutor.MIN_TUPLES_PER_PARTITION;
+        Pair<Workflow, List<UUID>> pair = WorkflowUtils.getPartitionedStringClean( n, 3 );
+        List<UUID> ids = pair.right;
+        scheduler.startExecution( pair.left, sm, null );
+        scheduler.awaitResultProcessor( 60_000 );
+        assertEquals( ActivityState.SAVED, pair.left.getActivity( ids.get( 1 ) ).getState() );
+
+        // every tuple has to be processed by exactly one of the partitions
+        List<String> expected = StorageUtils.readCheckpoint( sm, ids.get( 0 ), 0 ).stream()
+                .map( t -> t.get( 1 ).asString().value.toUpperCase( Locale.ROOT ) + ", " + withoutKey( t, 2 ) ).sorted().toList();
+        List<String> actual = StorageUtils.readCheckpoint( sm, ids.get( 1 ), 0 ).stream()
+                .map( t -> t.get( 1 ).asString().value + ", " + withoutKey( t, 2 ) ).sorted().toList();
+        assertEquals( n, expected.size() );
+        assertEquals( expected, actual );
+    }
+
+
+    @Test
+    void executePartitionedDocActivityTest() throws Exception {
+        // document checkpoints cannot be split, so they are read once and routed to the partitions
+        int n = 3 * (int) DefaultExecutor.MIN_TUPLES_PER_PARTITION;
+        Pair<Workflow, List<UUID>> pair = WorkflowUtils.getPartitionedDocStringClean( n, 3 );
+        List<UUID> ids = pair.right;
+        scheduler.startExecution( pair.left, sm, null );
+        scheduler.awaitResultProcessor( 60_000 );
+        assertEquals( ActivityState.SAVED, pair.left.getActivity( ids.get( 1 ) ).getState() );
+
+        List<String> expected = StorageUtils.readCheckpoint( sm, ids.get( 0 ), 0 ).stream()
+                .map( t -> t.get( 0 ).asDocument().get( PolyString.of( "name" ) ).asString().value.toUpperCase( Locale.ROOT ) ).sorted().toList();
+        List<String> actual = StorageUtils.readCheckpoint( sm, ids.get( 1 ), 0 ).stream()
+                .map( t -> t.get( 0 ).asDocument().get( PolyString.of( "name" ) ).asString().value ).sorted().toList();
+        assertEquals( n, expected.size() );
+        assertEquals( expected, actual );
+    }
+
+
     @Test
     void executeWorkflowInStepsTest() throws Exception {
         Workflow workflow = WorkflowUtils.getUnionWorkflow();
@@ -541,4 +582,9 @@ private void executeAllAndCheck( Workflow workflow ) throws Exception {
         executeAllAndCheck( workflow, WorkflowUtils.getTopologicalActivityIds( workflow ), List.of(), List.of() );
     }
 
+
+    private static String withoutKey( List<PolyValue> tuple, int from ) {
+        return tuple.subList( from, tuple.size() ).stream().map( PolyValue::toJson ).toList().toString();
+    }
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.scheduler.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.catalog.logistic.DataModel;
+import org.polypheny.db.util.Pair;
+import org.polypheny.db.util.graph.AttributedDirectedGraph;
+import org.polypheny.db.workflow.WorkflowUtils;
+import org.polypheny.db.workflow.dag.Workflow;
+import org.polypheny.db.workflow.engine.execution.Executor.ExecutorType;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionStatistics;
+import org.polypheny.db.workflow.engine.scheduler.ExecutionEdge;
+import org.polypheny.db.workflow.engine.storage.StorageManager;
+import org.polypheny.db.workflow.engine.storage.StorageManagerImpl;
+import org.polypheny.db.workflow.engine.storage.StorageUtils;
+
+class CostModelTest {
+
+    private static final UUID sessionId = UUID.randomUUID();
+    private static final double DELTA = 1e-6;
+    private static final double TUPLES_MILLIS = CostModel.DEFAULT_TUPLE_COUNT / 1e6; // converts nanos per tuple to millis
+    private static StorageManager sm;
+    private static TestHelper testHelper;
+
+    private Workflow workflow;
+    private List<UUID> ids;
+    private AttributedDirectedGraph<UUID, ExecutionEdge> dag;
+
+
+    @BeforeAll
+    public static void start() throws SQLException {
+        testHelper = TestHelper.getInstance();
+        StorageUtils.addHsqldbLocksStore( "locks" );
+    }
+
+
+    @BeforeEach
+    public void init() {
+        sm = new StorageManagerImpl( testHelper.getTransactionManager(), sessionId, StorageUtils.getDefaultStoreMap( "locks" ) );
+        ExecutionStatistics.INSTANCE.clear();
+        Pair<Workflow, List<UUID>> pair = WorkflowUtils.getFusableAndPipeableChain();
+        workflow = pair.left;
+        ids = pair.right;
+        dag = workflow.toDag();
+    }
+
+
+    @AfterEach
+    public void cleanup() {
+        ExecutionStatistics.INSTANCE.clear();
+        try {
+            sm.close();
+        } catch ( Exception e ) {
+            throw new RuntimeException( e );
+        }
+        testHelper.checkAllTrxClosed();
+    }
+
+
+    @Test
+    void tupleCountIsPropagatedTest() {
+        CostModel model = new CostModel( workflow, sm );
+        for ( UUID id : ids ) {
+            assertEquals( CostModel.DEFAULT_TUPLE_COUNT, model.estimateTupleCount( id ) );
+        }
+        assertEquals( 0, model.getInputTupleCount( Set.of( ids.get( 0 ) ) ) );
+        assertEquals( -1, model.getInputTupleCount( Set.of( ids.get( 1 ) ) ) ); // checkpoint of relValues does not exist yet
+    }
+
+
+    @Test
+    void storeCheckpointTest() {
+        CostModel model = new CostModel( workflow, sm );
+        Set<UUID> component = Set.of( ids.get( 1 ) );
+
+        double expected = CostModel.SUBMISSION_OVERHEAD_MILLIS
+                + TUPLES_MILLIS * (CostModel.PROCESS_NANOS + CostModel.STORE_WRITE_NANOS + CostModel.STORE_READ_NANOS);
+        assertEquals( expected, model.estimateMillis( dag, component, ExecutorType.DEFAULT ), DELTA );
+
+        double expectedFused = CostModel.SUBMISSION_OVERHEAD_MILLIS
+                + TUPLES_MILLIS * (CostModel.FUSED_PROCESS_NANOS + CostModel.STORE_WRITE_NANOS + CostModel.STORE_READ_NANOS);
+        assertEquals( expectedFused, model.estimateMillis( dag, component, ExecutorType.FUSION ), DELTA );
+    }
+
+
+    @Test
+    void localCheckpointTest() {
+        sm.setDefaultStore( DataModel.RELATIONAL, StorageManager.LOCAL_CHECKPOINT_STORE );
+        CostModel model = new CostModel( workflow, sm );
+        Set<UUID> component = Set.of( ids.get( 1 ) );
+
+        double expected = CostModel.SUBMISSION_OVERHEAD_MILLIS
+                + TUPLES_MILLIS * (CostModel.PROCESS_NANOS + CostModel.LOCAL_WRITE_NANOS + CostModel.LOCAL_READ_NANOS);
+        assertEquals( expected, model.estimateMillis( dag, component, ExecutorType.DEFAULT ), DELTA );
+
+        // a fused query can only read the local checkpoint after materializing it in a data store
+        double expectedFused = CostModel.SUBMISSION_OVERHEAD_MILLIS
+                + TUPLES_MILLIS * (CostModel.FUSED_PROCESS_NANOS + CostModel.LOCAL_WRITE_NANOS
+                + CostModel.LOCAL_READ_NANOS + CostModel.STORE_WRITE_NANOS + CostModel.STORE_READ_NANOS);
+        assertEquals( expectedFused, model.estimateMillis( dag, component, ExecutorType.FUSION ), DELTA );
+    }
+
+
+    @Test
+    void pipeTest() {
+        CostModel model = new CostModel( workflow, sm );
+        Set<UUID> component = Set.copyOf( ids );
+
+        // only the last activity writes a checkpoint, the others pass their tuples through a pipe
+        double expected = CostModel.SUBMISSION_OVERHEAD_MILLIS + ids.size() * CostModel.PIPE_THREAD_MILLIS
+                + TUPLES_MILLIS * (ids.size() * CostModel.PROCESS_NANOS + (ids.size() - 1) * CostModel.PIPE_TRANSFER_NANOS + CostModel.STORE_WRITE_NANOS);
+        assertEquals( expected, model.estimateMillis( dag, component, ExecutorType.PIPE ), DELTA );
+    }
+
+
+    @Test
+    void observedDurationTest() {
+        ExecutionStatistics.INSTANCE.record( List.of( "identity" ), ExecutorType.DEFAULT, 1000, 3_000_000, -1 );
+        CostModel model = new CostModel( workflow, sm );
+
+        double expected = CostModel.SUBMISSION_OVERHEAD_MILLIS
+                + TUPLES_MILLIS * (3000 + CostModel.STORE_WRITE_NANOS + CostModel.STORE_READ_NANOS);
+        assertEquals( expected, model.estimateMillis( dag, Set.of( ids.get( 1 ) ), ExecutorType.DEFAULT ), DELTA );
+    }
+
+
+    @Test
+    void plannerCostTest() {
+        // identity: 1000 nanos per tuple and 0.1 cost units per tuple -> 10'000 nanos per cost unit
+        ExecutionStatistics.INSTANCE.record( List.of( "identity" ), ExecutorType.FUSION, 1000, 1_000_000, 100 );
+        // relValues: 4000 nanos per tuple and 0.1 cost units per tuple -> 40'000 nanos per cost unit
+        ExecutionStatistics.INSTANCE.record( List.of( "relValues" ), ExecutorType.FUSION, 1000, 4_000_000, 100 );
+        double nanosPerCostUnit = 0.7 * 10_000 + 0.3 * 40_000;
+        assertEquals( nanosPerCostUnit, ExecutionStatistics.INSTANCE.getNanosPerCostUnit(), DELTA );
+
+        // the planner cost is converted with the calibration of all fused executions instead of using the observed duration of identity
+        CostModel model = new CostModel( workflow, sm );
+        double expected = CostModel.SUBMISSION_OVERHEAD_MILLIS
+                + TUPLES_MILLIS * (0.1 * nanosPerCostUnit + CostModel.STORE_WRITE_NANOS + CostModel.STORE_READ_NANOS);
+        assertEquals( expected, model.estimateMillis( dag, Set.of( ids.get( 1 ) ), ExecutorType.FUSION ), DELTA );
+        assertTrue( expected > CostModel.SUBMISSION_OVERHEAD_MILLIS + TUPLES_MILLIS * (1000 + CostModel.STORE_WRITE_NANOS + CostModel.STORE_READ_NANOS) );
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.scheduler.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.util.Pair;
+import org.polypheny.db.workflow.WorkflowUtils;
+import org.polypheny.db.workflow.dag.Workflow;
+import org.polypheny.db.workflow.engine.execution.Executor.ExecutorType;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionMonitor;
+import org.polypheny.db.workflow.engine.monitoring.ExecutionStatistics;
+import org.polypheny.db.workflow.engine.scheduler.ExecutionSubmission;
+import org.polypheny.db.workflow.engine.scheduler.WorkflowScheduler;
+import org.polypheny.db.workflow.engine.storage.StorageManager;
+import org.polypheny.db.workflow.engine.storage.StorageManagerImpl;
+import org.polypheny.db.workflow.engine.storage.StorageUtils;
+
+class WorkflowOptimizerTest {
+
+    private static final UUID sessionId = UUID.randomUUID();
+    private static StorageManager sm;
+    private static TestHelper testHelper;
+
+
+    @BeforeAll
+    public static void start() throws SQLException {
+        testHelper = TestHelper.getInstance();
+        StorageUtils.addHsqldbLocksStore( "locks" );
+    }
+
+
+    @BeforeEach
+    public void init() {
+        sm = new StorageManagerImpl( testHelper.getTransactionManager(), sessionId, StorageUtils.getDefaultStoreMap( "locks" ) );
+        ExecutionStatistics.INSTANCE.clear();
+    }
+
+
+    @AfterEach
+    public void cleanup() {
+        ExecutionStatistics.INSTANCE.clear();
+        try {
+            sm.close();
+        } catch ( Exception e ) {
+            throw new RuntimeException( e );
+        }
+        testHelper.checkAllTrxClosed();
+    }
+
+
+    @Test
+    void fusionIsPreferredByDefaultTest() throws Exception {
+        Pair<Workflow, List<UUID>> pair = WorkflowUtils.getFusableAndPipeableChain();
+        ExecutionSubmission submission = getSingleSubmission( pair.left );
+
+        assertEquals( ExecutorType.FUSION, submission.getExecutor().getType() );
+        assertEquals( Set.copyOf( pair.right ), submission.getActivities() );
+    }
+
+
+    @Test
+    void expensivePlannerCostPreventsFusionTest() throws Exception {
+        // 1 ms per tuple for fused activities, derived from their planner cost
+        ExecutionStatistics.INSTANCE.record( List.of( "relValues", "identity" ), ExecutorType.FUSION, 1000, 2_000_000_000L, 2000 );
+
+        Pair<Workflow, List<UUID>> pair = WorkflowUtils.getFusableAndPipeableChain();
+        ExecutionSubmission submission = getSingleSubmission( pair.left );
+
+        assertEquals( ExecutorType.PIPE, submission.getExecutor().getType() );
+        assertEquals( Set.copyOf( pair.right ), submission.getActivities() );
+    }
+
+
+    @Test
+    void expensivePipeIsNotChosenTest() throws Exception {
+        ExecutionStatistics.INSTANCE.record( List.of( "relValues", "identity" ), ExecutorType.FUSION, 1000, 2_000_000_000L, 2000 );
+        ExecutionStatistics.INSTANCE.record( List.of( "relValues", "identity" ), ExecutorType.PIPE, 1000, 2_000_000_000L, -1 );
+
+        // materializing every intermediate result is cheaper than fusing or piping
+        Pair<Workflow, List<UUID>> pair = WorkflowUtils.getFusableAndPipeableChain();
+        ExecutionSubmission submission = getSingleSubmission( pair.left );
+
+        assertEquals( ExecutorType.DEFAULT, submission.getExecutor().getType() );
+        assertEquals( Set.of( pair.right.get( 0 ) ), submission.getActivities() );
+    }
+
+
+    private ExecutionSubmission getSingleSubmission( Workflow workflow ) throws Exception {
+        WorkflowScheduler scheduler = new WorkflowScheduler( workflow, sm, null, new ExecutionMonitor( workflow, null, null ), 1, null );
+        List<ExecutionSubmission> submissions = scheduler.startExecution();
+        assertEquals( 1, submissions.size() );
+        return submissions.get( 0 );
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.logical.LogicalTable;
+import org.polypheny.db.processing.QueryContext;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+
+class BatchWriterTest {
+
+    private static final int ROW_COUNT = 25_000; // spans several batches of at most 10'000 tuples
+
+    private static TestHelper testHelper;
+
+
+    @BeforeAll
+    public static void start() {
+        testHelper = TestHelper.getInstance();
+    }
+
+
+    @Test
+    void writePartitionedTableTest() throws Exception {
+        testWrite( "batch_partitioned", "PARTITION BY HASH (id) PARTITIONS 4" );
+    }
+
+
+    @Test
+    void writeUnpartitionedTableTest() throws Exception {
+        testWrite( "batch_unpartitioned", "" );
+    }
+
+
+    private void testWrite( String tableName, String partitioning ) throws Exception {
+        execute( "CREATE TABLE " + tableName + "( id INTEGER NOT NULL, name VARCHAR(20), PRIMARY KEY (id)) " + partitioning );
+        try {
+            Transaction transaction = testHelper.getTransaction();
+            LogicalTable table = transaction.getSnapshot().rel().getTable( Catalog.defaultNamespaceId, tableName ).orElseThrow();
+            Map<Long, AlgDataType> paramTypes = new HashMap<>();
+            for ( int i = 0; i < table.getTupleType().getFieldCount(); i++ ) {
+                paramTypes.put( (long) i, table.getTupleType().getFields().get( i ).getType() );
+            }
+            QueryContext context = QueryUtils.constructContext( "INSERT INTO " + QueryUtils.quotedIdentifier( table ) + " VALUES (?, ?)", "SQL", table.getNamespaceId(), transaction );
+
+            BatchWriter writer = new BatchWriter( context, transaction.createStatement(), paramTypes );
+            try {
+                for ( int i = 0; i < ROW_COUNT; i++ ) {
+                    Map<Long, PolyValue> map = new HashMap<>();
+                    map.put( 0L, PolyInteger.of( i ) );
+                    map.put( 1L, PolyString.of( "name" + i ) );
+                    writer.write( map );
+                }
+            } finally {
+                writer.close();
+            }
+            transaction.commit();
+            assertEquals( ROW_COUNT, writer.getWrittenCount() );
+            assertTrue( writer.getExecutionNanos() > 0 );
+
+            try ( JdbcConnection jdbcConnection = new JdbcConnection( false );
+                    java.sql.Statement statement = jdbcConnection.getConnection().createStatement();
+                    ResultSet rs = statement.executeQuery( "SELECT COUNT(*), COUNT(DISTINCT id), SUM(id) FROM " + tableName ) ) {
+                rs.next();
+                assertEquals( ROW_COUNT, rs.getLong( 1 ) );
+                assertEquals( ROW_COUNT, rs.getLong( 2 ) );
+                assertEquals( (long) ROW_COUNT * (ROW_COUNT - 1) / 2, rs.getLong( 3 ) );
+            }
+        } finally {
+            execute( "DROP TABLE " + tableName );
+        }
+        testHelper.checkAllTrxClosed();
+    }
+
+
+    private static void execute( String sql ) throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( true ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( java.sql.Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( sql );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.workflow.engine.storage.CheckpointCache.CachedCheckpoint;
+import org.polypheny.db.workflow.engine.storage.CheckpointMetadata.DocMetadata;
+
+class CheckpointCacheTest {
+
+    private static final CheckpointCache cache = CheckpointCache.INSTANCE;
+    private final Set<String> dropped = new HashSet<>();
+    private int previousCapacity;
+
+
+    @BeforeEach
+    void setUp() {
+        previousCapacity = RuntimeConfig.WORKFLOWS_CHECKPOINT_CACHE_SIZE.getInteger();
+        RuntimeConfig.WORKFLOWS_CHECKPOINT_CACHE_SIZE.setInteger( 2 );
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        RuntimeConfig.WORKFLOWS_CHECKPOINT_CACHE_SIZE.setInteger( 0 );
+        cache.put( checkpoint( "cleanup", null, null ) ); // evicts all remaining checkpoints
+        RuntimeConfig.WORKFLOWS_CHECKPOINT_CACHE_SIZE.setInteger( previousCapacity );
+    }
+
+
+    @Test
+    void leastRecentlyUsedIsEvictedTest() {
+        UUID session = UUID.randomUUID();
+        cache.put( checkpoint( "a", session, null ) );
+        cache.put( checkpoint( "b", session, null ) );
+        CachedCheckpoint a = cache.take( "a", session );
+        assertNotNull( a );
+        cache.put( a ); // a is now more recently used than b
+        cache.put( checkpoint( "c", session, null ) );
+
+        assertEquals( Set.of( "b" ), dropped );
+        assertEquals( 2, cache.size() );
+        assertNull( cache.take( "b", session ) );
+    }
+
+
+    @Test
+    void sessionCheckpointsAreNotSharedTest() {
+        UUID owner = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        cache.put( checkpoint( "entity", owner, null ) );
+        cache.put( checkpoint( "file", owner, Path.of( "file.pcol" ) ) );
+        assertNull( cache.take( "entity", other ) );
+        assertNull( cache.take( "file", other ) );
+
+        cache.release( owner, c -> checkpoint( c.getFingerprint(), null, c.getFile() ) );
+        assertTrue( dropped.contains( "entity" ) );
+        assertNull( cache.take( "entity", other ) );
+        assertNotNull( cache.take( "file", other ) ); // file is shared after its session was closed
+    }
+
+
+    private CachedCheckpoint checkpoint( String fingerprint, UUID sessionId, Path file ) {
+        return new CachedCheckpoint( fingerprint, sessionId, null, new DocMetadata(), file, () -> dropped.add( fingerprint ) );
+    }
+
+}
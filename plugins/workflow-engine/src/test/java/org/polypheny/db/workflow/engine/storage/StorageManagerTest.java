@@ -221,6 +221,40 @@ void createCheckpointWhileReadingTest() throws Exception {
     }
 
 
+    @Test
+    void readRelCheckpointPartitionsTest() throws Exception {
+        int partitionCount = 3;
+        try ( StorageManager sm = new StorageManagerImpl( testHelper.getTransactionManager(), sessionId, Map.of() ) ) {
+            UUID activityId = UUID.randomUUID();
+            AlgDataType type = getSampleType();
+            List<Integer> keys = new ArrayList<>();
+            try ( RelWriter writer = sm.createRelCheckpoint( activityId, 0, type, false, null ) ) {
+                // negative keys have a negative remainder, they must still be part of a partition
+                for ( int i = -50; i < 50; i++ ) {
+                    writer.write( List.of( PolyInteger.of( i ), PolyString.of( "value" + i ) ) );
+                    keys.add( i );
+                }
+            }
+
+            try ( RelReader reader = (RelReader) sm.readCheckpoint( activityId, 0 ) ) {
+                List<Integer> partitioned = new ArrayList<>();
+                for ( int partition = 0; partition < partitionCount; partition++ ) {
+                    Iterator<List<PolyValue>> it = reader.getIterator( partition, partitionCount );
+                    while ( it.hasNext() ) {
+                        List<PolyValue> tuple = it.next();
+                        int key = tuple.get( 0 ).asNumber().intValue();
+                        assertEquals( partition, Math.floorMod( key, partitionCount ) );
+                        assertEquals( "value" + key, tuple.get( 1 ).asString().value );
+                        partitioned.add( key );
+                    }
+                }
+                assertEquals( keys, partitioned.stream().sorted().toList() );
+            }
+        }
+        testHelper.checkAllTrxClosed();
+    }
+
+
     @Test
     void dropCheckpoints() throws Exception {
         AlgDataType type = getSampleType();
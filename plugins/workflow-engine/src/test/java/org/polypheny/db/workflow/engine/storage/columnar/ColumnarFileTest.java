@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.workflow.engine.storage.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.entity.PolyNull;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.numerical.PolyBigDecimal;
+import org.polypheny.db.type.entity.numerical.PolyDouble;
+import org.polypheny.db.type.entity.numerical.PolyLong;
+
+class ColumnarFileTest {
+
+    private static final List<PolyType> TYPES = List.of( PolyType.BIGINT, PolyType.VARCHAR, PolyType.DOUBLE, PolyType.DECIMAL );
+
+
+    @Test
+    void roundTripTest( @TempDir Path dir ) {
+        Path path = dir.resolve( "checkpoint.pcol" );
+        int n = ColumnarFileWriter.SEGMENT_SIZE * 2 + 17; // multiple segments, the last one partially filled
+
+        List<PolyValue[]> rows = new ArrayList<>();
+        try ( ColumnarFileWriter writer = new ColumnarFileWriter( path, TYPES ) ) {
+            for ( int i = 0; i < n; i++ ) {
+                PolyValue[] row = new PolyValue[]{
+                        PolyLong.of( i ),
+                        i % 7 == 0 ? PolyNull.NULL : PolyString.of( "value" + (i % 5) ), // dictionary encoded
+                        PolyDouble.of( i / 3.0 ),
+                        PolyBigDecimal.of( BigDecimal.valueOf( i, 2 ) ) };
+                rows.add( row );
+                writer.write( row );
+            }
+        }
+
+        try ( ColumnarFileReader reader = new ColumnarFileReader( path, TYPES ) ) {
+            assertEquals( n, reader.getRowCount() );
+            Iterator<PolyValue[]> iterator = reader.iterator();
+            for ( PolyValue[] expected : rows ) {
+                assertTrue( iterator.hasNext() );
+                PolyValue[] actual = iterator.next();
+                for ( int i = 0; i < expected.length; i++ ) {
+                    if ( expected[i].isNull() ) {
+                        assertTrue( actual[i].isNull() );
+                    } else {
+                        assertEquals( 0, expected[i].compareTo( actual[i] ), "Mismatch in column " + i + ": " + expected[i] + " vs " + actual[i] );
+                    }
+                }
+            }
+            assertFalse( iterator.hasNext() );
+        }
+    }
+
+
+    @Test
+    void emptyFileTest( @TempDir Path dir ) {
+        Path path = dir.resolve( "empty.pcol" );
+        new ColumnarFileWriter( path, TYPES ).close();
+        try ( ColumnarFileReader reader = new ColumnarFileReader( path, TYPES ) ) {
+            assertEquals( 0, reader.getRowCount() );
+            assertFalse( reader.iterator().hasNext() );
+        }
+    }
+
+}
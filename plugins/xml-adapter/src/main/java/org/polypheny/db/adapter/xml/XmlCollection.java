@@ -22,28 +22,38 @@
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.jetbrains.annotations.Nullable;
 import org.polypheny.db.adapter.Adapter;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.cache.SourceSidecar;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.catalog.catalogs.DocAdapterCatalog;
 import org.polypheny.db.catalog.entity.physical.PhysicalCollection;
 import org.polypheny.db.catalog.entity.physical.PhysicalEntity;
 import org.polypheny.db.plan.AlgCluster;
 import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.schema.document.DocumentPushdown;
+import org.polypheny.db.schema.types.FilterableCollection;
 import org.polypheny.db.schema.types.ScannableEntity;
 import org.polypheny.db.schema.types.TranslatableEntity;
 import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.util.Sources;
 
-final class XmlCollection extends PhysicalCollection implements ScannableEntity, TranslatableEntity {
+final class XmlCollection extends PhysicalCollection implements ScannableEntity, FilterableCollection, TranslatableEntity {
 
     private final URL url;
     private final Adapter<DocAdapterCatalog> adapter;
+    @Nullable
+    private final SourceSidecar sidecar;
 
 
     XmlCollection( URL url, PhysicalEntity collection, long allocationId, XmlNamespace namespace, Adapter<DocAdapterCatalog> adapter ) {
         super( collection.getId(), allocationId, collection.getLogicalId(), namespace.getId(), collection.getName(), namespace.getName(), adapter.getAdapterId() );
         this.url = url;
         this.adapter = adapter;
+        this.sidecar = adapter instanceof XmlSource source && source.isSidecarCache() && "file".equals( url.getProtocol() )
+                ? SourceSidecar.of( adapter.getAdapterId(), collection.getName(), Sources.of( url ).file() )
+                : null;
     }
 
 
@@ -56,11 +66,28 @@ public Expression asExpression() {
 
     @Override
     public Enumerable<PolyValue[]> scan( DataContext dataContext ) {
+        return scan( dataContext, DocumentPushdown.NONE );
+    }
+
+
+    /**
+     * Scans the documents of the file, converting only what the pushdown needs. The sidecar holds fully converted
+     * documents and is preferred when present, the operators above the scan apply the filter and project in any case.
+     */
+    @Override
+    public Enumerable<PolyValue[]> scan( DataContext dataContext, DocumentPushdown pushdown ) {
         dataContext.getStatement().getTransaction().registerInvolvedAdapter( adapter );
         return new AbstractEnumerable<>() {
             @Override
             public Enumerator<PolyValue[]> enumerator() {
-                return new XmlEnumerator( url );
+                if ( sidecar != null ) {
+                    Enumerator<PolyValue[]> enumerator = sidecar.open( new int[]{ 0 }, null, DataContext.Variable.CANCEL_FLAG.get( dataContext ) );
+                    if ( enumerator != null ) {
+                        return enumerator;
+                    }
+                    sidecar.scheduleBuild( () -> new XmlEnumerator( url ), 1, logicalId );
+                }
+                return new XmlEnumerator( url, pushdown );
             }
         };
     }
@@ -10,20 +10,29 @@
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.commons.codec.DecoderException;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.schema.document.DocumentPushdown;
 import org.polypheny.db.type.entity.PolyValue;
+import org.polypheny.db.type.entity.document.PolyDocument;
 
 final class XmlEnumerator implements Enumerator<PolyValue[]> {
 
     private final static XmlToPolyConverter CONVERTER = new XmlToPolyConverter();
 
     private final URL url;
+    private final DocumentPushdown pushdown;
     private XMLStreamReader reader;
     private String rootElementName;
     private PolyValue[] current;
 
 
     XmlEnumerator( URL url ) {
+        this( url, DocumentPushdown.NONE );
+    }
+
+
+    XmlEnumerator( URL url, DocumentPushdown pushdown ) {
         this.url = url;
+        this.pushdown = pushdown;
         initializeReader();
     }
 
@@ -61,21 +70,26 @@ public PolyValue[] current() {
     @Override
     public boolean moveNext() {
         try {
-            String documentOuterName = reader.getLocalName();
-            reader.next();
-            current = new PolyValue[]{ CONVERTER.toPolyDocument( reader, documentOuterName ) };
-            if ( !reader.hasNext() ) {
-                return false;
-            }
-            if ( reader.next() == XMLStreamConstants.END_ELEMENT && rootElementName.equals( reader.getLocalName() ) ) {
-                return false;
-            }
-            while ( reader.getEventType() != XMLStreamConstants.START_ELEMENT ) {
+            PolyDocument document;
+            do {
+                String documentOuterName = reader.getLocalName();
+                reader.next();
+                // documents dropped by the pushdown are skipped until one matches or the stream ends
+                document = CONVERTER.toPolyDocument( reader, documentOuterName, pushdown );
                 if ( !reader.hasNext() ) {
                     return false;
                 }
-                reader.next();
-            }
+                if ( reader.next() == XMLStreamConstants.END_ELEMENT && rootElementName.equals( reader.getLocalName() ) ) {
+                    return false;
+                }
+                while ( reader.getEventType() != XMLStreamConstants.START_ELEMENT ) {
+                    if ( !reader.hasNext() ) {
+                        return false;
+                    }
+                    reader.next();
+                }
+            } while ( document == null );
+            current = new PolyValue[]{ document };
             return true;
         } catch ( XMLStreamException | DecoderException e ) {
             throw new GenericRuntimeException( "Filed to get next document.", e );
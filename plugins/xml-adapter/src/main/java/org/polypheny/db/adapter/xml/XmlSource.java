@@ -24,6 +24,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import lombok.Getter;
 import lombok.experimental.Delegate;
 import org.pf4j.Extension;
 import org.polypheny.db.adapter.ConnectionMethod;
@@ -33,8 +34,10 @@
 import org.polypheny.db.adapter.DocumentScanDelegate;
 import org.polypheny.db.adapter.Scannable;
 import org.polypheny.db.adapter.annotations.AdapterProperties;
+import org.polypheny.db.adapter.annotations.AdapterSettingBoolean;
 import org.polypheny.db.adapter.annotations.AdapterSettingList;
 import org.polypheny.db.adapter.annotations.AdapterSettingString;
+import org.polypheny.db.adapter.cache.SourceSidecar;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.catalogs.AdapterCatalog;
 import org.polypheny.db.catalog.catalogs.DocAdapterCatalog;
@@ -66,6 +69,8 @@
 @AdapterSettingString(subOf = "method_link", defaultValue = "classpath://products.xml", name = "directoryName", description = "Path to the XML file(s) to be integrated as this source.", position = 2)
 @AdapterSettingString(subOf = "method_url", defaultValue = "http://localhost/cars.xml", name = "url", description = "URL to the XML file(s) to be integrated as this source.", position = 2)
 
+@AdapterSettingBoolean(name = "sidecarCache", defaultValue = false, position = 3,
+        description = "Keep a binary copy of the documents of every local file in the Polypheny home directory, which is read instead of the file as long as the file is not modified.")
 public class XmlSource extends DataSource<DocAdapterCatalog> implements DocumentDataSource, Scannable {
 
     private static final Logger log = LoggerFactory.getLogger( XmlSource.class );
@@ -74,12 +79,16 @@ public class XmlSource extends DataSource<DocAdapterCatalog> implements Document
     private XmlNamespace namespace;
     private final ConnectionMethod connectionMethod;
     private URL xmlFiles;
+    @Getter
+    private final boolean sidecarCache;
 
 
     public XmlSource( final long storeId, final String uniqueName, final Map<String, String> settings, DeployMode mode ) {
         super( storeId, uniqueName, settings, mode, true, new DocAdapterCatalog( storeId ), Set.of( DataModel.DOCUMENT ) );
         this.connectionMethod = settings.containsKey( "method" ) ? ConnectionMethod.from( settings.get( "method" ).toUpperCase() ) : ConnectionMethod.UPLOAD;
         this.xmlFiles = getXmlFilesUrl( settings );
+        // Adapters deployed before this setting existed do not have it
+        this.sidecarCache = Boolean.parseBoolean( settings.getOrDefault( "sidecarCache", "false" ) );
         this.delegate = new DocumentScanDelegate( this, getAdapterCatalog() );
         long namespaceId = Catalog.getInstance().createNamespace( uniqueName, DataModel.DOCUMENT, true, false );
         this.namespace = new XmlNamespace( uniqueName, namespaceId, getAdapterId() );
@@ -145,6 +154,7 @@ public Namespace getCurrentNamespace() {
     @Override
     public void shutdown() {
         removeInformationPage();
+        SourceSidecar.deleteAll( adapterId );
     }
 
 
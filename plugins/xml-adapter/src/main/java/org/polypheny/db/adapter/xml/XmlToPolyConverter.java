@@ -15,7 +15,9 @@
 import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
+import org.jetbrains.annotations.Nullable;
 import org.polypheny.db.catalog.exceptions.GenericRuntimeException;
+import org.polypheny.db.schema.document.DocumentPushdown;
 import org.polypheny.db.type.entity.PolyBinary;
 import org.polypheny.db.type.entity.PolyBoolean;
 import org.polypheny.db.type.entity.PolyList;
@@ -39,6 +41,61 @@ public PolyDocument toPolyDocument( XMLStreamReader reader, String elementOuterN
     }
 
 
+    /**
+     * Converts the document at the current position of the reader, converting only the top-level elements needed by
+     * the pushdown. All other elements, and every element following a failed predicate, are skipped without being
+     * converted.
+     *
+     * @return the document or {@code null} if it was dropped by the pushdown
+     */
+    @Nullable
+    public PolyDocument toPolyDocument( XMLStreamReader reader, String elementOuterName, DocumentPushdown pushdown ) throws XMLStreamException, DecoderException {
+        if ( pushdown.isEmpty() ) {
+            return toPolyDocument( reader, elementOuterName );
+        }
+        Map<PolyString, PolyValue> map = new HashMap<>();
+        boolean matches = true;
+        int event;
+        while ( reader.hasNext() ) {
+            if ( reader.getEventType() != XMLStreamConstants.START_ELEMENT ) {
+                event = reader.next();
+            } else {
+                event = reader.getEventType();
+            }
+            if ( event == XMLStreamConstants.START_ELEMENT ) {
+                String name = reader.getLocalName();
+                if ( !matches || !pushdown.needs( name ) ) {
+                    skipElement( reader );
+                    continue;
+                }
+                PolyValue value = toPolyValue( reader );
+                matches = pushdown.test( name, value );
+                if ( pushdown.keeps( name ) ) {
+                    map.put( new PolyString( name ), value );
+                }
+                continue;
+            }
+            if ( event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals( elementOuterName ) ) {
+                break;
+            }
+        }
+        return matches ? new PolyDocument( PolyMap.of( map ) ) : null;
+    }
+
+
+    private void skipElement( XMLStreamReader reader ) throws XMLStreamException {
+        int depth = 1;
+        while ( depth > 0 && reader.hasNext() ) {
+            int event = reader.next();
+            if ( event == XMLStreamConstants.START_ELEMENT ) {
+                depth++;
+            } else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                depth--;
+            }
+        }
+    }
+
+
     private PolyMap<PolyString, PolyValue> toPolyMap( XMLStreamReader reader, String elementOuterName ) throws XMLStreamException, DecoderException {
         Map<PolyString, PolyValue> map = new HashMap<>();
         int event;
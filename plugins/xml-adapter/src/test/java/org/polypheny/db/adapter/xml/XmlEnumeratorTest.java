@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-2025 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.schema.document.DocumentPushdown;
+import org.polypheny.db.schema.document.DocumentPushdown.Predicate;
+import org.polypheny.db.type.entity.PolyString;
+import org.polypheny.db.type.entity.document.PolyDocument;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
+
+/**
+ * Checks the fields and documents returned by an XML scan with a {@link DocumentPushdown}.
+ */
+public class XmlEnumeratorTest {
+
+    private static final String PEOPLE = "<people>\n"
+            + "  <person><id type=\"integer\">1</id><name>a</name><age type=\"integer\">20</age><address><city>Bern</city></address><tags><tag>x</tag></tags></person>\n"
+            + "  <person><id type=\"integer\">2</id><name>b</name><age type=\"integer\">35</age><address><city>Basel</city></address></person>\n"
+            + "  <person><id type=\"integer\">3</id><name>c</name><age>unknown</age><address>none</address></person>\n"
+            + "  <person><id type=\"integer\">4</id><name>d</name></person>\n"
+            + "</people>\n";
+
+    @TempDir
+    Path folder;
+
+
+    @BeforeAll
+    public static void setup() {
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void testProjection() throws IOException {
+        List<PolyDocument> all = read( DocumentPushdown.NONE );
+        List<PolyDocument> projected = read( DocumentPushdown.of( List.of( "id", "name" ) ) );
+        assertEquals( 4, projected.size() );
+        for ( int i = 0; i < projected.size(); i++ ) {
+            PolyDocument document = projected.get( i );
+            assertEquals( Set.of( "id", "name" ), document.keySet().stream().map( k -> k.asString().value ).collect( Collectors.toSet() ) );
+            assertEquals( all.get( i ).get( PolyString.of( "name" ) ), document.get( PolyString.of( "name" ) ) );
+        }
+    }
+
+
+    @Test
+    public void testFilter() throws IOException {
+        // documents whose value is missing or of another type cannot be decided and are kept
+        assertEquals( List.of( 2, 3, 4 ), ids( read( DocumentPushdown.of( null, new Predicate( List.of( "age" ), Kind.GREATER_THAN, PolyInteger.of( 30 ) ) ) ) ) );
+        assertEquals( List.of( 1, 3, 4 ), ids( read( DocumentPushdown.of( null, new Predicate( List.of( "address", "city" ), Kind.EQUALS, PolyString.of( "Bern" ) ) ) ) ) );
+        assertEquals( List.of( 2 ), ids( read( DocumentPushdown.of( null,
+                new Predicate( List.of( "id" ), Kind.GREATER_THAN_OR_EQUAL, PolyInteger.of( 2 ) ),
+                new Predicate( List.of( "name" ), Kind.LESS_THAN, PolyString.of( "c" ) ) ) ) ) );
+        // the tags are skipped unparsed after the first predicate failed
+        assertEquals( List.of(), ids( read( DocumentPushdown.of( null, new Predicate( List.of( "id" ), Kind.LESS_THAN, PolyInteger.of( 1 ) ) ) ) ) );
+    }
+
+
+    @Test
+    public void testProjectionAndFilter() throws IOException {
+        // the filtered field is parsed to evaluate the predicate, but it is not returned
+        List<PolyDocument> documents = read( DocumentPushdown.of( List.of( "name" ), new Predicate( List.of( "age" ), Kind.LESS_THAN, PolyInteger.of( 30 ) ) ) );
+        assertEquals( List.of( "a", "c", "d" ), documents.stream().map( d -> d.get( PolyString.of( "name" ) ).asString().value ).toList() );
+        documents.forEach( d -> assertEquals( 1, d.size() ) );
+    }
+
+
+    private List<PolyDocument> read( DocumentPushdown pushdown ) throws IOException {
+        Path file = folder.resolve( "people.xml" );
+        Files.writeString( file, PEOPLE );
+        URL url = file.toUri().toURL();
+        XmlEnumerator enumerator = new XmlEnumerator( url, pushdown );
+        List<PolyDocument> documents = new ArrayList<>();
+        while ( enumerator.moveNext() ) {
+            documents.add( enumerator.current()[0].asDocument() );
+        }
+        enumerator.close();
+        return documents;
+    }
+
+
+    private static List<Integer> ids( List<PolyDocument> documents ) {
+        return documents.stream().map( d -> d.get( PolyString.of( "id" ) ) ).map( v -> v.asNumber().intValue() ).toList();
+    }
+
+}
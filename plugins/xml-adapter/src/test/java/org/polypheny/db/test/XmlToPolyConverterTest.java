@@ -16,9 +16,12 @@
 package org.polypheny.db.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.StringReader;
+import java.util.List;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -27,10 +30,14 @@
 import org.junit.jupiter.api.Test;
 import org.polypheny.db.TestHelper;
 import org.polypheny.db.adapter.xml.XmlToPolyConverter;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.schema.document.DocumentPushdown;
+import org.polypheny.db.schema.document.DocumentPushdown.Predicate;
 import org.polypheny.db.type.entity.PolyList;
 import org.polypheny.db.type.entity.PolyString;
 import org.polypheny.db.type.entity.PolyValue;
 import org.polypheny.db.type.entity.document.PolyDocument;
+import org.polypheny.db.type.entity.numerical.PolyInteger;
 
 public class XmlToPolyConverterTest {
 
@@ -197,4 +204,44 @@ public void testHexBinary() throws XMLStreamException, DecoderException {
         assertEquals( "Hello, World!", new String( polyDoc.get( new PolyString( "binary" ) ).asBinary().getValue() ) );
     }
 
+
+    private static final String PERSON = "<doc>\n"
+            + "    <name>Maxine</name>\n"
+            + "    <address>\n"
+            + "        <city>Basel</city>\n"
+            + "    </address>\n"
+            + "    <age type=\"integer\">42</age>\n"
+            + "</doc>\n";
+
+
+    private PolyDocument readPerson( DocumentPushdown pushdown ) throws XMLStreamException, DecoderException {
+        XMLStreamReader reader = XMLInputFactory.newDefaultFactory().createXMLStreamReader( new StringReader( PERSON ) );
+        reader.next();
+        reader.next();
+        return converter.toPolyDocument( reader, "doc", pushdown );
+    }
+
+
+    @Test
+    public void testPushdownPrunesFields() throws XMLStreamException, DecoderException {
+        PolyDocument polyDoc = readPerson( DocumentPushdown.of( List.of( "_id", "name" ) ) );
+        assertNotNull( polyDoc );
+        assertEquals( 1, polyDoc.size() );
+        assertEquals( "Maxine", polyDoc.get( new PolyString( "name" ) ).asString().getValue() );
+    }
+
+
+    @Test
+    public void testPushdownFiltersDocuments() throws XMLStreamException, DecoderException {
+        assertNull( readPerson( DocumentPushdown.of( null, new Predicate( List.of( "age" ), Kind.GREATER_THAN, PolyInteger.of( 50 ) ) ) ) );
+        assertNull( readPerson( DocumentPushdown.of( null, new Predicate( List.of( "address", "city" ), Kind.EQUALS, PolyString.of( "Bern" ) ) ) ) );
+
+        PolyDocument polyDoc = readPerson( DocumentPushdown.of( List.of( "name" ), new Predicate( List.of( "age" ), Kind.LESS_THAN_OR_EQUAL, PolyInteger.of( 42 ) ) ) );
+        assertNotNull( polyDoc );
+        assertEquals( 1, polyDoc.size() );
+
+        // predicates on values of another type cannot be decided and keep the document
+        assertNotNull( readPerson( DocumentPushdown.of( null, new Predicate( List.of( "name" ), Kind.EQUALS, PolyInteger.of( 1 ) ) ) ) );
+    }
+
 }